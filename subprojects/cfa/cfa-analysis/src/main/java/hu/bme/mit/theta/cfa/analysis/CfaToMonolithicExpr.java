@@ -0,0 +1,124 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.cfa.analysis;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static hu.bme.mit.theta.core.decl.Decls.Var;
+import static hu.bme.mit.theta.core.stmt.Stmts.Assign;
+import static hu.bme.mit.theta.core.stmt.Stmts.Assume;
+import static hu.bme.mit.theta.core.stmt.Stmts.NonDetStmt;
+import static hu.bme.mit.theta.core.stmt.Stmts.SequenceStmt;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.False;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Eq;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Neq;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import hu.bme.mit.theta.analysis.expl.ExplState;
+import hu.bme.mit.theta.analysis.expr.MonolithicExpr;
+import hu.bme.mit.theta.cfa.CFA;
+import hu.bme.mit.theta.cfa.CFA.Edge;
+import hu.bme.mit.theta.cfa.CFA.Loc;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.model.MutableValuation;
+import hu.bme.mit.theta.core.model.Valuation;
+import hu.bme.mit.theta.core.stmt.AssumeStmt;
+import hu.bme.mit.theta.core.stmt.Stmt;
+import hu.bme.mit.theta.core.type.inttype.IntLitExpr;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+import hu.bme.mit.theta.core.utils.ExprUtils;
+
+/**
+ * The monolithic description of a CFA, where the location is encoded by an explicit program
+ * counter variable. A step of the transition relation is one of the edges: it requires the
+ * program counter to be the source of the edge, executes the statement of the edge and sets
+ * the program counter to the target. The property is that the error location is not reached.
+ */
+public final class CfaToMonolithicExpr {
+
+	private final List<Loc> locs;
+	private final VarDecl<IntType> pc;
+	private final MonolithicExpr monolithicExpr;
+
+	private CfaToMonolithicExpr(final CFA cfa, final Loc errLoc) {
+		checkNotNull(cfa);
+		checkArgument(cfa.getLocs().contains(errLoc), "Error location is not in the CFA");
+		this.locs = new ArrayList<>(cfa.getLocs());
+		this.pc = Var("__pc", Int());
+		final Map<Loc, Integer> locIds = new HashMap<>();
+		for (final Loc loc : locs) {
+			locIds.put(loc, locIds.size());
+		}
+
+		final List<Stmt> steps = new ArrayList<>();
+		for (final Edge edge : cfa.getEdges()) {
+			steps.add(SequenceStmt(List.of(Assume(Eq(pc.getRef(), Int(locIds.get(edge.getSource())))),
+					edge.getStmt(), Assign(pc, Int(locIds.get(edge.getTarget()))))));
+		}
+		final List<VarDecl<?>> vars = new ArrayList<>(cfa.getVars());
+		vars.add(pc);
+		monolithicExpr = MonolithicExpr.create(Eq(pc.getRef(), Int(locIds.get(cfa.getInitLoc()))),
+				NonDetStmt(steps), Neq(pc.getRef(), Int(locIds.get(errLoc))), vars);
+	}
+
+	public static CfaToMonolithicExpr create(final CFA cfa, final Loc errLoc) {
+		return new CfaToMonolithicExpr(cfa, errLoc);
+	}
+
+	public MonolithicExpr getMonolithicExpr() {
+		return monolithicExpr;
+	}
+
+	public CfaState<ExplState> toState(final Valuation val) {
+		final MutableValuation stateVal = MutableValuation.copyOf(val).remove(pc);
+		return CfaState.of(getLoc(val), ExplState.of(stateVal));
+	}
+
+	/**
+	 * The action of a step is an edge between the locations before and after the step. If
+	 * there are multiple such edges, the first one is chosen that is not an assumption
+	 * evaluating to false before the step.
+	 */
+	public CfaAction toAction(final Valuation before, final Valuation after) {
+		final Loc source = getLoc(before);
+		final Loc target = getLoc(after);
+		Edge result = null;
+		for (final Edge edge : source.getOutEdges()) {
+			if (edge.getTarget().equals(target)) {
+				if (result == null) {
+					result = edge;
+				}
+				final Stmt stmt = edge.getStmt();
+				if (!(stmt instanceof AssumeStmt) || !ExprUtils.simplify(((AssumeStmt) stmt).getCond(), before).equals(False())) {
+					result = edge;
+					break;
+				}
+			}
+		}
+		checkArgument(result != null, "No edge from " + source + " to " + target);
+		return CfaAction.create(result);
+	}
+
+	private Loc getLoc(final Valuation val) {
+		return locs.get(((IntLitExpr) val.eval(pc).orElseThrow()).getValue().intValue());
+	}
+
+}
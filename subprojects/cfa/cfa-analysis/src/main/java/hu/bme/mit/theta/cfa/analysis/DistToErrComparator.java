@@ -18,26 +18,27 @@ package hu.bme.mit.theta.cfa.analysis;
 import static com.google.common.base.Preconditions.checkArgument;
 
 import hu.bme.mit.theta.common.container.Containers;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.Collections;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 import hu.bme.mit.theta.analysis.Action;
 import hu.bme.mit.theta.analysis.State;
 import hu.bme.mit.theta.analysis.algorithm.ArgNode;
-import hu.bme.mit.theta.analysis.algorithm.ArgNodeComparators.ArgNodeComparator;
+import hu.bme.mit.theta.analysis.algorithm.ArgNodeComparators.RankingArgNodeComparator;
+import hu.bme.mit.theta.analysis.utils.DistanceTable;
 import hu.bme.mit.theta.cfa.CFA;
 import hu.bme.mit.theta.cfa.CFA.Edge;
 import hu.bme.mit.theta.cfa.CFA.Loc;
 
 /**
  * A comparator for ArgNodes that is based on the distance from the error
- * location.
+ * location. The distances are computed once (on first use) for all locations.
  */
-public class DistToErrComparator implements ArgNodeComparator {
+public class DistToErrComparator implements RankingArgNodeComparator {
 	private static final long serialVersionUID = -6915823336852930450L;
 
-	private Map<Loc, Integer> distancesToError;
+	private transient DistanceTable<Loc> distancesToError;
 	private final int errorWeight;
 	private final int depthWeight;
 	private final CFA cfa;
@@ -56,19 +57,11 @@ public class DistToErrComparator implements ArgNodeComparator {
 	}
 
 	@Override
-	public int compare(final ArgNode<? extends State, ? extends Action> n1,
-					   final ArgNode<? extends State, ? extends Action> n2) {
-		final int dist1 = getWeightedDistance(n1);
-		final int dist2 = getWeightedDistance(n2);
-
-		return Integer.compare(dist1, dist2);
-	}
-
-	private int getWeightedDistance(final ArgNode<? extends State, ? extends Action> node) {
+	public int rank(final ArgNode<? extends State, ? extends Action> node) {
 		checkArgument(node.getState() instanceof CfaState, "CfaState expected.");
 		final CfaState<?> state = (CfaState<?>) node.getState();
 		final int distanceToError = getDistanceToError(state.getLoc());
-		if (distanceToError == Integer.MAX_VALUE) {
+		if (distanceToError == DistanceTable.INFINITE) {
 			return distanceToError;
 		}
 		return errorWeight * distanceToError + depthWeight * node.getDepth();
@@ -76,33 +69,25 @@ public class DistToErrComparator implements ArgNodeComparator {
 
 	private int getDistanceToError(final Loc loc) {
 		if (distancesToError == null) {
-			distancesToError = calculateDistancesToError(cfa, errLoc);
+			distancesToError = createDistanceTable(errLoc);
 		}
-		return distancesToError.getOrDefault(loc, Integer.MAX_VALUE);
+		return distancesToError.getDistance(loc);
+	}
+
+	private static DistanceTable<Loc> createDistanceTable(final Loc errLoc) {
+		return DistanceTable.create(Collections.singleton(errLoc),
+				loc -> loc.getInEdges().stream().map(Edge::getSource).collect(Collectors.toList()));
 	}
 
 	static Map<Loc, Integer> calculateDistancesToError(final CFA cfa, final Loc errLoc) {
-		List<Loc> queue = new LinkedList<>();
+		final DistanceTable<Loc> table = createDistanceTable(errLoc);
 		final Map<Loc, Integer> distancesToError = Containers.createMap();
-		queue.add(errLoc);
-		distancesToError.put(errLoc, 0);
-		int distance = 1;
-
-		while (!queue.isEmpty()) {
-			final List<Loc> predecessors = new LinkedList<>();
-			for (final Loc loc : queue) {
-				for (final Edge inEdge : loc.getInEdges()) {
-					final Loc predecessor = inEdge.getSource();
-					if (!distancesToError.containsKey(predecessor)) {
-						distancesToError.put(predecessor, distance);
-						predecessors.add(predecessor);
-					}
-				}
+		for (final Loc loc : cfa.getLocs()) {
+			final int distance = table.getDistance(loc);
+			if (distance != DistanceTable.INFINITE) {
+				distancesToError.put(loc, distance);
 			}
-			queue = predecessors;
-			++distance;
 		}
-
 		return distancesToError;
 	}
 
@@ -110,4 +95,4 @@ public class DistToErrComparator implements ArgNodeComparator {
 	public String toString() {
 		return getClass().getSimpleName();
 	}
-}
\ No newline at end of file
+}
@@ -15,28 +15,58 @@
  */
 package hu.bme.mit.theta.cfa.analysis.config;
 
+import com.google.common.collect.ImmutableList;
 import hu.bme.mit.theta.analysis.Action;
 import hu.bme.mit.theta.analysis.Prec;
 import hu.bme.mit.theta.analysis.State;
 import hu.bme.mit.theta.analysis.algorithm.SafetyChecker;
 import hu.bme.mit.theta.analysis.algorithm.SafetyResult;
 
-public final class CfaConfig<S extends State, A extends Action, P extends Prec> {
+import java.util.Collection;
+
+public final class CfaConfig<S extends State, A extends Action, P extends Prec> implements AutoCloseable {
 	private final SafetyChecker<S, A, P> checker;
 	private final P initPrec;
+	private final Collection<AutoCloseable> resources;
 
-	private CfaConfig(final SafetyChecker<S, A, P> checker, final P initPrec) {
+	private CfaConfig(final SafetyChecker<S, A, P> checker, final P initPrec,
+			   final Collection<? extends AutoCloseable> resources) {
 		this.checker = checker;
 		this.initPrec = initPrec;
+		this.resources = ImmutableList.copyOf(resources);
 	}
 
 	public static <S extends State, A extends Action, P extends Prec> CfaConfig<S, A, P> create(
 			final SafetyChecker<S, A, P> checker, final P initPrec) {
-		return new CfaConfig<>(checker, initPrec);
+		return new CfaConfig<>(checker, initPrec, ImmutableList.of());
+	}
+
+	/**
+	 * Create a configuration that owns the given resources (e.g., solvers and threads used by
+	 * the checker), which are released when the configuration is closed.
+	 */
+	public static <S extends State, A extends Action, P extends Prec> CfaConfig<S, A, P> create(
+			final SafetyChecker<S, A, P> checker, final P initPrec,
+			final Collection<? extends AutoCloseable> resources) {
+		return new CfaConfig<>(checker, initPrec, resources);
 	}
 
 	public SafetyResult<S, A> check() {
 		return checker.check(initPrec);
 	}
 
+	/**
+	 * Release the resources owned by the configuration, it cannot be checked afterwards.
+	 */
+	@Override
+	public void close() {
+		for (final AutoCloseable resource : resources) {
+			try {
+				resource.close();
+			} catch (final Exception e) {
+				// The resource is dropped anyway
+			}
+		}
+	}
+
 }
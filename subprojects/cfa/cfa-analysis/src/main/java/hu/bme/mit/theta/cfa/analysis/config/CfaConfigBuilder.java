@@ -20,29 +20,39 @@ import hu.bme.mit.theta.analysis.Analysis;
 import hu.bme.mit.theta.analysis.Prec;
 import hu.bme.mit.theta.analysis.State;
 import hu.bme.mit.theta.analysis.algorithm.ArgBuilder;
+import hu.bme.mit.theta.analysis.algorithm.ArgNode;
 import hu.bme.mit.theta.analysis.algorithm.ArgNodeComparators;
 import hu.bme.mit.theta.analysis.algorithm.ArgNodeComparators.ArgNodeComparator;
 import hu.bme.mit.theta.analysis.algorithm.SafetyChecker;
 import hu.bme.mit.theta.analysis.algorithm.cegar.Abstractor;
 import hu.bme.mit.theta.analysis.algorithm.cegar.BasicAbstractor;
 import hu.bme.mit.theta.analysis.algorithm.cegar.CegarChecker;
+import hu.bme.mit.theta.analysis.algorithm.cegar.FilePrecCheckpointer;
+import hu.bme.mit.theta.analysis.algorithm.cegar.PrecCheckpointer;
+import hu.bme.mit.theta.analysis.algorithm.cegar.PrecCodec;
+import hu.bme.mit.theta.analysis.algorithm.cegar.PrecCodecs;
+import hu.bme.mit.theta.analysis.algorithm.cegar.PrecStore;
 import hu.bme.mit.theta.analysis.algorithm.cegar.Refiner;
 import hu.bme.mit.theta.analysis.algorithm.cegar.abstractor.StopCriterions;
+import hu.bme.mit.theta.analysis.algorithm.kind.KIndChecker;
 import hu.bme.mit.theta.analysis.expl.ExplPrec;
 import hu.bme.mit.theta.analysis.expl.ExplState;
 import hu.bme.mit.theta.analysis.expl.ExplStmtAnalysis;
 import hu.bme.mit.theta.analysis.expl.ItpRefToExplPrec;
 import hu.bme.mit.theta.analysis.expl.VarsRefToExplPrec;
 import hu.bme.mit.theta.analysis.expr.ExprState;
+import hu.bme.mit.theta.analysis.expr.MonolithicExpr;
 import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceBwBinItpChecker;
 import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceChecker;
 import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceFwBinItpChecker;
 import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceNewtonChecker;
 import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceSeqItpChecker;
+import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceSlicingItpChecker;
 import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceUCBChecker;
 import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceUnsatCoreChecker;
 import hu.bme.mit.theta.analysis.expr.refinement.ItpRefutation;
 import hu.bme.mit.theta.analysis.expr.refinement.MultiExprTraceRefiner;
+import hu.bme.mit.theta.analysis.expr.refinement.ParallelExprTraceRefiner;
 import hu.bme.mit.theta.analysis.expr.refinement.PrecRefiner;
 import hu.bme.mit.theta.analysis.expr.refinement.PruneStrategy;
 import hu.bme.mit.theta.analysis.expr.refinement.Refutation;
@@ -56,18 +66,21 @@ import hu.bme.mit.theta.analysis.pred.PredAbstractors.PredAbstractor;
 import hu.bme.mit.theta.analysis.pred.PredAnalysis;
 import hu.bme.mit.theta.analysis.pred.PredPrec;
 import hu.bme.mit.theta.analysis.pred.PredState;
-import hu.bme.mit.theta.analysis.waitlist.PriorityWaitlist;
+import hu.bme.mit.theta.analysis.unit.UnitPrec;
+import hu.bme.mit.theta.analysis.waitlist.Waitlist;
 import hu.bme.mit.theta.cfa.CFA;
 import hu.bme.mit.theta.cfa.analysis.CfaAction;
 import hu.bme.mit.theta.cfa.analysis.CfaAnalysis;
 import hu.bme.mit.theta.cfa.analysis.CfaInitPrecs;
 import hu.bme.mit.theta.cfa.analysis.CfaPrec;
 import hu.bme.mit.theta.cfa.analysis.CfaState;
+import hu.bme.mit.theta.cfa.analysis.CfaToMonolithicExpr;
 import hu.bme.mit.theta.cfa.analysis.DistToErrComparator;
 import hu.bme.mit.theta.cfa.analysis.lts.CfaCachedLts;
 import hu.bme.mit.theta.cfa.analysis.lts.CfaLbeLts;
 import hu.bme.mit.theta.cfa.analysis.lts.CfaLts;
 import hu.bme.mit.theta.cfa.analysis.lts.CfaSbeLts;
+import hu.bme.mit.theta.cfa.analysis.prec.CfaPrecCodecs;
 import hu.bme.mit.theta.cfa.analysis.prec.GlobalCfaPrec;
 import hu.bme.mit.theta.cfa.analysis.prec.GlobalCfaPrecRefiner;
 import hu.bme.mit.theta.cfa.analysis.prec.LocalCfaPrec;
@@ -83,21 +96,38 @@ import hu.bme.mit.theta.core.utils.ExprUtils;
 import hu.bme.mit.theta.core.utils.StmtUtils;
 import hu.bme.mit.theta.solver.Solver;
 import hu.bme.mit.theta.solver.SolverFactory;
+import hu.bme.mit.theta.solver.metrics.MeasuredSolverFactory;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.BinaryOperator;
 import java.util.stream.Collectors;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Not;
 import static hu.bme.mit.theta.core.type.booltype.BoolExprs.True;
 
 public class CfaConfigBuilder {
+	/**
+	 * The algorithm used for the verification. The settings of the builder only apply to
+	 * {@link #CEGAR}, {@link #KIND} is k-induction over a monolithic encoding of the CFA with an
+	 * explicit program counter.
+	 */
+	public enum Engine {
+		CEGAR, KIND
+	}
+
 	public enum Domain {
 		EXPL, PRED_BOOL, PRED_CART, PRED_SPLIT
 	}
 
 	public enum Refinement {
-		FW_BIN_ITP, BW_BIN_ITP, SEQ_ITP, MULTI_SEQ, UNSAT_CORE, UCB,
+		FW_BIN_ITP, BW_BIN_ITP, SEQ_ITP, SLICED_SEQ_ITP, MULTI_SEQ, PARALLEL_SEQ, UNSAT_CORE, UCB,
 		NWT_WP, NWT_SP, NWT_WP_LV, NWT_SP_LV, NWT_IT_WP, NWT_IT_SP, NWT_IT_WP_LV, NWT_IT_SP_LV
 	}
 
@@ -125,6 +155,10 @@ public class CfaConfigBuilder {
 
 		public abstract ArgNodeComparator getComp(CFA cfa, CFA.Loc errLoc);
 
+		public <S extends State, A extends Action> Waitlist<ArgNode<S, A>> createWaitlist(final CFA cfa, final CFA.Loc errLoc) {
+			return ArgNodeComparators.createWaitlist(getComp(cfa, errLoc));
+		}
+
 	}
 
 	public enum PredSplit {
@@ -153,6 +187,18 @@ public class CfaConfigBuilder {
 					final RefutationToPrec<P, R> refToPrec) {
 				return GlobalCfaPrecRefiner.create(refToPrec);
 			}
+
+			@Override
+			public <P extends Prec> PrecCodec<CfaPrec<P>> createPrecCodec(final CFA cfa, final PrecCodec<P> innerCodec) {
+				return CfaPrecCodecs.global(innerCodec);
+			}
+
+			@Override
+			public <P extends Prec> CfaPrec<P> join(final CfaPrec<P> prec1, final CfaPrec<P> prec2,
+													final BinaryOperator<P> innerJoin) {
+				checkArgument(prec1 instanceof GlobalCfaPrec && prec2 instanceof GlobalCfaPrec, "Global precisions expected");
+				return ((GlobalCfaPrec<P>) prec1).join((GlobalCfaPrec<P>) prec2, innerJoin);
+			}
 		},
 
 		LOCAL {
@@ -166,12 +212,28 @@ public class CfaConfigBuilder {
 					final RefutationToPrec<P, R> refToPrec) {
 				return LocalCfaPrecRefiner.create(refToPrec);
 			}
+
+			@Override
+			public <P extends Prec> PrecCodec<CfaPrec<P>> createPrecCodec(final CFA cfa, final PrecCodec<P> innerCodec) {
+				return CfaPrecCodecs.local(cfa, innerCodec);
+			}
+
+			@Override
+			public <P extends Prec> CfaPrec<P> join(final CfaPrec<P> prec1, final CfaPrec<P> prec2,
+													final BinaryOperator<P> innerJoin) {
+				checkArgument(prec1 instanceof LocalCfaPrec && prec2 instanceof LocalCfaPrec, "Local precisions expected");
+				return ((LocalCfaPrec<P>) prec1).join((LocalCfaPrec<P>) prec2, innerJoin);
+			}
 		};
 
 		public abstract <P extends Prec> CfaPrec<P> createPrec(P innerPrec);
 
+		public abstract <P extends Prec> CfaPrec<P> join(CfaPrec<P> prec1, CfaPrec<P> prec2, BinaryOperator<P> innerJoin);
+
 		public abstract <S extends ExprState, A extends Action, P extends Prec, R extends Refutation> PrecRefiner<CfaState<S>, A, CfaPrec<P>, R> createRefiner(
 				RefutationToPrec<P, R> refToPrec);
+
+		public abstract <P extends Prec> PrecCodec<CfaPrec<P>> createPrecCodec(CFA cfa, PrecCodec<P> innerCodec);
 	}
 
 	public enum Encoding {
@@ -197,6 +259,7 @@ public class CfaConfigBuilder {
 	}
 
 	private Logger logger = NullLogger.getInstance();
+	private Engine engine = Engine.CEGAR;
 	private final SolverFactory abstractionSolverFactory;
 	private final SolverFactory refinementSolverFactory;
 	private final Domain domain;
@@ -208,6 +271,15 @@ public class CfaConfigBuilder {
 	private int maxEnum = 0;
 	private InitPrec initPrec = InitPrec.EMPTY;
 	private PruneStrategy pruneStrategy = PruneStrategy.LAZY;
+	private boolean incrementalAbstraction = false;
+	private int abstractionParallelism = 1;
+	private int refinementParallelism = Runtime.getRuntime().availableProcessors();
+	private boolean parallelProjection = false;
+	private final List<AutoCloseable> resources = new ArrayList<>();
+	private String precCheckpoint = null;
+	private String warmStart = null;
+	private PrecStore precStore = null;
+	private String modelName = null;
 
 	public CfaConfigBuilder(final Domain domain, final Refinement refinement, final SolverFactory solverFactory) {
 		this.domain = domain;
@@ -228,6 +300,11 @@ public class CfaConfigBuilder {
 		return this;
 	}
 
+	public CfaConfigBuilder engine(final Engine engine) {
+		this.engine = engine;
+		return this;
+	}
+
 	public CfaConfigBuilder search(final Search search) {
 		this.search = search;
 		return this;
@@ -263,7 +340,80 @@ public class CfaConfigBuilder {
 		return this;
 	}
 
+	/**
+	 * Use the incremental variants of the Boolean predicate abstractors, which keep the
+	 * predicate definitions permanently asserted in the abstraction solver.
+	 */
+	public CfaConfigBuilder incrementalAbstraction(final boolean incrementalAbstraction) {
+		this.incrementalAbstraction = incrementalAbstraction;
+		return this;
+	}
+
+	/**
+	 * Number of solvers (and threads) used concurrently by the Cartesian predicate abstractor.
+	 */
+	public CfaConfigBuilder abstractionParallelism(final int abstractionParallelism) {
+		checkArgument(abstractionParallelism > 0, "Parallelism must be positive");
+		this.abstractionParallelism = abstractionParallelism;
+		return this;
+	}
+
+	/**
+	 * Number of solvers (and threads) used concurrently by the {@link Refinement#PARALLEL_SEQ}
+	 * refinement for checking counterexamples, defaults to the number of processors.
+	 */
+	public CfaConfigBuilder refinementParallelism(final int refinementParallelism) {
+		checkArgument(refinementParallelism > 0, "Parallelism must be positive");
+		this.refinementParallelism = refinementParallelism;
+		return this;
+	}
+
+	/**
+	 * Compute the live-variable projections of the Newton refinements (the NWT_*_LV ones)
+	 * for the positions of the counterexample in parallel.
+	 */
+	public CfaConfigBuilder parallelProjection(final boolean parallelProjection) {
+		this.parallelProjection = parallelProjection;
+		return this;
+	}
+
+	/**
+	 * Save the precision to this file whenever it is refined.
+	 */
+	public CfaConfigBuilder precCheckpoint(final String precCheckpoint) {
+		this.precCheckpoint = precCheckpoint;
+		return this;
+	}
+
+	/**
+	 * Start from the precision saved in this file (if it exists) instead of the initial
+	 * precision. Using the checkpoint file of an interrupted run resumes that run, using the
+	 * final precision of a finished run usually converges in a single iteration.
+	 */
+	public CfaConfigBuilder warmStart(final String warmStart) {
+		this.warmStart = warmStart;
+		return this;
+	}
+
+	/**
+	 * Extend the initial precision with the precision stored for the model in this directory
+	 * (if there is one), and keep the stored precision up to date with the refinements.
+	 * Models are identified by their name (e.g., the path of the model file), so the stored
+	 * precision is also used if the property changes, see {@link PrecStore}.
+	 */
+	public CfaConfigBuilder precStore(final String precStoreDir, final String modelName) {
+		checkArgument(precStoreDir == null || modelName != null, "Models in a precision store need a name");
+		this.precStore = precStoreDir == null ? null : PrecStore.create(precStoreDir);
+		this.modelName = modelName;
+		return this;
+	}
+
 	public CfaConfig<? extends State, ? extends Action, ? extends Prec> build(final CFA cfa, final CFA.Loc errLoc) {
+		final SolverFactory abstractionSolverFactory = MeasuredSolverFactory.wrap(this.abstractionSolverFactory, "abstraction");
+		final SolverFactory refinementSolverFactory = MeasuredSolverFactory.wrap(this.refinementSolverFactory, "refinement");
+		if (engine == Engine.KIND) {
+			return buildKInd(cfa, errLoc, abstractionSolverFactory, refinementSolverFactory);
+		}
 		final CfaLts lts = encoding.getLts(errLoc);
 
 		if (domain == Domain.EXPL) {
@@ -273,8 +423,8 @@ public class CfaConfigBuilder {
 					analysis, s -> s.getLoc().equals(errLoc), true);
 			final Abstractor<CfaState<ExplState>, CfaAction, CfaPrec<ExplPrec>> abstractor = BasicAbstractor
 					.builder(argBuilder).projection(CfaState::getLoc)
-					.waitlist(PriorityWaitlist.create(search.getComp(cfa, errLoc)))
-					.stopCriterion(refinement == Refinement.MULTI_SEQ ? StopCriterions.fullExploration()
+					.waitlist(search.createWaitlist(cfa, errLoc))
+					.stopCriterion(refinement == Refinement.MULTI_SEQ || refinement == Refinement.PARALLEL_SEQ ? StopCriterions.fullExploration()
 							: StopCriterions.firstCex()).logger(logger).build();
 
 			Refiner<CfaState<ExplState>, CfaAction, CfaPrec<ExplPrec>> refiner;
@@ -292,10 +442,18 @@ public class CfaConfigBuilder {
 					refiner = SingleExprTraceRefiner.create(ExprTraceSeqItpChecker.create(True(), True(), refinementSolverFactory.createItpSolver()),
 							precGranularity.createRefiner(new ItpRefToExplPrec()), pruneStrategy, logger);
 					break;
+				case SLICED_SEQ_ITP:
+					refiner = SingleExprTraceRefiner.create(ExprTraceSlicingItpChecker.create(True(), True(), refinementSolverFactory.createItpSolver()),
+							precGranularity.createRefiner(new ItpRefToExplPrec()), pruneStrategy, logger);
+					break;
 				case MULTI_SEQ:
 					refiner = MultiExprTraceRefiner.create(ExprTraceSeqItpChecker.create(True(), True(), refinementSolverFactory.createItpSolver()),
 							precGranularity.createRefiner(new ItpRefToExplPrec()), pruneStrategy, logger);
 					break;
+				case PARALLEL_SEQ:
+					refiner = own(ParallelExprTraceRefiner.create(createSeqItpCheckers(True(), True(), refinementSolverFactory),
+							precGranularity.createRefiner(new ItpRefToExplPrec()), pruneStrategy, logger));
+					break;
 				case UNSAT_CORE:
 					refiner = SingleExprTraceRefiner.create(ExprTraceUnsatCoreChecker.create(True(), True(), refinementSolverFactory.createUCSolver()),
 							precGranularity.createRefiner(new VarsRefToExplPrec()), pruneStrategy, logger);
@@ -322,7 +480,7 @@ public class CfaConfigBuilder {
 					break;
 				case NWT_SP_LV:
 					refiner = SingleExprTraceRefiner.create(
-							ExprTraceNewtonChecker.create(True(), True(), refinementSolverFactory.createUCSolver()).withoutIT().withSP().withLV(),
+							createNewtonLV(ExprTraceNewtonChecker.create(True(), True(), refinementSolverFactory.createUCSolver()).withoutIT().withSP()),
 							precGranularity.createRefiner(new ItpRefToExplPrec()),
 							pruneStrategy,
 							logger
@@ -330,7 +488,7 @@ public class CfaConfigBuilder {
 					break;
 				case NWT_WP_LV:
 					refiner = SingleExprTraceRefiner.create(
-							ExprTraceNewtonChecker.create(True(), True(), refinementSolverFactory.createUCSolver()).withoutIT().withWP().withLV(),
+							createNewtonLV(ExprTraceNewtonChecker.create(True(), True(), refinementSolverFactory.createUCSolver()).withoutIT().withWP()),
 							precGranularity.createRefiner(new ItpRefToExplPrec()),
 							pruneStrategy,
 							logger
@@ -354,7 +512,7 @@ public class CfaConfigBuilder {
 					break;
 				case NWT_IT_SP_LV:
 					refiner = SingleExprTraceRefiner.create(
-							ExprTraceNewtonChecker.create(True(), True(), refinementSolverFactory.createUCSolver()).withIT().withSP().withLV(),
+							createNewtonLV(ExprTraceNewtonChecker.create(True(), True(), refinementSolverFactory.createUCSolver()).withIT().withSP()),
 							precGranularity.createRefiner(new ItpRefToExplPrec()),
 							pruneStrategy,
 							logger
@@ -362,7 +520,7 @@ public class CfaConfigBuilder {
 					break;
 				case NWT_IT_WP_LV:
 					refiner = SingleExprTraceRefiner.create(
-							ExprTraceNewtonChecker.create(True(), True(), refinementSolverFactory.createUCSolver()).withIT().withWP().withLV(),
+							createNewtonLV(ExprTraceNewtonChecker.create(True(), True(), refinementSolverFactory.createUCSolver()).withIT().withWP()),
 							precGranularity.createRefiner(new ItpRefToExplPrec()),
 							pruneStrategy,
 							logger
@@ -373,8 +531,10 @@ public class CfaConfigBuilder {
 							domain + " domain does not support " + refinement + " refinement.");
 			}
 
+			final PrecCodec<CfaPrec<ExplPrec>> precCodec = precGranularity.createPrecCodec(cfa,
+					PrecCodecs.expl(cfa.getVars()));
 			final SafetyChecker<CfaState<ExplState>, CfaAction, CfaPrec<ExplPrec>> checker = CegarChecker
-					.create(abstractor, refiner, logger);
+					.create(abstractor, refiner, logger, createCheckpointer(precCodec));
 
 			CfaPrec<ExplPrec> prec;
 
@@ -390,20 +550,23 @@ public class CfaConfigBuilder {
 							domain + " domain");
 			}
 
-			return CfaConfig.create(checker, prec);
+			return CfaConfig.create(checker, createInitPrec(precCodec, prec, ExplPrec::join), takeResources());
 
 		} else if (domain == Domain.PRED_BOOL || domain == Domain.PRED_CART || domain == Domain.PRED_SPLIT) {
 			final Solver analysisSolver = abstractionSolverFactory.createSolver();
 			PredAbstractor predAbstractor;
 			switch (domain) {
 				case PRED_BOOL:
-					predAbstractor = PredAbstractors.booleanAbstractor(analysisSolver);
+					predAbstractor = incrementalAbstraction ? PredAbstractors.incrementalBooleanAbstractor(analysisSolver, false)
+							: PredAbstractors.booleanAbstractor(analysisSolver);
 					break;
 				case PRED_SPLIT:
-					predAbstractor = PredAbstractors.booleanSplitAbstractor(analysisSolver);
+					predAbstractor = incrementalAbstraction ? PredAbstractors.incrementalBooleanSplitAbstractor(analysisSolver)
+							: PredAbstractors.booleanSplitAbstractor(analysisSolver);
 					break;
 				case PRED_CART:
-					predAbstractor = PredAbstractors.cartesianAbstractor(analysisSolver);
+					predAbstractor = abstractionParallelism > 1 ? own(PredAbstractors.parallelCartesianAbstractor(abstractionSolverFactory, abstractionParallelism))
+							: PredAbstractors.cartesianAbstractor(analysisSolver);
 					break;
 				default:
 					throw new UnsupportedOperationException(domain + " domain is not supported.");
@@ -414,8 +577,8 @@ public class CfaConfigBuilder {
 					analysis, s -> s.getLoc().equals(errLoc), true);
 			final Abstractor<CfaState<PredState>, CfaAction, CfaPrec<PredPrec>> abstractor = BasicAbstractor
 					.builder(argBuilder).projection(CfaState::getLoc)
-					.waitlist(PriorityWaitlist.create(search.getComp(cfa, errLoc)))
-					.stopCriterion(refinement == Refinement.MULTI_SEQ ? StopCriterions.fullExploration()
+					.waitlist(search.createWaitlist(cfa, errLoc))
+					.stopCriterion(refinement == Refinement.MULTI_SEQ || refinement == Refinement.PARALLEL_SEQ ? StopCriterions.fullExploration()
 							: StopCriterions.firstCex()).logger(logger).build();
 
 			ExprTraceChecker<ItpRefutation> exprTraceChecker;
@@ -429,9 +592,16 @@ public class CfaConfigBuilder {
 				case SEQ_ITP:
 					exprTraceChecker = ExprTraceSeqItpChecker.create(True(), True(), refinementSolverFactory.createItpSolver());
 					break;
+				case SLICED_SEQ_ITP:
+					exprTraceChecker = ExprTraceSlicingItpChecker.create(True(), True(), refinementSolverFactory.createItpSolver());
+					break;
 				case MULTI_SEQ:
 					exprTraceChecker = ExprTraceSeqItpChecker.create(True(), True(), refinementSolverFactory.createItpSolver());
 					break;
+				case PARALLEL_SEQ:
+					// The trace checkers are created for the parallel refiner below
+					exprTraceChecker = null;
+					break;
 				case UCB:
 					exprTraceChecker = ExprTraceUCBChecker.create(True(), True(), refinementSolverFactory.createUCSolver());
 					break;
@@ -442,10 +612,10 @@ public class CfaConfigBuilder {
 					exprTraceChecker = ExprTraceNewtonChecker.create(True(), True(), refinementSolverFactory.createUCSolver()).withoutIT().withWP().withoutLV();
 					break;
 				case NWT_SP_LV:
-					exprTraceChecker = ExprTraceNewtonChecker.create(True(), True(), refinementSolverFactory.createUCSolver()).withoutIT().withSP().withLV();
+					exprTraceChecker = createNewtonLV(ExprTraceNewtonChecker.create(True(), True(), refinementSolverFactory.createUCSolver()).withoutIT().withSP());
 					break;
 				case NWT_WP_LV:
-					exprTraceChecker = ExprTraceNewtonChecker.create(True(), True(), refinementSolverFactory.createUCSolver()).withoutIT().withWP().withLV();
+					exprTraceChecker = createNewtonLV(ExprTraceNewtonChecker.create(True(), True(), refinementSolverFactory.createUCSolver()).withoutIT().withWP());
 					break;
 				case NWT_IT_SP:
 					exprTraceChecker = ExprTraceNewtonChecker.create(True(), True(), refinementSolverFactory.createUCSolver()).withIT().withSP().withoutLV();
@@ -454,10 +624,10 @@ public class CfaConfigBuilder {
 					exprTraceChecker = ExprTraceNewtonChecker.create(True(), True(), refinementSolverFactory.createUCSolver()).withIT().withWP().withoutLV();
 					break;
 				case NWT_IT_SP_LV:
-					exprTraceChecker = ExprTraceNewtonChecker.create(True(), True(), refinementSolverFactory.createUCSolver()).withIT().withSP().withLV();
+					exprTraceChecker = createNewtonLV(ExprTraceNewtonChecker.create(True(), True(), refinementSolverFactory.createUCSolver()).withIT().withSP());
 					break;
 				case NWT_IT_WP_LV:
-					exprTraceChecker = ExprTraceNewtonChecker.create(True(), True(), refinementSolverFactory.createUCSolver()).withIT().withWP().withLV();
+					exprTraceChecker = createNewtonLV(ExprTraceNewtonChecker.create(True(), True(), refinementSolverFactory.createUCSolver()).withIT().withWP());
 					break;
 				default:
 					throw new UnsupportedOperationException(
@@ -469,13 +639,18 @@ public class CfaConfigBuilder {
 			if (refinement == Refinement.MULTI_SEQ) {
 				refiner = MultiExprTraceRefiner.create(exprTraceChecker,
 						precGranularity.createRefiner(refToPrec), pruneStrategy, logger);
+			} else if (refinement == Refinement.PARALLEL_SEQ) {
+				refiner = own(ParallelExprTraceRefiner.create(createSeqItpCheckers(True(), True(), refinementSolverFactory),
+						precGranularity.createRefiner(refToPrec), pruneStrategy, logger));
 			} else {
 				refiner = SingleExprTraceRefiner.create(exprTraceChecker,
 						precGranularity.createRefiner(refToPrec), pruneStrategy, logger);
 			}
 
+			final PrecCodec<CfaPrec<PredPrec>> precCodec = precGranularity.createPrecCodec(cfa,
+					PrecCodecs.pred(cfa.getVars()));
 			final SafetyChecker<CfaState<PredState>, CfaAction, CfaPrec<PredPrec>> checker = CegarChecker
-					.create(abstractor, refiner, logger);
+					.create(abstractor, refiner, logger, createCheckpointer(precCodec));
 
 			CfaPrec<PredPrec> prec;
 
@@ -501,7 +676,7 @@ public class CfaConfigBuilder {
 							domain + " domain");
 			}
 
-			return CfaConfig.create(checker, prec);
+			return CfaConfig.create(checker, createInitPrec(precCodec, prec, PredPrec::join), takeResources());
 
 		} else {
 			throw new UnsupportedOperationException(domain + " domain is not supported.");
@@ -596,4 +771,90 @@ public class CfaConfigBuilder {
 		}
 	}
 
+	private CfaConfig<CfaState<ExplState>, CfaAction, UnitPrec> buildKInd(final CFA cfa, final CFA.Loc errLoc,
+																		final SolverFactory abstractionSolverFactory,
+																		final SolverFactory refinementSolverFactory) {
+		final CfaToMonolithicExpr monolithicEncoding = CfaToMonolithicExpr.create(cfa, errLoc);
+		final MonolithicExpr model = monolithicEncoding.getMonolithicExpr();
+		final ExprTraceChecker<ItpRefutation> itpChecker = ExprTraceSeqItpChecker.create(model.getInit(),
+				Not(model.getProp()), refinementSolverFactory.createItpSolver());
+		final SafetyChecker<CfaState<ExplState>, CfaAction, UnitPrec> checker = KIndChecker.builder(model,
+						monolithicEncoding::toState, monolithicEncoding::toAction, abstractionSolverFactory.createSolver(),
+						abstractionSolverFactory.createSolver())
+				.simplePath(true).invariantStrengthening(itpChecker, refinementSolverFactory.createSolver())
+				.logger(logger).build();
+		return CfaConfig.create(checker, UnitPrec.getInstance(), takeResources());
+	}
+
+	private <P extends Prec> PrecCheckpointer<P> createCheckpointer(final PrecCodec<P> codec) {
+		PrecCheckpointer<P> checkpointer = PrecCheckpointer.none();
+		if (precCheckpoint != null) {
+			checkpointer = FilePrecCheckpointer.create(precCheckpoint, codec, logger);
+		}
+		if (precStore != null) {
+			checkpointer = checkpointer.andThen(precStore.checkpointer(getPrecStoreKey(), codec, logger));
+		}
+		return checkpointer;
+	}
+
+	private String getPrecStoreKey() {
+		return modelName + "." + domain + "." + precGranularity;
+	}
+
+	private <P extends Prec> CfaPrec<P> createInitPrec(final PrecCodec<CfaPrec<P>> codec, final CfaPrec<P> initPrec,
+													   final BinaryOperator<P> innerJoin) {
+		if (warmStart != null) {
+			try {
+				final Optional<CfaPrec<P>> prec = FilePrecCheckpointer.load(warmStart, codec);
+				if (prec.isPresent()) {
+					logger.write(Logger.Level.INFO, "Warm start from the precision in %s%n", warmStart);
+					return prec.get();
+				}
+			} catch (final IOException e) {
+				throw new UncheckedIOException("Could not load precision from " + warmStart, e);
+			}
+		}
+		if (precStore != null) {
+			try {
+				final Optional<CfaPrec<P>> prec = precStore.load(getPrecStoreKey(), codec);
+				if (prec.isPresent()) {
+					logger.write(Logger.Level.INFO, "Initial precision extended with the precision store%n");
+					return precGranularity.join(initPrec, prec.get(), innerJoin);
+				}
+			} catch (final IOException e) {
+				logger.write(Logger.Level.INFO, "Could not load stored precision: %s%n", e.getMessage());
+			}
+		}
+		return initPrec;
+	}
+
+	/**
+	 * Register a resource (e.g., a solver) to be owned by the configuration being built.
+	 */
+	private <T extends AutoCloseable> T own(final T resource) {
+		resources.add(resource);
+		return resource;
+	}
+
+	/**
+	 * Get the resources registered for the configuration being built.
+	 */
+	private List<AutoCloseable> takeResources() {
+		final List<AutoCloseable> result = new ArrayList<>(resources);
+		resources.clear();
+		return result;
+	}
+
+	private ExprTraceNewtonChecker createNewtonLV(final ExprTraceNewtonChecker.ExprTraceNewtonCheckerLVBuilder builder) {
+		return parallelProjection ? builder.withParallelLV() : builder.withLV();
+	}
+
+	private List<ExprTraceChecker<ItpRefutation>> createSeqItpCheckers(final Expr<BoolType> init, final Expr<BoolType> target,
+																	  final SolverFactory refinementSolverFactory) {
+		final List<ExprTraceChecker<ItpRefutation>> checkers = new ArrayList<>(refinementParallelism);
+		for (int i = 0; i < refinementParallelism; ++i) {
+			checkers.add(ExprTraceSeqItpChecker.create(init, target, own(refinementSolverFactory.createItpSolver())));
+		}
+		return checkers;
+	}
 }
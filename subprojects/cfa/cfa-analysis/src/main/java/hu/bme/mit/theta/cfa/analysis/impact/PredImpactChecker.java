@@ -23,9 +23,11 @@ import java.util.function.Predicate;
 
 import hu.bme.mit.theta.analysis.Analysis;
 import hu.bme.mit.theta.analysis.LTS;
-import hu.bme.mit.theta.analysis.algorithm.ArgBuilder;
 import hu.bme.mit.theta.analysis.algorithm.SafetyChecker;
 import hu.bme.mit.theta.analysis.algorithm.SafetyResult;
+import hu.bme.mit.theta.analysis.algorithm.impact.ImpactChecker;
+import hu.bme.mit.theta.analysis.algorithm.impact.ImpactRefiner;
+import hu.bme.mit.theta.analysis.algorithm.impact.PredImpactRefiner;
 import hu.bme.mit.theta.analysis.expr.ExprAction;
 import hu.bme.mit.theta.analysis.impl.PrecMappingAnalysis;
 import hu.bme.mit.theta.analysis.pred.PredAbstractors;
@@ -67,12 +69,10 @@ public final class PredImpactChecker implements SafetyChecker<CfaState<PredState
 
 		final Predicate<CfaState<?>> target = s -> targetLocs.test(s.getLoc());
 
-		final ArgBuilder<CfaState<PredState>, CfaAction, UnitPrec> argBuilder = ArgBuilder.create(lts, analysis,
-				target);
+		final ImpactRefiner<CfaState<PredState>, CfaAction> refiner = PredImpactRefiner.create(refinementSolver,
+				True(), True(), CfaState::getState, CfaState::withState);
 
-		final ImpactRefiner<CfaState<PredState>, CfaAction> refiner = PredImpactRefiner.create(refinementSolver);
-
-		checker = ImpactChecker.create(argBuilder, refiner, CfaState::getLoc);
+		checker = ImpactChecker.create(lts, analysis, target, refiner, CfaState::getLoc);
 	}
 
 	public static PredImpactChecker create(final LTS<? super CfaState<PredState>, ? extends CfaAction> lts,
@@ -0,0 +1,113 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.cfa.analysis.prec;
+
+import hu.bme.mit.theta.analysis.Prec;
+import hu.bme.mit.theta.analysis.algorithm.cegar.PrecCodec;
+import hu.bme.mit.theta.cfa.CFA;
+import hu.bme.mit.theta.cfa.CFA.Loc;
+import hu.bme.mit.theta.cfa.analysis.CfaPrec;
+import hu.bme.mit.theta.common.metrics.Counter;
+import hu.bme.mit.theta.common.metrics.Metrics;
+import hu.bme.mit.theta.core.utils.ExprCodec;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Codecs for the precisions of CFA analyses, wrapping a codec for the inner precision.
+ * Locations are encoded by their names (which have to be unique in the CFA), and decoding drops
+ * the precisions of locations that are not in the CFA.
+ */
+public final class CfaPrecCodecs {
+
+	private static final Counter droppedLocs = Metrics.counter("precCodec.droppedLocs");
+
+	private CfaPrecCodecs() {
+	}
+
+	public static <P extends Prec> PrecCodec<CfaPrec<P>> global(final PrecCodec<P> codec) {
+		return new PrecCodec<CfaPrec<P>>() {
+			@Override
+			public String getName() {
+				return "cfa.global(" + codec.getName() + ")";
+			}
+
+			@Override
+			public void write(final CfaPrec<P> prec, final DataOutput out) throws IOException {
+				checkArgument(prec instanceof GlobalCfaPrec, "Global precision expected");
+				codec.write(((GlobalCfaPrec<P>) prec).getPrec(), out);
+			}
+
+			@Override
+			public CfaPrec<P> read(final DataInput in) throws IOException {
+				return GlobalCfaPrec.create(codec.read(in));
+			}
+		};
+	}
+
+	public static <P extends Prec> PrecCodec<CfaPrec<P>> local(final CFA cfa, final PrecCodec<P> codec) {
+		final Map<String, Loc> locsByName = new HashMap<>();
+		for (final Loc loc : cfa.getLocs()) {
+			final Loc previous = locsByName.put(loc.getName(), loc);
+			checkArgument(previous == null, "Location name %s is not unique", loc.getName());
+		}
+		return new PrecCodec<CfaPrec<P>>() {
+			@Override
+			public String getName() {
+				return "cfa.local(" + codec.getName() + ")";
+			}
+
+			@Override
+			public void write(final CfaPrec<P> prec, final DataOutput out) throws IOException {
+				checkArgument(prec instanceof LocalCfaPrec, "Local precision expected");
+				final LocalCfaPrec<P> localPrec = (LocalCfaPrec<P>) prec;
+				out.writeBoolean(localPrec.getDefaultPrec().isPresent());
+				if (localPrec.getDefaultPrec().isPresent()) {
+					codec.write(localPrec.getDefaultPrec().get(), out);
+				}
+				ExprCodec.writeVarInt(localPrec.getMapping().size(), out);
+				for (final Map.Entry<Loc, P> entry : localPrec.getMapping().entrySet()) {
+					out.writeUTF(entry.getKey().getName());
+					codec.write(entry.getValue(), out);
+				}
+			}
+
+			@Override
+			public CfaPrec<P> read(final DataInput in) throws IOException {
+				final P defaultPrec = in.readBoolean() ? codec.read(in) : null;
+				final int size = ExprCodec.readVarInt(in);
+				final Map<Loc, P> mapping = new LinkedHashMap<>();
+				for (int i = 0; i < size; i++) {
+					final Loc loc = locsByName.get(in.readUTF());
+					final P prec = codec.read(in);
+					if (loc == null) {
+						droppedLocs.increment();
+					} else {
+						mapping.put(loc, prec);
+					}
+				}
+				return defaultPrec == null ? LocalCfaPrec.create(mapping) : LocalCfaPrec.create(mapping, defaultPrec);
+			}
+		};
+	}
+}
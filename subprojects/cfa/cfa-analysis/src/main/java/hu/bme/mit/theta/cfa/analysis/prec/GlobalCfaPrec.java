@@ -22,6 +22,7 @@ import hu.bme.mit.theta.common.Utils;
 import hu.bme.mit.theta.core.decl.VarDecl;
 
 import java.util.Collection;
+import java.util.function.BinaryOperator;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -51,6 +52,13 @@ public final class GlobalCfaPrec<P extends Prec> implements CfaPrec<P> {
 		}
 	}
 
+	/**
+	 * Join with another global precision, joining the inner precisions with the given function.
+	 */
+	public GlobalCfaPrec<P> join(final GlobalCfaPrec<P> other, final BinaryOperator<P> innerJoin) {
+		return refine(innerJoin.apply(prec, other.prec));
+	}
+
 	@Override
 	public P getPrec(final Loc loc) {
 		checkNotNull(loc);
@@ -17,6 +17,7 @@ package hu.bme.mit.theta.cfa.analysis.prec;
 
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMap.Builder;
+import com.google.common.collect.Sets;
 import com.google.common.collect.Streams;
 import hu.bme.mit.theta.analysis.Prec;
 import hu.bme.mit.theta.cfa.CFA.Loc;
@@ -33,6 +34,7 @@ import java.util.Map.Entry;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.BinaryOperator;
 import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -70,6 +72,14 @@ public final class LocalCfaPrec<P extends Prec> implements CfaPrec<P> {
 		return new LocalCfaPrec<>(mapping, Optional.of(defaultPrec));
 	}
 
+	Map<Loc, P> getMapping() {
+		return mapping;
+	}
+
+	Optional<P> getDefaultPrec() {
+		return defaultPrec;
+	}
+
 	@Override
 	public P getPrec(final Loc loc) {
 		if (mapping.containsKey(loc)) {
@@ -105,6 +115,34 @@ public final class LocalCfaPrec<P extends Prec> implements CfaPrec<P> {
 		return refine(Collections.singletonMap(loc, refinedPrec));
 	}
 
+	/**
+	 * Join with another local precision, joining the inner precisions of each location (and
+	 * the default precisions) with the given function.
+	 */
+	public LocalCfaPrec<P> join(final LocalCfaPrec<P> other, final BinaryOperator<P> innerJoin) {
+		checkNotNull(other);
+		checkNotNull(innerJoin);
+		final Optional<P> joinedDefault = join(defaultPrec, other.defaultPrec, innerJoin);
+		final Map<Loc, P> joinedMapping = Containers.createMap();
+		for (final Loc loc : Sets.union(mapping.keySet(), other.mapping.keySet())) {
+			joinedMapping.put(loc, join(getPrecIfPresent(loc), other.getPrecIfPresent(loc), innerJoin).get());
+		}
+		return joinedDefault.isPresent() ? create(joinedMapping, joinedDefault.get()) : create(joinedMapping);
+	}
+
+	private Optional<P> getPrecIfPresent(final Loc loc) {
+		return mapping.containsKey(loc) ? Optional.of(mapping.get(loc)) : defaultPrec;
+	}
+
+	private static <P extends Prec> Optional<P> join(final Optional<P> prec1, final Optional<P> prec2,
+													 final BinaryOperator<P> innerJoin) {
+		if (prec1.isPresent() && prec2.isPresent()) {
+			return Optional.of(innerJoin.apply(prec1.get(), prec2.get()));
+		} else {
+			return prec1.isPresent() ? prec1 : prec2;
+		}
+	}
+
 	@Override
 	public String toString() {
 		final LispStringBuilder builder = Utils.lispStringBuilder(getClass().getSimpleName());
@@ -15,19 +15,26 @@
  */
 package hu.bme.mit.theta.cfa.analysis;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import hu.bme.mit.theta.analysis.Prec;
+import hu.bme.mit.theta.analysis.expl.ExplPrec;
 import hu.bme.mit.theta.cfa.CFA;
 import hu.bme.mit.theta.cfa.CFA.Builder;
 import hu.bme.mit.theta.cfa.CFA.Loc;
 import hu.bme.mit.theta.cfa.analysis.prec.GlobalCfaPrec;
 import hu.bme.mit.theta.cfa.analysis.prec.LocalCfaPrec;
 import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.type.inttype.IntType;
 import org.junit.Assert;
 import org.junit.Test;
 
 import java.util.Collection;
 import java.util.Set;
 
+import static hu.bme.mit.theta.core.decl.Decls.Var;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+
 public class LocPrecTest {
 	private final PrecStub p0 = new PrecStub();
 	private final PrecStub p1 = new PrecStub();
@@ -121,4 +128,33 @@ public class LocPrecTest {
 		Assert.assertEquals(original, refinedBack);
 
 	}
+
+	@Test
+	public void testGlobalJoin() {
+		final VarDecl<IntType> x = Var("x", Int());
+		final VarDecl<IntType> y = Var("y", Int());
+		final GlobalCfaPrec<ExplPrec> joined = GlobalCfaPrec.create(ExplPrec.of(ImmutableList.of(x)))
+				.join(GlobalCfaPrec.create(ExplPrec.of(ImmutableList.of(y))), ExplPrec::join);
+
+		Assert.assertEquals(ExplPrec.of(ImmutableList.of(x, y)), joined.getPrec());
+	}
+
+	@Test
+	public void testLocalJoin() {
+		final VarDecl<IntType> x = Var("x", Int());
+		final VarDecl<IntType> y = Var("y", Int());
+		final Builder builder = CFA.builder();
+		final Loc l1 = builder.createLoc("L1");
+		final Loc l2 = builder.createLoc("L2");
+		final Loc l3 = builder.createLoc("L3");
+
+		final LocalCfaPrec<ExplPrec> prec1 = LocalCfaPrec.create(ExplPrec.of(ImmutableList.of(x)))
+				.refine(l1, ExplPrec.of(ImmutableList.of(y)));
+		final LocalCfaPrec<ExplPrec> prec2 = LocalCfaPrec.create(ImmutableMap.of(l2, ExplPrec.of(ImmutableList.of(y))));
+		final LocalCfaPrec<ExplPrec> joined = prec1.join(prec2, ExplPrec::join);
+
+		Assert.assertEquals(ExplPrec.of(ImmutableList.of(y)), joined.getPrec(l1));
+		Assert.assertEquals(ExplPrec.of(ImmutableList.of(x, y)), joined.getPrec(l2));
+		Assert.assertEquals(ExplPrec.of(ImmutableList.of(x)), joined.getPrec(l3));
+	}
 }
@@ -18,9 +18,12 @@ package hu.bme.mit.theta.cfa.cli;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.FileWriter;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.io.Writer;
 import java.nio.file.Path;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
@@ -44,6 +47,7 @@ import hu.bme.mit.theta.cfa.analysis.config.CfaConfig;
 import hu.bme.mit.theta.cfa.analysis.config.CfaConfigBuilder;
 import hu.bme.mit.theta.cfa.analysis.config.CfaConfigBuilder.Domain;
 import hu.bme.mit.theta.cfa.analysis.config.CfaConfigBuilder.Encoding;
+import hu.bme.mit.theta.cfa.analysis.config.CfaConfigBuilder.Engine;
 import hu.bme.mit.theta.cfa.analysis.config.CfaConfigBuilder.InitPrec;
 import hu.bme.mit.theta.cfa.analysis.config.CfaConfigBuilder.PrecGranularity;
 import hu.bme.mit.theta.cfa.analysis.config.CfaConfigBuilder.PredSplit;
@@ -57,6 +61,7 @@ import hu.bme.mit.theta.common.logging.ConsoleLogger;
 import hu.bme.mit.theta.common.logging.Logger;
 import hu.bme.mit.theta.common.logging.Logger.Level;
 import hu.bme.mit.theta.common.logging.NullLogger;
+import hu.bme.mit.theta.common.metrics.Metrics;
 import hu.bme.mit.theta.common.table.BasicTableWriter;
 import hu.bme.mit.theta.common.table.TableWriter;
 import hu.bme.mit.theta.common.visualization.Graph;
@@ -66,6 +71,7 @@ import hu.bme.mit.theta.solver.SolverManager;
 import hu.bme.mit.theta.solver.smtlib.SmtLibSolverManager;
 import hu.bme.mit.theta.solver.z3.Z3SolverFactory;
 import hu.bme.mit.theta.solver.z3.Z3SolverManager;
+import jdk.jfr.Recording;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -77,6 +83,9 @@ public class CfaCli {
 	private final String[] args;
 	private final TableWriter writer;
 
+	@Parameter(names = "--engine", description = "Verification engine (the CEGAR options only apply to CEGAR)")
+	Engine engine = Engine.CEGAR;
+
 	@Parameter(names = "--domain", description = "Abstract domain")
 	Domain domain = Domain.PRED_CART;
 
@@ -122,6 +131,15 @@ public class CfaCli {
 	@Parameter(names = "--prunestrategy", description = "Strategy for pruning the ARG after refinement")
 	PruneStrategy pruneStrategy = PruneStrategy.LAZY;
 
+	@Parameter(names = "--abstraction-threads", description = "Number of threads (and solvers) for Cartesian predicate abstraction")
+	Integer abstractionThreads = 1;
+
+	@Parameter(names = "--incremental-abstraction", description = "Keep predicate definitions and enumerated cubes in the solver for Boolean predicate abstraction")
+	boolean incrementalAbstraction = false;
+
+	@Parameter(names = "--parallel-projection", description = "Project the assertions of the Newton refinements with live variables (NWT_*_LV) in parallel")
+	boolean parallelProjection = false;
+
 	@Parameter(names = "--loglevel", description = "Detailedness of logging")
 	Logger.Level logLevel = Level.SUBSTEP;
 
@@ -140,6 +158,21 @@ public class CfaCli {
 	@Parameter(names = "--metrics", description = "Print metrics about the CFA without running the algorithm")
 	boolean metrics = false;
 
+	@Parameter(names = "--checkpoint", description = "Save the precision to this file after each refinement")
+	String checkpointFile = null;
+
+	@Parameter(names = "--warmstart", description = "Start from the precision saved in this file (e.g., by --checkpoint) if it exists")
+	String warmStartFile = null;
+
+	@Parameter(names = "--precstore", description = "Extend the initial precision with (and save the refined precision to) the precision store in this directory, models are identified by their path")
+	String precStoreDir = null;
+
+	@Parameter(names = "--metrics-json", description = "Collects counters and timers of the analysis (e.g., solver calls, expanded nodes) and writes them into the given JSON file")
+	File metricsJson = null;
+
+	@Parameter(names = "--jfr", description = "Records the timed sections of the analysis as Java Flight Recorder events into the given file")
+	File jfrFile = null;
+
 	@Parameter(names = "--stacktrace", description = "Print full stack trace in case of exception")
 	boolean stacktrace = false;
 
@@ -233,6 +266,11 @@ public class CfaCli {
 				refinementSolverFactory = SolverManager.resolveSolverFactory(solver);
 			}
 
+			if (metricsJson != null) {
+				Metrics.setEnabled(true);
+			}
+			final Recording recording = jfrFile == null ? null : Metrics.startJfrRecording();
+
 			final CfaConfig<?, ?, ?> configuration = buildConfiguration(cfa, errLoc, abstractionSolverFactory, refinementSolverFactory);
 			final SafetyResult<?, ?> status = check(configuration);
 			sw.stop();
@@ -240,12 +278,27 @@ public class CfaCli {
 			if (status.isUnsafe() && cexfile != null) {
 				writeCex(status.asUnsafe());
 			}
+			writeMetrics(recording);
 		} catch (final Throwable ex) {
 			printError(ex);
 			System.exit(1);
 		}
 	}
 
+	private void writeMetrics(final Recording recording) throws IOException {
+		if (metricsJson != null) {
+			try (final Writer writer = new FileWriter(metricsJson)) {
+				Metrics.writeJson(writer);
+			}
+		}
+		if (recording != null) {
+			Metrics.commitSnapshotEvents();
+			recording.stop();
+			recording.dump(jfrFile.toPath());
+			recording.close();
+		}
+	}
+
 	private void printHeader() {
 		Stream.of("Result", "TimeMs", "AlgoTimeMs", "AbsTimeMs", "RefTimeMs", "Iterations",
 				"ArgSize", "ArgDepth", "ArgMeanBranchFactor", "CexLen").forEach(writer::cell);
@@ -265,9 +318,10 @@ public class CfaCli {
 	private CfaConfig<?, ?, ?> buildConfiguration(final CFA cfa, final CFA.Loc errLoc, final SolverFactory abstractionSolverFactory, final SolverFactory refinementSolverFactory) throws Exception {
 		try {
 			return new CfaConfigBuilder(domain, refinement, abstractionSolverFactory, refinementSolverFactory)
-					.precGranularity(precGranularity).search(search)
-					.predSplit(predSplit).encoding(encoding).maxEnum(maxEnum).initPrec(initPrec)
-					.pruneStrategy(pruneStrategy).logger(logger).build(cfa, errLoc);
+					.engine(engine).precGranularity(precGranularity).search(search)
+					.predSplit(predSplit).encoding(encoding).maxEnum(maxEnum).initPrec(initPrec).abstractionParallelism(abstractionThreads).incrementalAbstraction(incrementalAbstraction)
+					.parallelProjection(parallelProjection).pruneStrategy(pruneStrategy).precCheckpoint(checkpointFile).warmStart(warmStartFile)
+					.precStore(precStoreDir, new File(model).getAbsolutePath()).logger(logger).build(cfa, errLoc);
 		} catch (final Exception ex) {
 			throw new Exception("Could not create configuration: " + ex.getMessage(), ex);
 		}
@@ -279,6 +333,8 @@ public class CfaCli {
 		} catch (final Exception ex) {
 			String message = ex.getMessage() == null ? "(no message)" : ex.getMessage();
 			throw new Exception("Error while running algorithm: " + ex.getClass().getSimpleName() + " " + message, ex);
+		} finally {
+			configuration.close();
 		}
 	}
 
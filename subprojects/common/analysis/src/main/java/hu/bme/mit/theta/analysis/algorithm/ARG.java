@@ -19,6 +19,8 @@ import hu.bme.mit.theta.analysis.Action;
 import hu.bme.mit.theta.analysis.PartialOrd;
 import hu.bme.mit.theta.analysis.State;
 import hu.bme.mit.theta.common.container.Containers;
+import hu.bme.mit.theta.common.metrics.Histogram;
+import hu.bme.mit.theta.common.metrics.Metrics;
 
 import java.util.Collection;
 import java.util.Optional;
@@ -36,6 +38,8 @@ import static java.util.stream.Collectors.toList;
  */
 public final class ARG<S extends State, A extends Action> {
 
+	private static final Histogram pruneSize = Metrics.histogram("arg.pruneSize");
+
 	private final Collection<ArgNode<S, A>> initNodes;
 	boolean initialized; // Set by ArgBuilder
 	private int nextId = 0;
@@ -150,6 +154,9 @@ public final class ARG<S extends State, A extends Action> {
 		}
 		node.descendants().forEach(ArgNode::unsetCoveringNode);
 		node.descendants().forEach(ArgNode::clearCoveredNodes);
+		if (Metrics.isEnabled()) {
+			pruneSize.record(node.descendants().count());
+		}
 	}
 
 	/**
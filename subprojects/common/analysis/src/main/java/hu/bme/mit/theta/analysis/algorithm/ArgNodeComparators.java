@@ -20,6 +20,9 @@ import java.util.Comparator;
 
 import hu.bme.mit.theta.analysis.Action;
 import hu.bme.mit.theta.analysis.State;
+import hu.bme.mit.theta.analysis.waitlist.BucketWaitlist;
+import hu.bme.mit.theta.analysis.waitlist.PriorityWaitlist;
+import hu.bme.mit.theta.analysis.waitlist.Waitlist;
 import hu.bme.mit.theta.common.Utils;
 
 /**
@@ -33,6 +36,22 @@ public class ArgNodeComparators {
 	public interface ArgNodeComparator extends Comparator<ArgNode<? extends State, ? extends Action>>, Serializable {
 	}
 
+	/**
+	 * Comparator that orders nodes by a non-negative integer rank (smaller first) computed for
+	 * each node separately, e.g., a distance to the target. Such comparators can be used with
+	 * {@link hu.bme.mit.theta.analysis.waitlist.BucketWaitlist}, which computes the rank only
+	 * once per node instead of comparing nodes.
+	 */
+	public interface RankingArgNodeComparator extends ArgNodeComparator {
+		int rank(ArgNode<? extends State, ? extends Action> node);
+
+		@Override
+		default int compare(final ArgNode<? extends State, ? extends Action> n1,
+							final ArgNode<? extends State, ? extends Action> n2) {
+			return Integer.compare(rank(n1), rank(n2));
+		}
+	}
+
 	////
 
 	public static ArgNodeComparator creationAsc() {
@@ -63,6 +82,18 @@ public class ArgNodeComparators {
 		return new TargetFirst();
 	}
 
+	/**
+	 * Creates a waitlist that removes nodes in the order of the given comparator: a
+	 * {@link BucketWaitlist} for ranking comparators and a {@link PriorityWaitlist} otherwise.
+	 */
+	public static <S extends State, A extends Action> Waitlist<ArgNode<S, A>> createWaitlist(final ArgNodeComparator comparator) {
+		if (comparator instanceof RankingArgNodeComparator) {
+			return BucketWaitlist.create(((RankingArgNodeComparator) comparator)::rank);
+		} else {
+			return PriorityWaitlist.create(comparator);
+		}
+	}
+
 	////
 
 	private static final class DepthOrder implements ArgNodeComparator {
@@ -19,11 +19,14 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Streams;
 import hu.bme.mit.theta.analysis.Trace;
+import hu.bme.mit.theta.analysis.expr.ExprPreSolver;
 import hu.bme.mit.theta.analysis.expr.ExprState;
 import hu.bme.mit.theta.analysis.expr.StmtAction;
 import hu.bme.mit.theta.common.LispStringBuilder;
 import hu.bme.mit.theta.common.Utils;
 import hu.bme.mit.theta.core.stmt.Stmt;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
 import hu.bme.mit.theta.core.utils.PathUtils;
 import hu.bme.mit.theta.solver.Solver;
 
@@ -171,14 +174,20 @@ public final class BmcTrace<S extends ExprState, A extends StmtAction> {
 	}
 
 	public boolean isFeasible(final Solver solver) {
-		solver.push();
 		StmtAction stmtAction = new StmtAction() {
 			@Override
 			public List<Stmt> getStmts() {
 				return statements;
 			}
 		};
-		solver.add(PathUtils.unfold(stmtAction.toExpr(), indexing(0)));
+		final Expr<BoolType> expr = PathUtils.unfold(stmtAction.toExpr(), indexing(0));
+		final ExprPreSolver.Result preResult = ExprPreSolver.check(expr);
+		if (!preResult.isUnknown()) {
+			return preResult.isSat();
+		}
+
+		solver.push();
+		solver.add(expr);
 		if (solver.check().isUnsat()) {
 			solver.pop();
 			return false;
@@ -32,6 +32,8 @@ import hu.bme.mit.theta.common.Utils;
 import hu.bme.mit.theta.common.logging.Logger;
 import hu.bme.mit.theta.common.logging.Logger.Level;
 import hu.bme.mit.theta.common.logging.NullLogger;
+import hu.bme.mit.theta.common.metrics.Counter;
+import hu.bme.mit.theta.common.metrics.Metrics;
 
 import java.util.Collection;
 import java.util.Collections;
@@ -45,6 +47,11 @@ import static com.google.common.base.Preconditions.checkState;
  */
 public final class BasicAbstractor<S extends State, A extends Action, P extends Prec> implements Abstractor<S, A, P> {
 
+	private static final Counter expandedNodes = Metrics.counter("abstractor.expandedNodes");
+	private static final Counter createdNodes = Metrics.counter("abstractor.createdNodes");
+	private static final Counter coverageAttempts = Metrics.counter("abstractor.coverageAttempts");
+	private static final Counter coveredNodes = Metrics.counter("abstractor.coveredNodes");
+
 	private final ArgBuilder<S, A, P> argBuilder;
 	private final Function<? super S, ?> projection;
 	private final Waitlist<ArgNode<S, A>> waitlist;
@@ -84,12 +91,11 @@ public final class BasicAbstractor<S extends State, A extends Action, P extends
 
 		assert arg.isInitialized();
 
-		long startNodes = arg.getNodes().count();
-		long startIncompleteNodes = arg.getIncompleteNodes().count();
-
 		ArgCexCheckHandler.instance.setCurrentArg(new AbstractArg<S, A, P>(arg, prec));
-		logger.write(Level.INFO, "|  |  Starting ARG: %d nodes, %d incomplete, %d unsafe%n", arg.getNodes().count(),
-				arg.getIncompleteNodes().count(), arg.getUnsafeNodes().count());
+		if (logger.isEnabled(Level.INFO)) {
+			logger.write(Level.INFO, "|  |  Starting ARG: %d nodes, %d incomplete, %d unsafe%n", arg.getNodes().count(),
+					arg.getIncompleteNodes().count(), arg.getUnsafeNodes().count());
+		}
 		logger.write(Level.SUBSTEP, "|  |  Building ARG...");
 
 		final Partition<ArgNode<S, A>, ?> reachedSet = Partition.of(n -> projection.apply(n.getState()));
@@ -106,6 +112,8 @@ public final class BasicAbstractor<S extends State, A extends Action, P extends
 				close(node, reachedSet.get(node));
 				if (!node.isSubsumed() && !node.isTarget()) {
 					newNodes = argBuilder.expand(node, prec);
+					expandedNodes.increment();
+					createdNodes.add(newNodes.size());
 					reachedSet.addAll(newNodes);
 					waitlist.addAll(newNodes);
 				}
@@ -116,8 +124,10 @@ public final class BasicAbstractor<S extends State, A extends Action, P extends
 		}
 
 		logger.write(Level.SUBSTEP, "done%n");
-		logger.write(Level.INFO, "|  |  Finished ARG: %d nodes, %d incomplete, %d unsafe%n", arg.getNodes().count(),
-				arg.getIncompleteNodes().count(), arg.getUnsafeNodes().count());
+		if (logger.isEnabled(Level.INFO)) {
+			logger.write(Level.INFO, "|  |  Finished ARG: %d nodes, %d incomplete, %d unsafe%n", arg.getNodes().count(),
+					arg.getIncompleteNodes().count(), arg.getUnsafeNodes().count());
+		}
 
 		waitlist.clear(); // Optimization
 
@@ -134,7 +144,9 @@ public final class BasicAbstractor<S extends State, A extends Action, P extends
 			return;
 		}
 		for (final ArgNode<S, A> candidate : candidates) {
+			coverageAttempts.increment();
 			if (candidate.mayCover(node)) {
+				coveredNodes.increment();
 				node.cover(candidate);
 				return;
 			}
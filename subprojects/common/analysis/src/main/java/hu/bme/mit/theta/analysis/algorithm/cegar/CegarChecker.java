@@ -27,6 +27,9 @@ import hu.bme.mit.theta.common.Utils;
 import hu.bme.mit.theta.common.logging.Logger;
 import hu.bme.mit.theta.common.logging.Logger.Level;
 import hu.bme.mit.theta.common.logging.NullLogger;
+import hu.bme.mit.theta.common.metrics.Counter;
+import hu.bme.mit.theta.common.metrics.Metrics;
+import hu.bme.mit.theta.common.metrics.Timer;
 
 import java.util.concurrent.TimeUnit;
 
@@ -40,24 +43,37 @@ import static com.google.common.base.Preconditions.checkNotNull;
  */
 public final class CegarChecker<S extends State, A extends Action, P extends Prec> implements SafetyChecker<S, A, P> {
 
+	private static final Counter iterations = Metrics.counter("cegar.iterations");
+	private static final Timer abstractionTimer = Metrics.timer("cegar.abstraction");
+	private static final Timer refinementTimer = Metrics.timer("cegar.refinement");
+
 	private final Abstractor<S, A, P> abstractor;
 	private final Refiner<S, A, P> refiner;
 	private final Logger logger;
+	private final PrecCheckpointer<P> checkpointer;
 
-	private CegarChecker(final Abstractor<S, A, P> abstractor, final Refiner<S, A, P> refiner, final Logger logger) {
+	private CegarChecker(final Abstractor<S, A, P> abstractor, final Refiner<S, A, P> refiner, final Logger logger,
+						 final PrecCheckpointer<P> checkpointer) {
 		this.abstractor = checkNotNull(abstractor);
 		this.refiner = checkNotNull(refiner);
 		this.logger = checkNotNull(logger);
+		this.checkpointer = checkNotNull(checkpointer);
 	}
 
 	public static <S extends State, A extends Action, P extends Prec> CegarChecker<S, A, P> create(
 			final Abstractor<S, A, P> abstractor, final Refiner<S, A, P> refiner) {
-		return new CegarChecker<>(abstractor, refiner, NullLogger.getInstance());
+		return new CegarChecker<>(abstractor, refiner, NullLogger.getInstance(), PrecCheckpointer.none());
 	}
 
 	public static <S extends State, A extends Action, P extends Prec> CegarChecker<S, A, P> create(
 			final Abstractor<S, A, P> abstractor, final Refiner<S, A, P> refiner, final Logger logger) {
-		return new CegarChecker<>(abstractor, refiner, logger);
+		return new CegarChecker<>(abstractor, refiner, logger, PrecCheckpointer.none());
+	}
+
+	public static <S extends State, A extends Action, P extends Prec> CegarChecker<S, A, P> create(
+			final Abstractor<S, A, P> abstractor, final Refiner<S, A, P> refiner, final Logger logger,
+			final PrecCheckpointer<P> checkpointer) {
+		return new CegarChecker<>(abstractor, refiner, logger, checkpointer);
 	}
 
 	@Override
@@ -73,11 +89,14 @@ public final class CegarChecker<S extends State, A extends Action, P extends Pre
 		int iteration = 0;
 		do {
 			++iteration;
+			iterations.increment();
 
 			logger.write(Level.MAINSTEP, "Iteration %d%n", iteration);
 			logger.write(Level.MAINSTEP, "| Checking abstraction...%n");
 			final long abstractorStartTime = stopwatch.elapsed(TimeUnit.MILLISECONDS);
+			final long abstractionStart = abstractionTimer.start();
 			abstractorResult = abstractor.check(arg, prec);
+			abstractionTimer.stop(abstractionStart);
 			abstractorTime += stopwatch.elapsed(TimeUnit.MILLISECONDS) - abstractorStartTime;
 			logger.write(Level.MAINSTEP, "| Checking abstraction done, result: %s%n", abstractorResult);
 
@@ -87,12 +106,15 @@ public final class CegarChecker<S extends State, A extends Action, P extends Pre
 				P lastPrec = prec;
 				logger.write(Level.MAINSTEP, "| Refining abstraction...%n");
 				final long refinerStartTime = stopwatch.elapsed(TimeUnit.MILLISECONDS);
+				final long refinementStart = refinementTimer.start();
 				refinerResult = refiner.refine(arg, prec);
+				refinementTimer.stop(refinementStart);
 				refinerTime += stopwatch.elapsed(TimeUnit.MILLISECONDS) - refinerStartTime;
 				logger.write(Level.MAINSTEP, "Refining abstraction done, result: %s%n", refinerResult);
 
 				if (refinerResult.isSpurious()) {
 					prec = refinerResult.asSpurious().getRefinedPrec();
+					checkpointer.checkpoint(prec, iteration);
 				}
 
 				if (lastPrec.equals(prec)) {
@@ -0,0 +1,79 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.algorithm.cegar;
+
+import hu.bme.mit.theta.analysis.Prec;
+import hu.bme.mit.theta.common.logging.Logger;
+import hu.bme.mit.theta.common.logging.Logger.Level;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Checkpointer that writes the precision to a file whenever it changes, so that a preempted
+ * or timed out analysis can be warm started with {@link #load(String, PrecCodec)} instead of
+ * the initial precision. The file is replaced atomically (where the file system supports it),
+ * so it always contains a complete precision. I/O errors are logged but do not stop the
+ * analysis.
+ */
+public final class FilePrecCheckpointer<P extends Prec> implements PrecCheckpointer<P> {
+
+	private final Path file;
+	private final PrecCodec<P> codec;
+	private final Logger logger;
+	private P lastPrec;
+
+	private FilePrecCheckpointer(final Path file, final PrecCodec<P> codec, final Logger logger) {
+		this.file = checkNotNull(file);
+		this.codec = checkNotNull(codec);
+		this.logger = checkNotNull(logger);
+		this.lastPrec = null;
+	}
+
+	public static <P extends Prec> FilePrecCheckpointer<P> create(final String fileName, final PrecCodec<P> codec,
+																	 final Logger logger) {
+		return new FilePrecCheckpointer<>(Paths.get(fileName), codec, logger);
+	}
+
+	@Override
+	public void checkpoint(final P prec, final int iteration) {
+		if (prec.equals(lastPrec)) {
+			return;
+		}
+		try {
+			PrecFiles.write(file, prec, iteration, codec);
+			lastPrec = prec;
+			logger.write(Level.SUBSTEP, "|  Precision of iteration %d saved to %s%n", iteration, file);
+		} catch (final IOException | RuntimeException e) {
+			logger.write(Level.INFO, "Could not save precision to %s: %s%n", file, e.getMessage());
+		}
+	}
+
+	/**
+	 * Load a precision saved by a checkpointer, or empty if the file does not exist.
+	 *
+	 * @throws IOException if the file cannot be read or was not written by a checkpointer
+	 *                     with a compatible codec
+	 */
+	public static <P extends Prec> Optional<P> load(final String fileName, final PrecCodec<P> codec)
+			throws IOException {
+		return PrecFiles.read(Paths.get(fileName), codec);
+	}
+}
@@ -0,0 +1,40 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.algorithm.cegar;
+
+import hu.bme.mit.theta.analysis.Prec;
+
+/**
+ * Receives the precision of the CEGAR loop after each refinement, e.g., to persist it so that
+ * an interrupted analysis can be warm started from it later.
+ */
+@FunctionalInterface
+public interface PrecCheckpointer<P extends Prec> {
+
+	void checkpoint(P prec, int iteration);
+
+	default PrecCheckpointer<P> andThen(final PrecCheckpointer<P> other) {
+		return (prec, iteration) -> {
+			checkpoint(prec, iteration);
+			other.checkpoint(prec, iteration);
+		};
+	}
+
+	static <P extends Prec> PrecCheckpointer<P> none() {
+		return (prec, iteration) -> {
+		};
+	}
+}
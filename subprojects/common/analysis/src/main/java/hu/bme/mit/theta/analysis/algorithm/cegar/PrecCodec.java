@@ -0,0 +1,38 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.algorithm.cegar;
+
+import hu.bme.mit.theta.analysis.Prec;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Binary encoding of precisions, see {@link PrecCodecs} for the implementations.
+ */
+public interface PrecCodec<P extends Prec> {
+
+	/**
+	 * Name of the encoding (e.g., the domain of the precision), stored in precision files so that
+	 * a file is only decoded by the same kind of codec that wrote it.
+	 */
+	String getName();
+
+	void write(P prec, DataOutput out) throws IOException;
+
+	P read(DataInput in) throws IOException;
+}
@@ -0,0 +1,214 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.algorithm.cegar;
+
+import hu.bme.mit.theta.analysis.Prec;
+import hu.bme.mit.theta.analysis.expl.ExplPrec;
+import hu.bme.mit.theta.analysis.pred.PredPrec;
+import hu.bme.mit.theta.analysis.prod2.Prod2Prec;
+import hu.bme.mit.theta.common.metrics.Counter;
+import hu.bme.mit.theta.common.metrics.Metrics;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.utils.ExprCodec;
+import hu.bme.mit.theta.core.utils.TypeUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Bool;
+
+/**
+ * Codecs for the common precisions. Variables are encoded by their names, so the variables of
+ * the model have to be given for decoding. Decoding is lenient with respect to the model:
+ * variables that are not in the model (or whose names are ambiguous) and predicates that refer
+ * to such variables (or are not well-typed over the current variables) are dropped. This is
+ * sound, as a precision only guides the abstraction, and it allows reusing precisions of
+ * previous versions of a model. Corrupt data is not dropped, decoding fails with an
+ * {@link IOException} instead.
+ */
+public final class PrecCodecs {
+
+	private static final Counter droppedVars = Metrics.counter("precCodec.droppedVars");
+	private static final Counter droppedPreds = Metrics.counter("precCodec.droppedPreds");
+
+	private PrecCodecs() {
+	}
+
+	public static PrecCodec<ExplPrec> expl(final Collection<? extends VarDecl<?>> vars) {
+		final Function<String, VarDecl<?>> lookup = createLookup(vars);
+		return new PrecCodec<ExplPrec>() {
+			@Override
+			public String getName() {
+				return "expl";
+			}
+
+			@Override
+			public void write(final ExplPrec prec, final DataOutput out) throws IOException {
+				ExprCodec.writeVarInt(prec.getVars().size(), out);
+				for (final VarDecl<?> var : prec.getVars()) {
+					out.writeUTF(var.getName());
+				}
+			}
+
+			@Override
+			public ExplPrec read(final DataInput in) throws IOException {
+				final int size = ExprCodec.readVarInt(in);
+				final List<VarDecl<?>> precVars = new ArrayList<>(size);
+				for (int i = 0; i < size; i++) {
+					final VarDecl<?> var = lookup.apply(in.readUTF());
+					if (var == null) {
+						droppedVars.increment();
+					} else {
+						precVars.add(var);
+					}
+				}
+				return ExplPrec.of(precVars);
+			}
+		};
+	}
+
+	/**
+	 * Predicates that cannot be encoded (see {@link ExprCodec#isSupported}) are also dropped.
+	 * Each predicate is prefixed by its length, so that the ones referring to vanished variables
+	 * can be skipped.
+	 */
+	public static PrecCodec<PredPrec> pred(final Collection<? extends VarDecl<?>> vars) {
+		final Function<String, VarDecl<?>> lookup = createLookup(vars);
+		return new PrecCodec<PredPrec>() {
+			@Override
+			public String getName() {
+				return "pred";
+			}
+
+			@Override
+			public void write(final PredPrec prec, final DataOutput out) throws IOException {
+				final List<Expr<BoolType>> preds = new ArrayList<>(prec.getPreds().size());
+				for (final Expr<BoolType> pred : prec.getPreds()) {
+					if (ExprCodec.isSupported(pred)) {
+						preds.add(pred);
+					} else {
+						droppedPreds.increment();
+					}
+				}
+				ExprCodec.writeVarInt(preds.size(), out);
+				final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+				for (final Expr<BoolType> pred : preds) {
+					bytes.reset();
+					ExprCodec.write(pred, new DataOutputStream(bytes));
+					ExprCodec.writeVarInt(bytes.size(), out);
+					out.write(bytes.toByteArray());
+				}
+			}
+
+			@Override
+			public PredPrec read(final DataInput in) throws IOException {
+				final int size = ExprCodec.readVarInt(in);
+				final List<Expr<BoolType>> preds = new ArrayList<>(size);
+				for (int i = 0; i < size; i++) {
+					final byte[] bytes = new byte[ExprCodec.readVarInt(in)];
+					in.readFully(bytes);
+					final ByteArrayInputStream predIn = new ByteArrayInputStream(bytes);
+					final Set<String> unknownNames = new HashSet<>();
+					try {
+						final Expr<?> pred = ExprCodec.read(new DataInputStream(predIn), name -> {
+							final VarDecl<?> var = lookup.apply(name);
+							if (var == null) {
+								unknownNames.add(name);
+							}
+							return var;
+						});
+						if (predIn.available() > 0) {
+							throw new IOException("Unexpected data after predicate " + pred);
+						}
+						if (pred.getType() instanceof BoolType) {
+							preds.add(TypeUtils.cast(pred, Bool()));
+						} else {
+							droppedPreds.increment();
+						}
+					} catch (final IOException e) {
+						if (unknownNames.isEmpty() && !isTypeError(e)) {
+							throw e;
+						}
+						droppedPreds.increment();
+					}
+				}
+				return PredPrec.of(preds);
+			}
+		};
+	}
+
+	public static <P1 extends Prec, P2 extends Prec> PrecCodec<Prod2Prec<P1, P2>> prod2(final PrecCodec<P1> codec1,
+																						 final PrecCodec<P2> codec2) {
+		return new PrecCodec<Prod2Prec<P1, P2>>() {
+			@Override
+			public String getName() {
+				return "prod2(" + codec1.getName() + "," + codec2.getName() + ")";
+			}
+
+			@Override
+			public void write(final Prod2Prec<P1, P2> prec, final DataOutput out) throws IOException {
+				codec1.write(prec.getPrec1(), out);
+				codec2.write(prec.getPrec2(), out);
+			}
+
+			@Override
+			public Prod2Prec<P1, P2> read(final DataInput in) throws IOException {
+				final P1 prec1 = codec1.read(in);
+				return Prod2Prec.of(prec1, codec2.read(in));
+			}
+		};
+	}
+
+	/**
+	 * Check whether a predicate could not be decoded because it is not well-typed over the
+	 * current variables.
+	 */
+	private static boolean isTypeError(final IOException e) {
+		return e.getCause() instanceof IllegalArgumentException || e.getCause() instanceof ClassCastException;
+	}
+
+	/**
+	 * Create a lookup of variables by their names. Names shared by more than one variable are
+	 * not resolved, so that a precision is never attributed to the wrong variable.
+	 */
+	private static Function<String, VarDecl<?>> createLookup(final Collection<? extends VarDecl<?>> vars) {
+		final Map<String, VarDecl<?>> varsByName = new HashMap<>();
+		final Set<String> ambiguousNames = new HashSet<>();
+		for (final VarDecl<?> var : vars) {
+			final VarDecl<?> previous = varsByName.put(var.getName(), var);
+			if (previous != null && !previous.equals(var)) {
+				ambiguousNames.add(var.getName());
+			}
+		}
+		varsByName.keySet().removeAll(ambiguousNames);
+		return varsByName::get;
+	}
+}
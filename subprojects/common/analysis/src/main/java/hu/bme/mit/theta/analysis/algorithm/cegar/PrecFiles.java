@@ -0,0 +1,94 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.algorithm.cegar;
+
+import hu.bme.mit.theta.analysis.Prec;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+
+/**
+ * Reading and writing precision files, shared by {@link FilePrecCheckpointer} and
+ * {@link PrecStore}. A file starts with a magic number, a version, the name of the codec and the
+ * iteration in which the precision was saved, followed by the precision encoded by the codec.
+ */
+final class PrecFiles {
+
+	private static final int MAGIC = 0x54485043; // "THPC"
+	private static final int VERSION = 3;
+
+	private PrecFiles() {
+	}
+
+	/**
+	 * Write a precision to a temporary file and then move it to its place (atomically where
+	 * the file system supports it), so the file always contains a complete precision.
+	 */
+	static <P extends Prec> void write(final Path file, final P prec, final int iteration, final PrecCodec<P> codec)
+			throws IOException {
+		final Path dir = file.toAbsolutePath().getParent();
+		final Path tmpFile = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+		try {
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpFile)))) {
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				out.writeUTF(codec.getName());
+				out.writeInt(iteration);
+				codec.write(prec, out);
+			}
+			try {
+				Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (final AtomicMoveNotSupportedException e) {
+				Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(tmpFile);
+		}
+	}
+
+	static <P extends Prec> Optional<P> read(final Path file, final PrecCodec<P> codec) throws IOException {
+		if (!Files.exists(file)) {
+			return Optional.empty();
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+			if (in.readInt() != MAGIC) {
+				throw new IOException(file + " is not a precision file");
+			}
+			final int version = in.readInt();
+			if (version != VERSION) {
+				throw new IOException("Unsupported precision file version " + version);
+			}
+			final String name = in.readUTF();
+			if (!name.equals(codec.getName())) {
+				throw new IOException(file + " contains a precision of " + name + ", expected " + codec.getName());
+			}
+			in.readInt(); // iteration
+			final P prec = codec.read(in);
+			if (in.read() != -1) {
+				throw new IOException("Unexpected data after precision in " + file);
+			}
+			return Optional.of(prec);
+		}
+	}
+}
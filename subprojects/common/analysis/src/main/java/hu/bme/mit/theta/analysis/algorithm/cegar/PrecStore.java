@@ -0,0 +1,84 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.algorithm.cegar;
+
+import hu.bme.mit.theta.analysis.Prec;
+import hu.bme.mit.theta.common.logging.Logger;
+import hu.bme.mit.theta.common.logging.Logger.Level;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Directory of precisions, one for each key (e.g., a model and a configuration), so that
+ * repeated runs on the same model (e.g., with other limits, another property or after a
+ * timeout) can start from the precision of a previous run instead of rediscovering it. Models
+ * are identified by a name given by the caller (e.g., the path of the model file) together
+ * with their variables: the key only depends on the name, so the stored precision survives
+ * changes of the property or the transitions, and what no longer applies (e.g., predicates
+ * over variables that are not in the model anymore) is dropped when the {@link PrecCodec}
+ * decodes it for the current variables.
+ */
+public final class PrecStore {
+
+	private static final String EXTENSION = ".prec";
+
+	private final Path dir;
+
+	private PrecStore(final Path dir) {
+		this.dir = checkNotNull(dir);
+	}
+
+	public static PrecStore create(final String dirName) {
+		return new PrecStore(Paths.get(dirName));
+	}
+
+	/**
+	 * Load the precision stored for a key, or empty if there is none.
+	 */
+	public <P extends Prec> Optional<P> load(final String key, final PrecCodec<P> codec) throws IOException {
+		return PrecFiles.read(getFile(key), codec);
+	}
+
+	public <P extends Prec> void save(final String key, final P prec, final PrecCodec<P> codec) throws IOException {
+		Files.createDirectories(dir);
+		PrecFiles.write(getFile(key), prec, 0, codec);
+	}
+
+	/**
+	 * Get a checkpointer that keeps the precision stored for a key up to date with the
+	 * refinements of an analysis. I/O errors are logged but do not stop the analysis.
+	 */
+	public <P extends Prec> PrecCheckpointer<P> checkpointer(final String key, final PrecCodec<P> codec,
+															 final Logger logger) {
+		return (prec, iteration) -> {
+			try {
+				save(key, prec, codec);
+			} catch (final IOException | RuntimeException e) {
+				logger.write(Level.INFO, "Could not store precision for %s: %s%n", key, e.getMessage());
+			}
+		};
+	}
+
+	private Path getFile(final String key) {
+		return dir.resolve(key.replaceAll("[^A-Za-z0-9._-]", "_") + EXTENSION);
+	}
+}
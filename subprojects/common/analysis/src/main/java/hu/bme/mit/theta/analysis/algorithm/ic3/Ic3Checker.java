@@ -0,0 +1,445 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.algorithm.ic3;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static hu.bme.mit.theta.core.decl.Decls.Const;
+import static hu.bme.mit.theta.core.type.abstracttype.AbstractExprs.Eq;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Bool;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Imply;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Not;
+import static hu.bme.mit.theta.core.type.booltype.SmartBoolExprs.And;
+import static hu.bme.mit.theta.core.utils.indexings.VarIndexingFactory.indexing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import hu.bme.mit.theta.analysis.Trace;
+import hu.bme.mit.theta.analysis.algorithm.ARG;
+import hu.bme.mit.theta.analysis.algorithm.SafetyChecker;
+import hu.bme.mit.theta.analysis.algorithm.SafetyResult;
+import hu.bme.mit.theta.analysis.expr.ExprAction;
+import hu.bme.mit.theta.analysis.expr.ExprState;
+import hu.bme.mit.theta.analysis.expr.MonolithicExpr;
+import hu.bme.mit.theta.analysis.unit.UnitPrec;
+import hu.bme.mit.theta.common.Utils;
+import hu.bme.mit.theta.common.logging.Logger;
+import hu.bme.mit.theta.common.logging.Logger.Level;
+import hu.bme.mit.theta.common.logging.NullLogger;
+import hu.bme.mit.theta.common.metrics.Counter;
+import hu.bme.mit.theta.common.metrics.Metrics;
+import hu.bme.mit.theta.core.decl.ConstDecl;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.model.Valuation;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.LitExpr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.utils.PathUtils;
+import hu.bme.mit.theta.core.utils.indexings.VarIndexing;
+import hu.bme.mit.theta.solver.SolverFactory;
+import hu.bme.mit.theta.solver.UCSolver;
+import hu.bme.mit.theta.solver.utils.WithPushPop;
+
+/**
+ * IC3 / property directed reachability over a monolithic transition relation. The frames
+ * over-approximate the states reachable in at most i steps and are represented by lemmas
+ * (negated cubes). Each lemma is stored only in the highest frame where it is known to hold and
+ * every frame has its own incremental solver, which contains the lemmas of the frame and of the
+ * frames above it. The transition relation is asserted in the solvers guarded by an activation
+ * literal, and the literals of the cubes in the next state are tracked, so that the unsat cores
+ * of the relative induction queries can be used as assumption cores to shrink the cubes.
+ * <p>
+ * In the blocking phase, the states of the last frame violating the property are blocked by
+ * recursively blocking their predecessors (proof obligations) in the lower frames. Blocked
+ * cubes are generalized by dropping literals while the cube stays relative inductive. In the
+ * propagation phase, lemmas are pushed to the next frame if they are inductive relative to their
+ * frame, and the property is proved once two consecutive frames become equal.
+ * <p>
+ * The cubes are built from the values of the variables in the models, so the procedure is
+ * complete for finite state systems (e.g., circuits), but may not terminate for unbounded
+ * variables.
+ */
+public final class Ic3Checker<S extends ExprState, A extends ExprAction> implements SafetyChecker<S, A, UnitPrec> {
+
+	private static final Counter lemmasLearned = Metrics.counter("ic3.lemmas");
+	private static final Counter obligationsHandled = Metrics.counter("ic3.obligations");
+
+	private final MonolithicExpr model;
+	private final Function<? super Valuation, ? extends S> valToState;
+	private final BiFunction<? super Valuation, ? super Valuation, ? extends A> biValToAction;
+	private final SolverFactory solverFactory;
+	private final boolean inductiveGeneralization;
+	private final Logger logger;
+
+	private final ConstDecl<BoolType> transActivation;
+	private final VarIndexing nextIndexing;
+	private final List<UCSolver> solvers;
+	private final List<Set<List<Expr<BoolType>>>> lemmas;
+
+	private Ic3Checker(final Builder<S, A> builder) {
+		this.model = builder.model;
+		this.valToState = builder.valToState;
+		this.biValToAction = builder.biValToAction;
+		this.solverFactory = builder.solverFactory;
+		this.inductiveGeneralization = builder.inductiveGeneralization;
+		this.logger = builder.logger;
+		this.transActivation = Const("__ic3_trans", Bool());
+		this.nextIndexing = model.getTrans().nextIndexing();
+		this.solvers = new ArrayList<>();
+		this.lemmas = new ArrayList<>();
+	}
+
+	/**
+	 * Creates a builder for the checker.
+	 *
+	 * @param model         The transition system
+	 * @param valToState    Creates a state of the counterexample from the values of the variables
+	 * @param biValToAction Creates an action of the counterexample from the values of the
+	 *                      variables before and after the step
+	 * @param solverFactory Factory for the solvers of the frames
+	 */
+	public static <S extends ExprState, A extends ExprAction> Builder<S, A> builder(
+			final MonolithicExpr model, final Function<? super Valuation, ? extends S> valToState,
+			final BiFunction<? super Valuation, ? super Valuation, ? extends A> biValToAction,
+			final SolverFactory solverFactory) {
+		return new Builder<>(model, valToState, biValToAction, solverFactory);
+	}
+
+	@Override
+	public SafetyResult<S, A> check(final UnitPrec prec) {
+		logger.write(Level.INFO, "Configuration: %s%n", this);
+		try {
+			final SafetyResult<S, A> result = check();
+			logger.write(Level.RESULT, "%s%n", result);
+			return result;
+		} finally {
+			for (final UCSolver solver : solvers) {
+				try {
+					solver.close();
+				} catch (final Exception e) {
+					// The solver is dropped anyway
+				}
+			}
+			solvers.clear();
+			lemmas.clear();
+		}
+	}
+
+	private SafetyResult<S, A> check() {
+		addFrame();
+		solvers.get(0).track(PathUtils.unfold(model.getInit(), 0));
+
+		final Optional<Valuation> initialBad = getBadState(0);
+		if (initialBad.isPresent()) {
+			return SafetyResult.unsafe(Trace.of(List.of(valToState.apply(initialBad.get())), List.of()),
+					ARG.create((s1, s2) -> false));
+		}
+		addFrame();
+
+		for (int k = 1; ; k++) {
+			logger.write(Level.MAINSTEP, "Frame %d%n", k);
+
+			logger.write(Level.SUBSTEP, "| Blocking bad states...%n");
+			Optional<Valuation> bad = getBadState(k);
+			while (bad.isPresent()) {
+				final Optional<Trace<S, A>> cex = block(new Obligation(bad.get(), k, null));
+				if (cex.isPresent()) {
+					return SafetyResult.unsafe(cex.get(), ARG.create((s1, s2) -> false));
+				}
+				bad = getBadState(k);
+			}
+
+			logger.write(Level.SUBSTEP, "| Propagating lemmas...%n");
+			addFrame();
+			for (int i = 1; i <= k; i++) {
+				for (final List<Expr<BoolType>> cube : new ArrayList<>(lemmas.get(i))) {
+					if (checkRelativeInductive(cube, i + 1).isInductive()) {
+						pushLemma(cube, i);
+					}
+				}
+				if (lemmas.get(i).isEmpty()) {
+					logger.write(Level.SUBSTEP, "| Frame %d is inductive with %d lemma(s)%n", i, countLemmasFrom(i + 1));
+					return SafetyResult.safe(ARG.create((s1, s2) -> false));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Block a proof obligation and its predecessors. Returns a counterexample if an obligation
+	 * reaches an initial state.
+	 */
+	private Optional<Trace<S, A>> block(final Obligation bad) {
+		final PriorityQueue<Obligation> obligations = new PriorityQueue<>(
+				Comparator.comparingInt((Obligation o) -> o.frame).thenComparingInt(o -> -o.depth));
+		obligations.add(bad);
+
+		while (!obligations.isEmpty()) {
+			final Obligation obligation = obligations.poll();
+			obligationsHandled.increment();
+			if (obligation.frame == 0 || intersectsInit(obligation.cube)) {
+				return Optional.of(extractTrace(obligation));
+			}
+			if (isBlocked(obligation.cube, obligation.frame)) {
+				continue;
+			}
+
+			final QueryResult result = checkRelativeInductive(obligation.cube, obligation.frame);
+			if (result.isInductive()) {
+				final List<Expr<BoolType>> cube = generalize(result.core, obligation.cube, obligation.frame);
+				addLemma(cube, obligation.frame);
+			} else {
+				obligations.add(new Obligation(result.predecessor, obligation.frame - 1, obligation));
+				obligations.add(obligation);
+			}
+		}
+		return Optional.empty();
+	}
+
+	/**
+	 * Shrink a blocked cube: start from the assumption core of the blocking query, and try to
+	 * drop further literals while the cube remains inductive relative to the previous frame.
+	 */
+	private List<Expr<BoolType>> generalize(final List<Expr<BoolType>> core, final List<Expr<BoolType>> cube,
+											final int frame) {
+		List<Expr<BoolType>> result = intersectsInit(core) ? cube : core;
+		if (!inductiveGeneralization) {
+			return result;
+		}
+		for (final Expr<BoolType> literal : new ArrayList<>(result)) {
+			if (result.size() == 1 || !result.contains(literal)) {
+				continue;
+			}
+			final List<Expr<BoolType>> candidate = new ArrayList<>(result);
+			candidate.remove(literal);
+			if (intersectsInit(candidate)) {
+				continue;
+			}
+			final QueryResult query = checkRelativeInductive(candidate, frame);
+			if (query.isInductive()) {
+				result = intersectsInit(query.core) ? candidate : query.core;
+			}
+		}
+		return result;
+	}
+
+	private void addFrame() {
+		final UCSolver solver = solverFactory.createUCSolver();
+		solver.track(Imply(transActivation.getRef(), PathUtils.unfold(model.getTrans().toExpr(), 0)));
+		solvers.add(solver);
+		lemmas.add(new LinkedHashSet<>());
+	}
+
+	/**
+	 * Add the negation of the cube to the frame, and to the solvers of the lower frames (except
+	 * for the initial one, where it holds anyway).
+	 */
+	private void addLemma(final List<Expr<BoolType>> cube, final int frame) {
+		lemmasLearned.increment();
+		lemmas.get(frame).add(cube);
+		final Expr<BoolType> lemma = PathUtils.unfold(Not(And(cube)), 0);
+		for (int i = 1; i <= frame; i++) {
+			solvers.get(i).track(lemma);
+		}
+	}
+
+	/**
+	 * Move a lemma of the frame to the next frame. The solvers of the frame and the ones below
+	 * already contain the lemma, so it only has to be added to the solver of the next frame.
+	 */
+	private void pushLemma(final List<Expr<BoolType>> cube, final int frame) {
+		lemmas.get(frame).remove(cube);
+		lemmas.get(frame + 1).add(cube);
+		solvers.get(frame + 1).track(PathUtils.unfold(Not(And(cube)), 0));
+	}
+
+	private int countLemmasFrom(final int frame) {
+		return lemmas.subList(frame, lemmas.size()).stream().mapToInt(Set::size).sum();
+	}
+
+	private Optional<Valuation> getBadState(final int frame) {
+		final UCSolver solver = solvers.get(frame);
+		try (WithPushPop wpp = new WithPushPop(solver)) {
+			solver.track(PathUtils.unfold(Not(model.getProp()), 0));
+			if (solver.check().isSat()) {
+				return Optional.of(PathUtils.extractValuation(solver.getModel(), indexing(0), model.getVars()));
+			}
+			return Optional.empty();
+		}
+	}
+
+	private boolean intersectsInit(final List<Expr<BoolType>> cube) {
+		final UCSolver solver = solvers.get(0);
+		try (WithPushPop wpp = new WithPushPop(solver)) {
+			solver.track(PathUtils.unfold(And(cube), 0));
+			return solver.check().isSat();
+		}
+	}
+
+	private boolean isBlocked(final List<Expr<BoolType>> cube, final int frame) {
+		final UCSolver solver = solvers.get(frame);
+		try (WithPushPop wpp = new WithPushPop(solver)) {
+			solver.track(PathUtils.unfold(And(cube), 0));
+			return solver.check().isUnsat();
+		}
+	}
+
+	/**
+	 * Check whether the negation of the cube is inductive relative to the frame before the
+	 * given one, i.e., whether F[frame-1] & !cube & T & cube' is unsatisfiable. The literals of
+	 * cube' are tracked, the ones in the unsat core form a smaller cube that is also blocked.
+	 */
+	private QueryResult checkRelativeInductive(final List<Expr<BoolType>> cube, final int frame) {
+		final UCSolver solver = solvers.get(frame - 1);
+		try (WithPushPop wpp = new WithPushPop(solver)) {
+			solver.track(transActivation.getRef());
+			solver.track(PathUtils.unfold(Not(And(cube)), 0));
+			final List<Expr<BoolType>> nextLiterals = new ArrayList<>();
+			for (final Expr<BoolType> literal : cube) {
+				final Expr<BoolType> next = PathUtils.unfold(literal, nextIndexing);
+				nextLiterals.add(next);
+				solver.track(next);
+			}
+			if (solver.check().isSat()) {
+				return QueryResult.notInductive(PathUtils.extractValuation(solver.getModel(), indexing(0), model.getVars()));
+			}
+			final Set<Expr<BoolType>> unsatCore = new HashSet<>(solver.getUnsatCore());
+			final List<Expr<BoolType>> core = new ArrayList<>();
+			for (int i = 0; i < cube.size(); i++) {
+				if (unsatCore.contains(nextLiterals.get(i))) {
+					core.add(cube.get(i));
+				}
+			}
+			return QueryResult.inductive(core);
+		}
+	}
+
+	private Trace<S, A> extractTrace(final Obligation first) {
+		final List<Valuation> valuations = new ArrayList<>();
+		for (Obligation obligation = first; obligation != null; obligation = obligation.parent) {
+			valuations.add(obligation.valuation);
+		}
+		final List<S> states = new ArrayList<>();
+		final List<A> actions = new ArrayList<>();
+		for (int i = 0; i < valuations.size(); i++) {
+			states.add(valToState.apply(valuations.get(i)));
+			if (i > 0) {
+				actions.add(biValToAction.apply(valuations.get(i - 1), valuations.get(i)));
+			}
+		}
+		return Trace.of(states, actions);
+	}
+
+	private List<Expr<BoolType>> toCube(final Valuation valuation) {
+		final List<Expr<BoolType>> cube = new ArrayList<>();
+		for (final VarDecl<?> var : model.getVars()) {
+			final Optional<? extends LitExpr<?>> value = valuation.eval(var);
+			value.ifPresent(v -> cube.add(Eq(var.getRef(), v)));
+		}
+		return Collections.unmodifiableList(cube);
+	}
+
+	@Override
+	public String toString() {
+		return Utils.lispStringBuilder(getClass().getSimpleName())
+				.add(inductiveGeneralization ? "inductive generalization" : "").toString();
+	}
+
+	private final class Obligation {
+		private final Valuation valuation;
+		private final List<Expr<BoolType>> cube;
+		private final int frame;
+		private final int depth;
+		private final Obligation parent;
+
+		private Obligation(final Valuation valuation, final int frame, final Obligation parent) {
+			this.valuation = valuation;
+			this.cube = toCube(valuation);
+			this.frame = frame;
+			this.depth = parent == null ? 0 : parent.depth + 1;
+			this.parent = parent;
+		}
+	}
+
+	private static final class QueryResult {
+		private final Valuation predecessor;
+		private final List<Expr<BoolType>> core;
+
+		private QueryResult(final Valuation predecessor, final List<Expr<BoolType>> core) {
+			this.predecessor = predecessor;
+			this.core = core;
+		}
+
+		private static QueryResult inductive(final List<Expr<BoolType>> core) {
+			return new QueryResult(null, core);
+		}
+
+		private static QueryResult notInductive(final Valuation predecessor) {
+			return new QueryResult(predecessor, null);
+		}
+
+		private boolean isInductive() {
+			return predecessor == null;
+		}
+	}
+
+	public static final class Builder<S extends ExprState, A extends ExprAction> {
+		private final MonolithicExpr model;
+		private final Function<? super Valuation, ? extends S> valToState;
+		private final BiFunction<? super Valuation, ? super Valuation, ? extends A> biValToAction;
+		private final SolverFactory solverFactory;
+		private boolean inductiveGeneralization;
+		private Logger logger;
+
+		private Builder(final MonolithicExpr model, final Function<? super Valuation, ? extends S> valToState,
+						final BiFunction<? super Valuation, ? super Valuation, ? extends A> biValToAction,
+						final SolverFactory solverFactory) {
+			this.model = checkNotNull(model);
+			this.valToState = checkNotNull(valToState);
+			this.biValToAction = checkNotNull(biValToAction);
+			this.solverFactory = checkNotNull(solverFactory);
+			this.inductiveGeneralization = true;
+			this.logger = NullLogger.getInstance();
+		}
+
+		/**
+		 * Try to drop literals of the blocked cubes one by one (besides using the assumption
+		 * cores), which results in stronger lemmas but needs more solver calls.
+		 */
+		public Builder<S, A> inductiveGeneralization(final boolean inductiveGeneralization) {
+			this.inductiveGeneralization = inductiveGeneralization;
+			return this;
+		}
+
+		public Builder<S, A> logger(final Logger logger) {
+			this.logger = logger;
+			return this;
+		}
+
+		public Ic3Checker<S, A> build() {
+			return new Ic3Checker<>(this);
+		}
+	}
+}
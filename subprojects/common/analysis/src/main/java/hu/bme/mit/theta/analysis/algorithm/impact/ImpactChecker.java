@@ -0,0 +1,347 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.algorithm.impact;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import hu.bme.mit.theta.analysis.Action;
+import hu.bme.mit.theta.analysis.Analysis;
+import hu.bme.mit.theta.analysis.LTS;
+import hu.bme.mit.theta.analysis.Prec;
+import hu.bme.mit.theta.analysis.State;
+import hu.bme.mit.theta.analysis.Trace;
+import hu.bme.mit.theta.analysis.algorithm.ARG;
+import hu.bme.mit.theta.analysis.algorithm.ArgBuilder;
+import hu.bme.mit.theta.analysis.algorithm.ArgNode;
+import hu.bme.mit.theta.analysis.algorithm.ArgTrace;
+import hu.bme.mit.theta.analysis.algorithm.SafetyChecker;
+import hu.bme.mit.theta.analysis.algorithm.SafetyResult;
+import hu.bme.mit.theta.common.Utils;
+import hu.bme.mit.theta.common.logging.Logger;
+import hu.bme.mit.theta.common.logging.Logger.Level;
+import hu.bme.mit.theta.common.logging.NullLogger;
+import hu.bme.mit.theta.common.metrics.Counter;
+import hu.bme.mit.theta.common.metrics.Metrics;
+
+/**
+ * Lazy abstraction with interpolants (IMPACT). A single ARG is unwound, and when a target
+ * state is reached, the states along its path are strengthened by the refiner instead of
+ * rebuilding the ARG with a refined precision. Nodes are covered by earlier nodes of the same
+ * partition, and optionally forced covering is attempted by strengthening the path to a node
+ * so that it becomes covered.
+ * <p>
+ * As target states may become unreachable by strengthening (e.g., for target predicates over
+ * variables), targets are not marked in the ARG, but checked by the checker on the (possibly
+ * refined) states before expanding them.
+ */
+public final class ImpactChecker<S extends State, A extends Action, P extends Prec> implements SafetyChecker<S, A, P> {
+
+	private static final Counter refinements = Metrics.counter("impact.refinements");
+	private static final Counter forcedCovers = Metrics.counter("impact.forcedCovers");
+	private static final Counter expandedNodes = Metrics.counter("impact.expandedNodes");
+
+	private final ArgBuilder<S, A, P> argBuilder;
+	private final Predicate<? super S> target;
+	private final ImpactRefiner<S, A> refiner;
+	private final Function<? super S, ?> partitioning;
+	private final boolean forcedCovering;
+	private final Logger logger;
+
+	private ImpactChecker(final ArgBuilder<S, A, P> argBuilder, final Predicate<? super S> target,
+						  final ImpactRefiner<S, A> refiner, final Function<? super S, ?> partitioning,
+						  final boolean forcedCovering, final Logger logger) {
+		this.argBuilder = checkNotNull(argBuilder);
+		this.target = checkNotNull(target);
+		this.refiner = checkNotNull(refiner);
+		this.partitioning = checkNotNull(partitioning);
+		this.forcedCovering = forcedCovering;
+		this.logger = checkNotNull(logger);
+	}
+
+	public static <S extends State, A extends Action, P extends Prec> ImpactChecker<S, A, P> create(
+			final LTS<? super S, ? extends A> lts, final Analysis<S, ? super A, ? super P> analysis,
+			final Predicate<? super S> target, final ImpactRefiner<S, A> refiner,
+			final Function<? super S, ?> partitioning) {
+		return ImpactChecker.<S, A, P>builder(lts, analysis, target, refiner).partitioning(partitioning).build();
+	}
+
+	public static <S extends State, A extends Action, P extends Prec> Builder<S, A, P> builder(
+			final LTS<? super S, ? extends A> lts, final Analysis<S, ? super A, ? super P> analysis,
+			final Predicate<? super S> target, final ImpactRefiner<S, A> refiner) {
+		return new Builder<>(lts, analysis, target, refiner);
+	}
+
+	////
+
+	@Override
+	public SafetyResult<S, A> check(final P prec) {
+		logger.write(Level.INFO, "Configuration: %s%n", this);
+		final SafetyResult<S, A> result = new CheckMethod(prec).run();
+		logger.write(Level.RESULT, "%s%n", result);
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		return Utils.lispStringBuilder(getClass().getSimpleName()).add(refiner)
+				.add(forcedCovering ? "forcedCovering" : "noForcedCovering").toString();
+	}
+
+	////
+
+	private final class CheckMethod {
+		private final P prec;
+
+		private final ARG<S, A> arg;
+		private final ImpactReachedSet<S, A, ?> reachedSet;
+		private final Deque<ArgNode<S, A>> worklist;
+
+		private CheckMethod(final P prec) {
+			this.prec = checkNotNull(prec);
+			arg = argBuilder.createArg();
+			reachedSet = ImpactReachedSet.create(partitioning);
+			worklist = new ArrayDeque<>();
+		}
+
+		private SafetyResult<S, A> run() {
+			final Optional<ArgNode<S, A>> unsafeNode = unwind();
+
+			if (unsafeNode.isPresent()) {
+				return SafetyResult.unsafe(ArgTrace.to(unsafeNode.get()).toTrace(), arg);
+			} else {
+				return SafetyResult.safe(arg);
+			}
+		}
+
+		////
+
+		/**
+		 * Processes the incomplete nodes in a FIFO order. The worklist contains every node that
+		 * is not expanded and not excluded (and possibly some nodes that are already complete,
+		 * these are skipped): new nodes are added when created, and the incomplete descendants
+		 * of nodes that lose their cover are added again.
+		 */
+		private Optional<ArgNode<S, A>> unwind() {
+			argBuilder.init(arg, prec);
+			arg.getInitNodes().forEach(this::add);
+
+			while (!worklist.isEmpty()) {
+				final ArgNode<S, A> v = worklist.remove();
+				if (v.isExpanded() || v.isExcluded()) {
+					continue;
+				}
+
+				close(v);
+				if (v.isExcluded()) {
+					continue;
+				}
+
+				if (target.test(v.getState())) {
+					if (!refine(v)) {
+						return Optional.of(v);
+					}
+					// The path to the node is infeasible, so if the target depends on something
+					// that is not strengthened (e.g., a location), the node is not expanded
+					if (v.isExcluded() || v.getState().isBottom() || target.test(v.getState())) {
+						continue;
+					}
+				}
+
+				if (forcedCovering && forceCover(v)) {
+					continue;
+				}
+
+				expand(v);
+			}
+
+			return Optional.empty();
+		}
+
+		////
+
+		private void add(final ArgNode<S, A> node) {
+			reachedSet.add(node);
+			worklist.add(node);
+		}
+
+		private void expand(final ArgNode<S, A> v) {
+			argBuilder.expand(v, prec);
+			expandedNodes.increment();
+			v.getSuccNodes().forEach(this::add);
+		}
+
+		private void close(final ArgNode<S, A> node) {
+			final Optional<ArgNode<S, A>> coveringNode = reachedSet.findCoveringNode(node);
+			coveringNode.ifPresent(w -> cover(node, w));
+		}
+
+		/**
+		 * Covers a node, the nodes covered by its descendants lose their cover.
+		 */
+		private void cover(final ArgNode<S, A> node, final ArgNode<S, A> coveringNode) {
+			final List<ArgNode<S, A>> uncoveredNodes = node.properDescendants().flatMap(ArgNode::getCoveredNodes)
+					.collect(toList());
+			node.cover(coveringNode);
+			uncoveredNodes.forEach(this::reopen);
+		}
+
+		private void clearCoveredNodes(final ArgNode<S, A> node) {
+			final List<ArgNode<S, A>> uncoveredNodes = node.getCoveredNodes().collect(toList());
+			node.clearCoveredNodes();
+			uncoveredNodes.forEach(this::reopen);
+		}
+
+		/**
+		 * Adds the incomplete descendants of a node that lost its cover to the worklist.
+		 */
+		private void reopen(final ArgNode<S, A> node) {
+			node.descendants().filter(n -> !n.isExpanded()).forEach(worklist::add);
+		}
+
+		/**
+		 * Refines the path to a target node, returns false if it is feasible.
+		 */
+		private boolean refine(final ArgNode<S, A> v) {
+			final ArgTrace<S, A> argTrace = ArgTrace.to(v);
+
+			final Trace<S, A> trace = argTrace.toTrace();
+			final ImpactRefiner.RefinementResult<S, A> refinementResult = refiner.refine(trace);
+
+			if (refinementResult.isSuccesful()) {
+				refinements.increment();
+				logger.write(Level.SUBSTEP, "|  Refined path of length %d%n", argTrace.nodes().size());
+				strengthen(argTrace.nodes(), refinementResult.asSuccesful().getTrace(), 0);
+				argTrace.nodes().stream().filter(n -> !n.isExcluded()).forEach(this::close);
+				return true;
+			} else {
+				return false;
+			}
+		}
+
+		/**
+		 * Tries to cover a node by strengthening the path from the nearest common ancestor of
+		 * the node and a candidate covering node.
+		 */
+		private boolean forceCover(final ArgNode<S, A> v) {
+			final List<ArgNode<S, A>> candidates = reachedSet.getCandidates(v).collect(toList());
+			for (final ArgNode<S, A> w : candidates) {
+				if (w.isExcluded()) {
+					continue;
+				}
+				final Set<ArgNode<S, A>> ancestorsOfW = w.ancestors().collect(toSet());
+				final Optional<ArgNode<S, A>> commonAncestor = v.properAncestors().filter(ancestorsOfW::contains)
+						.findFirst();
+				if (!commonAncestor.isPresent() || commonAncestor.get().equals(w)) {
+					continue;
+				}
+
+				final List<ArgNode<S, A>> segment = getSegment(commonAncestor.get(), v);
+				final Trace<S, A> trace = Trace.of(segment.stream().map(ArgNode::getState).collect(toList()),
+						segment.stream().skip(1).map(n -> n.getInEdge().get().getAction()).collect(toList()));
+				final ImpactRefiner.RefinementResult<S, A> refinementResult = refiner.refineCover(trace, w.getState());
+
+				if (refinementResult.isSuccesful()) {
+					strengthen(segment, refinementResult.asSuccesful().getTrace(), 1);
+					if (!v.isExcluded() && !w.isExcluded() && w.mayCover(v)) {
+						cover(v, w);
+						forcedCovers.increment();
+					}
+					return v.isExcluded();
+				}
+			}
+			return false;
+		}
+
+		private List<ArgNode<S, A>> getSegment(final ArgNode<S, A> from, final ArgNode<S, A> to) {
+			final List<ArgNode<S, A>> segment = new ArrayList<>();
+			ArgNode<S, A> node = to;
+			while (!node.equals(from)) {
+				segment.add(0, node);
+				node = node.getParent().get();
+			}
+			segment.add(0, from);
+			return segment;
+		}
+
+		private void strengthen(final List<ArgNode<S, A>> nodes, final Trace<S, A> refinedTrace, final int from) {
+			for (int i = from; i < nodes.size(); i++) {
+				final ArgNode<S, A> vi = nodes.get(i);
+				clearCoveredNodes(vi);
+				vi.setState(refinedTrace.getState(i));
+			}
+		}
+
+	}
+
+	public static final class Builder<S extends State, A extends Action, P extends Prec> {
+		private final LTS<? super S, ? extends A> lts;
+		private final Analysis<S, ? super A, ? super P> analysis;
+		private final Predicate<? super S> target;
+		private final ImpactRefiner<S, A> refiner;
+		private Function<? super S, ?> partitioning;
+		private boolean forcedCovering;
+		private Logger logger;
+
+		private Builder(final LTS<? super S, ? extends A> lts, final Analysis<S, ? super A, ? super P> analysis,
+						final Predicate<? super S> target, final ImpactRefiner<S, A> refiner) {
+			this.lts = lts;
+			this.analysis = analysis;
+			this.target = target;
+			this.refiner = refiner;
+			this.partitioning = s -> 0;
+			this.forcedCovering = false;
+			this.logger = NullLogger.getInstance();
+		}
+
+		/**
+		 * Nodes are only covered by nodes in the same partition.
+		 */
+		public Builder<S, A, P> partitioning(final Function<? super S, ?> partitioning) {
+			this.partitioning = partitioning;
+			return this;
+		}
+
+		/**
+		 * Before expanding a node, try to cover it with an earlier node of its partition by
+		 * strengthening the path from their nearest common ancestor.
+		 */
+		public Builder<S, A, P> forcedCovering(final boolean forcedCovering) {
+			this.forcedCovering = forcedCovering;
+			return this;
+		}
+
+		public Builder<S, A, P> logger(final Logger logger) {
+			this.logger = logger;
+			return this;
+		}
+
+		public ImpactChecker<S, A, P> build() {
+			final ArgBuilder<S, A, P> argBuilder = ArgBuilder.create(lts, analysis, s -> false, true);
+			return new ImpactChecker<>(argBuilder, target, refiner, partitioning, forcedCovering, logger);
+		}
+	}
+}
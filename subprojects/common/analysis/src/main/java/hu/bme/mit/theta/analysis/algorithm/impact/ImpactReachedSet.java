@@ -13,7 +13,7 @@
  *  See the License for the specific language governing permissions and
  *  limitations under the License.
  */
-package hu.bme.mit.theta.cfa.analysis.impact;
+package hu.bme.mit.theta.analysis.algorithm.impact;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -23,7 +23,9 @@ import java.util.Collections;
 import hu.bme.mit.theta.common.container.Containers;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.function.Function;
+import java.util.stream.Stream;
 
 import hu.bme.mit.theta.analysis.Action;
 import hu.bme.mit.theta.analysis.State;
@@ -57,20 +59,27 @@ public final class ImpactReachedSet<S extends State, A extends Action, K> implem
 
 	@Override
 	public void tryToCover(final ArgNode<S, A> node) {
+		findCoveringNode(node).ifPresent(node::cover);
+	}
+
+	/**
+	 * Finds a node that may cover the given node among its candidates.
+	 */
+	public Optional<ArgNode<S, A>> findCoveringNode(final ArgNode<S, A> node) {
+		return getCandidates(node).filter(n -> n.mayCover(node)).findFirst();
+	}
+
+	/**
+	 * Gets the nodes that are candidates for covering the given node: the unexcluded nodes of
+	 * its partition that were created before it. Nodes are added in the order of their
+	 * creation, so the candidates are ordered by their ids.
+	 */
+	public Stream<ArgNode<S, A>> getCandidates(final ArgNode<S, A> node) {
 		checkNotNull(node);
 		final S state = node.getState();
 		final K key = partitioning.apply(state);
 		final Collection<ArgNode<S, A>> partition = partitions.getOrDefault(key, Collections.emptyList());
-		for (final ArgNode<S, A> nodeToCoverWith : partition) {
-			if (nodeToCoverWith.getId() < node.getId()) {
-				if (nodeToCoverWith.mayCover(node)) {
-					node.cover(nodeToCoverWith);
-					return;
-				}
-			} else {
-				return;
-			}
-		}
+		return partition.stream().takeWhile(n -> n.getId() < node.getId()).filter(n -> !n.isExcluded());
 	}
 
 }
@@ -13,7 +13,7 @@
  *  See the License for the specific language governing permissions and
  *  limitations under the License.
  */
-package hu.bme.mit.theta.cfa.analysis.impact;
+package hu.bme.mit.theta.analysis.algorithm.impact;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -25,6 +25,15 @@ public interface ImpactRefiner<S extends State, A extends Action> {
 
 	RefinementResult<S, A> refine(final Trace<S, A> cex);
 
+	/**
+	 * Tries to strengthen the states of a path segment so that its last state is covered by the
+	 * given state, starting from the (unchanged) first state of the segment. This is used for
+	 * forced covering, the default implementation does not support it.
+	 */
+	default RefinementResult<S, A> refineCover(final Trace<S, A> segment, final S coveringState) {
+		return RefinementResult.unsuccesful();
+	}
+
 	abstract class RefinementResult<S extends State, A extends Action> {
 
 		private RefinementResult() {
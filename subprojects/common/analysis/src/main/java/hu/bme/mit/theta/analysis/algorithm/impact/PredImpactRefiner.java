@@ -0,0 +1,141 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.algorithm.impact;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.False;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Not;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import hu.bme.mit.theta.analysis.Trace;
+import hu.bme.mit.theta.analysis.expr.ExprAction;
+import hu.bme.mit.theta.analysis.expr.ExprState;
+import hu.bme.mit.theta.analysis.expr.ExprTraceUtils;
+import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceSeqItpChecker;
+import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceStatus;
+import hu.bme.mit.theta.analysis.expr.refinement.ItpRefutation;
+import hu.bme.mit.theta.analysis.pred.PredState;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.solver.ItpSolver;
+
+/**
+ * Refiner for the lazy abstraction with predicate states: the states along an infeasible path
+ * are strengthened with the sequence interpolants of the path. States with a false interpolant
+ * become bottom. The same interpolating solver is used for all refinements (and forced covering
+ * checks).
+ */
+public final class PredImpactRefiner<S extends ExprState, A extends ExprAction> implements ImpactRefiner<S, A> {
+
+	private final ItpSolver solver;
+	private final ExprTraceSeqItpChecker traceChecker;
+	private final Function<? super S, PredState> getPredState;
+	private final BiFunction<? super S, PredState, ? extends S> setPredState;
+
+	private PredImpactRefiner(final ItpSolver solver, final Expr<BoolType> init, final Expr<BoolType> target,
+							  final Function<? super S, PredState> getPredState,
+							  final BiFunction<? super S, PredState, ? extends S> setPredState) {
+		this.solver = checkNotNull(solver);
+		this.getPredState = checkNotNull(getPredState);
+		this.setPredState = checkNotNull(setPredState);
+		traceChecker = ExprTraceSeqItpChecker.create(init, target, solver);
+	}
+
+	/**
+	 * Creates a refiner for the predicate states wrapped in the states of the analysis.
+	 *
+	 * @param init         Formula describing the initial states
+	 * @param target       Formula describing the target states
+	 * @param getPredState Function extracting the predicate state
+	 * @param setPredState Function replacing the predicate state
+	 */
+	public static <S extends ExprState, A extends ExprAction> PredImpactRefiner<S, A> create(
+			final ItpSolver solver, final Expr<BoolType> init, final Expr<BoolType> target,
+			final Function<? super S, PredState> getPredState,
+			final BiFunction<? super S, PredState, ? extends S> setPredState) {
+		return new PredImpactRefiner<>(solver, init, target, getPredState, setPredState);
+	}
+
+	@Override
+	public RefinementResult<S, A> refine(final Trace<S, A> cex) {
+		return refine(cex, traceChecker, 0);
+	}
+
+	@Override
+	public RefinementResult<S, A> refineCover(final Trace<S, A> segment, final S coveringState) {
+		final ExprTraceSeqItpChecker coverChecker = ExprTraceSeqItpChecker.create(segment.getState(0).toExpr(),
+				Not(coveringState.toExpr()), solver);
+		return refine(segment, coverChecker, 1);
+	}
+
+	/**
+	 * Strengthens the states of the trace starting from the given index with the interpolants.
+	 */
+	private RefinementResult<S, A> refine(final Trace<S, A> trace, final ExprTraceSeqItpChecker checker,
+										  final int from) {
+		final List<A> actions = trace.getActions();
+
+		final Trace<ExprState, ExprAction> exprTrace = ExprTraceUtils.traceFrom(actions);
+		final ExprTraceStatus<ItpRefutation> traceStatus = checker.check(exprTrace);
+
+		if (traceStatus.isFeasible()) {
+			return RefinementResult.unsuccesful();
+
+		} else if (traceStatus.isInfeasible()) {
+			final ItpRefutation refuation = traceStatus.asInfeasible().getRefutation();
+			final List<Expr<BoolType>> exprs = refuation.toList();
+
+			final List<S> refinedStates = new ArrayList<>();
+			for (int i = 0; i < exprs.size(); i++) {
+				final S state = trace.getState(i);
+				if (i < from) {
+					refinedStates.add(state);
+					continue;
+				}
+
+				final Expr<BoolType> expr = exprs.get(i);
+				final PredState refinedPredState;
+				if (expr.equals(False())) {
+					refinedPredState = PredState.bottom();
+				} else {
+					final List<Expr<BoolType>> newPreds = new ArrayList<>();
+					newPreds.addAll(getPredState.apply(state).getPreds());
+					newPreds.add(expr);
+					refinedPredState = PredState.of(newPreds);
+				}
+
+				final S refinedState = setPredState.apply(state, refinedPredState);
+
+				refinedStates.add(refinedState);
+			}
+
+			final Trace<S, A> refinedTrace = Trace.of(refinedStates, actions);
+			return RefinementResult.succesful(refinedTrace);
+		} else {
+			throw new AssertionError();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName();
+	}
+
+}
@@ -0,0 +1,358 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.algorithm.kind;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static hu.bme.mit.theta.core.type.abstracttype.AbstractExprs.Neq;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Not;
+import static hu.bme.mit.theta.core.type.booltype.SmartBoolExprs.Or;
+import static hu.bme.mit.theta.core.utils.indexings.VarIndexingFactory.indexing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import hu.bme.mit.theta.analysis.Trace;
+import hu.bme.mit.theta.analysis.algorithm.ARG;
+import hu.bme.mit.theta.analysis.algorithm.SafetyChecker;
+import hu.bme.mit.theta.analysis.algorithm.SafetyResult;
+import hu.bme.mit.theta.analysis.expr.ExprAction;
+import hu.bme.mit.theta.analysis.expr.ExprState;
+import hu.bme.mit.theta.analysis.expr.ExprTraceUtils;
+import hu.bme.mit.theta.analysis.expr.MonolithicExpr;
+import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceChecker;
+import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceStatus;
+import hu.bme.mit.theta.analysis.expr.refinement.ItpRefutation;
+import hu.bme.mit.theta.analysis.unit.UnitPrec;
+import hu.bme.mit.theta.common.Utils;
+import hu.bme.mit.theta.common.exception.NotSolvableException;
+import hu.bme.mit.theta.common.logging.Logger;
+import hu.bme.mit.theta.common.logging.Logger.Level;
+import hu.bme.mit.theta.common.logging.NullLogger;
+import hu.bme.mit.theta.common.metrics.Counter;
+import hu.bme.mit.theta.common.metrics.Metrics;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.model.Valuation;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.utils.ExprUtils;
+import hu.bme.mit.theta.core.utils.PathUtils;
+import hu.bme.mit.theta.core.utils.indexings.VarIndexing;
+import hu.bme.mit.theta.solver.Solver;
+import hu.bme.mit.theta.solver.utils.WithPushPop;
+
+/**
+ * k-induction over a monolithic transition relation. In iteration k, the base case checks with
+ * bounded model checking whether the property can be violated after exactly k steps, and the
+ * step case checks whether k consecutive steps satisfying the property are always followed by a
+ * state satisfying the property. The unrolling is incremental: both solvers keep their
+ * formulas between the iterations and only the violation of the property is checked with
+ * push/pop.
+ * <p>
+ * The step case can be strengthened with simple path constraints (requiring the states of
+ * the unrolling to be pairwise different), which makes k-induction complete for finite state
+ * systems, and with invariants: the conjuncts of the interpolants refuting the paths of the
+ * base case are candidate invariants, and the ones that are inductive (relative to each other)
+ * are asserted in every state of the step case.
+ */
+public final class KIndChecker<S extends ExprState, A extends ExprAction> implements SafetyChecker<S, A, UnitPrec> {
+
+	private static final Counter invariantsFound = Metrics.counter("kind.invariants");
+
+	private final MonolithicExpr model;
+	private final Function<? super Valuation, ? extends S> valToState;
+	private final BiFunction<? super Valuation, ? super Valuation, ? extends A> biValToAction;
+	private final Solver baseSolver;
+	private final Solver stepSolver;
+	private final ExprTraceChecker<ItpRefutation> itpChecker;
+	private final Solver lemmaSolver;
+	private final boolean simplePath;
+	private final int upperBound;
+	private final Logger logger;
+
+	private KIndChecker(final Builder<S, A> builder) {
+		this.model = builder.model;
+		this.valToState = builder.valToState;
+		this.biValToAction = builder.biValToAction;
+		this.baseSolver = builder.baseSolver;
+		this.stepSolver = builder.stepSolver;
+		this.itpChecker = builder.itpChecker;
+		this.lemmaSolver = builder.lemmaSolver;
+		this.simplePath = builder.simplePath;
+		this.upperBound = builder.upperBound;
+		this.logger = builder.logger;
+	}
+
+	/**
+	 * Creates a builder for the checker.
+	 *
+	 * @param model         The transition system
+	 * @param valToState    Creates a state of the counterexample from the values of the variables
+	 * @param biValToAction Creates an action of the counterexample from the values of the
+	 *                      variables before and after the step
+	 * @param baseSolver    Solver for the base case
+	 * @param stepSolver    Solver for the step case
+	 */
+	public static <S extends ExprState, A extends ExprAction> Builder<S, A> builder(
+			final MonolithicExpr model, final Function<? super Valuation, ? extends S> valToState,
+			final BiFunction<? super Valuation, ? super Valuation, ? extends A> biValToAction,
+			final Solver baseSolver, final Solver stepSolver) {
+		return new Builder<>(model, valToState, biValToAction, baseSolver, stepSolver);
+	}
+
+	@Override
+	public SafetyResult<S, A> check(final UnitPrec prec) {
+		logger.write(Level.INFO, "Configuration: %s%n", this);
+		try (WithPushPop basePushPop = new WithPushPop(baseSolver);
+			 WithPushPop stepPushPop = new WithPushPop(stepSolver)) {
+			final SafetyResult<S, A> result = check();
+			logger.write(Level.RESULT, "%s%n", result);
+			return result;
+		}
+	}
+
+	private SafetyResult<S, A> check() {
+		final Expr<BoolType> prop = model.getProp();
+		final ExprAction trans = model.getTrans();
+		final List<VarIndexing> indexings = new ArrayList<>();
+		final List<Expr<BoolType>> invariants = new ArrayList<>();
+		indexings.add(indexing(0));
+
+		baseSolver.add(PathUtils.unfold(model.getInit(), indexings.get(0)));
+
+		for (int k = 0; upperBound < 0 || k <= upperBound; k++) {
+			logger.write(Level.MAINSTEP, "Iteration %d%n", k);
+			final VarIndexing current = indexings.get(k);
+
+			logger.write(Level.SUBSTEP, "| Checking base case...%n");
+			try (WithPushPop wpp = new WithPushPop(baseSolver)) {
+				baseSolver.add(PathUtils.unfold(Not(prop), current));
+				if (baseSolver.check().isSat()) {
+					logger.write(Level.SUBSTEP, "| Property violated at depth %d%n", k);
+					return SafetyResult.unsafe(extractTrace(baseSolver.getModel(), indexings), ARG.create((s1, s2) -> false));
+				}
+			}
+			baseSolver.add(PathUtils.unfold(prop, current));
+
+			logger.write(Level.SUBSTEP, "| Checking step case...%n");
+			boolean stepCaseValid = isStepCaseValid(current);
+			while (!stepCaseValid && itpChecker != null && strengthen(k, indexings, invariants)) {
+				stepCaseValid = isStepCaseValid(current);
+			}
+			if (stepCaseValid) {
+				logger.write(Level.SUBSTEP, "| Property is %d-inductive%n", k);
+				return SafetyResult.safe(ARG.create((s1, s2) -> false));
+			}
+			stepSolver.add(PathUtils.unfold(prop, current));
+
+			final VarIndexing next = current.add(trans.nextIndexing());
+			final Expr<BoolType> transExpr = PathUtils.unfold(trans.toExpr(), current);
+			baseSolver.add(transExpr);
+			stepSolver.add(transExpr);
+			for (final Expr<BoolType> invariant : invariants) {
+				stepSolver.add(PathUtils.unfold(invariant, next));
+			}
+			if (simplePath) {
+				for (final VarIndexing previous : indexings) {
+					stepSolver.add(distinct(previous, next));
+				}
+			}
+			indexings.add(next);
+		}
+
+		logger.write(Level.RESULT, "Upper bound %d reached%n", upperBound);
+		throw new NotSolvableException();
+	}
+
+	private boolean isStepCaseValid(final VarIndexing last) {
+		try (WithPushPop wpp = new WithPushPop(stepSolver)) {
+			stepSolver.add(PathUtils.unfold(Not(model.getProp()), last));
+			return stepSolver.check().isUnsat();
+		}
+	}
+
+	/**
+	 * Strengthen the step case with the inductive conjuncts of the interpolants refuting the
+	 * paths of length k to the violation of the property. Returns false if no new invariant
+	 * was found.
+	 */
+	private boolean strengthen(final int k, final List<VarIndexing> indexings, final List<Expr<BoolType>> invariants) {
+		final List<ExprAction> actions = Collections.nCopies(k, model.getTrans());
+		final ExprTraceStatus<ItpRefutation> status = itpChecker.check(ExprTraceUtils.traceFrom(actions));
+		if (!status.isInfeasible()) {
+			return false;
+		}
+
+		final Set<Expr<BoolType>> candidates = new LinkedHashSet<>();
+		for (final Expr<BoolType> itp : status.asInfeasible().getRefutation()) {
+			for (final Expr<BoolType> conjunct : ExprUtils.getConjuncts(itp)) {
+				if (!invariants.contains(conjunct) && isInitiated(conjunct)) {
+					candidates.add(conjunct);
+				}
+			}
+		}
+		removeNonInductive(candidates, invariants);
+		if (candidates.isEmpty()) {
+			return false;
+		}
+
+		logger.write(Level.SUBSTEP, "| Strengthening with %d invariant(s)%n", candidates.size());
+		invariantsFound.add(candidates.size());
+		for (final Expr<BoolType> invariant : candidates) {
+			invariants.add(invariant);
+			for (int i = 0; i <= k; i++) {
+				stepSolver.add(PathUtils.unfold(invariant, indexings.get(i)));
+			}
+		}
+		return true;
+	}
+
+	private boolean isInitiated(final Expr<BoolType> candidate) {
+		try (WithPushPop wpp = new WithPushPop(lemmaSolver)) {
+			lemmaSolver.add(PathUtils.unfold(model.getInit(), 0));
+			lemmaSolver.add(PathUtils.unfold(Not(candidate), 0));
+			return lemmaSolver.check().isUnsat();
+		}
+	}
+
+	/**
+	 * Remove the candidates that are not inductive relative to the invariants and the other
+	 * candidates until a fixpoint is reached. The remaining ones are inductive together.
+	 */
+	private void removeNonInductive(final Set<Expr<BoolType>> candidates, final List<Expr<BoolType>> invariants) {
+		final ExprAction trans = model.getTrans();
+		boolean changed = true;
+		while (changed && !candidates.isEmpty()) {
+			changed = false;
+			try (WithPushPop wpp = new WithPushPop(lemmaSolver)) {
+				invariants.forEach(invariant -> lemmaSolver.add(PathUtils.unfold(invariant, 0)));
+				candidates.forEach(candidate -> lemmaSolver.add(PathUtils.unfold(candidate, 0)));
+				lemmaSolver.add(PathUtils.unfold(trans.toExpr(), 0));
+				for (final Expr<BoolType> candidate : new ArrayList<>(candidates)) {
+					try (WithPushPop wpp2 = new WithPushPop(lemmaSolver)) {
+						lemmaSolver.add(PathUtils.unfold(Not(candidate), trans.nextIndexing()));
+						if (lemmaSolver.check().isSat()) {
+							candidates.remove(candidate);
+							changed = true;
+						}
+					}
+				}
+			}
+		}
+	}
+
+	private Expr<BoolType> distinct(final VarIndexing first, final VarIndexing second) {
+		final List<Expr<BoolType>> differences = new ArrayList<>();
+		for (final VarDecl<?> var : model.getVars()) {
+			differences.add(Neq(PathUtils.unfold(var.getRef(), first), PathUtils.unfold(var.getRef(), second)));
+		}
+		return Or(differences);
+	}
+
+	private Trace<S, A> extractTrace(final Valuation solverModel, final List<VarIndexing> indexings) {
+		final List<Valuation> valuations = new ArrayList<>();
+		for (final VarIndexing indexing : indexings) {
+			valuations.add(PathUtils.extractValuation(solverModel, indexing, model.getVars()));
+		}
+		final List<S> states = new ArrayList<>();
+		final List<A> actions = new ArrayList<>();
+		for (int i = 0; i < valuations.size(); i++) {
+			states.add(valToState.apply(valuations.get(i)));
+			if (i > 0) {
+				actions.add(biValToAction.apply(valuations.get(i - 1), valuations.get(i)));
+			}
+		}
+		return Trace.of(states, actions);
+	}
+
+	@Override
+	public String toString() {
+		return Utils.lispStringBuilder(getClass().getSimpleName()).add(upperBound < 0 ? "unbounded" : upperBound)
+				.add(simplePath ? "simple path" : "").add(itpChecker != null ? "strengthening" : "").toString();
+	}
+
+	public static final class Builder<S extends ExprState, A extends ExprAction> {
+		private final MonolithicExpr model;
+		private final Function<? super Valuation, ? extends S> valToState;
+		private final BiFunction<? super Valuation, ? super Valuation, ? extends A> biValToAction;
+		private final Solver baseSolver;
+		private final Solver stepSolver;
+		private ExprTraceChecker<ItpRefutation> itpChecker;
+		private Solver lemmaSolver;
+		private boolean simplePath;
+		private int upperBound;
+		private Logger logger;
+
+		private Builder(final MonolithicExpr model, final Function<? super Valuation, ? extends S> valToState,
+						final BiFunction<? super Valuation, ? super Valuation, ? extends A> biValToAction,
+						final Solver baseSolver, final Solver stepSolver) {
+			this.model = checkNotNull(model);
+			this.valToState = checkNotNull(valToState);
+			this.biValToAction = checkNotNull(biValToAction);
+			this.baseSolver = checkNotNull(baseSolver);
+			this.stepSolver = checkNotNull(stepSolver);
+			checkArgument(baseSolver != stepSolver, "The base and step cases need different solvers");
+			this.itpChecker = null;
+			this.lemmaSolver = null;
+			this.simplePath = false;
+			this.upperBound = -1;
+			this.logger = NullLogger.getInstance();
+		}
+
+		/**
+		 * Require the states of the step case to be pairwise different.
+		 */
+		public Builder<S, A> simplePath(final boolean simplePath) {
+			this.simplePath = simplePath;
+			return this;
+		}
+
+		/**
+		 * Strengthen the step case with invariants from the interpolants of the trace checker,
+		 * which has to be created with the initial formula and the negated property of the
+		 * model. The candidate invariants are checked with the given (separate) solver.
+		 */
+		public Builder<S, A> invariantStrengthening(final ExprTraceChecker<ItpRefutation> itpChecker,
+													  final Solver lemmaSolver) {
+			this.itpChecker = checkNotNull(itpChecker);
+			this.lemmaSolver = checkNotNull(lemmaSolver);
+			return this;
+		}
+
+		/**
+		 * Maximal depth of the unrolling, or -1 for no bound. If the bound is reached without a
+		 * result, a {@link NotSolvableException} is thrown.
+		 */
+		public Builder<S, A> upperBound(final int upperBound) {
+			this.upperBound = upperBound;
+			return this;
+		}
+
+		public Builder<S, A> logger(final Logger logger) {
+			this.logger = logger;
+			return this;
+		}
+
+		public KIndChecker<S, A> build() {
+			return new KIndChecker<>(this);
+		}
+	}
+}
@@ -19,6 +19,9 @@ import hu.bme.mit.theta.analysis.TransFunc;
 import hu.bme.mit.theta.analysis.expl.StmtApplier.ApplyResult;
 import hu.bme.mit.theta.analysis.expr.ExprStates;
 import hu.bme.mit.theta.analysis.expr.StmtAction;
+import hu.bme.mit.theta.common.metrics.Counter;
+import hu.bme.mit.theta.common.metrics.Metrics;
+import hu.bme.mit.theta.common.metrics.Timer;
 import hu.bme.mit.theta.core.model.MutableValuation;
 import hu.bme.mit.theta.core.stmt.Stmt;
 import hu.bme.mit.theta.core.type.Expr;
@@ -39,6 +42,9 @@ import static java.util.Collections.singleton;
 
 public final class ExplStmtTransFunc implements TransFunc<ExplState, StmtAction, ExplPrec> {
 
+	private static final Counter appliedWithoutSolver = Metrics.counter("transFunc.explStmt.appliedWithoutSolver");
+	private static final Timer solverEnumerationTimer = Metrics.timer("transFunc.explStmt.solverEnumeration");
+
 	private final Solver solver;
 	// 0 means arbitrarily many
 	private final int maxSuccToEnumerate;
@@ -79,8 +85,10 @@ public final class ExplStmtTransFunc implements TransFunc<ExplState, StmtAction,
 				// We query (max + 1) states from the solver to see if there
 				// would be more than max
 				final int maxToQuery = maxSuccToEnumerate == 0 ? 0 : maxSuccToEnumerate + 1;
+				final long start = solverEnumerationTimer.start();
 				final Collection<ExplState> succStates = ExprStates.createStatesForExpr(solver, expr, 0,
 						prec::createState, nextIdx, maxToQuery);
+				solverEnumerationTimer.stop(start);
 
 				if (succStates.isEmpty()) {
 					return singleton(ExplState.bottom());
@@ -93,6 +101,9 @@ public final class ExplStmtTransFunc implements TransFunc<ExplState, StmtAction,
 			}
 		}
 
+		if (!triedSolver) {
+			appliedWithoutSolver.increment();
+		}
 		final ExplState abstracted = prec.createState(val);
 		return singleton(abstracted);
 	}
@@ -23,11 +23,17 @@ import java.util.Collections;
 import hu.bme.mit.theta.analysis.TransFunc;
 import hu.bme.mit.theta.analysis.expr.ExprAction;
 import hu.bme.mit.theta.analysis.expr.ExprStates;
+import hu.bme.mit.theta.common.metrics.Histogram;
+import hu.bme.mit.theta.common.metrics.Metrics;
+import hu.bme.mit.theta.common.metrics.Timer;
 import hu.bme.mit.theta.core.type.booltype.BoolExprs;
 import hu.bme.mit.theta.solver.Solver;
 
 public final class ExplTransFunc implements TransFunc<ExplState, ExprAction, ExplPrec> {
 
+	private static final Timer succStatesTimer = Metrics.timer("transFunc.expl.succStates");
+	private static final Histogram succStatesCount = Metrics.histogram("transFunc.expl.succStatesCount");
+
 	private final Solver solver;
 
 	private ExplTransFunc(final Solver solver) {
@@ -44,8 +50,11 @@ public final class ExplTransFunc implements TransFunc<ExplState, ExprAction, Exp
 		checkNotNull(state);
 		checkNotNull(action);
 		checkNotNull(prec);
+		final long start = succStatesTimer.start();
 		final Collection<ExplState> succStates = ExprStates.createStatesForExpr(solver,
 				BoolExprs.And(state.toExpr(), action.toExpr()), 0, prec::createState, action.nextIndexing());
+		succStatesTimer.stop(start);
+		succStatesCount.record(succStates.size());
 		return succStates.isEmpty() ? Collections.singleton(ExplState.bottom()) : succStates;
 	}
 
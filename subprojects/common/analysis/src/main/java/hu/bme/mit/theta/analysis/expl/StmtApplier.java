@@ -88,7 +88,8 @@ public final class StmtApplier {
 	private static ApplyResult applyAssign(final AssignStmt<?> stmt, final MutableValuation val,
 										   final boolean approximate) {
 		final VarDecl<?> varDecl = stmt.getVarDecl();
-		final Expr<?> expr = ExprUtils.simplify(stmt.getExpr(), val);
+		// Literals (e.g., bitvector constants in C programs) are assigned without simplification
+		final Expr<?> expr = stmt.getExpr() instanceof LitExpr<?> ? stmt.getExpr() : ExprUtils.simplify(stmt.getExpr(), val);
 		if (expr instanceof LitExpr<?>) {
 			final LitExpr<?> lit = (LitExpr<?>) expr;
 			val.put(varDecl, lit);
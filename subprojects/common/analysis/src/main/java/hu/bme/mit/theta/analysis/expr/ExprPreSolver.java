@@ -0,0 +1,440 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.expr;
+
+import hu.bme.mit.theta.common.metrics.Counter;
+import hu.bme.mit.theta.common.metrics.Metrics;
+import hu.bme.mit.theta.core.decl.Decl;
+import hu.bme.mit.theta.core.model.ImmutableValuation;
+import hu.bme.mit.theta.core.model.MutableValuation;
+import hu.bme.mit.theta.core.model.Valuation;
+import hu.bme.mit.theta.core.type.BinaryExpr;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.LitExpr;
+import hu.bme.mit.theta.core.type.anytype.RefExpr;
+import hu.bme.mit.theta.core.type.booltype.BoolLitExpr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.type.booltype.IffExpr;
+import hu.bme.mit.theta.core.type.booltype.NotExpr;
+import hu.bme.mit.theta.core.type.inttype.IntEqExpr;
+import hu.bme.mit.theta.core.type.inttype.IntGeqExpr;
+import hu.bme.mit.theta.core.type.inttype.IntGtExpr;
+import hu.bme.mit.theta.core.type.inttype.IntLeqExpr;
+import hu.bme.mit.theta.core.type.inttype.IntLitExpr;
+import hu.bme.mit.theta.core.type.inttype.IntLtExpr;
+import hu.bme.mit.theta.core.type.inttype.IntNeqExpr;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+import hu.bme.mit.theta.core.utils.ExprUtils;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.And;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Bool;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+
+/**
+ * Cheap, incomplete satisfiability checks that can be performed before calling a solver. The
+ * expression is first simplified under a known valuation, then the literals of the remaining
+ * conjunction (Boolean constants, their negations and comparisons of integer constants with
+ * integer literals) are propagated: fixed values are substituted back and the rest of the
+ * conjunction is simplified again, until a fixpoint is reached. The result is unknown if the
+ * expression could not be reduced to a consistent set of such literals, in which case a solver
+ * has to be called.
+ */
+public final class ExprPreSolver {
+
+	private static final Counter decidedSat = Metrics.counter("preSolver.decidedSat");
+	private static final Counter decidedUnsat = Metrics.counter("preSolver.decidedUnsat");
+	private static final Counter inconclusive = Metrics.counter("preSolver.inconclusive");
+
+	private ExprPreSolver() {
+	}
+
+	/**
+	 * Check the satisfiability of an expression without calling a solver.
+	 *
+	 * @param expr Expression to be checked
+	 * @return Result of the check
+	 */
+	public static Result check(final Expr<BoolType> expr) {
+		return check(expr, ImmutableValuation.empty());
+	}
+
+	/**
+	 * Check the satisfiability of an expression under a known (partial) valuation without
+	 * calling a solver.
+	 *
+	 * @param expr Expression to be checked
+	 * @param val  Known values of some declarations of the expression
+	 * @return Result of the check
+	 */
+	public static Result check(final Expr<BoolType> expr, final Valuation val) {
+		return check(expr, val, false);
+	}
+
+	/**
+	 * Check the satisfiability of an expression without calling a solver, where the query is
+	 * only decided by a satisfiable result if its model is unique (e.g., because all models of
+	 * the expression are needed). Satisfiable results with more models are counted as
+	 * inconclusive, as the solver still has to be called for them.
+	 *
+	 * @param expr Expression to be checked
+	 * @return Result of the check
+	 */
+	public static Result checkUnique(final Expr<BoolType> expr) {
+		return check(expr, ImmutableValuation.empty(), true);
+	}
+
+	private static Result check(final Expr<BoolType> expr, final Valuation val, final boolean uniqueModelNeeded) {
+		checkNotNull(expr);
+		checkNotNull(val);
+		final Result result = new Propagator(val).propagate(expr);
+		if (result.isSat() && (!uniqueModelNeeded || result.isModelUnique())) {
+			decidedSat.increment();
+		} else if (result.isUnsat()) {
+			decidedUnsat.increment();
+		} else {
+			inconclusive.increment();
+		}
+		return result;
+	}
+
+	public static final class Result {
+		private static final Result UNSAT = new Result(Status.UNSAT, null, false);
+		private static final Result UNKNOWN = new Result(Status.UNKNOWN, null, false);
+
+		private enum Status {
+			SAT, UNSAT, UNKNOWN
+		}
+
+		private final Status status;
+		private final Valuation model;
+		private final boolean modelUnique;
+
+		private Result(final Status status, final Valuation model, final boolean modelUnique) {
+			this.status = status;
+			this.model = model;
+			this.modelUnique = modelUnique;
+		}
+
+		public boolean isSat() {
+			return status == Status.SAT;
+		}
+
+		public boolean isUnsat() {
+			return status == Status.UNSAT;
+		}
+
+		public boolean isUnknown() {
+			return status == Status.UNKNOWN;
+		}
+
+		/**
+		 * Get a model of the expression (including the known valuation). Only available if
+		 * the expression is satisfiable.
+		 */
+		public Valuation getModel() {
+			checkState(isSat(), "No model for a non-satisfiable result.");
+			return model;
+		}
+
+		/**
+		 * Check whether the model is the only model of the expression, i.e., all declarations
+		 * of the expression are determined by the known valuation and the propagation.
+		 */
+		public boolean isModelUnique() {
+			return modelUnique;
+		}
+
+		@Override
+		public String toString() {
+			return status.toString();
+		}
+	}
+
+	private enum Rel {
+		EQ, NEQ, LT, LEQ, GT, GEQ;
+
+		Rel flip() {
+			switch (this) {
+				case LT:
+					return GT;
+				case LEQ:
+					return GEQ;
+				case GT:
+					return LT;
+				case GEQ:
+					return LEQ;
+				default:
+					return this;
+			}
+		}
+
+		Rel negate() {
+			switch (this) {
+				case EQ:
+					return NEQ;
+				case NEQ:
+					return EQ;
+				case LT:
+					return GEQ;
+				case LEQ:
+					return GT;
+				case GT:
+					return LEQ;
+				case GEQ:
+					return LT;
+				default:
+					throw new AssertionError();
+			}
+		}
+
+		static Optional<Rel> of(final Expr<?> expr) {
+			if (expr instanceof IntEqExpr) {
+				return Optional.of(EQ);
+			} else if (expr instanceof IntNeqExpr) {
+				return Optional.of(NEQ);
+			} else if (expr instanceof IntLtExpr) {
+				return Optional.of(LT);
+			} else if (expr instanceof IntLeqExpr) {
+				return Optional.of(LEQ);
+			} else if (expr instanceof IntGtExpr) {
+				return Optional.of(GT);
+			} else if (expr instanceof IntGeqExpr) {
+				return Optional.of(GEQ);
+			} else {
+				return Optional.empty();
+			}
+		}
+	}
+
+	/**
+	 * Possible values of an integer declaration: a (possibly unbounded) interval without some
+	 * excluded values.
+	 */
+	private static final class IntRange {
+		private BigInteger lower = null;
+		private BigInteger upper = null;
+		private final Set<BigInteger> excluded = new HashSet<>();
+
+		/**
+		 * Restrict the range, returns false if it becomes empty.
+		 */
+		boolean restrict(final Rel rel, final BigInteger value) {
+			switch (rel) {
+				case EQ:
+					raiseLower(value);
+					lowerUpper(value);
+					break;
+				case NEQ:
+					excluded.add(value);
+					break;
+				case LT:
+					lowerUpper(value.subtract(BigInteger.ONE));
+					break;
+				case LEQ:
+					lowerUpper(value);
+					break;
+				case GT:
+					raiseLower(value.add(BigInteger.ONE));
+					break;
+				case GEQ:
+					raiseLower(value);
+					break;
+				default:
+					throw new AssertionError();
+			}
+			// Excluded values can only be skipped at the bounds
+			while (lower != null && excluded.contains(lower) && (upper == null || lower.compareTo(upper) <= 0)) {
+				lower = lower.add(BigInteger.ONE);
+			}
+			while (upper != null && excluded.contains(upper) && (lower == null || lower.compareTo(upper) <= 0)) {
+				upper = upper.subtract(BigInteger.ONE);
+			}
+			return lower == null || upper == null || lower.compareTo(upper) <= 0;
+		}
+
+		private void raiseLower(final BigInteger value) {
+			if (lower == null || lower.compareTo(value) < 0) {
+				lower = value;
+			}
+		}
+
+		private void lowerUpper(final BigInteger value) {
+			if (upper == null || upper.compareTo(value) > 0) {
+				upper = value;
+			}
+		}
+
+		boolean isPoint() {
+			return lower != null && lower.equals(upper);
+		}
+
+		BigInteger anyValue() {
+			if (lower != null) {
+				return lower;
+			} else if (upper != null) {
+				return upper;
+			} else {
+				BigInteger value = BigInteger.ZERO;
+				while (excluded.contains(value)) {
+					value = value.add(BigInteger.ONE);
+				}
+				return value;
+			}
+		}
+	}
+
+	private static final class Propagator {
+		private final Valuation val;
+		private final MutableValuation fixed = new MutableValuation();
+		private final Map<Decl<?>, IntRange> ranges = new HashMap<>();
+		private boolean changed;
+
+		private Propagator(final Valuation val) {
+			this.val = val;
+		}
+
+		private Result propagate(final Expr<BoolType> expr) {
+			final Set<Decl<?>> decls = new HashSet<>();
+			collectDecls(expr, decls);
+			decls.removeAll(val.getDecls());
+
+			Expr<BoolType> residual = ExprUtils.simplify(expr, val);
+			while (true) {
+				changed = false;
+				final List<Expr<BoolType>> remaining = new ArrayList<>();
+				for (final Expr<BoolType> conjunct : ExprUtils.getConjuncts(residual)) {
+					if (conjunct instanceof BoolLitExpr) {
+						if (!((BoolLitExpr) conjunct).getValue()) {
+							return Result.UNSAT;
+						}
+					} else {
+						final Optional<Boolean> consistent = addLiteral(conjunct);
+						if (!consistent.isPresent()) {
+							remaining.add(conjunct);
+						} else if (!consistent.get()) {
+							return Result.UNSAT;
+						}
+					}
+				}
+				if (remaining.isEmpty()) {
+					break;
+				} else if (!changed) {
+					return Result.UNKNOWN;
+				}
+				residual = ExprUtils.simplify(And(remaining), fixed);
+			}
+
+			final MutableValuation model = MutableValuation.copyOf(val);
+			model.putAll(fixed);
+			ranges.forEach((decl, range) -> {
+				if (!range.isPoint()) {
+					model.put(decl, Int(range.anyValue()));
+				}
+			});
+			final boolean unique = fixed.getDecls().containsAll(decls);
+			return new Result(Result.Status.SAT, ImmutableValuation.copyOf(model), unique);
+		}
+
+		/**
+		 * Record a literal, returns empty if the expression is not a literal, otherwise whether
+		 * it is consistent with the literals recorded so far.
+		 */
+		private Optional<Boolean> addLiteral(final Expr<BoolType> expr) {
+			if (expr instanceof RefExpr) {
+				return Optional.of(fixBool(((RefExpr<?>) expr).getDecl(), true));
+			} else if (expr instanceof NotExpr) {
+				final Expr<BoolType> op = ((NotExpr) expr).getOp();
+				if (op instanceof RefExpr) {
+					return Optional.of(fixBool(((RefExpr<?>) op).getDecl(), false));
+				}
+				final Optional<Rel> rel = Rel.of(op);
+				if (rel.isPresent()) {
+					return addIntLiteral((BinaryExpr<?, ?>) op, rel.get().negate());
+				}
+			} else if (expr instanceof IffExpr) {
+				final IffExpr iff = (IffExpr) expr;
+				if (iff.getLeftOp() instanceof RefExpr && iff.getRightOp() instanceof BoolLitExpr) {
+					return Optional.of(fixBool(((RefExpr<?>) iff.getLeftOp()).getDecl(),
+							((BoolLitExpr) iff.getRightOp()).getValue()));
+				} else if (iff.getRightOp() instanceof RefExpr && iff.getLeftOp() instanceof BoolLitExpr) {
+					return Optional.of(fixBool(((RefExpr<?>) iff.getRightOp()).getDecl(),
+							((BoolLitExpr) iff.getLeftOp()).getValue()));
+				}
+			} else {
+				final Optional<Rel> rel = Rel.of(expr);
+				if (rel.isPresent()) {
+					return addIntLiteral((BinaryExpr<?, ?>) expr, rel.get());
+				}
+			}
+			return Optional.empty();
+		}
+
+		private Optional<Boolean> addIntLiteral(final BinaryExpr<?, ?> expr, final Rel rel) {
+			final Expr<?> left = expr.getLeftOp();
+			final Expr<?> right = expr.getRightOp();
+			if (left instanceof RefExpr && right instanceof IntLitExpr) {
+				return Optional.of(restrictInt(((RefExpr<?>) left).getDecl(), rel, ((IntLitExpr) right).getValue()));
+			} else if (right instanceof RefExpr && left instanceof IntLitExpr) {
+				return Optional.of(restrictInt(((RefExpr<?>) right).getDecl(), rel.flip(), ((IntLitExpr) left).getValue()));
+			} else {
+				return Optional.empty();
+			}
+		}
+
+		private boolean fixBool(final Decl<?> decl, final boolean value) {
+			final Optional<? extends LitExpr<?>> current = fixed.eval(decl);
+			if (current.isPresent()) {
+				return current.get().equals(Bool(value));
+			}
+			fixed.put(decl, Bool(value));
+			changed = true;
+			return true;
+		}
+
+		private boolean restrictInt(final Decl<?> decl, final Rel rel, final BigInteger value) {
+			assert decl.getType() instanceof IntType;
+			final IntRange range = ranges.computeIfAbsent(decl, d -> new IntRange());
+			final boolean wasPoint = range.isPoint();
+			if (!range.restrict(rel, value)) {
+				return false;
+			}
+			if (!wasPoint && range.isPoint()) {
+				fixed.put(decl, Int(range.lower));
+				changed = true;
+			}
+			return true;
+		}
+
+		private static void collectDecls(final Expr<?> expr, final Set<Decl<?>> collectTo) {
+			if (expr instanceof RefExpr) {
+				collectTo.add(((RefExpr<?>) expr).getDecl());
+			} else {
+				expr.getOps().forEach(op -> collectDecls(op, collectTo));
+			}
+		}
+	}
+}
@@ -55,7 +55,8 @@ public final class ExprStates {
 
 	/**
 	 * Generate all or a limited number of states that satisfy a given
-	 * expression.
+	 * expression. The solver is only called if {@link ExprPreSolver} cannot
+	 * decide the expression or if it has more than one model.
 	 *
 	 * @param solver           Solver
 	 * @param expr             Expression to be satisfied
@@ -69,8 +70,21 @@ public final class ExprStates {
 																		  final Expr<BoolType> expr, final int exprIndex,
 																		  final Function<? super Valuation, ? extends S> valuationToState, final VarIndexing stateIndexing,
 																		  final int limit) {
+		final Expr<BoolType> unfoldedExpr = PathUtils.unfold(expr, exprIndex);
+
+		// Try to decide the expression without the solver first
+		final ExprPreSolver.Result preResult = ExprPreSolver.checkUnique(unfoldedExpr);
+		if (preResult.isUnsat()) {
+			return new ArrayList<>();
+		} else if (preResult.isSat() && preResult.isModelUnique()) {
+			final Valuation valuation = PathUtils.extractValuation(preResult.getModel(), stateIndexing);
+			final Collection<S> result = new ArrayList<>();
+			result.add(valuationToState.apply(valuation));
+			return result;
+		}
+
 		try (WithPushPop wpp = new WithPushPop(solver)) {
-			solver.add(PathUtils.unfold(expr, exprIndex));
+			solver.add(unfoldedExpr);
 
 			final Collection<S> result = new ArrayList<>();
 			while (solver.check().isSat() && (limit == 0 || result.size() < limit)) {
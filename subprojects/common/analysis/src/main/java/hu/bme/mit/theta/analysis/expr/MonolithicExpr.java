@@ -0,0 +1,108 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.expr;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Collection;
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+
+import hu.bme.mit.theta.common.Utils;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.stmt.Stmt;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+
+/**
+ * A monolithic symbolic description of a transition system: a formula for the initial states,
+ * a single action for the transition relation and a formula for the property that should hold
+ * in every reachable state. The initial formula and the property are over the (unprimed)
+ * variables, the transition is unfolded by its indexing. Engines working on the whole
+ * transition relation (e.g., k-induction) take this as their input, the formalisms provide
+ * their own encoding into it.
+ */
+public final class MonolithicExpr {
+
+	private final Expr<BoolType> init;
+	private final ExprAction trans;
+	private final Expr<BoolType> prop;
+	private final List<VarDecl<?>> vars;
+
+	private MonolithicExpr(final Expr<BoolType> init, final ExprAction trans, final Expr<BoolType> prop,
+						   final Collection<? extends VarDecl<?>> vars) {
+		this.init = checkNotNull(init);
+		this.trans = checkNotNull(trans);
+		this.prop = checkNotNull(prop);
+		this.vars = ImmutableList.copyOf(vars);
+	}
+
+	/**
+	 * Creates a monolithic description.
+	 *
+	 * @param init  Formula describing the initial states
+	 * @param trans Action describing the transition relation
+	 * @param prop  Formula that should hold in every reachable state
+	 * @param vars  Variables describing a state
+	 */
+	public static MonolithicExpr create(final Expr<BoolType> init, final ExprAction trans, final Expr<BoolType> prop,
+										final Collection<? extends VarDecl<?>> vars) {
+		return new MonolithicExpr(init, trans, prop, vars);
+	}
+
+	/**
+	 * Creates a monolithic description with a transition relation given as a statement.
+	 */
+	public static MonolithicExpr create(final Expr<BoolType> init, final Stmt trans, final Expr<BoolType> prop,
+										final Collection<? extends VarDecl<?>> vars) {
+		checkNotNull(trans);
+		final StmtAction action = new StmtAction() {
+			@Override
+			public List<Stmt> getStmts() {
+				return ImmutableList.of(trans);
+			}
+
+			@Override
+			public String toString() {
+				return trans.toString();
+			}
+		};
+		return create(init, action, prop, vars);
+	}
+
+	public Expr<BoolType> getInit() {
+		return init;
+	}
+
+	public ExprAction getTrans() {
+		return trans;
+	}
+
+	public Expr<BoolType> getProp() {
+		return prop;
+	}
+
+	public List<VarDecl<?>> getVars() {
+		return vars;
+	}
+
+	@Override
+	public String toString() {
+		return Utils.lispStringBuilder(getClass().getSimpleName()).add(init).add(trans).add(prop).toString();
+	}
+
+}
@@ -17,17 +17,10 @@
 package hu.bme.mit.theta.analysis.expr.refinement;
 
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.Lists;
 import hu.bme.mit.theta.analysis.Trace;
 import hu.bme.mit.theta.analysis.expr.ExprAction;
 import hu.bme.mit.theta.analysis.expr.ExprState;
-import hu.bme.mit.theta.analysis.expr.ExprTraceUtils;
 import hu.bme.mit.theta.analysis.expr.StmtAction;
-import hu.bme.mit.theta.common.Tuple2;
-import hu.bme.mit.theta.common.Utils;
-import hu.bme.mit.theta.core.decl.VarDecl;
-import hu.bme.mit.theta.core.model.BasicSubstitution;
-import hu.bme.mit.theta.core.model.ImmutableValuation;
 import hu.bme.mit.theta.core.model.Valuation;
 import hu.bme.mit.theta.core.stmt.AssignStmt;
 import hu.bme.mit.theta.core.stmt.AssumeStmt;
@@ -43,12 +36,9 @@ import hu.bme.mit.theta.core.stmt.StmtVisitor;
 import hu.bme.mit.theta.core.type.Expr;
 import hu.bme.mit.theta.core.type.Type;
 import hu.bme.mit.theta.core.type.booltype.BoolType;
-import hu.bme.mit.theta.core.utils.ExprSimplifier;
 import hu.bme.mit.theta.core.utils.ExprUtils;
 import hu.bme.mit.theta.core.utils.PathUtils;
-import hu.bme.mit.theta.core.utils.SpState;
 import hu.bme.mit.theta.core.utils.StmtUtils;
-import hu.bme.mit.theta.core.utils.WpState;
 import hu.bme.mit.theta.core.utils.indexings.VarIndexing;
 import hu.bme.mit.theta.core.utils.indexings.VarIndexingFactory;
 import hu.bme.mit.theta.solver.UCSolver;
@@ -56,20 +46,13 @@ import hu.bme.mit.theta.solver.utils.WithPushPop;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static com.google.common.base.Preconditions.checkNotNull;
-import static hu.bme.mit.theta.core.decl.Decls.Param;
-import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Exists;
-import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Forall;
 import static hu.bme.mit.theta.core.type.booltype.BoolExprs.True;
 import static java.util.stream.Collectors.toList;
-import static java.util.stream.Collectors.toUnmodifiableMap;
 
 /**
  * An ExprTraceChecker that generates new predicates based on the Newton-style algorithms described in
@@ -87,18 +70,18 @@ public class ExprTraceNewtonChecker implements ExprTraceChecker<ItpRefutation> {
 
 	private final boolean IT; // Whether to abstract the trace or not
 	private final AssertionGeneratorMethod SPorWP; // Whether to use pre- or postconditions
-	private final boolean LV; // Whether to project the assertions to live variables
+	private final TraceImageEngine imageEngine; // Computes the assertions (and the projection to live variables)
 
 	private ExprTraceNewtonChecker(
 			final Expr<BoolType> init, final Expr<BoolType> target, final UCSolver solver,
-			boolean it, AssertionGeneratorMethod sPorWP, boolean lv
+			boolean it, AssertionGeneratorMethod sPorWP, boolean lv, boolean parallel
 	) {
 		this.solver = checkNotNull(solver);
 		this.init = checkNotNull(init);
 		this.target = checkNotNull(target);
 		this.IT = it;
 		this.SPorWP = checkNotNull(sPorWP);
-		this.LV = lv;
+		this.imageEngine = TraceImageEngine.create(lv, parallel);
 	}
 
 	public static ExprTraceNewtonCheckerITBuilder create(
@@ -119,11 +102,12 @@ public class ExprTraceNewtonChecker implements ExprTraceChecker<ItpRefutation> {
 	}
 
 	private ExprTraceStatus<ItpRefutation> check2(final Trace<? extends ExprState, ? extends StmtAction> trace) {
-		var ftrace = flattenTrace(trace); // Moves the expressions in the states to the corresponting actions as assumptions
+		final List<List<Stmt>> factions = flattenTrace(trace); // Moves the expressions in the states to the corresponding actions as assumptions
 
-		final int stateCount = ftrace.getStates().size();
+		final int stateCount = factions.size() + 1;
 		final List<VarIndexing> indexings = new ArrayList<>(stateCount);
 		indexings.add(VarIndexingFactory.indexing(0));
+		final List<List<Expr<BoolType>>> unfoldedStmts = new ArrayList<>(stateCount - 1);
 
 		final Valuation model;
 		final Collection<Expr<BoolType>> unsatCore;
@@ -132,11 +116,16 @@ public class ExprTraceNewtonChecker implements ExprTraceChecker<ItpRefutation> {
 		try (WithPushPop wpp = new WithPushPop(solver)) {
 			for (int i = 1; i < stateCount; ++i) {
 				var curIndexing = indexings.get(i - 1);
-				for (var stmt : ftrace.getAction(i - 1).getStmts()) {
+				final var stmts = factions.get(i - 1);
+				final var unfolded = new ArrayList<Expr<BoolType>>(stmts.size());
+				for (var stmt : stmts) {
 					var stmtUnfoldResult = StmtUtils.toExpr(stmt, VarIndexingFactory.indexing(0));
-					solver.track(PathUtils.unfold(stmtUnfoldResult.getExprs().iterator().next(), curIndexing));
+					final var stmtExpr = PathUtils.unfold(stmtUnfoldResult.getExprs().iterator().next(), curIndexing);
+					solver.track(stmtExpr);
+					unfolded.add(stmtExpr);
 					curIndexing = curIndexing.add(stmtUnfoldResult.getIndexing());
 				}
+				unfoldedStmts.add(unfolded);
 				indexings.add(curIndexing);
 			}
 
@@ -156,7 +145,7 @@ public class ExprTraceNewtonChecker implements ExprTraceChecker<ItpRefutation> {
 			return createCounterexample(model, indexings, trace);
 		} else {
 			checkNotNull(unsatCore);
-			return createRefinement(unsatCore, indexings, ftrace);
+			return createRefinement(unsatCore, unfoldedStmts, factions);
 		}
 	}
 
@@ -165,9 +154,9 @@ public class ExprTraceNewtonChecker implements ExprTraceChecker<ItpRefutation> {
 		return getClass().getSimpleName();
 	}
 
-	private Trace<? extends ExprState, ? extends StmtAction> flattenTrace(final Trace<? extends ExprState, ? extends StmtAction> trace) {
+	private List<List<Stmt>> flattenTrace(final Trace<? extends ExprState, ? extends StmtAction> trace) {
 		final var stateCount = trace.getStates().size();
-		final var flattenedActions = new ArrayList<StmtAction>(stateCount - 1);
+		final var flattenedActions = new ArrayList<List<Stmt>>(stateCount - 1);
 
 		for (var i = 1; i < stateCount; i++) {
 			var initStream =
@@ -188,13 +177,11 @@ public class ExprTraceNewtonChecker implements ExprTraceChecker<ItpRefutation> {
 							: Stream.<AssumeStmt>empty();
 
 			flattenedActions.add(
-					NewtonAction.of(
-							Stream.of(initStream, stateStream, actionStream, targetStream).flatMap(e -> e).collect(toList())
-					)
+					Stream.of(initStream, stateStream, actionStream, targetStream).flatMap(e -> e).collect(toList())
 			);
 		}
 
-		return ExprTraceUtils.traceFrom(flattenedActions);
+		return flattenedActions;
 	}
 
 	private ExprTraceStatus.Feasible<ItpRefutation> createCounterexample(
@@ -211,18 +198,18 @@ public class ExprTraceNewtonChecker implements ExprTraceChecker<ItpRefutation> {
 
 	private ExprTraceStatus.Infeasible<ItpRefutation> createRefinement(
 			final Collection<Expr<BoolType>> unsatCore,
-			final List<VarIndexing> indexings,
-			Trace<? extends ExprState, ? extends StmtAction> trace
+			final List<List<Expr<BoolType>>> unfoldedStmts,
+			List<List<Stmt>> actions
 	) {
 		if (IT) {
-			trace = computeAbstractTrace(unsatCore, trace);
+			actions = computeAbstractTrace(unsatCore, unfoldedStmts, actions);
 		}
 
 		final List<Expr<BoolType>> assertions;
 		if (SPorWP == AssertionGeneratorMethod.SP) {
-			assertions = computeAssertionsFromTraceWithStrongestPostcondition(trace);
+			assertions = imageEngine.postImages(actions);
 		} else if (SPorWP == AssertionGeneratorMethod.WP) {
-			assertions = computeAssertionsFromTraceWithWeakestPrecondition(trace);
+			assertions = imageEngine.preImages(actions);
 		} else {
 			throw new AssertionError("There should be no other option");
 		}
@@ -234,33 +221,29 @@ public class ExprTraceNewtonChecker implements ExprTraceChecker<ItpRefutation> {
 	 * State abstraction
 	 */
 
-	private Trace<? extends ExprState, ? extends StmtAction> computeAbstractTrace(
+	private List<List<Stmt>> computeAbstractTrace(
 			final Collection<Expr<BoolType>> unsatCore,
-			final Trace<? extends ExprState, ? extends StmtAction> trace
+			final List<List<Expr<BoolType>>> unfoldedStmts,
+			final List<List<Stmt>> actions
 	) {
-		final var stateCount = trace.getStates().size();
-		var curIndexing = VarIndexingFactory.indexing(0);
-
-		final var actions = new ArrayList<NewtonAction>();
-
-		for (int i = 1; i < stateCount; ++i) {
-			final var stmts = new ArrayList<Stmt>();
-			for (final var stmt : trace.getAction(i - 1).getStmts()) {
-				final var stmtUnfoldResult = StmtUtils.toExpr(stmt, VarIndexingFactory.indexing(0));
-				final var stmtExpr = PathUtils.unfold(stmtUnfoldResult.getExprs().iterator().next(), curIndexing);
-
-				if (unsatCore.contains(stmtExpr)) {
-					stmts.add(stmt);
+		final var core = new HashSet<>(unsatCore);
+		final var abstractActions = new ArrayList<List<Stmt>>(actions.size());
+
+		for (int i = 0; i < actions.size(); ++i) {
+			final var stmts = actions.get(i);
+			final var unfolded = unfoldedStmts.get(i);
+			final var abstractStmts = new ArrayList<Stmt>(stmts.size());
+			for (int j = 0; j < stmts.size(); ++j) {
+				if (core.contains(unfolded.get(j))) {
+					abstractStmts.add(stmts.get(j));
 				} else {
-					stmts.add(computeAbstractStmt(stmt));
+					abstractStmts.add(computeAbstractStmt(stmts.get(j)));
 				}
-
-				curIndexing = curIndexing.add(stmtUnfoldResult.getIndexing());
 			}
-			actions.add(NewtonAction.of(stmts));
+			abstractActions.add(abstractStmts);
 		}
 
-		return Trace.of(trace.getStates(), actions);
+		return abstractActions;
 	}
 
 	private Stmt computeAbstractStmt(Stmt stmt) {
@@ -311,313 +294,6 @@ public class ExprTraceNewtonChecker implements ExprTraceChecker<ItpRefutation> {
 		}, null);
 	}
 
-	/*
-	 * Assertion computation
-	 */
-
-	private List<Expr<BoolType>> computeAssertionsFromTraceWithStrongestPostcondition(
-			final Trace<? extends ExprState, ? extends StmtAction> trace
-	) {
-		final int stateCount = trace.getStates().size();
-		final List<Expr<BoolType>> assertions = new ArrayList<>(stateCount);
-
-		assertions.add(True());
-		var constCount = 0;
-		for (var i = 1; i < stateCount; i++) {
-			var spState = SpState.of(assertions.get(i - 1), constCount);
-			for (var stmt : trace.getAction(i - 1).getStmts()) {
-				spState = spState.sp(stmt);
-			}
-			assertions.add(ExprSimplifier.simplify(spState.getExpr(), ImmutableValuation.empty()));
-			constCount = spState.getConstCount();
-		}
-
-		if (LV) {
-			var allVariables = collectVariablesInTrace(trace);
-			var futureLiveVariables = collectFutureLiveVariablesForTrace(trace);
-			return IntStream.range(0, assertions.size())
-					.mapToObj(i -> existentialProjection(assertions.get(i), futureLiveVariables.get(i), allVariables))
-					.collect(Collectors.toUnmodifiableList());
-		} else {
-			return assertions;
-		}
-	}
-
-	private List<Expr<BoolType>> computeAssertionsFromTraceWithWeakestPrecondition(
-			final Trace<? extends ExprState, ? extends StmtAction> trace
-	) {
-		final int stateCount = trace.getStates().size();
-		final List<Expr<BoolType>> assertions = new ArrayList<>(Collections.nCopies(stateCount, null));
-
-		assertions.set(stateCount - 1, True());
-		var constCount = 0;
-		for (var i = stateCount - 2; i >= 0; i--) {
-			var wpState = WpState.of(assertions.get(i + 1), constCount);
-			for (var stmt : Lists.reverse(trace.getAction(i).getStmts())) {
-				wpState = wpState.wep(stmt);
-			}
-			assertions.set(i, ExprSimplifier.simplify(wpState.getExpr(), ImmutableValuation.empty()));
-			constCount = wpState.getConstCount();
-		}
-
-		if (LV) {
-			var allVariables = collectVariablesInTrace(trace);
-			var pastLiveVariables = collectPastLiveVariablesForTrace(trace);
-			return IntStream.range(0, assertions.size())
-					.mapToObj(i -> universalProjection(assertions.get(i), pastLiveVariables.get(i), allVariables))
-					.collect(Collectors.toUnmodifiableList());
-		} else {
-			return assertions;
-		}
-	}
-
-	/*
-	 * Live variable collection
-	 */
-
-	private Collection<VarDecl<?>> collectVariablesInTrace(final Trace<? extends ExprState, ? extends StmtAction> trace) {
-		var variables = new HashSet<VarDecl<?>>();
-
-		for (var state : trace.getStates()) {
-			ExprUtils.collectVars(state.toExpr(), variables);
-		}
-		for (var action : trace.getActions()) {
-			ExprUtils.collectVars(action.toExpr(), variables);
-		}
-
-		return variables;
-	}
-
-	private Collection<VarDecl<?>> stmtReadsVariables(final Stmt stmt) {
-		return stmt.accept(new StmtVisitor<Void, Collection<VarDecl<?>>>() {
-			@Override
-			public Collection<VarDecl<?>> visit(SkipStmt stmt, Void param) {
-				return Collections.emptySet();
-			}
-
-			@Override
-			public Collection<VarDecl<?>> visit(AssumeStmt stmt, Void param) {
-				return ExprUtils.getVars(stmt.getCond());
-			}
-
-			@Override
-			public <DeclType extends Type> Collection<VarDecl<?>> visit(AssignStmt<DeclType> stmt, Void param) {
-				return ExprUtils.getVars(stmt.getExpr());
-			}
-
-			@Override
-			public <DeclType extends Type> Collection<VarDecl<?>> visit(HavocStmt<DeclType> stmt, Void param) {
-				return Collections.emptySet();
-			}
-
-			@Override
-			public Collection<VarDecl<?>> visit(SequenceStmt stmt, Void param) {
-				throw new UnsupportedOperationException();
-			}
-
-			@Override
-			public Collection<VarDecl<?>> visit(NonDetStmt stmt, Void param) {
-				throw new UnsupportedOperationException();
-			}
-
-			@Override
-			public Collection<VarDecl<?>> visit(OrtStmt stmt, Void param) {
-				throw new UnsupportedOperationException();
-			}
-
-			@Override
-			public Collection<VarDecl<?>> visit(LoopStmt stmt, Void param) {
-				throw new UnsupportedOperationException();
-			}
-
-			public Collection<VarDecl<?>> visit(IfStmt stmt, Void param) {
-				throw new UnsupportedOperationException();
-			}
-		}, null);
-	}
-
-	private Collection<VarDecl<?>> stmtWritesVariables(final Stmt stmt) {
-		return stmt.accept(new StmtVisitor<Void, Collection<VarDecl<?>>>() {
-			@Override
-			public Collection<VarDecl<?>> visit(SkipStmt stmt, Void param) {
-				return Collections.emptySet();
-			}
-
-			@Override
-			public Collection<VarDecl<?>> visit(AssumeStmt stmt, Void param) {
-				return Collections.emptySet();
-			}
-
-			@Override
-			public <DeclType extends Type> Collection<VarDecl<?>> visit(AssignStmt<DeclType> stmt, Void param) {
-				return Collections.singletonList(stmt.getVarDecl());
-			}
-
-			@Override
-			public <DeclType extends Type> Collection<VarDecl<?>> visit(HavocStmt<DeclType> stmt, Void param) {
-				return Collections.emptySet();
-			}
-
-			@Override
-			public Collection<VarDecl<?>> visit(SequenceStmt stmt, Void param) {
-				throw new UnsupportedOperationException();
-			}
-
-			@Override
-			public Collection<VarDecl<?>> visit(NonDetStmt stmt, Void param) {
-				throw new UnsupportedOperationException();
-			}
-
-			@Override
-			public Collection<VarDecl<?>> visit(OrtStmt stmt, Void param) {
-				throw new UnsupportedOperationException();
-			}
-
-			@Override
-			public Collection<VarDecl<?>> visit(LoopStmt stmt, Void param) {
-				throw new UnsupportedOperationException();
-			}
-
-			public Collection<VarDecl<?>> visit(IfStmt stmt, Void param) {
-				throw new UnsupportedOperationException();
-			}
-		}, null);
-	}
-
-	private Collection<VarDecl<?>> stmtHavocsVariables(final Stmt stmt) {
-		return stmt.accept(new StmtVisitor<Void, Collection<VarDecl<?>>>() {
-			@Override
-			public Collection<VarDecl<?>> visit(SkipStmt stmt, Void param) {
-				return Collections.emptySet();
-			}
-
-			@Override
-			public Collection<VarDecl<?>> visit(AssumeStmt stmt, Void param) {
-				return Collections.emptySet();
-			}
-
-			@Override
-			public <DeclType extends Type> Collection<VarDecl<?>> visit(AssignStmt<DeclType> stmt, Void param) {
-				return Collections.emptySet();
-			}
-
-			@Override
-			public <DeclType extends Type> Collection<VarDecl<?>> visit(HavocStmt<DeclType> stmt, Void param) {
-				return Collections.singletonList(stmt.getVarDecl());
-			}
-
-			@Override
-			public Collection<VarDecl<?>> visit(SequenceStmt stmt, Void param) {
-				throw new UnsupportedOperationException();
-			}
-
-			@Override
-			public Collection<VarDecl<?>> visit(NonDetStmt stmt, Void param) {
-				throw new UnsupportedOperationException();
-			}
-
-			@Override
-			public Collection<VarDecl<?>> visit(OrtStmt stmt, Void param) {
-				throw new UnsupportedOperationException();
-			}
-
-			@Override
-			public Collection<VarDecl<?>> visit(LoopStmt stmt, Void param) {
-				throw new UnsupportedOperationException();
-			}
-
-			public Collection<VarDecl<?>> visit(IfStmt stmt, Void param) {
-				throw new UnsupportedOperationException();
-			}
-		}, null);
-	}
-
-	private Collection<VarDecl<?>> actionReadsVariables(final StmtAction action) {
-		return action.getStmts().stream().flatMap(stmt -> stmtReadsVariables(stmt).stream()).collect(Collectors.toUnmodifiableSet());
-	}
-
-	private Collection<VarDecl<?>> actionWritesVariables(final StmtAction action) {
-		return action.getStmts().stream().flatMap(stmt -> stmtWritesVariables(stmt).stream()).collect(Collectors.toUnmodifiableSet());
-	}
-
-	private Collection<VarDecl<?>> actionHavocsVariables(final StmtAction action) {
-		return action.getStmts().stream().flatMap(stmt -> stmtHavocsVariables(stmt).stream()).collect(Collectors.toUnmodifiableSet());
-	}
-
-	private List<Collection<VarDecl<?>>> collectFutureLiveVariablesForTrace(final Trace<? extends ExprState, ? extends StmtAction> trace) {
-		final var stateCount = trace.getStates().size();
-		final var futureLiveVariables = new ArrayList<Collection<VarDecl<?>>>(Collections.nCopies(stateCount, null));
-
-		futureLiveVariables.set(stateCount - 1, Collections.emptySet());
-		for (var i = stateCount - 2; i >= 0; i--) {
-			var vars = new HashSet<>(futureLiveVariables.get(i + 1));
-			vars.addAll(actionReadsVariables(trace.getAction(i)));
-			vars.removeAll(actionWritesVariables(trace.getAction(i)));
-			vars.removeAll(actionHavocsVariables(trace.getAction(i)));
-			futureLiveVariables.set(i, vars);
-		}
-
-		return futureLiveVariables;
-	}
-
-	private List<Collection<VarDecl<?>>> collectPastLiveVariablesForTrace(final Trace<? extends ExprState, ? extends StmtAction> trace) {
-		final var stateCount = trace.getStates().size();
-		final var pastLiveVariables = new ArrayList<Collection<VarDecl<?>>>(Collections.nCopies(stateCount, null));
-
-		pastLiveVariables.set(0, Collections.emptySet());
-		for (var i = 1; i < stateCount; i++) {
-			var vars = new HashSet<>(pastLiveVariables.get(i - 1));
-			vars.addAll(actionReadsVariables(trace.getAction(i - 1)));
-			vars.addAll(actionWritesVariables(trace.getAction(i - 1)));
-			vars.removeAll(actionHavocsVariables(trace.getAction(i - 1)));
-			pastLiveVariables.set(i, vars);
-		}
-
-		return pastLiveVariables;
-	}
-
-	/*
-	 * Projection to live variables
-	 */
-
-	private Expr<BoolType> existentialProjection(
-			final Expr<BoolType> expr,
-			final Collection<VarDecl<?>> variables,
-			final Collection<VarDecl<?>> allVariables
-	) {
-		var params = allVariables.stream()
-				.filter(e -> !variables.contains(e))
-				.map(e -> Tuple2.of(e, Param(e.getName(), e.getType())))
-				.collect(Collectors.toUnmodifiableSet());
-
-		var substitution = BasicSubstitution.builder()
-				.putAll(params.stream().collect(toUnmodifiableMap(Tuple2::get1, e -> e.get2().getRef())))
-				.build();
-
-		return params.size() > 0
-				? Exists(params.stream().map(Tuple2::get2).collect(toList()), substitution.apply(expr))
-				: expr;
-	}
-
-	private Expr<BoolType> universalProjection(
-			final Expr<BoolType> expr,
-			final Collection<VarDecl<?>> variables,
-			final Collection<VarDecl<?>> allVariables
-	) {
-		var params = allVariables.stream()
-				.filter(e -> !variables.contains(e))
-				.map(e -> Tuple2.of(e, Param(e.getName(), e.getType())))
-				.collect(Collectors.toUnmodifiableSet());
-
-		var substitution = BasicSubstitution.builder()
-				.putAll(params.stream().collect(toUnmodifiableMap(Tuple2::get1, e -> e.get2().getRef())))
-				.build();
-
-		return params.size() > 0
-				? Forall(params.stream().map(Tuple2::get2).collect(toList()), substitution.apply(expr))
-				: expr;
-	}
-
 	/*
 	 * Builder for ExprTraceNewtonChecker
 	 */
@@ -682,37 +358,18 @@ public class ExprTraceNewtonChecker implements ExprTraceChecker<ItpRefutation> {
 		}
 
 		public ExprTraceNewtonChecker withLV() {
-			return new ExprTraceNewtonChecker(init, target, solver, IT, SPorWP, true);
-		}
-
-		public ExprTraceNewtonChecker withoutLV() {
-			return new ExprTraceNewtonChecker(init, target, solver, IT, SPorWP, false);
+			return new ExprTraceNewtonChecker(init, target, solver, IT, SPorWP, true, false);
 		}
-	}
-
-	/*
-	 * Custom StmtAction to use when constructing helper traces
-	 */
-
-	private static class NewtonAction extends StmtAction {
-		private final List<Stmt> stmts;
 
-		private NewtonAction(List<Stmt> stmts) {
-			this.stmts = stmts;
+		/**
+		 * Project the assertions to live variables, computing the projections in parallel.
+		 */
+		public ExprTraceNewtonChecker withParallelLV() {
+			return new ExprTraceNewtonChecker(init, target, solver, IT, SPorWP, true, true);
 		}
 
-		public static NewtonAction of(List<Stmt> stmts) {
-			return new NewtonAction(stmts);
-		}
-
-		@Override
-		public List<Stmt> getStmts() {
-			return stmts;
-		}
-
-		@Override
-		public String toString() {
-			return Utils.lispStringBuilder(getClass().getSimpleName()).body().addAll(stmts).toString();
+		public ExprTraceNewtonChecker withoutLV() {
+			return new ExprTraceNewtonChecker(init, target, solver, IT, SPorWP, false, false);
 		}
 	}
 }
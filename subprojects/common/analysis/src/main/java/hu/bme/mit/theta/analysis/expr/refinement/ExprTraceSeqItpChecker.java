@@ -18,6 +18,7 @@ package hu.bme.mit.theta.analysis.expr.refinement;
 import com.google.common.collect.ImmutableList;
 import hu.bme.mit.theta.analysis.Trace;
 import hu.bme.mit.theta.analysis.expr.ExprAction;
+import hu.bme.mit.theta.analysis.expr.ExprPreSolver;
 import hu.bme.mit.theta.analysis.expr.ExprState;
 import hu.bme.mit.theta.core.model.Valuation;
 import hu.bme.mit.theta.core.type.Expr;
@@ -35,6 +36,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.And;
 
 /**
  * An ExprTraceChecker that generates a sequence interpolant by checking the
@@ -62,6 +64,27 @@ public final class ExprTraceSeqItpChecker implements ExprTraceChecker<ItpRefutat
 		checkNotNull(trace);
 		final int stateCount = trace.getStates().size();
 
+		final List<VarIndexing> indexings = new ArrayList<>(stateCount);
+		indexings.add(VarIndexingFactory.indexing(0));
+		for (int i = 1; i < stateCount; ++i) {
+			indexings.add(indexings.get(i - 1).add(trace.getAction(i - 1).nextIndexing()));
+		}
+
+		// Formulas belonging to each marker
+		final List<Expr<BoolType>> parts = new ArrayList<>(stateCount + 1);
+		parts.add(And(PathUtils.unfold(init, indexings.get(0)), PathUtils.unfold(trace.getState(0).toExpr(), indexings.get(0))));
+		for (int i = 1; i < stateCount; ++i) {
+			parts.add(And(PathUtils.unfold(trace.getState(i).toExpr(), indexings.get(i)),
+					PathUtils.unfold(trace.getAction(i - 1).toExpr(), indexings.get(i - 1))));
+		}
+		parts.add(PathUtils.unfold(target, indexings.get(stateCount - 1)));
+
+		// Feasible traces may be concretized without the solver, infeasible ones need interpolation
+		final ExprPreSolver.Result preResult = ExprPreSolver.check(And(parts));
+		if (preResult.isSat()) {
+			return ExprTraceStatus.feasible(extractTrace(preResult.getModel(), indexings, trace));
+		}
+
 		try (WithPushPop wpp = new WithPushPop(solver)) {
 			final List<ItpMarker> markers = new ArrayList<>(stateCount + 1);
 			for (int i = 0; i < stateCount + 1; ++i) {
@@ -69,29 +92,17 @@ public final class ExprTraceSeqItpChecker implements ExprTraceChecker<ItpRefutat
 			}
 			final ItpPattern pattern = solver.createSeqPattern(markers);
 
-			final List<VarIndexing> indexings = new ArrayList<>(stateCount);
-			indexings.add(VarIndexingFactory.indexing(0));
-
-			solver.add(markers.get(0), PathUtils.unfold(init, indexings.get(0)));
-			solver.add(markers.get(0), PathUtils.unfold(trace.getState(0).toExpr(), indexings.get(0)));
+			solver.add(markers.get(0), parts.get(0));
 			assert solver.check().isSat() : "Initial state of the trace is not feasible";
 
-			for (int i = 1; i < stateCount; ++i) {
-				indexings.add(indexings.get(i - 1).add(trace.getAction(i - 1).nextIndexing()));
-				solver.add(markers.get(i), PathUtils.unfold(trace.getState(i).toExpr(), indexings.get(i)));
-				solver.add(markers.get(i), PathUtils.unfold(trace.getAction(i - 1).toExpr(), indexings.get(i - 1)));
+			for (int i = 1; i < stateCount + 1; ++i) {
+				solver.add(markers.get(i), parts.get(i));
 			}
 
-			solver.add(markers.get(trace.getStates().size()), PathUtils.unfold(target, indexings.get(stateCount - 1)));
 			final boolean concretizable = solver.check().isSat();
 
 			if (concretizable) {
-				final Valuation model = solver.getModel();
-				final ImmutableList.Builder<Valuation> builder = ImmutableList.builder();
-				for (final VarIndexing indexing : indexings) {
-					builder.add(PathUtils.extractValuation(model, indexing));
-				}
-				return ExprTraceStatus.feasible(Trace.of(builder.build(), trace.getActions()));
+				return ExprTraceStatus.feasible(extractTrace(solver.getModel(), indexings, trace));
 			} else {
 				final List<Expr<BoolType>> interpolants = new ArrayList<>();
 				final Interpolant interpolant = solver.getInterpolant(pattern);
@@ -103,6 +114,15 @@ public final class ExprTraceSeqItpChecker implements ExprTraceChecker<ItpRefutat
 		}
 	}
 
+	private static Trace<Valuation, ? extends ExprAction> extractTrace(final Valuation model, final List<VarIndexing> indexings,
+																	  final Trace<? extends ExprState, ? extends ExprAction> trace) {
+		final ImmutableList.Builder<Valuation> builder = ImmutableList.builder();
+		for (final VarIndexing indexing : indexings) {
+			builder.add(PathUtils.extractValuation(model, indexing));
+		}
+		return Trace.of(builder.build(), trace.getActions());
+	}
+
 	@Override
 	public String toString() {
 		return getClass().getSimpleName();
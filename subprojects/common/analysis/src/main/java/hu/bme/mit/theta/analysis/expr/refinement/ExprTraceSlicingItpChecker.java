@@ -0,0 +1,227 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.expr.refinement;
+
+import com.google.common.collect.ImmutableList;
+import hu.bme.mit.theta.analysis.Trace;
+import hu.bme.mit.theta.analysis.expr.ExprAction;
+import hu.bme.mit.theta.analysis.expr.ExprState;
+import hu.bme.mit.theta.core.model.Valuation;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.utils.PathUtils;
+import hu.bme.mit.theta.core.utils.indexings.VarIndexing;
+import hu.bme.mit.theta.core.utils.indexings.VarIndexingFactory;
+import hu.bme.mit.theta.solver.Interpolant;
+import hu.bme.mit.theta.solver.ItpMarker;
+import hu.bme.mit.theta.solver.ItpPattern;
+import hu.bme.mit.theta.solver.ItpSolver;
+import hu.bme.mit.theta.solver.utils.WithPushPop;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.False;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.True;
+
+/**
+ * An ExprTraceChecker for long traces that generates a sequence interpolant only for a
+ * short infeasible slice of the trace. The end of the slice is the shortest infeasible
+ * prefix, and its start is the latest position from which the rest of the prefix is still
+ * infeasible, both found by binary search with (cheap) feasibility checks. The interpolants
+ * are True before the slice and False after it. Traces shorter than a given length are
+ * checked at once, as in {@link ExprTraceSeqItpChecker}.
+ */
+public final class ExprTraceSlicingItpChecker implements ExprTraceChecker<ItpRefutation> {
+
+	private static final int DEFAULT_MIN_SLICED_LENGTH = 16;
+
+	private final ItpSolver solver;
+	private final Expr<BoolType> init;
+	private final Expr<BoolType> target;
+	private final int minSlicedLength;
+
+	private ExprTraceSlicingItpChecker(final Expr<BoolType> init, final Expr<BoolType> target, final ItpSolver solver,
+									   final int minSlicedLength) {
+		checkArgument(minSlicedLength >= 0, "Negative length");
+		this.solver = checkNotNull(solver);
+		this.init = checkNotNull(init);
+		this.target = checkNotNull(target);
+		this.minSlicedLength = minSlicedLength;
+	}
+
+	public static ExprTraceSlicingItpChecker create(final Expr<BoolType> init, final Expr<BoolType> target,
+													final ItpSolver solver) {
+		return new ExprTraceSlicingItpChecker(init, target, solver, DEFAULT_MIN_SLICED_LENGTH);
+	}
+
+	/**
+	 * Create a checker that only slices traces with at least the given number of actions.
+	 */
+	public static ExprTraceSlicingItpChecker create(final Expr<BoolType> init, final Expr<BoolType> target,
+													final ItpSolver solver, final int minSlicedLength) {
+		return new ExprTraceSlicingItpChecker(init, target, solver, minSlicedLength);
+	}
+
+	@Override
+	public ExprTraceStatus<ItpRefutation> check(final Trace<? extends ExprState, ? extends ExprAction> trace) {
+		checkNotNull(trace);
+		final int stateCount = trace.getStates().size();
+
+		final List<VarIndexing> indexings = new ArrayList<>(stateCount);
+		indexings.add(VarIndexingFactory.indexing(0));
+		for (int i = 1; i < stateCount; ++i) {
+			indexings.add(indexings.get(i - 1).add(trace.getAction(i - 1).nextIndexing()));
+		}
+
+		if (trace.length() < minSlicedLength) {
+			return checkSlice(trace, indexings, 0, stateCount - 1);
+		}
+
+		final int last = stateCount - 1;
+		try (WithPushPop wpp = new WithPushPop(solver)) {
+			addSlice(trace, indexings, 0, last);
+			if (solver.check().isSat()) {
+				return createCounterexample(solver.getModel(), indexings, trace);
+			}
+		}
+
+		// Shortest infeasible prefix: states [0, end]
+		int lo = 0;
+		int hi = last;
+		while (lo < hi) {
+			final int mid = (lo + hi) >>> 1;
+			if (isFeasible(trace, indexings, 0, mid)) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		final int end = lo;
+
+		// Latest start of an infeasible slice ending at end: states [start, end]
+		lo = 0;
+		hi = end;
+		while (lo < hi) {
+			final int mid = (lo + hi + 1) >>> 1;
+			if (isFeasible(trace, indexings, mid, end)) {
+				hi = mid - 1;
+			} else {
+				lo = mid;
+			}
+		}
+		final int start = lo;
+
+		return checkSlice(trace, indexings, start, end);
+	}
+
+	private boolean isFeasible(final Trace<? extends ExprState, ? extends ExprAction> trace,
+							   final List<VarIndexing> indexings, final int start, final int end) {
+		try (WithPushPop wpp = new WithPushPop(solver)) {
+			addSlice(trace, indexings, start, end);
+			return solver.check().isSat();
+		}
+	}
+
+	/**
+	 * Assert the states [start, end] of the trace. The solver does not support assertions
+	 * without a marker, so a single marker is used, which is removed by the enclosing pop.
+	 */
+	private void addSlice(final Trace<? extends ExprState, ? extends ExprAction> trace,
+						  final List<VarIndexing> indexings, final int start, final int end) {
+		final ItpMarker marker = solver.createMarker();
+		if (start == 0) {
+			solver.add(marker, PathUtils.unfold(init, indexings.get(0)));
+		}
+		solver.add(marker, PathUtils.unfold(trace.getState(start).toExpr(), indexings.get(start)));
+		for (int i = start + 1; i <= end; ++i) {
+			solver.add(marker, PathUtils.unfold(trace.getState(i).toExpr(), indexings.get(i)));
+			solver.add(marker, PathUtils.unfold(trace.getAction(i - 1).toExpr(), indexings.get(i - 1)));
+		}
+		if (end == trace.getStates().size() - 1) {
+			solver.add(marker, PathUtils.unfold(target, indexings.get(end)));
+		}
+	}
+
+	private ExprTraceStatus.Feasible<ItpRefutation> createCounterexample(
+			final Valuation model,
+			final List<VarIndexing> indexings,
+			final Trace<? extends ExprState, ? extends ExprAction> trace
+	) {
+		final ImmutableList.Builder<Valuation> builder = ImmutableList.builder();
+		for (final VarIndexing indexing : indexings) {
+			builder.add(PathUtils.extractValuation(model, indexing));
+		}
+		return ExprTraceStatus.feasible(Trace.of(builder.build(), trace.getActions()));
+	}
+
+	/**
+	 * Compute a sequence interpolant for the states [start, end] of the trace, extended with
+	 * True before and False after the slice. The initial condition and the target are only
+	 * included if the slice contains the first and the last state respectively.
+	 */
+	private ExprTraceStatus<ItpRefutation> checkSlice(final Trace<? extends ExprState, ? extends ExprAction> trace,
+													  final List<VarIndexing> indexings, final int start, final int end) {
+		final int stateCount = trace.getStates().size();
+		final int sliceCount = end - start + 1;
+
+		try (WithPushPop wpp = new WithPushPop(solver)) {
+			final List<ItpMarker> markers = new ArrayList<>(sliceCount + 1);
+			for (int i = 0; i < sliceCount + 1; ++i) {
+				markers.add(solver.createMarker());
+			}
+			final ItpPattern pattern = solver.createSeqPattern(markers);
+
+			if (start == 0) {
+				solver.add(markers.get(0), PathUtils.unfold(init, indexings.get(0)));
+			}
+			solver.add(markers.get(0), PathUtils.unfold(trace.getState(start).toExpr(), indexings.get(start)));
+			for (int i = start + 1; i <= end; ++i) {
+				solver.add(markers.get(i - start), PathUtils.unfold(trace.getState(i).toExpr(), indexings.get(i)));
+				solver.add(markers.get(i - start), PathUtils.unfold(trace.getAction(i - 1).toExpr(), indexings.get(i - 1)));
+			}
+			if (end == stateCount - 1) {
+				solver.add(markers.get(sliceCount), PathUtils.unfold(target, indexings.get(end)));
+			}
+			final boolean concretizable = solver.check().isSat();
+
+			if (concretizable) {
+				assert start == 0 && end == stateCount - 1 : "Feasible slice";
+				return createCounterexample(solver.getModel(), indexings, trace);
+			} else {
+				final List<Expr<BoolType>> interpolants = new ArrayList<>(stateCount);
+				final Interpolant interpolant = solver.getInterpolant(pattern);
+				for (int i = 0; i < start; ++i) {
+					interpolants.add(True());
+				}
+				for (int i = start; i <= end; ++i) {
+					interpolants.add(PathUtils.foldin(interpolant.eval(markers.get(i - start)), indexings.get(i)));
+				}
+				for (int i = end + 1; i < stateCount; ++i) {
+					interpolants.add(False());
+				}
+				return ExprTraceStatus.infeasible(ItpRefutation.sequence(interpolants));
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName();
+	}
+}
@@ -27,6 +27,10 @@ import hu.bme.mit.theta.analysis.expr.ExprAction;
 import hu.bme.mit.theta.analysis.expr.ExprState;
 import hu.bme.mit.theta.common.logging.Logger;
 import hu.bme.mit.theta.common.logging.Logger.Level;
+import hu.bme.mit.theta.common.metrics.Counter;
+import hu.bme.mit.theta.common.metrics.Histogram;
+import hu.bme.mit.theta.common.metrics.Metrics;
+import hu.bme.mit.theta.common.metrics.Timer;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -37,6 +41,12 @@ import static com.google.common.base.Preconditions.checkNotNull;
 public final class MultiExprTraceRefiner<S extends ExprState, A extends ExprAction, P extends Prec, R extends Refutation>
 		implements Refiner<S, A, P> {
 
+	private static final Timer traceCheckTimer = Metrics.timer("refiner.traceCheck");
+	private static final Timer precRefinementTimer = Metrics.timer("refiner.precRefinement");
+	private static final Histogram traceLength = Metrics.histogram("refiner.traceLength");
+	private static final Counter feasibleCexs = Metrics.counter("refiner.feasibleCexs");
+	private static final Counter spuriousCexs = Metrics.counter("refiner.spuriousCexs");
+
 	private final ExprTraceChecker<R> exprTraceChecker;
 	private final PrecRefiner<S, A, P, R> precRefiner;
 	private final PruneStrategy pruneStrategy;
@@ -73,11 +83,16 @@ public final class MultiExprTraceRefiner<S extends ExprState, A extends ExprActi
 		logger.write(Level.SUBSTEP, "|  |  Checking traces...");
 		final List<ExprTraceStatus<R>> cexStatuses = new ArrayList<>(traces.size());
 		for (final Trace<S, A> trace : traces) {
+			traceLength.record(trace.length());
+			final long traceCheckStart = traceCheckTimer.start();
 			final ExprTraceStatus<R> status = exprTraceChecker.check(trace);
+			traceCheckTimer.stop(traceCheckStart);
 			cexStatuses.add(status);
 			if (status.isFeasible()) {
+				feasibleCexs.increment();
 				break;
 			}
+			spuriousCexs.increment();
 		}
 
 		if (cexStatuses.stream().anyMatch(ExprTraceStatus::isFeasible)) {
@@ -110,11 +125,13 @@ public final class MultiExprTraceRefiner<S extends ExprState, A extends ExprActi
 			assert skip.stream().anyMatch(b -> b.equals(false));
 
 			P refinedPrec = prec;
+			final long precRefinementStart = precRefinementTimer.start();
 			for (int i = 0; i < refutations.size(); ++i) {
 				if (!skip.get(i)) {
 					refinedPrec = precRefiner.refine(refinedPrec, traces.get(i), refutations.get(i));
 				}
 			}
+			precRefinementTimer.stop(precRefinementStart);
 
 			for (ArgTrace<S, A> cex : cexs) {
 				ArgCexCheckHandler.instance.addCounterexample(cex);
@@ -0,0 +1,290 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.expr.refinement;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import hu.bme.mit.theta.analysis.Prec;
+import hu.bme.mit.theta.analysis.Trace;
+import hu.bme.mit.theta.analysis.algorithm.ARG;
+import hu.bme.mit.theta.analysis.algorithm.ArgNode;
+import hu.bme.mit.theta.analysis.algorithm.ArgTrace;
+import hu.bme.mit.theta.analysis.algorithm.cegar.Refiner;
+import hu.bme.mit.theta.analysis.algorithm.cegar.RefinerResult;
+import hu.bme.mit.theta.analysis.algorithm.runtimecheck.ArgCexCheckHandler;
+import hu.bme.mit.theta.analysis.expr.ExprAction;
+import hu.bme.mit.theta.analysis.expr.ExprState;
+import hu.bme.mit.theta.common.Utils;
+import hu.bme.mit.theta.common.logging.Logger;
+import hu.bme.mit.theta.common.logging.Logger.Level;
+import hu.bme.mit.theta.common.metrics.Counter;
+import hu.bme.mit.theta.common.metrics.Histogram;
+import hu.bme.mit.theta.common.metrics.Metrics;
+import hu.bme.mit.theta.common.metrics.Timer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.Collectors;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A Refiner implementation that checks all counterexamples of the ARG concurrently, each
+ * checker (and thus solver) being used by a single thread. If all of them are spurious,
+ * the counterexamples whose prune points are not below the prune point of another one are
+ * refined at once: their refutations are joined into the precision by the PrecRefiner and
+ * all of their prune points are pruned in the same iteration. The threads of the refiner are
+ * stopped when it is closed.
+ */
+public final class ParallelExprTraceRefiner<S extends ExprState, A extends ExprAction, P extends Prec, R extends Refutation>
+		implements Refiner<S, A, P>, AutoCloseable {
+
+	private static final Timer traceCheckTimer = Metrics.timer("refiner.traceCheck");
+	private static final Timer precRefinementTimer = Metrics.timer("refiner.precRefinement");
+	private static final Histogram traceLength = Metrics.histogram("refiner.traceLength");
+	private static final Counter feasibleCexs = Metrics.counter("refiner.feasibleCexs");
+	private static final Counter spuriousCexs = Metrics.counter("refiner.spuriousCexs");
+	private static final Histogram refinedCexs = Metrics.histogram("refiner.parallel.refinedCexs");
+
+	private final List<ExprTraceChecker<R>> exprTraceCheckers;
+	private final PrecRefiner<S, A, P, R> precRefiner;
+	private final PruneStrategy pruneStrategy;
+	private final Logger logger;
+	private ExecutorService executor;
+
+	private ParallelExprTraceRefiner(final List<? extends ExprTraceChecker<R>> exprTraceCheckers,
+									 final PrecRefiner<S, A, P, R> precRefiner,
+									 final PruneStrategy pruneStrategy, final Logger logger) {
+		checkArgument(!exprTraceCheckers.isEmpty(), "At least one trace checker is required");
+		this.exprTraceCheckers = ImmutableList.copyOf(exprTraceCheckers);
+		this.precRefiner = checkNotNull(precRefiner);
+		this.pruneStrategy = checkNotNull(pruneStrategy);
+		this.logger = checkNotNull(logger);
+		this.executor = null;
+	}
+
+	/**
+	 * Create a refiner using the given trace checkers concurrently. The checkers must not
+	 * share solvers, as each of them is used by a different thread.
+	 */
+	public static <S extends ExprState, A extends ExprAction, P extends Prec, R extends Refutation> ParallelExprTraceRefiner<S, A, P, R> create(
+			final List<? extends ExprTraceChecker<R>> exprTraceCheckers, final PrecRefiner<S, A, P, R> precRefiner,
+			final PruneStrategy pruneStrategy, final Logger logger) {
+		return new ParallelExprTraceRefiner<>(exprTraceCheckers, precRefiner, pruneStrategy, logger);
+	}
+
+	@Override
+	public RefinerResult<S, A, P> refine(final ARG<S, A> arg, final P prec) {
+		checkNotNull(arg);
+		checkNotNull(prec);
+		assert !arg.isSafe() : "ARG must be unsafe";
+
+		final List<ArgTrace<S, A>> cexs = arg.getCexs().collect(Collectors.toList());
+		final List<Trace<S, A>> traces = cexs.stream().map(ArgTrace::toTrace).collect(Collectors.toList());
+		assert traces.size() > 0 : "No counterexample in ARG";
+		logger.write(Level.INFO, "|  |  Number of traces: %d%n", traces.size());
+
+		logger.write(Level.SUBSTEP, "|  |  Checking traces...");
+		final AtomicReferenceArray<ExprTraceStatus<R>> cexStatuses = checkTraces(traces);
+
+		for (int i = 0; i < traces.size(); ++i) {
+			final ExprTraceStatus<R> status = cexStatuses.get(i);
+			if (status != null && status.isFeasible()) {
+				logger.write(Level.SUBSTEP, "done, result: found feasible%n");
+				return RefinerResult.unsafe(traces.get(i));
+			}
+		}
+		logger.write(Level.SUBSTEP, "done, result: all infeasible%n");
+
+		// Select the counterexamples with disjoint prune points
+		final List<R> refutations = new ArrayList<>(traces.size());
+		final Set<ArgNode<S, A>> nodesToPrune = new LinkedHashSet<>();
+		for (int i = 0; i < traces.size(); ++i) {
+			final R refutation = cexStatuses.get(i).asInfeasible().getRefutation();
+			final int pruneIndex = refutation.getPruneIndex();
+			assert 0 <= pruneIndex && pruneIndex <= cexs.get(i).length() : "Invalid pruning index";
+			refutations.add(refutation);
+			nodesToPrune.add(cexs.get(i).node(pruneIndex));
+		}
+		final Set<ArgNode<S, A>> selectedNodes = new LinkedHashSet<>();
+		final List<Integer> selected = new ArrayList<>(traces.size());
+		for (int i = 0; i < traces.size(); ++i) {
+			final ArgNode<S, A> node = cexs.get(i).node(refutations.get(i).getPruneIndex());
+			if (!selectedNodes.contains(node) && node.properAncestors().noneMatch(nodesToPrune::contains)) {
+				selectedNodes.add(node);
+				selected.add(i);
+			}
+		}
+		assert !selected.isEmpty();
+		logger.write(Level.INFO, "|  |  Number of independent traces: %d%n", selected.size());
+		refinedCexs.record(selected.size());
+
+		P refinedPrec = prec;
+		final long precRefinementStart = precRefinementTimer.start();
+		for (final int i : selected) {
+			final R refutation = refutations.get(i);
+			logger.write(Level.DETAIL, "|  |  |  Refutation: %s%n", refutation);
+			refinedPrec = precRefiner.refine(refinedPrec, traces.get(i), refutation);
+		}
+		precRefinementTimer.stop(precRefinementStart);
+
+		for (final ArgTrace<S, A> cex : cexs) {
+			ArgCexCheckHandler.instance.addCounterexample(cex);
+		}
+
+		switch (pruneStrategy) {
+			case LAZY:
+				logger.write(Level.SUBSTEP, "|  |  Pruning (lazy)...");
+				selectedNodes.forEach(arg::prune);
+				break;
+			case FULL:
+				logger.write(Level.SUBSTEP, "|  |  Pruning (full)...");
+				arg.pruneAll();
+				break;
+			default:
+				throw new UnsupportedOperationException("Unsupported pruning strategy");
+		}
+		logger.write(Level.SUBSTEP, "done%n");
+		return RefinerResult.spurious(refinedPrec);
+	}
+
+	/**
+	 * Check the traces with the checkers concurrently, each checker taking the next unchecked
+	 * trace. Checking stops as soon as a feasible trace is found, so some of the statuses may
+	 * be null in that case.
+	 */
+	private AtomicReferenceArray<ExprTraceStatus<R>> checkTraces(final List<Trace<S, A>> traces) {
+		final AtomicReferenceArray<ExprTraceStatus<R>> statuses = new AtomicReferenceArray<>(traces.size());
+		final AtomicInteger next = new AtomicInteger(0);
+		final int workers = Math.min(exprTraceCheckers.size(), traces.size());
+
+		final List<Future<?>> futures = new ArrayList<>(workers - 1);
+		for (int i = 1; i < workers; ++i) {
+			final ExprTraceChecker<R> checker = exprTraceCheckers.get(i);
+			futures.add(getExecutor().submit(() -> checkTraces(checker, traces, statuses, next)));
+		}
+		Throwable failure = null;
+		try {
+			checkTraces(exprTraceCheckers.get(0), traces, statuses, next);
+		} catch (RuntimeException | Error e) {
+			failure = e;
+			throw e;
+		} finally {
+			// The workers must not outlive the call even if a check fails, as their checkers
+			// (and solvers) are reused by the next refinement
+			awaitAll(futures, next, traces.size(), failure);
+		}
+		return statuses;
+	}
+
+	private void checkTraces(final ExprTraceChecker<R> checker, final List<Trace<S, A>> traces,
+							 final AtomicReferenceArray<ExprTraceStatus<R>> statuses, final AtomicInteger next) {
+		int i;
+		while ((i = next.getAndIncrement()) < traces.size()) {
+			final Trace<S, A> trace = traces.get(i);
+			traceLength.record(trace.length());
+			final long traceCheckStart = traceCheckTimer.start();
+			final ExprTraceStatus<R> status = checker.check(trace);
+			traceCheckTimer.stop(traceCheckStart);
+			assert status.isFeasible() || status.isInfeasible() : "Unknown CEX status";
+			statuses.set(i, status);
+			if (status.isFeasible()) {
+				feasibleCexs.increment();
+				// Make the other workers stop as well
+				next.set(traces.size());
+			} else {
+				spuriousCexs.increment();
+			}
+		}
+	}
+
+	/**
+	 * Wait for all workers to finish. After the first failure (of the caller, if given, or of a
+	 * worker) the workers are stopped: they finish their current trace but do not take a new
+	 * one. The first failure of a worker is rethrown unless the caller already failed, in
+	 * which case it is only added as a suppressed exception.
+	 */
+	private static void awaitAll(final List<Future<?>> futures, final AtomicInteger next, final int traceCount,
+								 final Throwable callerFailure) {
+		Throwable failure = callerFailure;
+		if (failure != null) {
+			next.set(traceCount);
+		}
+		for (int i = 0; i < futures.size(); ++i) {
+			try {
+				futures.get(i).get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				next.set(traceCount);
+				futures.subList(i, futures.size()).forEach(future -> future.cancel(true));
+				failure = addFailure(failure, new RuntimeException(e));
+				break;
+			} catch (ExecutionException e) {
+				next.set(traceCount);
+				failure = addFailure(failure, e.getCause());
+			}
+		}
+		if (failure != null && failure != callerFailure) {
+			if (failure instanceof RuntimeException) throw (RuntimeException) failure;
+			if (failure instanceof Error) throw (Error) failure;
+			throw new RuntimeException(failure);
+		}
+	}
+
+	private static Throwable addFailure(final Throwable failure, final Throwable newFailure) {
+		if (failure == null) {
+			return newFailure;
+		}
+		failure.addSuppressed(newFailure);
+		return failure;
+	}
+
+	private synchronized ExecutorService getExecutor() {
+		if (executor == null) {
+			executor = Executors.newFixedThreadPool(exprTraceCheckers.size() - 1,
+					new ThreadFactoryBuilder().setDaemon(true).setNameFormat("trace-checker-%d").build());
+		}
+		return executor;
+	}
+
+	/**
+	 * Stop the threads of the refiner. The checkers (and their solvers) are not owned by the
+	 * refiner, they have to be closed by their creator.
+	 */
+	@Override
+	public synchronized void close() {
+		if (executor != null) {
+			executor.shutdownNow();
+			executor = null;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return Utils.lispStringBuilder(getClass().getSimpleName()).add(exprTraceCheckers.size())
+				.add(exprTraceCheckers.get(0)).add(precRefiner).toString();
+	}
+
+}
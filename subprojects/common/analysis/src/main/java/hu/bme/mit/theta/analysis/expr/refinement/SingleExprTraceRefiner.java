@@ -28,6 +28,10 @@ import hu.bme.mit.theta.analysis.expr.ExprState;
 import hu.bme.mit.theta.common.Utils;
 import hu.bme.mit.theta.common.logging.Logger;
 import hu.bme.mit.theta.common.logging.Logger.Level;
+import hu.bme.mit.theta.common.metrics.Counter;
+import hu.bme.mit.theta.common.metrics.Histogram;
+import hu.bme.mit.theta.common.metrics.Metrics;
+import hu.bme.mit.theta.common.metrics.Timer;
 
 import java.util.Optional;
 
@@ -40,6 +44,12 @@ import static com.google.common.base.Preconditions.checkNotNull;
 public final class SingleExprTraceRefiner<S extends ExprState, A extends ExprAction, P extends Prec, R extends Refutation>
 		implements Refiner<S, A, P> {
 
+	private static final Timer traceCheckTimer = Metrics.timer("refiner.traceCheck");
+	private static final Timer precRefinementTimer = Metrics.timer("refiner.precRefinement");
+	private static final Histogram traceLength = Metrics.histogram("refiner.traceLength");
+	private static final Counter feasibleCexs = Metrics.counter("refiner.feasibleCexs");
+	private static final Counter spuriousCexs = Metrics.counter("refiner.spuriousCexs");
+
 	private final ExprTraceChecker<R> exprTraceChecker;
 	private final PrecRefiner<S, A, P, R> precRefiner;
 	private final PruneStrategy pruneStrategy;
@@ -71,20 +81,27 @@ public final class SingleExprTraceRefiner<S extends ExprState, A extends ExprAct
 
 		final Trace<S, A> traceToConcretize = cexToConcretize.toTrace();
 		logger.write(Level.INFO, "|  |  Trace length: %d%n", traceToConcretize.length());
+		traceLength.record(traceToConcretize.length());
 		logger.write(Level.DETAIL, "|  |  Trace: %s%n", traceToConcretize);
 
 		logger.write(Level.SUBSTEP, "|  |  Checking trace...");
+		final long traceCheckStart = traceCheckTimer.start();
 		final ExprTraceStatus<R> cexStatus = exprTraceChecker.check(traceToConcretize);
+		traceCheckTimer.stop(traceCheckStart);
 		logger.write(Level.SUBSTEP, "done, result: %s%n", cexStatus);
 
 		assert cexStatus.isFeasible() || cexStatus.isInfeasible() : "Unknown CEX status";
 
 		if (cexStatus.isFeasible()) {
+			feasibleCexs.increment();
 			return RefinerResult.unsafe(traceToConcretize);
 		} else {
+			spuriousCexs.increment();
 			final R refutation = cexStatus.asInfeasible().getRefutation();
 			logger.write(Level.DETAIL, "|  |  |  Refutation: %s%n", refutation);
+			final long precRefinementStart = precRefinementTimer.start();
 			final P refinedPrec = precRefiner.refine(prec, traceToConcretize, refutation);
+			precRefinementTimer.stop(precRefinementStart);
 			final int pruneIndex = refutation.getPruneIndex();
 			assert 0 <= pruneIndex : "Pruning index must be non-negative";
 			assert pruneIndex <= cexToConcretize.length() : "Pruning index larger than cex length";
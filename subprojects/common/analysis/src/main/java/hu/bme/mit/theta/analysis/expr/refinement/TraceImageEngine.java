@@ -0,0 +1,462 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.expr.refinement;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import hu.bme.mit.theta.core.decl.ParamDecl;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.model.BasicSubstitution;
+import hu.bme.mit.theta.core.model.ImmutableValuation;
+import hu.bme.mit.theta.core.model.Substitution;
+import hu.bme.mit.theta.core.stmt.AssignStmt;
+import hu.bme.mit.theta.core.stmt.AssumeStmt;
+import hu.bme.mit.theta.core.stmt.HavocStmt;
+import hu.bme.mit.theta.core.stmt.IfStmt;
+import hu.bme.mit.theta.core.stmt.LoopStmt;
+import hu.bme.mit.theta.core.stmt.NonDetStmt;
+import hu.bme.mit.theta.core.stmt.OrtStmt;
+import hu.bme.mit.theta.core.stmt.SequenceStmt;
+import hu.bme.mit.theta.core.stmt.SkipStmt;
+import hu.bme.mit.theta.core.stmt.Stmt;
+import hu.bme.mit.theta.core.stmt.StmtVisitor;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.Type;
+import hu.bme.mit.theta.core.type.booltype.AndExpr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.type.booltype.FalseExpr;
+import hu.bme.mit.theta.core.type.booltype.TrueExpr;
+import hu.bme.mit.theta.core.utils.ExprSimplifier;
+import hu.bme.mit.theta.core.utils.ExprUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static hu.bme.mit.theta.core.decl.Decls.Const;
+import static hu.bme.mit.theta.core.decl.Decls.Param;
+import static hu.bme.mit.theta.core.type.abstracttype.AbstractExprs.Eq;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.And;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Exists;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.False;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Forall;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.True;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Computes the strongest postconditions or the (existential) weakest preconditions of every
+ * position of a sequence of actions, as used by {@link ExprTraceNewtonChecker}. The results are
+ * the same (up to simplification) as applying {@link hu.bme.mit.theta.core.utils.SpState} or
+ * {@link hu.bme.mit.theta.core.utils.WpState} and simplifying at each position, but the images
+ * are computed in a single sweep: the current image is kept as a list of simplified conjuncts,
+ * and a statement only rewrites (and re-simplifies) the conjuncts that refer to the variables it
+ * modifies, so intermediate results are shared between positions. Variables of the conjuncts and
+ * simplified expressions are cached during the sweep.
+ * <p>
+ * Optionally, the images can be projected to the live variables (the variables read later for
+ * postconditions, and the variables accessed earlier for preconditions). The projections of
+ * different positions are independent, so they can be computed in parallel.
+ */
+public final class TraceImageEngine {
+
+	private final boolean projectToLiveVars;
+	private final boolean parallel;
+
+	private TraceImageEngine(final boolean projectToLiveVars, final boolean parallel) {
+		this.projectToLiveVars = projectToLiveVars;
+		this.parallel = parallel;
+	}
+
+	public static TraceImageEngine create(final boolean projectToLiveVars, final boolean parallel) {
+		return new TraceImageEngine(projectToLiveVars, parallel);
+	}
+
+	public boolean isProjectingToLiveVars() {
+		return projectToLiveVars;
+	}
+
+	public boolean isParallel() {
+		return parallel;
+	}
+
+	/**
+	 * Compute the strongest postconditions of True along the actions. The result has one more
+	 * element than the number of actions, the first one being True.
+	 */
+	public List<Expr<BoolType>> postImages(final List<? extends List<? extends Stmt>> actions) {
+		checkNotNull(actions);
+		final List<ActionVars> actionVars = collectActionVars(actions);
+		final Sweep sweep = new Sweep(false);
+		final List<Image> images = new ArrayList<>(actions.size() + 1);
+
+		images.add(sweep.image());
+		for (final List<? extends Stmt> action : actions) {
+			for (final Stmt stmt : action) {
+				if (sweep.unsat) break;
+				stmt.accept(sweep.spVisitor, null);
+			}
+			images.add(sweep.image());
+		}
+
+		if (projectToLiveVars) {
+			return project(images, futureLiveVars(actionVars), sweep.params, false);
+		} else {
+			return images.stream().map(image -> image.expr).collect(ImmutableList.toImmutableList());
+		}
+	}
+
+	/**
+	 * Compute the weakest existential preconditions of True along the actions. The result has one
+	 * more element than the number of actions, the last one being True.
+	 */
+	public List<Expr<BoolType>> preImages(final List<? extends List<? extends Stmt>> actions) {
+		checkNotNull(actions);
+		final List<ActionVars> actionVars = collectActionVars(actions);
+		final Sweep sweep = new Sweep(true);
+		final List<Image> images = new ArrayList<>(actions.size() + 1);
+
+		images.add(sweep.image());
+		for (final List<? extends Stmt> action : Lists.reverse(actions)) {
+			for (final Stmt stmt : Lists.reverse(action)) {
+				if (sweep.unsat) break;
+				stmt.accept(sweep.wepVisitor, null);
+			}
+			images.add(sweep.image());
+		}
+		final List<Image> orderedImages = Lists.reverse(images);
+
+		if (projectToLiveVars) {
+			return project(orderedImages, pastLiveVars(actionVars), sweep.params, true);
+		} else {
+			return orderedImages.stream().map(image -> image.expr).collect(ImmutableList.toImmutableList());
+		}
+	}
+
+	/*
+	 * Live variables
+	 */
+
+	private List<ActionVars> collectActionVars(final List<? extends List<? extends Stmt>> actions) {
+		final IntStream indices = IntStream.range(0, actions.size());
+		return (parallel ? indices.parallel() : indices)
+				.mapToObj(i -> ActionVars.of(actions.get(i)))
+				.collect(toList());
+	}
+
+	private static List<Set<VarDecl<?>>> futureLiveVars(final List<ActionVars> actionVars) {
+		final int count = actionVars.size() + 1;
+		final List<Set<VarDecl<?>>> liveVars = new ArrayList<>(count);
+		Set<VarDecl<?>> vars = new HashSet<>();
+		liveVars.add(vars);
+		for (final ActionVars action : Lists.reverse(actionVars)) {
+			vars = new HashSet<>(vars);
+			vars.addAll(action.reads);
+			vars.removeAll(action.writes);
+			vars.removeAll(action.havocs);
+			liveVars.add(vars);
+		}
+		return Lists.reverse(liveVars);
+	}
+
+	private static List<Set<VarDecl<?>>> pastLiveVars(final List<ActionVars> actionVars) {
+		final int count = actionVars.size() + 1;
+		final List<Set<VarDecl<?>>> liveVars = new ArrayList<>(count);
+		Set<VarDecl<?>> vars = new HashSet<>();
+		liveVars.add(vars);
+		for (final ActionVars action : actionVars) {
+			vars = new HashSet<>(vars);
+			vars.addAll(action.reads);
+			vars.addAll(action.writes);
+			vars.removeAll(action.havocs);
+			liveVars.add(vars);
+		}
+		return liveVars;
+	}
+
+	/*
+	 * Projection to live variables
+	 */
+
+	private List<Expr<BoolType>> project(final List<Image> images, final List<Set<VarDecl<?>>> liveVars,
+										 final Map<VarDecl<?>, ParamDecl<?>> params, final boolean universal) {
+		final IntStream indices = IntStream.range(0, images.size());
+		return (parallel ? indices.parallel() : indices)
+				.mapToObj(i -> project(images.get(i), liveVars.get(i), params, universal))
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	private static Expr<BoolType> project(final Image image, final Set<VarDecl<?>> liveVars,
+										  final Map<VarDecl<?>, ParamDecl<?>> params, final boolean universal) {
+		final BasicSubstitution.Builder builder = BasicSubstitution.builder();
+		final List<ParamDecl<?>> quantifiedParams = new ArrayList<>();
+		for (final VarDecl<?> var : image.vars) {
+			if (!liveVars.contains(var)) {
+				final ParamDecl<?> param = params.get(var);
+				builder.put(var, param.getRef());
+				quantifiedParams.add(param);
+			}
+		}
+
+		if (quantifiedParams.isEmpty()) {
+			return image.expr;
+		}
+		final Expr<BoolType> body = builder.build().apply(image.expr);
+		return universal ? Forall(quantifiedParams, body) : Exists(quantifiedParams, body);
+	}
+
+	/*
+	 * Image computation
+	 */
+
+	private static final class Image {
+		private final Expr<BoolType> expr;
+		private final Set<VarDecl<?>> vars;
+
+		private Image(final Expr<BoolType> expr, final Set<VarDecl<?>> vars) {
+			this.expr = expr;
+			this.vars = vars;
+		}
+	}
+
+	/**
+	 * The state of a sweep: the current image as a list of simplified conjuncts. For backward
+	 * sweeps the list is stored in reverse order, so that prepending a conjunct is cheap.
+	 */
+	private static final class Sweep {
+		private final boolean reversed;
+		private final Map<Expr<BoolType>, Set<VarDecl<?>>> varsOfConjunct = new HashMap<>();
+		private final Map<Expr<BoolType>, Expr<BoolType>> simplified = new HashMap<>();
+		private final Map<VarDecl<?>, ParamDecl<?>> params = new LinkedHashMap<>();
+		private final StmtVisitor<Void, Void> spVisitor = new SpVisitor();
+		private final StmtVisitor<Void, Void> wepVisitor = new WepVisitor();
+
+		private List<Expr<BoolType>> conjuncts = new ArrayList<>();
+		private boolean unsat = false;
+		private int constCount = 0;
+
+		private Sweep(final boolean reversed) {
+			this.reversed = reversed;
+		}
+
+		private Image image() {
+			if (unsat) {
+				return new Image(False(), Set.of());
+			}
+			// duplicate conjuncts are only dropped here, keeping the first occurrence
+			final Set<Expr<BoolType>> ops = new LinkedHashSet<>(reversed ? Lists.reverse(conjuncts) : conjuncts);
+			final Set<VarDecl<?>> vars = new LinkedHashSet<>();
+			ops.forEach(op -> vars.addAll(varsOf(op)));
+			if (ops.isEmpty()) {
+				return new Image(True(), vars);
+			} else if (ops.size() == 1) {
+				return new Image(ops.iterator().next(), vars);
+			} else {
+				return new Image(And(ImmutableList.copyOf(ops)), vars);
+			}
+		}
+
+		private Set<VarDecl<?>> varsOf(final Expr<BoolType> conjunct) {
+			return varsOfConjunct.computeIfAbsent(conjunct, c -> {
+				final Set<VarDecl<?>> vars = ExprUtils.getVars(c);
+				vars.forEach(var -> params.computeIfAbsent(var, v -> Param(v.getName(), v.getType())));
+				return vars;
+			});
+		}
+
+		private Expr<BoolType> simplify(final Expr<BoolType> expr) {
+			final Expr<BoolType> cached = simplified.get(expr);
+			if (cached != null) {
+				return cached;
+			}
+			final Expr<BoolType> result = ExprSimplifier.simplify(expr, ImmutableValuation.empty());
+			simplified.put(expr, result);
+			return result;
+		}
+
+		/**
+		 * Conjoin a simplified expression to the front (backward sweep) or to the back (forward
+		 * sweep) of the image.
+		 */
+		private void conjoin(final List<Expr<BoolType>> to, final Expr<BoolType> expr) {
+			if (expr instanceof TrueExpr) {
+				return;
+			} else if (expr instanceof FalseExpr) {
+				unsat = true;
+			} else if (expr instanceof AndExpr) {
+				final List<? extends Expr<BoolType>> ops = ((AndExpr) expr).getOps();
+				(reversed ? Lists.reverse(ops) : ops).forEach(op -> conjoin(to, op));
+			} else {
+				to.add(expr);
+			}
+		}
+
+		private void substitute(final VarDecl<?> var, final Expr<?> value) {
+			if (conjuncts.stream().noneMatch(c -> varsOf(c).contains(var))) {
+				return;
+			}
+			final Substitution sub = BasicSubstitution.builder().put(var, value).build();
+			final List<Expr<BoolType>> result = new ArrayList<>(conjuncts.size());
+			for (final Expr<BoolType> conjunct : conjuncts) {
+				if (varsOf(conjunct).contains(var)) {
+					conjoin(result, simplify(sub.apply(conjunct)));
+				} else {
+					result.add(conjunct);
+				}
+				if (unsat) {
+					result.clear();
+					break;
+				}
+			}
+			conjuncts = result;
+		}
+
+		private void conjoin(final Expr<BoolType> expr) {
+			conjoin(conjuncts, simplify(expr));
+			if (unsat) {
+				conjuncts.clear();
+			}
+		}
+
+		private <T extends Type> Expr<T> freshConst(final String prefix, final T type) {
+			constCount++;
+			return Const(String.format("%s_%d", prefix, constCount), type).getRef();
+		}
+
+		private final class SpVisitor extends FlatStmtVisitor {
+			@Override
+			public Void visit(final AssumeStmt stmt, final Void param) {
+				conjoin(stmt.getCond());
+				return null;
+			}
+
+			@Override
+			public <DeclType extends Type> Void visit(final AssignStmt<DeclType> stmt, final Void param) {
+				final VarDecl<DeclType> var = stmt.getVarDecl();
+				final Expr<DeclType> val = freshConst("_sp", var.getType());
+				substitute(var, val);
+				final Expr<DeclType> expr = BasicSubstitution.builder().put(var, val).build().apply(stmt.getExpr());
+				conjoin(Eq(var.getRef(), expr));
+				return null;
+			}
+
+			@Override
+			public <DeclType extends Type> Void visit(final HavocStmt<DeclType> stmt, final Void param) {
+				final VarDecl<DeclType> var = stmt.getVarDecl();
+				substitute(var, freshConst("_sp", var.getType()));
+				return null;
+			}
+		}
+
+		private final class WepVisitor extends FlatStmtVisitor {
+			@Override
+			public Void visit(final AssumeStmt stmt, final Void param) {
+				conjoin(stmt.getCond());
+				return null;
+			}
+
+			@Override
+			public <DeclType extends Type> Void visit(final AssignStmt<DeclType> stmt, final Void param) {
+				substitute(stmt.getVarDecl(), stmt.getExpr());
+				return null;
+			}
+
+			@Override
+			public <DeclType extends Type> Void visit(final HavocStmt<DeclType> stmt, final Void param) {
+				final VarDecl<DeclType> var = stmt.getVarDecl();
+				substitute(var, freshConst("_wp", var.getType()));
+				return null;
+			}
+		}
+	}
+
+	/**
+	 * Visitor for the statements that can appear in a flattened trace.
+	 */
+	private abstract static class FlatStmtVisitor implements StmtVisitor<Void, Void> {
+		@Override
+		public Void visit(final SkipStmt stmt, final Void param) {
+			return null;
+		}
+
+		@Override
+		public Void visit(final SequenceStmt stmt, final Void param) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Void visit(final NonDetStmt stmt, final Void param) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Void visit(final OrtStmt stmt, final Void param) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Void visit(final LoopStmt stmt, final Void param) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Void visit(final IfStmt stmt, final Void param) {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	/**
+	 * Variables read, written and havoced by an action.
+	 */
+	private static final class ActionVars {
+		private final Set<VarDecl<?>> reads = new HashSet<>();
+		private final Set<VarDecl<?>> writes = new HashSet<>();
+		private final Set<VarDecl<?>> havocs = new HashSet<>();
+
+		private static ActionVars of(final Collection<? extends Stmt> stmts) {
+			final ActionVars actionVars = new ActionVars();
+			final StmtVisitor<Void, Void> visitor = new FlatStmtVisitor() {
+				@Override
+				public Void visit(final AssumeStmt stmt, final Void param) {
+					ExprUtils.collectVars(stmt.getCond(), actionVars.reads);
+					return null;
+				}
+
+				@Override
+				public <DeclType extends Type> Void visit(final AssignStmt<DeclType> stmt, final Void param) {
+					ExprUtils.collectVars(stmt.getExpr(), actionVars.reads);
+					actionVars.writes.add(stmt.getVarDecl());
+					return null;
+				}
+
+				@Override
+				public <DeclType extends Type> Void visit(final HavocStmt<DeclType> stmt, final Void param) {
+					actionVars.havocs.add(stmt.getVarDecl());
+					return null;
+				}
+			};
+			stmts.forEach(stmt -> stmt.accept(visitor, null));
+			return actionVars;
+		}
+	}
+}
@@ -15,7 +15,11 @@
  */
 package hu.bme.mit.theta.analysis.pred;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import hu.bme.mit.theta.common.container.Containers;
+import hu.bme.mit.theta.common.metrics.Counter;
+import hu.bme.mit.theta.common.metrics.Metrics;
 import hu.bme.mit.theta.core.decl.ConstDecl;
 import hu.bme.mit.theta.core.decl.Decls;
 import hu.bme.mit.theta.core.model.Valuation;
@@ -23,9 +27,11 @@ import hu.bme.mit.theta.core.type.Expr;
 import hu.bme.mit.theta.core.type.LitExpr;
 import hu.bme.mit.theta.core.type.booltype.BoolExprs;
 import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.utils.ExprUtils;
 import hu.bme.mit.theta.core.utils.PathUtils;
 import hu.bme.mit.theta.core.utils.indexings.VarIndexing;
 import hu.bme.mit.theta.solver.Solver;
+import hu.bme.mit.theta.solver.SolverFactory;
 import hu.bme.mit.theta.solver.utils.WithPushPop;
 
 import java.util.ArrayList;
@@ -33,13 +39,23 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static hu.bme.mit.theta.core.type.booltype.BoolExprs.And;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.False;
 import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Iff;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Imply;
 import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Not;
 import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Or;
 import static hu.bme.mit.theta.core.type.booltype.BoolExprs.True;
@@ -70,6 +86,15 @@ public class PredAbstractors {
 												  final PredPrec prec, final VarIndexing precIndexing);
 	}
 
+	/**
+	 * Predicate abstractor that owns resources (e.g., threads and solvers), which are released
+	 * when it is closed.
+	 */
+	public interface CloseablePredAbstractor extends PredAbstractor, AutoCloseable {
+		@Override
+		void close();
+	}
+
 	/**
 	 * Get the strategy that uses Boolean abstraction and splits the disjuncts.
 	 *
@@ -91,6 +116,41 @@ public class PredAbstractors {
 		return new BooleanAbstractor(solver, false);
 	}
 
+	/**
+	 * Get the strategy that uses incremental Boolean abstraction and splits the
+	 * disjuncts. See {@link #incrementalBooleanAbstractor(Solver, boolean)}.
+	 *
+	 * @param solver
+	 * @return
+	 */
+	public static PredAbstractor incrementalBooleanSplitAbstractor(final Solver solver) {
+		return new IncrementalBooleanAbstractor(solver, true, false);
+	}
+
+	/**
+	 * Get the strategy that uses incremental Boolean abstraction (and keeps the
+	 * formula as a whole). Unlike {@link #booleanAbstractor(Solver)}, the
+	 * definitions of the predicates and the conjuncts of the abstracted
+	 * expressions are only sent to the solver once, guarded by activation
+	 * literals in a solver frame owned by the abstractor. The solver can be
+	 * shared with components that use balanced push/pop, but not with ones that
+	 * reset it or with other incremental abstractors. The enumerated cubes of the
+	 * queries are kept: a repeated query needs no solver call, and a query whose
+	 * conjuncts include all conjuncts of an earlier one (with the same predicates)
+	 * only checks the cubes of the earlier query instead of enumerating its own
+	 * with new blocking clauses. If cube minimization is enabled, literals of the
+	 * enumerated cubes are dropped when both of their values are feasible,
+	 * reducing the number of AllSAT iterations and the size of the resulting
+	 * formula (minimized cubes are not reused for other queries).
+	 *
+	 * @param solver
+	 * @param minimizeCubes
+	 * @return
+	 */
+	public static PredAbstractor incrementalBooleanAbstractor(final Solver solver, final boolean minimizeCubes) {
+		return new IncrementalBooleanAbstractor(solver, false, minimizeCubes);
+	}
+
 	/**
 	 * Get the strategy that uses Cartesian abstraction.
 	 *
@@ -101,6 +161,29 @@ public class PredAbstractors {
 		return new CartesianAbstractor(solver);
 	}
 
+	/**
+	 * Get the strategy that uses Cartesian abstraction with the predicates
+	 * partitioned among multiple solvers, each loaded with the same expression
+	 * and checked concurrently. Entailment checks are skipped for predicates
+	 * that appear as conjuncts of the expression and for predicates refuted by
+	 * a model obtained during an earlier check.
+	 *
+	 * The solvers are created by the abstractor and closed (along with its
+	 * threads) when the abstractor is closed.
+	 *
+	 * @param solverFactory
+	 * @param parallelism   Number of solvers (and threads)
+	 * @return
+	 */
+	public static CloseablePredAbstractor parallelCartesianAbstractor(final SolverFactory solverFactory, final int parallelism) {
+		checkArgument(parallelism > 0, "Parallelism must be positive");
+		final List<Solver> solvers = new ArrayList<>(parallelism);
+		for (int i = 0; i < parallelism; ++i) {
+			solvers.add(solverFactory.createSolver());
+		}
+		return new ParallelCartesianAbstractor(solvers);
+	}
+
 	private static final class BooleanAbstractor implements PredAbstractor {
 
 		private final Solver solver;
@@ -174,6 +257,486 @@ public class PredAbstractors {
 		}
 	}
 
+	private static final class IncrementalBooleanAbstractor implements PredAbstractor {
+
+		private static final Counter definitions = Metrics.counter("predAbstractor.incremental.definitions");
+		private static final Counter reusedDefinitions = Metrics.counter("predAbstractor.incremental.reusedDefinitions");
+		private static final Counter allSatIterations = Metrics.counter("predAbstractor.incremental.allSatIterations");
+		private static final Counter cachedQueries = Metrics.counter("predAbstractor.incremental.cachedQueries");
+		private static final Counter reusedQueries = Metrics.counter("predAbstractor.incremental.reusedQueries");
+		private static final Counter droppedLiterals = Metrics.counter("predAbstractor.incremental.droppedLiterals");
+
+		// Number of definitions after which the persistent context is discarded to keep the solver small
+		private static final int MAX_DEFINITIONS = 1 << 14;
+
+		private final Solver solver;
+		private final boolean split;
+		private final boolean minimizeCubes;
+		private final String litPrefix;
+		private static int instanceCounter = 0;
+
+		// Unfolded predicates and conjuncts mapped to the literals that are permanently defined for them
+		private final Map<Expr<BoolType>, ConstDecl<BoolType>> predLits;
+		private final Map<Expr<BoolType>, ConstDecl<BoolType>> conjunctLits;
+		// Cubes enumerated for the queries, grouped by the predicate literals and keyed by the guards
+		private final Map<List<ConstDecl<BoolType>>, Map<Set<ConstDecl<BoolType>>, Result>> results;
+		private int litCount;
+		private boolean inContext;
+
+		public IncrementalBooleanAbstractor(final Solver solver, final boolean split, final boolean minimizeCubes) {
+			this.solver = checkNotNull(solver);
+			this.split = split;
+			this.minimizeCubes = minimizeCubes;
+			this.litPrefix = "__" + getClass().getSimpleName() + "_" + instanceCounter + "_";
+			instanceCounter++;
+			this.predLits = Containers.createMap();
+			this.conjunctLits = Containers.createMap();
+			this.results = Containers.createMap();
+			this.litCount = 0;
+			this.inContext = false;
+		}
+
+		@Override
+		public Collection<PredState> createStatesForExpr(final Expr<BoolType> expr, final VarIndexing exprIndexing,
+														 final PredPrec prec, final VarIndexing precIndexing) {
+			checkNotNull(expr);
+			checkNotNull(exprIndexing);
+			checkNotNull(prec);
+			checkNotNull(precIndexing);
+
+			if (!inContext || predLits.size() + conjunctLits.size() > MAX_DEFINITIONS) {
+				resetContext();
+			}
+
+			final List<Expr<BoolType>> preds = new ArrayList<>(prec.getPreds());
+			final List<ConstDecl<BoolType>> lits = new ArrayList<>(preds.size());
+			for (final Expr<BoolType> pred : preds) {
+				lits.add(define(predLits, PathUtils.unfold(pred, precIndexing), true));
+			}
+			final Set<ConstDecl<BoolType>> guards = Containers.createSet();
+			for (final Expr<BoolType> conjunct : ExprUtils.getConjuncts(expr)) {
+				guards.add(define(conjunctLits, PathUtils.unfold(conjunct, exprIndexing), false));
+			}
+
+			final Map<Set<ConstDecl<BoolType>>, Result> resultsForLits = results.computeIfAbsent(lits, l -> Containers.createMap());
+			Result result = resultsForLits.get(guards);
+			if (result != null) {
+				cachedQueries.increment();
+			} else {
+				final Result weaker = findWeaker(resultsForLits, guards);
+				if (weaker != null) {
+					reusedQueries.increment();
+					result = filter(weaker, guards, preds, lits, prec);
+				} else {
+					result = enumerate(guards, preds, lits, prec);
+				}
+				resultsForLits.put(guards, result);
+			}
+			final List<PredState> states = result.states;
+
+			if (!split && states.size() > 1) {
+				final Expr<BoolType> pred = Or(states.stream().map(PredState::toExpr).collect(Collectors.toList()));
+				return Collections.singleton(PredState.of(pred));
+			} else {
+				return states;
+			}
+		}
+
+		/**
+		 * Finds a query with a subset of the given guards whose cubes assign every literal (i.e.,
+		 * they were not minimized), preferring the one with the fewest cubes. The models of the
+		 * given query are models of such a query, so its cubes are exactly the feasible cubes of
+		 * the weaker query.
+		 */
+		private static Result findWeaker(final Map<Set<ConstDecl<BoolType>>, Result> resultsForLits,
+										 final Set<ConstDecl<BoolType>> guards) {
+			Result best = null;
+			for (final Map.Entry<Set<ConstDecl<BoolType>>, Result> entry : resultsForLits.entrySet()) {
+				final Result result = entry.getValue();
+				if (result.complete && (best == null || result.cubes.size() < best.cubes.size())
+						&& guards.containsAll(entry.getKey())) {
+					best = result;
+				}
+			}
+			return best;
+		}
+
+		/**
+		 * Computes the cubes of a query by checking the cubes of a weaker query one by one
+		 * instead of enumerating them, i.e., the blocking clauses of the weaker query are reused.
+		 */
+		private Result filter(final Result weaker, final Collection<ConstDecl<BoolType>> guards, final List<Expr<BoolType>> preds,
+							  final List<ConstDecl<BoolType>> lits, final PredPrec prec) {
+			final List<Boolean[]> cubes = new ArrayList<>();
+			try (WithPushPop wp = new WithPushPop(solver)) {
+				for (final ConstDecl<BoolType> guard : guards) {
+					solver.add(guard.getRef());
+				}
+				for (final Boolean[] cube : weaker.cubes) {
+					try (WithPushPop wpCube = new WithPushPop(solver)) {
+						for (int i = 0; i < cube.length; ++i) {
+							solver.add(literal(lits.get(i), cube[i]));
+						}
+						if (solver.check().isSat()) {
+							cubes.add(cube);
+						}
+					}
+				}
+			}
+			return new Result(cubes, preds, prec);
+		}
+
+		private Result enumerate(final Collection<ConstDecl<BoolType>> guards, final List<Expr<BoolType>> preds,
+								 final List<ConstDecl<BoolType>> lits, final PredPrec prec) {
+			final List<Boolean[]> cubes = new ArrayList<>();
+			try (WithPushPop wp = new WithPushPop(solver)) {
+				for (final ConstDecl<BoolType> guard : guards) {
+					solver.add(guard.getRef());
+				}
+				while (solver.check().isSat()) {
+					allSatIterations.increment();
+					final Valuation model = solver.getModel();
+					// Values of the literals in the cube, null if not assigned by the model
+					final Boolean[] cube = new Boolean[preds.size()];
+					for (int i = 0; i < preds.size(); ++i) {
+						final Optional<LitExpr<BoolType>> eval = model.eval(lits.get(i));
+						if (eval.isPresent()) {
+							cube[i] = eval.get().equals(True());
+						}
+					}
+					if (minimizeCubes) {
+						minimize(cube, lits);
+					}
+
+					final List<Expr<BoolType>> feedback = new ArrayList<>();
+					feedback.add(True());
+					for (int i = 0; i < preds.size(); ++i) {
+						if (cube[i] != null) {
+							feedback.add(literal(lits.get(i), cube[i]));
+						}
+					}
+					cubes.add(cube);
+					solver.add(Not(And(feedback)));
+				}
+			}
+			return new Result(cubes, preds, prec);
+		}
+
+		/**
+		 * Drops literals from a cube if all cubes obtained by flipping the literal
+		 * and any subset of the already dropped literals are feasible (and not yet
+		 * blocked). The number of checks is limited to twice the number of literals.
+		 */
+		private void minimize(final Boolean[] cube, final List<ConstDecl<BoolType>> lits) {
+			final List<Integer> dropped = new ArrayList<>();
+			int budget = 2 * cube.length;
+			for (int i = 0; i < cube.length; ++i) {
+				if (cube[i] == null) {
+					continue;
+				}
+				final int combinations = 1 << dropped.size();
+				if (combinations > budget) {
+					break;
+				}
+				boolean droppable = true;
+				for (int mask = 0; mask < combinations && droppable; ++mask) {
+					budget--;
+					try (WithPushPop wp = new WithPushPop(solver)) {
+						for (int j = 0; j < cube.length; ++j) {
+							if (cube[j] != null) {
+								final boolean flipped = j == i || isFlipped(dropped, j, mask);
+								solver.add(literal(lits.get(j), cube[j] != flipped));
+							}
+						}
+						droppable = solver.check().isSat();
+					}
+				}
+				if (droppable) {
+					dropped.add(i);
+				}
+			}
+			for (final int i : dropped) {
+				cube[i] = null;
+			}
+			droppedLiterals.add(dropped.size());
+		}
+
+		private static boolean isFlipped(final List<Integer> dropped, final int index, final int mask) {
+			final int position = dropped.indexOf(index);
+			return position >= 0 && (mask & (1 << position)) != 0;
+		}
+
+		private static Expr<BoolType> literal(final ConstDecl<BoolType> lit, final boolean value) {
+			return value ? lit.getRef() : Not(lit.getRef());
+		}
+
+		private ConstDecl<BoolType> define(final Map<Expr<BoolType>, ConstDecl<BoolType>> lits, final Expr<BoolType> expr,
+										   final boolean equivalence) {
+			final ConstDecl<BoolType> cached = lits.get(expr);
+			if (cached != null) {
+				reusedDefinitions.increment();
+				return cached;
+			}
+			final ConstDecl<BoolType> lit = Decls.Const(litPrefix + litCount, BoolExprs.Bool());
+			litCount++;
+			solver.add(equivalence ? Iff(lit.getRef(), expr) : Imply(lit.getRef(), expr));
+			lits.put(expr, lit);
+			definitions.increment();
+			return lit;
+		}
+
+		private void resetContext() {
+			if (inContext) {
+				solver.pop();
+			}
+			predLits.clear();
+			conjunctLits.clear();
+			results.clear();
+			solver.push();
+			inContext = true;
+		}
+
+		private static final class Result {
+			// Values of the predicate literals in the cubes, null if a literal is not part of the cube
+			private final List<Boolean[]> cubes;
+			private final List<PredState> states;
+			// Whether every cube assigns every literal
+			private final boolean complete;
+
+			private Result(final List<Boolean[]> cubes, final List<Expr<BoolType>> preds, final PredPrec prec) {
+				this.cubes = cubes;
+				this.states = new ArrayList<>(cubes.size());
+				boolean complete = true;
+				for (final Boolean[] cube : cubes) {
+					final Set<Expr<BoolType>> newStatePreds = Containers.createSet();
+					for (int i = 0; i < preds.size(); ++i) {
+						if (cube[i] != null) {
+							newStatePreds.add(cube[i] ? preds.get(i) : prec.negate(preds.get(i)));
+						} else {
+							complete = false;
+						}
+					}
+					states.add(PredState.of(newStatePreds));
+				}
+				this.complete = complete;
+			}
+		}
+	}
+
+	private static final class ParallelCartesianAbstractor implements CloseablePredAbstractor {
+
+		private static final Counter entailmentChecks = Metrics.counter("predAbstractor.cartesian.entailmentChecks");
+		private static final Counter skippedByModel = Metrics.counter("predAbstractor.cartesian.skippedByModel");
+		private static final Counter skippedSyntactically = Metrics.counter("predAbstractor.cartesian.skippedSyntactically");
+
+		// Flags of the predicates: entailment of the ponated/negated form is decided (refuted or proved)
+		private static final int PON_REFUTED = 1;
+		private static final int NEG_REFUTED = 2;
+		private static final int PON_ENTAILED = 4;
+		private static final int NEG_ENTAILED = 8;
+
+		private final List<Solver> solvers;
+		private ExecutorService executor;
+
+		public ParallelCartesianAbstractor(final List<Solver> solvers) {
+			checkArgument(!solvers.isEmpty(), "At least one solver is required");
+			this.solvers = ImmutableList.copyOf(solvers);
+			this.executor = null;
+		}
+
+		@Override
+		public Collection<PredState> createStatesForExpr(final Expr<BoolType> expr, final VarIndexing exprIndexing,
+														 final PredPrec prec, final VarIndexing precIndexing) {
+			checkNotNull(expr);
+			checkNotNull(exprIndexing);
+			checkNotNull(prec);
+			checkNotNull(precIndexing);
+
+			final Expr<BoolType> unfoldedExpr = PathUtils.unfold(expr, exprIndexing);
+			final Collection<Expr<BoolType>> conjuncts = Containers.createSet();
+			conjuncts.addAll(ExprUtils.getConjuncts(unfoldedExpr));
+
+			final List<Expr<BoolType>> preds = new ArrayList<>(prec.getPreds());
+			final List<Expr<BoolType>> ponPreds = new ArrayList<>(preds.size());
+			final List<Expr<BoolType>> negPreds = new ArrayList<>(preds.size());
+			final AtomicIntegerArray flags = new AtomicIntegerArray(preds.size());
+			for (int i = 0; i < preds.size(); ++i) {
+				final Expr<BoolType> ponPred = PathUtils.unfold(preds.get(i), precIndexing);
+				final Expr<BoolType> negPred = PathUtils.unfold(prec.negate(preds.get(i)), precIndexing);
+				ponPreds.add(ponPred);
+				negPreds.add(negPred);
+				// Predicates appearing as conjuncts are entailed syntactically
+				if (conjuncts.contains(ponPred)) {
+					flags.set(i, PON_ENTAILED | NEG_REFUTED);
+					skippedSyntactically.add(2);
+				} else if (conjuncts.contains(negPred)) {
+					flags.set(i, NEG_ENTAILED | PON_REFUTED);
+					skippedSyntactically.add(2);
+				}
+			}
+
+			final Solver firstSolver = solvers.get(0);
+			try (WithPushPop wp = new WithPushPop(firstSolver)) {
+				firstSolver.add(unfoldedExpr);
+				if (firstSolver.check().isUnsat()) {
+					return Collections.emptySet();
+				}
+				refute(firstSolver.getModel(), ponPreds, flags, IntStream.range(0, preds.size()).boxed().collect(Collectors.toList()));
+
+				final List<Integer> undecided = IntStream.range(0, preds.size()).filter(i -> !isDecided(flags.get(i)))
+						.boxed().collect(Collectors.toList());
+				final int partitions = Math.min(solvers.size(), undecided.size());
+				if (partitions <= 1) {
+					checkEntailments(firstSolver, undecided, ponPreds, negPreds, flags);
+				} else {
+					final List<List<Integer>> partition = new ArrayList<>(partitions);
+					for (int i = 0; i < partitions; ++i) {
+						partition.add(new ArrayList<>());
+					}
+					for (int i = 0; i < undecided.size(); ++i) {
+						partition.get(i % partitions).add(undecided.get(i));
+					}
+					final List<Future<?>> futures = new ArrayList<>(partitions - 1);
+					for (int i = 1; i < partitions; ++i) {
+						final Solver solver = solvers.get(i);
+						final List<Integer> indices = partition.get(i);
+						futures.add(getExecutor().submit(() -> {
+							try (WithPushPop wp1 = new WithPushPop(solver)) {
+								solver.add(unfoldedExpr);
+								checkEntailments(solver, indices, ponPreds, negPreds, flags);
+							}
+						}));
+					}
+					checkEntailments(firstSolver, partition.get(0), ponPreds, negPreds, flags);
+					awaitAll(futures);
+				}
+			}
+
+			final List<Expr<BoolType>> newStatePreds = new ArrayList<>();
+			for (int i = 0; i < preds.size(); ++i) {
+				final int flag = flags.get(i);
+				assert (flag & PON_ENTAILED) == 0 || (flag & NEG_ENTAILED) == 0 : "Ponated and negated predicates are both entailed.";
+				if ((flag & PON_ENTAILED) != 0) {
+					newStatePreds.add(preds.get(i));
+				}
+				if ((flag & NEG_ENTAILED) != 0) {
+					newStatePreds.add(prec.negate(preds.get(i)));
+				}
+			}
+			return Collections.singleton(PredState.of(newStatePreds));
+		}
+
+		/**
+		 * Checks the entailment of the given predicates by a solver loaded with the
+		 * (satisfiable) expression. Models of satisfiable checks are used to refute
+		 * the entailment of the rest of the predicates.
+		 */
+		private static void checkEntailments(final Solver solver, final List<Integer> indices,
+											 final List<Expr<BoolType>> ponPreds, final List<Expr<BoolType>> negPreds,
+											 final AtomicIntegerArray flags) {
+			for (final int i : indices) {
+				if ((flags.get(i) & PON_REFUTED) == 0) {
+					if (isEntailed(solver, negPreds.get(i), ponPreds, flags, indices)) {
+						// The expression is satisfiable, so the negated predicate cannot be entailed
+						setFlag(flags, i, PON_ENTAILED | NEG_REFUTED);
+						continue;
+					}
+					setFlag(flags, i, PON_REFUTED);
+				}
+				if ((flags.get(i) & NEG_REFUTED) == 0) {
+					final boolean negEntailed = isEntailed(solver, ponPreds.get(i), ponPreds, flags, indices);
+					setFlag(flags, i, negEntailed ? NEG_ENTAILED : NEG_REFUTED);
+				}
+			}
+		}
+
+		/**
+		 * Checks whether the loaded expression entails the negation of the given
+		 * expression. If not, the model is used to refute further entailments.
+		 */
+		private static boolean isEntailed(final Solver solver, final Expr<BoolType> negation,
+										  final List<Expr<BoolType>> ponPreds, final AtomicIntegerArray flags,
+										  final List<Integer> indices) {
+			entailmentChecks.increment();
+			try (WithPushPop wp = new WithPushPop(solver)) {
+				solver.add(negation);
+				if (solver.check().isUnsat()) {
+					return true;
+				}
+				refute(solver.getModel(), ponPreds, flags, indices);
+				return false;
+			}
+		}
+
+		/**
+		 * Refutes the entailment of the predicates (or their negations) that are false
+		 * in a model of the expression.
+		 */
+		private static void refute(final Valuation model, final List<Expr<BoolType>> ponPreds,
+								   final AtomicIntegerArray flags, final List<Integer> indices) {
+			for (final int i : indices) {
+				final int flag = flags.get(i);
+				if (isDecided(flag)) {
+					continue;
+				}
+				final Expr<BoolType> value = ExprUtils.simplify(ponPreds.get(i), model);
+				if (value.equals(True()) && (flag & NEG_REFUTED) == 0) {
+					setFlag(flags, i, NEG_REFUTED);
+					skippedByModel.increment();
+				} else if (value.equals(False()) && (flag & PON_REFUTED) == 0) {
+					setFlag(flags, i, PON_REFUTED);
+					skippedByModel.increment();
+				}
+			}
+		}
+
+		private static boolean isDecided(final int flag) {
+			return (flag & (PON_REFUTED | PON_ENTAILED)) != 0 && (flag & (NEG_REFUTED | NEG_ENTAILED)) != 0;
+		}
+
+		private static void setFlag(final AtomicIntegerArray flags, final int i, final int flag) {
+			flags.accumulateAndGet(i, flag, (a, b) -> a | b);
+		}
+
+		private static void awaitAll(final List<Future<?>> futures) {
+			try {
+				for (final Future<?> future : futures) {
+					future.get();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new RuntimeException(e);
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+				if (e.getCause() instanceof Error) throw (Error) e.getCause();
+				throw new RuntimeException(e.getCause());
+			}
+		}
+
+		private synchronized ExecutorService getExecutor() {
+			if (executor == null) {
+				executor = Executors.newFixedThreadPool(solvers.size() - 1,
+						new ThreadFactoryBuilder().setDaemon(true).setNameFormat("cartesian-abstractor-%d").build());
+			}
+			return executor;
+		}
+
+		@Override
+		public synchronized void close() {
+			if (executor != null) {
+				executor.shutdownNow();
+				executor = null;
+			}
+			for (final Solver solver : solvers) {
+				try {
+					solver.close();
+				} catch (final Exception e) {
+					// The solver is dropped anyway
+				}
+			}
+		}
+	}
+
 	private static final class CartesianAbstractor implements PredAbstractor {
 
 		private final Solver solver;
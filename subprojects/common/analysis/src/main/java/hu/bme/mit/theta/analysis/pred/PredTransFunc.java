@@ -18,6 +18,9 @@ package hu.bme.mit.theta.analysis.pred;
 import hu.bme.mit.theta.analysis.TransFunc;
 import hu.bme.mit.theta.analysis.expr.ExprAction;
 import hu.bme.mit.theta.analysis.pred.PredAbstractors.PredAbstractor;
+import hu.bme.mit.theta.common.metrics.Histogram;
+import hu.bme.mit.theta.common.metrics.Metrics;
+import hu.bme.mit.theta.common.metrics.Timer;
 import hu.bme.mit.theta.core.utils.indexings.VarIndexingFactory;
 
 import java.util.Collection;
@@ -28,6 +31,9 @@ import static hu.bme.mit.theta.core.type.booltype.BoolExprs.And;
 
 public final class PredTransFunc<A extends ExprAction> implements TransFunc<PredState, A, PredPrec> {
 
+	private static final Timer succStatesTimer = Metrics.timer("transFunc.pred.succStates");
+	private static final Histogram succStatesCount = Metrics.histogram("transFunc.pred.succStatesCount");
+
 	private final PredAbstractor predAbstractor;
 
 	private PredTransFunc(final PredAbstractor predAbstractor) {
@@ -45,8 +51,11 @@ public final class PredTransFunc<A extends ExprAction> implements TransFunc<Pred
 		checkNotNull(action);
 		checkNotNull(prec);
 
+		final long start = succStatesTimer.start();
 		final Collection<PredState> succStates = predAbstractor.createStatesForExpr(
 				And(state.toExpr(), action.toExpr()), VarIndexingFactory.indexing(0), prec, action.nextIndexing());
+		succStatesTimer.stop(start);
+		succStatesCount.record(succStates.size());
 		return succStates.isEmpty() ? Collections.singleton(PredState.bottom()) : succStates;
 	}
 
@@ -20,6 +20,11 @@ import static hu.bme.mit.theta.common.visualization.Shape.RECTANGLE;
 
 import java.awt.Color;
 import hu.bme.mit.theta.common.container.Containers;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -31,6 +36,7 @@ import hu.bme.mit.theta.analysis.algorithm.ArgEdge;
 import hu.bme.mit.theta.analysis.algorithm.ArgNode;
 import hu.bme.mit.theta.common.visualization.EdgeAttributes;
 import hu.bme.mit.theta.common.visualization.Graph;
+import hu.bme.mit.theta.common.visualization.GraphSink;
 import hu.bme.mit.theta.common.visualization.LineStyle;
 import hu.bme.mit.theta.common.visualization.NodeAttributes;
 
@@ -77,56 +83,96 @@ public final class ArgVisualizer<S extends State, A extends Action> {
 
 	public Graph visualize(final ARG<? extends S, ? extends A> arg) {
 		final Graph graph = new Graph(ARG_ID, ARG_LABEL);
+		visualize(arg, graph);
+		return graph;
+	}
 
+	/**
+	 * Visualize an ARG into a sink in a single pass. Each node is added when it is first
+	 * reached and each edge right after both of its endpoints, so the sink can be a stream
+	 * that does not keep the graph in memory.
+	 */
+	public void visualize(final ARG<? extends S, ? extends A> arg, final GraphSink sink) {
 		final Set<ArgNode<? extends S, ? extends A>> traversed = Containers.createSet();
 
 		for (final ArgNode<? extends S, ? extends A> initNode : arg.getInitNodes().collect(Collectors.toSet())) {
-			traverse(graph, initNode, traversed);
+			traverse(sink, initNode, traversed);
 			final NodeAttributes nAttributes = NodeAttributes.builder().label("").fillColor(FILL_COLOR)
 					.lineColor(FILL_COLOR).lineStyle(SUCC_EDGE_STYLE).peripheries(1).build();
-			graph.addNode(PHANTOM_INIT_ID + initNode.getId(), nAttributes);
+			sink.addNode(PHANTOM_INIT_ID + initNode.getId(), nAttributes);
 			final EdgeAttributes eAttributes = EdgeAttributes.builder().label("").color(LINE_COLOR)
 					.lineStyle(SUCC_EDGE_STYLE).build();
-			graph.addEdge(PHANTOM_INIT_ID + initNode.getId(), NODE_ID_PREFIX + initNode.getId(), eAttributes);
+			sink.addEdge(PHANTOM_INIT_ID + initNode.getId(), NODE_ID_PREFIX + initNode.getId(), eAttributes);
 		}
-
-		return graph;
 	}
 
-	private void traverse(final Graph graph, final ArgNode<? extends S, ? extends A> node,
+	private void traverse(final GraphSink sink, final ArgNode<? extends S, ? extends A> root,
 						  final Set<ArgNode<? extends S, ? extends A>> traversed) {
-		if (traversed.contains(node)) {
+		if (!traversed.add(root)) {
 			return;
-		} else {
-			traversed.add(node);
 		}
-		final String nodeId = NODE_ID_PREFIX + node.getId();
-		final LineStyle lineStyle = SUCC_EDGE_STYLE;
-		final int peripheries = node.isTarget() ? 2 : 1;
-
-		final NodeAttributes nAttributes = NodeAttributes.builder().label(stateToString.apply(node.getState()))
-				.alignment(LEFT).shape(RECTANGLE).font(FONT).fillColor(FILL_COLOR).lineColor(LINE_COLOR)
-				.lineStyle(lineStyle).peripheries(peripheries).build();
+		addNode(sink, root);
+
+		final Deque<Iterator<ArgNode<? extends S, ? extends A>>> stack = new ArrayDeque<>();
+		stack.push(successorsAddingEdges(sink, root, traversed).iterator());
+		while (!stack.isEmpty()) {
+			final Iterator<ArgNode<? extends S, ? extends A>> successors = stack.peek();
+			if (successors.hasNext()) {
+				final ArgNode<? extends S, ? extends A> succ = successors.next();
+				stack.push(successorsAddingEdges(sink, succ, traversed).iterator());
+			} else {
+				stack.pop();
+			}
+		}
+	}
 
-		graph.addNode(nodeId, nAttributes);
+	/**
+	 * Add the targets (that were not traversed yet) and the edges going out from a node, and
+	 * return the newly added targets to be traversed.
+	 */
+	private List<ArgNode<? extends S, ? extends A>> successorsAddingEdges(final GraphSink sink,
+																		  final ArgNode<? extends S, ? extends A> node,
+																		  final Set<ArgNode<? extends S, ? extends A>> traversed) {
+		final List<ArgNode<? extends S, ? extends A>> newNodes = new ArrayList<>();
 
 		for (final ArgEdge<? extends S, ? extends A> edge : node.getOutEdges().collect(Collectors.toSet())) {
-			traverse(graph, edge.getTarget(), traversed);
+			if (traversed.add(edge.getTarget())) {
+				addNode(sink, edge.getTarget());
+				newNodes.add(edge.getTarget());
+			}
 			final String sourceId = NODE_ID_PREFIX + edge.getSource().getId();
 			final String targetId = NODE_ID_PREFIX + edge.getTarget().getId();
 			final EdgeAttributes eAttributes = EdgeAttributes.builder().label(actionToString.apply(edge.getAction()))
 					.alignment(LEFT).font(FONT).color(LINE_COLOR).lineStyle(SUCC_EDGE_STYLE).build();
-			graph.addEdge(sourceId, targetId, eAttributes);
+			sink.addEdge(sourceId, targetId, eAttributes);
 		}
 
 		if (node.getCoveringNode().isPresent()) {
-			traverse(graph, node.getCoveringNode().get(), traversed);
+			final ArgNode<? extends S, ? extends A> coveringNode = node.getCoveringNode().get();
+			if (traversed.add(coveringNode)) {
+				addNode(sink, coveringNode);
+				newNodes.add(coveringNode);
+			}
 			final String sourceId = NODE_ID_PREFIX + node.getId();
-			final String targetId = NODE_ID_PREFIX + node.getCoveringNode().get().getId();
+			final String targetId = NODE_ID_PREFIX + coveringNode.getId();
 			final EdgeAttributes eAttributes = EdgeAttributes.builder().label("").color(LINE_COLOR)
 					.lineStyle(COVER_EDGE_STYLE).weight(0).build();
-			graph.addEdge(sourceId, targetId, eAttributes);
+			sink.addEdge(sourceId, targetId, eAttributes);
 		}
+
+		return newNodes;
+	}
+
+	private void addNode(final GraphSink sink, final ArgNode<? extends S, ? extends A> node) {
+		final String nodeId = NODE_ID_PREFIX + node.getId();
+		final LineStyle lineStyle = SUCC_EDGE_STYLE;
+		final int peripheries = node.isTarget() ? 2 : 1;
+
+		final NodeAttributes nAttributes = NodeAttributes.builder().label(stateToString.apply(node.getState()))
+				.alignment(LEFT).shape(RECTANGLE).font(FONT).fillColor(FILL_COLOR).lineColor(LINE_COLOR)
+				.lineStyle(lineStyle).peripheries(peripheries).build();
+
+		sink.addNode(nodeId, nAttributes);
 	}
 
 }
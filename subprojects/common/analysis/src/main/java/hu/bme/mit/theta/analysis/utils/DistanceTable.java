@@ -0,0 +1,124 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Shortest distances (in number of edges) from the nodes of a graph to a set of target nodes,
+ * computed once by a backward breadth-first search. Nodes that can reach a target are numbered
+ * consecutively (in the order of non-decreasing distances) and their distances are stored in a
+ * primitive array, so that clients can keep the index of a node and query its distance without
+ * any further lookup.
+ */
+public final class DistanceTable<N> {
+
+	/**
+	 * Distance of the nodes that cannot reach any target.
+	 */
+	public static final int INFINITE = Integer.MAX_VALUE;
+
+	private final Map<N, Integer> indices;
+	private final List<N> nodes;
+	private final int[] distances;
+
+	private DistanceTable(final Map<N, Integer> indices, final List<N> nodes, final int[] distances) {
+		this.indices = indices;
+		this.nodes = nodes;
+		this.distances = distances;
+	}
+
+	/**
+	 * Computes the distances to the targets.
+	 *
+	 * @param targets      Target nodes (with distance 0)
+	 * @param predecessors Function returning the predecessors of a node
+	 */
+	public static <N> DistanceTable<N> create(final Collection<? extends N> targets,
+											  final Function<? super N, ? extends Iterable<? extends N>> predecessors) {
+		checkNotNull(targets);
+		checkNotNull(predecessors);
+		final Map<N, Integer> indices = new HashMap<>();
+		final List<N> queue = new ArrayList<>();
+		int[] distances = new int[Math.max(targets.size(), 16)];
+
+		for (final N target : targets) {
+			if (!indices.containsKey(target)) {
+				indices.put(target, queue.size());
+				queue.add(target);
+			}
+		}
+		// The queue contains the nodes in the order of their indices, distances are non-decreasing
+		for (int head = 0; head < queue.size(); head++) {
+			final int distance = distances[head] + 1;
+			for (final N predecessor : predecessors.apply(queue.get(head))) {
+				if (!indices.containsKey(predecessor)) {
+					final int index = queue.size();
+					indices.put(predecessor, index);
+					queue.add(predecessor);
+					if (index == distances.length) {
+						distances = Arrays.copyOf(distances, 2 * index);
+					}
+					distances[index] = distance;
+				}
+			}
+		}
+
+		return new DistanceTable<>(indices, queue, Arrays.copyOf(distances, queue.size()));
+	}
+
+	/**
+	 * Gets the index of a node, or -1 if the node cannot reach any target.
+	 */
+	public int getIndex(final N node) {
+		final Integer index = indices.get(node);
+		return index == null ? -1 : index;
+	}
+
+	/**
+	 * Gets the distance of the node with the given index, or {@link #INFINITE} for index -1.
+	 */
+	public int getDistance(final int index) {
+		return index < 0 ? INFINITE : distances[index];
+	}
+
+	public int getDistance(final N node) {
+		return getDistance(getIndex(node));
+	}
+
+	/**
+	 * Gets the node with the given index. Nodes with smaller indices are not farther from the
+	 * targets.
+	 */
+	public N getNode(final int index) {
+		return nodes.get(index);
+	}
+
+	/**
+	 * Gets the number of nodes that can reach a target.
+	 */
+	public int size() {
+		return distances.length;
+	}
+}
@@ -26,6 +26,7 @@ import hu.bme.mit.theta.analysis.Trace;
 import hu.bme.mit.theta.common.container.Containers;
 import hu.bme.mit.theta.common.visualization.EdgeAttributes;
 import hu.bme.mit.theta.common.visualization.Graph;
+import hu.bme.mit.theta.common.visualization.GraphSink;
 import hu.bme.mit.theta.common.visualization.LineStyle;
 import hu.bme.mit.theta.common.visualization.NodeAttributes;
 
@@ -57,20 +58,25 @@ public final class TraceVisualizer<S extends State, A extends Action> {
 
 	public Graph visualize(final Trace<? extends S, ? extends A> trace) {
 		final Graph graph = new Graph(TRACE_ID, TRACE_LABEL);
+		visualize(trace, graph);
+		return graph;
+	}
 
+	/**
+	 * Visualize a trace into a sink, adding all states before the actions.
+	 */
+	public void visualize(final Trace<? extends S, ? extends A> trace, final GraphSink sink) {
 		for (int i = 0; i < trace.getStates().size(); ++i) {
 			final NodeAttributes nAttributes = NodeAttributes.builder().label(stateToString.apply(trace.getState(i)))
 					.fillColor(FILL_COLOR).lineColor(LINE_COLOR).lineStyle(LINE_STYLE).build();
-			graph.addNode(STATE_ID_PREFIX + i, nAttributes);
+			sink.addNode(STATE_ID_PREFIX + i, nAttributes);
 		}
 
 		for (int i = 0; i < trace.getActions().size(); ++i) {
 			final EdgeAttributes eAttributes = EdgeAttributes.builder().label(actionToString.apply(trace.getAction(i)))
 					.color(LINE_COLOR).lineStyle(LINE_STYLE).build();
-			graph.addEdge(STATE_ID_PREFIX + i, STATE_ID_PREFIX + (i + 1), eAttributes);
+			sink.addEdge(STATE_ID_PREFIX + i, STATE_ID_PREFIX + (i + 1), eAttributes);
 		}
-
-		return graph;
 	}
 
 	public Graph visualizeMerged(final Collection<? extends Trace<? extends S, ? extends A>> traces) {
@@ -0,0 +1,166 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.waitlist;
+
+import hu.bme.mit.theta.common.Utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Priority waitlist for items with non-negative integer ranks, e.g., distances to a target.
+ * Items with the least rank are removed first, items with the same rank are removed in the same
+ * order as they were added. The rank of an item is computed only once when it is added, and
+ * items are stored in buckets indexed by their ranks, so that (unlike {@link PriorityWaitlist})
+ * no comparisons are needed.
+ */
+public final class BucketWaitlist<T> implements Waitlist<T> {
+
+	// Ranks are stored in a dense array of buckets while they are small and close to each other,
+	// outliers are stored in a sorted map. The dense part is grown to a new rank only if that at
+	// most doubles its size (or the rank is small), so a single large rank cannot make it allocate
+	// many buckets, and it never grows beyond the limit.
+	private static final int MIN_DENSE_SIZE = 64;
+	private static final int DENSE_RANK_LIMIT = 1 << 16;
+
+	private final ToIntFunction<? super T> ranking;
+	// Buckets are created when they are first used, the keys of all sparse buckets are at least
+	// the size of the dense part
+	private final List<Deque<T>> denseBuckets;
+	private final NavigableMap<Integer, Deque<T>> sparseBuckets;
+	// No dense bucket below this index contains any items
+	private int minDenseRank;
+	private int size;
+
+	private BucketWaitlist(final ToIntFunction<? super T> ranking) {
+		this.ranking = checkNotNull(ranking);
+		this.denseBuckets = new ArrayList<>();
+		this.sparseBuckets = new TreeMap<>();
+		this.minDenseRank = Integer.MAX_VALUE;
+		this.size = 0;
+	}
+
+	public static <T> BucketWaitlist<T> create(final ToIntFunction<? super T> ranking) {
+		return new BucketWaitlist<>(ranking);
+	}
+
+	@Override
+	public void add(final T item) {
+		final int rank = ranking.applyAsInt(item);
+		checkArgument(rank >= 0, "Rank must be non-negative");
+		if (rank >= denseBuckets.size() && rank < DENSE_RANK_LIMIT
+				&& rank < Math.max(MIN_DENSE_SIZE, 2 * denseBuckets.size())) {
+			growDense(rank + 1);
+		}
+		if (rank < denseBuckets.size()) {
+			Deque<T> bucket = denseBuckets.get(rank);
+			if (bucket == null) {
+				bucket = new ArrayDeque<>();
+				denseBuckets.set(rank, bucket);
+			}
+			bucket.add(item);
+			minDenseRank = Math.min(minDenseRank, rank);
+		} else {
+			sparseBuckets.computeIfAbsent(rank, r -> new ArrayDeque<>()).add(item);
+		}
+		size++;
+	}
+
+	private void growDense(final int newSize) {
+		while (denseBuckets.size() < newSize) {
+			denseBuckets.add(null);
+		}
+		// Sparse buckets that are now in the range of the dense part are moved there
+		final Map<Integer, Deque<T>> moved = sparseBuckets.headMap(newSize);
+		for (final Map.Entry<Integer, Deque<T>> entry : moved.entrySet()) {
+			denseBuckets.set(entry.getKey(), entry.getValue());
+			minDenseRank = Math.min(minDenseRank, entry.getKey());
+		}
+		moved.clear();
+	}
+
+	@Override
+	public void addAll(final Collection<? extends T> items) {
+		checkNotNull(items);
+		items.forEach(this::add);
+	}
+
+	@Override
+	public void addAll(final Stream<? extends T> items) {
+		checkNotNull(items);
+		items.forEach(this::add);
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	public T remove() {
+		if (size == 0) {
+			throw new NoSuchElementException("Waitlist is empty");
+		}
+		size--;
+		while (minDenseRank < denseBuckets.size()) {
+			final Deque<T> bucket = denseBuckets.get(minDenseRank);
+			if (bucket != null && !bucket.isEmpty()) {
+				return bucket.remove();
+			}
+			minDenseRank++;
+		}
+		final Map.Entry<Integer, Deque<T>> entry = sparseBuckets.firstEntry();
+		final T item = entry.getValue().remove();
+		if (entry.getValue().isEmpty()) {
+			sparseBuckets.remove(entry.getKey());
+		}
+		return item;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public void clear() {
+		denseBuckets.clear();
+		sparseBuckets.clear();
+		minDenseRank = Integer.MAX_VALUE;
+		size = 0;
+	}
+
+	@Override
+	public String toString() {
+		return Utils.lispStringBuilder(getClass().getSimpleName()).add(ranking)
+				.addAll(Stream.concat(denseBuckets.stream().filter(Objects::nonNull), sparseBuckets.values().stream())
+						.flatMap(Collection::stream))
+				.toString();
+	}
+}
@@ -0,0 +1,97 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.algorithm.cegar;
+
+import static hu.bme.mit.theta.core.decl.Decls.Var;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Bool;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Leq;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import hu.bme.mit.theta.analysis.expl.ExplPrec;
+import hu.bme.mit.theta.analysis.pred.PredPrec;
+import hu.bme.mit.theta.analysis.prod2.Prod2Prec;
+import hu.bme.mit.theta.common.logging.NullLogger;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+
+public class FilePrecCheckpointerTest {
+
+	private final VarDecl<IntType> x = Var("x", Int());
+	private final VarDecl<IntType> y = Var("y", Int());
+	private final VarDecl<BoolType> a = Var("a", Bool());
+	private final List<VarDecl<?>> vars = Arrays.asList(x, y, a);
+
+	private final PrecCodec<Prod2Prec<ExplPrec, PredPrec>> codec = PrecCodecs.prod2(PrecCodecs.expl(vars),
+			PrecCodecs.pred(vars));
+
+	@Test
+	public void testSaveAndLoad() throws IOException {
+		final File file = File.createTempFile("prec", ".bin");
+		file.deleteOnExit();
+		final FilePrecCheckpointer<Prod2Prec<ExplPrec, PredPrec>> checkpointer = FilePrecCheckpointer.create(
+				file.getAbsolutePath(), codec, NullLogger.getInstance());
+
+		final Prod2Prec<ExplPrec, PredPrec> prec1 = Prod2Prec.of(ExplPrec.of(ImmutableList.of(a)),
+				PredPrec.of(Leq(x.getRef(), y.getRef())));
+		checkpointer.checkpoint(prec1, 1);
+		assertEquals(Optional.of(prec1), FilePrecCheckpointer.load(file.getAbsolutePath(), codec));
+
+		final Prod2Prec<ExplPrec, PredPrec> prec2 = Prod2Prec.of(ExplPrec.of(ImmutableList.of(a, x)),
+				PredPrec.of(ImmutableList.of(Leq(x.getRef(), y.getRef()), Leq(y.getRef(), Int(3)))));
+		checkpointer.checkpoint(prec2, 2);
+		assertEquals(Optional.of(prec2), FilePrecCheckpointer.load(file.getAbsolutePath(), codec));
+	}
+
+	@Test
+	public void testMissingFile() throws IOException {
+		final File file = File.createTempFile("prec", ".bin");
+		Files.delete(file.toPath());
+		assertFalse(FilePrecCheckpointer.load(file.getAbsolutePath(), codec).isPresent());
+	}
+
+	@Test(expected = IOException.class)
+	public void testInvalidFile() throws IOException {
+		final File file = File.createTempFile("prec", ".bin");
+		file.deleteOnExit();
+		Files.write(file.toPath(), new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+		FilePrecCheckpointer.load(file.getAbsolutePath(), codec);
+	}
+
+	@Test(expected = IOException.class)
+	public void testDifferentCodec() throws IOException {
+		final File file = File.createTempFile("prec", ".bin");
+		file.deleteOnExit();
+		final FilePrecCheckpointer<Prod2Prec<ExplPrec, PredPrec>> checkpointer = FilePrecCheckpointer.create(
+				file.getAbsolutePath(), codec, NullLogger.getInstance());
+		checkpointer.checkpoint(Prod2Prec.of(ExplPrec.of(ImmutableList.of(a)), PredPrec.of()), 1);
+
+		FilePrecCheckpointer.load(file.getAbsolutePath(), PrecCodecs.prod2(PrecCodecs.pred(vars), PrecCodecs.expl(vars)));
+	}
+}
@@ -0,0 +1,108 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.algorithm.cegar;
+
+import static hu.bme.mit.theta.core.decl.Decls.Var;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Leq;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import hu.bme.mit.theta.analysis.expl.ExplPrec;
+import hu.bme.mit.theta.analysis.pred.PredPrec;
+import hu.bme.mit.theta.analysis.prod2.Prod2Prec;
+import hu.bme.mit.theta.common.logging.NullLogger;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.utils.ExprCodec;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+
+public class PrecStoreTest {
+
+	private final VarDecl<IntType> x = Var("x", Int());
+	private final VarDecl<IntType> y = Var("y", Int());
+
+	private static PrecStore createStore() throws IOException {
+		final File dir = File.createTempFile("precstore", "");
+		Files.delete(dir.toPath());
+		dir.deleteOnExit();
+		return PrecStore.create(new File(dir, "sub").getAbsolutePath());
+	}
+
+	private static PrecCodec<Prod2Prec<ExplPrec, PredPrec>> codec(final List<VarDecl<?>> vars) {
+		return PrecCodecs.prod2(PrecCodecs.expl(vars), PrecCodecs.pred(vars));
+	}
+
+	@Test
+	public void testSaveAndLoad() throws IOException {
+		final PrecStore store = createStore();
+		final PrecCodec<Prod2Prec<ExplPrec, PredPrec>> codec = codec(Arrays.asList(x, y));
+		final Prod2Prec<ExplPrec, PredPrec> prec = Prod2Prec.of(ExplPrec.of(ImmutableList.of(x)),
+				PredPrec.of(Leq(x.getRef(), y.getRef())));
+
+		store.checkpointer("model/1.xsts", codec, NullLogger.getInstance()).checkpoint(prec, 1);
+		assertEquals(Optional.of(prec), store.load("model/1.xsts", codec));
+		assertFalse(store.load("model/2.xsts", codec).isPresent());
+	}
+
+	@Test
+	public void testDropVanishedVars() throws IOException {
+		final PrecStore store = createStore();
+		final Prod2Prec<ExplPrec, PredPrec> prec = Prod2Prec.of(ExplPrec.of(ImmutableList.of(x, y)),
+				PredPrec.of(ImmutableList.of(Leq(x.getRef(), y.getRef()), Leq(x.getRef(), Int(2)))));
+		store.save("model", prec, codec(Arrays.asList(x, y)));
+
+		final Prod2Prec<ExplPrec, PredPrec> expected = Prod2Prec.of(ExplPrec.of(ImmutableList.of(x)),
+				PredPrec.of(Leq(x.getRef(), Int(2))));
+		assertEquals(Optional.of(expected), store.load("model", codec(Collections.singletonList(x))));
+	}
+
+	@Test(expected = IOException.class)
+	public void testCorruptPredicate() throws IOException {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final DataOutputStream out = new DataOutputStream(bytes);
+		ExprCodec.writeVarInt(1, out);
+		ExprCodec.writeVarInt(1, out);
+		out.writeByte(0xFF);
+		PrecCodecs.pred(Arrays.asList(x, y)).read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+	}
+
+	@Test
+	public void testDropAmbiguousVars() throws IOException {
+		final PrecStore store = createStore();
+		final PrecCodec<Prod2Prec<ExplPrec, PredPrec>> codec = codec(Arrays.asList(x, y));
+		store.save("model", Prod2Prec.of(ExplPrec.of(ImmutableList.of(x, y)), PredPrec.of(Leq(y.getRef(), Int(2)))), codec);
+
+		final Prod2Prec<ExplPrec, PredPrec> expected = Prod2Prec.of(ExplPrec.of(ImmutableList.of(y)),
+				PredPrec.of(Leq(y.getRef(), Int(2))));
+		assertEquals(Optional.of(expected), store.load("model", codec(Arrays.asList(x, y, Var("x", Int())))));
+	}
+}
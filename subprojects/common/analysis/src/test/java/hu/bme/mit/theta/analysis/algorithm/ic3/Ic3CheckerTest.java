@@ -0,0 +1,89 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.algorithm.ic3;
+
+import static hu.bme.mit.theta.core.decl.Decls.Var;
+import static hu.bme.mit.theta.core.type.anytype.Exprs.Prime;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.And;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Bool;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Iff;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Not;
+import static hu.bme.mit.theta.core.utils.indexings.VarIndexingFactory.indexing;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import hu.bme.mit.theta.analysis.algorithm.SafetyResult;
+import hu.bme.mit.theta.analysis.expl.ExplState;
+import hu.bme.mit.theta.analysis.expr.ExprAction;
+import hu.bme.mit.theta.analysis.expr.MonolithicExpr;
+import hu.bme.mit.theta.analysis.unit.UnitPrec;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.utils.indexings.VarIndexing;
+import hu.bme.mit.theta.solver.z3.Z3SolverFactory;
+
+public class Ic3CheckerTest {
+
+	private final VarDecl<BoolType> a = Var("a", Bool());
+	private final VarDecl<BoolType> b = Var("b", Bool());
+
+	/**
+	 * Counter a + 2b that counts 0, 1, 2, 0, ...
+	 */
+	private final ExprAction counter = new ExprAction() {
+		@Override
+		public Expr<BoolType> toExpr() {
+			return And(Iff(Prime(a.getRef()), And(Not(a.getRef()), Not(b.getRef()))),
+					Iff(Prime(b.getRef()), And(a.getRef(), Not(b.getRef()))));
+		}
+
+		@Override
+		public VarIndexing nextIndexing() {
+			return indexing(1);
+		}
+	};
+
+	private SafetyResult<ExplState, ExprAction> check(final Expr<BoolType> prop, final boolean inductiveGeneralization) {
+		final MonolithicExpr model = MonolithicExpr.create(And(Not(a.getRef()), Not(b.getRef())), counter, prop,
+				List.of(a, b));
+		final Ic3Checker<ExplState, ExprAction> checker = Ic3Checker.<ExplState, ExprAction>builder(model,
+						ExplState::of, (v1, v2) -> counter, Z3SolverFactory.getInstance())
+				.inductiveGeneralization(inductiveGeneralization).build();
+		return checker.check(UnitPrec.getInstance());
+	}
+
+	@Test
+	public void testSafe() {
+		for (final boolean generalization : new boolean[]{false, true}) {
+			assertTrue(check(Not(And(a.getRef(), b.getRef())), generalization).isSafe());
+		}
+	}
+
+	@Test
+	public void testUnsafe() {
+		for (final boolean generalization : new boolean[]{false, true}) {
+			final SafetyResult<ExplState, ExprAction> result = check(Not(And(Not(a.getRef()), b.getRef())), generalization);
+			assertTrue(result.isUnsafe());
+			assertEquals(2, result.asUnsafe().getTrace().length());
+		}
+	}
+
+}
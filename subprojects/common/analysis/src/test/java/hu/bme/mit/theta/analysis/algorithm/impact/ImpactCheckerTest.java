@@ -0,0 +1,233 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.algorithm.impact;
+
+import static hu.bme.mit.theta.core.decl.Decls.Var;
+import static hu.bme.mit.theta.core.stmt.Stmts.Assign;
+import static hu.bme.mit.theta.core.stmt.Stmts.Assume;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.True;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Add;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Eq;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Geq;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Gt;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Lt;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import hu.bme.mit.theta.analysis.Analysis;
+import hu.bme.mit.theta.analysis.InitFunc;
+import hu.bme.mit.theta.analysis.LTS;
+import hu.bme.mit.theta.analysis.PartialOrd;
+import hu.bme.mit.theta.analysis.TransFunc;
+import hu.bme.mit.theta.analysis.algorithm.ArgChecker;
+import hu.bme.mit.theta.analysis.algorithm.SafetyResult;
+import hu.bme.mit.theta.analysis.expr.ExprState;
+import hu.bme.mit.theta.analysis.expr.ExprStatePredicate;
+import hu.bme.mit.theta.analysis.expr.StmtAction;
+import hu.bme.mit.theta.analysis.impl.PrecMappingAnalysis;
+import hu.bme.mit.theta.analysis.pred.PredAbstractors;
+import hu.bme.mit.theta.analysis.pred.PredAnalysis;
+import hu.bme.mit.theta.analysis.pred.PredPrec;
+import hu.bme.mit.theta.analysis.pred.PredState;
+import hu.bme.mit.theta.analysis.unit.UnitPrec;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.stmt.Stmt;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+import hu.bme.mit.theta.solver.Solver;
+import hu.bme.mit.theta.solver.z3.Z3SolverFactory;
+
+public class ImpactCheckerTest {
+
+	private final VarDecl<IntType> x = Var("x", Int());
+
+	/**
+	 * x := 0; while (x < 10) x := x + 1
+	 */
+	private final StmtAction increment = new StmtAction() {
+		@Override
+		public List<Stmt> getStmts() {
+			return ImmutableList.of(Assume(Lt(x.getRef(), Int(10))), Assign(x, Add(x.getRef(), Int(1))));
+		}
+	};
+
+	private SafetyResult<PredState, StmtAction> check(final int bound, final boolean forcedCovering) {
+		final Solver solver = Z3SolverFactory.getInstance().createSolver();
+		final Expr<BoolType> init = Eq(x.getRef(), Int(0));
+		final Expr<BoolType> target = Gt(x.getRef(), Int(bound));
+
+		final LTS<PredState, StmtAction> lts = s -> Collections.singletonList(increment);
+		final PredPrec emptyPrec = PredPrec.of();
+		final Analysis<PredState, StmtAction, UnitPrec> analysis = PrecMappingAnalysis.create(
+				PredAnalysis.create(solver, PredAbstractors.cartesianAbstractor(solver), init), p -> emptyPrec);
+		final ImpactRefiner<PredState, StmtAction> refiner = PredImpactRefiner.create(
+				Z3SolverFactory.getInstance().createItpSolver(), init, target, s -> s, (s, p) -> p);
+
+		final ImpactChecker<PredState, StmtAction, UnitPrec> checker = ImpactChecker.<PredState, StmtAction, UnitPrec>builder(
+				lts, analysis, new ExprStatePredicate(target, solver), refiner).forcedCovering(forcedCovering).build();
+		return checker.check(UnitPrec.getInstance());
+	}
+
+	/**
+	 * Checks the program where the target is a location, so refinement cannot make the state
+	 * of the target node a non-target state. The precision is not empty, so the states of the
+	 * target nodes already have predicates when they are refined:
+	 * L0: x := 0; L1: while (x < 10) x := x + 1; if (x > bound) goto ERR
+	 */
+	private SafetyResult<LocState, LocAction> checkLocs(final int bound, final boolean forcedCovering) {
+		final Solver solver = Z3SolverFactory.getInstance().createSolver();
+		final List<LocAction> actions = ImmutableList.of(
+				new LocAction(0, 1, Assign(x, Int(0))),
+				new LocAction(1, 1, Assume(Lt(x.getRef(), Int(10))), Assign(x, Add(x.getRef(), Int(1)))),
+				new LocAction(1, 2, Assume(Gt(x.getRef(), Int(bound)))));
+
+		final LTS<LocState, LocAction> lts = s -> actions.stream().filter(a -> a.source == s.loc)
+				.collect(Collectors.toList());
+		final PredPrec prec = PredPrec.of(Geq(x.getRef(), Int(0)));
+		final Analysis<PredState, StmtAction, UnitPrec> predAnalysis = PrecMappingAnalysis.create(
+				PredAnalysis.create(solver, PredAbstractors.cartesianAbstractor(solver), True()),
+				p -> prec);
+		final Analysis<LocState, LocAction, UnitPrec> analysis = new Analysis<LocState, LocAction, UnitPrec>() {
+			@Override
+			public PartialOrd<LocState> getPartialOrd() {
+				return (s1, s2) -> s1.loc == s2.loc && predAnalysis.getPartialOrd().isLeq(s1.state, s2.state);
+			}
+
+			@Override
+			public InitFunc<LocState, UnitPrec> getInitFunc() {
+				return p -> predAnalysis.getInitFunc().getInitStates(p).stream().map(s -> new LocState(0, s))
+						.collect(Collectors.toList());
+			}
+
+			@Override
+			public TransFunc<LocState, LocAction, UnitPrec> getTransFunc() {
+				return (s, a, p) -> {
+					final Collection<? extends PredState> succStates = predAnalysis.getTransFunc()
+							.getSuccStates(s.state, a, p);
+					return succStates.stream().map(succ -> new LocState(a.target, succ)).collect(Collectors.toList());
+				};
+			}
+		};
+		final ImpactRefiner<LocState, LocAction> refiner = PredImpactRefiner.create(
+				Z3SolverFactory.getInstance().createItpSolver(), True(), True(), s -> s.state,
+				(s, p) -> new LocState(s.loc, p));
+
+		final ImpactChecker<LocState, LocAction, UnitPrec> checker = ImpactChecker.<LocState, LocAction, UnitPrec>builder(
+						lts, analysis, s -> s.loc == 2, refiner).partitioning(s -> s.loc).forcedCovering(forcedCovering)
+				.build();
+		return checker.check(UnitPrec.getInstance());
+	}
+
+	@Test
+	public void testSafe() {
+		for (final boolean forcedCovering : new boolean[]{false, true}) {
+			final SafetyResult<PredState, StmtAction> result = check(10, forcedCovering);
+			assertTrue(result.isSafe());
+			assertTrue(ArgChecker.create(Z3SolverFactory.getInstance().createSolver()).isWellLabeled(result.getArg()));
+		}
+	}
+
+	@Test
+	public void testUnsafe() {
+		for (final boolean forcedCovering : new boolean[]{false, true}) {
+			final SafetyResult<PredState, StmtAction> result = check(5, forcedCovering);
+			assertTrue(result.isUnsafe());
+			assertEquals(6, result.asUnsafe().getTrace().length());
+		}
+	}
+
+	@Test
+	public void testLocationTargetSafe() {
+		for (final boolean forcedCovering : new boolean[]{false, true}) {
+			final SafetyResult<LocState, LocAction> result = checkLocs(10, forcedCovering);
+			assertTrue(result.isSafe());
+		}
+	}
+
+	@Test
+	public void testLocationTargetUnsafe() {
+		for (final boolean forcedCovering : new boolean[]{false, true}) {
+			final SafetyResult<LocState, LocAction> result = checkLocs(5, forcedCovering);
+			assertTrue(result.isUnsafe());
+			assertEquals(8, result.asUnsafe().getTrace().length());
+		}
+	}
+
+	private static final class LocAction extends StmtAction {
+		private final int source;
+		private final int target;
+		private final List<Stmt> stmts;
+
+		private LocAction(final int source, final int target, final Stmt... stmts) {
+			this.source = source;
+			this.target = target;
+			this.stmts = ImmutableList.copyOf(stmts);
+		}
+
+		@Override
+		public List<Stmt> getStmts() {
+			return stmts;
+		}
+	}
+
+	private static final class LocState implements ExprState {
+		private final int loc;
+		private final PredState state;
+
+		private LocState(final int loc, final PredState state) {
+			this.loc = loc;
+			this.state = state;
+		}
+
+		@Override
+		public boolean isBottom() {
+			return state.isBottom();
+		}
+
+		@Override
+		public Expr<BoolType> toExpr() {
+			return state.toExpr();
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(loc, state);
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			return obj instanceof LocState && ((LocState) obj).loc == loc && ((LocState) obj).state.equals(state);
+		}
+
+		@Override
+		public String toString() {
+			return "L" + loc + " " + state;
+		}
+	}
+
+}
@@ -0,0 +1,98 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.algorithm.kind;
+
+import static hu.bme.mit.theta.core.decl.Decls.Var;
+import static hu.bme.mit.theta.core.stmt.Stmts.Assign;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Not;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Add;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Eq;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Geq;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Lt;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Neq;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import hu.bme.mit.theta.analysis.algorithm.SafetyResult;
+import hu.bme.mit.theta.analysis.expl.ExplState;
+import hu.bme.mit.theta.analysis.expr.ExprAction;
+import hu.bme.mit.theta.analysis.expr.MonolithicExpr;
+import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceSeqItpChecker;
+import hu.bme.mit.theta.analysis.unit.UnitPrec;
+import hu.bme.mit.theta.common.exception.NotSolvableException;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.model.ImmutableValuation;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+import hu.bme.mit.theta.solver.SolverFactory;
+import hu.bme.mit.theta.solver.z3.Z3SolverFactory;
+
+public class KIndCheckerTest {
+
+	private final VarDecl<IntType> x = Var("x", Int());
+	private final SolverFactory solverFactory = Z3SolverFactory.getInstance();
+
+	/**
+	 * x := 0; while (true) x := x + 1
+	 */
+	private MonolithicExpr counter(final Expr<BoolType> prop) {
+		return MonolithicExpr.create(Eq(x.getRef(), Int(0)), Assign(x, Add(x.getRef(), Int(1))), prop, List.of(x));
+	}
+
+	private KIndChecker.Builder<ExplState, ExprAction> builder(final MonolithicExpr model) {
+		return KIndChecker.builder(model, ExplState::of, (v1, v2) -> model.getTrans(),
+				solverFactory.createSolver(), solverFactory.createSolver());
+	}
+
+	@Test
+	public void testInductive() {
+		final SafetyResult<ExplState, ExprAction> result = builder(counter(Geq(x.getRef(), Int(0)))).build()
+				.check(UnitPrec.getInstance());
+		assertTrue(result.isSafe());
+	}
+
+	@Test
+	public void testUnsafe() {
+		final SafetyResult<ExplState, ExprAction> result = builder(counter(Lt(x.getRef(), Int(5)))).simplePath(true)
+				.build().check(UnitPrec.getInstance());
+		assertTrue(result.isUnsafe());
+		assertEquals(5, result.asUnsafe().getTrace().length());
+		assertEquals(ExplState.of(ImmutableValuation.builder().put(x, Int(5)).build()),
+				result.asUnsafe().getTrace().getState(5));
+	}
+
+	@Test(expected = NotSolvableException.class)
+	public void testNotKInductive() {
+		builder(counter(Neq(x.getRef(), Int(-1)))).upperBound(5).build().check(UnitPrec.getInstance());
+	}
+
+	@Test
+	public void testStrengthening() {
+		final MonolithicExpr model = counter(Neq(x.getRef(), Int(-1)));
+		final SafetyResult<ExplState, ExprAction> result = builder(model).upperBound(5)
+				.invariantStrengthening(ExprTraceSeqItpChecker.create(model.getInit(), Not(model.getProp()),
+						solverFactory.createItpSolver()), solverFactory.createSolver())
+				.build().check(UnitPrec.getInstance());
+		assertTrue(result.isSafe());
+	}
+
+}
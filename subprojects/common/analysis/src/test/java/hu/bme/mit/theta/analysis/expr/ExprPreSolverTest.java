@@ -0,0 +1,124 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.expr;
+
+import hu.bme.mit.theta.common.metrics.Counter;
+import hu.bme.mit.theta.common.metrics.Metrics;
+import hu.bme.mit.theta.core.decl.ConstDecl;
+import hu.bme.mit.theta.core.model.ImmutableValuation;
+import hu.bme.mit.theta.core.model.Valuation;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+import org.junit.Test;
+
+import static hu.bme.mit.theta.core.decl.Decls.Const;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.And;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Bool;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Not;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Or;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Add;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Eq;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Geq;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Gt;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Lt;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Mul;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Neq;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ExprPreSolverTest {
+
+	private final ConstDecl<IntType> cx = Const("x", Int());
+	private final ConstDecl<IntType> cy = Const("y", Int());
+	private final ConstDecl<BoolType> cb = Const("b", Bool());
+
+	@Test
+	public void testDecidedByValuation() {
+		final Expr<BoolType> expr = And(Gt(cx.getRef(), Int(0)), Or(cb.getRef(), Lt(cx.getRef(), Int(3))));
+		final Valuation val = ImmutableValuation.builder().put(cx, Int(5)).put(cb, Bool(false)).build();
+		assertTrue(ExprPreSolver.check(expr, val).isUnsat());
+
+		final Valuation val2 = ImmutableValuation.builder().put(cx, Int(2)).build();
+		final ExprPreSolver.Result result = ExprPreSolver.check(expr, val2);
+		assertTrue(result.isSat());
+		assertFalse(result.isModelUnique());
+		assertEquals(Int(2), result.getModel().eval(cx).get());
+	}
+
+	@Test
+	public void testPropagation() {
+		// x = 3 and y = x + 1 and y * y > 10
+		final Expr<BoolType> expr = And(Eq(cx.getRef(), Int(3)), Eq(cy.getRef(), Add(cx.getRef(), Int(1))),
+				Gt(Mul(cy.getRef(), cy.getRef()), Int(10)));
+		final ExprPreSolver.Result result = ExprPreSolver.check(expr);
+		assertTrue(result.isSat());
+		assertTrue(result.isModelUnique());
+		assertEquals(Int(4), result.getModel().eval(cy).get());
+
+		final Expr<BoolType> unsat = And(Eq(cx.getRef(), Int(3)), Eq(cy.getRef(), Add(cx.getRef(), Int(1))),
+				Not(cb.getRef()), Or(cb.getRef(), Lt(cy.getRef(), Int(4))));
+		assertTrue(ExprPreSolver.check(unsat).isUnsat());
+	}
+
+	@Test
+	public void testRanges() {
+		final Expr<BoolType> expr = And(Geq(cx.getRef(), Int(1)), Lt(cx.getRef(), Int(3)), Neq(cx.getRef(), Int(1)));
+		final ExprPreSolver.Result result = ExprPreSolver.check(expr);
+		assertTrue(result.isSat());
+		assertTrue(result.isModelUnique());
+		assertEquals(Int(2), result.getModel().eval(cx).get());
+
+		assertTrue(ExprPreSolver.check(And(expr, Neq(Int(2), cx.getRef()))).isUnsat());
+
+		final ExprPreSolver.Result open = ExprPreSolver.check(And(Gt(cx.getRef(), Int(7)), Neq(cx.getRef(), Int(8))));
+		assertTrue(open.isSat());
+		assertFalse(open.isModelUnique());
+		assertEquals(Int(9), open.getModel().eval(cx).get());
+	}
+
+	@Test
+	public void testInconclusive() {
+		final Expr<BoolType> expr = And(Gt(Add(cx.getRef(), cy.getRef()), Int(0)), Lt(cx.getRef(), Int(0)));
+		assertTrue(ExprPreSolver.check(expr).isUnknown());
+	}
+
+	@Test
+	public void testNonUniqueModelNotCountedAsDecided() {
+		final Counter decidedSat = Metrics.counter("preSolver.decidedSat");
+		final Counter inconclusive = Metrics.counter("preSolver.inconclusive");
+		final boolean enabled = Metrics.isEnabled();
+		Metrics.setEnabled(true);
+		try {
+			final long sat = decidedSat.getCount();
+			final long unknown = inconclusive.getCount();
+
+			final Expr<BoolType> open = Gt(cx.getRef(), Int(7));
+			assertTrue(ExprPreSolver.checkUnique(open).isSat());
+			assertEquals(sat, decidedSat.getCount());
+			assertEquals(unknown + 1, inconclusive.getCount());
+
+			assertTrue(ExprPreSolver.checkUnique(Eq(cx.getRef(), Int(7))).isSat());
+			assertTrue(ExprPreSolver.check(open).isSat());
+			assertEquals(sat + 2, decidedSat.getCount());
+			assertEquals(unknown + 1, inconclusive.getCount());
+		} finally {
+			Metrics.setEnabled(enabled);
+		}
+	}
+}
@@ -20,6 +20,7 @@ import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceBwBinItpChecker;
 import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceChecker;
 import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceFwBinItpChecker;
 import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceSeqItpChecker;
+import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceSlicingItpChecker;
 import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceStatus;
 import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceUnsatCoreChecker;
 import hu.bme.mit.theta.core.type.Expr;
@@ -61,6 +62,7 @@ public final class ExprTraceCheckersTest {
 		traceCheckers.add(ExprTraceSeqItpChecker.create(True(), True(), itpSolver));
 		traceCheckers.add(ExprTraceFwBinItpChecker.create(True(), True(), itpSolver));
 		traceCheckers.add(ExprTraceBwBinItpChecker.create(True(), True(), itpSolver));
+		traceCheckers.add(ExprTraceSlicingItpChecker.create(True(), True(), itpSolver, 0));
 		traceCheckers.add(ExprTraceUnsatCoreChecker.create(True(), True(), ucSolver));
 	}
 
@@ -0,0 +1,91 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.expr.refinement;
+
+import hu.bme.mit.theta.analysis.Trace;
+import hu.bme.mit.theta.analysis.expl.ExplState;
+import hu.bme.mit.theta.analysis.expr.StmtAction;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.stmt.Stmt;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+import hu.bme.mit.theta.solver.z3.Z3SolverFactory;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static hu.bme.mit.theta.core.decl.Decls.Var;
+import static hu.bme.mit.theta.core.stmt.Stmts.Assign;
+import static hu.bme.mit.theta.core.stmt.Stmts.Assume;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.True;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Add;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Lt;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public final class ExprTraceNewtonCheckerTest {
+
+	private final VarDecl<IntType> x = Var("x", Int());
+	private final VarDecl<IntType> y = Var("y", Int());
+	private final VarDecl<IntType> z = Var("z", Int());
+
+	// x := 0; y := 1, then z := x + 1, then assume z < y
+	private final Trace<ExplState, StmtAction> trace = Trace.of(
+			Collections.nCopies(4, ExplState.top()),
+			List.of(action(List.of(Assign(x, Int(0)), Assign(y, Int(1)))),
+					action(List.of(Assign(z, Add(x.getRef(), Int(1))))),
+					action(List.of(Assume(Lt(z.getRef(), y.getRef()))))));
+
+	@Test
+	public void testParallelLV() {
+		for (final boolean it : new boolean[]{false, true}) {
+			final ExprTraceNewtonChecker.ExprTraceNewtonCheckerAssertBuilder sequentialBuilder = builder(it);
+			final ExprTraceNewtonChecker.ExprTraceNewtonCheckerAssertBuilder parallelBuilder = builder(it);
+
+			assertSameRefutation(sequentialBuilder.withSP().withLV().check(trace), parallelBuilder.withSP().withParallelLV().check(trace));
+			assertSameRefutation(sequentialBuilder.withWP().withLV().check(trace), parallelBuilder.withWP().withParallelLV().check(trace));
+		}
+	}
+
+	private static ExprTraceNewtonChecker.ExprTraceNewtonCheckerAssertBuilder builder(final boolean it) {
+		final ExprTraceNewtonChecker.ExprTraceNewtonCheckerITBuilder builder = ExprTraceNewtonChecker.create(True(), True(),
+				Z3SolverFactory.getInstance().createUCSolver());
+		return it ? builder.withIT() : builder.withoutIT();
+	}
+
+	private static void assertSameRefutation(final ExprTraceStatus<ItpRefutation> expected,
+											 final ExprTraceStatus<ItpRefutation> actual) {
+		assertTrue(expected.isInfeasible());
+		assertTrue(actual.isInfeasible());
+		final ItpRefutation expectedRefutation = expected.asInfeasible().getRefutation();
+		final ItpRefutation actualRefutation = actual.asInfeasible().getRefutation();
+		assertEquals(expectedRefutation.getPruneIndex(), actualRefutation.getPruneIndex());
+		// Bound variables of different checkers are different declarations, so only their names can be compared
+		assertEquals(expectedRefutation.stream().map(Object::toString).collect(Collectors.toList()),
+				actualRefutation.stream().map(Object::toString).collect(Collectors.toList()));
+	}
+
+	private static StmtAction action(final List<Stmt> stmts) {
+		return new StmtAction() {
+			@Override
+			public List<Stmt> getStmts() {
+				return stmts;
+			}
+		};
+	}
+}
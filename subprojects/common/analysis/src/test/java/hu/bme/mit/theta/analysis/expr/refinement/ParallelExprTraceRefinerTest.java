@@ -0,0 +1,190 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.expr.refinement;
+
+import static hu.bme.mit.theta.core.decl.Decls.Var;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Bool;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.True;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import hu.bme.mit.theta.analysis.Trace;
+import hu.bme.mit.theta.analysis.algorithm.ARG;
+import hu.bme.mit.theta.analysis.algorithm.ArgNode;
+import hu.bme.mit.theta.analysis.algorithm.cegar.RefinerResult;
+import hu.bme.mit.theta.analysis.expr.ExprAction;
+import hu.bme.mit.theta.analysis.expr.ExprState;
+import hu.bme.mit.theta.analysis.pred.PredPrec;
+import hu.bme.mit.theta.analysis.pred.PredState;
+import hu.bme.mit.theta.common.logging.NullLogger;
+import hu.bme.mit.theta.core.model.ImmutableValuation;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.utils.indexings.VarIndexing;
+import hu.bme.mit.theta.core.utils.indexings.VarIndexingFactory;
+
+public class ParallelExprTraceRefinerTest {
+
+	private static final ExprAction ACT = new ExprAction() {
+		@Override
+		public Expr<BoolType> toExpr() {
+			return True();
+		}
+
+		@Override
+		public VarIndexing nextIndexing() {
+			return VarIndexingFactory.indexing(1);
+		}
+	};
+
+	private final Expr<BoolType> p1 = Var("p1", Bool()).getRef();
+	private final Expr<BoolType> p2 = Var("p2", Bool()).getRef();
+	private final Expr<BoolType> p3 = Var("p3", Bool()).getRef();
+	private final Expr<BoolType> p4 = Var("p4", Bool()).getRef();
+	private final Expr<BoolType> p5 = Var("p5", Bool()).getRef();
+	private final Expr<BoolType> p6 = Var("p6", Bool()).getRef();
+
+	private final ARG<PredState, ExprAction> arg = ARG.create((s1, s2) -> s1.equals(s2));
+	private final ArgNode<PredState, ExprAction> n1 = arg.createInitNode(PredState.of(p1), false);
+	private final ArgNode<PredState, ExprAction> n2 = arg.createSuccNode(n1, ACT, PredState.of(p2), false);
+	private final ArgNode<PredState, ExprAction> n3 = arg.createSuccNode(n1, ACT, PredState.of(p3), false);
+	private final ArgNode<PredState, ExprAction> n4 = arg.createSuccNode(n2, ACT, PredState.of(p4), true);
+	private final ArgNode<PredState, ExprAction> n5 = arg.createSuccNode(n2, ACT, PredState.of(p5), true);
+	private final ArgNode<PredState, ExprAction> n6 = arg.createSuccNode(n3, ACT, PredState.of(p6), true);
+
+	/**
+	 * Refines the precision with the predicates of the last state of the trace.
+	 */
+	private static final PrecRefiner<PredState, ExprAction, PredPrec, Refutation> LAST_STATE_REFINER =
+			(prec, trace, refutation) -> prec.join(PredPrec.of(trace.getState(trace.length()).getPreds()));
+
+	/**
+	 * Decides the status of a trace by its last state: traces ending in a state with a feasible
+	 * predicate are feasible, others are infeasible with the given prune index.
+	 */
+	private static ExprTraceChecker<Refutation> checker(final Map<Expr<BoolType>, Integer> pruneIndices,
+														final Expr<BoolType> feasible) {
+		return trace -> {
+			final ExprState last = trace.getState(trace.length());
+			final Expr<BoolType> pred = ((PredState) last).getPreds().iterator().next();
+			if (pred.equals(feasible)) {
+				return ExprTraceStatus.feasible(Trace.of(ImmutableList.of(ImmutableValuation.empty()), ImmutableList.of()));
+			}
+			final int pruneIndex = pruneIndices.get(pred);
+			return ExprTraceStatus.infeasible(() -> pruneIndex);
+		};
+	}
+
+	@Test
+	public void testIndependentCexsRefinedTogether() {
+		// n5 is pruned at itself, but it is below the prune point n2 of the trace to n4
+		final ExprTraceChecker<Refutation> checker = checker(ImmutableMap.of(p4, 1, p5, 2, p6, 2), null);
+		final ParallelExprTraceRefiner<PredState, ExprAction, PredPrec, Refutation> refiner = ParallelExprTraceRefiner
+				.create(Arrays.asList(checker, checker), LAST_STATE_REFINER, PruneStrategy.LAZY, NullLogger.getInstance());
+
+		final RefinerResult<PredState, ExprAction, PredPrec> result = refiner.refine(arg, PredPrec.of());
+
+		assertTrue(result.isSpurious());
+		assertEquals(PredPrec.of(ImmutableList.of(p4, p6)), result.asSpurious().getRefinedPrec());
+		assertEquals(2, arg.getNodes().count());
+		assertTrue(arg.isSafe());
+	}
+
+	@Test
+	public void testFeasibleCex() {
+		final ExprTraceChecker<Refutation> checker = checker(ImmutableMap.of(p4, 1, p5, 2, p6, 2), p6);
+		final List<ExprTraceChecker<Refutation>> checkers = Collections.nCopies(3, checker);
+		final ParallelExprTraceRefiner<PredState, ExprAction, PredPrec, Refutation> refiner = ParallelExprTraceRefiner
+				.create(checkers, LAST_STATE_REFINER, PruneStrategy.LAZY, NullLogger.getInstance());
+
+		final RefinerResult<PredState, ExprAction, PredPrec> result = refiner.refine(arg, PredPrec.of());
+
+		assertTrue(result.isUnsafe());
+		assertEquals(PredState.of(p6), result.asUnsafe().getCex().getState(2));
+		assertFalse(arg.isSafe());
+		assertEquals(6, arg.getNodes().count());
+	}
+
+	@Test
+	public void testRefineAfterClose() {
+		final ExprTraceChecker<Refutation> checker = checker(ImmutableMap.of(p4, 1, p5, 2, p6, 2), p6);
+		final ParallelExprTraceRefiner<PredState, ExprAction, PredPrec, Refutation> refiner = ParallelExprTraceRefiner
+				.create(Arrays.asList(checker, checker), LAST_STATE_REFINER, PruneStrategy.LAZY, NullLogger.getInstance());
+		refiner.close();
+
+		final RefinerResult<PredState, ExprAction, PredPrec> result = refiner.refine(arg, PredPrec.of());
+		refiner.close();
+
+		assertTrue(result.isUnsafe());
+		assertEquals(PredState.of(p6), result.asUnsafe().getCex().getState(2));
+	}
+
+	@Test
+	public void testFailureWaitsForWorkers() throws InterruptedException {
+		final CountDownLatch workerStarted = new CountDownLatch(1);
+		final AtomicInteger workerChecks = new AtomicInteger(0);
+		final AtomicBoolean workerRunning = new AtomicBoolean(false);
+		final ExprTraceChecker<Refutation> failingChecker = trace -> {
+			try {
+				workerStarted.await(10, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				throw new AssertionError(e);
+			}
+			throw new IllegalStateException("Checker failure");
+		};
+		final ExprTraceChecker<Refutation> slowChecker = trace -> {
+			workerRunning.set(true);
+			workerChecks.incrementAndGet();
+			workerStarted.countDown();
+			try {
+				Thread.sleep(100);
+			} catch (InterruptedException e) {
+				throw new AssertionError(e);
+			}
+			workerRunning.set(false);
+			return ExprTraceStatus.infeasible(() -> 0);
+		};
+		final ParallelExprTraceRefiner<PredState, ExprAction, PredPrec, Refutation> refiner = ParallelExprTraceRefiner
+				.create(Arrays.asList(failingChecker, slowChecker), LAST_STATE_REFINER, PruneStrategy.LAZY, NullLogger.getInstance());
+
+		try {
+			refiner.refine(arg, PredPrec.of());
+			fail("Exception expected");
+		} catch (IllegalStateException e) {
+			// The worker has finished its trace and did not take the remaining one
+			assertFalse(workerRunning.get());
+			assertEquals(1, workerChecks.get());
+		} finally {
+			refiner.close();
+		}
+	}
+}
@@ -0,0 +1,196 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.expr.refinement;
+
+import com.google.common.collect.Lists;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.model.ImmutableValuation;
+import hu.bme.mit.theta.core.stmt.Stmt;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.AndExpr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.type.booltype.ExistsExpr;
+import hu.bme.mit.theta.core.type.booltype.ForallExpr;
+import hu.bme.mit.theta.core.type.booltype.SmartBoolExprs;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+import hu.bme.mit.theta.core.utils.ExprSimplifier;
+import hu.bme.mit.theta.core.utils.ExprUtils;
+import hu.bme.mit.theta.core.utils.SpState;
+import hu.bme.mit.theta.core.utils.WpState;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static hu.bme.mit.theta.core.decl.Decls.Var;
+import static hu.bme.mit.theta.core.stmt.Stmts.Assign;
+import static hu.bme.mit.theta.core.stmt.Stmts.Assume;
+import static hu.bme.mit.theta.core.stmt.Stmts.Havoc;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.And;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.False;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.True;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Add;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Eq;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Geq;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Lt;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public final class TraceImageEngineTest {
+
+	private final VarDecl<IntType> x = Var("x", Int());
+	private final VarDecl<IntType> y = Var("y", Int());
+	private final VarDecl<IntType> z = Var("z", Int());
+
+	@Test
+	public void testPostImagesMatchSp() {
+		final Random random = new Random(0);
+		for (int i = 0; i < 200; i++) {
+			final List<List<Stmt>> actions = randomActions(random);
+			assertEquals(referencePostImages(actions).toString(),
+					TraceImageEngine.create(false, false).postImages(actions).toString());
+		}
+	}
+
+	@Test
+	public void testPreImagesMatchWp() {
+		final Random random = new Random(1);
+		for (int i = 0; i < 200; i++) {
+			final List<List<Stmt>> actions = randomActions(random);
+			assertEquals(referencePreImages(actions).toString(),
+					TraceImageEngine.create(false, false).preImages(actions).toString());
+		}
+	}
+
+	@Test
+	public void testUnsat() {
+		final List<List<Stmt>> actions = List.of(
+				List.of(Assign(x, Int(0))),
+				List.of(Assume(Geq(x.getRef(), Int(1)))),
+				List.of(Assign(y, x.getRef())));
+		assertEquals(List.of(False(), Geq(x.getRef(), Int(1)), True(), True()),
+				TraceImageEngine.create(false, false).preImages(actions));
+		assertEquals(List.of(True(), False()),
+				TraceImageEngine.create(false, false).postImages(List.of(List.of(Assume(Geq(Int(0), Int(1)))))));
+	}
+
+	@Test
+	public void testLiveVarProjection() {
+		final List<List<Stmt>> actions = List.of(
+				List.of(Assign(x, Int(0)), Assign(y, Int(1))),
+				List.of(Assign(z, Add(x.getRef(), Int(1)))),
+				List.of(Assume(Lt(z.getRef(), y.getRef()))));
+
+		for (final boolean parallel : new boolean[]{false, true}) {
+			final TraceImageEngine engine = TraceImageEngine.create(true, parallel);
+
+			final List<Expr<BoolType>> post = engine.postImages(actions);
+			assertEquals(4, post.size());
+			assertEquals(True(), post.get(0));
+			// x and y are both read later
+			assertEquals(And(Eq(x.getRef(), Int(0)), Eq(y.getRef(), Int(1))), post.get(1));
+			// x is dead after computing z
+			assertTrue(post.get(2) instanceof ExistsExpr);
+			assertEquals(1, ((ExistsExpr) post.get(2)).getParamDecls().size());
+			assertFalse(ExprUtils.getVars(post.get(2)).contains(x));
+			// nothing is live at the end
+			assertTrue(post.get(3) instanceof ExistsExpr);
+			assertTrue(ExprUtils.getVars(post.get(3)).isEmpty());
+
+			final List<Expr<BoolType>> pre = engine.preImages(actions);
+			assertEquals(4, pre.size());
+			assertEquals(True(), pre.get(3));
+			// no variable is accessed before the first action
+			assertTrue(pre.get(0) instanceof ForallExpr || pre.get(0).equals(False()));
+			assertTrue(ExprUtils.getVars(pre.get(0)).isEmpty());
+			assertEquals(Lt(Add(x.getRef(), Int(1)), y.getRef()), pre.get(1));
+		}
+	}
+
+	private List<List<Stmt>> randomActions(final Random random) {
+		final List<VarDecl<IntType>> vars = List.of(x, y, z);
+		final int length = 1 + random.nextInt(6);
+		final List<List<Stmt>> actions = new ArrayList<>(length);
+		for (int i = 0; i < length; i++) {
+			final int stmtCount = 1 + random.nextInt(2);
+			final List<Stmt> stmts = new ArrayList<>(stmtCount);
+			for (int j = 0; j < stmtCount; j++) {
+				final VarDecl<IntType> var = vars.get(random.nextInt(vars.size()));
+				final VarDecl<IntType> other = vars.get(random.nextInt(vars.size()));
+				final int c = random.nextInt(4);
+				switch (random.nextInt(4)) {
+					case 0:
+						stmts.add(Assign(var, Add(other.getRef(), Int(c))));
+						break;
+					case 1:
+						stmts.add(Havoc(var));
+						break;
+					case 2:
+						stmts.add(Assume(Geq(var.getRef(), Add(other.getRef(), Int(c)))));
+						break;
+					default:
+						stmts.add(Assume(And(Lt(var.getRef(), Int(c + 10)), Geq(other.getRef(), Int(-c)))));
+						break;
+				}
+			}
+			actions.add(stmts);
+		}
+		return actions;
+	}
+
+	private static List<Expr<BoolType>> referencePostImages(final List<List<Stmt>> actions) {
+		final List<Expr<BoolType>> images = new ArrayList<>();
+		images.add(True());
+		int constCount = 0;
+		for (final List<Stmt> action : actions) {
+			SpState state = SpState.of(images.get(images.size() - 1), constCount);
+			for (final Stmt stmt : action) {
+				state = state.sp(stmt);
+			}
+			images.add(ExprSimplifier.simplify(state.getExpr(), ImmutableValuation.empty()));
+			constCount = state.getConstCount();
+		}
+		return dropDuplicateConjuncts(images);
+	}
+
+	private static List<Expr<BoolType>> referencePreImages(final List<List<Stmt>> actions) {
+		final List<Expr<BoolType>> images = new ArrayList<>();
+		images.add(True());
+		int constCount = 0;
+		for (final List<Stmt> action : Lists.reverse(actions)) {
+			WpState state = WpState.of(images.get(images.size() - 1), constCount);
+			for (final Stmt stmt : Lists.reverse(action)) {
+				state = state.wep(stmt);
+			}
+			images.add(ExprSimplifier.simplify(state.getExpr(), ImmutableValuation.empty()));
+			constCount = state.getConstCount();
+		}
+		Collections.reverse(images);
+		return dropDuplicateConjuncts(images);
+	}
+
+	private static List<Expr<BoolType>> dropDuplicateConjuncts(final List<Expr<BoolType>> images) {
+		return images.stream()
+				.map(image -> image instanceof AndExpr ? SmartBoolExprs.And(new LinkedHashSet<>(((AndExpr) image).getOps())) : image)
+				.collect(Collectors.toList());
+	}
+}
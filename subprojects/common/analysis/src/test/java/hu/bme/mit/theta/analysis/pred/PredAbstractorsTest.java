@@ -0,0 +1,158 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.pred;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import hu.bme.mit.theta.analysis.pred.PredAbstractors.CloseablePredAbstractor;
+import hu.bme.mit.theta.analysis.pred.PredAbstractors.PredAbstractor;
+import hu.bme.mit.theta.common.metrics.Counter;
+import hu.bme.mit.theta.common.metrics.Metrics;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+import hu.bme.mit.theta.core.utils.indexings.VarIndexing;
+import hu.bme.mit.theta.core.utils.indexings.VarIndexingFactory;
+import hu.bme.mit.theta.solver.Solver;
+import hu.bme.mit.theta.solver.utils.SolverUtils;
+import hu.bme.mit.theta.solver.z3.Z3SolverFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collection;
+import java.util.Set;
+
+import static hu.bme.mit.theta.core.decl.Decls.Var;
+import static hu.bme.mit.theta.core.type.anytype.Exprs.Prime;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.And;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Iff;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Or;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.True;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Add;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Eq;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Gt;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Lt;
+
+public class PredAbstractorsTest {
+	private final VarDecl<IntType> x = Var("x", Int());
+	private final VarDecl<IntType> y = Var("y", Int());
+	private final VarIndexing i0 = VarIndexingFactory.indexing(0);
+	private final VarIndexing i1 = VarIndexingFactory.indexing(1);
+	private final Solver solver = Z3SolverFactory.getInstance().createSolver();
+
+	// x' = x + y, with (x>0) as the source state
+	private final Expr<BoolType> expr = And(Gt(x.getRef(), Int(0)), Eq(Prime(x.getRef()), Add(x.getRef(), y.getRef())),
+			Eq(Prime(y.getRef()), y.getRef()));
+	private final PredPrec prec = PredPrec.of(ImmutableList.of(Gt(x.getRef(), Int(0)), Gt(y.getRef(), Int(0)),
+			Lt(x.getRef(), Int(5))));
+
+	@Test
+	public void testSplit() {
+		final Set<PredState> expected = ImmutableSet.copyOf(PredAbstractors.booleanSplitAbstractor(solver)
+				.createStatesForExpr(expr, i0, prec, i1));
+		final PredAbstractor abstractor = PredAbstractors.incrementalBooleanSplitAbstractor(solver);
+		Assert.assertEquals(expected, ImmutableSet.copyOf(abstractor.createStatesForExpr(expr, i0, prec, i1)));
+		// Repeated query is answered from the cached cubes
+		Assert.assertEquals(expected, ImmutableSet.copyOf(abstractor.createStatesForExpr(expr, i0, prec, i1)));
+	}
+
+	@Test
+	public void testReuse() {
+		final Counter reusedQueries = Metrics.counter("predAbstractor.incremental.reusedQueries");
+		final boolean enabled = Metrics.isEnabled();
+		Metrics.setEnabled(true);
+		try {
+			final PredAbstractor abstractor = PredAbstractors.incrementalBooleanSplitAbstractor(solver);
+			abstractor.createStatesForExpr(expr, i0, prec, i1);
+			final long reused = reusedQueries.getCount();
+
+			// Strengthened query is answered by checking the cubes of the previous one
+			final Expr<BoolType> stronger = And(expr, Lt(y.getRef(), Int(3)));
+			final Set<PredState> expected = ImmutableSet.copyOf(PredAbstractors.booleanSplitAbstractor(solver)
+					.createStatesForExpr(stronger, i0, prec, i1));
+			Assert.assertEquals(expected, ImmutableSet.copyOf(abstractor.createStatesForExpr(stronger, i0, prec, i1)));
+			Assert.assertEquals(reused + 1, reusedQueries.getCount());
+
+			// Query with other conjuncts is enumerated
+			final Expr<BoolType> other = And(Lt(x.getRef(), Int(0)), Eq(Prime(x.getRef()), x.getRef()),
+					Eq(Prime(y.getRef()), y.getRef()));
+			final Set<PredState> expectedOther = ImmutableSet.copyOf(PredAbstractors.booleanSplitAbstractor(solver)
+					.createStatesForExpr(other, i0, prec, i1));
+			Assert.assertEquals(expectedOther, ImmutableSet.copyOf(abstractor.createStatesForExpr(other, i0, prec, i1)));
+			Assert.assertEquals(reused + 1, reusedQueries.getCount());
+		} finally {
+			Metrics.setEnabled(enabled);
+		}
+	}
+
+	@Test
+	public void testBottom() {
+		final PredAbstractor abstractor = PredAbstractors.incrementalBooleanSplitAbstractor(solver);
+		final Expr<BoolType> unsat = And(Gt(x.getRef(), Int(0)), Eq(x.getRef(), Int(0)));
+		Assert.assertTrue(abstractor.createStatesForExpr(unsat, i0, prec, i0).isEmpty());
+		// The definitions of the previous query do not constrain the next one
+		Assert.assertEquals(4, abstractor.createStatesForExpr(True(), i0,
+				PredPrec.of(ImmutableList.of(Gt(x.getRef(), Int(0)), Gt(y.getRef(), Int(0)))), i0).size());
+	}
+
+	@Test
+	public void testWhole() {
+		for (final boolean minimize : new boolean[]{false, true}) {
+			final PredAbstractor abstractor = PredAbstractors.incrementalBooleanAbstractor(solver, minimize);
+			final Collection<PredState> states = abstractor.createStatesForExpr(expr, i0, prec, i1);
+			Assert.assertEquals(1, states.size());
+			final Expr<BoolType> actual = states.iterator().next().toExpr();
+			final Expr<BoolType> expected = PredAbstractors.booleanAbstractor(solver)
+					.createStatesForExpr(expr, i0, prec, i1).iterator().next().toExpr();
+			Assert.assertTrue(SolverUtils.entails(solver, True(), Iff(actual, expected)));
+		}
+	}
+
+	@Test
+	public void testMinimize() {
+		// Every combination of the predicates is feasible, so a single empty cube remains
+		final PredAbstractor abstractor = PredAbstractors.incrementalBooleanAbstractor(solver, true);
+		final PredPrec twoPreds = PredPrec.of(ImmutableList.of(Gt(x.getRef(), Int(0)), Gt(y.getRef(), Int(0))));
+		final Collection<PredState> states = abstractor.createStatesForExpr(True(), i0, twoPreds, i0);
+		Assert.assertEquals(1, states.size());
+		Assert.assertTrue(states.iterator().next().getPreds().isEmpty());
+		// Infeasible combinations are kept
+		final Collection<PredState> restricted = abstractor.createStatesForExpr(Or(Gt(x.getRef(), Int(0)),
+				Gt(y.getRef(), Int(0))), i0, twoPreds, i0);
+		Assert.assertTrue(SolverUtils.entails(solver, True(), Iff(restricted.iterator().next().toExpr(),
+				Or(Gt(x.getRef(), Int(0)), Gt(y.getRef(), Int(0))))));
+	}
+
+	@Test
+	public void testParallelCartesian() {
+		final Expr<BoolType> expr = And(Gt(x.getRef(), Int(2)), Gt(y.getRef(), Int(0)),
+				Eq(Prime(x.getRef()), Add(x.getRef(), y.getRef())), Eq(Prime(y.getRef()), y.getRef()));
+		final PredPrec prec = PredPrec.of(ImmutableList.of(Gt(x.getRef(), Int(0)), Gt(y.getRef(), Int(0)),
+				Lt(x.getRef(), Int(5)), Gt(x.getRef(), Int(3)), Eq(y.getRef(), Int(0)), Lt(y.getRef(), Int(3))));
+		final Collection<PredState> expected = PredAbstractors.cartesianAbstractor(solver)
+				.createStatesForExpr(expr, i0, prec, i1);
+		for (final int parallelism : new int[]{1, 3}) {
+			try (CloseablePredAbstractor abstractor = PredAbstractors.parallelCartesianAbstractor(
+					Z3SolverFactory.getInstance(), parallelism)) {
+				Assert.assertEquals(expected, abstractor.createStatesForExpr(expr, i0, prec, i1));
+				Assert.assertTrue(abstractor.createStatesForExpr(And(Gt(x.getRef(), Int(0)), Eq(x.getRef(), Int(0))),
+						i0, prec, i0).isEmpty());
+			}
+		}
+	}
+}
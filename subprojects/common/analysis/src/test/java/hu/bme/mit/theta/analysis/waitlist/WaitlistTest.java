@@ -20,6 +20,7 @@ import java.util.NoSuchElementException;
 import org.junit.Test;
 
 import static junit.framework.TestCase.assertTrue;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 
@@ -164,6 +165,80 @@ public class WaitlistTest {
 		assertTrue(waitlist.isEmpty());
 	}
 
+	@Test
+	public void testBucket() {
+		// Rank is the length, items with the same rank are removed in FIFO order
+		final Waitlist<String> waitlist = BucketWaitlist.create(String::length);
+		assertEquals(0, waitlist.size());
+		assertTrue(waitlist.isEmpty());
+
+		waitlist.add("CCC");
+		waitlist.add("A");
+		waitlist.add("DD");
+		waitlist.add("B");
+		assertEquals(4, waitlist.size());
+		assertFalse(waitlist.isEmpty());
+
+		assertEquals("A", waitlist.remove());
+		assertEquals("B", waitlist.remove());
+		assertEquals(2, waitlist.size());
+
+		waitlist.add("");
+		assertEquals("", waitlist.remove());
+		assertEquals("DD", waitlist.remove());
+		assertEquals("CCC", waitlist.remove());
+		assertTrue(waitlist.isEmpty());
+
+		waitlist.add("E");
+		waitlist.clear();
+		assertEquals(0, waitlist.size());
+		assertTrue(waitlist.isEmpty());
+	}
+
+	@Test
+	public void testBucketLargeRanks() {
+		final Waitlist<Integer> waitlist = BucketWaitlist.create(i -> i);
+		waitlist.add(Integer.MAX_VALUE);
+		waitlist.add(1 << 20);
+		waitlist.add(3);
+		waitlist.add(1 << 17);
+
+		assertEquals(3, (int) waitlist.remove());
+		assertEquals(1 << 17, (int) waitlist.remove());
+		assertEquals(1 << 20, (int) waitlist.remove());
+		assertEquals(Integer.MAX_VALUE, (int) waitlist.remove());
+		assertTrue(waitlist.isEmpty());
+	}
+
+	@Test
+	public void testBucketOutliers() {
+		// Rank is the first element, the second one identifies the item
+		final Waitlist<int[]> waitlist = BucketWaitlist.create(item -> item[0]);
+		waitlist.add(new int[]{1000, 0});
+		waitlist.add(new int[]{60000, 0});
+		for (int rank = 0; rank <= 1100; ++rank) {
+			waitlist.add(new int[]{rank, 1});
+		}
+
+		for (int rank = 0; rank < 1000; ++rank) {
+			assertArrayEquals(new int[]{rank, 1}, waitlist.remove());
+		}
+		// The outlier was added first, so it is removed first among the items with the same rank
+		assertArrayEquals(new int[]{1000, 0}, waitlist.remove());
+		assertArrayEquals(new int[]{1000, 1}, waitlist.remove());
+		for (int rank = 1001; rank <= 1100; ++rank) {
+			assertArrayEquals(new int[]{rank, 1}, waitlist.remove());
+		}
+		assertArrayEquals(new int[]{60000, 0}, waitlist.remove());
+		assertTrue(waitlist.isEmpty());
+	}
+
+	@Test(expected = NoSuchElementException.class)
+	public void testBucketException() {
+		final Waitlist<String> waitlist = BucketWaitlist.create(String::length);
+		waitlist.remove();
+	}
+
 	@Test(expected = NoSuchElementException.class)
 	public void testLifoException() {
 		final Waitlist<String> waitlist = LifoWaitlist.create();
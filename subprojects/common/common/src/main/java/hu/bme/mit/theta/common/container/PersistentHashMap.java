@@ -0,0 +1,462 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.common.container;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Immutable hash map with structural sharing, implemented as a compressed hash-array mapped
+ * prefix tree (CHAMP). Lookups, {@link #with(Object, Object)} and {@link #without(Object)} take
+ * O(log n) time and allocate O(log n) new nodes, the original map is left unchanged. The trie is
+ * kept in canonical form, and the hash code (as defined by {@link Map#hashCode()}) is maintained
+ * incrementally, so it is available in constant time. Null keys and values are not supported.
+ */
+public final class PersistentHashMap<K, V> extends AbstractMap<K, V> {
+
+	private static final int BITS = 5;
+	private static final int MASK = (1 << BITS) - 1;
+	private static final int HASH_SIZE = Integer.SIZE;
+
+	private static final PersistentHashMap<?, ?> EMPTY = new PersistentHashMap<>(BitmapNode.EMPTY, 0, 0);
+
+	private final Node root;
+	private final int size;
+	private final int hashCode;
+
+	private PersistentHashMap(final Node root, final int size, final int hashCode) {
+		this.root = root;
+		this.size = size;
+		this.hashCode = hashCode;
+	}
+
+	@SuppressWarnings("unchecked")
+	public static <K, V> PersistentHashMap<K, V> empty() {
+		return (PersistentHashMap<K, V>) EMPTY;
+	}
+
+	public static <K, V> PersistentHashMap<K, V> copyOf(final Map<? extends K, ? extends V> map) {
+		if (map instanceof PersistentHashMap) {
+			@SuppressWarnings("unchecked") final PersistentHashMap<K, V> result = (PersistentHashMap<K, V>) map;
+			return result;
+		}
+		PersistentHashMap<K, V> result = empty();
+		for (final Map.Entry<? extends K, ? extends V> entry : map.entrySet()) {
+			result = result.with(entry.getKey(), entry.getValue());
+		}
+		return result;
+	}
+
+	/**
+	 * Gets a map that also maps the key to the value (replacing its previous value, if any).
+	 */
+	public PersistentHashMap<K, V> with(final K key, final V value) {
+		checkNotNull(key);
+		checkNotNull(value);
+		final int hash = key.hashCode();
+		final V oldValue = get(key);
+		if (value.equals(oldValue)) {
+			return this;
+		}
+		final Node newRoot = root.put(key, value, hash, 0);
+		if (oldValue == null) {
+			return new PersistentHashMap<>(newRoot, size + 1, hashCode + (hash ^ value.hashCode()));
+		} else {
+			return new PersistentHashMap<>(newRoot, size, hashCode - (hash ^ oldValue.hashCode()) + (hash ^ value.hashCode()));
+		}
+	}
+
+	/**
+	 * Gets a map without the mapping of the key.
+	 */
+	public PersistentHashMap<K, V> without(final Object key) {
+		final V oldValue = get(key);
+		if (oldValue == null) {
+			return this;
+		}
+		final int hash = key.hashCode();
+		final Node newRoot = root.remove(key, hash, 0);
+		return new PersistentHashMap<>(newRoot, size - 1, hashCode - (hash ^ oldValue.hashCode()));
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public V get(final Object key) {
+		if (key == null) {
+			return null;
+		}
+		return (V) root.get(key, key.hashCode(), 0);
+	}
+
+	@Override
+	public boolean containsKey(final Object key) {
+		return get(key) != null;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public void forEach(final BiConsumer<? super K, ? super V> action) {
+		root.forEach((BiConsumer<Object, Object>) action);
+	}
+
+	@Override
+	public Set<Map.Entry<K, V>> entrySet() {
+		return new AbstractSet<>() {
+			@Override
+			public Iterator<Map.Entry<K, V>> iterator() {
+				final List<Map.Entry<K, V>> entries = new ArrayList<>(size);
+				PersistentHashMap.this.forEach((key, value) -> entries.add(new SimpleImmutableEntry<>(key, value)));
+				return entries.iterator();
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+		};
+	}
+
+	@Override
+	public int hashCode() {
+		return hashCode;
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj) {
+			return true;
+		} else if (obj instanceof PersistentHashMap) {
+			final PersistentHashMap<?, ?> that = (PersistentHashMap<?, ?>) obj;
+			// The trie is canonical, so equal maps have the same shape
+			return this.size == that.size && this.hashCode == that.hashCode && this.root.equals(that.root);
+		} else {
+			return super.equals(obj);
+		}
+	}
+
+	////
+
+	private abstract static class Node {
+		abstract Object get(Object key, int hash, int shift);
+
+		abstract Node put(Object key, Object value, int hash, int shift);
+
+		// Expects the key to be present
+		abstract Node remove(Object key, int hash, int shift);
+
+		abstract void forEach(BiConsumer<Object, Object> action);
+
+		abstract boolean hasSingleEntry();
+
+		abstract Object getKey(int index);
+
+		abstract Object getValue(int index);
+
+		static Node merge(final Object key0, final Object value0, final int hash0,
+						  final Object key1, final Object value1, final int hash1, final int shift) {
+			if (shift >= HASH_SIZE) {
+				return new CollisionNode(new Object[]{key0, value0, key1, value1});
+			}
+			final int index0 = (hash0 >>> shift) & MASK;
+			final int index1 = (hash1 >>> shift) & MASK;
+			if (index0 != index1) {
+				final int dataMap = (1 << index0) | (1 << index1);
+				if (index0 < index1) {
+					return new BitmapNode(dataMap, 0, new Object[]{key0, value0, key1, value1});
+				} else {
+					return new BitmapNode(dataMap, 0, new Object[]{key1, value1, key0, value0});
+				}
+			} else {
+				final Node node = merge(key0, value0, hash0, key1, value1, hash1, shift + BITS);
+				return new BitmapNode(0, 1 << index0, new Object[]{node});
+			}
+		}
+	}
+
+	// Entries (key-value pairs) are stored at the front of the content, subnodes at the back in reverse order
+	private static final class BitmapNode extends Node {
+		static final BitmapNode EMPTY = new BitmapNode(0, 0, new Object[0]);
+
+		private final int dataMap;
+		private final int nodeMap;
+		private final Object[] content;
+
+		BitmapNode(final int dataMap, final int nodeMap, final Object[] content) {
+			this.dataMap = dataMap;
+			this.nodeMap = nodeMap;
+			this.content = content;
+		}
+
+		private int dataIndex(final int bit) {
+			return Integer.bitCount(dataMap & (bit - 1));
+		}
+
+		private int nodeIndex(final int bit) {
+			return content.length - 1 - Integer.bitCount(nodeMap & (bit - 1));
+		}
+
+		@Override
+		Object get(final Object key, final int hash, final int shift) {
+			final int bit = 1 << ((hash >>> shift) & MASK);
+			if ((dataMap & bit) != 0) {
+				final int index = dataIndex(bit);
+				return key.equals(content[2 * index]) ? content[2 * index + 1] : null;
+			} else if ((nodeMap & bit) != 0) {
+				return ((Node) content[nodeIndex(bit)]).get(key, hash, shift + BITS);
+			} else {
+				return null;
+			}
+		}
+
+		@Override
+		Node put(final Object key, final Object value, final int hash, final int shift) {
+			final int bit = 1 << ((hash >>> shift) & MASK);
+			if ((dataMap & bit) != 0) {
+				final int index = dataIndex(bit);
+				final Object currentKey = content[2 * index];
+				if (key.equals(currentKey)) {
+					final Object[] newContent = content.clone();
+					newContent[2 * index + 1] = value;
+					return new BitmapNode(dataMap, nodeMap, newContent);
+				}
+				final Object currentValue = content[2 * index + 1];
+				final Node node = merge(currentKey, currentValue, currentKey.hashCode(), key, value, hash, shift + BITS);
+				return dataToNode(bit, node);
+			} else if ((nodeMap & bit) != 0) {
+				final int index = nodeIndex(bit);
+				final Node node = (Node) content[index];
+				final Object[] newContent = content.clone();
+				newContent[index] = node.put(key, value, hash, shift + BITS);
+				return new BitmapNode(dataMap, nodeMap, newContent);
+			} else {
+				final int index = 2 * dataIndex(bit);
+				final Object[] newContent = new Object[content.length + 2];
+				System.arraycopy(content, 0, newContent, 0, index);
+				newContent[index] = key;
+				newContent[index + 1] = value;
+				System.arraycopy(content, index, newContent, index + 2, content.length - index);
+				return new BitmapNode(dataMap | bit, nodeMap, newContent);
+			}
+		}
+
+		@Override
+		Node remove(final Object key, final int hash, final int shift) {
+			final int bit = 1 << ((hash >>> shift) & MASK);
+			if ((dataMap & bit) != 0) {
+				final int index = 2 * dataIndex(bit);
+				final Object[] newContent = new Object[content.length - 2];
+				System.arraycopy(content, 0, newContent, 0, index);
+				System.arraycopy(content, index + 2, newContent, index, content.length - index - 2);
+				return new BitmapNode(dataMap ^ bit, nodeMap, newContent);
+			} else {
+				final int index = nodeIndex(bit);
+				final Node node = ((Node) content[index]).remove(key, hash, shift + BITS);
+				if (node.hasSingleEntry()) {
+					// Inline the remaining entry to keep the trie canonical
+					return nodeToData(bit, node.getKey(0), node.getValue(0));
+				}
+				final Object[] newContent = content.clone();
+				newContent[index] = node;
+				return new BitmapNode(dataMap, nodeMap, newContent);
+			}
+		}
+
+		private Node dataToNode(final int bit, final Node node) {
+			final int oldIndex = 2 * dataIndex(bit);
+			final int newIndex = content.length - 2 - Integer.bitCount(nodeMap & (bit - 1));
+			final Object[] newContent = new Object[content.length - 1];
+			System.arraycopy(content, 0, newContent, 0, oldIndex);
+			System.arraycopy(content, oldIndex + 2, newContent, oldIndex, newIndex - oldIndex);
+			newContent[newIndex] = node;
+			System.arraycopy(content, newIndex + 2, newContent, newIndex + 1, content.length - newIndex - 2);
+			return new BitmapNode(dataMap ^ bit, nodeMap | bit, newContent);
+		}
+
+		private Node nodeToData(final int bit, final Object key, final Object value) {
+			final int oldIndex = nodeIndex(bit);
+			final int newIndex = 2 * dataIndex(bit);
+			final Object[] newContent = new Object[content.length + 1];
+			System.arraycopy(content, 0, newContent, 0, newIndex);
+			newContent[newIndex] = key;
+			newContent[newIndex + 1] = value;
+			System.arraycopy(content, newIndex, newContent, newIndex + 2, oldIndex - newIndex);
+			System.arraycopy(content, oldIndex + 1, newContent, oldIndex + 2, content.length - oldIndex - 1);
+			return new BitmapNode(dataMap | bit, nodeMap ^ bit, newContent);
+		}
+
+		@Override
+		void forEach(final BiConsumer<Object, Object> action) {
+			final int dataCount = Integer.bitCount(dataMap);
+			for (int i = 0; i < dataCount; i++) {
+				action.accept(content[2 * i], content[2 * i + 1]);
+			}
+			for (int i = 2 * dataCount; i < content.length; i++) {
+				((Node) content[i]).forEach(action);
+			}
+		}
+
+		@Override
+		boolean hasSingleEntry() {
+			return nodeMap == 0 && Integer.bitCount(dataMap) == 1;
+		}
+
+		@Override
+		Object getKey(final int index) {
+			return content[2 * index];
+		}
+
+		@Override
+		Object getValue(final int index) {
+			return content[2 * index + 1];
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * (31 * dataMap + nodeMap) + Arrays.hashCode(content);
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (this == obj) {
+				return true;
+			} else if (obj instanceof BitmapNode) {
+				final BitmapNode that = (BitmapNode) obj;
+				return this.dataMap == that.dataMap && this.nodeMap == that.nodeMap
+						&& Arrays.equals(this.content, that.content);
+			} else {
+				return false;
+			}
+		}
+	}
+
+	// Entries with the same hash, stored as key-value pairs in no particular order
+	private static final class CollisionNode extends Node {
+		private final Object[] content;
+
+		CollisionNode(final Object[] content) {
+			this.content = content;
+		}
+
+		private int indexOf(final Object key) {
+			for (int i = 0; i < content.length; i += 2) {
+				if (key.equals(content[i])) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		@Override
+		Object get(final Object key, final int hash, final int shift) {
+			final int index = indexOf(key);
+			return index < 0 ? null : content[index + 1];
+		}
+
+		@Override
+		Node put(final Object key, final Object value, final int hash, final int shift) {
+			final int index = indexOf(key);
+			final Object[] newContent;
+			if (index < 0) {
+				newContent = Arrays.copyOf(content, content.length + 2);
+				newContent[content.length] = key;
+				newContent[content.length + 1] = value;
+			} else {
+				newContent = content.clone();
+				newContent[index + 1] = value;
+			}
+			return new CollisionNode(newContent);
+		}
+
+		@Override
+		Node remove(final Object key, final int hash, final int shift) {
+			final int index = indexOf(key);
+			final Object[] newContent = new Object[content.length - 2];
+			System.arraycopy(content, 0, newContent, 0, index);
+			System.arraycopy(content, index + 2, newContent, index, content.length - index - 2);
+			return new CollisionNode(newContent);
+		}
+
+		@Override
+		void forEach(final BiConsumer<Object, Object> action) {
+			for (int i = 0; i < content.length; i += 2) {
+				action.accept(content[i], content[i + 1]);
+			}
+		}
+
+		@Override
+		boolean hasSingleEntry() {
+			return content.length == 2;
+		}
+
+		@Override
+		Object getKey(final int index) {
+			return content[2 * index];
+		}
+
+		@Override
+		Object getValue(final int index) {
+			return content[2 * index + 1];
+		}
+
+		@Override
+		public int hashCode() {
+			int result = 0;
+			for (int i = 0; i < content.length; i += 2) {
+				result += content[i].hashCode() ^ content[i + 1].hashCode();
+			}
+			return result;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (this == obj) {
+				return true;
+			} else if (obj instanceof CollisionNode) {
+				final CollisionNode that = (CollisionNode) obj;
+				if (this.content.length != that.content.length) {
+					return false;
+				}
+				for (int i = 0; i < content.length; i += 2) {
+					if (!content[i + 1].equals(that.get(content[i], 0, 0))) {
+						return false;
+					}
+				}
+				return true;
+			} else {
+				return false;
+			}
+		}
+	}
+}
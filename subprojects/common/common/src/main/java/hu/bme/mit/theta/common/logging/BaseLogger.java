@@ -28,12 +28,17 @@ public abstract class BaseLogger implements Logger {
 
 	@Override
 	public Logger write(final Level level, final String pattern, final Object... objects) {
-		if (level.ordinal() <= minLevel.ordinal()) {
+		if (isEnabled(level)) {
 			writeStr(String.format(pattern, objects));
 		}
 		return this;
 	}
 
+	@Override
+	public boolean isEnabled(final Level level) {
+		return level.ordinal() <= minLevel.ordinal();
+	}
+
 	protected abstract void writeStr(String str);
 
 }
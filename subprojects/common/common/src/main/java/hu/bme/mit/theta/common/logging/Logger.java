@@ -37,4 +37,15 @@ public interface Logger {
 	 */
 	Logger write(Level level, String pattern, Object... objects);
 
+	/**
+	 * Check whether entries with a given level are written. Callers can use it to
+	 * avoid computing expensive arguments of {@link #write} that would be discarded.
+	 *
+	 * @param level Level
+	 * @return True if entries with the given level are written
+	 */
+	default boolean isEnabled(Level level) {
+		return true;
+	}
+
 }
@@ -33,4 +33,9 @@ public final class NullLogger implements Logger {
 		return this;
 	}
 
+	@Override
+	public boolean isEnabled(final Level level) {
+		return false;
+	}
+
 }
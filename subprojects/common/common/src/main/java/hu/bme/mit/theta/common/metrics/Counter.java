@@ -0,0 +1,71 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package hu.bme.mit.theta.common.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A monotonic counter. Updates are ignored while metrics are disabled.
+ */
+public final class Counter extends Metric {
+
+	private final LongAdder count = new LongAdder();
+
+	Counter(final String name) {
+		super(name);
+	}
+
+	public void increment() {
+		if (Metrics.isEnabled()) {
+			count.increment();
+		}
+	}
+
+	public void add(final long n) {
+		if (Metrics.isEnabled()) {
+			count.add(n);
+		}
+	}
+
+	public long getCount() {
+		return count.sum();
+	}
+
+	@Override
+	public void reset() {
+		count.reset();
+	}
+
+	@Override
+	String getType() {
+		return "counter";
+	}
+
+	@Override
+	void appendJsonFields(final StringBuilder sb) {
+		sb.append("{\"count\":").append(getCount()).append('}');
+	}
+
+	@Override
+	void commitSnapshotEvent() {
+		final MetricEvent event = new MetricEvent();
+		event.name = getName();
+		event.type = getType();
+		event.count = getCount();
+		event.commit();
+	}
+}
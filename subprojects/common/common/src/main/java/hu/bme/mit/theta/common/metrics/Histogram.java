@@ -0,0 +1,121 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package hu.bme.mit.theta.common.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Distribution of non-negative values (e.g., sizes) in power-of-two buckets. Bucket 0 holds the
+ * value 0, bucket i (i &gt; 0) holds the values in [2^(i-1), 2^i).
+ */
+public final class Histogram extends Metric {
+
+	private static final int BUCKETS = Long.SIZE;
+
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder sum = new LongAdder();
+	private final AtomicLong max = new AtomicLong();
+
+	Histogram(final String name) {
+		super(name);
+	}
+
+	public void record(final long value) {
+		if (Metrics.isEnabled()) {
+			checkArgument(value >= 0, "Negative value in histogram");
+			buckets.incrementAndGet(Long.SIZE - Long.numberOfLeadingZeros(value));
+			count.increment();
+			sum.add(value);
+			max.accumulateAndGet(value, Math::max);
+		}
+	}
+
+	public long getCount() {
+		return count.sum();
+	}
+
+	public long getSum() {
+		return sum.sum();
+	}
+
+	public long getMax() {
+		return max.get();
+	}
+
+	public double getMean() {
+		final long n = getCount();
+		return n == 0 ? 0 : (double) getSum() / n;
+	}
+
+	/**
+	 * Number of values in the given bucket.
+	 */
+	public long getBucketCount(final int bucket) {
+		checkArgument(0 <= bucket && bucket < BUCKETS, "Invalid bucket");
+		return buckets.get(bucket);
+	}
+
+	@Override
+	public void reset() {
+		for (int i = 0; i < BUCKETS; i++) {
+			buckets.set(i, 0);
+		}
+		count.reset();
+		sum.reset();
+		max.set(0);
+	}
+
+	@Override
+	String getType() {
+		return "histogram";
+	}
+
+	@Override
+	void appendJsonFields(final StringBuilder sb) {
+		sb.append("{\"count\":").append(getCount())
+				.append(",\"sum\":").append(getSum())
+				.append(",\"max\":").append(getMax())
+				.append(",\"buckets\":{");
+		boolean first = true;
+		for (int i = 0; i < BUCKETS; i++) {
+			final long bucketCount = buckets.get(i);
+			if (bucketCount > 0) {
+				if (!first) sb.append(',');
+				first = false;
+				// upper bound (exclusive) of the bucket
+				sb.append('"').append(i == 0 ? "1" : Long.toUnsignedString(1L << i)).append("\":").append(bucketCount);
+			}
+		}
+		sb.append("}}");
+	}
+
+	@Override
+	void commitSnapshotEvent() {
+		final MetricEvent event = new MetricEvent();
+		event.name = getName();
+		event.type = getType();
+		event.count = getCount();
+		event.sum = getSum();
+		event.max = getMax();
+		event.commit();
+	}
+}
@@ -0,0 +1,54 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package hu.bme.mit.theta.common.metrics;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Base class of named metrics registered in {@link Metrics}.
+ */
+public abstract class Metric {
+
+	private final String name;
+
+	Metric(final String name) {
+		this.name = checkNotNull(name);
+	}
+
+	public final String getName() {
+		return name;
+	}
+
+	/**
+	 * Clears the collected values.
+	 */
+	public abstract void reset();
+
+	abstract String getType();
+
+	abstract void appendJsonFields(StringBuilder sb);
+
+	abstract void commitSnapshotEvent();
+
+	@Override
+	public String toString() {
+		final StringBuilder sb = new StringBuilder();
+		sb.append(name).append(' ');
+		appendJsonFields(sb);
+		return sb.toString();
+	}
+}
@@ -0,0 +1,155 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package hu.bme.mit.theta.common.metrics;
+
+import jdk.jfr.Recording;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Global registry of metrics. Metrics are identified by their (dot-separated) names, and are
+ * usually obtained once and stored in static fields by the instrumented classes, e.g.,
+ * <pre>
+ *     private static final Counter expandedNodes = Metrics.counter("abstractor.expandedNodes");
+ * </pre>
+ * Metrics are disabled by default: updates are then dropped after a single flag check, and
+ * instrumented code should guard any expensive computation of recorded values with
+ * {@link #isEnabled()}.
+ */
+public final class Metrics {
+
+	private static final Map<String, Metric> metrics = new ConcurrentHashMap<>();
+
+	private static volatile boolean enabled = false;
+	private static volatile boolean jfrEnabled = false;
+
+	private Metrics() {
+	}
+
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	public static void setEnabled(final boolean enabled) {
+		Metrics.enabled = enabled;
+	}
+
+	public static boolean isJfrEnabled() {
+		return jfrEnabled;
+	}
+
+	/**
+	 * Enables committing a JFR event for each section recorded by a {@link Timer}.
+	 */
+	public static void setJfrEnabled(final boolean jfrEnabled) {
+		Metrics.jfrEnabled = jfrEnabled;
+	}
+
+	public static Counter counter(final String name) {
+		return get(name, Counter.class, Counter::new);
+	}
+
+	public static Timer timer(final String name) {
+		return get(name, Timer.class, Timer::new);
+	}
+
+	public static Histogram histogram(final String name) {
+		return get(name, Histogram.class, Histogram::new);
+	}
+
+	private static <M extends Metric> M get(final String name, final Class<M> type, final Function<String, M> constructor) {
+		final Metric metric = metrics.computeIfAbsent(name, constructor);
+		checkArgument(type.isInstance(metric), "Metric %s is already registered as a %s", name, metric.getType());
+		return type.cast(metric);
+	}
+
+	/**
+	 * Gets all registered metrics ordered by their names.
+	 */
+	public static List<Metric> getMetrics() {
+		final List<Metric> result = new ArrayList<>(metrics.values());
+		result.sort(Comparator.comparing(Metric::getName));
+		return result;
+	}
+
+	/**
+	 * Clears the values of all registered metrics.
+	 */
+	public static void reset() {
+		metrics.values().forEach(Metric::reset);
+	}
+
+	/**
+	 * Exports the current values as a JSON object mapping metric names to their values.
+	 */
+	public static String toJson() {
+		final StringBuilder sb = new StringBuilder();
+		sb.append('{');
+		boolean first = true;
+		for (final Metric metric : getMetrics()) {
+			if (!first) sb.append(',');
+			first = false;
+			sb.append(System.lineSeparator()).append("  \"").append(escape(metric.getName())).append("\":{\"type\":\"")
+					.append(metric.getType()).append("\",\"value\":");
+			metric.appendJsonFields(sb);
+			sb.append('}');
+		}
+		sb.append(System.lineSeparator()).append('}').append(System.lineSeparator());
+		return sb.toString();
+	}
+
+	public static void writeJson(final Writer writer) throws IOException {
+		writer.write(toJson());
+		writer.flush();
+	}
+
+	/**
+	 * Commits a JFR event with the current value of each registered metric.
+	 */
+	public static void commitSnapshotEvents() {
+		getMetrics().forEach(Metric::commitSnapshotEvent);
+	}
+
+	/**
+	 * Starts a JFR recording containing the Theta events (and enables both metrics and JFR export).
+	 * The caller is responsible for stopping the recording and dumping it, e.g., with
+	 * {@link Recording#dump(java.nio.file.Path)}.
+	 */
+	public static Recording startJfrRecording() {
+		setEnabled(true);
+		setJfrEnabled(true);
+		final Recording recording = new Recording();
+		recording.setName("theta");
+		recording.enable(TimerEvent.class);
+		recording.enable(MetricEvent.class);
+		recording.start();
+		return recording;
+	}
+
+	private static String escape(final String str) {
+		return str.replace("\\", "\\\\").replace("\"", "\\\"");
+	}
+}
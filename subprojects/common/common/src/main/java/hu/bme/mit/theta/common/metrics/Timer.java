@@ -0,0 +1,116 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package hu.bme.mit.theta.common.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures the number and total duration of timed sections. To avoid allocation, a section is
+ * delimited by a pair of {@link #start()} and {@link #stop(long)} calls:
+ * <pre>
+ *     final long start = timer.start();
+ *     ...
+ *     timer.stop(start);
+ * </pre>
+ * If metrics are disabled when the section starts, the section is not recorded. Each recorded
+ * section is also committed as a JFR event if JFR export is enabled.
+ */
+public final class Timer extends Metric {
+
+	private static final long NOT_STARTED = Long.MIN_VALUE;
+
+	private final LongAdder count = new LongAdder();
+	private final LongAdder totalNanos = new LongAdder();
+	private final AtomicLong maxNanos = new AtomicLong();
+
+	Timer(final String name) {
+		super(name);
+	}
+
+	public long start() {
+		return Metrics.isEnabled() ? System.nanoTime() : NOT_STARTED;
+	}
+
+	public void stop(final long start) {
+		if (start != NOT_STARTED) {
+			record(System.nanoTime() - start);
+		}
+	}
+
+	public void record(final long nanos) {
+		if (Metrics.isEnabled()) {
+			count.increment();
+			totalNanos.add(nanos);
+			maxNanos.accumulateAndGet(nanos, Math::max);
+			if (Metrics.isJfrEnabled()) {
+				final TimerEvent event = new TimerEvent();
+				event.name = getName();
+				event.duration = nanos;
+				event.commit();
+			}
+		}
+	}
+
+	public long getCount() {
+		return count.sum();
+	}
+
+	public long getTotalTimeMs() {
+		return TimeUnit.NANOSECONDS.toMillis(totalNanos.sum());
+	}
+
+	public long getTotalTimeNanos() {
+		return totalNanos.sum();
+	}
+
+	public long getMaxTimeNanos() {
+		return maxNanos.get();
+	}
+
+	@Override
+	public void reset() {
+		count.reset();
+		totalNanos.reset();
+		maxNanos.set(0);
+	}
+
+	@Override
+	String getType() {
+		return "timer";
+	}
+
+	@Override
+	void appendJsonFields(final StringBuilder sb) {
+		sb.append("{\"count\":").append(getCount())
+				.append(",\"totalNanos\":").append(getTotalTimeNanos())
+				.append(",\"maxNanos\":").append(getMaxTimeNanos())
+				.append('}');
+	}
+
+	@Override
+	void commitSnapshotEvent() {
+		final MetricEvent event = new MetricEvent();
+		event.name = getName();
+		event.type = getType();
+		event.count = getCount();
+		event.sum = getTotalTimeNanos();
+		event.max = getMaxTimeNanos();
+		event.commit();
+	}
+}
@@ -0,0 +1,42 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package hu.bme.mit.theta.common.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event committed for every section recorded by a {@link Timer}.
+ */
+@Name("hu.bme.mit.theta.Timer")
+@Label("Theta Timer")
+@Category("Theta")
+@Description("A section measured by a Theta timer")
+@StackTrace(false)
+final class TimerEvent extends jdk.jfr.Event {
+
+	@Label("Name")
+	String name;
+
+	@Label("Duration")
+	@Timespan(Timespan.NANOSECONDS)
+	long duration;
+}
@@ -0,0 +1,12 @@
+/**
+ * This package contains low-overhead metrics (counters, timers and histograms) for instrumenting
+ * algorithms. Metrics are disabled by default, in which case updating them costs a single flag
+ * check. Collected values can be exported as JSON or as Java Flight Recorder events.
+ *
+ * @see hu.bme.mit.theta.common.metrics.Metrics
+ * @see hu.bme.mit.theta.common.metrics.Counter
+ * @see hu.bme.mit.theta.common.metrics.Timer
+ * @see hu.bme.mit.theta.common.metrics.Histogram
+ */
+
+package hu.bme.mit.theta.common.metrics;
@@ -29,7 +29,7 @@ import java.util.stream.Stream;
  * Represents a graph for visualization purposes. It has nodes, composite nodes
  * and directed edges.
  */
-public final class Graph {
+public final class Graph implements GraphSink {
 	private final String id;
 	private final String label;
 	private final Map<String, Node> nodes;
@@ -54,6 +54,7 @@ public final class Graph {
 	 * @param id
 	 * @param attributes
 	 */
+	@Override
 	public void addNode(final String id, final NodeAttributes attributes) {
 		checkArgument(!nodes.containsKey(id), "A node with the same id is already present!");
 		nodes.put(id, new Node(id, attributes));
@@ -92,6 +93,7 @@ public final class Graph {
 	 * @param targetId
 	 * @param attributes
 	 */
+	@Override
 	public void addEdge(final String sourceId, final String targetId, final EdgeAttributes attributes) {
 		checkArgument(nodes.containsKey(sourceId), "Source node does not exist!");
 		checkArgument(nodes.containsKey(targetId), "Target node does not exist!");
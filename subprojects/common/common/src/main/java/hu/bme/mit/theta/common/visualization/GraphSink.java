@@ -0,0 +1,28 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.common.visualization;
+
+/**
+ * Receiver of the simple nodes and edges of a graph for visualization purposes, e.g., a
+ * {@link Graph} or a writer that streams them directly to a file. Edges are only added
+ * between nodes that were already added.
+ */
+public interface GraphSink {
+
+	void addNode(String id, NodeAttributes attributes);
+
+	void addEdge(String sourceId, String targetId, EdgeAttributes attributes);
+}
@@ -15,35 +15,74 @@
  */
 package hu.bme.mit.theta.common.visualization.writer;
 
-import java.io.File;
+import java.io.BufferedWriter;
 import java.io.FileNotFoundException;
-import java.io.PrintWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
 
 import hu.bme.mit.theta.common.visualization.Graph;
 
 /**
- * Base class for writing graphs.
+ * Base class for writing graphs. Subclasses have to override at least one of
+ * {@link #writeString(Graph)} and {@link #write(Graph, Writer)}.
  */
 public abstract class AbstractGraphWriter implements GraphWriter {
 
+	private static final int BUFFER_SIZE = 1 << 16;
+
 	@Override
-	public abstract String writeString(Graph graph);
+	public String writeString(final Graph graph) {
+		final StringWriter writer = new StringWriter();
+		try {
+			write(graph, writer);
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return writer.toString();
+	}
+
+	/**
+	 * Write a graph to a writer. Writers that can produce their output incrementally should
+	 * override this method (and derive {@link #writeString(Graph)} from it) to avoid building
+	 * the whole output in memory.
+	 */
+	public void write(final Graph graph, final Writer writer) throws IOException {
+		writer.write(writeString(graph));
+	}
 
 	@Override
 	public final void writeFile(final Graph graph, final String fileName) throws FileNotFoundException {
-		final File file = new File(fileName);
-		PrintWriter printWriter = null;
-		try {
-			printWriter = new PrintWriter(file);
-			final String graphAsString = writeString(graph);
-			printWriter.write(graphAsString);
+		try (Writer writer = openFile(fileName)) {
+			write(graph, writer);
 		} catch (final FileNotFoundException e) {
 			throw e;
-		} finally {
-			if (printWriter != null) {
-				printWriter.close();
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Open a buffered UTF-8 writer to a file, compressed with gzip if the name of the file ends
+	 * with ".gz".
+	 */
+	public static Writer openFile(final String fileName) throws IOException {
+		OutputStream out = new FileOutputStream(fileName);
+		if (fileName.endsWith(".gz")) {
+			try {
+				out = new GZIPOutputStream(out, BUFFER_SIZE);
+			} catch (final IOException e) {
+				out.close();
+				throw e;
 			}
 		}
+		return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
 	}
 
 }
@@ -0,0 +1,106 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.common.visualization.writer;
+
+import hu.bme.mit.theta.common.visualization.EdgeAttributes;
+import hu.bme.mit.theta.common.visualization.GraphSink;
+import hu.bme.mit.theta.common.visualization.NodeAttributes;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Base class for writing a graph incrementally: each node and edge is written to the underlying
+ * writer as soon as it is added, so the graph is never materialized in memory. The stream owns
+ * the writer, closing the stream writes the end of the graph and closes the writer. I/O errors
+ * during adding nodes and edges are rethrown as {@link UncheckedIOException}s.
+ */
+public abstract class GraphStream implements GraphSink, Closeable {
+
+	private final Writer writer;
+	private final StringBuilder sb;
+	private boolean begun;
+	private boolean closed;
+
+	protected GraphStream(final Writer writer) {
+		this.writer = checkNotNull(writer);
+		this.sb = new StringBuilder();
+		this.begun = false;
+		this.closed = false;
+	}
+
+	@Override
+	public final void addNode(final String id, final NodeAttributes attributes) {
+		checkState(!closed, "Stream is closed");
+		begin();
+		printNode(id, attributes, sb);
+		flushBuffer();
+	}
+
+	@Override
+	public final void addEdge(final String sourceId, final String targetId, final EdgeAttributes attributes) {
+		checkState(!closed, "Stream is closed");
+		begin();
+		printEdge(sourceId, targetId, attributes, sb);
+		flushBuffer();
+	}
+
+	@Override
+	public final void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		try {
+			begin();
+			printFooter(sb);
+			writer.append(sb);
+			sb.setLength(0);
+		} finally {
+			writer.close();
+		}
+	}
+
+	protected abstract void printHeader(StringBuilder sb);
+
+	protected abstract void printNode(String id, NodeAttributes attributes, StringBuilder sb);
+
+	protected abstract void printEdge(String sourceId, String targetId, EdgeAttributes attributes, StringBuilder sb);
+
+	protected abstract void printFooter(StringBuilder sb);
+
+	private void begin() {
+		if (!begun) {
+			begun = true;
+			printHeader(sb);
+		}
+	}
+
+	private void flushBuffer() {
+		try {
+			writer.append(sb);
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		} finally {
+			sb.setLength(0);
+		}
+	}
+}
@@ -19,6 +19,7 @@ import java.awt.Color;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.Writer;
 
 import hu.bme.mit.theta.common.visualization.Alignment;
 import hu.bme.mit.theta.common.visualization.CompositeNode;
@@ -65,18 +66,32 @@ public final class GraphvizWriter extends AbstractGraphWriter {
 	}
 
 	@Override
-	public String writeString(final Graph graph) {
+	public void write(final Graph graph, final Writer writer) throws IOException {
 		final StringBuilder sb = new StringBuilder();
-		sb.append("digraph ").append(graph.getId()).append(" {").append(System.lineSeparator());
-		sb.append("\tlabel=\"").append(graph.getLabel()).append("\";").append(System.lineSeparator());
+		printHeader(graph.getId(), graph.getLabel(), sb);
+		writer.append(sb);
 
-		graph.getRootNodes().forEach(n -> printNode(n, sb));
+		for (final Node node : graph.getNodes()) {
+			if (node.isRoot()) {
+				sb.setLength(0);
+				printNode(node, sb);
+				writer.append(sb);
+			}
+		}
 
 		for (final Node node : graph.getNodes()) {
+			sb.setLength(0);
 			printEdges(node, sb);
+			writer.append(sb);
 		}
-		sb.append('}');
-		return sb.toString();
+		writer.append('}');
+	}
+
+	/**
+	 * Open a stream that writes simple nodes and edges to the writer as soon as they are added.
+	 */
+	public GraphStream openStream(final Writer writer, final String id, final String label) {
+		return new GraphvizStream(writer, id, label);
 	}
 
 	public void writeFile(final Graph graph, final String fileName, final Format format)
@@ -140,16 +155,23 @@ public final class GraphvizWriter extends AbstractGraphWriter {
 
 	}
 
+	private void printHeader(final String id, final String label, final StringBuilder sb) {
+		sb.append("digraph ").append(id).append(" {").append(System.lineSeparator());
+		sb.append("\tlabel=\"").append(label).append("\";").append(System.lineSeparator());
+	}
+
 	private void printSimpleNode(final Node node, final StringBuilder sb) {
-		final NodeAttributes attributes = node.getAttributes();
+		printSimpleNode(node.getId(), node.getAttributes(), sb);
+	}
 
+	private void printSimpleNode(final String id, final NodeAttributes attributes, final StringBuilder sb) {
 		String style = mapLineStyleToString(attributes.getLineStyle());
 		if (!"".equals(style)) {
 			style += ",";
 		}
 		style += "filled";
 
-		sb.append("\t\t").append(node.getId());
+		sb.append("\t\t").append(id);
 		sb.append(" [label=\"").append(convertLabel(attributes.getLabel(), attributes.getAlignment())).append('\"');
 		if (attributes.getPeripheries() > 1) {
 			sb.append(",peripheries=").append(attributes.getPeripheries());
@@ -192,25 +214,29 @@ public final class GraphvizWriter extends AbstractGraphWriter {
 			}
 		} else {
 			for (final Edge edge : node.getOutEdges()) {
-				final EdgeAttributes attributes = edge.getAttributes();
-				sb.append('\t').append(edge.getSource().getId()).append(" -> ").append(edge.getTarget().getId());
-				sb.append(" [label=\"").append(convertLabel(attributes.getLabel(), attributes.getAlignment())).append('\"');
-				sb.append(",color=").append(mapColorToString(attributes.getColor()));
-				final String style = mapLineStyleToString(attributes.getLineStyle());
-				if (!"".equals(style)) {
-					sb.append(",style=").append(style);
-				}
-				if (!attributes.getFont().equals("")) {
-					sb.append(",fontname=\"").append(attributes.getFont()).append('\"');
-				}
-				if (attributes.getWeight() != 1) {
-					sb.append(",weight=\"").append(attributes.getWeight()).append('\"');
-				}
-				sb.append("];").append(System.lineSeparator());
+				printEdge(edge.getSource().getId(), edge.getTarget().getId(), edge.getAttributes(), sb);
 			}
 		}
 	}
 
+	private void printEdge(final String sourceId, final String targetId, final EdgeAttributes attributes,
+						   final StringBuilder sb) {
+		sb.append('\t').append(sourceId).append(" -> ").append(targetId);
+		sb.append(" [label=\"").append(convertLabel(attributes.getLabel(), attributes.getAlignment())).append('\"');
+		sb.append(",color=").append(mapColorToString(attributes.getColor()));
+		final String style = mapLineStyleToString(attributes.getLineStyle());
+		if (!"".equals(style)) {
+			sb.append(",style=").append(style);
+		}
+		if (!attributes.getFont().equals("")) {
+			sb.append(",fontname=\"").append(attributes.getFont()).append('\"');
+		}
+		if (attributes.getWeight() != 1) {
+			sb.append(",weight=\"").append(attributes.getWeight()).append('\"');
+		}
+		sb.append("];").append(System.lineSeparator());
+	}
+
 	private String convertLabel(final String label, final Alignment alignment) {
 		String converted = label;
 		if (!converted.endsWith("\n")) {
@@ -261,4 +287,36 @@ public final class GraphvizWriter extends AbstractGraphWriter {
 				throw new UnsupportedOperationException("Unknown shape: " + shape + ".");
 		}
 	}
+
+	private final class GraphvizStream extends GraphStream {
+		private final String graphId;
+		private final String graphLabel;
+
+		private GraphvizStream(final Writer writer, final String graphId, final String graphLabel) {
+			super(writer);
+			this.graphId = graphId;
+			this.graphLabel = graphLabel;
+		}
+
+		@Override
+		protected void printHeader(final StringBuilder sb) {
+			GraphvizWriter.this.printHeader(graphId, graphLabel, sb);
+		}
+
+		@Override
+		protected void printNode(final String id, final NodeAttributes attributes, final StringBuilder sb) {
+			printSimpleNode(id, attributes, sb);
+		}
+
+		@Override
+		protected void printEdge(final String sourceId, final String targetId, final EdgeAttributes attributes,
+								 final StringBuilder sb) {
+			GraphvizWriter.this.printEdge(sourceId, targetId, attributes, sb);
+		}
+
+		@Override
+		protected void printFooter(final StringBuilder sb) {
+			sb.append('}');
+		}
+	}
 }
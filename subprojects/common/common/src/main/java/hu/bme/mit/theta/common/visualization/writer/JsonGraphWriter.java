@@ -0,0 +1,211 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.common.visualization.writer;
+
+import java.awt.Color;
+import java.io.IOException;
+import java.io.Writer;
+
+import hu.bme.mit.theta.common.visualization.CompositeNode;
+import hu.bme.mit.theta.common.visualization.Edge;
+import hu.bme.mit.theta.common.visualization.EdgeAttributes;
+import hu.bme.mit.theta.common.visualization.Graph;
+import hu.bme.mit.theta.common.visualization.Node;
+import hu.bme.mit.theta.common.visualization.NodeAttributes;
+
+/**
+ * Class for writing graphs in JSON format. The graph is an object with its id, label and a
+ * flat array of elements (nodes and edges distinguished by their type, children of composite
+ * nodes referring to their parents), so that it can also be written incrementally.
+ */
+public final class JsonGraphWriter extends AbstractGraphWriter {
+
+	private JsonGraphWriter() {
+	}
+
+	private static class LazyHolder {
+		static final JsonGraphWriter INSTANCE = new JsonGraphWriter();
+	}
+
+	public static JsonGraphWriter getInstance() {
+		return LazyHolder.INSTANCE;
+	}
+
+	@Override
+	public void write(final Graph graph, final Writer writer) throws IOException {
+		final ElementPrinter printer = new ElementPrinter();
+		final StringBuilder sb = new StringBuilder();
+		printHeader(graph.getId(), graph.getLabel(), sb);
+		writer.append(sb);
+
+		for (final Node node : graph.getNodes()) {
+			sb.setLength(0);
+			printer.printNode(node.getId(), node.getAttributes(), node instanceof CompositeNode, node.getParent(), sb);
+			writer.append(sb);
+		}
+		for (final Edge edge : graph.getEdges()) {
+			sb.setLength(0);
+			printer.printEdge(edge.getSource().getId(), edge.getTarget().getId(), edge.getAttributes(), sb);
+			writer.append(sb);
+		}
+
+		sb.setLength(0);
+		printFooter(sb);
+		writer.append(sb);
+	}
+
+	/**
+	 * Open a stream that writes simple nodes and edges to the writer as soon as they are added.
+	 */
+	public GraphStream openStream(final Writer writer, final String id, final String label) {
+		return new JsonStream(writer, id, label);
+	}
+
+	private static void printHeader(final String id, final String label, final StringBuilder sb) {
+		sb.append("{\"id\":");
+		appendString(id, sb);
+		sb.append(",\"label\":");
+		appendString(label, sb);
+		sb.append(",\"elements\":[");
+	}
+
+	private static void printFooter(final StringBuilder sb) {
+		sb.append(System.lineSeparator()).append("]}").append(System.lineSeparator());
+	}
+
+	/**
+	 * Prints the elements of the array, separated by commas.
+	 */
+	private static final class ElementPrinter {
+		private boolean first = true;
+
+		private void printNode(final String id, final NodeAttributes attributes, final boolean composite,
+							   final Node parent, final StringBuilder sb) {
+			printSeparator(sb);
+			sb.append("{\"type\":\"node\",\"id\":");
+			appendString(id, sb);
+			if (composite) {
+				sb.append(",\"composite\":true");
+			}
+			if (parent != null) {
+				sb.append(",\"parent\":");
+				appendString(parent.getId(), sb);
+			}
+			sb.append(",\"label\":");
+			appendString(attributes.getLabel(), sb);
+			sb.append(",\"fillColor\":");
+			appendColor(attributes.getFillColor(), sb);
+			sb.append(",\"lineColor\":");
+			appendColor(attributes.getLineColor(), sb);
+			sb.append(",\"lineStyle\":\"").append(attributes.getLineStyle()).append('\"');
+			sb.append(",\"shape\":\"").append(attributes.getShape()).append('\"');
+			sb.append(",\"peripheries\":").append(attributes.getPeripheries());
+			sb.append('}');
+		}
+
+		private void printEdge(final String sourceId, final String targetId, final EdgeAttributes attributes,
+							   final StringBuilder sb) {
+			printSeparator(sb);
+			sb.append("{\"type\":\"edge\",\"source\":");
+			appendString(sourceId, sb);
+			sb.append(",\"target\":");
+			appendString(targetId, sb);
+			sb.append(",\"label\":");
+			appendString(attributes.getLabel(), sb);
+			sb.append(",\"color\":");
+			appendColor(attributes.getColor(), sb);
+			sb.append(",\"lineStyle\":\"").append(attributes.getLineStyle()).append('\"');
+			sb.append('}');
+		}
+
+		private void printSeparator(final StringBuilder sb) {
+			if (!first) {
+				sb.append(',');
+			}
+			first = false;
+			sb.append(System.lineSeparator());
+		}
+	}
+
+	private static final class JsonStream extends GraphStream {
+		private final String graphId;
+		private final String graphLabel;
+		private final ElementPrinter printer;
+
+		private JsonStream(final Writer writer, final String graphId, final String graphLabel) {
+			super(writer);
+			this.graphId = graphId;
+			this.graphLabel = graphLabel;
+			this.printer = new ElementPrinter();
+		}
+
+		@Override
+		protected void printHeader(final StringBuilder sb) {
+			JsonGraphWriter.printHeader(graphId, graphLabel, sb);
+		}
+
+		@Override
+		protected void printNode(final String id, final NodeAttributes attributes, final StringBuilder sb) {
+			printer.printNode(id, attributes, false, null, sb);
+		}
+
+		@Override
+		protected void printEdge(final String sourceId, final String targetId, final EdgeAttributes attributes,
+								 final StringBuilder sb) {
+			printer.printEdge(sourceId, targetId, attributes, sb);
+		}
+
+		@Override
+		protected void printFooter(final StringBuilder sb) {
+			JsonGraphWriter.printFooter(sb);
+		}
+	}
+
+	private static void appendColor(final Color color, final StringBuilder sb) {
+		sb.append(String.format("\"#%02X%02X%02X\"", color.getRed(), color.getGreen(), color.getBlue()));
+	}
+
+	private static void appendString(final String str, final StringBuilder sb) {
+		sb.append('\"');
+		for (int i = 0; i < str.length(); i++) {
+			final char c = str.charAt(i);
+			switch (c) {
+				case '\"':
+					sb.append("\\\"");
+					break;
+				case '\\':
+					sb.append("\\\\");
+					break;
+				case '\n':
+					sb.append("\\n");
+					break;
+				case '\r':
+					sb.append("\\r");
+					break;
+				case '\t':
+					sb.append("\\t");
+					break;
+				default:
+					if (c < 0x20) {
+						sb.append(String.format("\\u%04x", (int) c));
+					} else {
+						sb.append(c);
+					}
+			}
+		}
+		sb.append('\"');
+	}
+}
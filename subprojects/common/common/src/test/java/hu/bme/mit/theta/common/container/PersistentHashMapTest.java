@@ -0,0 +1,127 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.common.container;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class PersistentHashMapTest {
+
+	private static final class Key {
+		private final int id;
+		private final int hash;
+
+		Key(final int id, final int hash) {
+			this.id = id;
+			this.hash = hash;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			return obj instanceof Key && ((Key) obj).id == id;
+		}
+	}
+
+	@Test
+	public void testRandomOperations() {
+		final Random random = new Random(0);
+		for (final int hashRange : new int[]{Integer.MAX_VALUE, 64, 4}) {
+			final Map<Key, Integer> expected = new HashMap<>();
+			PersistentHashMap<Key, Integer> actual = PersistentHashMap.empty();
+			final List<PersistentHashMap<Key, Integer>> versions = new ArrayList<>();
+			final List<Map<Key, Integer>> expectedVersions = new ArrayList<>();
+
+			for (int i = 0; i < 5000; i++) {
+				final int id = random.nextInt(500);
+				final Key key = new Key(id, hashRange == Integer.MAX_VALUE ? id * 0x9E3779B9 : id % hashRange);
+				if (random.nextInt(3) == 0) {
+					expected.remove(key);
+					actual = actual.without(key);
+				} else {
+					final int value = random.nextInt(10);
+					expected.put(key, value);
+					actual = actual.with(key, value);
+				}
+				assertEquals(expected.get(key), actual.get(key));
+				assertEquals(expected.size(), actual.size());
+				assertEquals(expected.hashCode(), actual.hashCode());
+				if (i % 500 == 0) {
+					versions.add(actual);
+					expectedVersions.add(new HashMap<>(expected));
+				}
+			}
+
+			assertEquals(expected, actual);
+			assertEquals(actual, expected);
+			// Earlier versions are unaffected by later updates
+			for (int i = 0; i < versions.size(); i++) {
+				assertEquals(expectedVersions.get(i), versions.get(i));
+			}
+		}
+	}
+
+	@Test
+	public void testCanonicalForm() {
+		final Random random = new Random(1);
+		final List<Key> keys = new ArrayList<>();
+		for (int i = 0; i < 300; i++) {
+			keys.add(new Key(i, i % 3 == 0 ? 42 : random.nextInt()));
+		}
+
+		PersistentHashMap<Key, Integer> map1 = PersistentHashMap.empty();
+		for (final Key key : keys) {
+			map1 = map1.with(key, key.id);
+		}
+		Collections.shuffle(keys, random);
+		PersistentHashMap<Key, Integer> map2 = PersistentHashMap.empty();
+		for (final Key key : keys) {
+			map2 = map2.with(key, key.id).with(new Key(-1, key.hash), 0).without(new Key(-1, key.hash));
+		}
+
+		assertEquals(map1, map2);
+		assertEquals(map1.hashCode(), map2.hashCode());
+		for (final Key key : keys) {
+			map1 = map1.without(key);
+		}
+		assertEquals(PersistentHashMap.empty(), map1);
+	}
+
+	@Test
+	public void testUnchanged() {
+		final Key key = new Key(1, 1);
+		final PersistentHashMap<Key, Integer> map = PersistentHashMap.<Key, Integer>empty().with(key, 1);
+		assertSame(map, map.with(key, 1));
+		assertSame(map, map.without(new Key(2, 1)));
+		assertNull(map.get(new Key(2, 1)));
+		assertEquals(Map.of(key, 1), map);
+		assertSame(map, PersistentHashMap.copyOf(map));
+	}
+}
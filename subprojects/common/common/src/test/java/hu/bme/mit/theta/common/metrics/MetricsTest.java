@@ -0,0 +1,71 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.common.metrics;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class MetricsTest {
+
+	@After
+	public void tearDown() {
+		Metrics.setEnabled(false);
+		Metrics.reset();
+	}
+
+	@Test
+	public void testDisabled() {
+		final Counter counter = Metrics.counter("test.disabled.counter");
+		final Timer timer = Metrics.timer("test.disabled.timer");
+		counter.increment();
+		timer.stop(timer.start());
+		assertEquals(0, counter.getCount());
+		assertEquals(0, timer.getCount());
+	}
+
+	@Test
+	public void testEnabled() {
+		Metrics.setEnabled(true);
+		final Counter counter = Metrics.counter("test.enabled.counter");
+		counter.increment();
+		counter.add(2);
+		assertEquals(3, counter.getCount());
+		assertSame(counter, Metrics.counter("test.enabled.counter"));
+
+		final Histogram histogram = Metrics.histogram("test.enabled.histogram");
+		histogram.record(0);
+		histogram.record(5);
+		histogram.record(7);
+		assertEquals(3, histogram.getCount());
+		assertEquals(12, histogram.getSum());
+		assertEquals(7, histogram.getMax());
+		assertEquals(1, histogram.getBucketCount(0));
+		assertEquals(2, histogram.getBucketCount(3));
+
+		final String json = Metrics.toJson();
+		assertTrue(json.contains("\"test.enabled.counter\":{\"type\":\"counter\",\"value\":{\"count\":3}}"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTypeMismatch() {
+		Metrics.counter("test.mismatch");
+		Metrics.timer("test.mismatch");
+	}
+}
@@ -0,0 +1,105 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.common.visualization.writer;
+
+import static org.junit.Assert.assertEquals;
+
+import java.awt.Color;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Test;
+
+import hu.bme.mit.theta.common.visualization.EdgeAttributes;
+import hu.bme.mit.theta.common.visualization.Graph;
+import hu.bme.mit.theta.common.visualization.GraphSink;
+import hu.bme.mit.theta.common.visualization.LineStyle;
+import hu.bme.mit.theta.common.visualization.NodeAttributes;
+
+public class GraphStreamTest {
+
+	private static void fill(final GraphSink sink) {
+		sink.addNode("n1", NodeAttributes.builder().fillColor(Color.RED).label("1").build());
+		sink.addNode("n2", NodeAttributes.builder().lineStyle(LineStyle.DASHED).label("a \"quoted\"\nlabel").build());
+		sink.addEdge("n1", "n2", EdgeAttributes.builder().color(Color.BLUE).label("e").build());
+		sink.addEdge("n2", "n1", EdgeAttributes.builder().lineStyle(LineStyle.DASHED).weight(0).build());
+	}
+
+	@Test
+	public void testGraphvizStreamEqualsString() throws IOException {
+		final Graph graph = new Graph("g", "label");
+		fill(graph);
+
+		final StringWriter writer = new StringWriter();
+		try (GraphStream stream = GraphvizWriter.getInstance().openStream(writer, "g", "label")) {
+			fill(stream);
+		}
+
+		assertEquals(GraphvizWriter.getInstance().writeString(graph), writer.toString());
+	}
+
+	@Test
+	public void testJsonStreamEqualsString() throws IOException {
+		final Graph graph = new Graph("g", "label");
+		fill(graph);
+
+		final StringWriter writer = new StringWriter();
+		try (GraphStream stream = JsonGraphWriter.getInstance().openStream(writer, "g", "label")) {
+			fill(stream);
+		}
+
+		assertEquals(JsonGraphWriter.getInstance().writeString(graph), writer.toString());
+	}
+
+	@Test
+	public void testEmptyStream() throws IOException {
+		final StringWriter writer = new StringWriter();
+		GraphvizWriter.getInstance().openStream(writer, "g", "").close();
+		assertEquals(GraphvizWriter.getInstance().writeString(new Graph("g", "")), writer.toString());
+	}
+
+	@Test
+	public void testGzipFile() throws IOException {
+		final Graph graph = new Graph("g", "label");
+		fill(graph);
+		final File file = File.createTempFile("graph", ".dot.gz");
+		file.deleteOnExit();
+
+		GraphvizWriter.getInstance().writeFile(graph, file.getAbsolutePath());
+
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+				new GZIPInputStream(new FileInputStream(file)), StandardCharsets.UTF_8))) {
+			final String content = reader.lines().collect(Collectors.joining(System.lineSeparator()));
+			assertEquals(GraphvizWriter.getInstance().writeString(graph), content);
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testAddAfterClose() throws IOException {
+		final Writer writer = new StringWriter();
+		final GraphStream stream = GraphvizWriter.getInstance().openStream(writer, "g", "");
+		stream.close();
+		fill(stream);
+	}
+}
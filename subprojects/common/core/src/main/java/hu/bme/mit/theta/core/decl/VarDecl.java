@@ -16,10 +16,10 @@
 package hu.bme.mit.theta.core.decl;
 
 import hu.bme.mit.theta.common.Utils;
-import hu.bme.mit.theta.common.container.Containers;
 import hu.bme.mit.theta.core.type.Type;
 
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
@@ -37,21 +37,20 @@ public final class VarDecl<DeclType extends Type> extends Decl<DeclType> {
 
 	VarDecl(final String name, final DeclType type) {
 		super(name, type);
-		indexToConst = Containers.createMap();
+		indexToConst = new ConcurrentHashMap<>();
 	}
 
 	public static <DeclType extends Type> VarDecl<DeclType> copyOf(VarDecl<DeclType> from) {
 		return new VarDecl<>(from.getName(), from.getType());
 	}
 
+	/**
+	 * Get the constant for a given index. The same constant is returned for an index, even if
+	 * it is requested concurrently (e.g., by checkers unfolding traces in parallel).
+	 */
 	public IndexedConstDecl<DeclType> getConstDecl(final int index) {
 		checkArgument(index >= 0);
-		IndexedConstDecl<DeclType> constDecl = indexToConst.get(index);
-		if (constDecl == null) {
-			constDecl = new IndexedConstDecl<>(this, index);
-			indexToConst.put(index, constDecl);
-		}
-		return constDecl;
+		return indexToConst.computeIfAbsent(index, i -> new IndexedConstDecl<>(this, i));
 	}
 
 	@Override
@@ -3,6 +3,7 @@ package hu.bme.mit.theta.core.type.arraytype;
 import com.google.common.collect.ImmutableList;
 import hu.bme.mit.theta.common.Tuple2;
 import hu.bme.mit.theta.common.Utils;
+import hu.bme.mit.theta.common.container.PersistentHashMap;
 import hu.bme.mit.theta.core.model.ImmutableValuation;
 import hu.bme.mit.theta.core.model.Valuation;
 import hu.bme.mit.theta.core.type.Expr;
@@ -12,11 +13,14 @@ import hu.bme.mit.theta.core.type.Type;
 import hu.bme.mit.theta.core.utils.ExprSimplifier;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 
+/**
+ * Array literal. The elements are stored in a persistent hash map, so that {@link #read} and
+ * {@link #write} take O(log n) time, and writes share the unchanged parts with the original array.
+ */
 public final class ArrayLitExpr<IndexType extends Type, ElemType extends Type> extends NullaryExpr<ArrayType<IndexType, ElemType>> 
 		implements LitExpr<ArrayType<IndexType, ElemType>> {
 
@@ -25,37 +29,57 @@ public final class ArrayLitExpr<IndexType extends Type, ElemType extends Type> e
 
 	private final ArrayType<IndexType, ElemType> type;
 
-	private final List<Tuple2<LitExpr<IndexType>, LitExpr<ElemType>>> elems;
+	private final PersistentHashMap<LitExpr<IndexType>, LitExpr<ElemType>> elems;
 
 	private final LitExpr<ElemType> elseElem;
 
 	private volatile int hashCode;
 
-	private ArrayLitExpr(final List<Tuple2<? extends Expr<IndexType>, ? extends Expr<ElemType>>> elems,
-						 final Expr<ElemType> elseElem, final ArrayType<IndexType, ElemType> type) {
-		this.type = checkNotNull(type);
-		Expr<ElemType> simplifiedElem = ExprSimplifier.simplify(checkNotNull(elseElem), ImmutableValuation.empty());
-		checkState(simplifiedElem instanceof LitExpr, "ArrayLitExprs shall only contain literal values!");
-		this.elseElem = (LitExpr<ElemType>) simplifiedElem;
-		this.elems = checkNotNull(elems).stream().map(elem -> {
-			Expr<IndexType> index = ExprSimplifier.simplify(elem.get1(), ImmutableValuation.empty());
-			Expr<ElemType> element = ExprSimplifier.simplify(elem.get2(), ImmutableValuation.empty());
-			checkState(index instanceof LitExpr && element instanceof LitExpr, "ArrayLitExprs shall only contain literal values");
-			return Tuple2.of((LitExpr<IndexType>)index, (LitExpr<ElemType>)element);
-		}).collect(Collectors.toList());
+	private ArrayLitExpr(final PersistentHashMap<LitExpr<IndexType>, LitExpr<ElemType>> elems,
+						 final LitExpr<ElemType> elseElem, final ArrayType<IndexType, ElemType> type) {
+		this.type = type;
+		this.elems = elems;
+		this.elseElem = elseElem;
 	}
 
 	public static <IndexType extends Type, ElemType extends Type> ArrayLitExpr<IndexType, ElemType> of(
 			final List<Tuple2<? extends Expr<IndexType>, ? extends Expr<ElemType>>> elems,
 			final Expr<ElemType> elseElem,
 			final ArrayType<IndexType, ElemType> type) {
-		return new ArrayLitExpr<>(elems, elseElem, type);
+		checkNotNull(type);
+		final Expr<ElemType> simplifiedElem = ExprSimplifier.simplify(checkNotNull(elseElem), ImmutableValuation.empty());
+		checkState(simplifiedElem instanceof LitExpr, "ArrayLitExprs shall only contain literal values!");
+		PersistentHashMap<LitExpr<IndexType>, LitExpr<ElemType>> elemMap = PersistentHashMap.empty();
+		for (final Tuple2<? extends Expr<IndexType>, ? extends Expr<ElemType>> elem : checkNotNull(elems)) {
+			final Expr<IndexType> index = ExprSimplifier.simplify(elem.get1(), ImmutableValuation.empty());
+			final Expr<ElemType> element = ExprSimplifier.simplify(elem.get2(), ImmutableValuation.empty());
+			checkState(index instanceof LitExpr && element instanceof LitExpr, "ArrayLitExprs shall only contain literal values");
+			// In case of duplicate indices, the first element is the one that is read
+			if (!elemMap.containsKey(index)) {
+				elemMap = elemMap.with((LitExpr<IndexType>) index, (LitExpr<ElemType>) element);
+			}
+		}
+		return new ArrayLitExpr<>(elemMap, (LitExpr<ElemType>) simplifiedElem, type);
 	}
 
-	public List<Tuple2<LitExpr<IndexType>, LitExpr<ElemType>>> getElements() { return ImmutableList.copyOf(elems); }
+	public List<Tuple2<LitExpr<IndexType>, LitExpr<ElemType>>> getElements() {
+		final ImmutableList.Builder<Tuple2<LitExpr<IndexType>, LitExpr<ElemType>>> builder = ImmutableList.builder();
+		elems.forEach((index, elem) -> builder.add(Tuple2.of(index, elem)));
+		return builder.build();
+	}
 
 	public LitExpr<ElemType> getElseElem() { return elseElem; }
 
+	public LitExpr<ElemType> read(final LitExpr<IndexType> index) {
+		final LitExpr<ElemType> elem = elems.get(index);
+		return elem != null ? elem : elseElem;
+	}
+
+	public ArrayLitExpr<IndexType, ElemType> write(final LitExpr<IndexType> index, final LitExpr<ElemType> elem) {
+		final PersistentHashMap<LitExpr<IndexType>, LitExpr<ElemType>> newElems = elems.with(index, elem);
+		return newElems == elems ? this : new ArrayLitExpr<>(newElems, elseElem, type);
+	}
+
 	@Override
 	public ArrayType<IndexType, ElemType> getType() {
 		return type;
@@ -72,9 +96,8 @@ public final class ArrayLitExpr<IndexType extends Type, ElemType extends Type> e
 		if (tmp == 0) {
 			tmp = HASH_SEED;
 			tmp = 31 * tmp + type.hashCode();
-			for(Tuple2<LitExpr<IndexType>, LitExpr<ElemType>> elem : elems) {
-				tmp = 31 * tmp + elem.hashCode();
-			}
+			tmp = 31 * tmp + elems.hashCode();
+			tmp = 31 * tmp + elseElem.hashCode();
 			hashCode = tmp;
 		}
 		return tmp;
@@ -86,7 +109,8 @@ public final class ArrayLitExpr<IndexType extends Type, ElemType extends Type> e
 			return true;
 		} else if (obj instanceof ArrayLitExpr) {
 			final ArrayLitExpr<?, ?> that = (ArrayLitExpr<?, ?>) obj;
-			return this.type.equals(that.type) && this.elems.equals(that.elems) && elseElem.equals(that.elseElem);
+			return this.hashCode() == that.hashCode() && this.type.equals(that.type)
+					&& this.elems.equals(that.elems) && elseElem.equals(that.elseElem);
 		} else {
 			return false;
 		}
@@ -95,7 +119,7 @@ public final class ArrayLitExpr<IndexType extends Type, ElemType extends Type> e
 	@Override
 	public String toString() {
 		return Utils.lispStringBuilder(OPERATOR_LABEL)
-				.addAll(elems.stream().map(elem -> String.format("(%s %s)", elem.get1(), elem.get2())))
+				.addAll(getElements().stream().map(elem -> String.format("(%s %s)", elem.get1(), elem.get2())))
 				.add((String.format("(default %s)", elseElem)))
 				.toString();
 	}
@@ -16,7 +16,6 @@
 package hu.bme.mit.theta.core.type.arraytype;
 
 import com.google.common.collect.ImmutableList;
-import hu.bme.mit.theta.common.Tuple2;
 import hu.bme.mit.theta.common.Utils;
 import hu.bme.mit.theta.core.model.Valuation;
 import hu.bme.mit.theta.core.type.Expr;
@@ -75,12 +74,7 @@ public final class ArrayReadExpr<IndexType extends Type, ElemType extends Type>
 	public LitExpr<ElemType> eval(final Valuation val) {
 		ArrayLitExpr<IndexType, ElemType> arrayVal = (ArrayLitExpr<IndexType, ElemType>)array.eval(val);
 		LitExpr<IndexType> indexVal = index.eval(val);
-		for (Tuple2<LitExpr<IndexType>, LitExpr<ElemType>> elem : arrayVal.getElements()) {
-			if (elem.get1().equals(indexVal)){
-				return elem.get2();
-			}
-		}
-		return (LitExpr<ElemType>)arrayVal.getElseElem();
+		return arrayVal.read(indexVal);
 	}
 
 	@Override
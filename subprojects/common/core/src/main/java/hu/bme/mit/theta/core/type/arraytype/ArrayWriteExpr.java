@@ -16,14 +16,12 @@
 package hu.bme.mit.theta.core.type.arraytype;
 
 import com.google.common.collect.ImmutableList;
-import hu.bme.mit.theta.common.Tuple2;
 import hu.bme.mit.theta.common.Utils;
 import hu.bme.mit.theta.core.model.Valuation;
 import hu.bme.mit.theta.core.type.Expr;
 import hu.bme.mit.theta.core.type.LitExpr;
 import hu.bme.mit.theta.core.type.Type;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import static com.google.common.base.Preconditions.checkArgument;
@@ -87,16 +85,7 @@ public final class ArrayWriteExpr<IndexType extends Type, ElemType extends Type>
 		ArrayLitExpr<IndexType, ElemType> arrayVal = (ArrayLitExpr<IndexType, ElemType>)array.eval(val);
 		LitExpr<IndexType> indexVal = index.eval(val);
 		LitExpr<ElemType> elemVal = elem.eval(val);
-
-		List<Tuple2<? extends Expr<IndexType>, ? extends Expr<ElemType>>> elemList = new ArrayList<>();
-		for(Tuple2<LitExpr<IndexType>, LitExpr<ElemType>> elem : arrayVal.getElements()) {
-			if(!elem.get1().equals(indexVal)) {
-				elemList.add(elem);
-			}
-		}
-		elemList.add(Tuple2.of(indexVal, elemVal));
-
-		return Array(elemList, arrayVal.getElseElem(), arrayVal.getType());
+		return arrayVal.write(indexVal, elemVal);
 	}
 
 	@Override
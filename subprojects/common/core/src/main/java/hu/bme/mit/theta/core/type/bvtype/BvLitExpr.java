@@ -21,7 +21,6 @@ import hu.bme.mit.theta.core.type.LitExpr;
 import hu.bme.mit.theta.core.type.NullaryExpr;
 import hu.bme.mit.theta.core.type.booltype.BoolLitExpr;
 import hu.bme.mit.theta.core.type.inttype.IntLitExpr;
-import hu.bme.mit.theta.core.utils.BvUtils;
 
 import java.math.BigInteger;
 import java.util.Arrays;
@@ -29,49 +28,132 @@ import java.util.Arrays;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Bool;
-import static hu.bme.mit.theta.core.type.bvtype.BvExprs.Bv;
 import static hu.bme.mit.theta.core.type.bvtype.BvExprs.BvType;
-import static hu.bme.mit.theta.core.utils.BvUtils.bigIntegerToNeutralBvLitExpr;
-import static hu.bme.mit.theta.core.utils.BvUtils.bigIntegerToSignedBvLitExpr;
-import static hu.bme.mit.theta.core.utils.BvUtils.bigIntegerToUnsignedBvLitExpr;
-import static hu.bme.mit.theta.core.utils.BvUtils.fitBigIntegerIntoNeutralDomain;
-import static hu.bme.mit.theta.core.utils.BvUtils.fitBigIntegerIntoSignedDomain;
-import static hu.bme.mit.theta.core.utils.BvUtils.fitBigIntegerIntoUnsignedDomain;
-import static hu.bme.mit.theta.core.utils.BvUtils.neutralBvLitExprToBigInteger;
-import static hu.bme.mit.theta.core.utils.BvUtils.signedBvLitExprToBigInteger;
-import static hu.bme.mit.theta.core.utils.BvUtils.unsignedBvLitExprToBigInteger;
 
+/**
+ * Bitvector literal. The value is packed into words: values of at most 64 bits are stored in a
+ * single long, wider values in an array of longs (least significant word first). Bits above the
+ * size are always zero. Operations work directly on the words, only the multiplication and division
+ * of bitvectors wider than 64 bits fall back to {@link BigInteger}.
+ */
 public final class BvLitExpr extends NullaryExpr<BvType> implements LitExpr<BvType>, Comparable<BvLitExpr> {
 
 	private static final int HASH_SEED = 5624;
+	private static final int WORD_SIZE = Long.SIZE;
 	private volatile int hashCode = 0;
 
-	private final boolean[] value;
+	private final int size;
+	private final long bits;
+	private final long[] words;
 	private final Boolean signed;
 
-	private BvLitExpr(final boolean[] value, final Boolean signed) {
+	private BvLitExpr(final int size, final long bits, final long[] words, final Boolean signed) {
+		this.size = size;
+		this.bits = bits;
+		this.words = words;
 		this.signed = signed;
-		checkNotNull(value);
-		checkArgument(value.length > 0, "Bitvector must have positive size");
-
-		this.value = value;
 	}
 
 	public static BvLitExpr of(final boolean[] value, final Boolean signed) {
-		return new BvLitExpr(value, signed);
+		checkNotNull(value);
+		checkArgument(value.length > 0, "Bitvector must have positive size");
+		final int size = value.length;
+		final long[] packed = new long[wordCount(size)];
+		for (int i = 0; i < size; i++) {
+			if (value[size - 1 - i]) {
+				packed[i / WORD_SIZE] |= 1L << i;
+			}
+		}
+		return create(size, packed, signed);
 	}
 
 	public static BvLitExpr of(final boolean[] value) {
 		return of(value, null);
 	}
 
+	/**
+	 * Creates a bitvector from the lowest size bits of the (two's complement) value.
+	 */
+	public static BvLitExpr of(final long value, final int size, final Boolean signed) {
+		checkArgument(size > 0, "Bitvector must have positive size");
+		if (size <= WORD_SIZE) {
+			return create(size, value, signed);
+		}
+		final long[] packed = new long[wordCount(size)];
+		packed[0] = value;
+		if (value < 0) {
+			fillOnesFrom(packed, WORD_SIZE);
+		}
+		return create(size, packed, signed);
+	}
+
+	/**
+	 * Creates a bitvector from the lowest size bits of the (two's complement) value.
+	 */
+	public static BvLitExpr of(final BigInteger value, final int size, final Boolean signed) {
+		checkNotNull(value);
+		checkArgument(size > 0, "Bitvector must have positive size");
+		if (size <= WORD_SIZE) {
+			return create(size, value.longValue(), signed);
+		}
+		final long[] packed = new long[wordCount(size)];
+		for (int i = 0; i < packed.length; i++) {
+			packed[i] = value.shiftRight(i * WORD_SIZE).longValue();
+		}
+		return create(size, packed, signed);
+	}
+
+	private static BvLitExpr create(final int size, final long value, final Boolean signed) {
+		return new BvLitExpr(size, value & mask(size), null, signed);
+	}
+
+	// Takes ownership of the words
+	private static BvLitExpr create(final int size, final long[] value, final Boolean signed) {
+		if (size <= WORD_SIZE) {
+			return create(size, value[0], signed);
+		}
+		value[value.length - 1] &= mask(size);
+		return new BvLitExpr(size, 0, value, signed);
+	}
+
+	/**
+	 * Gets the bits of the value, most significant bit first. The array is created on each call,
+	 * prefer the operations of this class or {@link #toUnsignedBigInteger()} where possible.
+	 */
 	public boolean[] getValue() {
+		final boolean[] value = new boolean[size];
+		for (int i = 0; i < size; i++) {
+			value[size - 1 - i] = testBit(i);
+		}
 		return value;
 	}
 
+	public BigInteger toUnsignedBigInteger() {
+		if (words == null && bits >= 0) {
+			return BigInteger.valueOf(bits);
+		}
+		final long[] value = toWords();
+		final byte[] bytes = new byte[value.length * Long.BYTES];
+		for (int i = 0; i < value.length; i++) {
+			final long word = value[value.length - 1 - i];
+			for (int j = 0; j < Long.BYTES; j++) {
+				bytes[i * Long.BYTES + j] = (byte) (word >>> (WORD_SIZE - Byte.SIZE * (j + 1)));
+			}
+		}
+		return new BigInteger(1, bytes);
+	}
+
+	public BigInteger toSignedBigInteger() {
+		if (words == null) {
+			return BigInteger.valueOf(signExtend(bits, size));
+		}
+		final BigInteger unsigned = toUnsignedBigInteger();
+		return msb() ? unsigned.subtract(BigInteger.ONE.shiftLeft(size)) : unsigned;
+	}
+
 	@Override
 	public BvType getType() {
-		return BvType(value.length, signed);
+		return BvType(size, signed);
 	}
 
 	@Override
@@ -80,14 +162,14 @@ public final class BvLitExpr extends NullaryExpr<BvType> implements LitExpr<BvTy
 	}
 
 	public BvLitExpr concat(final BvLitExpr that) {
-		boolean[] concated = new boolean[this.getType().getSize() + that.getType().getSize()];
-		for (int i = 0; i < this.getType().getSize(); i++) {
-			concated[i] = this.getValue()[i];
+		final int newSize = this.size + that.size;
+		if (newSize <= WORD_SIZE) {
+			return create(newSize, (this.bits << that.size) | that.bits, null);
 		}
-		for (int i = 0; i < that.getType().getSize(); i++) {
-			concated[this.getType().getSize() + i] = that.getValue()[i];
-		}
-		return Bv(concated);
+		final long[] concated = new long[wordCount(newSize)];
+		orShifted(concated, that.toWords(), 0);
+		orShifted(concated, this.toWords(), that.size);
+		return create(newSize, concated, null);
 	}
 
 	public BvLitExpr extract(final IntLitExpr from, final IntLitExpr until) {
@@ -96,271 +178,285 @@ public final class BvLitExpr extends NullaryExpr<BvType> implements LitExpr<BvTy
 		checkArgument(fromValue >= 0);
 		checkArgument(untilValue >= 0);
 		checkArgument(untilValue > fromValue);
+		checkArgument(untilValue <= size);
 
-		boolean[] extracted = new boolean[untilValue - fromValue];
-		for (int i = 0; i < extracted.length; i++) {
-			extracted[extracted.length - i - 1] = this.getValue()[this.getValue().length - (fromValue + i) - 1];
+		final int newSize = untilValue - fromValue;
+		if (words == null) {
+			return create(newSize, bits >>> fromValue, null);
 		}
-		return Bv(extracted);
+		return create(newSize, shiftedRight(words, fromValue, wordCount(newSize)), null);
 	}
 
 	public BvLitExpr zext(final BvType extendType) {
-		checkArgument(extendType.getSize() >= this.getType().getSize());
+		checkArgument(extendType.getSize() >= this.size);
 
-		boolean[] extended = new boolean[extendType.getSize()];
-		for (int i = 0; i < this.getValue().length; i++) {
-			extended[extended.length - i - 1] = this.getValue()[this.getValue().length - i - 1];
-		}
-		for (int i = 0; i < extendType.getSize() - this.getType().getSize(); i++) {
-			extended[i] = false;
+		final int newSize = extendType.getSize();
+		if (newSize <= WORD_SIZE) {
+			return create(newSize, bits, null);
 		}
-		return Bv(extended);
+		return create(newSize, Arrays.copyOf(toWords(), wordCount(newSize)), null);
 	}
 
 	public BvLitExpr sext(final BvType extendType) {
-		checkArgument(extendType.getSize() >= this.getType().getSize());
+		checkArgument(extendType.getSize() >= this.size);
 
-		boolean[] extended = new boolean[extendType.getSize()];
-		for (int i = 0; i < this.getValue().length; i++) {
-			extended[extended.length - i - 1] = this.getValue()[this.getValue().length - i - 1];
+		final int newSize = extendType.getSize();
+		if (!msb()) {
+			return zext(extendType);
+		} else if (newSize <= WORD_SIZE) {
+			return create(newSize, signExtend(bits, size), null);
 		}
-		for (int i = 0; i < extendType.getSize() - this.getType().getSize(); i++) {
-			extended[i] = this.getValue()[0];
-		}
-		return Bv(extended);
+		final long[] extended = Arrays.copyOf(toWords(), wordCount(newSize));
+		fillOnesFrom(extended, size);
+		return create(newSize, extended, null);
 	}
 
 	public BvLitExpr add(final BvLitExpr that) {
-		checkArgument(this.getType().equals(that.getType()));
-		BigInteger sum = neutralBvLitExprToBigInteger(this).add(neutralBvLitExprToBigInteger(that));
-		sum = fitBigIntegerIntoNeutralDomain(sum, getType().getSize());
-		return bigIntegerToNeutralBvLitExpr(sum, getType().getSize());
+		checkSameSize(that);
+		if (words == null) {
+			return create(size, this.bits + that.bits, null);
+		}
+		return create(size, addWords(this.words, that.words, false), null);
 	}
 
 	public BvLitExpr sub(final BvLitExpr that) {
-		checkArgument(this.getType().equals(that.getType()));
-		BigInteger sub = neutralBvLitExprToBigInteger(this).subtract(neutralBvLitExprToBigInteger(that));
-		sub = fitBigIntegerIntoNeutralDomain(sub, getType().getSize());
-		return bigIntegerToNeutralBvLitExpr(sub, getType().getSize());
+		checkSameSize(that);
+		if (words == null) {
+			return create(size, this.bits - that.bits, null);
+		}
+		return create(size, addWords(this.words, that.words, true), null);
 	}
 
 	public BvLitExpr mul(final BvLitExpr that) {
-		checkArgument(this.getType().equals(that.getType()));
-		BigInteger prod = neutralBvLitExprToBigInteger(this).multiply(neutralBvLitExprToBigInteger(that));
-		prod = fitBigIntegerIntoNeutralDomain(prod, getType().getSize());
-		return bigIntegerToNeutralBvLitExpr(prod, getType().getSize());
+		checkSameSize(that);
+		if (words == null) {
+			return create(size, this.bits * that.bits, null);
+		}
+		return of(this.toUnsignedBigInteger().multiply(that.toUnsignedBigInteger()), size, null);
 	}
 
 	public BvLitExpr pos() {
-		BigInteger pos = signedBvLitExprToBigInteger(this);
-		pos = fitBigIntegerIntoSignedDomain(pos, getType().getSize());
-		return bigIntegerToSignedBvLitExpr(pos, getType().getSize());
+		return new BvLitExpr(size, bits, words, true);
 	}
 
 	public BvLitExpr neg() {
-		BigInteger neg = signedBvLitExprToBigInteger(this).negate();
-		neg = fitBigIntegerIntoSignedDomain(neg, getType().getSize());
-		return bigIntegerToSignedBvLitExpr(neg, getType().getSize());
+		if (words == null) {
+			return create(size, -bits, true);
+		}
+		return create(size, addWords(new long[words.length], words, true), true);
 	}
 
 	public BvLitExpr udiv(final BvLitExpr that) {
-		checkArgument(this.getType().equals(that.getType()));
-		BigInteger div = unsignedBvLitExprToBigInteger(this).divide(unsignedBvLitExprToBigInteger(that));
-		div = fitBigIntegerIntoUnsignedDomain(div, getType().getSize());
-		return bigIntegerToUnsignedBvLitExpr(div, getType().getSize());
+		checkSameSize(that);
+		if (words == null) {
+			return create(size, Long.divideUnsigned(this.bits, that.bits), false);
+		}
+		return of(this.toUnsignedBigInteger().divide(that.toUnsignedBigInteger()), size, false);
 	}
 
 	public BvLitExpr sdiv(final BvLitExpr that) {
-		checkArgument(this.getType().equals(that.getType()));
-		BigInteger div = signedBvLitExprToBigInteger(this).divide(signedBvLitExprToBigInteger(that));
-		div = fitBigIntegerIntoSignedDomain(div, getType().getSize());
-		return bigIntegerToSignedBvLitExpr(div, getType().getSize());
+		checkSameSize(that);
+		if (words == null) {
+			return create(size, signExtend(this.bits, size) / signExtend(that.bits, size), true);
+		}
+		return of(this.toSignedBigInteger().divide(that.toSignedBigInteger()), size, true);
 	}
 
 	public BvLitExpr and(final BvLitExpr that) {
-		checkArgument(this.getType().equals(that.getType()));
-		BigInteger and = neutralBvLitExprToBigInteger(this).and(neutralBvLitExprToBigInteger(that));
-		return bigIntegerToNeutralBvLitExpr(and, getType().getSize());
+		checkSameSize(that);
+		if (words == null) {
+			return create(size, this.bits & that.bits, null);
+		}
+		final long[] result = new long[words.length];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = this.words[i] & that.words[i];
+		}
+		return create(size, result, null);
 	}
 
 	public BvLitExpr or(final BvLitExpr that) {
-		checkArgument(this.getType().equals(that.getType()));
-		BigInteger or = neutralBvLitExprToBigInteger(this).or(neutralBvLitExprToBigInteger(that));
-		return bigIntegerToNeutralBvLitExpr(or, getType().getSize());
+		checkSameSize(that);
+		if (words == null) {
+			return create(size, this.bits | that.bits, null);
+		}
+		final long[] result = new long[words.length];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = this.words[i] | that.words[i];
+		}
+		return create(size, result, null);
 	}
 
 	public BvLitExpr xor(final BvLitExpr that) {
-		checkArgument(this.getType().equals(that.getType()));
-		BigInteger xor = neutralBvLitExprToBigInteger(this).xor(neutralBvLitExprToBigInteger(that));
-		return bigIntegerToNeutralBvLitExpr(xor, getType().getSize());
+		checkSameSize(that);
+		if (words == null) {
+			return create(size, this.bits ^ that.bits, null);
+		}
+		final long[] result = new long[words.length];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = this.words[i] ^ that.words[i];
+		}
+		return create(size, result, null);
 	}
 
 	public BvLitExpr not() {
-		BigInteger not = neutralBvLitExprToBigInteger(this).not();
-		return bigIntegerToNeutralBvLitExpr(not, getType().getSize());
+		if (words == null) {
+			return create(size, ~bits, null);
+		}
+		final long[] result = new long[words.length];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = ~words[i];
+		}
+		return create(size, result, null);
 	}
 
 	public BvLitExpr shiftLeft(final BvLitExpr that) {
-		checkArgument(this.getType().equals(that.getType()));
-
-		boolean[] shifted = Arrays.copyOf(this.getValue(), this.getValue().length);
-		for (BigInteger i = BigInteger.ZERO; i.compareTo(neutralBvLitExprToBigInteger(that)) < 0; i = i.add(BigInteger.ONE)) {
-			for (int j = 0; j < shifted.length - 1; j++) {
-				shifted[j] = shifted[j + 1];
-			}
-			shifted[shifted.length - 1] = false;
+		checkSameSize(that);
+		final int shift = that.toShiftAmount();
+		if (shift >= size) {
+			return of(0, size, null);
+		} else if (words == null) {
+			return create(size, bits << shift, null);
 		}
-		return Bv(shifted);
+		final long[] shifted = new long[words.length];
+		orShifted(shifted, words, shift);
+		return create(size, shifted, null);
 	}
 
 	public BvLitExpr arithShiftRight(final BvLitExpr that) {
-		checkArgument(this.getType().equals(that.getType()));
-
-		boolean[] shifted = Arrays.copyOf(this.getValue(), this.getValue().length);
-		boolean insert = shifted[0];
-		for (BigInteger i = BigInteger.ZERO; i.compareTo(neutralBvLitExprToBigInteger(that)) < 0; i = i.add(BigInteger.ONE)) {
-			for (int j = shifted.length - 1; j > 0; j--) {
-				shifted[j] = shifted[j - 1];
-			}
-			shifted[0] = insert;
+		checkSameSize(that);
+		if (!msb()) {
+			return logicShiftRight(that);
+		}
+		final int shift = Math.min(that.toShiftAmount(), size);
+		if (words == null) {
+			return create(size, shift == WORD_SIZE ? -1L : signExtend(bits, size) >> shift, null);
 		}
-		return Bv(shifted);
+		final long[] shifted = shiftedRight(words, shift, words.length);
+		fillOnesFrom(shifted, size - shift);
+		return create(size, shifted, null);
 	}
 
 	public BvLitExpr logicShiftRight(final BvLitExpr that) {
-		checkArgument(this.getType().equals(that.getType()));
-
-		boolean[] shifted = Arrays.copyOf(this.getValue(), this.getValue().length);
-		boolean insert = false;
-		for (BigInteger i = BigInteger.ZERO; i.compareTo(neutralBvLitExprToBigInteger(that)) < 0; i = i.add(BigInteger.ONE)) {
-			for (int j = shifted.length - 1; j > 0; j--) {
-				shifted[j] = shifted[j - 1];
-			}
-			shifted[0] = insert;
+		checkSameSize(that);
+		final int shift = that.toShiftAmount();
+		if (shift >= size) {
+			return of(0, size, null);
+		} else if (words == null) {
+			return create(size, bits >>> shift, null);
 		}
-		return Bv(shifted);
+		return create(size, shiftedRight(words, shift, words.length), null);
 	}
 
 	public BvLitExpr rotateLeft(final BvLitExpr that) {
-		checkArgument(this.getType().equals(that.getType()));
-
-		boolean[] shifted = Arrays.copyOf(this.getValue(), this.getValue().length);
-		for (BigInteger i = BigInteger.ZERO; i.compareTo(neutralBvLitExprToBigInteger(that)) < 0; i = i.add(BigInteger.ONE)) {
-			boolean rotated = shifted[0];
-			for (int j = 0; j < shifted.length - 1; j++) {
-				shifted[j] = shifted[j + 1];
-			}
-			shifted[shifted.length - 1] = rotated;
-		}
-		return Bv(shifted);
+		checkSameSize(that);
+		return rotateLeft(that.remainderUnsigned(size));
 	}
 
 	public BvLitExpr rotateRight(final BvLitExpr that) {
-		checkArgument(this.getType().equals(that.getType()));
+		checkSameSize(that);
+		final int rotate = that.remainderUnsigned(size);
+		return rotateLeft(rotate == 0 ? 0 : size - rotate);
+	}
 
-		boolean[] shifted = Arrays.copyOf(this.getValue(), this.getValue().length);
-		for (BigInteger i = BigInteger.ZERO; i.compareTo(neutralBvLitExprToBigInteger(that)) < 0; i = i.add(BigInteger.ONE)) {
-			boolean rotated = shifted[shifted.length - 1];
-			for (int j = shifted.length - 1; j > 0; j--) {
-				shifted[j] = shifted[j - 1];
-			}
-			shifted[0] = rotated;
+	private BvLitExpr rotateLeft(final int rotate) {
+		if (rotate == 0) {
+			return new BvLitExpr(size, bits, words, null);
+		} else if (words == null) {
+			return create(size, (bits << rotate) | (bits >>> (size - rotate)), null);
 		}
-		return Bv(shifted);
+		final long[] rotated = shiftedRight(words, size - rotate, words.length);
+		orShifted(rotated, words, rotate);
+		return create(size, rotated, null);
 	}
 
 	public BvLitExpr smod(final BvLitExpr that) {
-		checkArgument(this.getType().equals(that.getType()));
+		checkSameSize(that);
 		// Always positive semantics:
 		// 5 mod 3 = 2
-		// 5 mod -3 = 2
 		// -5 mod 3 = 1
-		// -5 mod -3 = 1
-		BigInteger result = signedBvLitExprToBigInteger(this).mod(signedBvLitExprToBigInteger(that));
-		if (result.compareTo(BigInteger.ZERO) < 0) {
-			result = result.add(signedBvLitExprToBigInteger(that).abs());
-		}
-		assert result.compareTo(BigInteger.ZERO) >= 0;
-		return bigIntegerToSignedBvLitExpr(result, getType().getSize());
+		// The modulus must be positive
+		return signedMod(that);
 	}
 
 	public BvLitExpr urem(final BvLitExpr that) {
+		checkSameSize(that);
 		// Semantics:
 		// 5 rem 3 = 2
-		BigInteger thisInt = signedBvLitExprToBigInteger(this);
-		BigInteger thatInt = signedBvLitExprToBigInteger(that);
-		return bigIntegerToSignedBvLitExpr(thisInt.mod(thatInt), getType().getSize());
+		return signedMod(that);
+	}
+
+	private BvLitExpr signedMod(final BvLitExpr that) {
+		if (words == null) {
+			final long modulus = signExtend(that.bits, size);
+			if (modulus <= 0) {
+				throw new ArithmeticException("Modulus not positive");
+			}
+			return create(size, Math.floorMod(signExtend(this.bits, size), modulus), true);
+		}
+		return of(this.toSignedBigInteger().mod(that.toSignedBigInteger()), size, true);
 	}
 
 	public BvLitExpr srem(final BvLitExpr that) {
+		checkSameSize(that);
 		// Semantics:
 		// 5 rem 3 = 2
 		// 5 rem -3 = 2
-		// -5 rem 3 = -1
-		// -5 rem -3 = -1
-		BigInteger thisInt = BvUtils.signedBvLitExprToBigInteger(this);
-		BigInteger thatInt = BvUtils.signedBvLitExprToBigInteger(that);
-		BigInteger thisAbs = thisInt.abs();
-		BigInteger thatAbs = thatInt.abs();
-		if (thisInt.compareTo(BigInteger.ZERO) < 0 && thatInt.compareTo(BigInteger.ZERO) < 0) {
-			return bigIntegerToSignedBvLitExpr(thisAbs.mod(thatAbs).negate(), getType().getSize());
-		} else if (thisInt.compareTo(BigInteger.ZERO) >= 0 && thatInt.compareTo(BigInteger.ZERO) < 0) {
-			return bigIntegerToSignedBvLitExpr(thisAbs.mod(thatAbs), getType().getSize());
-		} else if (thisInt.compareTo(BigInteger.ZERO) < 0 && thatInt.compareTo(BigInteger.ZERO) >= 0) {
-			return bigIntegerToSignedBvLitExpr(thisAbs.mod(thatAbs).negate(), getType().getSize());
-		} else {
-			return bigIntegerToSignedBvLitExpr(thisInt.mod(thatInt), getType().getSize());
+		// -5 rem 3 = -2
+		// -5 rem -3 = -2
+		if (words == null) {
+			return create(size, signExtend(this.bits, size) % signExtend(that.bits, size), true);
 		}
+		return of(this.toSignedBigInteger().remainder(that.toSignedBigInteger()), size, true);
 	}
 
 	public BoolLitExpr eq(final BvLitExpr that) {
-		checkArgument(this.getType().equals(that.getType()));
-		return Bool(Arrays.equals(this.getValue(), that.getValue()));
+		checkSameSize(that);
+		return Bool(this.hasSameBits(that));
 	}
 
 	public BoolLitExpr neq(final BvLitExpr that) {
-		checkArgument(this.getType().equals(that.getType()));
-		return Bool(!Arrays.equals(this.getValue(), that.getValue()));
+		checkSameSize(that);
+		return Bool(!this.hasSameBits(that));
 	}
 
 	public BoolLitExpr ult(final BvLitExpr that) {
-		checkArgument(this.getType().equals(that.getType()));
-		return Bool(unsignedBvLitExprToBigInteger(this).compareTo(unsignedBvLitExprToBigInteger(that)) < 0);
+		checkSameSize(that);
+		return Bool(this.compareUnsigned(that) < 0);
 	}
 
 	public BoolLitExpr ule(final BvLitExpr that) {
-		checkArgument(this.getType().equals(that.getType()));
-		return Bool(unsignedBvLitExprToBigInteger(this).compareTo(unsignedBvLitExprToBigInteger(that)) <= 0);
+		checkSameSize(that);
+		return Bool(this.compareUnsigned(that) <= 0);
 	}
 
 	public BoolLitExpr ugt(final BvLitExpr that) {
-		checkArgument(this.getType().equals(that.getType()));
-		return Bool(unsignedBvLitExprToBigInteger(this).compareTo(unsignedBvLitExprToBigInteger(that)) > 0);
+		checkSameSize(that);
+		return Bool(this.compareUnsigned(that) > 0);
 	}
 
 	public BoolLitExpr uge(final BvLitExpr that) {
-		checkArgument(this.getType().equals(that.getType()));
-		return Bool(unsignedBvLitExprToBigInteger(this).compareTo(unsignedBvLitExprToBigInteger(that)) >= 0);
+		checkSameSize(that);
+		return Bool(this.compareUnsigned(that) >= 0);
 	}
 
 	public BoolLitExpr slt(final BvLitExpr that) {
-		checkArgument(this.getType().equals(that.getType()));
-		return Bool(signedBvLitExprToBigInteger(this).compareTo(signedBvLitExprToBigInteger(that)) < 0);
+		checkSameSize(that);
+		return Bool(this.compareSigned(that) < 0);
 	}
 
 	public BoolLitExpr sle(final BvLitExpr that) {
-		checkArgument(this.getType().equals(that.getType()));
-		return Bool(signedBvLitExprToBigInteger(this).compareTo(signedBvLitExprToBigInteger(that)) <= 0);
+		checkSameSize(that);
+		return Bool(this.compareSigned(that) <= 0);
 	}
 
 	public BoolLitExpr sgt(final BvLitExpr that) {
-		checkArgument(this.getType().equals(that.getType()));
-		return Bool(signedBvLitExprToBigInteger(this).compareTo(signedBvLitExprToBigInteger(that)) > 0);
+		checkSameSize(that);
+		return Bool(this.compareSigned(that) > 0);
 	}
 
 	public BoolLitExpr sge(final BvLitExpr that) {
-		checkArgument(this.getType().equals(that.getType()));
-		return Bool(signedBvLitExprToBigInteger(this).compareTo(signedBvLitExprToBigInteger(that)) >= 0);
+		checkSameSize(that);
+		return Bool(this.compareSigned(that) >= 0);
 	}
 
 	@Override
@@ -368,7 +464,8 @@ public final class BvLitExpr extends NullaryExpr<BvType> implements LitExpr<BvTy
 		int result = hashCode;
 		if (result == 0) {
 			result = HASH_SEED;
-			result = 31 * result + Arrays.hashCode(value);
+			result = 31 * result + size;
+			result = 31 * result + (words == null ? Long.hashCode(bits) : Arrays.hashCode(words));
 			hashCode = result;
 		}
 		return result;
@@ -380,7 +477,7 @@ public final class BvLitExpr extends NullaryExpr<BvType> implements LitExpr<BvTy
 			return true;
 		} else if (obj instanceof BvLitExpr) {
 			final BvLitExpr that = (BvLitExpr) obj;
-			return Arrays.equals(this.value, that.value);
+			return this.size == that.size && this.hasSameBits(that);
 		} else {
 			return false;
 		}
@@ -389,17 +486,145 @@ public final class BvLitExpr extends NullaryExpr<BvType> implements LitExpr<BvTy
 	@Override
 	public String toString() {
 		final StringBuilder sb = new StringBuilder();
-		sb.append(getType().getSize());
+		sb.append(size);
 		sb.append("'b");
-		for (boolean bit : value) {
-			sb.append(bit ? "1" : "0");
+		for (int i = size - 1; i >= 0; i--) {
+			sb.append(testBit(i) ? "1" : "0");
 		}
 		return sb.toString();
 	}
 
 	@Override
 	public int compareTo(final BvLitExpr that) {
-		checkArgument(this.getType().equals(that.getType()));
-		return neutralBvLitExprToBigInteger(this).compareTo(neutralBvLitExprToBigInteger(that));
+		checkSameSize(that);
+		return compareUnsigned(that);
+	}
+
+	////
+
+	private void checkSameSize(final BvLitExpr that) {
+		checkArgument(this.size == that.size, "Bitvector sizes do not match: %s and %s", this.size, that.size);
+	}
+
+	private boolean hasSameBits(final BvLitExpr that) {
+		return this.bits == that.bits && Arrays.equals(this.words, that.words);
+	}
+
+	private boolean testBit(final int index) {
+		final long word = words == null ? bits : words[index / WORD_SIZE];
+		return (word >>> index & 1) != 0;
+	}
+
+	private boolean msb() {
+		return testBit(size - 1);
+	}
+
+	// The returned array must not be modified
+	private long[] toWords() {
+		return words == null ? new long[]{bits} : words;
+	}
+
+	private int compareUnsigned(final BvLitExpr that) {
+		if (words == null) {
+			return Long.compareUnsigned(this.bits, that.bits);
+		}
+		for (int i = words.length - 1; i >= 0; i--) {
+			final int result = Long.compareUnsigned(this.words[i], that.words[i]);
+			if (result != 0) {
+				return result;
+			}
+		}
+		return 0;
+	}
+
+	private int compareSigned(final BvLitExpr that) {
+		final boolean thisNegative = this.msb();
+		if (thisNegative != that.msb()) {
+			return thisNegative ? -1 : 1;
+		}
+		return compareUnsigned(that);
+	}
+
+	// The unsigned value as a shift amount, saturated at Integer.MAX_VALUE
+	private int toShiftAmount() {
+		if (words != null) {
+			for (int i = 1; i < words.length; i++) {
+				if (words[i] != 0) {
+					return Integer.MAX_VALUE;
+				}
+			}
+		}
+		final long lowest = words == null ? bits : words[0];
+		return Long.compareUnsigned(lowest, Integer.MAX_VALUE) > 0 ? Integer.MAX_VALUE : (int) lowest;
+	}
+
+	private int remainderUnsigned(final int divisor) {
+		if (words == null) {
+			return (int) Long.remainderUnsigned(bits, divisor);
+		}
+		return toUnsignedBigInteger().mod(BigInteger.valueOf(divisor)).intValue();
+	}
+
+	private static int wordCount(final int size) {
+		return (size + WORD_SIZE - 1) / WORD_SIZE;
+	}
+
+	// Mask of the valid bits in the most significant word
+	private static long mask(final int size) {
+		return -1L >>> (-size & (WORD_SIZE - 1));
+	}
+
+	private static long signExtend(final long value, final int size) {
+		return value << (WORD_SIZE - size) >> (WORD_SIZE - size);
+	}
+
+	private static long[] addWords(final long[] left, final long[] right, final boolean subtract) {
+		final long[] result = new long[left.length];
+		long carry = subtract ? 1 : 0;
+		for (int i = 0; i < result.length; i++) {
+			final long rightWord = subtract ? ~right[i] : right[i];
+			final long sum = left[i] + rightWord;
+			final long sumWithCarry = sum + carry;
+			carry = (Long.compareUnsigned(sum, left[i]) < 0 || Long.compareUnsigned(sumWithCarry, sum) < 0) ? 1 : 0;
+			result[i] = sumWithCarry;
+		}
+		return result;
+	}
+
+	// Ors the value shifted left by the given amount into the target, dropping the bits that do not fit
+	private static void orShifted(final long[] target, final long[] value, final int shift) {
+		final int wordShift = shift / WORD_SIZE;
+		final int bitShift = shift % WORD_SIZE;
+		for (int i = 0; i < value.length && i + wordShift < target.length; i++) {
+			target[i + wordShift] |= value[i] << bitShift;
+			if (bitShift != 0 && i + wordShift + 1 < target.length) {
+				target[i + wordShift + 1] |= value[i] >>> (WORD_SIZE - bitShift);
+			}
+		}
+	}
+
+	private static long[] shiftedRight(final long[] value, final int shift, final int length) {
+		final long[] result = new long[length];
+		final int wordShift = shift / WORD_SIZE;
+		final int bitShift = shift % WORD_SIZE;
+		for (int i = 0; i < length && i + wordShift < value.length; i++) {
+			long word = value[i + wordShift] >>> bitShift;
+			if (bitShift != 0 && i + wordShift + 1 < value.length) {
+				word |= value[i + wordShift + 1] << (WORD_SIZE - bitShift);
+			}
+			result[i] = word;
+		}
+		return result;
+	}
+
+	private static void fillOnesFrom(final long[] value, final int from) {
+		int i = from / WORD_SIZE;
+		if (from % WORD_SIZE != 0) {
+			value[i] |= -1L << from;
+			i++;
+		}
+		for (; i < value.length; i++) {
+			value[i] = -1L;
+		}
 	}
 }
@@ -31,7 +31,7 @@ public final class IntExprs {
 	}
 
 	public static IntLitExpr Int(final int value) {
-		return IntLitExpr.of(BigInteger.valueOf(value));
+		return IntLitExpr.of(value);
 	}
 
 	public static IntLitExpr Int(final String value) {
@@ -17,7 +17,6 @@ package hu.bme.mit.theta.core.type.inttype;
 
 import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Bool;
 import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
-import static hu.bme.mit.theta.core.type.rattype.RatExprs.Rat;
 
 import hu.bme.mit.theta.core.model.Valuation;
 import hu.bme.mit.theta.core.type.LitExpr;
@@ -27,23 +26,65 @@ import hu.bme.mit.theta.core.type.rattype.RatLitExpr;
 
 import java.math.BigInteger;
 
+/**
+ * Integer literal. Values that fit into a long are stored as a long, and arithmetic on them uses
+ * overflow-checked long operations, promoting to {@link BigInteger} only on overflow. Literals in
+ * a small range around zero are cached.
+ */
 public final class IntLitExpr extends NullaryExpr<IntType> implements LitExpr<IntType>, Comparable<IntLitExpr> {
 
 	private static final int HASH_SEED = 4111;
+
+	private static final int CACHE_LOW = -128;
+	private static final int CACHE_HIGH = 1024;
+	private static final IntLitExpr[] CACHE = new IntLitExpr[CACHE_HIGH - CACHE_LOW + 1];
+
+	static {
+		for (int i = 0; i < CACHE.length; i++) {
+			CACHE[i] = new IntLitExpr(CACHE_LOW + i, true, null);
+		}
+	}
+
 	private volatile int hashCode = 0;
 
-	private final BigInteger value;
+	// Only meaningful if isLong holds, which is exactly when the value fits into a long
+	private final long longValue;
+	private final boolean isLong;
+	// Always set for values not fitting into a long, created on demand otherwise
+	private volatile BigInteger value;
 
-	private IntLitExpr(final BigInteger value) {
+	private IntLitExpr(final long longValue, final boolean isLong, final BigInteger value) {
+		this.longValue = longValue;
+		this.isLong = isLong;
 		this.value = value;
 	}
 
 	public static IntLitExpr of(final BigInteger value) {
-		return new IntLitExpr(value);
+		if (value.bitLength() < Long.SIZE) {
+			final long longValue = value.longValue();
+			if (CACHE_LOW <= longValue && longValue <= CACHE_HIGH) {
+				return CACHE[(int) (longValue - CACHE_LOW)];
+			}
+			return new IntLitExpr(longValue, true, value);
+		} else {
+			return new IntLitExpr(0, false, value);
+		}
+	}
+
+	public static IntLitExpr of(final long value) {
+		if (CACHE_LOW <= value && value <= CACHE_HIGH) {
+			return CACHE[(int) (value - CACHE_LOW)];
+		}
+		return new IntLitExpr(value, true, null);
 	}
 
 	public BigInteger getValue() {
-		return value;
+		BigInteger result = value;
+		if (result == null) {
+			result = BigInteger.valueOf(longValue);
+			value = result;
+		}
+		return result;
 	}
 
 	@Override
@@ -57,27 +98,61 @@ public final class IntLitExpr extends NullaryExpr<IntType> implements LitExpr<In
 	}
 
 	public RatLitExpr toRat() {
-		return Rat(this.value, 1);
+		if (isLong) {
+			return RatLitExpr.of(longValue, 1);
+		}
+		return RatLitExpr.of(getValue(), BigInteger.ONE);
 	}
 
 	public IntLitExpr add(final IntLitExpr that) {
-		return IntLitExpr.of(this.value.add(that.value));
+		if (this.isLong && that.isLong) {
+			try {
+				return IntLitExpr.of(Math.addExact(this.longValue, that.longValue));
+			} catch (final ArithmeticException e) {
+				// Overflow, fall back to BigInteger
+			}
+		}
+		return IntLitExpr.of(this.getValue().add(that.getValue()));
 	}
 
 	public IntLitExpr sub(final IntLitExpr that) {
-		return IntLitExpr.of(this.value.subtract(that.value));
+		if (this.isLong && that.isLong) {
+			try {
+				return IntLitExpr.of(Math.subtractExact(this.longValue, that.longValue));
+			} catch (final ArithmeticException e) {
+				// Overflow, fall back to BigInteger
+			}
+		}
+		return IntLitExpr.of(this.getValue().subtract(that.getValue()));
+	}
+
+	public IntLitExpr mul(final IntLitExpr that) {
+		if (this.isLong && that.isLong) {
+			try {
+				return IntLitExpr.of(Math.multiplyExact(this.longValue, that.longValue));
+			} catch (final ArithmeticException e) {
+				// Overflow, fall back to BigInteger
+			}
+		}
+		return IntLitExpr.of(this.getValue().multiply(that.getValue()));
 	}
 
 	public IntLitExpr neg() {
-		return IntLitExpr.of(this.value.negate());
+		if (isLong && longValue != Long.MIN_VALUE) {
+			return IntLitExpr.of(-longValue);
+		}
+		return IntLitExpr.of(this.getValue().negate());
 	}
 
 	public IntLitExpr pos() {
-		return IntLitExpr.of(this.value);
+		return this;
 	}
 
 	public IntLitExpr div(final IntLitExpr that) {
-		return IntLitExpr.of(this.value.divide(that.value));
+		if (this.isLong && that.isLong && !(this.longValue == Long.MIN_VALUE && that.longValue == -1)) {
+			return IntLitExpr.of(this.longValue / that.longValue);
+		}
+		return IntLitExpr.of(this.getValue().divide(that.getValue()));
 	}
 
 	public IntLitExpr mod(final IntLitExpr that) {
@@ -86,9 +161,12 @@ public final class IntLitExpr extends NullaryExpr<IntType> implements LitExpr<In
 		// 5 mod -3 = 2
 		// -5 mod 3 = 1
 		// -5 mod -3 = 1
-		var result = this.value.mod(that.value.abs());
+		if (this.isLong && that.isLong && that.longValue != Long.MIN_VALUE) {
+			return IntLitExpr.of(Math.floorMod(this.longValue, Math.abs(that.longValue)));
+		}
+		var result = this.getValue().mod(that.getValue().abs());
 		if (result.compareTo(BigInteger.ZERO) < 0) {
-			result = result.add(that.value.abs());
+			result = result.add(that.getValue().abs());
 		}
 		assert result.compareTo(BigInteger.ZERO) >= 0;
 		return IntLitExpr.of(result);
@@ -100,49 +178,71 @@ public final class IntLitExpr extends NullaryExpr<IntType> implements LitExpr<In
 		// 5 rem -3 = -2
 		// -5 rem 3 = 1
 		// -5 rem -3 = -1
-		final var thisAbs = this.value.abs();
-		final var thatAbs = that.value.abs();
-		if (this.value.compareTo(BigInteger.ZERO) < 0 && that.value.compareTo(BigInteger.ZERO) < 0) {
+		if (this.isLong && that.isLong && this.longValue != Long.MIN_VALUE && that.longValue != Long.MIN_VALUE) {
+			return IntLitExpr.of(longRem(this.longValue, that.longValue));
+		}
+		final var thisValue = this.getValue();
+		final var thatValue = that.getValue();
+		final var thisAbs = thisValue.abs();
+		final var thatAbs = thatValue.abs();
+		if (thisValue.compareTo(BigInteger.ZERO) < 0 && thatValue.compareTo(BigInteger.ZERO) < 0) {
 			var result = thisAbs.mod(thatAbs);
 			if (result.compareTo(BigInteger.ZERO) != 0) {
 				result = result.subtract(thatAbs);
 			}
-			return new IntLitExpr(result);
-		} else if (this.value.compareTo(BigInteger.ZERO) >= 0 && that.value.compareTo(BigInteger.ZERO) < 0) {
-			return new IntLitExpr(thisAbs.mod(thatAbs).negate());
-		} else if (this.value.compareTo(BigInteger.ZERO) < 0 && that.value.compareTo(BigInteger.ZERO) >= 0) {
+			return IntLitExpr.of(result);
+		} else if (thisValue.compareTo(BigInteger.ZERO) >= 0 && thatValue.compareTo(BigInteger.ZERO) < 0) {
+			return IntLitExpr.of(thisAbs.mod(thatAbs).negate());
+		} else if (thisValue.compareTo(BigInteger.ZERO) < 0 && thatValue.compareTo(BigInteger.ZERO) >= 0) {
 			var result = thisAbs.mod(thatAbs);
 			if (result.compareTo(BigInteger.ZERO) != 0) {
 				result = thatAbs.subtract(result);
 			}
 			return IntLitExpr.of(result);
 		} else {
-			return IntLitExpr.of(this.value.mod(that.value));
+			return IntLitExpr.of(thisValue.mod(thatValue));
+		}
+	}
+
+	// Same semantics as rem, for operands whose absolute value fits into a long
+	private static long longRem(final long left, final long right) {
+		final long leftAbs = Math.abs(left);
+		final long rightAbs = Math.abs(right);
+		if (left < 0 && right < 0) {
+			final long result = leftAbs % rightAbs;
+			return result != 0 ? result - rightAbs : 0;
+		} else if (left >= 0 && right < 0) {
+			return -(leftAbs % rightAbs);
+		} else if (left < 0) {
+			final long result = leftAbs % rightAbs;
+			return result != 0 ? rightAbs - result : 0;
+		} else {
+			return left % right;
 		}
 	}
 
 	public BoolLitExpr eq(final IntLitExpr that) {
-		return Bool(this.value.compareTo(that.value) == 0);
+		return Bool(this.compareTo(that) == 0);
 	}
 
 	public BoolLitExpr neq(final IntLitExpr that) {
-		return Bool(this.value.compareTo(that.value) != 0);
+		return Bool(this.compareTo(that) != 0);
 	}
 
 	public BoolLitExpr lt(final IntLitExpr that) {
-		return Bool(this.value.compareTo(that.value) < 0);
+		return Bool(this.compareTo(that) < 0);
 	}
 
 	public BoolLitExpr leq(final IntLitExpr that) {
-		return Bool(this.value.compareTo(that.value) <= 0);
+		return Bool(this.compareTo(that) <= 0);
 	}
 
 	public BoolLitExpr gt(final IntLitExpr that) {
-		return Bool(this.value.compareTo(that.value) > 0);
+		return Bool(this.compareTo(that) > 0);
 	}
 
 	public BoolLitExpr geq(final IntLitExpr that) {
-		return Bool(this.value.compareTo(that.value) >= 0);
+		return Bool(this.compareTo(that) >= 0);
 	}
 
 	@Override
@@ -150,7 +250,7 @@ public final class IntLitExpr extends NullaryExpr<IntType> implements LitExpr<In
 		int result = hashCode;
 		if (result == 0) {
 			result = HASH_SEED;
-			result = 31 * result + value.hashCode();
+			result = 31 * result + (isLong ? Long.hashCode(longValue) : value.hashCode());
 			hashCode = result;
 		}
 		return result;
@@ -162,7 +262,7 @@ public final class IntLitExpr extends NullaryExpr<IntType> implements LitExpr<In
 			return true;
 		} else if (obj instanceof IntLitExpr) {
 			final IntLitExpr that = (IntLitExpr) obj;
-			return this.getValue().compareTo(that.getValue()) == 0;
+			return this.compareTo(that) == 0;
 		} else {
 			return false;
 		}
@@ -170,11 +270,14 @@ public final class IntLitExpr extends NullaryExpr<IntType> implements LitExpr<In
 
 	@Override
 	public String toString() {
-		return getValue().toString();
+		return isLong ? Long.toString(longValue) : value.toString();
 	}
 
 	@Override
 	public int compareTo(final IntLitExpr that) {
+		if (this.isLong && that.isLong) {
+			return Long.compare(this.longValue, that.longValue);
+		}
 		return this.getValue().compareTo(that.getValue());
 	}
 
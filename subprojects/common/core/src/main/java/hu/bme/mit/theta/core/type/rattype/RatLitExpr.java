@@ -27,30 +27,103 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Bool;
 import static hu.bme.mit.theta.core.type.rattype.RatExprs.Rat;
 
+/**
+ * Rational literal, always normalized (the denominator is positive and coprime with the
+ * numerator). If both the numerator and the denominator fit into a long, they are stored as longs
+ * and arithmetic uses overflow-checked long operations, promoting to {@link BigInteger} only on
+ * overflow. Integral literals in a small range around zero are cached.
+ */
 public final class RatLitExpr extends NullaryExpr<RatType> implements LitExpr<RatType>, Comparable<RatLitExpr> {
 
 	private static final int HASH_SEED = 149;
 
-	private final BigInteger num;
-	private final BigInteger denom;
+	private static final int CACHE_LOW = -128;
+	private static final int CACHE_HIGH = 1024;
+	private static final RatLitExpr[] CACHE = new RatLitExpr[CACHE_HIGH - CACHE_LOW + 1];
+
+	static {
+		for (int i = 0; i < CACHE.length; i++) {
+			CACHE[i] = new RatLitExpr(CACHE_LOW + i, 1, true, null, null);
+		}
+	}
+
+	// Only meaningful if isLong holds. Long.MIN_VALUE is never used, so that negation cannot overflow.
+	private final long longNum;
+	private final long longDenom;
+	private final boolean isLong;
+	// Always set if the numerator or the denominator does not fit into a long, created on demand otherwise
+	private volatile BigInteger num;
+	private volatile BigInteger denom;
 
 	private volatile int hashCode = 0;
 
-	private RatLitExpr(final BigInteger num, final BigInteger denom) {
+	private RatLitExpr(final long longNum, final long longDenom, final boolean isLong,
+					   final BigInteger num, final BigInteger denom) {
+		this.longNum = longNum;
+		this.longDenom = longDenom;
+		this.isLong = isLong;
+		this.num = num;
+		this.denom = denom;
+	}
+
+	public static RatLitExpr of(final BigInteger num, final BigInteger denom) {
 		checkArgument(denom.compareTo(BigInteger.ZERO) != 0);
 
+		if (fitsLong(num) && fitsLong(denom)) {
+			return of(num.longValue(), denom.longValue());
+		}
+
 		final var gcd = num.abs().gcd(denom.abs());
+		final BigInteger normalizedNum;
+		final BigInteger normalizedDenom;
 		if (denom.compareTo(BigInteger.ZERO) >= 0) {
-			this.num = num.divide(gcd);
-			this.denom = denom.divide(gcd);
+			normalizedNum = num.divide(gcd);
+			normalizedDenom = denom.divide(gcd);
+		} else {
+			normalizedNum = num.divide(gcd).negate();
+			normalizedDenom = denom.divide(gcd).negate();
+		}
+
+		if (fitsLong(normalizedNum) && fitsLong(normalizedDenom)) {
+			return create(normalizedNum.longValue(), normalizedDenom.longValue());
+		}
+		return new RatLitExpr(0, 0, false, normalizedNum, normalizedDenom);
+	}
+
+	public static RatLitExpr of(final long num, final long denom) {
+		checkArgument(denom != 0);
+
+		if (num == Long.MIN_VALUE || denom == Long.MIN_VALUE) {
+			return of(BigInteger.valueOf(num), BigInteger.valueOf(denom));
+		}
+
+		final long gcd = gcd(Math.abs(num), Math.abs(denom));
+		if (denom > 0) {
+			return create(num / gcd, denom / gcd);
 		} else {
-			this.num = num.divide(gcd).negate();
-			this.denom = denom.divide(gcd).negate();
+			return create(-num / gcd, -denom / gcd);
 		}
 	}
 
-	public static RatLitExpr of(final BigInteger num, final BigInteger denom) {
-		return new RatLitExpr(num, denom);
+	// Expects normalized values
+	private static RatLitExpr create(final long num, final long denom) {
+		if (denom == 1 && CACHE_LOW <= num && num <= CACHE_HIGH) {
+			return CACHE[(int) (num - CACHE_LOW)];
+		}
+		return new RatLitExpr(num, denom, true, null, null);
+	}
+
+	private static boolean fitsLong(final BigInteger value) {
+		return value.bitLength() < Long.SIZE && value.longValue() != Long.MIN_VALUE;
+	}
+
+	private static long gcd(long a, long b) {
+		while (b != 0) {
+			final long t = a % b;
+			a = b;
+			b = t;
+		}
+		return a;
 	}
 
 	@Override
@@ -64,18 +137,31 @@ public final class RatLitExpr extends NullaryExpr<RatType> implements LitExpr<Ra
 	}
 
 	public BigInteger getNum() {
-		return num;
+		BigInteger result = num;
+		if (result == null) {
+			result = BigInteger.valueOf(longNum);
+			num = result;
+		}
+		return result;
 	}
 
 	public BigInteger getDenom() {
-		return denom;
+		BigInteger result = denom;
+		if (result == null) {
+			result = BigInteger.valueOf(longDenom);
+			denom = result;
+		}
+		return result;
 	}
 
 	public int sign() {
-		return num.signum();
+		return isLong ? Long.signum(longNum) : num.signum();
 	}
 
 	public BigInteger floor() {
+		if (isLong) {
+			return BigInteger.valueOf(Math.floorDiv(longNum, longDenom));
+		}
 		if (num.compareTo(BigInteger.ZERO) >= 0 || num.mod(denom).compareTo(BigInteger.ZERO) == 0) {
 			return num.divide(denom);
 		} else {
@@ -84,6 +170,9 @@ public final class RatLitExpr extends NullaryExpr<RatType> implements LitExpr<Ra
 	}
 
 	public BigInteger ceil() {
+		if (isLong) {
+			return BigInteger.valueOf(-Math.floorDiv(-longNum, longDenom));
+		}
 		if (num.compareTo(BigInteger.ZERO) <= 0 || num.mod(denom).compareTo(BigInteger.ZERO) == 0) {
 			return num.divide(denom);
 		} else {
@@ -92,60 +181,103 @@ public final class RatLitExpr extends NullaryExpr<RatType> implements LitExpr<Ra
 	}
 
 	public RatLitExpr add(final RatLitExpr that) {
+		if (this.isLong && that.isLong) {
+			try {
+				return RatLitExpr.of(Math.addExact(Math.multiplyExact(this.longNum, that.longDenom),
+								Math.multiplyExact(this.longDenom, that.longNum)),
+						Math.multiplyExact(this.longDenom, that.longDenom));
+			} catch (final ArithmeticException e) {
+				// Overflow, fall back to BigInteger
+			}
+		}
 		return RatLitExpr.of(this.getNum().multiply(that.getDenom()).add(this.getDenom().multiply(that.getNum())),
 				this.getDenom().multiply(that.getDenom()));
 	}
 
 	public RatLitExpr sub(final RatLitExpr that) {
+		if (this.isLong && that.isLong) {
+			try {
+				return RatLitExpr.of(Math.subtractExact(Math.multiplyExact(this.longNum, that.longDenom),
+								Math.multiplyExact(this.longDenom, that.longNum)),
+						Math.multiplyExact(this.longDenom, that.longDenom));
+			} catch (final ArithmeticException e) {
+				// Overflow, fall back to BigInteger
+			}
+		}
 		return RatLitExpr.of(this.getNum().multiply(that.getDenom()).subtract(this.getDenom().multiply(that.getNum())),
 				this.getDenom().multiply(that.getDenom()));
 	}
 
 	public RatLitExpr pos() {
-		return RatLitExpr.of(this.getNum(), this.getDenom());
+		return this;
 	}
 
 	public RatLitExpr neg() {
+		if (isLong) {
+			return create(-longNum, longDenom);
+		}
 		return RatLitExpr.of(this.getNum().negate(), this.getDenom());
 	}
 
 	public RatLitExpr mul(final RatLitExpr that) {
+		if (this.isLong && that.isLong) {
+			try {
+				return RatLitExpr.of(Math.multiplyExact(this.longNum, that.longNum),
+						Math.multiplyExact(this.longDenom, that.longDenom));
+			} catch (final ArithmeticException e) {
+				// Overflow, fall back to BigInteger
+			}
+		}
 		return RatLitExpr.of(this.getNum().multiply(that.getNum()), this.getDenom().multiply(that.getDenom()));
 	}
 
 	public RatLitExpr div(final RatLitExpr that) {
+		if (this.isLong && that.isLong) {
+			try {
+				return RatLitExpr.of(Math.multiplyExact(this.longNum, that.longDenom),
+						Math.multiplyExact(this.longDenom, that.longNum));
+			} catch (final ArithmeticException e) {
+				// Overflow, fall back to BigInteger
+			}
+		}
 		return RatLitExpr.of(this.getNum().multiply(that.getDenom()), this.getDenom().multiply(that.getNum()));
 	}
 
 	public BoolLitExpr eq(final RatLitExpr that) {
-		return Bool(this.getNum().compareTo(that.getNum()) == 0 && this.getDenom().compareTo(that.getDenom()) == 0);
+		return Bool(this.equals(that));
 	}
 
 	public BoolLitExpr neq(final RatLitExpr that) {
-		return Bool(this.getNum().compareTo(that.getNum()) != 0 || this.getDenom().compareTo(that.getDenom()) != 0);
+		return Bool(!this.equals(that));
 	}
 
 	public BoolLitExpr lt(final RatLitExpr that) {
-		return Bool(this.getNum().multiply(that.getDenom()).compareTo(this.getDenom().multiply(that.getNum())) < 0);
+		return Bool(this.compareTo(that) < 0);
 	}
 
 	public BoolLitExpr leq(final RatLitExpr that) {
-		return Bool(this.getNum().multiply(that.getDenom()).compareTo(this.getDenom().multiply(that.getNum())) <= 0);
+		return Bool(this.compareTo(that) <= 0);
 	}
 
 	public BoolLitExpr gt(final RatLitExpr that) {
-		return Bool(this.getNum().multiply(that.getDenom()).compareTo(this.getDenom().multiply(that.getNum())) > 0);
+		return Bool(this.compareTo(that) > 0);
 	}
 
 	public BoolLitExpr geq(final RatLitExpr that) {
-		return Bool(this.getNum().multiply(that.getDenom()).compareTo(this.getDenom().multiply(that.getNum())) >= 0);
+		return Bool(this.compareTo(that) >= 0);
 	}
 
 	public RatLitExpr abs() {
+		if (isLong) {
+			return longNum < 0 ? create(-longNum, longDenom) : this;
+		}
 		return RatLitExpr.of(num.abs(), denom);
 	}
 
 	public RatLitExpr frac() {
+		if (isLong) {
+			return RatLitExpr.of(Math.floorMod(longNum, longDenom), longDenom);
+		}
 		return sub(of(floor(), BigInteger.ONE));
 	}
 
@@ -154,8 +286,13 @@ public final class RatLitExpr extends NullaryExpr<RatType> implements LitExpr<Ra
 		int result = hashCode;
 		if (result == 0) {
 			result = HASH_SEED;
-			result = 31 * result + num.hashCode();
-			result = 31 * result + denom.hashCode();
+			if (isLong) {
+				result = 31 * result + Long.hashCode(longNum);
+				result = 31 * result + Long.hashCode(longDenom);
+			} else {
+				result = 31 * result + num.hashCode();
+				result = 31 * result + denom.hashCode();
+			}
 			hashCode = result;
 		}
 		return hashCode;
@@ -167,6 +304,9 @@ public final class RatLitExpr extends NullaryExpr<RatType> implements LitExpr<Ra
 			return true;
 		} else if (obj instanceof RatLitExpr) {
 			final RatLitExpr that = (RatLitExpr) obj;
+			if (this.isLong && that.isLong) {
+				return this.longNum == that.longNum && this.longDenom == that.longDenom;
+			}
 			return (this.getNum().compareTo(that.getNum()) == 0 && this.getDenom().compareTo(that.getDenom()) == 0);
 		} else {
 			return false;
@@ -176,18 +316,35 @@ public final class RatLitExpr extends NullaryExpr<RatType> implements LitExpr<Ra
 	@Override
 	public String toString() {
 		final StringBuilder sb = new StringBuilder();
-		sb.append(getNum());
-		sb.append('%');
-		sb.append(getDenom());
+		if (isLong) {
+			sb.append(longNum);
+			sb.append('%');
+			sb.append(longDenom);
+		} else {
+			sb.append(getNum());
+			sb.append('%');
+			sb.append(getDenom());
+		}
 		return sb.toString();
 	}
 
 	@Override
 	public int compareTo(final RatLitExpr that) {
+		if (this.isLong && that.isLong) {
+			try {
+				return Long.compare(Math.multiplyExact(this.longNum, that.longDenom),
+						Math.multiplyExact(this.longDenom, that.longNum));
+			} catch (final ArithmeticException e) {
+				// Overflow, fall back to BigInteger
+			}
+		}
 		return this.getNum().multiply(that.getDenom()).compareTo(this.getDenom().multiply(that.getNum()));
 	}
 
-    public IntLitExpr toInt() {
+	public IntLitExpr toInt() {
+		if (isLong) {
+			return IntLitExpr.of(longNum / longDenom);
+		}
 		return IntLitExpr.of(num.divide(denom));
-    }
+	}
 }
@@ -20,8 +20,6 @@ import hu.bme.mit.theta.core.type.bvtype.BvLitExpr;
 
 import java.math.BigInteger;
 
-import static hu.bme.mit.theta.core.type.bvtype.BvExprs.Bv;
-
 public final class BvUtils {
 	private BvUtils() {
 
@@ -32,51 +30,23 @@ public final class BvUtils {
 	}
 
 	public static BigInteger unsignedBvLitExprToBigInteger(final BvLitExpr expr) {
-		BigInteger integer = BigInteger.ZERO;
-
-		for (int i = 0; i < expr.getType().getSize(); i++) {
-			if (expr.getValue()[expr.getType().getSize() - 1 - i]) {
-				integer = integer.setBit(i);
-			}
-		}
-
-		return integer;
+		return expr.toUnsignedBigInteger();
 	}
 
 	public static BigInteger signedBvLitExprToBigInteger(final BvLitExpr expr) {
-		BigInteger integer = unsignedBvLitExprToBigInteger(expr);
-
-		if (expr.getValue()[0]) {
-			integer = integer.subtract(BigInteger.TWO.pow(expr.getType().getSize()));
-		}
-
-		return integer;
+		return expr.toSignedBigInteger();
 	}
 
 	public static BvLitExpr bigIntegerToNeutralBvLitExpr(BigInteger integer, final int size) {
-		boolean[] values = getBvRepresentation(integer, size);
-		return Bv(values);
+		return BvLitExpr.of(integer, size, null);
 	}
 
 	public static BvLitExpr bigIntegerToUnsignedBvLitExpr(BigInteger integer, final int size) {
-		boolean[] values = getBvRepresentation(integer, size);
-		return Bv(values, false);
-	}
-
-	private static boolean[] getBvRepresentation(BigInteger integer, int size) {
-		boolean[] values = new boolean[size];
-		for (int i = 0; i < size; i++) {
-			values[size - 1 - i] = integer.testBit(i);
-		}
-		return values;
+		return BvLitExpr.of(integer, size, false);
 	}
 
 	public static BvLitExpr bigIntegerToSignedBvLitExpr(BigInteger integer, final int size) {
-		if (integer.compareTo(BigInteger.ZERO) < 0) {
-			integer = integer.add(BigInteger.TWO.pow(size));
-		}
-		boolean[] values = getBvRepresentation(integer, size);
-		return Bv(values, true);
+		return BvLitExpr.of(integer, size, true);
 	}
 
 	public static BigInteger fitBigIntegerIntoNeutralDomain(BigInteger integer, final int size) {
@@ -84,26 +54,14 @@ public final class BvUtils {
 	}
 
 	public static BigInteger fitBigIntegerIntoSignedDomain(BigInteger integer, final int size) {
-		while (integer.compareTo(BigInteger.TWO.pow(size - 1).negate()) < 0) {
-			integer = integer.add(BigInteger.TWO.pow(size));
+		final BigInteger unsigned = fitBigIntegerIntoUnsignedDomain(integer, size);
+		if (unsigned.testBit(size - 1)) {
+			return unsigned.subtract(BigInteger.ONE.shiftLeft(size));
 		}
-
-		while (integer.compareTo(BigInteger.TWO.pow(size - 1)) >= 0) {
-			integer = integer.subtract(BigInteger.TWO.pow(size));
-		}
-
-		return integer;
+		return unsigned;
 	}
 
 	public static BigInteger fitBigIntegerIntoUnsignedDomain(BigInteger integer, final int size) {
-		while (integer.compareTo(BigInteger.ZERO) < 0) {
-			integer = integer.add(BigInteger.TWO.pow(size));
-		}
-
-		while (integer.compareTo(BigInteger.TWO.pow(size)) >= 0) {
-			integer = integer.subtract(BigInteger.TWO.pow(size));
-		}
-
-		return integer;
+		return integer.mod(BigInteger.ONE.shiftLeft(size));
 	}
 }
@@ -0,0 +1,389 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.core.utils;
+
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.abstracttype.AbstractExprs;
+import hu.bme.mit.theta.core.type.abstracttype.AddExpr;
+import hu.bme.mit.theta.core.type.abstracttype.DivExpr;
+import hu.bme.mit.theta.core.type.abstracttype.EqExpr;
+import hu.bme.mit.theta.core.type.abstracttype.GeqExpr;
+import hu.bme.mit.theta.core.type.abstracttype.GtExpr;
+import hu.bme.mit.theta.core.type.abstracttype.LeqExpr;
+import hu.bme.mit.theta.core.type.abstracttype.LtExpr;
+import hu.bme.mit.theta.core.type.abstracttype.ModExpr;
+import hu.bme.mit.theta.core.type.abstracttype.MulExpr;
+import hu.bme.mit.theta.core.type.abstracttype.NegExpr;
+import hu.bme.mit.theta.core.type.abstracttype.NeqExpr;
+import hu.bme.mit.theta.core.type.abstracttype.RemExpr;
+import hu.bme.mit.theta.core.type.abstracttype.SubExpr;
+import hu.bme.mit.theta.core.type.anytype.IteExpr;
+import hu.bme.mit.theta.core.type.anytype.RefExpr;
+import hu.bme.mit.theta.core.type.booltype.AndExpr;
+import hu.bme.mit.theta.core.type.booltype.BoolLitExpr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.type.booltype.IffExpr;
+import hu.bme.mit.theta.core.type.booltype.ImplyExpr;
+import hu.bme.mit.theta.core.type.booltype.NotExpr;
+import hu.bme.mit.theta.core.type.booltype.OrExpr;
+import hu.bme.mit.theta.core.type.booltype.XorExpr;
+import hu.bme.mit.theta.core.type.bvtype.BvLitExpr;
+import hu.bme.mit.theta.core.type.bvtype.BvType;
+import hu.bme.mit.theta.core.type.inttype.IntLitExpr;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+import hu.bme.mit.theta.core.type.rattype.RatLitExpr;
+import hu.bme.mit.theta.core.type.rattype.RatType;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.And;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Bool;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Iff;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Imply;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Not;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Or;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Xor;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static hu.bme.mit.theta.core.type.rattype.RatExprs.Rat;
+
+/**
+ * Compact binary encoding of quantifier-free expressions over variables, e.g., for persisting
+ * precisions. Variables are encoded by their names and are resolved when reading, so the
+ * expressions can be read back in a later run on the same model. The supported expressions
+ * are Boolean connectives, if-then-else, Boolean, integer, rational and bitvector literals,
+ * integer and rational arithmetic and comparison, and (dis)equality of bitvectors.
+ */
+public final class ExprCodec {
+
+	private static final int LIT_FALSE = 0;
+	private static final int LIT_TRUE = 1;
+	private static final int LIT_INT = 2;
+	private static final int LIT_RAT = 3;
+	private static final int LIT_BV = 4;
+	private static final int REF = 5;
+	private static final int NOT = 6;
+	private static final int AND = 7;
+	private static final int OR = 8;
+	private static final int IMPLY = 9;
+	private static final int IFF = 10;
+	private static final int XOR = 11;
+	private static final int ITE = 12;
+	private static final int EQ = 13;
+	private static final int NEQ = 14;
+	private static final int LT = 15;
+	private static final int LEQ = 16;
+	private static final int GT = 17;
+	private static final int GEQ = 18;
+	private static final int ADD = 19;
+	private static final int SUB = 20;
+	private static final int MUL = 21;
+	private static final int DIV = 22;
+	private static final int MOD = 23;
+	private static final int REM = 24;
+	private static final int NEG = 25;
+
+	private static final int BV_UNSIGNED = 0;
+	private static final int BV_SIGNED = 1;
+	private static final int BV_UNKNOWN = 2;
+
+	private ExprCodec() {
+	}
+
+	/**
+	 * Check whether an expression can be encoded.
+	 */
+	public static boolean isSupported(final Expr<?> expr) {
+		if (getTag(expr) < 0) {
+			return false;
+		}
+		for (final Expr<?> op : expr.getOps()) {
+			if (!isSupported(op)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Encode an expression.
+	 *
+	 * @throws UnsupportedOperationException if the expression is not supported, see
+	 *                                       {@link #isSupported(Expr)}
+	 */
+	public static void write(final Expr<?> expr, final DataOutput out) throws IOException {
+		final int tag = getTag(expr);
+		if (tag < 0) {
+			throw new UnsupportedOperationException("Cannot encode expression: " + expr);
+		}
+		out.writeByte(tag);
+
+		switch (tag) {
+			case LIT_FALSE:
+			case LIT_TRUE:
+				return;
+			case LIT_INT:
+				writeBigInteger(((IntLitExpr) expr).getValue(), out);
+				return;
+			case LIT_RAT:
+				writeBigInteger(((RatLitExpr) expr).getNum(), out);
+				writeBigInteger(((RatLitExpr) expr).getDenom(), out);
+				return;
+			case LIT_BV:
+				final BvLitExpr bv = (BvLitExpr) expr;
+				final Boolean signed = bv.getType().getSigned();
+				writeVarInt(bv.getType().getSize(), out);
+				out.writeByte(signed == null ? BV_UNKNOWN : signed ? BV_SIGNED : BV_UNSIGNED);
+				writeBigInteger(bv.toUnsignedBigInteger(), out);
+				return;
+			case REF:
+				out.writeUTF(((RefExpr<?>) expr).getDecl().getName());
+				return;
+			case AND:
+			case OR:
+			case ADD:
+			case MUL:
+				writeVarInt(expr.getOps().size(), out);
+				break;
+			default:
+				break;
+		}
+		for (final Expr<?> op : expr.getOps()) {
+			write(op, out);
+		}
+	}
+
+	/**
+	 * Decode an expression, resolving variables by their names with a lookup function that
+	 * returns null for unknown names.
+	 *
+	 * @throws IOException if the input is malformed or refers to an unknown variable
+	 */
+	public static Expr<?> read(final DataInput in, final Function<String, ? extends VarDecl<?>> varLookup)
+			throws IOException {
+		final int tag = in.readUnsignedByte();
+		try {
+			switch (tag) {
+				case LIT_FALSE:
+					return Bool(false);
+				case LIT_TRUE:
+					return Bool(true);
+				case LIT_INT:
+					return Int(readBigInteger(in));
+				case LIT_RAT:
+					final BigInteger num = readBigInteger(in);
+					return Rat(num, readBigInteger(in));
+				case LIT_BV:
+					final int size = readVarInt(in);
+					final int signedness = in.readUnsignedByte();
+					final Boolean signed = signedness == BV_UNKNOWN ? null : signedness == BV_SIGNED;
+					return BvLitExpr.of(readBigInteger(in), size, signed);
+				case REF:
+					final String name = in.readUTF();
+					final VarDecl<?> var = varLookup.apply(name);
+					if (var == null) {
+						throw new IOException("Unknown variable: " + name);
+					}
+					return var.getRef();
+				case NOT:
+					return Not(readBool(in, varLookup));
+				case AND:
+					return And(readBools(in, varLookup));
+				case OR:
+					return Or(readBools(in, varLookup));
+				case IMPLY:
+					return Imply(readBool(in, varLookup), readBool(in, varLookup));
+				case IFF:
+					return Iff(readBool(in, varLookup), readBool(in, varLookup));
+				case XOR:
+					return Xor(readBool(in, varLookup), readBool(in, varLookup));
+				case ITE:
+					return AbstractExprs.Ite(readBool(in, varLookup), read(in, varLookup), read(in, varLookup));
+				case EQ:
+					return AbstractExprs.Eq(read(in, varLookup), read(in, varLookup));
+				case NEQ:
+					return AbstractExprs.Neq(read(in, varLookup), read(in, varLookup));
+				case LT:
+					return AbstractExprs.Lt(read(in, varLookup), read(in, varLookup));
+				case LEQ:
+					return AbstractExprs.Leq(read(in, varLookup), read(in, varLookup));
+				case GT:
+					return AbstractExprs.Gt(read(in, varLookup), read(in, varLookup));
+				case GEQ:
+					return AbstractExprs.Geq(read(in, varLookup), read(in, varLookup));
+				case ADD:
+					return AbstractExprs.Add(readAll(in, varLookup));
+				case SUB:
+					return AbstractExprs.Sub(read(in, varLookup), read(in, varLookup));
+				case MUL:
+					return AbstractExprs.Mul(readAll(in, varLookup));
+				case DIV:
+					return AbstractExprs.Div(read(in, varLookup), read(in, varLookup));
+				case MOD:
+					return AbstractExprs.Mod(read(in, varLookup), read(in, varLookup));
+				case REM:
+					return AbstractExprs.Rem(read(in, varLookup), read(in, varLookup));
+				case NEG:
+					return AbstractExprs.Neg(read(in, varLookup));
+				default:
+					throw new IOException("Unknown expression tag: " + tag);
+			}
+		} catch (final IllegalArgumentException | ClassCastException e) {
+			throw new IOException("Malformed expression", e);
+		}
+	}
+
+	private static int getTag(final Expr<?> expr) {
+		if (expr instanceof BoolLitExpr) {
+			return ((BoolLitExpr) expr).getValue() ? LIT_TRUE : LIT_FALSE;
+		} else if (expr instanceof IntLitExpr) {
+			return LIT_INT;
+		} else if (expr instanceof RatLitExpr) {
+			return LIT_RAT;
+		} else if (expr instanceof BvLitExpr) {
+			return LIT_BV;
+		} else if (expr instanceof RefExpr) {
+			return ((RefExpr<?>) expr).getDecl() instanceof VarDecl ? REF : -1;
+		} else if (expr instanceof NotExpr) {
+			return NOT;
+		} else if (expr instanceof AndExpr) {
+			return AND;
+		} else if (expr instanceof OrExpr) {
+			return OR;
+		} else if (expr instanceof ImplyExpr) {
+			return IMPLY;
+		} else if (expr instanceof IffExpr) {
+			return IFF;
+		} else if (expr instanceof XorExpr) {
+			return XOR;
+		} else if (expr instanceof IteExpr) {
+			return ITE;
+		}
+
+		// Operations of abstract types are only decoded unambiguously for these operand types
+		final boolean arithmetic = !expr.getOps().isEmpty()
+				&& expr.getOps().stream().allMatch(op -> op.getType() instanceof IntType || op.getType() instanceof RatType);
+		final boolean bitvector = !expr.getOps().isEmpty()
+				&& expr.getOps().stream().allMatch(op -> op.getType() instanceof BvType);
+		if (expr instanceof EqExpr && (arithmetic || bitvector)) {
+			return EQ;
+		} else if (expr instanceof NeqExpr && (arithmetic || bitvector)) {
+			return NEQ;
+		} else if (!arithmetic) {
+			return -1;
+		} else if (expr instanceof LtExpr) {
+			return LT;
+		} else if (expr instanceof LeqExpr) {
+			return LEQ;
+		} else if (expr instanceof GtExpr) {
+			return GT;
+		} else if (expr instanceof GeqExpr) {
+			return GEQ;
+		} else if (expr instanceof AddExpr) {
+			return ADD;
+		} else if (expr instanceof SubExpr) {
+			return SUB;
+		} else if (expr instanceof MulExpr) {
+			return MUL;
+		} else if (expr instanceof DivExpr) {
+			return DIV;
+		} else if (expr instanceof ModExpr) {
+			return MOD;
+		} else if (expr instanceof RemExpr) {
+			return REM;
+		} else if (expr instanceof NegExpr) {
+			return NEG;
+		} else {
+			return -1;
+		}
+	}
+
+	private static Expr<BoolType> readBool(final DataInput in, final Function<String, ? extends VarDecl<?>> varLookup)
+			throws IOException {
+		return TypeUtils.cast(read(in, varLookup), Bool());
+	}
+
+	private static List<Expr<BoolType>> readBools(final DataInput in,
+												  final Function<String, ? extends VarDecl<?>> varLookup) throws IOException {
+		final int size = readVarInt(in);
+		final List<Expr<BoolType>> ops = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			ops.add(readBool(in, varLookup));
+		}
+		return ops;
+	}
+
+	private static List<Expr<?>> readAll(final DataInput in, final Function<String, ? extends VarDecl<?>> varLookup)
+			throws IOException {
+		final int size = readVarInt(in);
+		final List<Expr<?>> ops = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			ops.add(read(in, varLookup));
+		}
+		return ops;
+	}
+
+	private static void writeBigInteger(final BigInteger value, final DataOutput out) throws IOException {
+		if (value.bitLength() < Long.SIZE) {
+			out.writeByte(0);
+			out.writeLong(value.longValue());
+		} else {
+			final byte[] bytes = value.toByteArray();
+			out.writeByte(1);
+			writeVarInt(bytes.length, out);
+			out.write(bytes);
+		}
+	}
+
+	private static BigInteger readBigInteger(final DataInput in) throws IOException {
+		if (in.readUnsignedByte() == 0) {
+			return BigInteger.valueOf(in.readLong());
+		} else {
+			final byte[] bytes = new byte[readVarInt(in)];
+			in.readFully(bytes);
+			return new BigInteger(bytes);
+		}
+	}
+
+	/**
+	 * Write a non-negative integer with 7 bits per byte, small integers taking a single byte.
+	 */
+	public static void writeVarInt(int value, final DataOutput out) throws IOException {
+		while ((value & ~0x7F) != 0) {
+			out.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte(value);
+	}
+
+	public static int readVarInt(final DataInput in) throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+			final int b = in.readUnsignedByte();
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IOException("Malformed integer");
+	}
+}
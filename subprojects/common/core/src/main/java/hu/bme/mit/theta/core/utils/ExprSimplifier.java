@@ -142,7 +142,6 @@ import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Bool;
 import static hu.bme.mit.theta.core.type.booltype.BoolExprs.False;
 import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Not;
 import static hu.bme.mit.theta.core.type.booltype.BoolExprs.True;
-import static hu.bme.mit.theta.core.type.bvtype.BvExprs.Bv;
 import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
 import static hu.bme.mit.theta.core.type.rattype.RatExprs.Rat;
 
@@ -1225,7 +1224,8 @@ public final class ExprSimplifier {
 				ops.add(opVisited);
 			}
 		}
-		BvLitExpr value = Bv(new boolean[expr.getType().getSize()]);
+		final BvLitExpr ZERO = BvLitExpr.of(0, expr.getType().getSize(), null);
+		BvLitExpr value = ZERO;
 
 		for (final Iterator<Expr<BvType>> iterator = ops.iterator(); iterator.hasNext(); ) {
 			final Expr<BvType> op = iterator.next();
@@ -1236,12 +1236,12 @@ public final class ExprSimplifier {
 			}
 		}
 
-		if (!value.eq(Bv(new boolean[expr.getType().getSize()])).getValue()) {
+		if (!value.equals(ZERO)) {
 			ops.add(value);
 		}
 
 		if (ops.isEmpty()) {
-			return Bv(new boolean[expr.getType().getSize()]);
+			return ZERO;
 		} else if (ops.size() == 1) {
 			return Utils.singleElementOf(ops);
 		}
@@ -1261,7 +1261,7 @@ public final class ExprSimplifier {
 
 		if (leftOp instanceof RefExpr && rightOp instanceof RefExpr) {
 			if (leftOp.equals(rightOp)) {
-				return Bv(new boolean[expr.getType().getSize()]);
+				return BvLitExpr.of(0, expr.getType().getSize(), null);
 			}
 		}
 
@@ -1299,9 +1299,8 @@ public final class ExprSimplifier {
 			}
 		}
 
-		final BvLitExpr ZERO = Bv(new boolean[expr.getType().getSize()]);
-		final BvLitExpr ONE = Bv(new boolean[expr.getType().getSize()]);
-		ONE.getValue()[expr.getType().getSize() - 1] = true; // 1
+		final BvLitExpr ZERO = BvLitExpr.of(0, expr.getType().getSize(), null);
+		final BvLitExpr ONE = BvLitExpr.of(1, expr.getType().getSize(), null);
 
 		BvLitExpr value = ONE;
 		for (final Iterator<Expr<BvType>> iterator = ops.iterator(); iterator.hasNext(); ) {
@@ -1341,9 +1340,7 @@ public final class ExprSimplifier {
 
 		if (leftOp instanceof RefExpr && rightOp instanceof RefExpr) {
 			if (leftOp.equals(rightOp)) {
-				final BvLitExpr ONE = Bv(new boolean[expr.getType().getSize()]);
-				ONE.getValue()[expr.getType().getSize() - 1] = true; // 1
-				return ONE;
+				return BvLitExpr.of(1, expr.getType().getSize(), null);
 			}
 		}
 
@@ -1362,9 +1359,7 @@ public final class ExprSimplifier {
 
 		if (leftOp instanceof RefExpr && rightOp instanceof RefExpr) {
 			if (leftOp.equals(rightOp)) {
-				final BvLitExpr ONE = Bv(new boolean[expr.getType().getSize()]);
-				ONE.getValue()[expr.getType().getSize() - 1] = true; // 1
-				return ONE;
+				return BvLitExpr.of(1, expr.getType().getSize(), null);
 			}
 		}
 
@@ -1383,7 +1378,7 @@ public final class ExprSimplifier {
 
 		if (leftOp instanceof RefExpr && rightOp instanceof RefExpr) {
 			if (leftOp.equals(rightOp)) {
-				return Bv(new boolean[expr.getType().getSize()]);
+				return BvLitExpr.of(0, expr.getType().getSize(), null);
 			}
 		}
 
@@ -1402,7 +1397,7 @@ public final class ExprSimplifier {
 
 		if (leftOp instanceof RefExpr && rightOp instanceof RefExpr) {
 			if (leftOp.equals(rightOp)) {
-				return Bv(new boolean[expr.getType().getSize()]);
+				return BvLitExpr.of(0, expr.getType().getSize(), null);
 			}
 		}
 
@@ -1421,7 +1416,7 @@ public final class ExprSimplifier {
 
 		if (leftOp instanceof RefExpr && rightOp instanceof RefExpr) {
 			if (leftOp.equals(rightOp)) {
-				return Bv(new boolean[expr.getType().getSize()]);
+				return BvLitExpr.of(0, expr.getType().getSize(), null);
 			}
 		}
 
@@ -1440,10 +1435,7 @@ public final class ExprSimplifier {
 				ops.add(opVisited);
 			}
 		}
-		BvLitExpr ONES = Bv(new boolean[expr.getType().getSize()]);
-		for (int i = 0; i < expr.getType().getSize(); i++) {
-			ONES.getValue()[i] = true;
-		}
+		final BvLitExpr ONES = BvLitExpr.of(-1, expr.getType().getSize(), null);
 
 		BvLitExpr value = ONES;
 
@@ -1481,7 +1473,7 @@ public final class ExprSimplifier {
 				ops.add(opVisited);
 			}
 		}
-		BvLitExpr ZEROS = Bv(new boolean[expr.getType().getSize()]);
+		final BvLitExpr ZEROS = BvLitExpr.of(0, expr.getType().getSize(), null);
 
 		BvLitExpr value = ZEROS;
 
@@ -1519,7 +1511,7 @@ public final class ExprSimplifier {
 				ops.add(opVisited);
 			}
 		}
-		BvLitExpr ZEROS = Bv(new boolean[expr.getType().getSize()]);
+		final BvLitExpr ZEROS = BvLitExpr.of(0, expr.getType().getSize(), null);
 
 		BvLitExpr value = ZEROS;
 
@@ -384,6 +384,18 @@ public class EvaluationTest {
 		assertEquals(Int(100), evaluate(Read(arr2, Int(5))));
 	}
 
+	@Test
+	public void testWriteOrder() {
+		var elems = new ArrayList<Tuple2<? extends Expr<IntType>, ? extends Expr<IntType>>>();
+		var arr = Array(elems, Int(100), Array(Int(), Int()));
+
+		var arr1 = evaluate(Write(Write(arr, Int(0), Int(1)), Int(1), Int(2)));
+		var arr2 = evaluate(Write(Write(Write(arr, Int(1), Int(2)), Int(0), Int(5)), Int(0), Int(1)));
+		assertEquals(arr1, arr2);
+		assertEquals(arr1.hashCode(), arr2.hashCode());
+		assertEquals(Int(100), evaluate(Read(arr, Int(0))));
+	}
+
 	@Test
 	public void testArrayInit() {
 		var elems = new ArrayList<Tuple2<Expr<IntType>, Expr<IntType>>>();
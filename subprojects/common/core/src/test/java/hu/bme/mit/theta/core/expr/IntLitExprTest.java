@@ -0,0 +1,152 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.core.expr;
+
+import hu.bme.mit.theta.core.type.inttype.IntLitExpr;
+import hu.bme.mit.theta.core.type.rattype.RatLitExpr;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static hu.bme.mit.theta.core.type.rattype.RatExprs.Rat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Checks that integer and rational literals give the same results on both sides of the long range.
+ */
+public final class IntLitExprTest {
+
+	private static final int ITERATIONS = 2000;
+
+	private static final BigInteger MIN = BigInteger.valueOf(Long.MIN_VALUE);
+	private static final BigInteger MAX = BigInteger.valueOf(Long.MAX_VALUE);
+
+	@Test
+	public void testIntArithmetic() {
+		final Random random = new Random(0);
+		for (int i = 0; i < ITERATIONS; i++) {
+			final BigInteger a = randomValue(random);
+			final BigInteger b = randomValue(random);
+			final IntLitExpr x = IntLitExpr.of(a);
+			final IntLitExpr y = IntLitExpr.of(b);
+
+			assertEquals(a, x.getValue());
+			assertEquals(a.toString(), x.toString());
+			assertEquals(a.add(b), x.add(y).getValue());
+			assertEquals(a.subtract(b), x.sub(y).getValue());
+			assertEquals(a.multiply(b), x.mul(y).getValue());
+			assertEquals(a.negate(), x.neg().getValue());
+			assertEquals(a.compareTo(b), x.compareTo(y));
+			assertEquals(a.equals(b), x.equals(y));
+			assertEquals(a.compareTo(b) < 0, x.lt(y).getValue());
+			assertEquals(a.equals(b), x.eq(y).getValue());
+			if (b.signum() != 0) {
+				assertEquals(a.divide(b), x.div(y).getValue());
+				assertEquals(a.mod(b.abs()), x.mod(y).getValue());
+				assertEquals(rem(a, b), x.rem(y).getValue());
+			}
+		}
+	}
+
+	@Test
+	public void testIntRepresentation() {
+		final IntLitExpr big = IntLitExpr.of(MAX.add(BigInteger.ONE));
+		final IntLitExpr small = big.sub(Int(1));
+		assertEquals(IntLitExpr.of(Long.MAX_VALUE), small);
+		assertEquals(IntLitExpr.of(Long.MAX_VALUE).hashCode(), small.hashCode());
+		assertEquals(big, IntLitExpr.of(Long.MAX_VALUE).add(Int(1)));
+		assertEquals(big.hashCode(), IntLitExpr.of(Long.MAX_VALUE).add(Int(1)).hashCode());
+		assertSame(Int(0), IntLitExpr.of(BigInteger.ZERO));
+		assertSame(Int(1), Int(3).sub(Int(2)));
+	}
+
+	@Test
+	public void testRatArithmetic() {
+		final Random random = new Random(1);
+		for (int i = 0; i < ITERATIONS; i++) {
+			final BigInteger an = randomValue(random);
+			final BigInteger ad = nonZero(randomValue(random));
+			final BigInteger bn = randomValue(random);
+			final BigInteger bd = nonZero(randomValue(random));
+			final RatLitExpr x = RatLitExpr.of(an, ad);
+			final RatLitExpr y = RatLitExpr.of(bn, bd);
+
+			assertEquals(an.signum() * ad.signum(), x.sign());
+			final int cmp = an.multiply(bd).subtract(bn.multiply(ad)).multiply(ad).multiply(bd).signum();
+			assertEquals(cmp, Integer.signum(x.compareTo(y)));
+			assertEquals(cmp > 0, x.gt(y).getValue());
+			assertEquals(cmp == 0, x.eq(y).getValue());
+			assertEquals(RatLitExpr.of(an.multiply(bd).add(bn.multiply(ad)), ad.multiply(bd)), x.add(y));
+			assertEquals(RatLitExpr.of(an.multiply(bd).subtract(bn.multiply(ad)), ad.multiply(bd)), x.sub(y));
+			assertEquals(RatLitExpr.of(an.multiply(bn), ad.multiply(bd)), x.mul(y));
+			assertEquals(RatLitExpr.of(an.negate(), ad), x.neg());
+			assertEquals(x, x.neg().neg());
+			assertEquals(x.hashCode(), RatLitExpr.of(an.multiply(BigInteger.TWO), ad.multiply(BigInteger.TWO)).hashCode());
+			if (bn.signum() != 0) {
+				assertEquals(RatLitExpr.of(an.multiply(bd), ad.multiply(bn)), x.div(y));
+			}
+			assertEquals(x.getNum().divide(x.getDenom()), x.toInt().getValue());
+			assertEquals(x, x.frac().add(RatLitExpr.of(x.floor(), BigInteger.ONE)));
+			assertEquals(x.floor().add(x.frac().sign() == 0 ? BigInteger.ZERO : BigInteger.ONE), x.ceil());
+		}
+	}
+
+	@Test
+	public void testRatRepresentation() {
+		assertEquals(Rat(1, 2), RatLitExpr.of(Long.MIN_VALUE, Long.MIN_VALUE).div(Rat(2, 1)));
+		assertEquals(RatLitExpr.of(MIN.negate(), BigInteger.ONE), RatLitExpr.of(Long.MIN_VALUE, -1));
+		assertSame(Rat(3, 1), Rat(6, 2));
+		assertEquals("-1%2", Rat(2, -4).toString());
+	}
+
+	// Reference implementation of the semantics of IntLitExpr.rem
+	private static BigInteger rem(final BigInteger a, final BigInteger b) {
+		final BigInteger result = a.abs().mod(b.abs());
+		if (result.signum() == 0) {
+			return result;
+		} else if (a.signum() < 0 && b.signum() < 0) {
+			return result.subtract(b.abs());
+		} else if (b.signum() < 0) {
+			return result.negate();
+		} else if (a.signum() < 0) {
+			return b.abs().subtract(result);
+		} else {
+			return result;
+		}
+	}
+
+	private static BigInteger nonZero(final BigInteger value) {
+		return value.signum() == 0 ? BigInteger.ONE : value;
+	}
+
+	private static BigInteger randomValue(final Random random) {
+		switch (random.nextInt(5)) {
+			case 0:
+				return BigInteger.valueOf(random.nextInt(21) - 10);
+			case 1:
+				return MAX.subtract(BigInteger.valueOf(random.nextInt(3)));
+			case 2:
+				return MIN.add(BigInteger.valueOf(random.nextInt(3) - 1));
+			case 3:
+				return new BigInteger(70, random).subtract(BigInteger.ONE.shiftLeft(69));
+			default:
+				return BigInteger.valueOf(random.nextLong() >> random.nextInt(64));
+		}
+	}
+}
@@ -0,0 +1,204 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.core.type;
+
+import hu.bme.mit.theta.core.type.bvtype.BvLitExpr;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Random;
+
+import static hu.bme.mit.theta.core.type.bvtype.BvExprs.BvType;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares the operations of bitvector literals with a reference implementation on BigIntegers,
+ * both for single-word and multi-word bitvectors.
+ */
+@RunWith(Parameterized.class)
+public final class BvLitExprTest {
+
+	private static final int ITERATIONS = 200;
+
+	@Parameter(value = 0)
+	public int size;
+
+	@Parameters(name = "size: {0}")
+	public static Collection<Object[]> data() {
+		return Arrays.asList(new Object[][]{
+				{1}, {4}, {32}, {63}, {64}, {65}, {100}, {128}, {130}
+		});
+	}
+
+	@Test
+	public void testConversions() {
+		final Random random = new Random(size);
+		for (int i = 0; i < ITERATIONS; i++) {
+			final BigInteger a = randomValue(random, size);
+			final BvLitExpr lit = BvLitExpr.of(a, size, null);
+			assertEquals(a, lit.toUnsignedBigInteger());
+			assertEquals(signed(a, size), lit.toSignedBigInteger());
+			assertEquals(lit, BvLitExpr.of(lit.getValue()));
+			assertEquals(lit, BvLitExpr.of(signed(a, size), size, null));
+			assertArrayEquals(lit.getValue(), BvLitExpr.of(lit.getValue(), true).getValue());
+			assertEquals(size + "'b" + padded(a.toString(2), size), lit.toString());
+		}
+		assertEquals(BvLitExpr.of(BigInteger.ONE.shiftLeft(size).subtract(BigInteger.ONE), size, null),
+				BvLitExpr.of(-1, size, null));
+	}
+
+	@Test
+	public void testArithmetic() {
+		final Random random = new Random(size);
+		final BigInteger modulus = BigInteger.ONE.shiftLeft(size);
+		for (int i = 0; i < ITERATIONS; i++) {
+			final BigInteger a = randomValue(random, size);
+			final BigInteger b = randomValue(random, size);
+			final BvLitExpr x = BvLitExpr.of(a, size, null);
+			final BvLitExpr y = BvLitExpr.of(b, size, null);
+			final BigInteger sa = signed(a, size);
+			final BigInteger sb = signed(b, size);
+
+			assertEquals(a.add(b).mod(modulus), x.add(y).toUnsignedBigInteger());
+			assertEquals(a.subtract(b).mod(modulus), x.sub(y).toUnsignedBigInteger());
+			assertEquals(a.multiply(b).mod(modulus), x.mul(y).toUnsignedBigInteger());
+			assertEquals(sa.negate().mod(modulus), x.neg().toUnsignedBigInteger());
+			assertEquals(a, x.pos().toUnsignedBigInteger());
+			if (b.signum() != 0) {
+				assertEquals(a.divide(b), x.udiv(y).toUnsignedBigInteger());
+				assertEquals(sa.divide(sb).mod(modulus), x.sdiv(y).toUnsignedBigInteger());
+				assertEquals(sa.remainder(sb).mod(modulus), x.srem(y).toUnsignedBigInteger());
+			}
+			if (sb.signum() > 0) {
+				assertEquals(sa.mod(sb), x.smod(y).toUnsignedBigInteger());
+				assertEquals(sa.mod(sb), x.urem(y).toUnsignedBigInteger());
+			}
+		}
+	}
+
+	@Test
+	public void testBitwise() {
+		final Random random = new Random(size);
+		final BigInteger modulus = BigInteger.ONE.shiftLeft(size);
+		for (int i = 0; i < ITERATIONS; i++) {
+			final BigInteger a = randomValue(random, size);
+			final BigInteger b = randomValue(random, size);
+			final BvLitExpr x = BvLitExpr.of(a, size, null);
+			final BvLitExpr y = BvLitExpr.of(b, size, null);
+
+			assertEquals(a.and(b), x.and(y).toUnsignedBigInteger());
+			assertEquals(a.or(b), x.or(y).toUnsignedBigInteger());
+			assertEquals(a.xor(b), x.xor(y).toUnsignedBigInteger());
+			assertEquals(a.not().mod(modulus), x.not().toUnsignedBigInteger());
+
+			final int shift = random.nextInt(size + 2);
+			final BvLitExpr amount = random.nextInt(8) == 0 ? y : BvLitExpr.of(shift, size, null);
+			final BigInteger k = amount.toUnsignedBigInteger();
+			final int saturated = k.min(BigInteger.valueOf(size)).intValue();
+			final int rotate = k.mod(BigInteger.valueOf(size)).intValue();
+			assertEquals(a.shiftLeft(saturated).mod(modulus), x.shiftLeft(amount).toUnsignedBigInteger());
+			assertEquals(a.shiftRight(saturated), x.logicShiftRight(amount).toUnsignedBigInteger());
+			assertEquals(signed(a, size).shiftRight(saturated).mod(modulus), x.arithShiftRight(amount).toUnsignedBigInteger());
+			assertEquals(a.shiftLeft(rotate).or(a.shiftRight(size - rotate)).mod(modulus),
+					x.rotateLeft(amount).toUnsignedBigInteger());
+			assertEquals(a.shiftRight(rotate).or(a.shiftLeft(size - rotate)).mod(modulus),
+					x.rotateRight(amount).toUnsignedBigInteger());
+		}
+	}
+
+	@Test
+	public void testResize() {
+		final Random random = new Random(size);
+		for (int i = 0; i < ITERATIONS; i++) {
+			final BigInteger a = randomValue(random, size);
+			final BvLitExpr x = BvLitExpr.of(a, size, null);
+			final int otherSize = 1 + random.nextInt(70);
+			final BigInteger b = randomValue(random, otherSize);
+			final BvLitExpr y = BvLitExpr.of(b, otherSize, null);
+
+			final BvLitExpr concat = x.concat(y);
+			assertEquals(size + otherSize, concat.getType().getSize());
+			assertEquals(a.shiftLeft(otherSize).or(b), concat.toUnsignedBigInteger());
+
+			final int from = random.nextInt(size);
+			final int until = from + 1 + random.nextInt(size - from);
+			final BvLitExpr extract = x.extract(Int(from), Int(until));
+			assertEquals(until - from, extract.getType().getSize());
+			assertEquals(a.shiftRight(from).mod(BigInteger.ONE.shiftLeft(until - from)), extract.toUnsignedBigInteger());
+
+			final int newSize = size + otherSize;
+			assertEquals(a, x.zext(BvType(newSize)).toUnsignedBigInteger());
+			assertEquals(signed(a, size).mod(BigInteger.ONE.shiftLeft(newSize)), x.sext(BvType(newSize)).toUnsignedBigInteger());
+		}
+	}
+
+	@Test
+	public void testComparisons() {
+		final Random random = new Random(size);
+		for (int i = 0; i < ITERATIONS; i++) {
+			final BigInteger a = randomValue(random, size);
+			final BigInteger b = random.nextInt(4) == 0 ? a : randomValue(random, size);
+			final BvLitExpr x = BvLitExpr.of(a, size, null);
+			final BvLitExpr y = BvLitExpr.of(b, size, null);
+			final int unsigned = a.compareTo(b);
+			final int signed = signed(a, size).compareTo(signed(b, size));
+
+			assertEquals(unsigned == 0, x.equals(y));
+			if (unsigned == 0) {
+				assertEquals(x.hashCode(), y.hashCode());
+			}
+			assertEquals(unsigned == 0, x.eq(y).getValue());
+			assertEquals(unsigned != 0, x.neq(y).getValue());
+			assertEquals(Integer.signum(unsigned), Integer.signum(x.compareTo(y)));
+			assertEquals(unsigned < 0, x.ult(y).getValue());
+			assertEquals(unsigned <= 0, x.ule(y).getValue());
+			assertEquals(unsigned > 0, x.ugt(y).getValue());
+			assertEquals(unsigned >= 0, x.uge(y).getValue());
+			assertEquals(signed < 0, x.slt(y).getValue());
+			assertEquals(signed <= 0, x.sle(y).getValue());
+			assertEquals(signed > 0, x.sgt(y).getValue());
+			assertEquals(signed >= 0, x.sge(y).getValue());
+		}
+	}
+
+	private static BigInteger randomValue(final Random random, final int size) {
+		final BigInteger modulus = BigInteger.ONE.shiftLeft(size);
+		switch (random.nextInt(4)) {
+			case 0:
+				return BigInteger.valueOf(random.nextInt(3)).mod(modulus);
+			case 1:
+				return modulus.subtract(BigInteger.valueOf(random.nextInt(3))).mod(modulus);
+			default:
+				return new BigInteger(size, random);
+		}
+	}
+
+	private static BigInteger signed(final BigInteger value, final int size) {
+		return value.testBit(size - 1) ? value.subtract(BigInteger.ONE.shiftLeft(size)) : value;
+	}
+
+	private static String padded(final String binary, final int size) {
+		return "0".repeat(size - binary.length()) + binary;
+	}
+}
@@ -0,0 +1,113 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.core.utils;
+
+import static hu.bme.mit.theta.core.decl.Decls.Const;
+import static hu.bme.mit.theta.core.decl.Decls.Var;
+import static hu.bme.mit.theta.core.type.anytype.Exprs.Ite;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.And;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Bool;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Iff;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Imply;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Not;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Or;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.True;
+import static hu.bme.mit.theta.core.type.bvtype.BvExprs.BvType;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Add;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Eq;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Leq;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Mod;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Mul;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Neg;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Sub;
+import static hu.bme.mit.theta.core.type.rattype.RatExprs.Gt;
+import static hu.bme.mit.theta.core.type.rattype.RatExprs.Rat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.type.bvtype.BvExprs;
+import hu.bme.mit.theta.core.type.bvtype.BvLitExpr;
+import hu.bme.mit.theta.core.type.bvtype.BvType;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+import hu.bme.mit.theta.core.type.rattype.RatType;
+
+public class ExprCodecTest {
+
+	private static final VarDecl<BoolType> A = Var("a", Bool());
+	private static final VarDecl<IntType> X = Var("x", Int());
+	private static final VarDecl<IntType> Y = Var("y", Int());
+	private static final VarDecl<RatType> R = Var("r", Rat());
+	private static final VarDecl<BvType> B = Var("b", BvType(8, false));
+
+	private static final Function<String, VarDecl<?>> LOOKUP = Arrays.<VarDecl<?>>asList(A, X, Y, R, B).stream()
+			.collect(Collectors.toMap(VarDecl::getName, v -> v))::get;
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		final List<Expr<?>> exprs = Arrays.asList(
+				True(),
+				And(A.getRef(), Or(Not(A.getRef()), Eq(X.getRef(), Int(-3)))),
+				Imply(Leq(Add(X.getRef(), Y.getRef(), Int(1)), Mul(X.getRef(), Int(2))), A.getRef()),
+				Iff(A.getRef(), Eq(Sub(X.getRef(), Neg(Y.getRef())), Mod(X.getRef(), Int(5)))),
+				Eq(X.getRef(), Int(new BigInteger("123456789012345678901234567890"))),
+				Gt(R.getRef(), Rat(1, 3)),
+				BvExprs.Eq(B.getRef(), BvLitExpr.of(200, 8, false)),
+				Eq(Ite(A.getRef(), X.getRef(), Y.getRef()), Int(0)));
+
+		for (final Expr<?> expr : exprs) {
+			assertTrue(ExprCodec.isSupported(expr));
+			assertEquals(expr, roundTrip(expr));
+		}
+	}
+
+	@Test
+	public void testUnsupported() {
+		assertFalse(ExprCodec.isSupported(Eq(Const("c", Int()).getRef(), Int(0))));
+		assertFalse(ExprCodec.isSupported(BvExprs.ULt(B.getRef(), B.getRef())));
+	}
+
+	@Test(expected = IOException.class)
+	public void testUnknownVar() throws IOException {
+		final Expr<BoolType> expr = Eq(Var("z", Int()).getRef(), Int(0));
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ExprCodec.write(expr, new DataOutputStream(bytes));
+		ExprCodec.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), LOOKUP);
+	}
+
+	private static Expr<?> roundTrip(final Expr<?> expr) throws IOException {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ExprCodec.write(expr, new DataOutputStream(bytes));
+		return ExprCodec.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), LOOKUP);
+	}
+}
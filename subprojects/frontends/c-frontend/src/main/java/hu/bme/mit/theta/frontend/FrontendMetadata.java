@@ -26,24 +26,30 @@ import java.util.Set;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+/**
+ * Global metadata store of the frontend. All accessors are synchronized, and lookups return
+ * snapshots, so that XCFA passes running concurrently on different procedures can use it safely.
+ */
 public class FrontendMetadata {
 	private static final Map<Tuple2<String, ?>, Set<Object>> lookupOwner = new LinkedHashMap<>();
 	private static final Map<Tuple2<Object, Integer>, Map<String, Object>> lookupKeyValue = new LinkedHashMap<>();
 
 
-	public static <T> Set<Object> lookupMetadata(String key, T value) {
-		return lookupOwner.getOrDefault(Tuple2.of(key, value), Set.of());
+	public static synchronized <T> Set<Object> lookupMetadata(String key, T value) {
+		final Set<Object> owners = lookupOwner.get(Tuple2.of(key, value));
+		return owners == null ? Set.of() : new LinkedHashSet<>(owners);
 	}
 
-	public static <X> Map<String, ?> lookupMetadata(X owner) {
-		return lookupKeyValue.getOrDefault(Tuple2.of(owner, getHashCode(owner)), Map.of());
+	public static synchronized <X> Map<String, ?> lookupMetadata(X owner) {
+		final Map<String, Object> keyValues = lookupKeyValue.get(Tuple2.of(owner, getHashCode(owner)));
+		return keyValues == null ? Map.of() : new LinkedHashMap<>(keyValues);
 	}
 
-	public static <X> Optional<Object> getMetadataValue(X owner, String key) {
+	public static synchronized <X> Optional<Object> getMetadataValue(X owner, String key) {
 		return Optional.ofNullable(lookupKeyValue.getOrDefault(Tuple2.of(owner, getHashCode(owner)), Map.of()).get(key));
 	}
 
-	public static <T, X> void create(X owner, String key, T value) {
+	public static synchronized <T, X> void create(X owner, String key, T value) {
 		checkNotNull(value);
 		Tuple2<String, T> tup = Tuple2.of(key, value);
 		Set<Object> set = lookupOwner.getOrDefault(tup, new LinkedHashSet<>());
@@ -59,7 +65,7 @@ public class FrontendMetadata {
 		else return System.identityHashCode(object);
 	}
 
-	public static void clear() {
+	public static synchronized void clear() {
 		lookupKeyValue.clear();
 		lookupOwner.clear();
 	}
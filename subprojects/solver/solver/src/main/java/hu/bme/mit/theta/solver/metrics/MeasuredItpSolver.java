@@ -0,0 +1,63 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package hu.bme.mit.theta.solver.metrics;
+
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.solver.Interpolant;
+import hu.bme.mit.theta.solver.ItpMarker;
+import hu.bme.mit.theta.solver.ItpMarkerTree;
+import hu.bme.mit.theta.solver.ItpPattern;
+import hu.bme.mit.theta.solver.ItpSolver;
+
+import java.util.Collection;
+
+final class MeasuredItpSolver extends MeasuredSolverBase<ItpSolver> implements ItpSolver {
+
+	MeasuredItpSolver(final ItpSolver solver, final SolverMetrics metrics) {
+		super(solver, metrics);
+	}
+
+	@Override
+	public ItpPattern createTreePattern(final ItpMarkerTree<? extends ItpMarker> root) {
+		return solver.createTreePattern(root);
+	}
+
+	@Override
+	public ItpMarker createMarker() {
+		return solver.createMarker();
+	}
+
+	@Override
+	public void add(final ItpMarker marker, final Expr<BoolType> assertion) {
+		metrics.assertions.increment();
+		solver.add(marker, assertion);
+	}
+
+	@Override
+	public Interpolant getInterpolant(final ItpPattern pattern) {
+		final long start = metrics.interpolant.start();
+		final Interpolant interpolant = solver.getInterpolant(pattern);
+		metrics.interpolant.stop(start);
+		return interpolant;
+	}
+
+	@Override
+	public Collection<? extends ItpMarker> getMarkers() {
+		return solver.getMarkers();
+	}
+}
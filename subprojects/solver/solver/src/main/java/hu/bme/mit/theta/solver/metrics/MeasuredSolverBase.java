@@ -0,0 +1,91 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package hu.bme.mit.theta.solver.metrics;
+
+import hu.bme.mit.theta.core.model.Valuation;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.solver.SolverBase;
+import hu.bme.mit.theta.solver.SolverStatus;
+
+import java.util.Collection;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+abstract class MeasuredSolverBase<S extends SolverBase> implements SolverBase {
+	protected final S solver;
+	protected final SolverMetrics metrics;
+
+	MeasuredSolverBase(final S solver, final SolverMetrics metrics) {
+		this.solver = checkNotNull(solver);
+		this.metrics = checkNotNull(metrics);
+		metrics.instances.increment();
+	}
+
+	@Override
+	public SolverStatus check() {
+		final long start = metrics.check.start();
+		final SolverStatus status = solver.check();
+		metrics.check.stop(start);
+		if (status.isSat()) {
+			metrics.sat.increment();
+		} else if (status.isUnsat()) {
+			metrics.unsat.increment();
+		}
+		return status;
+	}
+
+	@Override
+	public void push() {
+		metrics.pushes.increment();
+		solver.push();
+	}
+
+	@Override
+	public void pop(final int n) {
+		metrics.pops.increment();
+		solver.pop(n);
+	}
+
+	@Override
+	public void reset() {
+		solver.reset();
+	}
+
+	@Override
+	public SolverStatus getStatus() {
+		return solver.getStatus();
+	}
+
+	@Override
+	public Valuation getModel() {
+		final long start = metrics.model.start();
+		final Valuation model = solver.getModel();
+		metrics.model.stop(start);
+		return model;
+	}
+
+	@Override
+	public Collection<Expr<BoolType>> getAssertions() {
+		return solver.getAssertions();
+	}
+
+	@Override
+	public void close() throws Exception {
+		solver.close();
+	}
+}
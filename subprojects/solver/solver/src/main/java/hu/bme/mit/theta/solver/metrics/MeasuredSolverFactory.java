@@ -0,0 +1,70 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package hu.bme.mit.theta.solver.metrics;
+
+import hu.bme.mit.theta.common.metrics.Metrics;
+import hu.bme.mit.theta.solver.ItpSolver;
+import hu.bme.mit.theta.solver.Solver;
+import hu.bme.mit.theta.solver.SolverFactory;
+import hu.bme.mit.theta.solver.UCSolver;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Solver factory decorator whose solvers record the number and latency of their calls in the
+ * {@link Metrics} named {@code solver.<purpose>.*}.
+ */
+public final class MeasuredSolverFactory implements SolverFactory {
+	private final SolverFactory solverFactory;
+	private final SolverMetrics metrics;
+
+	private MeasuredSolverFactory(final SolverFactory solverFactory, final String purpose) {
+		this.solverFactory = checkNotNull(solverFactory);
+		this.metrics = new SolverMetrics(checkNotNull(purpose));
+	}
+
+	public static MeasuredSolverFactory create(final SolverFactory solverFactory, final String purpose) {
+		return new MeasuredSolverFactory(solverFactory, purpose);
+	}
+
+	/**
+	 * Decorates the factory if metrics are enabled, otherwise returns it unchanged, so that
+	 * uninstrumented runs have no overhead at all.
+	 */
+	public static SolverFactory wrap(final SolverFactory solverFactory, final String purpose) {
+		if (Metrics.isEnabled() && !(solverFactory instanceof MeasuredSolverFactory)) {
+			return create(solverFactory, purpose);
+		} else {
+			return solverFactory;
+		}
+	}
+
+	@Override
+	public Solver createSolver() {
+		return new MeasuredSolver(solverFactory.createSolver(), metrics);
+	}
+
+	@Override
+	public UCSolver createUCSolver() {
+		return new MeasuredUCSolver(solverFactory.createUCSolver(), metrics);
+	}
+
+	@Override
+	public ItpSolver createItpSolver() {
+		return new MeasuredItpSolver(solverFactory.createItpSolver(), metrics);
+	}
+}
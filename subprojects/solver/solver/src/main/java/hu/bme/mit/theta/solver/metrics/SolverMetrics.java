@@ -0,0 +1,51 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package hu.bme.mit.theta.solver.metrics;
+
+import hu.bme.mit.theta.common.metrics.Counter;
+import hu.bme.mit.theta.common.metrics.Metrics;
+import hu.bme.mit.theta.common.metrics.Timer;
+
+/**
+ * Metrics of the solvers created for a given purpose (e.g., abstraction or refinement).
+ */
+final class SolverMetrics {
+	final Counter instances;
+	final Counter assertions;
+	final Counter pushes;
+	final Counter pops;
+	final Counter sat;
+	final Counter unsat;
+	final Timer check;
+	final Timer model;
+	final Timer unsatCore;
+	final Timer interpolant;
+
+	SolverMetrics(final String purpose) {
+		final String prefix = "solver." + purpose + ".";
+		instances = Metrics.counter(prefix + "instances");
+		assertions = Metrics.counter(prefix + "assertions");
+		pushes = Metrics.counter(prefix + "pushes");
+		pops = Metrics.counter(prefix + "pops");
+		sat = Metrics.counter(prefix + "sat");
+		unsat = Metrics.counter(prefix + "unsat");
+		check = Metrics.timer(prefix + "check");
+		model = Metrics.timer(prefix + "model");
+		unsatCore = Metrics.timer(prefix + "unsatCore");
+		interpolant = Metrics.timer(prefix + "interpolant");
+	}
+}
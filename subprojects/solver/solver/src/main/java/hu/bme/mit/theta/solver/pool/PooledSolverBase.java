@@ -0,0 +1,116 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.solver.pool;
+
+import hu.bme.mit.theta.core.model.Valuation;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.solver.SolverBase;
+import hu.bme.mit.theta.solver.SolverStatus;
+
+import java.util.Collection;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * A solver leased from a {@link PooledSolverFactory}. Everything is asserted above a base frame
+ * pushed when leasing, so that the instance can be cleaned without a reset when released.
+ */
+abstract class PooledSolverBase<S extends SolverBase> implements SolverBase {
+	final S solver;
+	final Object modelKey;
+	private final PooledSolverFactory pool;
+
+	private int depth = 0;
+	private boolean released = false;
+
+	PooledSolverBase(final S solver, final PooledSolverFactory pool, final Object modelKey) {
+		this.solver = checkNotNull(solver);
+		this.pool = checkNotNull(pool);
+		this.modelKey = modelKey;
+		solver.push();
+	}
+
+	abstract PooledSolverFactory.Kind getKind();
+
+	/**
+	 * Get the underlying solver, checking that it was not released yet.
+	 */
+	protected final S solver() {
+		checkState(!released, "Solver was released to the pool");
+		return solver;
+	}
+
+	void popToBase() {
+		released = true;
+		solver.pop(depth + 1);
+		depth = 0;
+	}
+
+	void invalidate() {
+		released = true;
+	}
+
+	@Override
+	public SolverStatus check() {
+		return solver().check();
+	}
+
+	@Override
+	public void push() {
+		solver().push();
+		depth++;
+	}
+
+	@Override
+	public void pop(final int n) {
+		checkArgument(n <= depth, "Cannot pop more than pushed");
+		solver().pop(n);
+		depth -= n;
+	}
+
+	@Override
+	public void reset() {
+		solver().reset();
+		solver.push();
+		depth = 0;
+	}
+
+	@Override
+	public SolverStatus getStatus() {
+		return solver().getStatus();
+	}
+
+	@Override
+	public Valuation getModel() {
+		return solver().getModel();
+	}
+
+	@Override
+	public Collection<Expr<BoolType>> getAssertions() {
+		return solver().getAssertions();
+	}
+
+	/**
+	 * Release the solver to the pool instead of closing it.
+	 */
+	@Override
+	public void close() {
+		pool.release(this);
+	}
+}
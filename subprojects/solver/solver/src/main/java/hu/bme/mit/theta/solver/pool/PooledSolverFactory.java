@@ -0,0 +1,305 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.solver.pool;
+
+import hu.bme.mit.theta.common.metrics.Counter;
+import hu.bme.mit.theta.common.metrics.Metrics;
+import hu.bme.mit.theta.solver.ItpSolver;
+import hu.bme.mit.theta.solver.Solver;
+import hu.bme.mit.theta.solver.SolverBase;
+import hu.bme.mit.theta.solver.SolverFactory;
+import hu.bme.mit.theta.solver.UCSolver;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Solver factory decorator that reuses solver instances instead of creating new ones.
+ * <p>
+ * Solvers created by the pool are leased: closing them (or calling {@link #releaseAll()}) returns
+ * the underlying instance to the pool, after popping everything that was asserted on it. The
+ * released solver cannot be used any more. An idle instance is handed out again by the next
+ * request for the same kind of solver. If the instance was last used for the same model (see
+ * {@link #forModel(Object)}), it is reused as is, keeping its symbol table (declarations and
+ * their translations); otherwise it is reset first. At most {@code capacity} idle instances are
+ * kept, the least recently released ones are closed when the pool is full.
+ * <p>
+ * The numbers of created, reused and evicted instances are available as getters and as the
+ * {@link Metrics} named {@code solver.pool.*}.
+ */
+public final class PooledSolverFactory implements SolverFactory, AutoCloseable {
+
+	private static final Counter createdMetric = Metrics.counter("solver.pool.created");
+	private static final Counter reusedMetric = Metrics.counter("solver.pool.reused");
+	private static final Counter resetMetric = Metrics.counter("solver.pool.reset");
+	private static final Counter evictedMetric = Metrics.counter("solver.pool.evicted");
+
+	enum Kind {SOLVER, UC_SOLVER, ITP_SOLVER}
+
+	private final SolverFactory solverFactory;
+	private final int capacity;
+
+	// Most recently released first
+	private final Deque<Idle> idle = new ArrayDeque<>();
+	private final Set<PooledSolverBase<?>> leased = new HashSet<>();
+	private boolean closed = false;
+
+	private long created = 0;
+	private long reused = 0;
+	private long reset = 0;
+	private long evicted = 0;
+
+	private PooledSolverFactory(final SolverFactory solverFactory, final int capacity) {
+		checkArgument(capacity >= 0, "Negative capacity");
+		this.solverFactory = checkNotNull(solverFactory);
+		this.capacity = capacity;
+	}
+
+	public static PooledSolverFactory create(final SolverFactory solverFactory, final int capacity) {
+		return new PooledSolverFactory(solverFactory, capacity);
+	}
+
+	/**
+	 * Get a view of the pool for solvers that are used for the given model. Instances released
+	 * by views with an equal key are reused without resetting their symbol tables. The key
+	 * should identify the declarations of the model, e.g., the model itself.
+	 */
+	public SolverFactory forModel(final Object modelKey) {
+		checkNotNull(modelKey);
+		return new SolverFactory() {
+			@Override
+			public Solver createSolver() {
+				return (Solver) lease(Kind.SOLVER, modelKey);
+			}
+
+			@Override
+			public UCSolver createUCSolver() {
+				return (UCSolver) lease(Kind.UC_SOLVER, modelKey);
+			}
+
+			@Override
+			public ItpSolver createItpSolver() {
+				return (ItpSolver) lease(Kind.ITP_SOLVER, modelKey);
+			}
+		};
+	}
+
+	@Override
+	public Solver createSolver() {
+		return (Solver) lease(Kind.SOLVER, null);
+	}
+
+	@Override
+	public UCSolver createUCSolver() {
+		return (UCSolver) lease(Kind.UC_SOLVER, null);
+	}
+
+	@Override
+	public ItpSolver createItpSolver() {
+		return (ItpSolver) lease(Kind.ITP_SOLVER, null);
+	}
+
+	private synchronized PooledSolverBase<?> lease(final Kind kind, final Object modelKey) {
+		checkState(!closed, "Solver pool is closed");
+		final Idle entry = takeIdle(kind, modelKey);
+		final SolverBase solver;
+		if (entry == null) {
+			solver = createNew(kind);
+			created++;
+			createdMetric.increment();
+		} else {
+			solver = entry.solver;
+			if (modelKey == null || !modelKey.equals(entry.modelKey)) {
+				solver.reset();
+				reset++;
+				resetMetric.increment();
+			}
+			reused++;
+			reusedMetric.increment();
+		}
+
+		final PooledSolverBase<?> pooledSolver = wrap(kind, solver, modelKey);
+		leased.add(pooledSolver);
+		return pooledSolver;
+	}
+
+	/**
+	 * Take the most recently released idle instance of the given kind, preferring the ones
+	 * used for the same model.
+	 */
+	private Idle takeIdle(final Kind kind, final Object modelKey) {
+		Idle candidate = null;
+		for (final Idle entry : idle) {
+			if (entry.kind == kind) {
+				if (modelKey != null && modelKey.equals(entry.modelKey)) {
+					candidate = entry;
+					break;
+				} else if (candidate == null) {
+					candidate = entry;
+				}
+			}
+		}
+		if (candidate != null) {
+			idle.remove(candidate);
+		}
+		return candidate;
+	}
+
+	private SolverBase createNew(final Kind kind) {
+		switch (kind) {
+			case SOLVER:
+				return solverFactory.createSolver();
+			case UC_SOLVER:
+				return solverFactory.createUCSolver();
+			case ITP_SOLVER:
+				return solverFactory.createItpSolver();
+			default:
+				throw new AssertionError("Unknown solver kind " + kind);
+		}
+	}
+
+	private PooledSolverBase<?> wrap(final Kind kind, final SolverBase solver, final Object modelKey) {
+		switch (kind) {
+			case SOLVER:
+				return new PooledSolver((Solver) solver, this, modelKey);
+			case UC_SOLVER:
+				return new PooledUCSolver((UCSolver) solver, this, modelKey);
+			case ITP_SOLVER:
+				return new PooledItpSolver((ItpSolver) solver, this, modelKey);
+			default:
+				throw new AssertionError("Unknown solver kind " + kind);
+		}
+	}
+
+	synchronized void release(final PooledSolverBase<?> pooledSolver) {
+		if (!leased.remove(pooledSolver)) {
+			return;
+		}
+		try {
+			pooledSolver.popToBase();
+		} catch (final RuntimeException e) {
+			// The solver is in an unknown state, do not reuse it
+			evict(pooledSolver.solver);
+			return;
+		}
+		if (closed) {
+			evict(pooledSolver.solver);
+			return;
+		}
+		idle.addFirst(new Idle(pooledSolver.getKind(), pooledSolver.modelKey, pooledSolver.solver));
+		while (idle.size() > capacity) {
+			evict(idle.removeLast().solver);
+		}
+	}
+
+	/**
+	 * Release all solvers currently leased from the pool, e.g., when the analysis using them
+	 * is finished.
+	 */
+	public synchronized void releaseAll() {
+		for (final PooledSolverBase<?> pooledSolver : new ArrayList<>(leased)) {
+			release(pooledSolver);
+		}
+	}
+
+	/**
+	 * Close all idle and leased instances. Leased solvers are closed without being reused, as
+	 * they may be in the middle of a computation.
+	 */
+	@Override
+	public synchronized void close() {
+		closed = true;
+		final List<SolverBase> toClose = new ArrayList<>();
+		for (final Iterator<Idle> iterator = idle.iterator(); iterator.hasNext(); ) {
+			toClose.add(iterator.next().solver);
+			iterator.remove();
+		}
+		for (final PooledSolverBase<?> pooledSolver : leased) {
+			pooledSolver.invalidate();
+			toClose.add(pooledSolver.solver);
+		}
+		leased.clear();
+		toClose.forEach(this::evict);
+	}
+
+	private void evict(final SolverBase solver) {
+		evicted++;
+		evictedMetric.increment();
+		try {
+			solver.close();
+		} catch (final Exception e) {
+			// The instance is dropped anyway
+		}
+	}
+
+	public synchronized int getIdleCount() {
+		return idle.size();
+	}
+
+	public synchronized int getLeasedCount() {
+		return leased.size();
+	}
+
+	public synchronized long getCreatedCount() {
+		return created;
+	}
+
+	/**
+	 * Number of leases served by an idle instance instead of a new one.
+	 */
+	public synchronized long getReusedCount() {
+		return reused;
+	}
+
+	/**
+	 * Number of reused instances that had to be reset, because they were used for a different
+	 * model (or for an unknown one).
+	 */
+	public synchronized long getResetCount() {
+		return reset;
+	}
+
+	public synchronized long getEvictedCount() {
+		return evicted;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return String.format("%s[created=%d, reused=%d, reset=%d, evicted=%d, idle=%d, leased=%d]",
+				getClass().getSimpleName(), created, reused, reset, evicted, idle.size(), leased.size());
+	}
+
+	private static final class Idle {
+		private final Kind kind;
+		private final Object modelKey;
+		private final SolverBase solver;
+
+		private Idle(final Kind kind, final Object modelKey, final SolverBase solver) {
+			this.kind = kind;
+			this.modelKey = modelKey;
+			this.solver = solver;
+		}
+	}
+}
@@ -0,0 +1,44 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.solver.pool;
+
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.solver.UCSolver;
+
+import java.util.Collection;
+
+final class PooledUCSolver extends PooledSolverBase<UCSolver> implements UCSolver {
+
+	PooledUCSolver(final UCSolver solver, final PooledSolverFactory pool, final Object modelKey) {
+		super(solver, pool, modelKey);
+	}
+
+	@Override
+	PooledSolverFactory.Kind getKind() {
+		return PooledSolverFactory.Kind.UC_SOLVER;
+	}
+
+	@Override
+	public void track(final Expr<BoolType> assertion) {
+		solver().track(assertion);
+	}
+
+	@Override
+	public Collection<Expr<BoolType>> getUnsatCore() {
+		return solver().getUnsatCore();
+	}
+}
@@ -0,0 +1,131 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.solver;
+
+import hu.bme.mit.theta.solver.pool.PooledSolverFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class PooledSolverFactoryTest {
+
+	private List<SolverStub> instances;
+	private PooledSolverFactory pool;
+
+	@Before
+	public void before() {
+		instances = new ArrayList<>();
+		final SolverFactory factory = new SolverFactory() {
+			@Override
+			public Solver createSolver() {
+				final SolverStub solver = new SolverStub();
+				instances.add(solver);
+				return solver;
+			}
+
+			@Override
+			public UCSolver createUCSolver() {
+				throw new UnsupportedOperationException();
+			}
+
+			@Override
+			public ItpSolver createItpSolver() {
+				throw new UnsupportedOperationException();
+			}
+		};
+		pool = PooledSolverFactory.create(factory, 2);
+	}
+
+	@Test
+	public void testReuse() throws Exception {
+		final Solver solver1 = pool.createSolver();
+		solver1.push();
+		solver1.push();
+		assertEquals(3, instances.get(0).nPush);
+		solver1.close();
+		assertEquals(0, instances.get(0).nPush);
+
+		final Solver solver2 = pool.createSolver();
+		assertEquals(1, instances.size());
+		assertEquals(1, pool.getReusedCount());
+		assertEquals(1, pool.getResetCount());
+		solver2.close();
+	}
+
+	@Test
+	public void testSameModelIsNotReset() {
+		final Object model = new Object();
+		pool.forModel(model).createSolver();
+		pool.releaseAll();
+		pool.forModel(new Object()).createSolver();
+		pool.releaseAll();
+		pool.forModel(model).createSolver();
+		pool.releaseAll();
+		pool.forModel(model).createSolver();
+		pool.releaseAll();
+
+		assertEquals(1, pool.getCreatedCount());
+		assertEquals(3, pool.getReusedCount());
+		// only switching between the models needs a reset
+		assertEquals(2, pool.getResetCount());
+	}
+
+	@Test
+	public void testEviction() {
+		pool.createSolver();
+		pool.createSolver();
+		pool.createSolver();
+		assertEquals(3, pool.getLeasedCount());
+		pool.releaseAll();
+		assertEquals(0, pool.getLeasedCount());
+		assertEquals(2, pool.getIdleCount());
+		assertEquals(1, pool.getEvictedCount());
+
+		pool.createSolver();
+		pool.createSolver();
+		pool.createSolver();
+		assertEquals(4, pool.getCreatedCount());
+		assertEquals(2, pool.getReusedCount());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testReleasedSolverCannotBeUsed() throws Exception {
+		final Solver solver = pool.createSolver();
+		solver.close();
+		solver.check();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testBaseFrameCannotBePopped() {
+		pool.createSolver().pop();
+	}
+
+	@Test
+	public void testClose() {
+		pool.createSolver();
+		pool.createSolver();
+		pool.releaseAll();
+		pool.createSolver();
+		pool.close();
+		assertEquals(0, pool.getIdleCount());
+		assertEquals(0, pool.getLeasedCount());
+		assertEquals(2, pool.getEvictedCount());
+	}
+}
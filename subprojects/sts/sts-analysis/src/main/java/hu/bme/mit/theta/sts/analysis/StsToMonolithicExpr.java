@@ -0,0 +1,57 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.sts.analysis;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import hu.bme.mit.theta.analysis.expl.ExplState;
+import hu.bme.mit.theta.analysis.expr.MonolithicExpr;
+import hu.bme.mit.theta.core.model.Valuation;
+import hu.bme.mit.theta.sts.STS;
+
+/**
+ * The monolithic description of an STS, which is simply its initial formula, transition
+ * relation and property. The states of the counterexamples are explicit states and the actions
+ * are the transition relation.
+ */
+public final class StsToMonolithicExpr {
+
+	private final MonolithicExpr monolithicExpr;
+	private final StsAction action;
+
+	private StsToMonolithicExpr(final STS sts) {
+		checkNotNull(sts);
+		action = new StsAction(sts);
+		monolithicExpr = MonolithicExpr.create(sts.getInit(), action, sts.getProp(), sts.getVars());
+	}
+
+	public static StsToMonolithicExpr create(final STS sts) {
+		return new StsToMonolithicExpr(sts);
+	}
+
+	public MonolithicExpr getMonolithicExpr() {
+		return monolithicExpr;
+	}
+
+	public ExplState toState(final Valuation val) {
+		return ExplState.of(val);
+	}
+
+	public StsAction toAction(final Valuation before, final Valuation after) {
+		return action;
+	}
+
+}
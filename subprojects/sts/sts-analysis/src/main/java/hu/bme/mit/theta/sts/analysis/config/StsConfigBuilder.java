@@ -27,8 +27,15 @@ import hu.bme.mit.theta.analysis.algorithm.SafetyChecker;
 import hu.bme.mit.theta.analysis.algorithm.cegar.Abstractor;
 import hu.bme.mit.theta.analysis.algorithm.cegar.BasicAbstractor;
 import hu.bme.mit.theta.analysis.algorithm.cegar.CegarChecker;
+import hu.bme.mit.theta.analysis.algorithm.cegar.FilePrecCheckpointer;
+import hu.bme.mit.theta.analysis.algorithm.cegar.PrecCheckpointer;
+import hu.bme.mit.theta.analysis.algorithm.cegar.PrecCodec;
+import hu.bme.mit.theta.analysis.algorithm.cegar.PrecCodecs;
+import hu.bme.mit.theta.analysis.algorithm.cegar.PrecStore;
 import hu.bme.mit.theta.analysis.algorithm.cegar.Refiner;
 import hu.bme.mit.theta.analysis.algorithm.cegar.abstractor.StopCriterions;
+import hu.bme.mit.theta.analysis.algorithm.ic3.Ic3Checker;
+import hu.bme.mit.theta.analysis.algorithm.kind.KIndChecker;
 import hu.bme.mit.theta.analysis.expl.ExplAnalysis;
 import hu.bme.mit.theta.analysis.expl.ExplPrec;
 import hu.bme.mit.theta.analysis.expl.ExplState;
@@ -38,6 +45,7 @@ import hu.bme.mit.theta.analysis.expl.VarsRefToExplPrec;
 import hu.bme.mit.theta.analysis.expr.ExprAction;
 import hu.bme.mit.theta.analysis.expr.ExprState;
 import hu.bme.mit.theta.analysis.expr.ExprStatePredicate;
+import hu.bme.mit.theta.analysis.expr.MonolithicExpr;
 import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceBwBinItpChecker;
 import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceChecker;
 import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceFwBinItpChecker;
@@ -46,6 +54,7 @@ import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceUnsatCoreChecker;
 import hu.bme.mit.theta.analysis.expr.refinement.ItpRefutation;
 import hu.bme.mit.theta.analysis.expr.refinement.JoiningPrecRefiner;
 import hu.bme.mit.theta.analysis.expr.refinement.MultiExprTraceRefiner;
+import hu.bme.mit.theta.analysis.expr.refinement.ParallelExprTraceRefiner;
 import hu.bme.mit.theta.analysis.expr.refinement.PruneStrategy;
 import hu.bme.mit.theta.analysis.expr.refinement.SingleExprTraceRefiner;
 import hu.bme.mit.theta.analysis.pred.ExprSplitters;
@@ -56,6 +65,7 @@ import hu.bme.mit.theta.analysis.pred.PredAbstractors.PredAbstractor;
 import hu.bme.mit.theta.analysis.pred.PredAnalysis;
 import hu.bme.mit.theta.analysis.pred.PredPrec;
 import hu.bme.mit.theta.analysis.pred.PredState;
+import hu.bme.mit.theta.analysis.unit.UnitPrec;
 import hu.bme.mit.theta.analysis.waitlist.PriorityWaitlist;
 import hu.bme.mit.theta.common.logging.Logger;
 import hu.bme.mit.theta.common.logging.NullLogger;
@@ -63,25 +73,44 @@ import hu.bme.mit.theta.core.type.Expr;
 import hu.bme.mit.theta.core.type.booltype.BoolType;
 import hu.bme.mit.theta.solver.Solver;
 import hu.bme.mit.theta.solver.SolverFactory;
+import hu.bme.mit.theta.solver.metrics.MeasuredSolverFactory;
 import hu.bme.mit.theta.sts.STS;
 import hu.bme.mit.theta.sts.analysis.StsAction;
 import hu.bme.mit.theta.sts.analysis.StsLts;
+import hu.bme.mit.theta.sts.analysis.StsToMonolithicExpr;
 import hu.bme.mit.theta.sts.analysis.initprec.StsEmptyInitPrec;
 import hu.bme.mit.theta.sts.analysis.initprec.StsInitPrec;
 import hu.bme.mit.theta.sts.analysis.initprec.StsPropInitPrec;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BinaryOperator;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Not;
 
 public final class StsConfigBuilder {
 
+	/**
+	 * The algorithm used for the verification. The domain and refinement settings only apply to
+	 * {@link #CEGAR}, {@link #KIND} is k-induction and {@link #IC3} is property directed
+	 * reachability over the monolithic transition relation.
+	 */
+	public enum Engine {
+		CEGAR, KIND, IC3
+	}
+
 	public enum Domain {
 		EXPL, PRED_BOOL, PRED_CART, PRED_SPLIT
 	}
 
 	public enum Refinement {
-		FW_BIN_ITP, BW_BIN_ITP, SEQ_ITP, MULTI_SEQ, UNSAT_CORE
+		FW_BIN_ITP, BW_BIN_ITP, SEQ_ITP, MULTI_SEQ, PARALLEL_SEQ, UNSAT_CORE
 	}
 
 	public enum Search {
@@ -123,6 +152,7 @@ public final class StsConfigBuilder {
 	}
 
 	private Logger logger = NullLogger.getInstance();
+	private Engine engine = Engine.CEGAR;
 	private final SolverFactory solverFactory;
 	private final Domain domain;
 	private final Refinement refinement;
@@ -130,6 +160,14 @@ public final class StsConfigBuilder {
 	private PredSplit predSplit = PredSplit.WHOLE;
 	private InitPrec initPrec = InitPrec.EMPTY;
 	private PruneStrategy pruneStrategy = PruneStrategy.LAZY;
+	private boolean incrementalAbstraction = false;
+	private int abstractionParallelism = 1;
+	private int refinementParallelism = Runtime.getRuntime().availableProcessors();
+	private final List<AutoCloseable> resources = new ArrayList<>();
+	private String precCheckpoint = null;
+	private String warmStart = null;
+	private PrecStore precStore = null;
+	private String modelName = null;
 
 	public StsConfigBuilder(final Domain domain, final Refinement refinement, final SolverFactory solverFactory) {
 		this.domain = domain;
@@ -142,6 +180,11 @@ public final class StsConfigBuilder {
 		return this;
 	}
 
+	public StsConfigBuilder engine(final Engine engine) {
+		this.engine = engine;
+		return this;
+	}
+
 	public StsConfigBuilder search(final Search search) {
 		this.search = search;
 		return this;
@@ -162,20 +205,90 @@ public final class StsConfigBuilder {
 		return this;
 	}
 
+	/**
+	 * Use the incremental variants of the Boolean predicate abstractors, which keep the
+	 * predicate definitions permanently asserted in the abstraction solver.
+	 */
+	public StsConfigBuilder incrementalAbstraction(final boolean incrementalAbstraction) {
+		this.incrementalAbstraction = incrementalAbstraction;
+		return this;
+	}
+
+	/**
+	 * Number of solvers (and threads) used concurrently by the Cartesian predicate abstractor.
+	 */
+	public StsConfigBuilder abstractionParallelism(final int abstractionParallelism) {
+		checkArgument(abstractionParallelism > 0, "Parallelism must be positive");
+		this.abstractionParallelism = abstractionParallelism;
+		return this;
+	}
+
+	/**
+	 * Number of solvers (and threads) used concurrently by the {@link Refinement#PARALLEL_SEQ}
+	 * refinement for checking counterexamples, defaults to the number of processors.
+	 */
+	public StsConfigBuilder refinementParallelism(final int refinementParallelism) {
+		checkArgument(refinementParallelism > 0, "Parallelism must be positive");
+		this.refinementParallelism = refinementParallelism;
+		return this;
+	}
+
+	/**
+	 * Save the precision to this file whenever it is refined.
+	 */
+	public StsConfigBuilder precCheckpoint(final String precCheckpoint) {
+		this.precCheckpoint = precCheckpoint;
+		return this;
+	}
+
+	/**
+	 * Start from the precision saved in this file (if it exists) instead of the initial
+	 * precision. Using the checkpoint file of an interrupted run resumes that run, using the
+	 * final precision of a finished run usually converges in a single iteration.
+	 */
+	public StsConfigBuilder warmStart(final String warmStart) {
+		this.warmStart = warmStart;
+		return this;
+	}
+
+	/**
+	 * Extend the initial precision with the precision stored for the model in this directory
+	 * (if there is one), and keep the stored precision up to date with the refinements.
+	 * Models are identified by their name (e.g., the path of the model file), so the stored
+	 * precision is also used if the property changes, see {@link PrecStore}.
+	 */
+	public StsConfigBuilder precStore(final String precStoreDir, final String modelName) {
+		checkArgument(precStoreDir == null || modelName != null, "Models in a precision store need a name");
+		this.precStore = precStoreDir == null ? null : PrecStore.create(precStoreDir);
+		this.modelName = modelName;
+		return this;
+	}
+
 	public StsConfig<? extends State, ? extends Action, ? extends Prec> build(final STS sts) {
+		final SolverFactory abstractionSolverFactory = MeasuredSolverFactory.wrap(solverFactory, "abstraction");
+		final SolverFactory refinementSolverFactory = MeasuredSolverFactory.wrap(solverFactory, "refinement");
 		final LTS<State, StsAction> lts = StsLts.create(sts);
 		final Expr<BoolType> init = sts.getInit();
 		final Expr<BoolType> negProp = Not(sts.getProp());
 
+		if (engine == Engine.KIND) {
+			return buildKInd(sts, abstractionSolverFactory, refinementSolverFactory);
+		} else if (engine == Engine.IC3) {
+			final StsToMonolithicExpr encoding = StsToMonolithicExpr.create(sts);
+			final SafetyChecker<ExplState, StsAction, UnitPrec> checker = Ic3Checker.builder(encoding.getMonolithicExpr(),
+					encoding::toState, encoding::toAction, abstractionSolverFactory).logger(logger).build();
+			return StsConfig.create(checker, UnitPrec.getInstance(), takeResources());
+		}
+
 		if (domain == Domain.EXPL) {
-			final Solver analysisSolver = solverFactory.createSolver();
+			final Solver analysisSolver = abstractionSolverFactory.createSolver();
 			final Predicate<ExplState> target = new ExplStatePredicate(negProp, analysisSolver);
 			final Analysis<ExplState, ExprAction, ExplPrec> analysis = ExplAnalysis.create(analysisSolver, init);
 			final ArgBuilder<ExplState, StsAction, ExplPrec> argBuilder = ArgBuilder.create(lts, analysis, target,
 					true);
 			final Abstractor<ExplState, StsAction, ExplPrec> abstractor = BasicAbstractor.builder(argBuilder)
 					.waitlist(PriorityWaitlist.create(search.comparator))
-					.stopCriterion(refinement == Refinement.MULTI_SEQ ? StopCriterions.fullExploration()
+					.stopCriterion(refinement == Refinement.MULTI_SEQ || refinement == Refinement.PARALLEL_SEQ ? StopCriterions.fullExploration()
 							: StopCriterions.firstCex())
 					.logger(logger).build();
 
@@ -183,23 +296,27 @@ public final class StsConfigBuilder {
 
 			switch (refinement) {
 				case FW_BIN_ITP:
-					refiner = SingleExprTraceRefiner.create(ExprTraceFwBinItpChecker.create(init, negProp, solverFactory.createItpSolver()),
+					refiner = SingleExprTraceRefiner.create(ExprTraceFwBinItpChecker.create(init, negProp, refinementSolverFactory.createItpSolver()),
 							JoiningPrecRefiner.create(new ItpRefToExplPrec()), pruneStrategy, logger);
 					break;
 				case BW_BIN_ITP:
-					refiner = SingleExprTraceRefiner.create(ExprTraceBwBinItpChecker.create(init, negProp, solverFactory.createItpSolver()),
+					refiner = SingleExprTraceRefiner.create(ExprTraceBwBinItpChecker.create(init, negProp, refinementSolverFactory.createItpSolver()),
 							JoiningPrecRefiner.create(new ItpRefToExplPrec()), pruneStrategy, logger);
 					break;
 				case SEQ_ITP:
-					refiner = SingleExprTraceRefiner.create(ExprTraceSeqItpChecker.create(init, negProp, solverFactory.createItpSolver()),
+					refiner = SingleExprTraceRefiner.create(ExprTraceSeqItpChecker.create(init, negProp, refinementSolverFactory.createItpSolver()),
 							JoiningPrecRefiner.create(new ItpRefToExplPrec()), pruneStrategy, logger);
 					break;
 				case MULTI_SEQ:
-					refiner = MultiExprTraceRefiner.create(ExprTraceSeqItpChecker.create(init, negProp, solverFactory.createItpSolver()),
+					refiner = MultiExprTraceRefiner.create(ExprTraceSeqItpChecker.create(init, negProp, refinementSolverFactory.createItpSolver()),
 							JoiningPrecRefiner.create(new ItpRefToExplPrec()), pruneStrategy, logger);
 					break;
+				case PARALLEL_SEQ:
+					refiner = own(ParallelExprTraceRefiner.create(createSeqItpCheckers(init, negProp, refinementSolverFactory),
+							JoiningPrecRefiner.create(new ItpRefToExplPrec()), pruneStrategy, logger));
+					break;
 				case UNSAT_CORE:
-					refiner = SingleExprTraceRefiner.create(ExprTraceUnsatCoreChecker.create(init, negProp, solverFactory.createUCSolver()),
+					refiner = SingleExprTraceRefiner.create(ExprTraceUnsatCoreChecker.create(init, negProp, refinementSolverFactory.createUCSolver()),
 							JoiningPrecRefiner.create(new VarsRefToExplPrec()), pruneStrategy, logger);
 					break;
 				default:
@@ -207,23 +324,27 @@ public final class StsConfigBuilder {
 							domain + " domain does not support " + refinement + " refinement.");
 			}
 
+			final PrecCodec<ExplPrec> precCodec = PrecCodecs.expl(sts.getVars());
 			final SafetyChecker<ExplState, StsAction, ExplPrec> checker = CegarChecker.create(abstractor, refiner,
-					logger);
-			final ExplPrec prec = initPrec.builder.createExpl(sts);
-			return StsConfig.create(checker, prec);
+					logger, createCheckpointer(precCodec));
+			final ExplPrec prec = createInitPrec(precCodec, () -> initPrec.builder.createExpl(sts), ExplPrec::join);
+			return StsConfig.create(checker, prec, takeResources());
 
 		} else if (domain == Domain.PRED_BOOL || domain == Domain.PRED_CART || domain == Domain.PRED_SPLIT) {
-			final Solver analysisSolver = solverFactory.createSolver();
+			final Solver analysisSolver = abstractionSolverFactory.createSolver();
 			PredAbstractor predAbstractor = null;
 			switch (domain) {
 				case PRED_BOOL:
-					predAbstractor = PredAbstractors.booleanAbstractor(analysisSolver);
+					predAbstractor = incrementalAbstraction ? PredAbstractors.incrementalBooleanAbstractor(analysisSolver, false)
+							: PredAbstractors.booleanAbstractor(analysisSolver);
 					break;
 				case PRED_SPLIT:
-					predAbstractor = PredAbstractors.booleanSplitAbstractor(analysisSolver);
+					predAbstractor = incrementalAbstraction ? PredAbstractors.incrementalBooleanSplitAbstractor(analysisSolver)
+							: PredAbstractors.booleanSplitAbstractor(analysisSolver);
 					break;
 				case PRED_CART:
-					predAbstractor = PredAbstractors.cartesianAbstractor(analysisSolver);
+					predAbstractor = abstractionParallelism > 1 ? own(PredAbstractors.parallelCartesianAbstractor(abstractionSolverFactory, abstractionParallelism))
+							: PredAbstractors.cartesianAbstractor(analysisSolver);
 					break;
 				default:
 					throw new UnsupportedOperationException(domain + " domain is not supported.");
@@ -235,23 +356,26 @@ public final class StsConfigBuilder {
 					true);
 			final Abstractor<PredState, StsAction, PredPrec> abstractor = BasicAbstractor.builder(argBuilder)
 					.waitlist(PriorityWaitlist.create(search.comparator))
-					.stopCriterion(refinement == Refinement.MULTI_SEQ ? StopCriterions.fullExploration()
+					.stopCriterion(refinement == Refinement.MULTI_SEQ || refinement == Refinement.PARALLEL_SEQ ? StopCriterions.fullExploration()
 							: StopCriterions.firstCex())
 					.logger(logger).build();
 
 			ExprTraceChecker<ItpRefutation> exprTraceChecker = null;
 			switch (refinement) {
 				case FW_BIN_ITP:
-					exprTraceChecker = ExprTraceFwBinItpChecker.create(init, negProp, solverFactory.createItpSolver());
+					exprTraceChecker = ExprTraceFwBinItpChecker.create(init, negProp, refinementSolverFactory.createItpSolver());
 					break;
 				case BW_BIN_ITP:
-					exprTraceChecker = ExprTraceBwBinItpChecker.create(init, negProp, solverFactory.createItpSolver());
+					exprTraceChecker = ExprTraceBwBinItpChecker.create(init, negProp, refinementSolverFactory.createItpSolver());
 					break;
 				case SEQ_ITP:
-					exprTraceChecker = ExprTraceSeqItpChecker.create(init, negProp, solverFactory.createItpSolver());
+					exprTraceChecker = ExprTraceSeqItpChecker.create(init, negProp, refinementSolverFactory.createItpSolver());
 					break;
 				case MULTI_SEQ:
-					exprTraceChecker = ExprTraceSeqItpChecker.create(init, negProp, solverFactory.createItpSolver());
+					exprTraceChecker = ExprTraceSeqItpChecker.create(init, negProp, refinementSolverFactory.createItpSolver());
+					break;
+				case PARALLEL_SEQ:
+					// The trace checkers are created for the parallel refiner below
 					break;
 				default:
 					throw new UnsupportedOperationException(
@@ -261,18 +385,103 @@ public final class StsConfigBuilder {
 			if (refinement == Refinement.MULTI_SEQ) {
 				refiner = MultiExprTraceRefiner.create(exprTraceChecker,
 						JoiningPrecRefiner.create(new ItpRefToPredPrec(predSplit.splitter)), pruneStrategy, logger);
+			} else if (refinement == Refinement.PARALLEL_SEQ) {
+				refiner = own(ParallelExprTraceRefiner.create(createSeqItpCheckers(init, negProp, refinementSolverFactory),
+						JoiningPrecRefiner.create(new ItpRefToPredPrec(predSplit.splitter)), pruneStrategy, logger));
 			} else {
 				refiner = SingleExprTraceRefiner.create(exprTraceChecker,
 						JoiningPrecRefiner.create(new ItpRefToPredPrec(predSplit.splitter)), pruneStrategy, logger);
 			}
 
+			final PrecCodec<PredPrec> precCodec = PrecCodecs.pred(sts.getVars());
 			final SafetyChecker<PredState, StsAction, PredPrec> checker = CegarChecker.create(abstractor, refiner,
-					logger);
+					logger, createCheckpointer(precCodec));
 
-			final PredPrec prec = initPrec.builder.createPred(sts);
-			return StsConfig.create(checker, prec);
+			final PredPrec prec = createInitPrec(precCodec, () -> initPrec.builder.createPred(sts), PredPrec::join);
+			return StsConfig.create(checker, prec, takeResources());
 		} else {
 			throw new UnsupportedOperationException(domain + " domain is not supported.");
 		}
 	}
+
+	private StsConfig<ExplState, StsAction, UnitPrec> buildKInd(final STS sts, final SolverFactory abstractionSolverFactory,
+																final SolverFactory refinementSolverFactory) {
+		final StsToMonolithicExpr encoding = StsToMonolithicExpr.create(sts);
+		final MonolithicExpr model = encoding.getMonolithicExpr();
+		final ExprTraceChecker<ItpRefutation> itpChecker = ExprTraceSeqItpChecker.create(model.getInit(),
+				Not(model.getProp()), refinementSolverFactory.createItpSolver());
+		final SafetyChecker<ExplState, StsAction, UnitPrec> checker = KIndChecker.builder(model,
+						encoding::toState, encoding::toAction, abstractionSolverFactory.createSolver(), abstractionSolverFactory.createSolver())
+				.simplePath(true).invariantStrengthening(itpChecker, refinementSolverFactory.createSolver())
+				.logger(logger).build();
+		return StsConfig.create(checker, UnitPrec.getInstance(), takeResources());
+	}
+
+	private <P extends Prec> PrecCheckpointer<P> createCheckpointer(final PrecCodec<P> codec) {
+		PrecCheckpointer<P> checkpointer = PrecCheckpointer.none();
+		if (precCheckpoint != null) {
+			checkpointer = FilePrecCheckpointer.create(precCheckpoint, codec, logger);
+		}
+		if (precStore != null) {
+			checkpointer = checkpointer.andThen(precStore.checkpointer(getPrecStoreKey(), codec, logger));
+		}
+		return checkpointer;
+	}
+
+	private String getPrecStoreKey() {
+		return modelName + "." + domain;
+	}
+
+	private <P extends Prec> P createInitPrec(final PrecCodec<P> codec, final Supplier<P> initPrecSupplier,
+											  final BinaryOperator<P> join) {
+		if (warmStart != null) {
+			try {
+				final Optional<P> prec = FilePrecCheckpointer.load(warmStart, codec);
+				if (prec.isPresent()) {
+					logger.write(Logger.Level.INFO, "Warm start from the precision in %s%n", warmStart);
+					return prec.get();
+				}
+			} catch (final IOException e) {
+				throw new UncheckedIOException("Could not load precision from " + warmStart, e);
+			}
+		}
+		if (precStore != null) {
+			try {
+				final Optional<P> prec = precStore.load(getPrecStoreKey(), codec);
+				if (prec.isPresent()) {
+					logger.write(Logger.Level.INFO, "Initial precision extended with the precision store%n");
+					return join.apply(initPrecSupplier.get(), prec.get());
+				}
+			} catch (final IOException e) {
+				logger.write(Logger.Level.INFO, "Could not load stored precision: %s%n", e.getMessage());
+			}
+		}
+		return initPrecSupplier.get();
+	}
+
+	/**
+	 * Register a resource (e.g., a solver) to be owned by the configuration being built.
+	 */
+	private <T extends AutoCloseable> T own(final T resource) {
+		resources.add(resource);
+		return resource;
+	}
+
+	/**
+	 * Get the resources registered for the configuration being built.
+	 */
+	private List<AutoCloseable> takeResources() {
+		final List<AutoCloseable> result = new ArrayList<>(resources);
+		resources.clear();
+		return result;
+	}
+
+	private List<ExprTraceChecker<ItpRefutation>> createSeqItpCheckers(final Expr<BoolType> init, final Expr<BoolType> target,
+																	  final SolverFactory refinementSolverFactory) {
+		final List<ExprTraceChecker<ItpRefutation>> checkers = new ArrayList<>(refinementParallelism);
+		for (int i = 0; i < refinementParallelism; ++i) {
+			checkers.add(ExprTraceSeqItpChecker.create(init, target, own(refinementSolverFactory.createItpSolver())));
+		}
+		return checkers;
+	}
 }
@@ -46,6 +46,10 @@ public class StsTest {
 				
 				{ "src/test/resources/hw2_true.aag", PRED_CART, SEQ_ITP, true },
 
+				{ "src/test/resources/hw1_false.aig", PRED_CART, SEQ_ITP, false },
+
+				{ "src/test/resources/hw2_true.aig", PRED_CART, SEQ_ITP, true },
+
 				{ "src/test/resources/boolean1.system", PRED_CART, SEQ_ITP, false },
 
 				{ "src/test/resources/boolean2.system", PRED_CART, SEQ_ITP, false },
@@ -76,6 +80,7 @@ public class StsTest {
 	public void test() throws IOException {
 		STS sts = null;
 		if (filePath.endsWith("aag")) sts = AigerToSts.createSts(AigerParser.parse(filePath));
+		else if (filePath.endsWith("aig")) sts = AigerToSts.createCompactSts(AigerParser.parse(filePath));
 		else {
 			final StsSpec spec = StsDslManager.createStsSpec(new FileInputStream(filePath));
 			if (spec.getAllSts().size() != 1)
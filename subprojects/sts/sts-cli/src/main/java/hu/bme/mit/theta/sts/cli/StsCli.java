@@ -47,7 +47,6 @@ import hu.bme.mit.theta.sts.StsUtils;
 import hu.bme.mit.theta.sts.aiger.AigerParser;
 import hu.bme.mit.theta.sts.aiger.AigerToSts;
 import hu.bme.mit.theta.sts.aiger.elements.AigerSystem;
-import hu.bme.mit.theta.sts.aiger.utils.AigerCoi;
 import hu.bme.mit.theta.sts.analysis.StsAction;
 import hu.bme.mit.theta.sts.analysis.StsTraceConcretizer;
 import hu.bme.mit.theta.sts.dsl.StsDslManager;
@@ -55,6 +54,7 @@ import hu.bme.mit.theta.sts.dsl.StsSpec;
 import hu.bme.mit.theta.sts.analysis.config.StsConfig;
 import hu.bme.mit.theta.sts.analysis.config.StsConfigBuilder;
 import hu.bme.mit.theta.sts.analysis.config.StsConfigBuilder.Domain;
+import hu.bme.mit.theta.sts.analysis.config.StsConfigBuilder.Engine;
 import hu.bme.mit.theta.sts.analysis.config.StsConfigBuilder.InitPrec;
 import hu.bme.mit.theta.sts.analysis.config.StsConfigBuilder.PredSplit;
 import hu.bme.mit.theta.sts.analysis.config.StsConfigBuilder.Refinement;
@@ -68,6 +68,9 @@ public class StsCli {
 	private final String[] args;
 	private final TableWriter writer;
 
+	@Parameter(names = {"--engine"}, description = "Verification engine (the CEGAR options only apply to CEGAR)")
+	Engine engine = Engine.CEGAR;
+
 	@Parameter(names = {"--domain"}, description = "Abstract domain")
 	Domain domain = Domain.PRED_CART;
 
@@ -89,6 +92,12 @@ public class StsCli {
 	@Parameter(names = "--prunestrategy", description = "Strategy for pruning the ARG after refinement")
 	PruneStrategy pruneStrategy = PruneStrategy.LAZY;
 
+	@Parameter(names = "--abstraction-threads", description = "Number of threads (and solvers) for Cartesian predicate abstraction")
+	Integer abstractionThreads = 1;
+
+	@Parameter(names = "--incremental-abstraction", description = "Keep predicate definitions and enumerated cubes in the solver for Boolean predicate abstraction")
+	boolean incrementalAbstraction = false;
+
 	@Parameter(names = {"--loglevel"}, description = "Detailedness of logging")
 	Logger.Level logLevel = Level.SUBSTEP;
 
@@ -101,6 +110,15 @@ public class StsCli {
 	@Parameter(names = {"--header"}, description = "Print only a header (for benchmarks)", help = true)
 	boolean headerOnly = false;
 
+	@Parameter(names = "--checkpoint", description = "Save the precision to this file after each refinement")
+	String checkpointFile = null;
+
+	@Parameter(names = "--warmstart", description = "Start from the precision saved in this file (e.g., by --checkpoint) if it exists")
+	String warmStartFile = null;
+
+	@Parameter(names = "--precstore", description = "Extend the initial precision with (and save the refined precision to) the precision store in this directory, models are identified by their path")
+	String precStoreDir = null;
+
 	@Parameter(names = "--stacktrace", description = "Print full stack trace in case of exception")
 	boolean stacktrace = false;
 
@@ -162,6 +180,8 @@ public class StsCli {
 		} catch (final Exception ex) {
 			String message = ex.getMessage() == null ? "(no message)" : ex.getMessage();
 			throw new Exception("Error while running algorithm: " + ex.getClass().getSimpleName() + " " + message, ex);
+		} finally {
+			configuration.close();
 		}
 	}
 
@@ -173,10 +193,9 @@ public class StsCli {
 
 	private STS loadModel() throws Exception {
 		try {
-			if (model.endsWith(".aag")) {
+			if (model.endsWith(".aag") || model.endsWith(".aig")) {
 				final AigerSystem aigerSystem = AigerParser.parse(model);
-				AigerCoi.apply(aigerSystem);
-				return AigerToSts.createSts(aigerSystem);
+				return AigerToSts.createCompactSts(aigerSystem);
 			} else {
 				try (InputStream inputStream = new FileInputStream(model)) {
 					final StsSpec spec = StsDslManager.createStsSpec(inputStream);
@@ -194,8 +213,10 @@ public class StsCli {
 	private StsConfig<?, ?, ?> buildConfiguration(final STS sts) throws Exception {
 		try {
 			return new StsConfigBuilder(domain, refinement, Z3SolverFactory.getInstance())
-					.initPrec(initPrec).search(search)
-					.predSplit(predSplit).pruneStrategy(pruneStrategy).logger(logger).build(sts);
+					.engine(engine).initPrec(initPrec).search(search).abstractionParallelism(abstractionThreads).incrementalAbstraction(incrementalAbstraction)
+					.predSplit(predSplit).pruneStrategy(pruneStrategy).precCheckpoint(checkpointFile).warmStart(warmStartFile)
+					.precStore(precStoreDir, new File(model).getAbsolutePath())
+					.logger(logger).build(sts);
 		} catch (final Exception ex) {
 			throw new Exception("Could not create configuration: " + ex.getMessage(), ex);
 		}
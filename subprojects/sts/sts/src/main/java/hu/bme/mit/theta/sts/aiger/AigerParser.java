@@ -15,14 +15,20 @@
  */
 package hu.bme.mit.theta.sts.aiger;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static java.lang.Integer.parseInt;
 
-import java.io.BufferedReader;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import hu.bme.mit.theta.sts.aiger.elements.AigerNode;
@@ -35,7 +41,7 @@ import hu.bme.mit.theta.sts.aiger.elements.Latch;
 import hu.bme.mit.theta.sts.aiger.elements.OutputVar;
 
 /**
- * Parser for textual (.aag) AIGER files.
+ * Parser for textual (.aag) and binary (.aig) AIGER files.
  */
 public final class AigerParser {
 
@@ -43,114 +49,235 @@ public final class AigerParser {
 	}
 
 	/**
-	 * Parse a textual AIGER file (*.aag) to our internal representation.
+	 * Parse a textual (*.aag) or binary (*.aig) AIGER file to our internal
+	 * representation. The format is determined by the header of the file.
 	 *
 	 * @param fileName Path of the AIGER file
 	 * @return AIGER system internal representation
 	 * @throws IOException
 	 */
 	public static AigerSystem parse(final String fileName) throws IOException {
-		final BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(fileName)));
-
-		try {
-			int nNodes;
-			int nInputs;
-			int nLatches;
-			int nOutputs;
-			int nAndGates;
-			// Parse header
-			final String[] header = checkNotNull(br.readLine(), "Header expected").split(" ");
-			nNodes = parseInt(header[1]);
-			nInputs = parseInt(header[2]);
-			nLatches = parseInt(header[3]);
-			nOutputs = parseInt(header[4]);
-			nAndGates = parseInt(header[5]);
-
-			if (nOutputs != 1) {
+		try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+			checkArgument(channel.size() <= Integer.MAX_VALUE, "AIGER file too large to be mapped");
+			final MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+			final Header header = Header.parse(readLine(buffer));
+			return header.binary ? parseBinary(buffer, header) : parseAscii(buffer, header);
+		}
+	}
+
+	/**
+	 * Header of an AIGER file: aag|aig M I L O A [B C J F]. Bad state properties
+	 * are treated as outputs, constraints, justice and fairness properties are not
+	 * supported.
+	 */
+	private static final class Header {
+		private final boolean binary;
+		private final int nNodes;
+		private final int nInputs;
+		private final int nLatches;
+		private final int nAndGates;
+
+		private Header(final boolean binary, final int nNodes, final int nInputs, final int nLatches,
+					   final int nAndGates) {
+			this.binary = binary;
+			this.nNodes = nNodes;
+			this.nInputs = nInputs;
+			this.nLatches = nLatches;
+			this.nAndGates = nAndGates;
+		}
+
+		private static Header parse(final String line) {
+			final String[] header = line.trim().split(" ");
+			checkArgument(header.length >= 6 && (header[0].equals("aag") || header[0].equals("aig")), "Invalid header");
+			final int nOutputs = parseInt(header[4]);
+			final int nBads = header.length > 6 ? parseInt(header[6]) : 0;
+			for (int i = 7; i < header.length; ++i) {
+				if (parseInt(header[i]) != 0) {
+					throw new UnsupportedOperationException("Constraints, justice and fairness properties are not supported.");
+				}
+			}
+			if (nOutputs + nBads != 1) {
 				throw new UnsupportedOperationException("Only a single output variable is supported.");
 			}
+			return new Header(header[0].equals("aig"), parseInt(header[1]), parseInt(header[2]), parseInt(header[3]),
+					parseInt(header[5]));
+		}
+	}
 
-			final AigerNode[] nodes = new AigerNode[nNodes + 1];
-			nodes[0] = new FalseConst();
+	private static AigerSystem parseAscii(final ByteBuffer buffer, final Header header) {
+		final AigerNode[] nodes = new AigerNode[header.nNodes + 1];
+		nodes[0] = new FalseConst();
 
-			// Read inputs
-			for (int i = 0; i < nInputs; ++i) {
-				final String tokens[] = checkNotNull(br.readLine(), "Input expected").split(" ");
-				final int varId = parseInt(tokens[0]) / 2;
-				nodes[varId] = new InputVar(i + 1, varId);
-			}
+		// Read inputs
+		for (int i = 0; i < header.nInputs; ++i) {
+			final String[] tokens = readTokens(buffer, "Input expected");
+			final int varId = parseInt(tokens[0]) / 2;
+			nodes[varId] = new InputVar(i + 1, varId);
+		}
 
-			// Read latches
-			final List<Latch> latches = new ArrayList<>(nLatches);
-			final List<Integer> latchInputs = new ArrayList<>(nLatches);
-			for (int i = 0; i < nLatches; ++i) {
-				final String tokens[] = checkNotNull(br.readLine(), "Latch expected").split(" ");
-				final int varId = parseInt(tokens[0]) / 2;
-				final Latch latch = new Latch(i + 1, varId);
-				latches.add(latch);
-				latchInputs.add(parseInt(tokens[1]));
-				nodes[varId] = latch;
-			}
+		// Read latches
+		final List<Latch> latches = new ArrayList<>(header.nLatches);
+		final int[] latchInputs = new int[header.nLatches];
+		for (int i = 0; i < header.nLatches; ++i) {
+			final String[] tokens = readTokens(buffer, "Latch expected");
+			final int varId = parseInt(tokens[0]) / 2;
+			latchInputs[i] = parseLatch(tokens, 1, varId);
+			final Latch latch = new Latch(i + 1, varId);
+			latches.add(latch);
+			nodes[varId] = latch;
+		}
 
-			// Read output
-			final OutputVar outputVar = new OutputVar(1);
-			final int outputVarInput = parseInt(br.readLine());
-
-			// Read and gates
-			final List<AndGate> andGates = new ArrayList<>(nAndGates);
-			final List<Integer> andGateInputs1 = new ArrayList<>(nAndGates);
-			final List<Integer> andGateInputs2 = new ArrayList<>(nAndGates);
-			for (int i = 0; i < nAndGates; ++i) {
-				final String tokens[] = checkNotNull(br.readLine(), "And gate expected").split(" ");
-				final int varId = parseInt(tokens[0]) / 2;
-				final AndGate andGate = new AndGate(i + 1, varId);
-				andGates.add(andGate);
-				andGateInputs1.add(parseInt(tokens[1]));
-				andGateInputs2.add(parseInt(tokens[2]));
-				nodes[varId] = andGate;
-			}
+		// Read output (or bad state property)
+		final OutputVar outputVar = new OutputVar(1);
+		final int outputVarInput = parseInt(readTokens(buffer, "Output expected")[0]);
 
-			for (final AigerNode node : nodes) {
-				checkNotNull(node, "Missing node");
-			}
+		// Read and gates
+		final List<AndGate> andGates = new ArrayList<>(header.nAndGates);
+		final int[] andGateInputs1 = new int[header.nAndGates];
+		final int[] andGateInputs2 = new int[header.nAndGates];
+		for (int i = 0; i < header.nAndGates; ++i) {
+			final String[] tokens = readTokens(buffer, "And gate expected");
+			final int varId = parseInt(tokens[0]) / 2;
+			final AndGate andGate = new AndGate(i + 1, varId);
+			andGates.add(andGate);
+			andGateInputs1[i] = parseInt(tokens[1]);
+			andGateInputs2[i] = parseInt(tokens[2]);
+			nodes[varId] = andGate;
+		}
 
-			// Create connections for latches
-			for (int i = 0; i < latches.size(); i++) {
-				final Latch latch = latches.get(i);
-				final AigerNode source = nodes[latchInputs.get(i) / 2];
-				final AigerWire wire = new AigerWire(source, latch, latchInputs.get(i) % 2 == 0);
-				latch.setInWire(wire);
-				source.addOutWire(wire);
-			}
+		for (final AigerNode node : nodes) {
+			checkNotNull(node, "Missing node");
+		}
 
-			// Create connections for output
-			{
-				final AigerNode source = nodes[outputVarInput / 2];
-				final AigerWire wire = new AigerWire(source, outputVar, outputVarInput % 2 == 0);
-				outputVar.setInWire(wire);
-				source.addOutWire(wire);
-			}
+		// Create connections for latches
+		for (int i = 0; i < latches.size(); i++) {
+			final Latch latch = latches.get(i);
+			latch.setInWire(connect(nodes, latchInputs[i], latch));
+		}
 
-			// Create connections for and gates
-			for (int i = 0; i < andGates.size(); i++) {
-				final AndGate andGate = andGates.get(i);
-				final AigerNode source1 = nodes[andGateInputs1.get(i) / 2];
-				final AigerNode source2 = nodes[andGateInputs2.get(i) / 2];
-				final AigerWire wire1 = new AigerWire(source1, andGate, andGateInputs1.get(i) % 2 == 0);
-				final AigerWire wire2 = new AigerWire(source2, andGate, andGateInputs2.get(i) % 2 == 0);
-				andGate.setInWire1(wire1);
-				andGate.setInWire2(wire2);
-				source1.addOutWire(wire1);
-				source2.addOutWire(wire2);
-			}
+		// Create connections for output
+		outputVar.setInWire(connect(nodes, outputVarInput, outputVar));
 
-			final List<AigerNode> nodeList = new ArrayList<>();
-			for (final AigerNode node : nodes) {
-				nodeList.add(node);
-			}
-			return new AigerSystem(nodeList, outputVar);
-		} finally {
-			br.close();
+		// Create connections for and gates
+		for (int i = 0; i < andGates.size(); i++) {
+			final AndGate andGate = andGates.get(i);
+			andGate.setInWire1(connect(nodes, andGateInputs1[i], andGate));
+			andGate.setInWire2(connect(nodes, andGateInputs2[i], andGate));
 		}
+
+		return new AigerSystem(new ArrayList<>(Arrays.asList(nodes)), outputVar);
+	}
+
+	/**
+	 * Parse a binary AIGER file from a buffer. In the binary format inputs are
+	 * implicit, latches, outputs and bad state properties are given as text lines
+	 * and the and gates are encoded as deltas between the literals, each delta
+	 * being a variable length integer (7 bits per byte, least significant group
+	 * first). The symbol table and comments are ignored.
+	 */
+	private static AigerSystem parseBinary(final ByteBuffer buffer, final Header header) {
+		final int nInputs = header.nInputs;
+		final int nLatches = header.nLatches;
+		checkArgument(header.nNodes == nInputs + nLatches + header.nAndGates, "Binary AIGER requires M = I + L + A");
+
+		final AigerNode[] nodes = new AigerNode[header.nNodes + 1];
+		nodes[0] = new FalseConst();
+
+		// Inputs are implicit
+		for (int i = 0; i < nInputs; ++i) {
+			nodes[i + 1] = new InputVar(i + 1, i + 1);
+		}
+
+		// Read latches, their literals are implicit
+		final int[] latchInputs = new int[nLatches];
+		for (int i = 0; i < nLatches; ++i) {
+			final int varId = nInputs + i + 1;
+			latchInputs[i] = parseLatch(readTokens(buffer, "Latch expected"), 0, varId);
+			nodes[varId] = new Latch(i + 1, varId);
+		}
+
+		// Read output (or bad state property)
+		final OutputVar outputVar = new OutputVar(1);
+		final int outputVarInput = parseInt(readTokens(buffer, "Output expected")[0]);
+
+		// Decode and gates, their literals are in increasing order so the inputs are already created
+		for (int i = 0; i < header.nAndGates; ++i) {
+			final int varId = nInputs + nLatches + i + 1;
+			final int lhs = 2 * varId;
+			final int rhs1 = lhs - readDelta(buffer);
+			final int rhs2 = rhs1 - readDelta(buffer);
+			checkArgument(rhs1 >= 0 && rhs2 >= 0, "Invalid delta encoding");
+			final AndGate andGate = new AndGate(i + 1, varId);
+			nodes[varId] = andGate;
+			andGate.setInWire1(connect(nodes, rhs1, andGate));
+			andGate.setInWire2(connect(nodes, rhs2, andGate));
+		}
+
+		for (int i = 0; i < nLatches; ++i) {
+			final Latch latch = (Latch) nodes[nInputs + i + 1];
+			latch.setInWire(connect(nodes, latchInputs[i], latch));
+		}
+		outputVar.setInWire(connect(nodes, outputVarInput, outputVar));
+
+		return new AigerSystem(new ArrayList<>(Arrays.asList(nodes)), outputVar);
+	}
+
+	/**
+	 * Get the next state literal of a latch from the tokens of its line, starting
+	 * at the given index. The optional initial value (AIGER 1.9) that follows must
+	 * be zero: initialization to one (1) or leaving the latch uninitialized (its
+	 * own literal) is not supported.
+	 */
+	private static int parseLatch(final String[] tokens, final int index, final int varId) {
+		checkArgument(tokens.length > index, "Latch expected");
+		if (tokens.length > index + 1 && parseInt(tokens[index + 1]) != 0) {
+			throw new UnsupportedOperationException("Only latches initialized to zero are supported (latch " + 2 * varId + ").");
+		}
+		return parseInt(tokens[index]);
+	}
+
+	/**
+	 * Create a wire from the node of a literal to the target and register it as
+	 * an output of the source. Even literals are ponated, odd ones are negated.
+	 */
+	private static AigerWire connect(final AigerNode[] nodes, final int literal, final AigerNode target) {
+		final AigerNode source = checkNotNull(nodes[literal / 2], "Missing node");
+		final AigerWire wire = new AigerWire(source, target, literal % 2 == 0);
+		source.addOutWire(wire);
+		return wire;
+	}
+
+	private static String[] readTokens(final ByteBuffer buffer, final String expected) {
+		checkArgument(buffer.hasRemaining(), expected);
+		return readLine(buffer).trim().split(" ");
+	}
+
+	private static String readLine(final ByteBuffer buffer) {
+		final int start = buffer.position();
+		int end = start;
+		while (end < buffer.limit() && buffer.get(end) != '\n') {
+			end++;
+		}
+		checkArgument(end > start || end < buffer.limit(), "Unexpected end of file");
+		final byte[] bytes = new byte[end - start];
+		buffer.get(bytes);
+		if (buffer.hasRemaining()) {
+			buffer.get();
+		}
+		return new String(bytes, StandardCharsets.US_ASCII);
+	}
+
+	private static int readDelta(final ByteBuffer buffer) {
+		int result = 0;
+		int shift = 0;
+		byte b;
+		do {
+			checkArgument(buffer.hasRemaining(), "Unexpected end of file");
+			checkArgument(shift < 32, "Invalid delta encoding");
+			b = buffer.get();
+			result |= (b & 0x7f) << shift;
+			shift += 7;
+		} while ((b & 0x80) != 0);
+		return result;
 	}
 }
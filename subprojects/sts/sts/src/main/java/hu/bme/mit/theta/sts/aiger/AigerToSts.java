@@ -17,10 +17,17 @@ package hu.bme.mit.theta.sts.aiger;
 
 import static hu.bme.mit.theta.core.type.booltype.BoolExprs.And;
 import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Bool;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.False;
 import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Iff;
 import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Not;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.True;
 
 import hu.bme.mit.theta.common.container.Containers;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
 import java.util.Map;
 
 import hu.bme.mit.theta.core.decl.Decls;
@@ -37,6 +44,7 @@ import hu.bme.mit.theta.sts.aiger.elements.AndGate;
 import hu.bme.mit.theta.sts.aiger.elements.FalseConst;
 import hu.bme.mit.theta.sts.aiger.elements.InputVar;
 import hu.bme.mit.theta.sts.aiger.elements.Latch;
+import hu.bme.mit.theta.sts.aiger.elements.OutputVar;
 
 /**
  * A converter from out internal AIGER representation to STSs.
@@ -81,6 +89,22 @@ public final class AigerToSts {
 		return builder.build();
 	}
 
+	/**
+	 * Convert an AIGER system to a compact STS. Only the cone of influence of
+	 * the output is converted, constants are propagated and structurally equal
+	 * gates are merged. Variables are only created for inputs and latches, gates
+	 * are inlined into the expressions. Expressions are kept tree-shaped, because
+	 * expression utilities traverse shared subexpressions repeatedly: gates that
+	 * are used multiple times after merging (or that would result in too deep
+	 * expressions) are represented by a variable with an invariant instead.
+	 *
+	 * @param aigerSys AIGER system
+	 * @return STS
+	 */
+	public static STS createCompactSts(final AigerSystem aigerSys) {
+		return new CompactStsBuilder().build(aigerSys);
+	}
+
 	private static void transformFalseConst(final Builder builder, final Map<AigerNode, VarDecl<BoolType>> vars,
 											final FalseConst falseConst) {
 		builder.addInvar(Not(vars.get(falseConst).getRef()));
@@ -108,4 +132,175 @@ public final class AigerToSts {
 		builder.addInvar(Iff(lhs, And(rhs1, rhs2)));
 	}
 
+	/**
+	 * Helper for the compact conversion. The reached part of the circuit is first
+	 * structurally hashed into a new graph, where each node has an id (with 0
+	 * being the false constant) and edges are literals (twice the id plus one if
+	 * negated). Ids are assigned in topological order, so expressions can be
+	 * created in a single pass afterwards.
+	 */
+	private static final class CompactStsBuilder {
+		private static final int MAX_INLINE_DEPTH = 64;
+
+		private final Map<AigerNode, Integer> literals = Containers.createMap();
+		private final Map<Long, Integer> strash = Containers.createMap();
+		private final List<AigerNode> origins = new ArrayList<>();
+		private final List<Integer> inputs1 = new ArrayList<>();
+		private final List<Integer> inputs2 = new ArrayList<>();
+		private final List<Integer> fanouts = new ArrayList<>();
+		private final List<Latch> latches = new ArrayList<>();
+		private final List<Integer> latchInputs = new ArrayList<>();
+
+		private CompactStsBuilder() {
+			addNode(null, 0, 0);
+		}
+
+		private STS build(final AigerSystem aigerSys) {
+			final OutputVar output = aigerSys.getOutput();
+			final int outputLit = hash(output.getInWire());
+			reference(outputLit);
+			// Latches are reached during hashing, so this list can grow
+			for (int i = 0; i < latches.size(); i++) {
+				final int nextLit = hash(latches.get(i).getInWire());
+				reference(nextLit);
+				latchInputs.add(nextLit);
+			}
+
+			final Builder builder = STS.builder();
+			final List<Expr<BoolType>> exprs = new ArrayList<>(origins.size());
+			final List<Integer> depths = new ArrayList<>(origins.size());
+			final List<Expr<BoolType>> negatedExprs = new ArrayList<>(origins.size());
+			final Map<AigerNode, VarDecl<BoolType>> vars = Containers.createMap();
+			for (int id = 0; id < origins.size(); id++) {
+				final AigerNode origin = origins.get(id);
+				if (id == 0) {
+					exprs.add(False());
+					depths.add(0);
+				} else if (origin instanceof AndGate) {
+					final int lit1 = inputs1.get(id);
+					final int lit2 = inputs2.get(id);
+					final Expr<BoolType> expr = And(toExpr(lit1, exprs, negatedExprs), toExpr(lit2, exprs, negatedExprs));
+					final int depth = Math.max(depths.get(lit1 / 2), depths.get(lit2 / 2)) + 1;
+					if (fanouts.get(id) > 1 || depth > MAX_INLINE_DEPTH) {
+						final VarDecl<BoolType> var = Decls.Var(origin.getName(), Bool());
+						builder.addInvar(Iff(var.getRef(), expr));
+						exprs.add(var.getRef());
+						depths.add(0);
+					} else {
+						exprs.add(expr);
+						depths.add(depth);
+					}
+				} else {
+					final VarDecl<BoolType> var = Decls.Var(origin.getName(), Bool());
+					vars.put(origin, var);
+					exprs.add(var.getRef());
+					depths.add(0);
+				}
+				negatedExprs.add(null);
+			}
+
+			for (int i = 0; i < latches.size(); i++) {
+				final VarDecl<BoolType> var = vars.get(latches.get(i));
+				builder.addInit(Not(var.getRef()));
+				builder.addTrans(Iff(Exprs.Prime(var.getRef()), toExpr(latchInputs.get(i), exprs, negatedExprs)));
+			}
+			builder.setProp(toExpr(outputLit ^ 1, exprs, negatedExprs));
+			return builder.build();
+		}
+
+		/**
+		 * Get the literal of a wire, hashing the (not yet hashed) part of its cone
+		 * with an iterative post-order traversal.
+		 */
+		private int hash(final AigerWire wire) {
+			final Deque<AigerNode> stack = new ArrayDeque<>();
+			stack.push(wire.getSource());
+			while (!stack.isEmpty()) {
+				final AigerNode node = stack.peek();
+				if (literals.containsKey(node)) {
+					stack.pop();
+				} else if (node instanceof FalseConst) {
+					literals.put(node, 0);
+					stack.pop();
+				} else if (node instanceof InputVar) {
+					literals.put(node, addNode(node, 0, 0));
+					stack.pop();
+				} else if (node instanceof Latch) {
+					literals.put(node, addNode(node, 0, 0));
+					latches.add((Latch) node);
+					stack.pop();
+				} else if (node instanceof AndGate) {
+					final AndGate andGate = (AndGate) node;
+					final AigerNode source1 = andGate.getInWire1().getSource();
+					final AigerNode source2 = andGate.getInWire2().getSource();
+					if (!literals.containsKey(source1)) {
+						stack.push(source1);
+					} else if (!literals.containsKey(source2)) {
+						stack.push(source2);
+					} else {
+						literals.put(node, and(andGate, literal(andGate.getInWire1()), literal(andGate.getInWire2())));
+						stack.pop();
+					}
+				} else {
+					throw new UnsupportedOperationException("Unknown node: " + node.getClass().getName());
+				}
+			}
+			return literal(wire);
+		}
+
+		private int literal(final AigerWire wire) {
+			final int literal = literals.get(wire.getSource());
+			return wire.isPonated() ? literal : literal ^ 1;
+		}
+
+		private int and(final AndGate origin, final int lit1, final int lit2) {
+			final int lo = Math.min(lit1, lit2);
+			final int hi = Math.max(lit1, lit2);
+			if (lo == 0 || lo == (hi ^ 1)) {
+				return 0;
+			} else if (lo == 1 || lo == hi) {
+				return hi;
+			}
+			final long key = ((long) lo << 32) | hi;
+			final Integer existing = strash.get(key);
+			if (existing != null) {
+				return existing;
+			}
+			reference(lo);
+			reference(hi);
+			final int literal = addNode(origin, lo, hi);
+			strash.put(key, literal);
+			return literal;
+		}
+
+		private int addNode(final AigerNode origin, final int lit1, final int lit2) {
+			final int id = origins.size();
+			origins.add(origin);
+			inputs1.add(lit1);
+			inputs2.add(lit2);
+			fanouts.add(0);
+			return 2 * id;
+		}
+
+		private void reference(final int literal) {
+			final int id = literal / 2;
+			fanouts.set(id, fanouts.get(id) + 1);
+		}
+
+		private static Expr<BoolType> toExpr(final int literal, final List<Expr<BoolType>> exprs,
+											 final List<Expr<BoolType>> negatedExprs) {
+			final int id = literal / 2;
+			if (literal % 2 == 0) {
+				return exprs.get(id);
+			} else if (id == 0) {
+				return True();
+			} else {
+				if (negatedExprs.get(id) == null) {
+					negatedExprs.set(id, Not(exprs.get(id)));
+				}
+				return negatedExprs.get(id);
+			}
+		}
+	}
+
 }
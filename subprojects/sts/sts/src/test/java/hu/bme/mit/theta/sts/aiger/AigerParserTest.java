@@ -0,0 +1,29 @@
+package hu.bme.mit.theta.sts.aiger;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+public class AigerParserTest {
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testLatchInitAscii() throws IOException {
+		AigerParser.parse("src/test/resources/latch_init1.aag");
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testLatchInitBinary() throws IOException {
+		AigerParser.parse("src/test/resources/latch_init1.aig");
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testConstraintAscii() throws IOException {
+		AigerParser.parse("src/test/resources/constraint.aag");
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testConstraintBinary() throws IOException {
+		AigerParser.parse("src/test/resources/constraint.aig");
+	}
+
+}
@@ -0,0 +1,137 @@
+package hu.bme.mit.theta.sts.aiger;
+
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Bool;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.model.ImmutableValuation;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolLitExpr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.utils.ExprUtils;
+import hu.bme.mit.theta.core.utils.PathUtils;
+import hu.bme.mit.theta.sts.STS;
+import hu.bme.mit.theta.sts.aiger.elements.AigerSystem;
+
+@RunWith(Parameterized.class)
+public class AigerToStsTest {
+
+	@Parameter(value = 0)
+	public String path;
+
+	@Parameter(value = 1)
+	public int nodes;
+
+	@Parameter(value = 2)
+	public int vars;
+
+	@Parameter(value = 3)
+	public int compactVars;
+
+	@Parameter(value = 4)
+	public boolean safe;
+
+	@Parameters
+	public static Collection<Object[]> data() {
+		return Arrays.asList(new Object[][]{
+
+				{"simple.aag", 6, 6, 3, false},
+
+				{"simple.aig", 6, 6, 3, false},
+
+				{"simple3.aag", 7, 7, 4, false},
+
+				{"simple3.aig", 7, 7, 4, false},
+
+				{"coi1.aag", 8, 8, 2, false},
+
+				{"coi1.aig", 8, 8, 2, false},
+
+				{"constprop1.aag", 6, 6, 2, true},
+
+				{"strash1.aag", 7, 7, 1, true},
+
+				{"strash2.aag", 6, 6, 4, false},
+
+				{"strash2.aig", 6, 6, 4, false},
+
+				{"toggle_bad.aag", 2, 2, 1, false},
+
+				{"toggle_bad.aig", 2, 2, 1, false},
+
+				{"stuck_bad.aag", 2, 2, 1, true},
+
+				{"stuck_bad.aig", 2, 2, 1, true},
+
+		});
+	}
+
+	@Test
+	public void test() throws IOException {
+		final AigerSystem system = AigerParser.parse("src/test/resources/" + path);
+		Assert.assertEquals(nodes, system.getNodes().size());
+		final STS sts = AigerToSts.createSts(system);
+		Assert.assertEquals(vars, sts.getVars().size());
+		final STS compactSts = AigerToSts.createCompactSts(system);
+		Assert.assertEquals(compactVars, compactSts.getVars().size());
+		Assert.assertEquals(safe, isSafe(sts));
+		Assert.assertEquals(safe, isSafe(compactSts));
+	}
+
+	/**
+	 * Explicit reachability over all valuations of the (few) variables of the STS.
+	 */
+	private static boolean isSafe(final STS sts) {
+		final List<VarDecl<?>> vars = new ArrayList<>(sts.getVars());
+		final int nStates = 1 << vars.size();
+		final Expr<BoolType> init = PathUtils.unfold(sts.getInit(), 0);
+		final Expr<BoolType> trans = PathUtils.unfold(sts.getTrans(), 0);
+		final Expr<BoolType> prop = PathUtils.unfold(sts.getProp(), 0);
+
+		final Set<Integer> reached = new HashSet<>();
+		final Deque<Integer> waiting = new ArrayDeque<>();
+		for (int state = 0; state < nStates; state++) {
+			if (eval(init, vars, state, 0) && reached.add(state)) {
+				waiting.add(state);
+			}
+		}
+		while (!waiting.isEmpty()) {
+			final int state = waiting.remove();
+			if (!eval(prop, vars, state, 0)) {
+				return false;
+			}
+			for (int succ = 0; succ < nStates; succ++) {
+				if (eval(trans, vars, state, succ) && reached.add(succ)) {
+					waiting.add(succ);
+				}
+			}
+		}
+		return true;
+	}
+
+	private static boolean eval(final Expr<BoolType> expr, final List<VarDecl<?>> vars, final int state, final int succ) {
+		final ImmutableValuation.Builder builder = ImmutableValuation.builder();
+		for (int i = 0; i < vars.size(); i++) {
+			builder.put(vars.get(i).getConstDecl(0), Bool((state >> i & 1) == 1));
+			builder.put(vars.get(i).getConstDecl(1), Bool((succ >> i & 1) == 1));
+		}
+		return ((BoolLitExpr) ExprUtils.simplify(expr, builder.build())).getValue();
+	}
+
+}
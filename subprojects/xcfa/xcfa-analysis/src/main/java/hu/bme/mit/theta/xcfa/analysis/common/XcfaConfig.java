@@ -15,28 +15,58 @@
  */
 package hu.bme.mit.theta.xcfa.analysis.common;
 
+import com.google.common.collect.ImmutableList;
 import hu.bme.mit.theta.analysis.Action;
 import hu.bme.mit.theta.analysis.Prec;
 import hu.bme.mit.theta.analysis.State;
 import hu.bme.mit.theta.analysis.algorithm.SafetyChecker;
 import hu.bme.mit.theta.analysis.algorithm.SafetyResult;
 
-public final class XcfaConfig<S extends State, A extends Action, P extends Prec> {
+import java.util.Collection;
+
+public final class XcfaConfig<S extends State, A extends Action, P extends Prec> implements AutoCloseable {
 	private final SafetyChecker<S, A, P> checker;
 	private final P initPrec;
+	private final Collection<AutoCloseable> resources;
 
-	private XcfaConfig(final SafetyChecker<S, A, P> checker, final P initPrec) {
+	private XcfaConfig(final SafetyChecker<S, A, P> checker, final P initPrec,
+			   final Collection<? extends AutoCloseable> resources) {
 		this.checker = checker;
 		this.initPrec = initPrec;
+		this.resources = ImmutableList.copyOf(resources);
 	}
 
 	public static <S extends State, A extends Action, P extends Prec> XcfaConfig<S, A, P> create(
 			final SafetyChecker<S, A, P> checker, final P initPrec) {
-		return new XcfaConfig<>(checker, initPrec);
+		return new XcfaConfig<>(checker, initPrec, ImmutableList.of());
+	}
+
+	/**
+	 * Create a configuration that owns the given resources (e.g., solvers and threads used by
+	 * the checker), which are released when the configuration is closed.
+	 */
+	public static <S extends State, A extends Action, P extends Prec> XcfaConfig<S, A, P> create(
+			final SafetyChecker<S, A, P> checker, final P initPrec,
+			final Collection<? extends AutoCloseable> resources) {
+		return new XcfaConfig<>(checker, initPrec, resources);
 	}
 
 	public SafetyResult<S, A> check() {
 		return checker.check(initPrec);
 	}
 
+	/**
+	 * Release the resources owned by the configuration, it cannot be checked afterwards.
+	 */
+	@Override
+	public void close() {
+		for (final AutoCloseable resource : resources) {
+			try {
+				resource.close();
+			} catch (final Exception e) {
+				// The resource is dropped anyway
+			}
+		}
+	}
+
 }
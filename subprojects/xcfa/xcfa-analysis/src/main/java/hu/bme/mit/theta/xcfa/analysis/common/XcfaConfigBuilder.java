@@ -24,6 +24,7 @@ import hu.bme.mit.theta.analysis.Prec;
 import hu.bme.mit.theta.analysis.State;
 import hu.bme.mit.theta.analysis.TransFunc;
 import hu.bme.mit.theta.analysis.algorithm.ArgBuilder;
+import hu.bme.mit.theta.analysis.algorithm.ArgNode;
 import hu.bme.mit.theta.analysis.algorithm.ArgNodeComparators;
 import hu.bme.mit.theta.analysis.algorithm.ArgNodeComparators.ArgNodeComparator;
 import hu.bme.mit.theta.analysis.algorithm.SafetyChecker;
@@ -32,6 +33,9 @@ import hu.bme.mit.theta.analysis.algorithm.cegar.BasicAbstractor;
 import hu.bme.mit.theta.analysis.algorithm.cegar.CegarChecker;
 import hu.bme.mit.theta.analysis.algorithm.cegar.Refiner;
 import hu.bme.mit.theta.analysis.algorithm.cegar.abstractor.StopCriterions;
+import hu.bme.mit.theta.analysis.algorithm.impact.ImpactChecker;
+import hu.bme.mit.theta.analysis.algorithm.impact.ImpactRefiner;
+import hu.bme.mit.theta.analysis.algorithm.impact.PredImpactRefiner;
 import hu.bme.mit.theta.analysis.expl.ExplPrec;
 import hu.bme.mit.theta.analysis.expl.ExplStmtAnalysis;
 import hu.bme.mit.theta.analysis.expl.ItpRefToExplPrec;
@@ -42,14 +46,18 @@ import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceChecker;
 import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceFwBinItpChecker;
 import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceNewtonChecker;
 import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceSeqItpChecker;
+import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceSlicingItpChecker;
 import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceUCBChecker;
 import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceUnsatCoreChecker;
+import hu.bme.mit.theta.analysis.expr.refinement.ItpRefutation;
 import hu.bme.mit.theta.analysis.expr.refinement.MultiExprTraceRefiner;
+import hu.bme.mit.theta.analysis.expr.refinement.ParallelExprTraceRefiner;
 import hu.bme.mit.theta.analysis.expr.refinement.PrecRefiner;
 import hu.bme.mit.theta.analysis.expr.refinement.PruneStrategy;
 import hu.bme.mit.theta.analysis.expr.refinement.Refutation;
 import hu.bme.mit.theta.analysis.expr.refinement.RefutationToPrec;
 import hu.bme.mit.theta.analysis.expr.refinement.SingleExprTraceRefiner;
+import hu.bme.mit.theta.analysis.impl.PrecMappingAnalysis;
 import hu.bme.mit.theta.analysis.pred.ExprSplitters;
 import hu.bme.mit.theta.analysis.pred.ExprSplitters.ExprSplitter;
 import hu.bme.mit.theta.analysis.pred.ItpRefToPredPrec;
@@ -57,17 +65,22 @@ import hu.bme.mit.theta.analysis.pred.PredAbstractors;
 import hu.bme.mit.theta.analysis.pred.PredAbstractors.PredAbstractor;
 import hu.bme.mit.theta.analysis.pred.PredAnalysis;
 import hu.bme.mit.theta.analysis.pred.PredPrec;
+import hu.bme.mit.theta.analysis.pred.PredState;
 import hu.bme.mit.theta.analysis.prod2.Prod2Prec;
-import hu.bme.mit.theta.analysis.waitlist.PriorityWaitlist;
+import hu.bme.mit.theta.analysis.unit.UnitPrec;
+import hu.bme.mit.theta.analysis.waitlist.Waitlist;
 import hu.bme.mit.theta.common.logging.Logger;
 import hu.bme.mit.theta.common.logging.NullLogger;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.solver.Solver;
 import hu.bme.mit.theta.solver.SolverFactory;
+import hu.bme.mit.theta.solver.metrics.MeasuredSolverFactory;
 import hu.bme.mit.theta.xcfa.analysis.common.autoexpl.XcfaAutoExpl;
 import hu.bme.mit.theta.xcfa.analysis.common.autoexpl.XcfaGlobalStaticAutoExpl;
 import hu.bme.mit.theta.xcfa.analysis.common.autoexpl.XcfaNewAtomsAutoExpl;
 import hu.bme.mit.theta.xcfa.analysis.common.autoexpl.XcfaNewOperandsAutoExpl;
 import hu.bme.mit.theta.xcfa.analysis.impl.interleavings.*;
-import hu.bme.mit.theta.xcfa.analysis.impl.singlethread.XcfaDistToErrComparator;
 import hu.bme.mit.theta.xcfa.analysis.impl.singlethread.XcfaSTInitFunc;
 import hu.bme.mit.theta.xcfa.analysis.impl.singlethread.XcfaSTLts;
 import hu.bme.mit.theta.xcfa.analysis.impl.singlethread.XcfaSTOrd;
@@ -77,7 +90,9 @@ import hu.bme.mit.theta.xcfa.model.XCFA;
 import hu.bme.mit.theta.xcfa.model.XcfaLocation;
 import hu.bme.mit.theta.xcfa.model.utils.XcfaUtils;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkArgument;
@@ -85,12 +100,21 @@ import static hu.bme.mit.theta.core.type.booltype.BoolExprs.True;
 
 @SuppressWarnings({"rawtypes", "unchecked"})
 public class XcfaConfigBuilder {
+	/**
+	 * The algorithm used for the verification. The domain and refinement settings only apply to
+	 * {@link #CEGAR}, {@link #IMPACT} always uses predicate states strengthened by sequence
+	 * interpolation.
+	 */
+	public enum Engine {
+		CEGAR, IMPACT
+	}
+
 	public enum Domain {
 		EXPL, PRED_BOOL, PRED_CART, PRED_SPLIT;
 	}
 
 	public enum Refinement {
-		FW_BIN_ITP, BW_BIN_ITP, SEQ_ITP, MULTI_SEQ, UNSAT_CORE, UCB,
+		FW_BIN_ITP, BW_BIN_ITP, SEQ_ITP, SLICED_SEQ_ITP, MULTI_SEQ, PARALLEL_SEQ, UNSAT_CORE, UCB,
 		NWT_WP, NWT_SP, NWT_WP_LV, NWT_SP_LV, NWT_IT_WP, NWT_IT_SP, NWT_IT_WP_LV, NWT_IT_SP_LV
 	}
 
@@ -186,6 +210,42 @@ public class XcfaConfigBuilder {
 				return INTERLEAVINGS.getPartialOrder(partialOrd);
 			}
 
+			@Override
+			public <S extends ExprState, P extends Prec, A extends StmtAction> Analysis<? extends XcfaState<? extends S>, ? extends A, ? extends XcfaPrec<P>> getAnalysis(List<XcfaLocation> initLoc, Analysis<S, A, P> analysis) {
+				return INTERLEAVINGS.getAnalysis(initLoc, analysis);
+			}
+		},
+
+		/**
+		 * Dynamic partial-order reduction with sleep sets. The exploration order is determined by
+		 * the reduction, so the search strategy is ignored.
+		 */
+		INTERLEAVINGS_DPOR {
+			@Override
+			public LTS<? extends XcfaState<?>, ? extends XcfaAction> getLts(XCFA xcfa) {
+				return new XcfaDporLts(xcfa);
+			}
+
+			@Override
+			public <S extends ExprState, P extends Prec> InitFunc<XcfaState<S>, XcfaPrec<P>> getInitFunc(List<XcfaLocation> initLocs, InitFunc<S, P> initFunc) {
+				return INTERLEAVINGS.getInitFunc(initLocs, initFunc);
+			}
+
+			@Override
+			public <S extends ExprState, A extends StmtAction, P extends Prec> TransFunc<XcfaState<S>, A, XcfaPrec<P>> getTransFunc(TransFunc<S, A, P> transFunc) {
+				return INTERLEAVINGS.getTransFunc(transFunc);
+			}
+
+			@Override
+			public <P extends Prec, R extends Refutation> PrecRefiner<XcfaState<ExprState>, ? extends StmtAction, XcfaPrec<P>, R> getPrecRefiner(RefutationToPrec<P, R> refToPrec) {
+				return INTERLEAVINGS.getPrecRefiner(refToPrec);
+			}
+
+			@Override
+			public <S extends ExprState> PartialOrd<XcfaState<S>> getPartialOrder(PartialOrd<S> partialOrd) {
+				return INTERLEAVINGS.getPartialOrder(partialOrd);
+			}
+
 			@Override
 			public <S extends ExprState, P extends Prec, A extends StmtAction> Analysis<? extends XcfaState<? extends S>, ? extends A, ? extends XcfaPrec<P>> getAnalysis(List<XcfaLocation> initLoc, Analysis<S, A, P> analysis) {
 				return INTERLEAVINGS.getAnalysis(initLoc, analysis);
@@ -223,12 +283,16 @@ public class XcfaConfigBuilder {
 		ERR {
 			@Override
 			public ArgNodeComparator getComp(final XCFA cfa, final XcfaLocation errLoc) {
-				return new XcfaDistToErrComparator(cfa, errLoc);
+				return new XcfaDistToErrComparator(cfa);
 			}
 		};
 
 		public abstract ArgNodeComparator getComp(final XCFA cfa, final XcfaLocation errLoc);
 
+		public <S extends State, A extends Action> Waitlist<ArgNode<S, A>> createWaitlist(final XCFA cfa, final XcfaLocation errLoc) {
+			return ArgNodeComparators.createWaitlist(getComp(cfa, errLoc));
+		}
+
 	}
 
 	public enum PredSplit {
@@ -264,6 +328,7 @@ public class XcfaConfigBuilder {
 	}
 
 	private Logger logger = NullLogger.getInstance();
+	private Engine engine = Engine.CEGAR;
 	private final SolverFactory refinementSolverFactory;
 	private final SolverFactory abstractionSolverFactory;
 	private final Domain domain;
@@ -275,6 +340,11 @@ public class XcfaConfigBuilder {
 	private int maxEnum = 0;
 	private InitPrec initPrec = InitPrec.EMPTY;
 	private PruneStrategy pruneStrategy = PruneStrategy.LAZY;
+	private boolean incrementalAbstraction = false;
+	private int abstractionParallelism = 1;
+	private int refinementParallelism = Runtime.getRuntime().availableProcessors();
+	private final List<AutoCloseable> resources = new ArrayList<>();
+	private boolean symmetryReduction = false;
 	private AutoExpl autoExpl = AutoExpl.NEWOPERANDS;
 
 	public XcfaConfigBuilder(final Domain domain, final Refinement refinement, final SolverFactory refinementSolverFactory, final SolverFactory abstractionSolverFactory, final Algorithm algorithm) {
@@ -295,13 +365,17 @@ public class XcfaConfigBuilder {
 		return this;
 	}
 
+	public XcfaConfigBuilder engine(final Engine engine) {
+		this.engine = engine;
+		return this;
+	}
+
 	public XcfaConfigBuilder logger(final Logger logger) {
 		this.logger = logger;
 		return this;
 	}
 
 	public XcfaConfigBuilder search(final Search search) {
-		checkArgument(!(search == Search.ERR) || algorithm == Algorithm.SINGLETHREAD, "ERR search only compatible with SINGLETHREAD algorithm!");
 		this.search = search;
 		return this;
 	}
@@ -326,8 +400,53 @@ public class XcfaConfigBuilder {
 		return this;
 	}
 
+	/**
+	 * Use the incremental variants of the Boolean predicate abstractors, which keep the
+	 * predicate definitions permanently asserted in the abstraction solver.
+	 */
+	public XcfaConfigBuilder incrementalAbstraction(final boolean incrementalAbstraction) {
+		this.incrementalAbstraction = incrementalAbstraction;
+		return this;
+	}
+
+	/**
+	 * Number of solvers (and threads) used concurrently by the Cartesian predicate abstractor.
+	 */
+	public XcfaConfigBuilder abstractionParallelism(final int abstractionParallelism) {
+		checkArgument(abstractionParallelism > 0, "Parallelism must be positive");
+		this.abstractionParallelism = abstractionParallelism;
+		return this;
+	}
+
+	/**
+	 * Number of solvers (and threads) used concurrently by the {@link Refinement#PARALLEL_SEQ}
+	 * refinement for checking counterexamples, defaults to the number of processors.
+	 */
+	public XcfaConfigBuilder refinementParallelism(final int refinementParallelism) {
+		checkArgument(refinementParallelism > 0, "Parallelism must be positive");
+		this.refinementParallelism = refinementParallelism;
+		return this;
+	}
+
+	/**
+	 * Partition the reached nodes of the interleaving analyses by the canonical form of their
+	 * processes instead of the current location, so that a node can be covered by another one that
+	 * only differs in the order of the threads started from the same process. Without it, a node
+	 * can only be covered by another one with the same processes.
+	 */
+	public XcfaConfigBuilder symmetryReduction(final boolean symmetryReduction) {
+		this.symmetryReduction = symmetryReduction;
+		return this;
+	}
+
 	public XcfaConfig<? extends State, ? extends Action, ? extends Prec> build(final XCFA xcfa) {
+		final SolverFactory abstractionSolverFactory = MeasuredSolverFactory.wrap(this.abstractionSolverFactory, "abstraction");
+		final SolverFactory refinementSolverFactory = MeasuredSolverFactory.wrap(this.refinementSolverFactory, "refinement");
 		final LTS lts = algorithm.getLts(xcfa);
+		if (engine == Engine.IMPACT) {
+			return buildImpact(lts, xcfa, abstractionSolverFactory, refinementSolverFactory);
+		}
+
 		final Abstractor abstractor;
 		final Refiner refiner;
 		final XcfaPrec prec;
@@ -344,21 +463,24 @@ public class XcfaConfigBuilder {
 				precRefiner = algorithm.getPrecRefiner(explRefToPrec);
 				break;
 			case PRED_BOOL:
-				PredAbstractor predAbstractor = PredAbstractors.booleanAbstractor(abstractionSolverFactory.createSolver());
+				PredAbstractor predAbstractor = incrementalAbstraction ? PredAbstractors.incrementalBooleanAbstractor(abstractionSolverFactory.createSolver(), false)
+						: PredAbstractors.booleanAbstractor(abstractionSolverFactory.createSolver());
 				PredAnalysis<?> predAnalysis = PredAnalysis.create(abstractionSolverFactory.createSolver(), predAbstractor, True());
 				abstractor = getAbstractor(lts, predAnalysis, xcfa);
 				prec = getPredPrec(initPrec, xcfa);
 				precRefiner = algorithm.getPrecRefiner(predRefToPrec);
 				break;
 			case PRED_CART:
-				predAbstractor = PredAbstractors.booleanSplitAbstractor(abstractionSolverFactory.createSolver());
+				predAbstractor = incrementalAbstraction ? PredAbstractors.incrementalBooleanSplitAbstractor(abstractionSolverFactory.createSolver())
+						: PredAbstractors.booleanSplitAbstractor(abstractionSolverFactory.createSolver());
 				predAnalysis = PredAnalysis.create(abstractionSolverFactory.createSolver(), predAbstractor, True());
 				abstractor = getAbstractor(lts, predAnalysis, xcfa);
 				prec = getPredPrec(initPrec, xcfa);
 				precRefiner = algorithm.getPrecRefiner(predRefToPrec);
 				break;
 			case PRED_SPLIT:
-				predAbstractor = PredAbstractors.cartesianAbstractor(abstractionSolverFactory.createSolver());
+				predAbstractor = abstractionParallelism > 1 ? own(PredAbstractors.parallelCartesianAbstractor(abstractionSolverFactory, abstractionParallelism))
+						: PredAbstractors.cartesianAbstractor(abstractionSolverFactory.createSolver());
 				predAnalysis = PredAnalysis.create(abstractionSolverFactory.createSolver(), predAbstractor, True());
 				abstractor = getAbstractor(lts, predAnalysis, xcfa);
 				prec = getPredPrec(initPrec, xcfa);
@@ -380,9 +502,16 @@ public class XcfaConfigBuilder {
 			case SEQ_ITP:
 				exprTraceChecker = ExprTraceSeqItpChecker.create(True(), True(), refinementSolverFactory.createItpSolver());
 				break;
+			case SLICED_SEQ_ITP:
+				exprTraceChecker = ExprTraceSlicingItpChecker.create(True(), True(), refinementSolverFactory.createItpSolver());
+				break;
 			case MULTI_SEQ:
 				exprTraceChecker = ExprTraceSeqItpChecker.create(True(), True(), refinementSolverFactory.createItpSolver());
 				break;
+			case PARALLEL_SEQ:
+				// The trace checkers are created for the parallel refiner below
+				exprTraceChecker = null;
+				break;
 			case UCB:
 				exprTraceChecker = ExprTraceUCBChecker.create(True(), True(), refinementSolverFactory.createUCSolver());
 				break;
@@ -421,12 +550,33 @@ public class XcfaConfigBuilder {
 		if (refinement == Refinement.MULTI_SEQ) {
 			refiner = MultiExprTraceRefiner.create(exprTraceChecker,
 					precRefiner, pruneStrategy, logger);
+		} else if (refinement == Refinement.PARALLEL_SEQ) {
+			refiner = own(ParallelExprTraceRefiner.create(createSeqItpCheckers(True(), True(), refinementSolverFactory),
+					precRefiner, pruneStrategy, logger));
 		} else {
 			refiner = SingleExprTraceRefiner.create(exprTraceChecker,
 					precRefiner, pruneStrategy, logger);
 		}
 		final SafetyChecker checker = CegarChecker.create(abstractor, refiner, logger);
-		return XcfaConfig.create(checker, prec);
+		return XcfaConfig.create(checker, prec, takeResources());
+	}
+
+	private XcfaConfig buildImpact(final LTS lts, final XCFA xcfa, final SolverFactory abstractionSolverFactory,
+								   final SolverFactory refinementSolverFactory) {
+		if (algorithm == Algorithm.INTERLEAVINGS_DPOR) {
+			throw new UnsupportedOperationException(Engine.IMPACT + " engine does not support " + algorithm + " algorithm.");
+		}
+		final Solver abstractionSolver = abstractionSolverFactory.createSolver();
+		final Analysis predAnalysis = PredAnalysis.create(abstractionSolver, PredAbstractors.cartesianAbstractor(abstractionSolver), True());
+		final Analysis xcfaAnalysis = getAnalysis(xcfa, predAnalysis);
+		final XcfaPrec emptyPrec = XcfaPrec.create(PredPrec.of());
+		final Analysis analysis = PrecMappingAnalysis.create(xcfaAnalysis, p -> emptyPrec);
+
+		final ImpactRefiner refiner = PredImpactRefiner.<XcfaState, XcfaAction>create(refinementSolverFactory.createItpSolver(),
+				True(), True(), s -> (PredState) s.getGlobalState(), (s, predState) -> s.withGlobalState(predState));
+		final SafetyChecker checker = ImpactChecker.builder(lts, analysis, state -> ((XcfaState) state).isError(), refiner)
+				.partitioning(getProjection()).forcedCovering(true).logger(logger).build();
+		return XcfaConfig.create(checker, UnitPrec.getInstance(), takeResources());
 	}
 
 	private XcfaPrec getProdPrec(InitPrec initPrec, XCFA xcfa) {
@@ -483,13 +633,63 @@ public class XcfaConfigBuilder {
 	}
 
 	private Abstractor getAbstractor(LTS lts, Analysis domainAnalysis, XCFA xcfa) {
-		final Analysis analysis = algorithm.getAnalysis(xcfa.getProcesses().stream().map(proc -> proc.getMainProcedure().getInitLoc()).collect(Collectors.toList()), domainAnalysis);
+		final Analysis analysis = getAnalysis(xcfa, domainAnalysis);
 
 		final ArgBuilder argBuilder = ArgBuilder.create(lts, analysis, state -> ((XcfaState) state).isError(), true);
 		return BasicAbstractor
-				.builder(argBuilder).projection(state -> ((XcfaState) state).getCurrentLoc())
-				.waitlist(PriorityWaitlist.create(search.getComp(xcfa, xcfa.getMainProcess().getMainProcedure().getErrorLoc())))
-				.stopCriterion(refinement == Refinement.MULTI_SEQ ? StopCriterions.fullExploration()
+				.builder(argBuilder).projection(getProjection())
+				.waitlist(lts instanceof XcfaDporLts ? ((XcfaDporLts) lts).getWaitlist()
+						: search.createWaitlist(xcfa, xcfa.getMainProcess().getMainProcedure().getErrorLoc()))
+				.stopCriterion(refinement == Refinement.MULTI_SEQ || refinement == Refinement.PARALLEL_SEQ ? StopCriterions.fullExploration()
 						: StopCriterions.firstCex()).logger(logger).build();
 	}
+
+	private Analysis getAnalysis(final XCFA xcfa, final Analysis domainAnalysis) {
+		final List<XcfaLocation> initLocs = getInitLocs(xcfa);
+		if (isSymmetryReduced()) {
+			return XcfaAnalysis.create(initLocs, XcfaOrd.create(domainAnalysis.getPartialOrd(), true),
+					algorithm.getInitFunc(initLocs, domainAnalysis.getInitFunc()), algorithm.getTransFunc(domainAnalysis.getTransFunc()));
+		}
+		return algorithm.getAnalysis(initLocs, domainAnalysis);
+	}
+
+	private boolean isSymmetryReduced() {
+		return symmetryReduction && algorithm != Algorithm.SINGLETHREAD;
+	}
+
+	private List<XcfaLocation> getInitLocs(final XCFA xcfa) {
+		return xcfa.getProcesses().stream().map(proc -> proc.getMainProcedure().getInitLoc()).collect(Collectors.toList());
+	}
+
+	private Function<Object, ?> getProjection() {
+		return isSymmetryReduced()
+				? state -> ((hu.bme.mit.theta.xcfa.analysis.impl.interleavings.XcfaState) state).getSymmetryKey()
+				: state -> ((XcfaState) state).getCurrentLoc();
+	}
+
+	/**
+	 * Register a resource (e.g., a solver) to be owned by the configuration being built.
+	 */
+	private <T extends AutoCloseable> T own(final T resource) {
+		resources.add(resource);
+		return resource;
+	}
+
+	/**
+	 * Get the resources registered for the configuration being built.
+	 */
+	private List<AutoCloseable> takeResources() {
+		final List<AutoCloseable> result = new ArrayList<>(resources);
+		resources.clear();
+		return result;
+	}
+
+	private List<ExprTraceChecker<ItpRefutation>> createSeqItpCheckers(final Expr<BoolType> init, final Expr<BoolType> target,
+																	  final SolverFactory refinementSolverFactory) {
+		final List<ExprTraceChecker<ItpRefutation>> checkers = new ArrayList<>(refinementParallelism);
+		for (int i = 0; i < refinementParallelism; ++i) {
+			checkers.add(ExprTraceSeqItpChecker.create(init, target, own(refinementSolverFactory.createItpSolver())));
+		}
+		return checkers;
+	}
 }
@@ -0,0 +1,233 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.xcfa.analysis.common;
+
+import hu.bme.mit.theta.analysis.Action;
+import hu.bme.mit.theta.analysis.State;
+import hu.bme.mit.theta.analysis.algorithm.ArgNode;
+import hu.bme.mit.theta.analysis.algorithm.ArgNodeComparators.RankingArgNodeComparator;
+import hu.bme.mit.theta.analysis.utils.DistanceTable;
+import hu.bme.mit.theta.xcfa.model.XCFA;
+import hu.bme.mit.theta.xcfa.model.XcfaEdge;
+import hu.bme.mit.theta.xcfa.model.XcfaLabel;
+import hu.bme.mit.theta.xcfa.model.XcfaLocation;
+import hu.bme.mit.theta.xcfa.model.XcfaProcedure;
+import hu.bme.mit.theta.xcfa.model.XcfaProcess;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A comparator for ArgNodes that is based on the distance from the error
+ * locations. The distances are computed once (on first use) over all procedures
+ * of the XCFA, where the initial location of a procedure is also reachable from
+ * the locations calling the procedure or starting it as a new thread.
+ * <p>
+ * States of the interleaving analysis are treated as products of their
+ * processes (threads): a process waiting for other threads to end has to wait
+ * until all of them reach their final locations, so the distances of those
+ * threads to their final locations (also computed once) are added to its own
+ * distance. The distance of the state is the least one among its processes, as
+ * a single failing process makes the state erroneous. For other states with
+ * multiple processes, the least distance among the processes is taken.
+ */
+public class XcfaDistToErrComparator implements RankingArgNodeComparator {
+	private transient DistanceTable<XcfaLocation> distancesToError;
+	private transient DistanceTable<XcfaLocation> distancesToEnd;
+	private final int errorWeight;
+	private final int depthWeight;
+	private final XCFA xcfa;
+
+	public XcfaDistToErrComparator(final XCFA xcfa) {
+		this(xcfa, 1, 0);
+	}
+
+	public XcfaDistToErrComparator(final XCFA xcfa, final int errorWeight, final int depthWeight) {
+		this.xcfa = xcfa;
+		this.errorWeight = errorWeight;
+		this.depthWeight = depthWeight;
+		distancesToError = null;
+	}
+
+	@Override
+	public int rank(final ArgNode<? extends State, ? extends Action> node) {
+		checkArgument(node.getState() instanceof XcfaState, "XcfaState expected.");
+		final int distanceToError = getDistanceToError((XcfaState<?>) node.getState());
+		if (distanceToError == DistanceTable.INFINITE) {
+			return distanceToError;
+		}
+		return errorWeight * distanceToError + depthWeight * node.getDepth();
+	}
+
+	private int getDistanceToError(final XcfaState<?> state) {
+		if (distancesToError == null) {
+			distancesToError = calculateDistancesToError(xcfa);
+		}
+		if (state instanceof hu.bme.mit.theta.xcfa.analysis.impl.interleavings.XcfaState) {
+			final hu.bme.mit.theta.xcfa.analysis.impl.interleavings.XcfaState<?> interleavingState =
+					(hu.bme.mit.theta.xcfa.analysis.impl.interleavings.XcfaState<?>) state;
+			return getDistanceToError(interleavingState);
+		} else if (state instanceof hu.bme.mit.theta.xcfa.analysis.impl.declarative.XcfaState) {
+			return getDistanceToError(((hu.bme.mit.theta.xcfa.analysis.impl.declarative.XcfaState<?>) state).getProcessLocs().values());
+		} else {
+			return distancesToError.getDistance(state.getCurrentLoc());
+		}
+	}
+
+	private int getDistanceToError(final hu.bme.mit.theta.xcfa.analysis.impl.interleavings.XcfaState<?> state) {
+		final Map<Integer, ? extends Collection<Integer>> waitForEnd = state.getWaitForEnd();
+		int min = DistanceTable.INFINITE;
+		for (int i = 0; i < state.getProcessCount(); i++) {
+			final int distance = distancesToError.getDistance(state.getProcessLoc(i));
+			if (distance >= min) {
+				continue;
+			}
+			final Collection<Integer> joined = waitForEnd.get(i);
+			if (joined == null || joined.isEmpty()) {
+				min = distance;
+			} else {
+				min = Math.min(min, addSaturated(distance, getDistanceToEnd(state, joined)));
+			}
+		}
+		return min;
+	}
+
+	private int getDistanceToEnd(final hu.bme.mit.theta.xcfa.analysis.impl.interleavings.XcfaState<?> state,
+								 final Collection<Integer> processes) {
+		if (distancesToEnd == null) {
+			distancesToEnd = calculateDistancesToEnd(xcfa);
+		}
+		int max = 0;
+		for (final int process : processes) {
+			// Threads that are joined before being started never end
+			if (process < 0 || process >= state.getProcessCount()) {
+				return DistanceTable.INFINITE;
+			}
+			max = Math.max(max, distancesToEnd.getDistance(state.getProcessLoc(process)));
+		}
+		return max;
+	}
+
+	private static int addSaturated(final int distance1, final int distance2) {
+		final long sum = (long) distance1 + distance2;
+		return sum >= DistanceTable.INFINITE ? DistanceTable.INFINITE : (int) sum;
+	}
+
+	private int getDistanceToError(final Collection<XcfaLocation> processLocs) {
+		int min = DistanceTable.INFINITE;
+		for (final XcfaLocation loc : processLocs) {
+			min = Math.min(min, distancesToError.getDistance(loc));
+		}
+		return min;
+	}
+
+	static DistanceTable<XcfaLocation> calculateDistancesToError(final XCFA xcfa) {
+		final Map<String, XcfaProcedure> procedures = new HashMap<>();
+		final Set<XcfaLocation> errorLocs = new LinkedHashSet<>();
+		for (final XcfaProcess process : xcfa.getProcesses()) {
+			for (final XcfaProcedure procedure : process.getProcedures()) {
+				procedures.putIfAbsent(procedure.getName(), procedure);
+				if (procedure.getErrorLoc() != null) {
+					errorLocs.add(procedure.getErrorLoc());
+				}
+				for (final XcfaLocation loc : procedure.getLocs()) {
+					if (loc.isErrorLoc()) {
+						errorLocs.add(loc);
+					}
+				}
+			}
+		}
+
+		// Locations calling a procedure or starting a thread are predecessors of its initial location
+		final Map<XcfaLocation, List<XcfaLocation>> invocations = new HashMap<>();
+		for (final XcfaProcess process : xcfa.getProcesses()) {
+			for (final XcfaProcedure procedure : process.getProcedures()) {
+				for (final XcfaEdge edge : procedure.getEdges()) {
+					for (final XcfaLabel label : edge.getLabels()) {
+						collectInvocations(label, edge.getSource(), procedures, invocations);
+					}
+				}
+			}
+		}
+
+		return DistanceTable.create(errorLocs, loc -> {
+			final List<XcfaLocation> predecessors = new ArrayList<>();
+			for (final XcfaEdge inEdge : loc.getIncomingEdges()) {
+				predecessors.add(inEdge.getSource());
+			}
+			predecessors.addAll(invocations.getOrDefault(loc, List.of()));
+			return predecessors;
+		});
+	}
+
+	static DistanceTable<XcfaLocation> calculateDistancesToEnd(final XCFA xcfa) {
+		final Set<XcfaLocation> endLocs = new LinkedHashSet<>();
+		for (final XcfaProcess process : xcfa.getProcesses()) {
+			for (final XcfaProcedure procedure : process.getProcedures()) {
+				if (procedure.getFinalLoc() != null) {
+					endLocs.add(procedure.getFinalLoc());
+				}
+				for (final XcfaLocation loc : procedure.getLocs()) {
+					if (loc.isEndLoc() || loc.isErrorLoc()) {
+						endLocs.add(loc);
+					}
+				}
+			}
+		}
+		return DistanceTable.create(endLocs, loc -> {
+			final List<XcfaLocation> predecessors = new ArrayList<>();
+			for (final XcfaEdge inEdge : loc.getIncomingEdges()) {
+				predecessors.add(inEdge.getSource());
+			}
+			return predecessors;
+		});
+	}
+
+	private static void collectInvocations(final XcfaLabel label, final XcfaLocation source,
+										   final Map<String, XcfaProcedure> procedures,
+										   final Map<XcfaLocation, List<XcfaLocation>> invocations) {
+		final String invoked;
+		if (label instanceof XcfaLabel.ProcedureCallXcfaLabel) {
+			invoked = ((XcfaLabel.ProcedureCallXcfaLabel) label).getProcedure();
+		} else if (label instanceof XcfaLabel.StartThreadXcfaLabel) {
+			invoked = ((XcfaLabel.StartThreadXcfaLabel) label).getThreadName();
+		} else if (label instanceof XcfaLabel.SequenceLabel) {
+			((XcfaLabel.SequenceLabel) label).getLabels().forEach(l -> collectInvocations(l, source, procedures, invocations));
+			return;
+		} else if (label instanceof XcfaLabel.NondetLabel) {
+			((XcfaLabel.NondetLabel) label).getLabels().forEach(l -> collectInvocations(l, source, procedures, invocations));
+			return;
+		} else {
+			return;
+		}
+		final XcfaProcedure procedure = procedures.get(invoked);
+		if (procedure != null) {
+			invocations.computeIfAbsent(procedure.getInitLoc(), l -> new ArrayList<>()).add(source);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName();
+	}
+}
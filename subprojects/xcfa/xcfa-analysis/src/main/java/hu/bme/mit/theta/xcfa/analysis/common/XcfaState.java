@@ -32,6 +32,11 @@ public abstract class XcfaState<S extends ExprState> implements ExprState {
 
 	public abstract XcfaLocation getCurrentLoc();
 
+	/**
+	 * Creates a copy of the state with its global state replaced, e.g., by a strengthened one.
+	 */
+	public abstract XcfaState<S> withGlobalState(S globalState);
+
 	public boolean isError() {
 		return getCurrentLoc().isErrorLoc();
 	}
@@ -70,5 +75,10 @@ public abstract class XcfaState<S extends ExprState> implements ExprState {
 		public XcfaLocation getCurrentLoc() {
 			return currentLoc;
 		}
+
+		@Override
+		public XcfaState<S> withGlobalState(final S globalState) {
+			return new SimpleXcfaState<>(currentLoc, globalState);
+		}
 	}
 }
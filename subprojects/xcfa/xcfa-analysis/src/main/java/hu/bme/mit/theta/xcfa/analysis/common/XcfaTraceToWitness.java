@@ -21,6 +21,7 @@ import hu.bme.mit.theta.analysis.Trace;
 import hu.bme.mit.theta.analysis.expl.ExplState;
 import hu.bme.mit.theta.common.visualization.EdgeAttributes;
 import hu.bme.mit.theta.common.visualization.Graph;
+import hu.bme.mit.theta.common.visualization.GraphSink;
 import hu.bme.mit.theta.common.visualization.NodeAttributes;
 import hu.bme.mit.theta.core.model.Valuation;
 import hu.bme.mit.theta.core.stmt.AssumeStmt;
@@ -41,7 +42,7 @@ import java.util.Optional;
 
 public final class XcfaTraceToWitness {
 	private static Trace<XcfaState<ExplState>, XcfaAction> concreteTrace;
-	private static Graph witnessGraph;
+	private static GraphSink witnessGraph;
 	private static Integer nodeCounter = 0;
 
 	private XcfaTraceToWitness() {
@@ -49,12 +50,22 @@ public final class XcfaTraceToWitness {
 
 	public static Graph buildWitness(
 			final Trace<XcfaState<ExplState>, XcfaAction> trace) {
+		final Graph graph = new Graph("id", ""); // TODO what should the id be?
+		buildWitness(trace, graph);
+		return graph;
+	}
+
+	/**
+	 * Builds the witness into a sink, each edge is added right after its target node, so the
+	 * sink can be a stream writing the witness directly.
+	 */
+	public static void buildWitness(
+			final Trace<XcfaState<ExplState>, XcfaAction> trace, final GraphSink sink) {
 		concreteTrace = trace;
-		witnessGraph = new Graph("id", ""); // TODO what should the id be?
+		witnessGraph = sink;
 
 		// add edges
 		addEdges();
-		return witnessGraph;
 	}
 
 	/**
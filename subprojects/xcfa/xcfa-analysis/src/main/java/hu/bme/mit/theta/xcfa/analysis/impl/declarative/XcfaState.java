@@ -112,6 +112,11 @@ public class XcfaState<S extends ExprState> extends hu.bme.mit.theta.xcfa.analys
 		return globalState;
 	}
 
+	@Override
+	public XcfaState<S> withGlobalState(final S globalState) {
+		return withParams(processLocs, enabledProcesses, oldEnabledProcesses, threadLookup, globalState, waitForEnd, lastAction);
+	}
+
 	@Override
 	public XcfaLocation getCurrentLoc() {
 		return lastAction == null ? processLocs.get(enabledProcesses.stream().findAny().get()) : lastAction.getTarget();
@@ -0,0 +1,633 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package hu.bme.mit.theta.xcfa.analysis.impl.interleavings;
+
+import hu.bme.mit.theta.analysis.LTS;
+import hu.bme.mit.theta.analysis.algorithm.ArgEdge;
+import hu.bme.mit.theta.analysis.algorithm.ArgNode;
+import hu.bme.mit.theta.analysis.waitlist.Waitlist;
+import hu.bme.mit.theta.common.Tuple2;
+import hu.bme.mit.theta.common.Utils;
+import hu.bme.mit.theta.common.metrics.Counter;
+import hu.bme.mit.theta.common.metrics.Metrics;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.xcfa.model.XCFA;
+import hu.bme.mit.theta.xcfa.model.XcfaEdge;
+import hu.bme.mit.theta.xcfa.model.XcfaLabel;
+import hu.bme.mit.theta.xcfa.model.XcfaLocation;
+import hu.bme.mit.theta.xcfa.model.utils.LabelUtils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.WeakHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Dynamic partial-order reduction with sleep sets for the interleaving semantics of an XCFA.
+ * <p>
+ * Contrary to {@link XcfaPorLts}, which computes persistent sets from a static approximation of
+ * the dependencies, the reduction is based on the global variables actually accessed by the
+ * transitions along the explored path. Exploration starts with a single process in each state and
+ * more processes are scheduled (into the backtrack set of an already expanded node) whenever a
+ * race between a transition on the path and the next step of a process is detected. Races are
+ * computed with vector clocks, i.e., the happens-before relation of the path. Processes explored
+ * before an independent one are put to sleep in its successors. The backtrack and sleep sets are
+ * maintained on the level of processes: scheduling a process expands all of its outgoing edges.
+ * Processes whose successors all turn out to be bottom are considered to be blocked in the node.
+ * <p>
+ * The exploration order is determined by the DFS {@link #getWaitlist() waitlist} belonging to the
+ * LTS, which must be used by the abstractor instead of a search strategy. Nodes that get new
+ * backtrack entries are re-expanded after the DFS stack becomes empty, even in later iterations of
+ * the abstraction (the scheduled nodes are kept when the waitlist is cleared). When a node is
+ * covered, the accesses reachable (statically) from the locations of its processes are used for
+ * race detection, and the processes sleeping in the covering node but not in the covered one are
+ * woken up.
+ */
+public final class XcfaDporLts implements LTS<XcfaState<?>, XcfaAction> {
+
+	private static final Counter races = Metrics.counter("xcfa.dpor.races");
+	private static final Counter backtrackedNodes = Metrics.counter("xcfa.dpor.backtrackedNodes");
+	private static final Counter sleepingProcesses = Metrics.counter("xcfa.dpor.sleepingProcesses");
+
+	private static final int[] NO_CLOCK = new int[0];
+
+	private final XCFA xcfa;
+	private final XcfaLts simpleXcfaLts = new XcfaLts();
+	private final DporWaitlist waitlist = new DporWaitlist();
+
+	private final Map<ArgNode<XcfaState<?>, XcfaAction>, DporInfo> infos = new WeakHashMap<>();
+	private final Map<Integer, Map<XcfaEdge, XcfaAction>> actions = new HashMap<>();
+	private final Map<XcfaEdge, Accesses> edgeAccesses = new HashMap<>();
+	private final Map<XcfaLocation, Accesses> nextAccesses = new HashMap<>();
+	private final Map<XcfaLocation, Accesses> reachableAccesses = new HashMap<>();
+	private int generation = 0;
+
+	public XcfaDporLts(final XCFA xcfa) {
+		this.xcfa = checkNotNull(xcfa);
+	}
+
+	/**
+	 * Returns the waitlist that drives the exploration. It must be used by the abstractor together
+	 * with this LTS.
+	 */
+	public Waitlist<ArgNode<XcfaState<?>, XcfaAction>> getWaitlist() {
+		return waitlist;
+	}
+
+	/**
+	 * Returns the enabled actions of the processes scheduled in the node that was removed last
+	 * from the waitlist (if the given state belongs to it), or all enabled actions otherwise.
+	 *
+	 * @param state the state whose enabled actions we would like to know
+	 * @return the enabled actions
+	 */
+	@Override
+	public Collection<XcfaAction> getEnabledActionsFor(final XcfaState<?> state) {
+		final ArgNode<XcfaState<?>, XcfaAction> node = waitlist.current;
+		if (node == null || node.getState() != state) {
+			return simpleXcfaLts.getEnabledActionsFor(state);
+		}
+		final DporInfo info = getInfo(node);
+
+		final List<Integer> scheduled = new ArrayList<>();
+		if (!node.isExpanded()) {
+			// Re-expansion after pruning: the previously explored processes are explored again
+			scheduled.addAll(info.done);
+		}
+		for (final Integer process : info.backtrack) {
+			if (!info.done.contains(process) && !info.sleep.contains(process)) {
+				scheduled.add(process);
+			}
+		}
+		if (scheduled.isEmpty() && !node.isExpanded()) {
+			for (int process = 0; process < state.getProcessCount(); process++) {
+				if (isRunnable(state, process)) {
+					if (!info.sleep.contains(process)) {
+						scheduled.add(process);
+						break;
+					}
+					sleepingProcesses.increment();
+				}
+			}
+		}
+
+		info.scheduled = scheduled;
+		final List<XcfaAction> xcfaActions = new ArrayList<>();
+		for (final Integer process : scheduled) {
+			info.done.add(process);
+			for (final XcfaEdge edge : state.getProcessLoc(process).getOutgoingEdges()) {
+				xcfaActions.add(getAction(process, edge));
+			}
+		}
+		return xcfaActions;
+	}
+
+	/**
+	 * The same action instance is used for a given process and edge, so that successors covered by
+	 * a sibling with the same action are not created again when a node is expanded repeatedly.
+	 */
+	private XcfaAction getAction(final int process, final XcfaEdge edge) {
+		return actions.computeIfAbsent(process, p -> new HashMap<>()).computeIfAbsent(edge, e -> XcfaAction.create(process, e));
+	}
+
+	private static boolean isRunnable(final XcfaState<?> state, final int process) {
+		return process < state.getProcessCount() && state.isEnabled(process)
+				&& !state.getProcessLoc(process).getOutgoingEdges().isEmpty();
+	}
+
+	////
+
+	private DporInfo getInfo(final ArgNode<XcfaState<?>, XcfaAction> node) {
+		DporInfo info = infos.get(node);
+		if (info == null) {
+			info = createInfo(node);
+			infos.put(node, info);
+		}
+		return info;
+	}
+
+	private DporInfo createInfo(final ArgNode<XcfaState<?>, XcfaAction> node) {
+		final XcfaState<?> state = node.getState();
+		final int processCount = state.getProcessCount();
+		final Optional<ArgNode<XcfaState<?>, XcfaAction>> optParent = node.getParent();
+		if (optParent.isEmpty()) {
+			return new DporInfo(generation, 0, -1, Accesses.EMPTY, NO_CLOCK, new int[processCount][], new TreeSet<>());
+		}
+
+		final ArgNode<XcfaState<?>, XcfaAction> parent = optParent.get();
+		final DporInfo parentInfo = getInfo(parent);
+		final XcfaAction action = node.getInEdge().get().getAction();
+		final int process = action.getProcess();
+		final Accesses accesses = getEdgeAccesses(action.getEdge());
+		final int depth = parentInfo.depth + 1;
+
+		// Vector clock of the transition: it happens after the previous transition of the process,
+		// the end of the joined threads and every earlier dependent transition
+		final int[] clock = Arrays.copyOf(parentInfo.getClock(process), processCount);
+		for (final XcfaLabel label : action.getLabels()) {
+			if (label instanceof XcfaLabel.JoinThreadXcfaLabel) {
+				final Integer joined = parent.getState().getThreadLookup().get(((XcfaLabel.JoinThreadXcfaLabel) label).getKey());
+				if (joined != null) {
+					join(clock, parentInfo.getClock(joined));
+				}
+			}
+		}
+		for (ArgNode<XcfaState<?>, XcfaAction> ancestor = parent; ancestor.getParent().isPresent(); ancestor = ancestor.getParent().get()) {
+			final DporInfo ancestorInfo = getInfo(ancestor);
+			if (ancestorInfo.process != process && get(clock, ancestorInfo.process) < ancestorInfo.depth
+					&& ancestorInfo.accesses.isDependent(accesses)) {
+				join(clock, ancestorInfo.clock);
+			}
+		}
+		clock[process] = depth;
+
+		final int[][] processClocks = Arrays.copyOf(parentInfo.processClocks, processCount);
+		processClocks[process] = clock;
+		for (int started = parent.getState().getProcessCount(); started < processCount; started++) {
+			processClocks[started] = clock;
+		}
+
+		// Processes explored earlier from the parent stay asleep while they are independent
+		final Set<Integer> sleep = new TreeSet<>();
+		for (final Integer sleeping : parentInfo.sleep) {
+			if (sleeping != process && !getNextAccesses(parent.getState(), sleeping).isDependent(accesses)) {
+				sleep.add(sleeping);
+			}
+		}
+		for (final Integer explored : parentInfo.done) {
+			if (explored == process) {
+				break;
+			}
+			if (!getNextAccesses(parent.getState(), explored).isDependent(accesses)) {
+				sleep.add(explored);
+			}
+		}
+
+		return new DporInfo(parentInfo.generation, depth, process, accesses, clock, processClocks, sleep);
+	}
+
+	private static int get(final int[] clock, final int process) {
+		return process < clock.length ? clock[process] : 0;
+	}
+
+	private static void join(final int[] clock, final int[] other) {
+		for (int i = 0; i < Math.min(clock.length, other.length); i++) {
+			clock[i] = Math.max(clock[i], other[i]);
+		}
+	}
+
+	/**
+	 * Finds the last transition on the path to the node that is in a race with the given next
+	 * step of a process, and schedules the process before it.
+	 */
+	private void detectRace(final ArgNode<XcfaState<?>, XcfaAction> node, final int process, final Accesses next) {
+		if (next.isEmpty()) {
+			return;
+		}
+		final int[] processClock = getInfo(node).getClock(process);
+		for (ArgNode<XcfaState<?>, XcfaAction> racing = node; racing.getParent().isPresent(); racing = racing.getParent().get()) {
+			final DporInfo racingInfo = getInfo(racing);
+			if (racingInfo.process != process && get(processClock, racingInfo.process) < racingInfo.depth
+					&& racingInfo.accesses.isDependent(next)) {
+				races.increment();
+				addBacktrack(racing.getParent().get(), process);
+				return;
+			}
+		}
+	}
+
+	private void addBacktrack(final ArgNode<XcfaState<?>, XcfaAction> racingNode, final int process) {
+		// Processes can only be interleaved before atomic blocks
+		ArgNode<XcfaState<?>, XcfaAction> node = racingNode;
+		while (node.getState().isAtomic() && node.getParent().isPresent()) {
+			node = node.getParent().get();
+		}
+		final XcfaState<?> state = node.getState();
+		final DporInfo info = getInfo(node);
+
+		final Collection<Integer> processes;
+		if (isRunnable(state, process) && !info.blocked.contains(process)) {
+			processes = Collections.singleton(process);
+		} else {
+			processes = new ArrayList<>();
+			for (int i = 0; i < state.getProcessCount(); i++) {
+				if (isRunnable(state, i) && !info.blocked.contains(i)) {
+					processes.add(i);
+				}
+			}
+		}
+
+		boolean changed = false;
+		for (final Integer scheduled : processes) {
+			if (!info.done.contains(scheduled) && !info.sleep.contains(scheduled) && info.backtrack.add(scheduled)) {
+				changed = true;
+			}
+		}
+		if (changed && node.isExpanded()) {
+			waitlist.reschedule(node);
+		}
+	}
+
+	/**
+	 * Checks whether the processes scheduled in the last expansion of the node were blocked, i.e.,
+	 * all of their successors were bottom. If the node has no successors, the next process is
+	 * scheduled, otherwise a blocked process was scheduled because of a race, and (as it cannot be
+	 * interleaved here) all processes are scheduled instead.
+	 */
+	private boolean handleBlocked(final ArgNode<XcfaState<?>, XcfaAction> node) {
+		final DporInfo info = getInfo(node);
+		if (info.scheduled.isEmpty()) {
+			return false;
+		}
+		final Set<Integer> expanded = node.getOutEdges().map(edge -> edge.getAction().getProcess()).collect(Collectors.toSet());
+		for (final Integer process : info.scheduled) {
+			if (!expanded.contains(process)) {
+				info.blocked.add(process);
+			}
+		}
+		info.scheduled = Collections.emptyList();
+
+		final XcfaState<?> state = node.getState();
+		boolean changed = false;
+		for (int process = 0; process < state.getProcessCount(); process++) {
+			if (isRunnable(state, process) && !info.done.contains(process) && !info.sleep.contains(process)) {
+				info.backtrack.add(process);
+				changed = true;
+				if (expanded.isEmpty()) {
+					break;
+				}
+			}
+		}
+		return changed;
+	}
+
+	private void onCreated(final ArgNode<XcfaState<?>, XcfaAction> node) {
+		final XcfaState<?> state = node.getState();
+		for (int process = 0; process < state.getProcessCount(); process++) {
+			detectRace(node, process, getNextAccesses(state, process));
+		}
+	}
+
+	private void onCovered(final ArgNode<XcfaState<?>, XcfaAction> node) {
+		final XcfaState<?> state = node.getState();
+		for (int process = 0; process < state.getProcessCount(); process++) {
+			detectRace(node, process, getReachableAccesses(state.getProcessLoc(process)));
+		}
+
+		final ArgNode<XcfaState<?>, XcfaAction> coveringNode = node.getCoveringNode().get();
+		final DporInfo info = getInfo(node);
+		final DporInfo coveringInfo = getInfo(coveringNode);
+		// With symmetric coverage, the process ids of the covering node may be permuted
+		final boolean samePositions = hasSameProcessLocs(state, coveringNode.getState());
+		final List<Integer> woken = coveringInfo.sleep.stream().filter(process -> !samePositions || !info.sleep.contains(process)).collect(Collectors.toList());
+		if (!woken.isEmpty()) {
+			coveringInfo.sleep.removeAll(woken);
+			coveringInfo.backtrack.addAll(woken);
+			if (coveringNode.isExpanded()) {
+				waitlist.reschedule(coveringNode);
+			}
+		}
+	}
+
+	private static boolean hasSameProcessLocs(final XcfaState<?> state1, final XcfaState<?> state2) {
+		if (state1.getProcessCount() != state2.getProcessCount()) {
+			return false;
+		}
+		for (int process = 0; process < state1.getProcessCount(); process++) {
+			if (state1.getProcessLoc(process) != state2.getProcessLoc(process)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * A node is still part of the ARG if it belongs to the current generation of initial nodes and
+	 * none of the edges on its path were pruned.
+	 */
+	private boolean isInArg(final ArgNode<XcfaState<?>, XcfaAction> node) {
+		final DporInfo info = infos.get(node);
+		if (info == null || info.generation != generation) {
+			return false;
+		}
+		for (ArgNode<XcfaState<?>, XcfaAction> child = node; child.getParent().isPresent(); child = child.getParent().get()) {
+			final ArgEdge<XcfaState<?>, XcfaAction> inEdge = child.getInEdge().get();
+			if (child.getParent().get().getOutEdges().noneMatch(edge -> edge == inEdge)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	////
+
+	private Accesses getNextAccesses(final XcfaState<?> state, final int process) {
+		return nextAccesses.computeIfAbsent(state.getProcessLoc(process),
+				loc -> Accesses.union(loc.getOutgoingEdges().stream().map(this::getEdgeAccesses).collect(Collectors.toList())));
+	}
+
+	/**
+	 * Returns the accesses of the edge, or the accesses of the whole atomic block if the edge
+	 * begins one.
+	 */
+	private Accesses getEdgeAccesses(final XcfaEdge edge) {
+		Accesses accesses = edgeAccesses.get(edge);
+		if (accesses == null) {
+			final List<XcfaEdge> edges = new ArrayList<>();
+			edges.add(edge);
+			if (edge.getLabels().stream().anyMatch(label -> label instanceof XcfaLabel.AtomicBeginXcfaLabel)) {
+				collectEdges(edge.getTarget(), edges, false);
+			}
+			accesses = Accesses.union(edges.stream().map(this::getDirectAccesses).collect(Collectors.toList()));
+			edgeAccesses.put(edge, accesses);
+		}
+		return accesses;
+	}
+
+	private Accesses getReachableAccesses(final XcfaLocation loc) {
+		Accesses accesses = reachableAccesses.get(loc);
+		if (accesses == null) {
+			final List<XcfaEdge> edges = new ArrayList<>();
+			collectEdges(loc, edges, true);
+			accesses = Accesses.union(edges.stream().map(this::getDirectAccesses).collect(Collectors.toList()));
+			reachableAccesses.put(loc, accesses);
+		}
+		return accesses;
+	}
+
+	/**
+	 * Collects the edges reachable from a location, either until the end of the atomic block or
+	 * including the started threads.
+	 */
+	private static void collectEdges(final XcfaLocation loc, final List<XcfaEdge> edges, final boolean wholeProgram) {
+		final Set<XcfaLocation> visited = new HashSet<>();
+		final Deque<XcfaLocation> toVisit = new ArrayDeque<>();
+		toVisit.push(loc);
+		while (!toVisit.isEmpty()) {
+			final XcfaLocation visiting = toVisit.pop();
+			if (!visited.add(visiting)) {
+				continue;
+			}
+			for (final XcfaEdge outgoingEdge : visiting.getOutgoingEdges()) {
+				edges.add(outgoingEdge);
+				if (wholeProgram) {
+					outgoingEdge.getLabels().stream().filter(label -> label instanceof XcfaLabel.StartThreadXcfaLabel)
+							.forEach(label -> toVisit.push(((XcfaLabel.StartThreadXcfaLabel) label).getProcess().getMainProcedure().getInitLoc()));
+				} else if (outgoingEdge.getLabels().stream().anyMatch(label -> label instanceof XcfaLabel.AtomicEndXcfaLabel)) {
+					continue;
+				}
+				toVisit.push(outgoingEdge.getTarget());
+			}
+		}
+	}
+
+	private Accesses getDirectAccesses(final XcfaEdge edge) {
+		final Set<VarDecl<?>> reads = new HashSet<>();
+		final Set<VarDecl<?>> writes = new HashSet<>();
+		for (final XcfaLabel label : edge.getLabels()) {
+			final Tuple2<Set<VarDecl<?>>, Set<VarDecl<?>>> assortedVars = LabelUtils.getAssortedVars(label);
+			assortedVars.get1().stream().filter(xcfa.getGlobalVars()::contains).forEach(writes::add);
+			assortedVars.get2().stream().filter(xcfa.getGlobalVars()::contains).forEach(reads::add);
+		}
+		return Accesses.of(reads, writes);
+	}
+
+	////
+
+	private static final class Accesses {
+		private static final Accesses EMPTY = new Accesses(Collections.emptySet(), Collections.emptySet());
+
+		private final Set<VarDecl<?>> reads;
+		private final Set<VarDecl<?>> writes;
+
+		private Accesses(final Set<VarDecl<?>> reads, final Set<VarDecl<?>> writes) {
+			this.reads = reads;
+			this.writes = writes;
+		}
+
+		private static Accesses of(final Set<VarDecl<?>> reads, final Set<VarDecl<?>> writes) {
+			return reads.isEmpty() && writes.isEmpty() ? EMPTY : new Accesses(reads, writes);
+		}
+
+		private static Accesses union(final Collection<Accesses> accesses) {
+			final Set<VarDecl<?>> reads = new HashSet<>();
+			final Set<VarDecl<?>> writes = new HashSet<>();
+			for (final Accesses access : accesses) {
+				reads.addAll(access.reads);
+				writes.addAll(access.writes);
+			}
+			return of(reads, writes);
+		}
+
+		private boolean isEmpty() {
+			return this == EMPTY;
+		}
+
+		private boolean isDependent(final Accesses that) {
+			return intersects(this.writes, that.writes) || intersects(this.writes, that.reads) || intersects(this.reads, that.writes);
+		}
+
+		private static boolean intersects(final Set<VarDecl<?>> set1, final Set<VarDecl<?>> set2) {
+			final Set<VarDecl<?>> smaller = set1.size() <= set2.size() ? set1 : set2;
+			final Set<VarDecl<?>> larger = smaller == set1 ? set2 : set1;
+			for (final VarDecl<?> var : smaller) {
+				if (larger.contains(var)) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	private static final class DporInfo {
+		private final int generation;
+		private final int depth;
+		private final int process;
+		private final Accesses accesses;
+		private final int[] clock;
+		private final int[][] processClocks;
+		private final Set<Integer> sleep;
+		private final Set<Integer> backtrack = new TreeSet<>();
+		private final Set<Integer> done = new LinkedHashSet<>();
+		private final Set<Integer> blocked = new HashSet<>();
+		private List<Integer> scheduled = Collections.emptyList();
+
+		private DporInfo(final int generation, final int depth, final int process, final Accesses accesses,
+						 final int[] clock, final int[][] processClocks, final Set<Integer> sleep) {
+			this.generation = generation;
+			this.depth = depth;
+			this.process = process;
+			this.accesses = accesses;
+			this.clock = clock;
+			this.processClocks = processClocks;
+			this.sleep = sleep;
+		}
+
+		private int[] getClock(final int process) {
+			return process < processClocks.length && processClocks[process] != null ? processClocks[process] : NO_CLOCK;
+		}
+	}
+
+	private final class DporWaitlist implements Waitlist<ArgNode<XcfaState<?>, XcfaAction>> {
+		private final Deque<ArgNode<XcfaState<?>, XcfaAction>> stack = new ArrayDeque<>();
+		private final Set<ArgNode<XcfaState<?>, XcfaAction>> rescheduled = new LinkedHashSet<>();
+		private ArgNode<XcfaState<?>, XcfaAction> current = null;
+
+		@Override
+		public void add(final ArgNode<XcfaState<?>, XcfaAction> item) {
+			addAll(Collections.singleton(item));
+		}
+
+		@Override
+		public void addAll(final Collection<? extends ArgNode<XcfaState<?>, XcfaAction>> items) {
+			final boolean blocked = current != null && current.isExpanded() && handleBlocked(current);
+			if (items.stream().anyMatch(node -> node.getParent().isEmpty() && !infos.containsKey(node))) {
+				// New initial nodes: every node built earlier was pruned
+				generation++;
+			}
+			final List<ArgNode<XcfaState<?>, XcfaAction>> nodes = new ArrayList<>(items);
+			for (final ArgNode<XcfaState<?>, XcfaAction> node : nodes) {
+				if (!infos.containsKey(node)) {
+					getInfo(node);
+					onCreated(node);
+				}
+			}
+			Collections.reverse(nodes);
+			nodes.forEach(stack::push);
+			if (blocked) {
+				stack.push(current);
+			}
+		}
+
+		@Override
+		public void addAll(final Stream<? extends ArgNode<XcfaState<?>, XcfaAction>> items) {
+			addAll(items.collect(Collectors.toList()));
+		}
+
+		@Override
+		public boolean isEmpty() {
+			handleCurrent();
+			if (!stack.isEmpty()) {
+				return false;
+			}
+			rescheduled.removeIf(node -> !isInArg(node));
+			return rescheduled.isEmpty();
+		}
+
+		@Override
+		public ArgNode<XcfaState<?>, XcfaAction> remove() {
+			handleCurrent();
+			if (stack.isEmpty()) {
+				rescheduled.removeIf(node -> !isInArg(node));
+				final Iterator<ArgNode<XcfaState<?>, XcfaAction>> iterator = rescheduled.iterator();
+				current = iterator.next();
+				iterator.remove();
+				backtrackedNodes.increment();
+			} else {
+				current = stack.pop();
+			}
+			return current;
+		}
+
+		private void reschedule(final ArgNode<XcfaState<?>, XcfaAction> node) {
+			rescheduled.add(node);
+		}
+
+		private void handleCurrent() {
+			if (current != null && current.isCovered()) {
+				onCovered(current);
+			}
+			current = null;
+		}
+
+		@Override
+		public int size() {
+			return stack.size() + rescheduled.size();
+		}
+
+		/**
+		 * Clears the DFS stack, but keeps the nodes scheduled for re-expansion, as they are not
+		 * incomplete nodes of the ARG.
+		 */
+		@Override
+		public void clear() {
+			handleCurrent();
+			stack.clear();
+		}
+
+		@Override
+		public String toString() {
+			return Utils.lispStringBuilder(XcfaDporLts.class.getSimpleName()).add(size()).toString();
+		}
+	}
+}
@@ -34,8 +34,8 @@ public final class XcfaLts implements LTS<XcfaState<?>, XcfaAction> {
 	@Override
 	public Collection<XcfaAction> getEnabledActionsFor(final XcfaState<?> state) {
 		final List<XcfaAction> xcfaActions = new ArrayList<>();
-		for (Integer enabledProcess : state.getEnabledProcesses()) {
-			final XcfaLocation loc = state.getProcessLocs().get(enabledProcess);
+		for (int enabledProcess = state.nextEnabledProcess(0); enabledProcess >= 0; enabledProcess = state.nextEnabledProcess(enabledProcess + 1)) {
+			final XcfaLocation loc = state.getProcessLoc(enabledProcess);
 			for (XcfaEdge outgoingEdge : loc.getOutgoingEdges()) {
 				final XcfaAction xcfaAction = XcfaAction.create(enabledProcess, outgoingEdge);
 				xcfaActions.add(xcfaAction);
@@ -18,38 +18,38 @@ package hu.bme.mit.theta.xcfa.analysis.impl.interleavings;
 
 import hu.bme.mit.theta.analysis.PartialOrd;
 import hu.bme.mit.theta.analysis.expr.ExprState;
-import hu.bme.mit.theta.xcfa.model.XcfaLocation;
-
-import java.util.LinkedHashMap;
-import java.util.Map;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
 public class XcfaOrd<S extends ExprState> implements PartialOrd<hu.bme.mit.theta.xcfa.analysis.common.XcfaState<S>> {
 
 	private final PartialOrd<S> partialOrd;
+	private final boolean symmetryReduction;
 
-	private XcfaOrd(final PartialOrd<S> partialOrd) {
+	private XcfaOrd(final PartialOrd<S> partialOrd, final boolean symmetryReduction) {
 		this.partialOrd = checkNotNull(partialOrd);
+		this.symmetryReduction = symmetryReduction;
 	}
 
 	public static <S extends ExprState> XcfaOrd<S> create(final PartialOrd<S> partialOrd) {
-		return new XcfaOrd<>(partialOrd);
+		return create(partialOrd, false);
+	}
+
+	/**
+	 * Creates a partial order, where a state can only be less than or equal to another one if their
+	 * processes are the same, or (with symmetry reduction) the same up to a permutation of the
+	 * threads started from the same process.
+	 */
+	public static <S extends ExprState> XcfaOrd<S> create(final PartialOrd<S> partialOrd, final boolean symmetryReduction) {
+		return new XcfaOrd<>(partialOrd, symmetryReduction);
 	}
 
 	@Override
 	public boolean isLeq(final hu.bme.mit.theta.xcfa.analysis.common.XcfaState<S> cState1, final hu.bme.mit.theta.xcfa.analysis.common.XcfaState<S> cState2) {
 		XcfaState<S> state1 = (XcfaState<S>) cState1;
 		XcfaState<S> state2 = (XcfaState<S>) cState2;
-		if (state1.getEnabledProcesses().size() != state2.getEnabledProcesses().size()) return false;
-		Map<XcfaLocation, Integer> occurrences = new LinkedHashMap<>();
-		for (XcfaLocation value : state1.getProcessLocs().values()) {
-			occurrences.put(value, occurrences.getOrDefault(value, 0) + 1);
-		}
-		for (XcfaLocation value : state2.getProcessLocs().values()) {
-			occurrences.put(value, occurrences.getOrDefault(value, 0) - 1);
-		}
-		return occurrences.values().stream().allMatch(integer -> integer == 0) &&
-				state1.isLeq(partialOrd, state2);
+		return state1.getEnabledProcessCount() == state2.getEnabledProcessCount()
+				&& (symmetryReduction ? state1.isSymmetricTo(state2) : state1.hasSameProcesses(state2))
+				&& state1.isLeq(partialOrd, state2);
 	}
 }
@@ -16,83 +16,150 @@
 package hu.bme.mit.theta.xcfa.analysis.impl.interleavings;
 
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableMultiset;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Multiset;
 import hu.bme.mit.theta.analysis.PartialOrd;
+import hu.bme.mit.theta.analysis.expl.ExplState;
 import hu.bme.mit.theta.analysis.expr.ExprState;
+import hu.bme.mit.theta.common.Utils;
+import hu.bme.mit.theta.common.container.PersistentHashMap;
 import hu.bme.mit.theta.core.decl.VarDecl;
 import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.LitExpr;
 import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.xcfa.model.XCFA;
+import hu.bme.mit.theta.xcfa.model.XcfaEdge;
 import hu.bme.mit.theta.xcfa.model.XcfaLabel;
 import hu.bme.mit.theta.xcfa.model.XcfaLocation;
+import hu.bme.mit.theta.xcfa.model.XcfaProcedure;
+import hu.bme.mit.theta.xcfa.model.XcfaProcess;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
-import java.util.LinkedHashMap;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Objects;
+import java.util.Set;
+import java.util.WeakHashMap;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 
+/**
+ * State of the interleaving analysis. Process locations are stored in an array indexed by the
+ * process ids, the enabled processes in a bitset, and the thread tables in persistent maps, whose
+ * unchanged parts are shared between successor states. States are treated as values: they are
+ * never modified after construction, and their hash code is cached. Of the last action, only its
+ * process (which determines the {@link #getCurrentLoc() current location}) is part of the
+ * equality; the edge only describes how the state was reached.
+ * <p>
+ * Threads started from the same process are interchangeable: permuting the process ids yields an
+ * equivalent state if the thread tables are permuted accordingly. The {@link #getSymmetryKey()
+ * symmetry key} is a canonical form of the state (without the global state, apart from the
+ * thread-local part of it) under these permutations, which can be used for coverage checks.
+ */
 public class XcfaState<S extends ExprState> extends hu.bme.mit.theta.xcfa.analysis.common.XcfaState<S> {
-	private final Map<Integer, XcfaLocation> processLocs;
-	private final Collection<Integer> enabledProcesses;
-	private final Collection<Integer> oldEnabledProcesses;
-	private final Map<VarDecl<?>, Integer> threadLookup;
-	private final Map<Integer, Collection<Integer>> waitForEnd;
+	private static final int HASH_SEED = 4507;
+	// Process id of threads joined before being started, these are never finished
+	private static final int UNKNOWN_THREAD = -1;
+	// Thread handles occurring in join labels, per XCFA
+	private static final Map<XCFA, Set<VarDecl<?>>> joinedHandles = Collections.synchronizedMap(new WeakHashMap<>());
+
+	private final XcfaLocation[] processLocs;
+	private final BitSet enabledProcesses;
+	private final BitSet oldEnabledProcesses;
+	private final PersistentHashMap<VarDecl<?>, Integer> threadLookup;
+	private final PersistentHashMap<Integer, ImmutableSet<Integer>> waitForEnd;
 	private final XcfaAction lastAction;
 	private final S globalState;
+	private final boolean error;
 
-	protected XcfaState(final Map<XcfaLocation, Boolean> processLocs, final S globalState) {
-		checkNotNull(processLocs);
-		this.processLocs = new LinkedHashMap<>();
-		this.enabledProcesses = new ArrayList<>();
-		processLocs.forEach((xcfaLocation, aBoolean) -> {
-			this.processLocs.put(this.processLocs.size(), xcfaLocation);
-			if (aBoolean) this.enabledProcesses.add(this.processLocs.size() - 1);
-		});
-		this.globalState = checkNotNull(globalState);
-		waitForEnd = new LinkedHashMap<>();
-		this.threadLookup = new LinkedHashMap<>();
-		oldEnabledProcesses = null;
-		lastAction = null;
-	}
+	private volatile int hashCode = 0;
+	private volatile ImmutableMultiset<ProcessSlot> symmetryKey = null;
+	private volatile ImmutableMap<Integer, XcfaLocation> processLocMap = null;
 
-	protected XcfaState(final Map<Integer, XcfaLocation> processLocs, final Collection<Integer> enabledProcesses, Collection<Integer> oldEnabledProcesses, final Map<VarDecl<?>, Integer> threadLookup, final S globalState, final Map<Integer, Collection<Integer>> waitForEnd, final XcfaAction lastAction) {
-		this.processLocs = ImmutableMap.copyOf(checkNotNull(processLocs));
-		this.enabledProcesses = new ArrayList<>(checkNotNull(enabledProcesses));
+	private XcfaState(final XcfaLocation[] processLocs, final BitSet enabledProcesses, final BitSet oldEnabledProcesses,
+					  final PersistentHashMap<VarDecl<?>, Integer> threadLookup, final S globalState,
+					  final PersistentHashMap<Integer, ImmutableSet<Integer>> waitForEnd, final XcfaAction lastAction,
+					  final boolean error) {
+		this.processLocs = processLocs;
+		this.enabledProcesses = enabledProcesses;
 		this.oldEnabledProcesses = oldEnabledProcesses; // this can deliberately be null!
-		this.threadLookup = ImmutableMap.copyOf((checkNotNull(threadLookup)));
+		this.threadLookup = threadLookup;
 		this.globalState = checkNotNull(globalState);
-		this.waitForEnd = waitForEnd.entrySet().stream().map(e -> Map.entry(e.getKey(), new ArrayList<>(e.getValue()))).collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+		this.waitForEnd = waitForEnd;
 		this.lastAction = lastAction;
+		this.error = error;
+	}
 
-		final Collection<Integer> endOrError = new ArrayList<>();
-		this.processLocs.forEach((integer, xcfaLocation) -> {
-			if (xcfaLocation.isEndLoc() || xcfaLocation.isErrorLoc()) endOrError.add(integer);
-		});
-		this.waitForEnd.forEach((integer, integers) -> {
-			integers.removeIf(endOrError::contains);
-		});
-		final List<Map.Entry<Integer, Collection<Integer>>> collect = this.waitForEnd.entrySet().stream().filter(e -> e.getValue().size() == 0).collect(Collectors.toList());
-		for (Map.Entry<Integer, Collection<Integer>> toRemove : collect) {
-			this.waitForEnd.remove(toRemove.getKey());
-			this.enabledProcesses.add(toRemove.getKey());
+	public static <S extends ExprState> XcfaState<S> create(final Map<XcfaLocation, Boolean> processLocs, final S globalState) {
+		checkNotNull(processLocs);
+		final XcfaLocation[] locs = new XcfaLocation[processLocs.size()];
+		final BitSet enabled = new BitSet(locs.length);
+		int i = 0;
+		for (final Map.Entry<XcfaLocation, Boolean> entry : processLocs.entrySet()) {
+			locs[i] = entry.getKey();
+			if (entry.getValue()) enabled.set(i);
+			i++;
 		}
+		return new XcfaState<>(locs, enabled, null, PersistentHashMap.empty(), globalState, PersistentHashMap.empty(), null, anyError(locs));
 	}
 
-	public static <S extends ExprState> XcfaState<S> create(final Map<XcfaLocation, Boolean> processLocs, final S globalState) {
-		return new XcfaState<>(processLocs, globalState);
+	/**
+	 * Creates a state with the given components. The processes waiting only for ended (or failed)
+	 * processes are removed from the waiting ones and enabled.
+	 */
+	private XcfaState<S> withParams(final XcfaLocation[] processLocs, final BitSet enabledProcesses, final BitSet oldEnabledProcesses,
+									final PersistentHashMap<VarDecl<?>, Integer> threadLookup, final S globalState,
+									final PersistentHashMap<Integer, ImmutableSet<Integer>> waitForEnd, final XcfaAction lastAction,
+									final boolean error) {
+		if (waitForEnd.isEmpty()) {
+			return new XcfaState<>(processLocs, enabledProcesses, oldEnabledProcesses, threadLookup, globalState, waitForEnd, lastAction, error);
+		}
+		BitSet newEnabledProcesses = enabledProcesses;
+		PersistentHashMap<Integer, ImmutableSet<Integer>> newWaitForEnd = waitForEnd;
+		for (final Map.Entry<Integer, ImmutableSet<Integer>> entry : waitForEnd.entrySet()) {
+			final ImmutableSet<Integer> waitingFor = entry.getValue();
+			if (waitingFor.stream().noneMatch(process -> isEnded(processLocs, process))) {
+				continue;
+			}
+			final ImmutableSet<Integer> stillWaitingFor = waitingFor.stream().filter(process -> !isEnded(processLocs, process))
+					.collect(ImmutableSet.toImmutableSet());
+			if (stillWaitingFor.isEmpty()) {
+				if (newEnabledProcesses == enabledProcesses) {
+					newEnabledProcesses = (BitSet) enabledProcesses.clone();
+				}
+				newEnabledProcesses.set(entry.getKey());
+				newWaitForEnd = newWaitForEnd.without(entry.getKey());
+			} else {
+				newWaitForEnd = newWaitForEnd.with(entry.getKey(), stillWaitingFor);
+			}
+		}
+		return new XcfaState<>(processLocs, newEnabledProcesses, oldEnabledProcesses, threadLookup, globalState,
+				newWaitForEnd, lastAction, error);
+	}
+
+	private static boolean isEnded(final XcfaLocation[] processLocs, final int process) {
+		return process >= 0 && process < processLocs.length && (processLocs[process].isEndLoc() || processLocs[process].isErrorLoc());
 	}
 
-	protected XcfaState<S> withParams(final Map<Integer, XcfaLocation> processLocs, final Collection<Integer> enabledProcesses, Collection<Integer> oldEnabledProcesses, final Map<VarDecl<?>, Integer> threadLookup, final S globalState, final Map<Integer, Collection<Integer>> waitForEnd, final XcfaAction lastAction) {
-		return new XcfaState<S>(processLocs, enabledProcesses, oldEnabledProcesses, threadLookup, globalState, waitForEnd, lastAction);
+	private static boolean anyError(final XcfaLocation[] processLocs) {
+		for (final XcfaLocation loc : processLocs) {
+			if (loc.isErrorLoc()) return true;
+		}
+		return false;
 	}
 
 	@Override
 	public boolean isBottom() {
-		return enabledProcesses.size() == 0 || globalState.isBottom();
+		return enabledProcesses.isEmpty() || globalState.isBottom();
 	}
 
 	@Override
@@ -101,20 +168,62 @@ public class XcfaState<S extends ExprState> extends hu.bme.mit.theta.xcfa.analys
 	}
 
 	public Collection<Integer> getEnabledProcesses() {
-		return enabledProcesses;
+		return toList(enabledProcesses);
 	}
 
+	public int getEnabledProcessCount() {
+		return enabledProcesses.cardinality();
+	}
+
+	public boolean isEnabled(final int process) {
+		return enabledProcesses.get(process);
+	}
+
+	/**
+	 * Gets the smallest enabled process id that is not less than the given one, or -1 if there is
+	 * no such process. Unlike {@link #getEnabledProcesses()}, iterating this way does not allocate.
+	 */
+	public int nextEnabledProcess(final int fromProcess) {
+		return enabledProcesses.nextSetBit(fromProcess);
+	}
+
+	/**
+	 * Gets the locations of the processes as a map from the process ids. The map is built on the
+	 * first call; prefer {@link #getProcessLoc(int)} and {@link #getProcessCount()}.
+	 */
 	public Map<Integer, XcfaLocation> getProcessLocs() {
-		return processLocs;
+		ImmutableMap<Integer, XcfaLocation> result = processLocMap;
+		if (result == null) {
+			final ImmutableMap.Builder<Integer, XcfaLocation> builder = ImmutableMap.builderWithExpectedSize(processLocs.length);
+			for (int i = 0; i < processLocs.length; i++) {
+				builder.put(i, processLocs[i]);
+			}
+			result = builder.build();
+			processLocMap = result;
+		}
+		return result;
+	}
+
+	public XcfaLocation getProcessLoc(final int process) {
+		return processLocs[process];
+	}
+
+	public int getProcessCount() {
+		return processLocs.length;
 	}
 
 	public S getGlobalState() {
 		return globalState;
 	}
 
+	@Override
+	public XcfaState<S> withGlobalState(final S globalState) {
+		return new XcfaState<>(processLocs, enabledProcesses, oldEnabledProcesses, threadLookup, globalState, waitForEnd, lastAction, error);
+	}
+
 	@Override
 	public XcfaLocation getCurrentLoc() {
-		return lastAction == null ? processLocs.get(enabledProcesses.stream().findAny().get()) : lastAction.getTarget();
+		return processLocs[lastAction == null ? enabledProcesses.nextSetBit(0) : lastAction.getProcess()];
 	}
 
 	public Map<VarDecl<?>, Integer> getThreadLookup() {
@@ -122,44 +231,59 @@ public class XcfaState<S extends ExprState> extends hu.bme.mit.theta.xcfa.analys
 	}
 
 	public Collection<Integer> getOldEnabledProcesses() {
-		return oldEnabledProcesses;
+		return oldEnabledProcesses == null ? null : toList(oldEnabledProcesses);
+	}
+
+	/**
+	 * Checks whether a process is inside an atomic block, i.e., only it is enabled temporarily.
+	 */
+	public boolean isAtomic() {
+		return oldEnabledProcesses != null;
 	}
 
 	public XcfaState<S> advance(final S succState, final XcfaAction action) {
-		checkState(processLocs.containsKey(action.getProcess()));
-		final Map<Integer, XcfaLocation> newProcessLocs = new LinkedHashMap<>(processLocs);
-		newProcessLocs.put(action.getProcess(), action.getTarget());
-		return withParams(newProcessLocs, enabledProcesses, oldEnabledProcesses, threadLookup, succState, waitForEnd, action);
+		final int process = action.getProcess();
+		checkState(0 <= process && process < processLocs.length);
+		final XcfaLocation[] newProcessLocs = Arrays.copyOf(processLocs, processLocs.length);
+		newProcessLocs[process] = action.getTarget();
+		final boolean newError = processLocs[process].isErrorLoc() || action.getTarget().isErrorLoc() ? anyError(newProcessLocs) : error;
+		return withParams(newProcessLocs, enabledProcesses, oldEnabledProcesses, threadLookup, succState, waitForEnd, action, newError);
 	}
 
+	@Override
 	public boolean isError() {
-		return processLocs.values().stream().anyMatch(XcfaLocation::isErrorLoc);
+		return error;
 	}
 
 	public XcfaState<S> startthreads(final List<XcfaLabel.StartThreadXcfaLabel> startThreadList) {
-		final Collection<Integer> enabledProcesses = new ArrayList<>(this.enabledProcesses);
-		final Map<Integer, XcfaLocation> processLocs = new LinkedHashMap<>(this.processLocs);
-		final LinkedHashMap<VarDecl<?>, Integer> threadLookup = new LinkedHashMap<>(this.threadLookup);
+		if (startThreadList.isEmpty()) return this;
+		final XcfaLocation[] newProcessLocs = Arrays.copyOf(processLocs, processLocs.length + startThreadList.size());
+		final BitSet newEnabledProcesses = (BitSet) enabledProcesses.clone();
+		PersistentHashMap<VarDecl<?>, Integer> newThreadLookup = threadLookup;
+		int process = processLocs.length;
 		for (XcfaLabel.StartThreadXcfaLabel startThreadXcfaLabel : startThreadList) {
-			enabledProcesses.add(processLocs.size());
-			threadLookup.put(startThreadXcfaLabel.getKey(), processLocs.size());
-			processLocs.put(processLocs.size(), startThreadXcfaLabel.getProcess().getMainProcedure().getInitLoc());
+			newEnabledProcesses.set(process);
+			newThreadLookup = newThreadLookup.with(startThreadXcfaLabel.getKey(), process);
+			newProcessLocs[process] = startThreadXcfaLabel.getProcess().getMainProcedure().getInitLoc();
+			process++;
 		}
-		return withParams(processLocs, enabledProcesses, oldEnabledProcesses, threadLookup, globalState, waitForEnd, lastAction);
+		return withParams(newProcessLocs, newEnabledProcesses, oldEnabledProcesses, newThreadLookup,
+				globalState, waitForEnd, lastAction, error || anyError(newProcessLocs));
 	}
 
 	public XcfaState<S> jointhreads(final Integer process, final List<XcfaLabel.JoinThreadXcfaLabel> joinThreadList) {
-		final Map<Integer, Collection<Integer>> newWaitForEnd = new LinkedHashMap<>(waitForEnd);
-		final List<Integer> newEnabledProcesses = new ArrayList<>(enabledProcesses);
+		if (joinThreadList.isEmpty()) return this;
+		final BitSet newEnabledProcesses = (BitSet) enabledProcesses.clone();
+		newEnabledProcesses.clear(process);
+		final Set<Integer> waitingFor = new LinkedHashSet<>(waitForEnd.getOrDefault(process, ImmutableSet.of()));
 		for (XcfaLabel.JoinThreadXcfaLabel joinThreadXcfaLabel : joinThreadList) {
-			newEnabledProcesses.remove(process);
-			newWaitForEnd.putIfAbsent(process, new LinkedHashSet<>());
-			newWaitForEnd.get(process).add(threadLookup.get(joinThreadXcfaLabel.getKey()));
+			waitingFor.add(threadLookup.getOrDefault(joinThreadXcfaLabel.getKey(), UNKNOWN_THREAD));
 		}
-		return withParams(processLocs, newEnabledProcesses, oldEnabledProcesses, threadLookup, globalState, newWaitForEnd, lastAction);
+		return withParams(processLocs, newEnabledProcesses, oldEnabledProcesses, threadLookup, globalState,
+				waitForEnd.with(process, ImmutableSet.copyOf(waitingFor)), lastAction, error);
 	}
 
-	public Map<Integer, Collection<Integer>> getWaitForEnd() {
+	public Map<Integer, ? extends Collection<Integer>> getWaitForEnd() {
 		return waitForEnd;
 	}
 
@@ -167,10 +291,147 @@ public class XcfaState<S extends ExprState> extends hu.bme.mit.theta.xcfa.analys
 		return lastAction;
 	}
 
+	private int getLastProcess() {
+		return lastAction == null ? -1 : lastAction.getProcess();
+	}
+
+	/**
+	 * Checks whether the processes of the two states are the same (regardless of the global states
+	 * and the last actions).
+	 */
+	public boolean hasSameProcesses(final XcfaState<?> that) {
+		return Arrays.equals(this.processLocs, that.processLocs) && this.enabledProcesses.equals(that.enabledProcesses)
+				&& Objects.equals(this.oldEnabledProcesses, that.oldEnabledProcesses)
+				&& this.threadLookup.equals(that.threadLookup) && this.waitForEnd.equals(that.waitForEnd);
+	}
+
+	/**
+	 * Checks whether the processes of the two states are the same up to a permutation of the
+	 * process ids (regardless of the global states, apart from the thread-local variables).
+	 */
+	public boolean isSymmetricTo(final XcfaState<?> that) {
+		if (this.processLocs.length != that.processLocs.length) return false;
+		return hasSameProcesses(that) || this.getSymmetryKey().equals(that.getSymmetryKey());
+	}
+
+	/**
+	 * Gets the canonical form of the processes of the state: the multiset of the process slots,
+	 * where a slot consists of the location and status of a process, its thread-local state, the
+	 * thread handles referring to it and the handles of the threads it is waiting for. Only the
+	 * handles that are joined somewhere in the program are considered, as the others cannot
+	 * influence the behavior. Two states have equal keys iff they are the same up to a permutation
+	 * of the process ids.
+	 * <p>
+	 * The thread-local state is the valuation of the variables of the procedure of the process (and
+	 * the thread-local variables of its process) for explicit global states. Other global states
+	 * cannot be projected to these variables, so the whole global state is used instead, i.e.,
+	 * processes are only permuted between states with equal global states.
+	 */
+	public Multiset<?> getSymmetryKey() {
+		ImmutableMultiset<ProcessSlot> result = symmetryKey;
+		if (result == null) {
+			final Set<VarDecl<?>> joinedHandles = processLocs.length == 0 ? Set.of() : getJoinedHandles(processLocs[0]);
+			final Map<Integer, ImmutableSet.Builder<VarDecl<?>>> handleBuilders = new HashMap<>();
+			threadLookup.forEach((handle, process) -> {
+				if (joinedHandles.contains(handle)) {
+					handleBuilders.computeIfAbsent(process, p -> ImmutableSet.builder()).add(handle);
+				}
+			});
+			final Map<Integer, ImmutableSet<VarDecl<?>>> handles = new HashMap<>();
+			handleBuilders.forEach((process, builder) -> handles.put(process, builder.build()));
+
+			final ImmutableMultiset.Builder<ProcessSlot> builder = ImmutableMultiset.builder();
+			for (int i = 0; i < processLocs.length; i++) {
+				final ImmutableSet<ImmutableSet<VarDecl<?>>> waitingFor = waitForEnd.getOrDefault(i, ImmutableSet.of()).stream()
+						.map(process -> handles.getOrDefault(process, ImmutableSet.of())).collect(ImmutableSet.toImmutableSet());
+				builder.add(new ProcessSlot(processLocs[i], enabledProcesses.get(i),
+						oldEnabledProcesses == null ? null : oldEnabledProcesses.get(i), getThreadLocalState(processLocs[i]),
+						handles.getOrDefault(i, ImmutableSet.of()), waitingFor));
+			}
+			result = builder.build();
+			symmetryKey = result;
+		}
+		return result;
+	}
+
+	private Object getThreadLocalState(final XcfaLocation loc) {
+		final XcfaProcedure procedure = loc.getParent();
+		if (!(globalState instanceof ExplState) || procedure == null) {
+			return globalState;
+		}
+		final ExplState explState = (ExplState) globalState;
+		final ImmutableMap.Builder<VarDecl<?>, LitExpr<?>> builder = ImmutableMap.builder();
+		final Set<VarDecl<?>> vars = new LinkedHashSet<>(procedure.getLocalVars());
+		vars.addAll(procedure.getParams().keySet());
+		if (procedure.getParent() != null) {
+			vars.addAll(procedure.getParent().getThreadLocalVars());
+		}
+		for (final VarDecl<?> var : vars) {
+			explState.eval(var).ifPresent(value -> builder.put(var, value));
+		}
+		return builder.build();
+	}
+
+	private static Set<VarDecl<?>> getJoinedHandles(final XcfaLocation loc) {
+		final XCFA xcfa = loc.getParent() == null || loc.getParent().getParent() == null ? null : loc.getParent().getParent().getParent();
+		if (xcfa == null) {
+			return Set.of();
+		}
+		return joinedHandles.computeIfAbsent(xcfa, x -> {
+			final Set<VarDecl<?>> result = new HashSet<>();
+			for (final XcfaProcess process : x.getProcesses()) {
+				for (final XcfaProcedure procedure : process.getProcedures()) {
+					for (final XcfaEdge edge : procedure.getEdges()) {
+						for (final XcfaLabel label : edge.getLabels()) {
+							if (label instanceof XcfaLabel.JoinThreadXcfaLabel) {
+								result.add(((XcfaLabel.JoinThreadXcfaLabel) label).getKey());
+							}
+						}
+					}
+				}
+			}
+			return Set.copyOf(result);
+		});
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj) {
+			return true;
+		} else if (obj != null && this.getClass() == obj.getClass()) {
+			final XcfaState<?> that = (XcfaState<?>) obj;
+			return this.hashCode() == that.hashCode() && this.getLastProcess() == that.getLastProcess()
+					&& Arrays.equals(this.processLocs, that.processLocs)
+					&& this.enabledProcesses.equals(that.enabledProcesses)
+					&& Objects.equals(this.oldEnabledProcesses, that.oldEnabledProcesses)
+					&& this.threadLookup.equals(that.threadLookup) && this.waitForEnd.equals(that.waitForEnd)
+					&& this.globalState.equals(that.globalState);
+		} else {
+			return false;
+		}
+	}
+
+	@Override
+	public int hashCode() {
+		int result = hashCode;
+		if (result == 0) {
+			result = HASH_SEED;
+			result = 31 * result + getLastProcess();
+			result = 31 * result + Arrays.hashCode(processLocs);
+			result = 31 * result + enabledProcesses.hashCode();
+			result = 31 * result + Objects.hashCode(oldEnabledProcesses);
+			result = 31 * result + threadLookup.hashCode();
+			result = 31 * result + waitForEnd.hashCode();
+			result = 31 * result + globalState.hashCode();
+			hashCode = result;
+		}
+		return result;
+	}
+
 	@Override
 	public String toString() {
 		return "XcfaState{" +
-				"processLocs=" + processLocs +
+				"processLocs=" + getProcessLocs() +
 				", enabledProcesses=" + enabledProcesses +
 				", threadLookup=" + threadLookup +
 				", waitForEnd=" + waitForEnd +
@@ -179,21 +440,85 @@ public class XcfaState<S extends ExprState> extends hu.bme.mit.theta.xcfa.analys
 	}
 
 	public boolean isLeq(final PartialOrd<S> partialOrd, final XcfaState<S> state2) {
-		return /*threadLookup.size() <= state2.threadLookup.size() &&
-		threadLookup.entrySet().stream().noneMatch(e -> enabledProcesses.contains(e.getValue()) ^ (state2.threadLookup.containsKey(e.getKey()) && state2.enabledProcesses.contains(state2.threadLookup.get(e.getKey())))) && */
-				partialOrd.isLeq(globalState, state2.globalState);
+		return partialOrd.isLeq(globalState, state2.globalState);
 	}
 
 	public XcfaState<S> atomicbegin(final Integer process, final Boolean atomicBegin) {
 		if (atomicBegin == null || (!atomicBegin && oldEnabledProcesses == null)) return this;
 		else if (atomicBegin) {
-			final ArrayList<Integer> newEnabledProcesses = new ArrayList<>();
-			checkState(enabledProcesses.contains(process), "Not active process cannot become atomic!");
-			newEnabledProcesses.add(process);
-			return withParams(processLocs, newEnabledProcesses, oldEnabledProcesses == null ? enabledProcesses : oldEnabledProcesses, threadLookup, globalState, waitForEnd, lastAction);
+			checkState(enabledProcesses.get(process), "Not active process cannot become atomic!");
+			final BitSet newEnabledProcesses = new BitSet(processLocs.length);
+			newEnabledProcesses.set(process);
+			return withParams(processLocs, newEnabledProcesses, oldEnabledProcesses == null ? enabledProcesses : oldEnabledProcesses, threadLookup, globalState, waitForEnd, lastAction, error);
 		} else {
-			checkState(enabledProcesses.contains(process), "Not active process cannot become non-atomic!");
-			return withParams(processLocs, oldEnabledProcesses, null, threadLookup, globalState, waitForEnd, lastAction);
+			checkState(enabledProcesses.get(process), "Not active process cannot become non-atomic!");
+			return withParams(processLocs, oldEnabledProcesses, null, threadLookup, globalState, waitForEnd, lastAction, error);
+		}
+	}
+
+	private static final class ProcessSlot {
+		private static final int HASH_SEED = 2417;
+
+		private final XcfaLocation loc;
+		private final boolean enabled;
+		private final Boolean oldEnabled;
+		private final Object threadLocalState;
+		private final ImmutableSet<VarDecl<?>> handles;
+		private final ImmutableSet<ImmutableSet<VarDecl<?>>> waitingFor;
+
+		private volatile int hashCode = 0;
+
+		private ProcessSlot(final XcfaLocation loc, final boolean enabled, final Boolean oldEnabled, final Object threadLocalState,
+							final ImmutableSet<VarDecl<?>> handles, final ImmutableSet<ImmutableSet<VarDecl<?>>> waitingFor) {
+			this.loc = loc;
+			this.enabled = enabled;
+			this.oldEnabled = oldEnabled;
+			this.threadLocalState = threadLocalState;
+			this.handles = handles;
+			this.waitingFor = waitingFor;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (this == obj) {
+				return true;
+			} else if (obj instanceof ProcessSlot) {
+				final ProcessSlot that = (ProcessSlot) obj;
+				return this.loc == that.loc && this.enabled == that.enabled && Objects.equals(this.oldEnabled, that.oldEnabled)
+						&& this.threadLocalState.equals(that.threadLocalState) && this.handles.equals(that.handles) && this.waitingFor.equals(that.waitingFor);
+			} else {
+				return false;
+			}
+		}
+
+		@Override
+		public int hashCode() {
+			int result = hashCode;
+			if (result == 0) {
+				result = HASH_SEED;
+				result = 31 * result + loc.hashCode();
+				result = 31 * result + Boolean.hashCode(enabled);
+				result = 31 * result + Objects.hashCode(oldEnabled);
+				result = 31 * result + threadLocalState.hashCode();
+				result = 31 * result + handles.hashCode();
+				result = 31 * result + waitingFor.hashCode();
+				hashCode = result;
+			}
+			return result;
+		}
+
+		@Override
+		public String toString() {
+			return Utils.lispStringBuilder(getClass().getSimpleName()).add(loc).add(enabled).add(oldEnabled)
+					.add(threadLocalState).add(handles).add(waitingFor).toString();
+		}
+	}
+
+	private static List<Integer> toList(final BitSet bitSet) {
+		final List<Integer> list = new ArrayList<>(bitSet.cardinality());
+		for (int i = bitSet.nextSetBit(0); i >= 0; i = bitSet.nextSetBit(i + 1)) {
+			list.add(i);
 		}
+		return list;
 	}
 }
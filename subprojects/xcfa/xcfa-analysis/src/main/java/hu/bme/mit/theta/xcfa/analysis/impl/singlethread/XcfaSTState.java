@@ -65,5 +65,10 @@ public abstract class XcfaSTState<S extends ExprState> extends XcfaState<S> {
 
 	public abstract XcfaSTState<S> withState(final S succState);
 
+	@Override
+	public XcfaSTState<S> withGlobalState(final S globalState) {
+		return withState(globalState);
+	}
+
 	public abstract XcfaSTState<S> withLocation(final XcfaLocation location);
 }
@@ -54,11 +54,10 @@ public class ComplexPortfolio extends AbstractPortfolio {
 		super(logLevel, modelName, smtlibhome); // registers solver factories
 		if (ArchitectureConfig.multiThreading) {
 			this.algorithm = algorithm;
-			search = XcfaConfigBuilder.Search.BFS;
 		} else {
 			this.algorithm = XcfaConfigBuilder.Algorithm.SINGLETHREAD;
-			search = XcfaConfigBuilder.Search.ERR;
 		}
+		search = XcfaConfigBuilder.Search.ERR;
 	}
 
 	@Override
@@ -272,6 +271,15 @@ public class ComplexPortfolio extends AbstractPortfolio {
 			}
 		}
 
+		// Lazy abstraction does not rebuild the ARG, which pays off on safe programs
+		if (algorithm != XcfaConfigBuilder.Algorithm.INTERLEAVINGS_DPOR) {
+			result = runImpact(xcfa);
+			if (result.get1().equals(Result.SUCCESS)) {
+				checkState(result.get2().isPresent());
+				return result.get2().get();
+			}
+		}
+
 		if (statistics.getHavocCount() <= 5 && statistics.getVarCount() > 10) {
 			result = runAllvarsExpl(xcfa);
 		} else {
@@ -396,6 +404,32 @@ public class ComplexPortfolio extends AbstractPortfolio {
 		return result;
 	}
 
+	private Tuple2<Result, Optional<SafetyResult<?, ?>>> runImpact(XCFA xcfa) throws Exception {
+		CegarConfiguration configuration = new CegarConfiguration(
+				XcfaConfigBuilder.Engine.IMPACT,
+				XcfaConfigBuilder.Domain.PRED_CART,
+				XcfaConfigBuilder.Refinement.SEQ_ITP,
+				search,
+				XcfaConfigBuilder.PredSplit.WHOLE,
+				algorithm,
+				1,
+				XcfaConfigBuilder.InitPrec.EMPTY,
+				PruneStrategy.LAZY,
+				false,
+				"Z3",
+				"Z3",
+				false
+		);
+
+		Tuple2<Result, Optional<SafetyResult<?, ?>>> result = executeConfiguration(configuration, xcfa, (long) (60.0 / 900.0 * calculateRemainingTime()));
+		if (result.get1().equals(Result.SUCCESS)) {
+			checkState(result.get2().isPresent());
+			logger.write(Logger.Level.MAINSTEP, "Complex portfolio successful, solver: " + configuration);
+			logger.write(Logger.Level.MAINSTEP, System.lineSeparator());
+		}
+		return result;
+	}
+
 	private Tuple2<Result, Optional<SafetyResult<?, ?>>> runShortPred(XCFA xcfa) throws Exception {
 		CegarConfiguration configuration = new CegarConfiguration(
 				XcfaConfigBuilder.Domain.PRED_CART,
@@ -22,7 +22,9 @@ import hu.bme.mit.theta.common.OsHelper;
 import hu.bme.mit.theta.common.Tuple2;
 import hu.bme.mit.theta.common.logging.ConsoleLogger;
 import hu.bme.mit.theta.common.logging.Logger;
+import hu.bme.mit.theta.solver.SolverFactory;
 import hu.bme.mit.theta.solver.SolverManager;
+import hu.bme.mit.theta.solver.pool.PooledSolverFactory;
 import hu.bme.mit.theta.solver.smtlib.SmtLibSolverManager;
 import hu.bme.mit.theta.solver.z3.Z3SolverManager;
 import hu.bme.mit.theta.xcfa.analysis.utils.OutputHandler;
@@ -30,6 +32,8 @@ import hu.bme.mit.theta.xcfa.model.XCFA;
 
 import java.nio.file.Path;
 import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 
@@ -39,11 +43,16 @@ import java.util.concurrent.TimeUnit;
  * {@link #executeAnalysis} is not implemented and should be the "main" method in the subclasses (concrete portfolios)
  * Uses 2 threads when executing analysis
  * Uses thread.stop() if analysis times out - use at your own risk
+ * Solver instances are pooled (per solver name) and reused by the subsequent configurations,
+ * unless a configuration times out or validates its solvers
  */
 public abstract class AbstractPortfolio {
+	private static final int SOLVER_POOL_CAPACITY = 8;
+
 	protected final ConsoleLogger logger;
 	protected final String modelName;
 	protected final String smtlibHome;
+	private final Map<String, PooledSolverFactory> solverPools = new HashMap<>();
 
 	public AbstractPortfolio(Logger.Level logLevel, String modelName, String smtlibHome) throws Exception {
 		logger = new ConsoleLogger(logLevel);
@@ -70,6 +79,7 @@ public abstract class AbstractPortfolio {
 	 * @throws Exception most likely solver exception
 	 */
 	public void outputResultFiles(SafetyResult<?, ?> status, String refinementSolver) throws Exception {
+		closeSolverPools(); // the output handler closes the solver managers
 		if (status != null && status.isUnsafe()) {
 			OutputHandler.getInstance().writeCounterexamples(status, refinementSolver);
 		} else if (status != null && status.isSafe()) {
@@ -102,7 +112,13 @@ public abstract class AbstractPortfolio {
 
 		CegarAnalysisThread cegarAnalysisThread;
 		try {
-			cegarAnalysisThread = new CegarAnalysisThread(xcfa, logger, configuration);
+			if (configuration.validateSolver) {
+				cegarAnalysisThread = new CegarAnalysisThread(xcfa, logger, configuration);
+			} else {
+				cegarAnalysisThread = new CegarAnalysisThread(xcfa, logger, configuration,
+						getPooledSolverFactory(configuration.abstractionSolver, xcfa),
+						getPooledSolverFactory(configuration.refinementSolver, xcfa));
+			}
 		} catch (Exception e) {
 			e.printStackTrace();
 			return Tuple2.of(Result.UNKNOWN, Optional.empty());
@@ -144,6 +160,7 @@ public abstract class AbstractPortfolio {
 			cegarAnalysisThread.stop(); // Not a good idea, but no better option
 
 			try {
+				closeSolverPools();
 				closeAllSolverManagers();
 			} catch (Exception e) {
 				System.err.println("Could not close solver; possible resource leak");
@@ -197,7 +214,12 @@ public abstract class AbstractPortfolio {
 		OutputHandler.getInstance().writeCsvLine(configuration, timeout, timeTaken, cpuTimeTaken, result);
 		OutputHandler.getInstance().writeTxtLine(configuration, timeout, timeTaken, cpuTimeTaken, result);
 		try {
-			closeAndRegisterAllSolverManagers(smtlibHome, logger);
+			if (configuration.validateSolver) {
+				closeSolverPools();
+				closeAndRegisterAllSolverManagers(smtlibHome, logger);
+			} else {
+				releasePooledSolvers();
+			}
 		} catch (Exception e) {
 			System.err.println("Could not close solver; possible resource leak");
 			e.printStackTrace();
@@ -205,6 +227,37 @@ public abstract class AbstractPortfolio {
 		return Tuple2.of(result, Optional.ofNullable(safetyResult));
 	}
 
+	/**
+	 * Solvers of the same name are reused between configurations; the symbol tables of the
+	 * reused solvers are kept, as all configurations work on the same model
+	 */
+	private SolverFactory getPooledSolverFactory(String name, XCFA xcfa) throws Exception {
+		PooledSolverFactory pool = solverPools.get(name);
+		if (pool == null) {
+			pool = PooledSolverFactory.create(SolverManager.resolveSolverFactory(name), SOLVER_POOL_CAPACITY);
+			solverPools.put(name, pool);
+		}
+		return pool.forModel(xcfa);
+	}
+
+	/**
+	 * Returns the solvers of the finished configuration to the pools, so that the next configuration can reuse them
+	 */
+	private void releasePooledSolvers() {
+		solverPools.forEach((name, pool) -> {
+			pool.releaseAll();
+			logger.write(Logger.Level.INFO, "Solver pool %s: %s%n", name, pool);
+		});
+	}
+
+	/**
+	 * Has to be called before closing the solver managers, as the pooled solvers belong to them
+	 */
+	private void closeSolverPools() {
+		solverPools.values().forEach(PooledSolverFactory::close);
+		solverPools.clear();
+	}
+
 	/**
 	 * We can only keep track of cpu time by using {@link CpuTimeKeeper}, which this method calls properly
 	 * also, it is important to close all unused solvers,
@@ -19,6 +19,7 @@ package hu.bme.mit.theta.xcfa.analysis.portfolio.common;
 import hu.bme.mit.theta.analysis.algorithm.SafetyResult;
 import hu.bme.mit.theta.common.exception.NotSolvableException;
 import hu.bme.mit.theta.common.logging.ConsoleLogger;
+import hu.bme.mit.theta.solver.SolverFactory;
 import hu.bme.mit.theta.solver.UnknownSolverStatusException;
 import hu.bme.mit.theta.solver.smtlib.solver.SmtLibSolverException;
 import hu.bme.mit.theta.xcfa.analysis.common.XcfaConfig;
@@ -46,6 +47,15 @@ class CegarAnalysisThread extends Thread {
 		xcfaConfig = configuration.buildConfiguration(xcfa, logger);
 	}
 
+	CegarAnalysisThread(XCFA xcfa, ConsoleLogger logger, CegarConfiguration configuration,
+						SolverFactory abstractionSolverFactory, SolverFactory refinementSolverFactory) throws Exception {
+		this.xcfa = xcfa;
+		this.logger = logger;
+		this.configuration = configuration;
+		this.safetyResult = null;
+		xcfaConfig = configuration.buildConfiguration(xcfa, logger, abstractionSolverFactory, refinementSolverFactory);
+	}
+
 	public Result getResult() {
 		return result;
 	}
@@ -81,6 +91,8 @@ class CegarAnalysisThread extends Thread {
 				safetyResult = null;
 				result = Result.UNKNOWN;
 				e.printStackTrace();
+			} finally {
+				xcfaConfig.close();
 			}
 		} catch (OutOfMemoryError E) {
 			System.err.println(System.lineSeparator());
@@ -32,6 +32,7 @@ import hu.bme.mit.theta.xcfa.model.XCFA;
  * but it also stores information on the solvers used, if arg-cex check is used and if the solver is validated
  */
 public class CegarConfiguration {
+	public final XcfaConfigBuilder.Engine engine;
 	public final XcfaConfigBuilder.Domain domain;
 	public final XcfaConfigBuilder.Refinement refinement;
 	public final XcfaConfigBuilder.Search search;
@@ -45,7 +46,8 @@ public class CegarConfiguration {
 	public final String refinementSolver;
 	public final boolean validateSolver;
 
-	public CegarConfiguration(XcfaConfigBuilder.Domain domain,
+	public CegarConfiguration(XcfaConfigBuilder.Engine engine,
+							  XcfaConfigBuilder.Domain domain,
 							  XcfaConfigBuilder.Refinement refinement,
 							  XcfaConfigBuilder.Search search,
 							  XcfaConfigBuilder.PredSplit predSplit,
@@ -57,6 +59,7 @@ public class CegarConfiguration {
 							  String abstractionSolver,
 							  String refinementSolver,
 							  boolean validateSolver) {
+		this.engine = engine;
 		this.domain = domain;
 		this.refinement = refinement;
 		this.search = search;
@@ -71,6 +74,22 @@ public class CegarConfiguration {
 		this.validateSolver = validateSolver;
 	}
 
+	public CegarConfiguration(XcfaConfigBuilder.Domain domain,
+							  XcfaConfigBuilder.Refinement refinement,
+							  XcfaConfigBuilder.Search search,
+							  XcfaConfigBuilder.PredSplit predSplit,
+							  XcfaConfigBuilder.Algorithm algorithm,
+							  int maxEnum,
+							  XcfaConfigBuilder.InitPrec initPrec,
+							  PruneStrategy pruneStrategy,
+							  boolean argCexCheck,
+							  String abstractionSolver,
+							  String refinementSolver,
+							  boolean validateSolver) {
+		this(XcfaConfigBuilder.Engine.CEGAR, domain, refinement, search, predSplit, algorithm, maxEnum, initPrec,
+				pruneStrategy, argCexCheck, abstractionSolver, refinementSolver, validateSolver);
+	}
+
 	public CegarConfiguration(XcfaConfigBuilder.Domain domain,
 							  XcfaConfigBuilder.Refinement refinement,
 							  XcfaConfigBuilder.Search search,
@@ -82,34 +101,17 @@ public class CegarConfiguration {
 							  boolean argCexCheck,
 							  String abstractionSolver,
 							  String refinementSolver) {
-		this.domain = domain;
-		this.refinement = refinement;
-		this.search = search;
-		this.predSplit = predSplit;
-		this.algorithm = algorithm;
-		this.maxEnum = maxEnum;
-		this.initPrec = initPrec;
-		this.pruneStrategy = pruneStrategy;
-		this.argCexCheck = argCexCheck;
-		this.abstractionSolver = abstractionSolver;
-		this.refinementSolver = refinementSolver;
-		this.validateSolver = false;
+		this(domain, refinement, search, predSplit, algorithm, maxEnum, initPrec, pruneStrategy, argCexCheck,
+				abstractionSolver, refinementSolver, false);
 	}
 
 	/**
 	 * Sets up arg-cex check (if it is enabled) and builds configuration
 	 */
 	public XcfaConfig<?, ?, ?> buildConfiguration(XCFA xcfa, ConsoleLogger logger) throws Exception {
-		// set up Arg-Cex check
-		if (!argCexCheck) {
-			ArgCexCheckHandler.instance.setArgCexCheck(false, false);
-		} else {
-			ArgCexCheckHandler.instance.setArgCexCheck(true, refinement.equals(XcfaConfigBuilder.Refinement.MULTI_SEQ));
-		}
-
+		SolverFactory refinementSolverFactory;
+		SolverFactory abstractionSolverFactory;
 		try {
-			SolverFactory refinementSolverFactory;
-			SolverFactory abstractionSolverFactory;
 			if (validateSolver) {
 				refinementSolverFactory = SolverValidatorWrapperFactory.create(refinementSolver);
 				abstractionSolverFactory = SolverValidatorWrapperFactory.create(abstractionSolver);
@@ -117,8 +119,28 @@ public class CegarConfiguration {
 				refinementSolverFactory = SolverManager.resolveSolverFactory(refinementSolver);
 				abstractionSolverFactory = SolverManager.resolveSolverFactory(abstractionSolver);
 			}
+		} catch (final Exception ex) {
+			throw new Exception("Could not create configuration: " + ex.getMessage(), ex);
+		}
+		return buildConfiguration(xcfa, logger, abstractionSolverFactory, refinementSolverFactory);
+	}
+
+	/**
+	 * Sets up arg-cex check (if it is enabled) and builds configuration with the given (already resolved) solvers
+	 */
+	public XcfaConfig<?, ?, ?> buildConfiguration(XCFA xcfa, ConsoleLogger logger,
+												  SolverFactory abstractionSolverFactory, SolverFactory refinementSolverFactory) throws Exception {
+		// set up Arg-Cex check
+		if (!argCexCheck) {
+			ArgCexCheckHandler.instance.setArgCexCheck(false, false);
+		} else {
+			ArgCexCheckHandler.instance.setArgCexCheck(true, refinement.equals(XcfaConfigBuilder.Refinement.MULTI_SEQ)
+					|| refinement.equals(XcfaConfigBuilder.Refinement.PARALLEL_SEQ));
+		}
+
+		try {
 			return new XcfaConfigBuilder(domain, refinement, refinementSolverFactory, abstractionSolverFactory, algorithm)
-					.search(search)
+					.engine(engine).search(search)
 					.predSplit(predSplit).maxEnum(maxEnum).initPrec(initPrec)
 					.pruneStrategy(pruneStrategy).logger(logger).build(xcfa);
 
@@ -130,7 +152,8 @@ public class CegarConfiguration {
 	@Override
 	public String toString() {
 		return "Configuration{" +
-				"domain=" + domain +
+				"engine=" + engine +
+				", domain=" + domain +
 				", refinement=" + refinement +
 				", search=" + search +
 				", predSplit=" + predSplit +
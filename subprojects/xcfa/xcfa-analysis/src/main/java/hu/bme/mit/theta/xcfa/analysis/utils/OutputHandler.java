@@ -20,6 +20,8 @@ import hu.bme.mit.theta.analysis.Trace;
 import hu.bme.mit.theta.analysis.algorithm.SafetyResult;
 import hu.bme.mit.theta.analysis.expl.ExplState;
 import hu.bme.mit.theta.common.visualization.Graph;
+import hu.bme.mit.theta.common.visualization.writer.AbstractGraphWriter;
+import hu.bme.mit.theta.common.visualization.writer.GraphStream;
 import hu.bme.mit.theta.solver.SolverFactory;
 import hu.bme.mit.theta.solver.SolverManager;
 import hu.bme.mit.theta.xcfa.analysis.common.XcfaAction;
@@ -120,11 +122,11 @@ public final class OutputHandler {
 			Path workdir = FileSystems.getDefault().getPath("").toAbsolutePath();
 			File witnessfile = new File(workdir + File.separator + "witness.graphml");
 
-			Graph witnessGraph = XcfaTraceToWitness.buildWitness(concrTrace);
 			// TODO make WitnessWriter singleton
 			WitnessWriter ww = WitnessWriter.createViolationWitnessWriter(model.getAbsolutePath(), "CHECK( init(main()), LTL(G ! call(reach_error())) )", false);
-			try {
-				ww.writeFile(witnessGraph, witnessfile.getAbsolutePath());
+			// the witness is not needed in memory, so it is written while it is built
+			try (GraphStream witnessStream = ww.openStream(AbstractGraphWriter.openFile(witnessfile.getAbsolutePath()))) {
+				XcfaTraceToWitness.buildWitness(concrTrace, witnessStream);
 			} catch (FileNotFoundException e) {
 				e.printStackTrace();
 			}
@@ -17,12 +17,16 @@
 package hu.bme.mit.theta.xcfa.analysis.utils;
 
 import hu.bme.mit.theta.common.visualization.Edge;
+import hu.bme.mit.theta.common.visualization.EdgeAttributes;
 import hu.bme.mit.theta.common.visualization.Graph;
 import hu.bme.mit.theta.common.visualization.Node;
+import hu.bme.mit.theta.common.visualization.NodeAttributes;
 import hu.bme.mit.theta.common.visualization.writer.AbstractGraphWriter;
+import hu.bme.mit.theta.common.visualization.writer.GraphStream;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Writer;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.security.DigestInputStream;
@@ -72,23 +76,48 @@ public final class WitnessWriter extends AbstractGraphWriter {
 	}
 
 	@Override
-	public String writeString(Graph graph) {
+	public void write(final Graph graph, final Writer writer) throws IOException {
 		final StringBuilder sb = new StringBuilder();
-		printKeys(sb);
-		sb.append("<graph edgedefault=\"directed\">").append(System.lineSeparator());
-
-		printGraphKeyValues(sb);
+		printHeader(sb);
+		writer.append(sb);
 
-		graph.getRootNodes().forEach(n -> printNode(n, sb));
+		for (final Node node : graph.getNodes()) {
+			if (node.isRoot()) {
+				sb.setLength(0);
+				printNode(node.getId(), node.getAttributes(), sb);
+				writer.append(sb);
+			}
+		}
 
 		for (final Node node : graph.getNodes()) {
+			sb.setLength(0);
 			printEdges(node, sb);
+			writer.append(sb);
 		}
 
+		sb.setLength(0);
+		printFooter(sb);
+		writer.append(sb);
+	}
+
+	/**
+	 * Open a stream that writes the nodes and edges of the witness as soon as they are added.
+	 */
+	public GraphStream openStream(final Writer writer) {
+		return new WitnessStream(writer);
+	}
+
+	private void printHeader(final StringBuilder sb) {
+		printKeys(sb);
+		sb.append("<graph edgedefault=\"directed\">").append(System.lineSeparator());
+
+		printGraphKeyValues(sb);
+	}
+
+	private void printFooter(final StringBuilder sb) {
 		sb.append(" </graph>");
 		sb.append(System.lineSeparator());
 		sb.append("</graphml>");
-		return sb.toString();
 	}
 
 	// TODO should this be a bit more flexible or should we add keys we don't use for now, but we might use in the future?
@@ -178,22 +207,54 @@ public final class WitnessWriter extends AbstractGraphWriter {
 		sb.append(System.lineSeparator());
 	}
 
-	private void printNode(final Node node, final StringBuilder sb) {
-		if (node.getAttributes().getLabel().equals("")) {
-			sb.append("<node id=\"").append(node.getId()).append("\"/>").append(System.lineSeparator());
+	private void printNode(final String id, final NodeAttributes attributes, final StringBuilder sb) {
+		if (attributes.getLabel().equals("")) {
+			sb.append("<node id=\"").append(id).append("\"/>").append(System.lineSeparator());
 		} else {
-			sb.append("<node id=\"").append(node.getId()).append("\">").append(System.lineSeparator());
-			sb.append(node.getAttributes().getLabel()).append(System.lineSeparator()); // TODO tabs?
+			sb.append("<node id=\"").append(id).append("\">").append(System.lineSeparator());
+			sb.append(attributes.getLabel()).append(System.lineSeparator()); // TODO tabs?
 			sb.append("</node>").append(System.lineSeparator());
 		}
 	}
 
 	private void printEdges(final Node node, final StringBuilder sb) {
 		for (final Edge edge : node.getOutEdges()) {
-			sb.append("<edge source=\"").append(edge.getSource().getId());
-			sb.append("\" target=\"").append(edge.getTarget().getId()).append("\">").append(System.lineSeparator());
-			sb.append(edge.getAttributes().getLabel()).append(System.lineSeparator()); // TODO tabs?
-			sb.append("</edge>").append(System.lineSeparator());
+			printEdge(edge.getSource().getId(), edge.getTarget().getId(), edge.getAttributes(), sb);
+		}
+	}
+
+	private void printEdge(final String sourceId, final String targetId, final EdgeAttributes attributes,
+						   final StringBuilder sb) {
+		sb.append("<edge source=\"").append(sourceId);
+		sb.append("\" target=\"").append(targetId).append("\">").append(System.lineSeparator());
+		sb.append(attributes.getLabel()).append(System.lineSeparator()); // TODO tabs?
+		sb.append("</edge>").append(System.lineSeparator());
+	}
+
+	private final class WitnessStream extends GraphStream {
+		private WitnessStream(final Writer writer) {
+			super(writer);
+		}
+
+		@Override
+		protected void printHeader(final StringBuilder sb) {
+			WitnessWriter.this.printHeader(sb);
+		}
+
+		@Override
+		protected void printNode(final String id, final NodeAttributes attributes, final StringBuilder sb) {
+			WitnessWriter.this.printNode(id, attributes, sb);
+		}
+
+		@Override
+		protected void printEdge(final String sourceId, final String targetId, final EdgeAttributes attributes,
+								 final StringBuilder sb) {
+			WitnessWriter.this.printEdge(sourceId, targetId, attributes, sb);
+		}
+
+		@Override
+		protected void printFooter(final StringBuilder sb) {
+			WitnessWriter.this.printFooter(sb);
 		}
 	}
 
@@ -0,0 +1,120 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package hu.bme.mit.theta.xcfa.analysis.common;
+
+import hu.bme.mit.theta.analysis.algorithm.ARG;
+import hu.bme.mit.theta.analysis.algorithm.ArgNode;
+import hu.bme.mit.theta.analysis.algorithm.SafetyResult;
+import hu.bme.mit.theta.analysis.expl.ExplState;
+import hu.bme.mit.theta.solver.z3.Z3SolverFactory;
+import hu.bme.mit.theta.xcfa.analysis.impl.interleavings.XcfaAction;
+import hu.bme.mit.theta.xcfa.analysis.impl.interleavings.XcfaState;
+import hu.bme.mit.theta.xcfa.analysis.impl.interleavings.XcfaTestPrograms;
+import hu.bme.mit.theta.xcfa.model.XCFA;
+import hu.bme.mit.theta.xcfa.model.XcfaEdge;
+import hu.bme.mit.theta.xcfa.model.XcfaLabel;
+import hu.bme.mit.theta.xcfa.model.XcfaLocation;
+import hu.bme.mit.theta.xcfa.model.XcfaProcedure;
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class XcfaDistToErrComparatorTest {
+	private final XCFA xcfa = XcfaTestPrograms.joiner(1);
+	private final XcfaProcedure main = getProcedure("main");
+	private final XcfaProcedure thr = getProcedure("thr");
+	private final XcfaDistToErrComparator comparator = new XcfaDistToErrComparator(xcfa);
+	private final ARG<XcfaState<ExplState>, XcfaAction> arg = ARG.create((s1, s2) -> false);
+
+	@Test
+	public void testLeastDistance() {
+		// main_0 -> main_1 -> main_2 -> main_err, the thread cannot fail
+		assertEquals(3, rank(state(getLoc(main, "main_0"), getLoc(thr, "thr_after"))));
+		assertEquals(1, rank(state(getLoc(main, "main_2"), getLoc(thr, "thr_after"))));
+	}
+
+	@Test
+	public void testJoinedThreadsMustEnd() {
+		final XcfaState<ExplState> started = state(getLoc(main, "main_2"))
+				.startthreads(List.of(getLabel(XcfaLabel.StartThreadXcfaLabel.class)));
+		assertEquals(1, rank(started));
+		// Main has to wait until the thread gets from thr_start to thr_end
+		final XcfaState<ExplState> waiting = started.jointhreads(0, List.of(getLabel(XcfaLabel.JoinThreadXcfaLabel.class)));
+		assertEquals(4, rank(waiting));
+	}
+
+	@Test
+	public void testUnknownThreadNeverEnds() {
+		final XcfaState<ExplState> waiting = state(getLoc(main, "main_2"))
+				.jointhreads(0, List.of(getLabel(XcfaLabel.JoinThreadXcfaLabel.class)));
+		assertEquals(Integer.MAX_VALUE, rank(waiting));
+	}
+
+	@Test
+	public void testErrSearch() {
+		for (final XcfaConfigBuilder.Algorithm algorithm : new XcfaConfigBuilder.Algorithm[]{
+				XcfaConfigBuilder.Algorithm.INTERLEAVINGS, XcfaConfigBuilder.Algorithm.INTERLEAVINGS_POR}) {
+			assertTrue(check(XcfaTestPrograms.joiner(1), algorithm).isUnsafe());
+			assertTrue(check(XcfaTestPrograms.joiner(2), algorithm).isSafe());
+		}
+	}
+
+	private static SafetyResult<?, ?> check(final XCFA xcfa, final XcfaConfigBuilder.Algorithm algorithm) {
+		try (XcfaConfig<?, ?, ?> config = new XcfaConfigBuilder(XcfaConfigBuilder.Domain.EXPL, XcfaConfigBuilder.Refinement.SEQ_ITP,
+				Z3SolverFactory.getInstance(), Z3SolverFactory.getInstance(), algorithm)
+				.search(XcfaConfigBuilder.Search.ERR).initPrec(XcfaConfigBuilder.InitPrec.ALLVARS).build(xcfa)) {
+			return config.check();
+		}
+	}
+
+	private int rank(final XcfaState<ExplState> state) {
+		final ArgNode<XcfaState<ExplState>, XcfaAction> node = arg.createInitNode(state, false);
+		return comparator.rank(node);
+	}
+
+	private static XcfaState<ExplState> state(final XcfaLocation... locs) {
+		final Map<XcfaLocation, Boolean> processLocs = new LinkedHashMap<>();
+		for (final XcfaLocation loc : locs) {
+			processLocs.put(loc, true);
+		}
+		return XcfaState.create(processLocs, ExplState.top());
+	}
+
+	private XcfaProcedure getProcedure(final String name) {
+		return xcfa.getMainProcess().getProcedures().stream().filter(procedure -> procedure.getName().equals(name)).findAny().get();
+	}
+
+	private static XcfaLocation getLoc(final XcfaProcedure procedure, final String name) {
+		return procedure.getLocs().stream().filter(loc -> loc.getName().equals(name)).findAny().get();
+	}
+
+	private <L extends XcfaLabel> L getLabel(final Class<L> labelClass) {
+		for (final XcfaEdge edge : main.getEdges()) {
+			for (final XcfaLabel label : edge.getLabels()) {
+				if (labelClass.isInstance(label)) {
+					return labelClass.cast(label);
+				}
+			}
+		}
+		throw new AssertionError("No such label");
+	}
+}
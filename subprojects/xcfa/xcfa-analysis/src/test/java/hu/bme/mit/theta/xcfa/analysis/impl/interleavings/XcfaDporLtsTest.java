@@ -0,0 +1,99 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package hu.bme.mit.theta.xcfa.analysis.impl.interleavings;
+
+import hu.bme.mit.theta.analysis.algorithm.SafetyResult;
+import hu.bme.mit.theta.solver.z3.Z3SolverFactory;
+import hu.bme.mit.theta.xcfa.analysis.common.XcfaConfig;
+import hu.bme.mit.theta.xcfa.analysis.common.XcfaConfigBuilder;
+import hu.bme.mit.theta.xcfa.analysis.common.XcfaConfigBuilder.Algorithm;
+import hu.bme.mit.theta.xcfa.analysis.common.XcfaConfigBuilder.Domain;
+import hu.bme.mit.theta.xcfa.model.XCFA;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(Parameterized.class)
+public class XcfaDporLtsTest {
+
+	@Parameterized.Parameter(0)
+	public String name;
+
+	@Parameterized.Parameter(1)
+	public Supplier<XCFA> program;
+
+	@Parameterized.Parameter(2)
+	public boolean safe;
+
+	@Parameterized.Parameter(3)
+	public boolean independent;
+
+	@Parameterized.Parameters(name = "{0}")
+	public static Collection<Object[]> data() {
+		return Arrays.asList(new Object[][]{
+				{"racing-safe", (Supplier<XCFA>) () -> XcfaTestPrograms.incrementers(2, 3, false), true, false},
+				{"racing-unsafe", (Supplier<XCFA>) () -> XcfaTestPrograms.incrementers(2, 2, false), false, false},
+				{"racing-join-safe", (Supplier<XCFA>) () -> XcfaTestPrograms.incrementers(2, 3, true), true, false},
+				{"racing-join-unsafe", (Supplier<XCFA>) () -> XcfaTestPrograms.incrementers(3, 3, true), false, false},
+				{"independent-safe", (Supplier<XCFA>) () -> XcfaTestPrograms.independentIncrementers(3, 2), true, true},
+				{"independent-unsafe", (Supplier<XCFA>) () -> XcfaTestPrograms.independentIncrementers(3, 1), false, true},
+		});
+	}
+
+	@Test
+	public void testSameVerdict() {
+		for (final Domain domain : new Domain[]{Domain.EXPL, Domain.PRED_CART}) {
+			final SafetyResult<?, ?> full = check(program.get(), domain, Algorithm.INTERLEAVINGS);
+			final SafetyResult<?, ?> dpor = check(program.get(), domain, Algorithm.INTERLEAVINGS_DPOR);
+
+			assertEquals(safe, full.isSafe());
+			assertEquals(safe, dpor.isSafe());
+		}
+	}
+
+	@Test
+	public void testFewerStates() {
+		// Unsafe programs stop at the first counterexample, so only safe ones are explored fully
+		if (!safe) {
+			return;
+		}
+		final SafetyResult<?, ?> full = check(program.get(), Domain.EXPL, Algorithm.INTERLEAVINGS);
+		final SafetyResult<?, ?> dpor = check(program.get(), Domain.EXPL, Algorithm.INTERLEAVINGS_DPOR);
+
+		if (independent) {
+			assertTrue(dpor.getArg().size() < full.getArg().size());
+		} else {
+			assertTrue(dpor.getArg().size() <= full.getArg().size());
+		}
+	}
+
+	private static SafetyResult<?, ?> check(final XCFA xcfa, final Domain domain, final Algorithm algorithm) {
+		try (XcfaConfig<?, ?, ?> config = new XcfaConfigBuilder(domain, XcfaConfigBuilder.Refinement.SEQ_ITP,
+				Z3SolverFactory.getInstance(), Z3SolverFactory.getInstance(), algorithm)
+				.initPrec(domain == Domain.EXPL ? XcfaConfigBuilder.InitPrec.ALLVARS : XcfaConfigBuilder.InitPrec.ALLASSUMES)
+				.build(xcfa)) {
+			return config.check();
+		}
+	}
+}
@@ -0,0 +1,132 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package hu.bme.mit.theta.xcfa.analysis.impl.interleavings;
+
+import hu.bme.mit.theta.analysis.algorithm.SafetyResult;
+import hu.bme.mit.theta.analysis.expl.ExplOrd;
+import hu.bme.mit.theta.analysis.expl.ExplState;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.model.ImmutableValuation;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+import hu.bme.mit.theta.solver.z3.Z3SolverFactory;
+import hu.bme.mit.theta.xcfa.analysis.common.XcfaConfig;
+import hu.bme.mit.theta.xcfa.analysis.common.XcfaConfigBuilder;
+import hu.bme.mit.theta.xcfa.model.XCFA;
+import hu.bme.mit.theta.xcfa.model.XcfaLocation;
+import hu.bme.mit.theta.xcfa.model.XcfaProcedure;
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class XcfaOrdTest {
+	private final XCFA xcfa = XcfaTestPrograms.incrementers(2, 5, false);
+	private final XcfaProcedure thr = xcfa.getMainProcess().getProcedures().stream()
+			.filter(procedure -> procedure.getName().equals("thr")).findAny().get();
+	private final XcfaLocation before = getLoc("thr_before");
+	private final XcfaLocation after = getLoc("thr_after");
+	@SuppressWarnings("unchecked")
+	private final VarDecl<IntType> g = (VarDecl<IntType>) xcfa.getGlobalVars().get(0);
+	@SuppressWarnings("unchecked")
+	private final VarDecl<IntType> l = (VarDecl<IntType>) thr.getLocalVars().get(0);
+
+	@Test
+	public void testSymmetryReductionDisabled() {
+		final XcfaState<ExplState> state1 = state(before, after, 1, 0);
+		final XcfaState<ExplState> state2 = state(after, before, 1, 0);
+		final XcfaOrd<ExplState> ord = XcfaOrd.create(ExplOrd.getInstance(), false);
+
+		assertTrue(ord.isLeq(state1, state1));
+		assertFalse(ord.isLeq(state1, state2));
+		assertFalse(ord.isLeq(state2, state1));
+	}
+
+	@Test
+	public void testSymmetryReductionEnabled() {
+		final XcfaState<ExplState> state1 = state(before, after, 1, 0);
+		final XcfaState<ExplState> state2 = state(after, before, 1, 0);
+		final XcfaOrd<ExplState> ord = XcfaOrd.create(ExplOrd.getInstance(), true);
+
+		assertEquals(state1.getSymmetryKey(), state2.getSymmetryKey());
+		assertTrue(ord.isLeq(state1, state2));
+		assertTrue(ord.isLeq(state2, state1));
+	}
+
+	@Test
+	public void testGlobalVarsNotInKey() {
+		final XcfaState<ExplState> state1 = state(before, after, 1, 0);
+		final XcfaState<ExplState> state2 = state(after, before, 2, 0);
+		final XcfaOrd<ExplState> ord = XcfaOrd.create(ExplOrd.getInstance(), true);
+
+		assertEquals(state1.getSymmetryKey(), state2.getSymmetryKey());
+		assertFalse(ord.isLeq(state1, state2));
+	}
+
+	@Test
+	public void testThreadLocalVarsInKey() {
+		final XcfaState<ExplState> state1 = state(before, after, 1, 0);
+		final XcfaState<ExplState> state2 = state(after, before, 1, 1);
+
+		assertNotEquals(state1.getSymmetryKey(), state2.getSymmetryKey());
+		assertFalse(state1.isSymmetricTo(state2));
+	}
+
+	@Test
+	public void testSameVerdicts() {
+		for (final boolean join : new boolean[]{false, true}) {
+			assertTrue(check(XcfaTestPrograms.incrementers(2, 3, join), false).isSafe());
+			assertTrue(check(XcfaTestPrograms.incrementers(2, 3, join), true).isSafe());
+			assertTrue(check(XcfaTestPrograms.incrementers(2, 2, join), false).isUnsafe());
+			assertTrue(check(XcfaTestPrograms.incrementers(2, 2, join), true).isUnsafe());
+		}
+	}
+
+	@Test
+	public void testFewerNodes() {
+		final SafetyResult<?, ?> full = check(XcfaTestPrograms.incrementers(3, 4, false), false);
+		final SafetyResult<?, ?> reduced = check(XcfaTestPrograms.incrementers(3, 4, false), true);
+
+		assertTrue(full.isSafe());
+		assertTrue(reduced.isSafe());
+		assertTrue(reduced.getArg().size() < full.getArg().size());
+	}
+
+	private XcfaLocation getLoc(final String name) {
+		return thr.getLocs().stream().filter(loc -> loc.getName().equals(name)).findAny().get();
+	}
+
+	private XcfaState<ExplState> state(final XcfaLocation loc1, final XcfaLocation loc2, final int gValue, final int lValue) {
+		final Map<XcfaLocation, Boolean> locs = new LinkedHashMap<>();
+		locs.put(loc1, true);
+		locs.put(loc2, true);
+		return XcfaState.create(locs, ExplState.of(ImmutableValuation.builder().put(g, Int(gValue)).put(l, Int(lValue)).build()));
+	}
+
+	private static SafetyResult<?, ?> check(final XCFA xcfa, final boolean symmetryReduction) {
+		try (XcfaConfig<?, ?, ?> config = new XcfaConfigBuilder(XcfaConfigBuilder.Domain.EXPL, XcfaConfigBuilder.Refinement.SEQ_ITP,
+				Z3SolverFactory.getInstance(), Z3SolverFactory.getInstance(), XcfaConfigBuilder.Algorithm.INTERLEAVINGS)
+				.initPrec(XcfaConfigBuilder.InitPrec.ALLVARS).symmetryReduction(symmetryReduction).build(xcfa)) {
+			return config.check();
+		}
+	}
+}
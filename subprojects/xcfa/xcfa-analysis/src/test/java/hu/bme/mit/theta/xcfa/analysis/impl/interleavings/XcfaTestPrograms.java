@@ -0,0 +1,216 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package hu.bme.mit.theta.xcfa.analysis.impl.interleavings;
+
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+import hu.bme.mit.theta.xcfa.model.XCFA;
+import hu.bme.mit.theta.xcfa.model.XcfaEdge;
+import hu.bme.mit.theta.xcfa.model.XcfaLabel;
+import hu.bme.mit.theta.xcfa.model.XcfaLocation;
+import hu.bme.mit.theta.xcfa.model.XcfaProcedure;
+import hu.bme.mit.theta.xcfa.model.XcfaProcess;
+import hu.bme.mit.theta.xcfa.passes.XcfaPassManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static hu.bme.mit.theta.core.decl.Decls.Var;
+import static hu.bme.mit.theta.core.stmt.Stmts.Assign;
+import static hu.bme.mit.theta.core.stmt.Stmts.Assume;
+import static hu.bme.mit.theta.core.stmt.Stmts.Skip;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.True;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Add;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Eq;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Neq;
+import static hu.bme.mit.theta.xcfa.model.XcfaLabel.JoinThread;
+import static hu.bme.mit.theta.xcfa.model.XcfaLabel.StartThread;
+import static hu.bme.mit.theta.xcfa.model.XcfaLabel.Stmt;
+
+/**
+ * Small concurrent XCFAs for testing the interleaving analyses. The main procedure starts threads
+ * that increment a global variable in one step and fail if it has a given value afterwards.
+ */
+public final class XcfaTestPrograms {
+
+	private XcfaTestPrograms() {
+	}
+
+	/**
+	 * Creates a program starting the given number of threads running the procedure "thr", which
+	 * increments the global variable g and fails if g reaches errorValue. If join is set, the main
+	 * procedure also joins the threads.
+	 */
+	public static XCFA incrementers(final int threads, final int errorValue, final boolean join) {
+		final VarDecl<IntType> g = Var("g", Int());
+		final XcfaProcess.Builder process = XcfaProcess.builder();
+		process.setName("main");
+
+		final XcfaProcedure.Builder thr = incrementer("thr", g, errorValue);
+
+		final XcfaProcedure.Builder main = XcfaProcedure.builder();
+		main.setName("main");
+		final List<XcfaLabel> labels = new ArrayList<>();
+		labels.add(Stmt(Assign(g, Int(0))));
+		final List<VarDecl<IntType>> handles = new ArrayList<>();
+		for (int i = 0; i < threads; i++) {
+			final VarDecl<IntType> handle = Var("t" + i, Int());
+			main.createVar(handle, null);
+			handles.add(handle);
+			labels.add(StartThread(handle, "thr", True()));
+		}
+		if (join) {
+			handles.forEach(handle -> labels.add(JoinThread(handle)));
+		}
+		main.setFinalLoc(addChain(main, labels));
+
+		process.addProcedure(main);
+		process.addProcedure(thr);
+		process.setMainProcedure(main);
+		final XCFA.Builder builder = XCFA.builder();
+		builder.addGlobalVar(g, null);
+		builder.addProcess(process);
+		builder.setMainProcess(process);
+		return build(builder);
+	}
+
+	/**
+	 * Creates a program starting the given number of threads, each incrementing its own global
+	 * variable and failing if it reaches errorValue. The steps of different threads are
+	 * independent.
+	 */
+	public static XCFA independentIncrementers(final int threads, final int errorValue) {
+		final XcfaProcess.Builder process = XcfaProcess.builder();
+		process.setName("main");
+		final XCFA.Builder builder = XCFA.builder();
+
+		final XcfaProcedure.Builder main = XcfaProcedure.builder();
+		main.setName("main");
+		final List<XcfaLabel> labels = new ArrayList<>();
+		final List<XcfaProcedure.Builder> thrs = new ArrayList<>();
+		for (int i = 0; i < threads; i++) {
+			final VarDecl<IntType> x = Var("x" + i, Int());
+			builder.addGlobalVar(x, null);
+			labels.add(Stmt(Assign(x, Int(0))));
+			thrs.add(incrementer("thr" + i, x, errorValue));
+		}
+		for (int i = 0; i < threads; i++) {
+			final VarDecl<IntType> handle = Var("t" + i, Int());
+			main.createVar(handle, null);
+			labels.add(StartThread(handle, "thr" + i, True()));
+		}
+		main.setFinalLoc(addChain(main, labels));
+
+		process.addProcedure(main);
+		thrs.forEach(process::addProcedure);
+		process.setMainProcedure(main);
+		builder.addProcess(process);
+		builder.setMainProcess(process);
+		return build(builder);
+	}
+
+	/**
+	 * Creates a program starting a single thread incrementing the global variable g, where the
+	 * main procedure joins the thread and fails if g has the given value afterwards. The thread
+	 * itself never fails.
+	 */
+	public static XCFA joiner(final int errorValue) {
+		final VarDecl<IntType> g = Var("g", Int());
+		final XcfaProcess.Builder process = XcfaProcess.builder();
+		process.setName("main");
+
+		final XcfaProcedure.Builder thr = incrementer("thr", g, null);
+
+		final XcfaProcedure.Builder main = XcfaProcedure.builder();
+		main.setName("main");
+		final VarDecl<IntType> handle = Var("t0", Int());
+		main.createVar(handle, null);
+		final XcfaLocation joined = addChain(main, List.of(Stmt(Assign(g, Int(0))), StartThread(handle, "thr", True()), JoinThread(handle)));
+		final XcfaLocation end = main.addLoc(XcfaLocation.create("main_end"));
+		final XcfaLocation err = main.addLoc(XcfaLocation.create("main_err"));
+		main.setFinalLoc(end);
+		main.setErrorLoc(err);
+		main.addEdge(XcfaEdge.of(joined, err, List.of(Stmt(Assume(Eq(g.getRef(), Int(errorValue)))))));
+		main.addEdge(XcfaEdge.of(joined, end, List.of(Stmt(Assume(Neq(g.getRef(), Int(errorValue)))))));
+
+		process.addProcedure(main);
+		process.addProcedure(thr);
+		process.setMainProcedure(main);
+		final XCFA.Builder builder = XCFA.builder();
+		builder.addGlobalVar(g, null);
+		builder.addProcess(process);
+		builder.setMainProcess(process);
+		return build(builder);
+	}
+
+	/**
+	 * Creates a procedure (with a local variable l) incrementing the given variable in one step and
+	 * failing if it has the given value afterwards (or never, if the value is null).
+	 */
+	private static XcfaProcedure.Builder incrementer(final String name, final VarDecl<IntType> var, final Integer errorValue) {
+		final XcfaProcedure.Builder thr = XcfaProcedure.builder();
+		thr.setName(name);
+		thr.createVar(Var("l", Int()), null);
+		final XcfaLocation start = thr.addLoc(XcfaLocation.create(name + "_start"));
+		final XcfaLocation before = thr.addLoc(XcfaLocation.create(name + "_before"));
+		final XcfaLocation after = thr.addLoc(XcfaLocation.create(name + "_after"));
+		final XcfaLocation end = thr.addLoc(XcfaLocation.create(name + "_end"));
+		thr.setInitLoc(start);
+		thr.setFinalLoc(end);
+		// The first edge of a started thread is copied, so it does not refer to any variables
+		thr.addEdge(XcfaEdge.of(start, before, List.of(Stmt(Skip()))));
+		thr.addEdge(XcfaEdge.of(before, after, List.of(Stmt(Assign(var, Add(var.getRef(), Int(1)))))));
+		if (errorValue == null) {
+			thr.addEdge(XcfaEdge.of(after, end, List.of(Stmt(Skip()))));
+		} else {
+			final XcfaLocation err = thr.addLoc(XcfaLocation.create(name + "_err"));
+			thr.setErrorLoc(err);
+			thr.addEdge(XcfaEdge.of(after, err, List.of(Stmt(Assume(Eq(var.getRef(), Int(errorValue)))))));
+			thr.addEdge(XcfaEdge.of(after, end, List.of(Stmt(Assume(Neq(var.getRef(), Int(errorValue)))))));
+		}
+		return thr;
+	}
+
+	/**
+	 * Adds a chain of edges with the given labels from a new initial location, and returns the
+	 * last location of the chain.
+	 */
+	private static XcfaLocation addChain(final XcfaProcedure.Builder procedure, final List<XcfaLabel> labels) {
+		XcfaLocation loc = procedure.addLoc(XcfaLocation.create("main_init"));
+		procedure.setInitLoc(loc);
+		for (int i = 0; i < labels.size(); i++) {
+			final XcfaLocation next = procedure.addLoc(XcfaLocation.create("main_" + i));
+			procedure.addEdge(XcfaEdge.of(loc, next, List.of(labels.get(i))));
+			loc = next;
+		}
+		return loc;
+	}
+
+	/**
+	 * Builds the XCFA without applying any passes.
+	 */
+	private static XCFA build(final XCFA.Builder builder) {
+		final XcfaPassManager passManager = XcfaPassManager.getInstance();
+		XcfaPassManager.setInstance(new XcfaPassManager());
+		try {
+			return builder.build();
+		} finally {
+			XcfaPassManager.setInstance(passManager);
+		}
+	}
+}
@@ -41,6 +41,7 @@ import hu.bme.mit.theta.common.CliUtils;
 import hu.bme.mit.theta.common.OsHelper;
 import hu.bme.mit.theta.common.logging.ConsoleLogger;
 import hu.bme.mit.theta.common.logging.Logger;
+import hu.bme.mit.theta.common.metrics.Metrics;
 import hu.bme.mit.theta.core.decl.VarDecl;
 import hu.bme.mit.theta.frontend.transformation.ArchitectureConfig;
 import hu.bme.mit.theta.frontend.transformation.grammar.function.FunctionVisitor;
@@ -77,9 +78,13 @@ import org.antlr.v4.runtime.CharStream;
 import org.antlr.v4.runtime.CharStreams;
 import org.antlr.v4.runtime.CommonTokenStream;
 
+import jdk.jfr.Recording;
+
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
 import java.nio.file.Path;
 import java.time.Duration;
 import java.time.temporal.ChronoUnit;
@@ -142,6 +147,9 @@ public class XcfaCli {
 
 	//////////// CEGAR configuration options ////////////
 
+	@Parameter(names = "--engine", description = "Verification engine (the CEGAR options only apply to CEGAR)")
+	XcfaConfigBuilder.Engine engine = XcfaConfigBuilder.Engine.CEGAR;
+
 	@Parameter(names = "--domain", description = "Abstract domain")
 	XcfaConfigBuilder.Domain domain = XcfaConfigBuilder.Domain.PRED_CART;
 
@@ -163,6 +171,12 @@ public class XcfaCli {
 	@Parameter(names = "--prunestrategy", description = "Strategy for pruning the ARG after refinement")
 	PruneStrategy pruneStrategy = PruneStrategy.LAZY;
 
+	@Parameter(names = "--abstraction-threads", description = "Number of threads (and solvers) for Cartesian predicate abstraction")
+	Integer abstractionThreads = 1;
+
+	@Parameter(names = "--incremental-abstraction", description = "Keep predicate definitions and enumerated cubes in the solver for Boolean predicate abstraction")
+	boolean incrementalAbstraction = false;
+
 	@Parameter(names = "--header", description = "Print only a header (for benchmarks) (only valid together with the -legacy switch)", help = true)
 	boolean headerOnly = false;
 
@@ -205,12 +219,24 @@ public class XcfaCli {
 	@Parameter(names = "--algorithm", description = "Algorithm to use when solving multithreaded programs")
 	XcfaConfigBuilder.Algorithm algorithm = XcfaConfigBuilder.Algorithm.SINGLETHREAD;
 
+	@Parameter(names = "--symmetry-reduction", description = "Cover states that only differ in the order of threads started from the same process (only for multithreaded algorithms)")
+	boolean symmetryReduction = false;
+
 	@Parameter(names = "--lbe", description = "Large-block encoding level")
 	SimpleLbePass.LBELevel lbeLevel = SimpleLbePass.LBELevel.NO_LBE;
 
 	@Parameter(names = "--inline", description = "Turns function inlining on and off")
 	FunctionInlining.InlineFunctions inlining = FunctionInlining.InlineFunctions.OFF;
 
+	@Parameter(names = "--pass-threads", description = "Number of threads used to transform independent procedures")
+	Integer passThreads = 1;
+
+	@Parameter(names = "--metrics-json", description = "Collects counters and timers of the analysis (e.g., solver calls, expanded nodes) and writes them into the given JSON file")
+	File metricsJson = null;
+
+	@Parameter(names = "--jfr", description = "Records the timed sections of the analysis as Java Flight Recorder events into the given file")
+	File jfrFile = null;
+
 	//////////// SMTLib options ////////////
 
 	@Parameter(names = "--smt-home", description = "The path of the solver registry")
@@ -266,6 +292,12 @@ public class XcfaCli {
 
 		SimpleLbePass.level = lbeLevel;
 		FunctionInlining.inlining = inlining;
+		XcfaPassManager.getInstance().setParallelism(passThreads);
+
+		if (metricsJson != null) {
+			Metrics.setEnabled(true);
+		}
+		final Recording recording = jfrFile == null ? null : Metrics.startJfrRecording();
 
 		// TODO later we might want to merge these two flags
 		if (witnessOnly) {
@@ -306,9 +338,9 @@ public class XcfaCli {
 			}
 		} else {
 			try (FileInputStream fis = new FileInputStream(model)) {
-				XcfaPassManager.clearXCFAPasses();
-				XcfaPassManager.clearProcessPasses();
-				XcfaPassManager.clearProcedurePasses();
+				XcfaPassManager.getInstance().clearXCFAPasses();
+				XcfaPassManager.getInstance().clearProcessPasses();
+				XcfaPassManager.getInstance().clearProcedurePasses();
 				final CFA cfa = CfaDslManager.createCfa(fis);
 				xcfaBuilder = XCFA.builder();
 				final XcfaProcess.Builder processBuilder = XcfaProcess.builder();
@@ -414,6 +446,7 @@ public class XcfaCli {
 
 			Duration initTime = Duration.of(CpuTimeKeeper.getCurrentCpuTime(), ChronoUnit.SECONDS);
 			logger.write(Logger.Level.RESULT, "Time of model transformation: " + initTime.toMillis() + "ms" + System.lineSeparator());
+			logger.write(Logger.Level.INFO, "Statistics of the XCFA passes:%n%s", XcfaPassManager.getInstance().getStatistics());
 
 			try {
 				registerAllSolverManagers(home, logger);
@@ -462,6 +495,8 @@ public class XcfaCli {
 					throw new IllegalStateException("Unexpected value: " + portfolio);
 			}
 
+			writeMetrics(recording);
+
 			long elapsed = sw.elapsed(TimeUnit.MILLISECONDS);
 			sw.stop();
 			System.out.println("walltime: " + elapsed + " ms");
@@ -472,6 +507,20 @@ public class XcfaCli {
 		}
 	}
 
+	private void writeMetrics(final Recording recording) throws IOException {
+		if (metricsJson != null) {
+			try (final Writer writer = new FileWriter(metricsJson)) {
+				Metrics.writeJson(writer);
+			}
+		}
+		if (recording != null) {
+			Metrics.commitSnapshotEvents();
+			recording.stop();
+			recording.dump(jfrFile.toPath());
+			recording.close();
+		}
+	}
+
 	public static void registerAllSolverManagers(String home, Logger logger) throws Exception {
 		CpuTimeKeeper.saveSolverTimes();
 		SolverManager.closeAll();
@@ -512,7 +561,7 @@ public class XcfaCli {
 		if (noArgCexCheck) {
 			ArgCexCheckHandler.instance.setArgCexCheck(false, false);
 		} else {
-			if (refinement.equals(XcfaConfigBuilder.Refinement.MULTI_SEQ)) {
+			if (refinement.equals(XcfaConfigBuilder.Refinement.MULTI_SEQ) || refinement.equals(XcfaConfigBuilder.Refinement.PARALLEL_SEQ)) {
 				ArgCexCheckHandler.instance.setArgCexCheck(true, true);
 			} else {
 				ArgCexCheckHandler.instance.setArgCexCheck(true, false);
@@ -534,8 +583,8 @@ public class XcfaCli {
 				return XcfaConfig.create(bmcChecker, XcfaPrec.create(ExplPrec.empty()));
 			} else {
 				return new XcfaConfigBuilder(domain, refinement, refinementSolverFactory, abstractionSolverFactory, algorithm)
-						.search(search).predSplit(predSplit).maxEnum(maxEnum).initPrec(initPrec).preCheck(preCheck)
-						.pruneStrategy(pruneStrategy).logger(new ConsoleLogger(logLevel)).autoExpl(autoExpl).build(xcfa);
+						.engine(engine).search(search).predSplit(predSplit).maxEnum(maxEnum).initPrec(initPrec).preCheck(preCheck)
+						.pruneStrategy(pruneStrategy).abstractionParallelism(abstractionThreads).incrementalAbstraction(incrementalAbstraction).symmetryReduction(symmetryReduction).logger(new ConsoleLogger(logLevel)).autoExpl(autoExpl).build(xcfa);
 			}
 
 		} catch (final Exception ex) {
@@ -553,6 +602,8 @@ public class XcfaCli {
 		} catch (final Exception ex) {
 			String message = ex.getMessage() == null ? "(no message)" : ex.getMessage();
 			throw new Exception("Error while running algorithm: " + ex.getClass().getSimpleName() + " " + message, ex);
+		} finally {
+			configuration.close();
 		}
 	}
 
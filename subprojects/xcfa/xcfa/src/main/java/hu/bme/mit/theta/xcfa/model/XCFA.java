@@ -229,16 +229,16 @@ public final class XCFA {
 			if (built != null) return built;
 
 			checkState(mainProcess != null, "Main process must be set.");
-			Builder builder = XcfaPassManager.run(this);
+			Builder builder = XcfaPassManager.getInstance().run(this);
 			XCFA xcfa = new XCFA(builder);
 			built = xcfa;
 			return xcfa;
 		}
 
-		public void runProcessPasses() {
+		public void runProcessPasses(final XcfaPassManager passManager) {
 			final ArrayList<XcfaProcess.Builder> newProcesses = new ArrayList<>();
 			for (XcfaProcess.Builder process : processes) {
-				final XcfaProcess.Builder newProc = XcfaPassManager.run(process);
+				final XcfaProcess.Builder newProc = passManager.run(process);
 				newProcesses.add(newProc);
 				if (mainProcess == process) mainProcess = newProc;
 			}
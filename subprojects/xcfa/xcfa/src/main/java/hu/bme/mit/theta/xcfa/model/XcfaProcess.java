@@ -236,13 +236,10 @@ public final class XcfaProcess {
 			return process;
 		}
 
-		public void runProcedurePasses() {
-			final ArrayList<XcfaProcedure.Builder> newProcs = new ArrayList<>();
-			for (XcfaProcedure.Builder procedure : procedures) {
-				final XcfaProcedure.Builder newProc = XcfaPassManager.run(procedure);
-				if (mainProcedure == procedure) mainProcedure = newProc;
-				newProcs.add(newProc);
-			}
+		public void runProcedurePasses(final XcfaPassManager passManager) {
+			final int mainIndex = procedures.indexOf(mainProcedure);
+			final List<XcfaProcedure.Builder> newProcs = passManager.run(procedures);
+			if (mainIndex >= 0) mainProcedure = newProcs.get(mainIndex);
 			procedures.clear();
 			procedures.addAll(newProcs);
 		}
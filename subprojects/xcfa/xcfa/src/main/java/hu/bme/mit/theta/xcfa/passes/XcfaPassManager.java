@@ -17,6 +17,7 @@
 package hu.bme.mit.theta.xcfa.passes;
 
 import hu.bme.mit.theta.xcfa.model.XCFA;
+import hu.bme.mit.theta.xcfa.model.XcfaEdge;
 import hu.bme.mit.theta.xcfa.model.XcfaProcedure;
 import hu.bme.mit.theta.xcfa.model.XcfaProcess;
 import hu.bme.mit.theta.xcfa.passes.procedurepass.AddAtomicBeginEndsToFunctions;
@@ -46,16 +47,38 @@ import hu.bme.mit.theta.xcfa.passes.xcfapass.XcfaPass;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Applies the XCFA, process and procedure passes to builders. The pass lists belong to the
+ * instance; {@link #getInstance()} holds the manager used when building an {@link XCFA}.
+ * <p>
+ * Procedure passes are applied pass by pass: every procedure is transformed by a pass before the
+ * next pass starts, and with a parallelism greater than one the procedures of a stage are
+ * transformed concurrently. Passes that are not thread-safe (see {@link ProcedurePass#isThreadSafe()})
+ * are always applied sequentially. Timing and change statistics are collected per pass.
+ */
 public class XcfaPassManager {
-	private static final List<ProcedurePass> procedurePasses = new ArrayList<>();
-	private static final List<ProcessPass> processPasses = new ArrayList<>();
-	private static final List<XcfaPass> xcfaPasses = new ArrayList<>();
+	private static XcfaPassManager instance = createDefault();
+
+	private final List<ProcedurePass> procedurePasses = new ArrayList<>();
+	private final List<ProcessPass> processPasses = new ArrayList<>();
+	private final List<XcfaPass> xcfaPasses = new ArrayList<>();
+	private final XcfaPassStatistics statistics = new XcfaPassStatistics();
+
+	private final boolean bottomUp = true;
 
-	private static final boolean bottomUp = true;
+	private int parallelism = 1;
+	private ForkJoinPool pool = null;
 
-	static {
-		procedurePasses.addAll(List.of(
+	public static XcfaPassManager createDefault() {
+		final XcfaPassManager passManager = new XcfaPassManager();
+		passManager.procedurePasses.addAll(List.of(
 				new EliminateSelfLoops(),
 				new PthreadCallsToThreadStmts(),
 				new VerifierFunctionsToLabels(),
@@ -87,76 +110,192 @@ public class XcfaPassManager {
 				new EmptyEdgeRemovalPass(),
 				new RemoveDeadEnds()
 		));
-		processPasses.addAll(List.of(
+		passManager.processPasses.addAll(List.of(
 				new AnalyzeCallGraph(),
 				new FunctionInlining(),
 				new AssignFunctionParam()
 		));
-		xcfaPasses.addAll((List.of(
+		passManager.xcfaPasses.addAll((List.of(
 				new RemoveUnusedGlobals(),
 				new DemoteThreadLocalGlobals())));
+		return passManager;
+	}
+
+	public static XcfaPassManager getInstance() {
+		return instance;
+	}
+
+	public static void setInstance(final XcfaPassManager passManager) {
+		instance = passManager;
 	}
 
-	public static void addProcedurePass(ProcedurePass pass) {
+	public void addProcedurePass(ProcedurePass pass) {
 		procedurePasses.add(pass);
 	}
 
-	public static void addProcessPass(ProcessPass pass) {
+	public void addProcessPass(ProcessPass pass) {
 		processPasses.add(pass);
 	}
 
-	public static void addXcfaPass(XcfaPass pass) {
+	public void addXcfaPass(XcfaPass pass) {
 		xcfaPasses.add(pass);
 	}
 
-	public static void clearProcedurePasses() {
+	public void clearProcedurePasses() {
 		procedurePasses.clear();
 	}
 
-	public static void clearProcessPasses() {
+	public void clearProcessPasses() {
 		processPasses.clear();
 	}
 
-	public static void clearXCFAPasses() {
+	public void clearXCFAPasses() {
 		xcfaPasses.clear();
 	}
 
-	public static XcfaProcedure.Builder run(XcfaProcedure.Builder builder) {
-		XcfaProcedure.Builder runningBuilder = builder;
-		for (ProcedurePass procedurePass : procedurePasses) {
-			if (FunctionInlining.inlining != FunctionInlining.InlineFunctions.ON || !procedurePass.isPostInlining() || ProcedurePass.postInlining)
-				runningBuilder = procedurePass.run(runningBuilder);
+	public XcfaPassStatistics getStatistics() {
+		return statistics;
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Sets the number of threads used to transform independent procedures (1: sequential).
+	 */
+	public synchronized void setParallelism(final int parallelism) {
+		checkArgument(parallelism > 0, "Parallelism must be positive");
+		if (this.parallelism != parallelism && pool != null) {
+			pool.shutdown();
+			pool = null;
+		}
+		this.parallelism = parallelism;
+	}
+
+	public XcfaProcedure.Builder run(XcfaProcedure.Builder builder) {
+		return run(List.of(builder)).get(0);
+	}
+
+	/**
+	 * Applies the procedure passes to independent procedures, returning the transformed builders in
+	 * the order of the input.
+	 */
+	public List<XcfaProcedure.Builder> run(List<XcfaProcedure.Builder> builders) {
+		List<XcfaProcedure.Builder> runningBuilders = new ArrayList<>(builders);
+		for (int i = 0; i < procedurePasses.size(); i++) {
+			final ProcedurePass procedurePass = procedurePasses.get(i);
+			if (FunctionInlining.inlining != FunctionInlining.InlineFunctions.ON || !procedurePass.isPostInlining() || ProcedurePass.postInlining) {
+				final XcfaPassStatistics.Entry entry = statistics.getEntry(getLabel(procedurePasses, i));
+				final long start = System.nanoTime();
+				final Function<XcfaProcedure.Builder, XcfaProcedure.Builder> function = builder -> {
+					final long fingerprint = fingerprint(builder);
+					final long passStart = XcfaPassStatistics.currentThreadCpuTime();
+					final XcfaProcedure.Builder newBuilder = procedurePass.run(builder);
+					entry.addRun(XcfaPassStatistics.currentThreadCpuTime() - passStart, newBuilder != builder || fingerprint(newBuilder) != fingerprint);
+					return newBuilder;
+				};
+				runningBuilders = procedurePass.isThreadSafe() ? map(runningBuilders, function) : runningBuilders.stream().map(function).collect(Collectors.toList());
+				entry.addWallTime(System.nanoTime() - start);
+			}
 		}
-		return runningBuilder;
+		return runningBuilders;
 	}
 
-	public static XcfaProcess.Builder run(XcfaProcess.Builder builder) {
+	public XcfaProcess.Builder run(XcfaProcess.Builder builder) {
 		if (bottomUp) {
-			builder.runProcedurePasses();
+			builder.runProcedurePasses(this);
 		}
 
-		for (ProcessPass processPass : processPasses) {
-			builder = processPass.run(builder);
+		for (int i = 0; i < processPasses.size(); i++) {
+			final XcfaPassStatistics.Entry entry = statistics.getEntry(getLabel(processPasses, i));
+			final long fingerprint = fingerprint(builder);
+			final long start = System.nanoTime();
+			final long cpuStart = XcfaPassStatistics.currentThreadCpuTime();
+			final XcfaProcess.Builder newBuilder = processPasses.get(i).run(builder, this);
+			entry.addRun(XcfaPassStatistics.currentThreadCpuTime() - cpuStart, newBuilder != builder || fingerprint(newBuilder) != fingerprint);
+			entry.addWallTime(System.nanoTime() - start);
+			builder = newBuilder;
 		}
 
 		if (!bottomUp) {
-			builder.runProcedurePasses();
+			builder.runProcedurePasses(this);
 		}
 		return builder;
 	}
 
-	public static XCFA.Builder run(XCFA.Builder builder) {
+	public XCFA.Builder run(XCFA.Builder builder) {
 		if (bottomUp) {
-			builder.runProcessPasses();
+			builder.runProcessPasses(this);
 		}
 
-		for (XcfaPass xcfaPass : xcfaPasses) {
-			builder = xcfaPass.run(builder);
+		for (int i = 0; i < xcfaPasses.size(); i++) {
+			final XcfaPassStatistics.Entry entry = statistics.getEntry(getLabel(xcfaPasses, i));
+			final int globals = builder.getGlobalVars().size();
+			final long start = System.nanoTime();
+			final long cpuStart = XcfaPassStatistics.currentThreadCpuTime();
+			final XCFA.Builder newBuilder = xcfaPasses.get(i).run(builder);
+			entry.addRun(XcfaPassStatistics.currentThreadCpuTime() - cpuStart, newBuilder != builder || newBuilder.getGlobalVars().size() != globals);
+			entry.addWallTime(System.nanoTime() - start);
+			builder = newBuilder;
 		}
 
 		if (!bottomUp) {
-			builder.runProcessPasses();
+			builder.runProcessPasses(this);
 		}
 		return builder;
 	}
+
+	/**
+	 * Applies a function to independent items, concurrently if the parallelism allows it. The
+	 * results are returned in the order of the items. Exceptions thrown by the function are
+	 * propagated to the caller.
+	 */
+	public <T, R> List<R> map(final List<T> items, final Function<T, R> function) {
+		if (parallelism == 1 || items.size() < 2) {
+			return items.stream().map(function).collect(Collectors.toList());
+		}
+		try {
+			return getPool().submit(() -> items.parallelStream().map(function).collect(Collectors.toList())).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+			if (e.getCause() instanceof Error) throw (Error) e.getCause();
+			throw new RuntimeException(e.getCause());
+		}
+	}
+
+	private synchronized ForkJoinPool getPool() {
+		if (pool == null) {
+			pool = new ForkJoinPool(parallelism);
+		}
+		return pool;
+	}
+
+	private static String getLabel(final List<?> passes, final int index) {
+		final Class<?> passClass = passes.get(index).getClass();
+		final long occurrences = passes.stream().filter(pass -> pass.getClass() == passClass).count();
+		return occurrences > 1 ? passClass.getSimpleName() + " (" + index + ")" : passClass.getSimpleName();
+	}
+
+	private static long fingerprint(final XcfaProcedure.Builder builder) {
+		long fingerprint = System.identityHashCode(builder);
+		fingerprint = 31 * fingerprint + builder.getLocs().size();
+		fingerprint = 31 * fingerprint + builder.getLocalVars().size();
+		fingerprint = 31 * fingerprint + builder.getEdges().size();
+		for (XcfaEdge edge : builder.getEdges()) {
+			fingerprint += System.identityHashCode(edge);
+		}
+		return fingerprint;
+	}
+
+	private static long fingerprint(final XcfaProcess.Builder builder) {
+		long fingerprint = builder.getProcedures().size();
+		for (XcfaProcedure.Builder procedure : builder.getProcedures()) {
+			fingerprint = 31 * fingerprint + fingerprint(procedure);
+		}
+		return fingerprint;
+	}
 }
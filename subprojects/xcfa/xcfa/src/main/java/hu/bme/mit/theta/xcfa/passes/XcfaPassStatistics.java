@@ -0,0 +1,127 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package hu.bme.mit.theta.xcfa.passes;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-pass timing and change statistics collected by an {@link XcfaPassManager}. Entries are
+ * identified by the label of the pass (its simple class name, suffixed by its position in the
+ * pipeline if the same pass occurs more than once) and are kept in order of first use.
+ */
+public final class XcfaPassStatistics {
+
+	private static final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+	private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+	/**
+	 * CPU time of the current thread in nanoseconds, or the elapsed time if the JVM does not
+	 * measure thread CPU time.
+	 */
+	static long currentThreadCpuTime() {
+		if (threadMXBean.isCurrentThreadCpuTimeSupported() && threadMXBean.isThreadCpuTimeEnabled()) {
+			return threadMXBean.getCurrentThreadCpuTime();
+		}
+		return System.nanoTime();
+	}
+
+	synchronized Entry getEntry(final String label) {
+		return entries.computeIfAbsent(label, Entry::new);
+	}
+
+	public synchronized List<Entry> getEntries() {
+		return new ArrayList<>(entries.values());
+	}
+
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	@Override
+	public synchronized String toString() {
+		final StringBuilder sb = new StringBuilder();
+		sb.append(String.format("%-40s %8s %8s %10s %10s%n", "Pass", "Runs", "Changed", "CPU [ms]", "Wall [ms]"));
+		for (final Entry entry : entries.values()) {
+			sb.append(String.format("%-40s %8d %8d %10d %10d%n", entry.getLabel(), entry.getRuns(), entry.getChanges(),
+					entry.getCpuTimeMs(), entry.getWallTimeMs()));
+		}
+		return sb.toString();
+	}
+
+	public static final class Entry {
+		private final String label;
+		private final AtomicLong runs = new AtomicLong();
+		private final AtomicLong changes = new AtomicLong();
+		private final AtomicLong cpuNanos = new AtomicLong();
+		private final AtomicLong wallNanos = new AtomicLong();
+
+		private Entry(final String label) {
+			this.label = label;
+		}
+
+		void addRun(final long nanos, final boolean changed) {
+			runs.incrementAndGet();
+			cpuNanos.addAndGet(nanos);
+			if (changed) changes.incrementAndGet();
+		}
+
+		void addWallTime(final long nanos) {
+			wallNanos.addAndGet(nanos);
+		}
+
+		public String getLabel() {
+			return label;
+		}
+
+		/**
+		 * Number of procedures, processes or XCFAs the pass was applied to.
+		 */
+		public long getRuns() {
+			return runs.get();
+		}
+
+		/**
+		 * Number of runs after which the transformed builder differed from its input.
+		 */
+		public long getChanges() {
+			return changes.get();
+		}
+
+		/**
+		 * CPU time of the threads running the pass, summed over all runs. Procedure passes scheduled
+		 * by a process pass are accounted for by their own entries.
+		 */
+		public long getCpuTimeMs() {
+			return TimeUnit.NANOSECONDS.toMillis(cpuNanos.get());
+		}
+
+		/**
+		 * Elapsed time of the stages of the pipeline that executed this pass.
+		 */
+		public long getWallTimeMs() {
+			return TimeUnit.NANOSECONDS.toMillis(wallNanos.get());
+		}
+	}
+}
@@ -44,4 +44,9 @@ public class AddAtomicBeginEndsToFunctions extends ProcedurePass {
 		}
 		return builder;
 	}
+
+	@Override
+	public boolean isThreadSafe() {
+		return true;
+	}
 }
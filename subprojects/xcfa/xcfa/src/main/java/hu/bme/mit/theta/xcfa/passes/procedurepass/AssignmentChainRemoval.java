@@ -85,4 +85,9 @@ public class AssignmentChainRemoval extends ProcedurePass {
 	public boolean isPostInlining() {
 		return true;
 	}
+
+	@Override
+	public boolean isThreadSafe() {
+		return true;
+	}
 }
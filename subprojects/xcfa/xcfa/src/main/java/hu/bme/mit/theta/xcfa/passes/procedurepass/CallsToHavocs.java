@@ -83,4 +83,9 @@ public class CallsToHavocs extends ProcedurePass {
 	public boolean isPostInlining() {
 		return true;
 	}
+
+	@Override
+	public boolean isThreadSafe() {
+		return true;
+	}
 }
\ No newline at end of file
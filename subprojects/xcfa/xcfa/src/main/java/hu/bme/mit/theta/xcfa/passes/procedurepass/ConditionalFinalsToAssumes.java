@@ -42,4 +42,9 @@ public class ConditionalFinalsToAssumes extends ProcedurePass {
 	public boolean isPostInlining() {
 		return true;
 	}
+
+	@Override
+	public boolean isThreadSafe() {
+		return true;
+	}
 }
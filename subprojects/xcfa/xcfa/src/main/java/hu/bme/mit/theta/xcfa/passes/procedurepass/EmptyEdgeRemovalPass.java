@@ -175,4 +175,8 @@ public class EmptyEdgeRemovalPass extends ProcedurePass {
 		return loc.getOutgoingEdges().stream().noneMatch(xcfaEdge -> xcfaEdge.getSource() == xcfaEdge.getTarget());
 	}
 
+	@Override
+	public boolean isThreadSafe() {
+		return true;
+	}
 }
\ No newline at end of file
@@ -106,4 +106,9 @@ public class GlobalVarsToStoreLoad extends ProcedurePass {
 	public boolean isPostInlining() {
 		return true;
 	}
+
+	@Override
+	public boolean isThreadSafe() {
+		return true;
+	}
 }
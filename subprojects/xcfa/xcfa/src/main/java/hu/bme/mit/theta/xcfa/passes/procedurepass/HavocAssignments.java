@@ -62,4 +62,9 @@ public class HavocAssignments extends ProcedurePass {
 		}
 		return builder;
 	}
+
+	@Override
+	public boolean isThreadSafe() {
+		return true;
+	}
 }
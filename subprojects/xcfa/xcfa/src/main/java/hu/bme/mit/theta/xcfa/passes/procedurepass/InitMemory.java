@@ -64,4 +64,9 @@ public class InitMemory extends ProcedurePass {
 	public boolean isPostInlining() {
 		return true;
 	}
+
+	@Override
+	public boolean isThreadSafe() {
+		return true;
+	}
 }
\ No newline at end of file
@@ -63,4 +63,9 @@ public class NoReadVarRemovalPass extends ProcedurePass {
 	public boolean isPostInlining() {
 		return true;
 	}
+
+	@Override
+	public boolean isThreadSafe() {
+		return true;
+	}
 }
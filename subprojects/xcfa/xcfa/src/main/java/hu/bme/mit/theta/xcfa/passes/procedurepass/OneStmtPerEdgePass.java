@@ -24,12 +24,13 @@ import hu.bme.mit.theta.xcfa.model.XcfaProcedure;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static hu.bme.mit.theta.core.stmt.Stmts.Skip;
 import static hu.bme.mit.theta.xcfa.model.XcfaLabel.Stmt;
 
 public class OneStmtPerEdgePass extends ProcedurePass {
-	private static int tmpcnt = 0;
+	private static final AtomicInteger tmpcnt = new AtomicInteger();
 
 	@Override
 	public XcfaProcedure.Builder run(XcfaProcedure.Builder builder) {
@@ -49,7 +50,7 @@ public class OneStmtPerEdgePass extends ProcedurePass {
 				notFound = false;
 				XcfaLocation lastLoc = edge.get().getSource(), interLoc;
 				for (XcfaLabel stmt : edge.get().getLabels()) {
-					interLoc = edge.get().getLabels().indexOf(stmt) == edge.get().getLabels().size() - 1 ? edge.get().getTarget() : XcfaLocation.create("tmp_" + tmpcnt++);
+					interLoc = edge.get().getLabels().indexOf(stmt) == edge.get().getLabels().size() - 1 ? edge.get().getTarget() : XcfaLocation.create("tmp_" + tmpcnt.getAndIncrement());
 					builder.addLoc(interLoc);
 					FrontendMetadata.create(edge.get(), "xcfaInterLoc", interLoc);
 					XcfaEdge xcfaEdge = XcfaEdge.of(lastLoc, interLoc, List.of(stmt));
@@ -27,4 +27,14 @@ public abstract class ProcedurePass {
 		return false;
 	}
 
+	/**
+	 * Whether the pass can be applied to different procedures concurrently. Passes have to opt in:
+	 * a pass is thread-safe if it keeps no state between runs, draws no names from shared
+	 * counters, and only reads {@link hu.bme.mit.theta.frontend.FrontendMetadata} or copies it to
+	 * objects it has just created (compound updates of the global metadata are not atomic).
+	 */
+	public boolean isThreadSafe() {
+		return false;
+	}
+
 }
@@ -90,4 +90,9 @@ public class PthreadCallsToThreadStmts extends ProcedurePass {
 		}
 		return builder;
 	}
+
+	@Override
+	public boolean isThreadSafe() {
+		return true;
+	}
 }
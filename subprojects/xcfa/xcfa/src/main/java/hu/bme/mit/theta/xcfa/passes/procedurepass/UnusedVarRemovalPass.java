@@ -77,4 +77,9 @@ public class UnusedVarRemovalPass extends ProcedurePass {
 			}
 		}
 	}
+
+	@Override
+	public boolean isThreadSafe() {
+		return true;
+	}
 }
@@ -40,6 +40,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.Stack;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkArgument;
@@ -120,7 +121,7 @@ public class Utils {
 		return getBuilder(proc.getName(), proc.getRetType(), proc.getLocs(), proc.getFinalLoc(), proc.getInitLoc(), proc.getErrorLoc(), proc.getEdges(), proc.getParams(), proc.getLocalVarMap());
 	}
 
-	private static int counter = 0;
+	private static final AtomicInteger counter = new AtomicInteger();
 
 	private static XcfaProcedure.Builder getBuilder(String name, Type retType, List<XcfaLocation> locs, XcfaLocation finalLoc, XcfaLocation initLoc, XcfaLocation errorLoc, List<XcfaEdge> edges, Map<VarDecl<?>, XcfaProcedure.Direction> params, Map<VarDecl<?>, Optional<LitExpr<?>>> localVars) {
 		XcfaProcedure.Builder ret = XcfaProcedure.builder();
@@ -128,14 +129,14 @@ public class Utils {
 		ret.setRetType(retType);
 		Map<VarDecl<?>, VarDecl<?>> varLut = new LinkedHashMap<>();
 		params.forEach((varDecl, direction) -> {
-			final VarDecl<?> newVar = Var(varDecl.getName() + "_" + counter++, varDecl.getType());
+			final VarDecl<?> newVar = Var(varDecl.getName() + "_" + counter.getAndIncrement(), varDecl.getType());
 			if (FrontendMetadata.getMetadataValue(varDecl.getRef(), "cType").isPresent())
 				FrontendMetadata.create(newVar.getRef(), "cType", CComplexType.getType(varDecl.getRef()));
 			varLut.put(varDecl, newVar);
 			ret.createParam(direction, newVar);
 		});
 		localVars.forEach((varDecl, litExpr) -> {
-			final VarDecl<?> newVar = Var(varDecl.getName() + "_" + counter++, varDecl.getType());
+			final VarDecl<?> newVar = Var(varDecl.getName() + "_" + counter.getAndIncrement(), varDecl.getType());
 			if (FrontendMetadata.getMetadataValue(varDecl.getRef(), "cType").isPresent())
 				FrontendMetadata.create(newVar.getRef(), "cType", CComplexType.getType(varDecl.getRef()));
 			varLut.put(varDecl, newVar);
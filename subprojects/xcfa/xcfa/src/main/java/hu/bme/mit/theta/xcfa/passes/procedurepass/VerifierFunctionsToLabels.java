@@ -73,4 +73,8 @@ public class VerifierFunctionsToLabels extends ProcedurePass {
 		return true;
 	}
 
+	@Override
+	public boolean isThreadSafe() {
+		return true;
+	}
 }
@@ -39,8 +39,13 @@ public class AssignFunctionParam extends ProcessPass {
 
 	@Override
 	public XcfaProcess.Builder run(XcfaProcess.Builder builder) {
+		return run(builder, XcfaPassManager.getInstance());
+	}
+
+	@Override
+	public XcfaProcess.Builder run(XcfaProcess.Builder builder, XcfaPassManager passManager) {
 		if (FunctionInlining.inlining == FunctionInlining.InlineFunctions.ON) return builder;
-		XcfaProcess.Builder builtBuilder = buildProcesses(builder);
+		XcfaProcess.Builder builtBuilder = buildProcesses(builder, passManager);
 		for (XcfaProcedure.Builder procedure : builtBuilder.getProcedures()) {
 			edgesToAdd.clear();
 			edgesToRemove.clear();
@@ -68,7 +73,7 @@ public class AssignFunctionParam extends ProcessPass {
 		return builtBuilder;
 	}
 
-	private XcfaProcess.Builder buildProcesses(XcfaProcess.Builder builder) {
+	private XcfaProcess.Builder buildProcesses(XcfaProcess.Builder builder, XcfaPassManager passManager) {
 		XcfaProcess.Builder newBuilder = XcfaProcess.builder();
 		newBuilder.setName(builder.getName());
 		newBuilder.getThreadLocalVars().putAll(builder.getThreadLocalVars());
@@ -83,8 +88,11 @@ public class AssignFunctionParam extends ProcessPass {
 				}
 			}
 			UnusedVarRemovalPass.removeUnusedVars(procBuilder, usedVars);
-			newBuilder.addProcedure(XcfaPassManager.run(procBuilder));
-			if (procBuilder == builder.getMainProcedure()) newBuilder.setMainProcedure(procBuilder);
+		}
+		final List<XcfaProcedure.Builder> newProcedures = passManager.run(builder.getProcedures());
+		for (int i = 0; i < newProcedures.size(); i++) {
+			newBuilder.addProcedure(newProcedures.get(i));
+			if (builder.getProcedures().get(i) == builder.getMainProcedure()) newBuilder.setMainProcedure(newProcedures.get(i));
 		}
 		return newBuilder;
 	}
@@ -64,6 +64,17 @@ public class FunctionInlining extends ProcessPass {
 
 	@Override
 	public XcfaProcess.Builder run(XcfaProcess.Builder builder) {
+		return run(builder, XcfaPassManager.getInstance());
+	}
+
+	/**
+	 * Inlines calls into the main procedure and into the procedures that have to be kept (e.g.,
+	 * recursive ones), then schedules the post-inlining procedure passes on the inlined procedures
+	 * together. Inlining itself is sequential, as it updates the called procedures and the frontend
+	 * metadata they share, and draws location names from a shared counter.
+	 */
+	@Override
+	public XcfaProcess.Builder run(XcfaProcess.Builder builder, XcfaPassManager passManager) {
 		if (inlining != InlineFunctions.ON) return builder;
 		ProcedurePass.postInlining = true;
 		XcfaProcess.Builder newBuilder = XcfaProcess.builder();
@@ -76,15 +87,17 @@ public class FunctionInlining extends ProcessPass {
 
 		XcfaProcedure.Builder mainProcedure = builder.getMainProcedure();
 		alreadyHandled.clear();
-		XcfaProcedure.Builder newMainProc = inlineProcedure(builder, newBuilder, mainProcedure);
-
-		Set<XcfaProcedure.Builder> alreadyInlined = new LinkedHashSet<>();
-		alreadyInlined.add(newMainProc);
 
+		final Set<XcfaProcedure.Builder> roots = new LinkedHashSet<>();
+		roots.add(mainProcedure);
 		for (final Object shouldKeepObj : FrontendMetadata.lookupMetadata("shouldKeep", true)) {
 			checkState(shouldKeepObj instanceof XcfaProcedure.Builder, "Bad shouldKeep metadata!");
-			final XcfaProcedure.Builder shouldKeep = (XcfaProcedure.Builder) shouldKeepObj;
-			alreadyInlined.add(inlineProcedure(builder, newBuilder, shouldKeep));
+			roots.add((XcfaProcedure.Builder) shouldKeepObj);
+		}
+
+		Set<XcfaProcedure.Builder> alreadyInlined = new LinkedHashSet<>();
+		for (XcfaProcedure.Builder root : roots) {
+			alreadyInlined.add(inlineProcedure(builder, newBuilder, root));
 		}
 
 		for (XcfaProcedure.Builder procedure : alreadyInlined) {
@@ -97,11 +110,14 @@ public class FunctionInlining extends ProcessPass {
 
 		for (XcfaProcedure.Builder procBuilder : alreadyInlined) {
 			UnusedVarRemovalPass.removeUnusedVars(procBuilder, usedVars);
-			newBuilder.addProcedure(XcfaPassManager.run(procBuilder));
-			if (procBuilder == newMainProc) newBuilder.setMainProcedure(procBuilder);
 		}
 
-		FrontendMetadata.lookupMetadata("shouldInline", false).stream().filter(o -> o instanceof XcfaProcedure.Builder).map(o -> (XcfaProcedure.Builder) o).forEach(procedure -> newBuilder.addProcedure(XcfaPassManager.run(procedure)));
+		final Set<XcfaProcedure.Builder> procedures = new LinkedHashSet<>(alreadyInlined);
+		FrontendMetadata.lookupMetadata("shouldInline", false).stream().filter(o -> o instanceof XcfaProcedure.Builder).map(o -> (XcfaProcedure.Builder) o).forEach(procedures::add);
+		final List<XcfaProcedure.Builder> newProcedures = passManager.run(new ArrayList<>(procedures));
+		newProcedures.forEach(newBuilder::addProcedure);
+		// the main procedure is always the first root
+		newBuilder.setMainProcedure(newProcedures.get(0));
 
 		return newBuilder;
 
@@ -228,12 +244,13 @@ public class FunctionInlining extends ProcessPass {
 					initStmts.add(Stmt(assignStmt));
 					if (truncatedParam instanceof Reference) {
 						Optional<Object> pointsTo = FrontendMetadata.getMetadataValue(varDecl.getRef(), "pointsTo");
+						// the stored collection may be shared, so it is replaced instead of being modified
+						final Set<Expr<?>> newPointsTo = new LinkedHashSet<>();
 						if (pointsTo.isPresent() && pointsTo.get() instanceof Collection) {
-							((Collection<Expr<?>>) pointsTo.get()).add(((Reference<?, ?>) truncatedParam).getOp());
-						} else {
-							pointsTo = Optional.of(new LinkedHashSet<Expr<?>>(Set.of(((Reference<?, ?>) truncatedParam).getOp())));
+							newPointsTo.addAll((Collection<Expr<?>>) pointsTo.get());
 						}
-						FrontendMetadata.create(varDecl.getRef(), "pointsTo", pointsTo.get());
+						newPointsTo.add(((Reference<?, ?>) truncatedParam).getOp());
+						FrontendMetadata.create(varDecl.getRef(), "pointsTo", newPointsTo);
 					}
 				}
 				if (direction != XcfaProcedure.Direction.IN) {
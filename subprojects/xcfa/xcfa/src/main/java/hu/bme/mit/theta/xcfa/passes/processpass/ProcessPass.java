@@ -17,10 +17,18 @@
 package hu.bme.mit.theta.xcfa.passes.processpass;
 
 import hu.bme.mit.theta.xcfa.model.XcfaProcess;
+import hu.bme.mit.theta.xcfa.passes.XcfaPassManager;
 
 public abstract class ProcessPass {
 
 	public abstract XcfaProcess.Builder run(XcfaProcess.Builder builder);
 
+	/**
+	 * Runs the pass as part of the pipeline of the given pass manager. Passes that transform
+	 * procedures themselves should use it to schedule the procedure passes.
+	 */
+	public XcfaProcess.Builder run(XcfaProcess.Builder builder, XcfaPassManager passManager) {
+		return run(builder);
+	}
 
 }
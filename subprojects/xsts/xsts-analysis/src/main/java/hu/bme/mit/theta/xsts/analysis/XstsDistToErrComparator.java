@@ -0,0 +1,300 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.xsts.analysis;
+
+import hu.bme.mit.theta.analysis.Action;
+import hu.bme.mit.theta.analysis.State;
+import hu.bme.mit.theta.analysis.algorithm.ArgNode;
+import hu.bme.mit.theta.analysis.algorithm.ArgNodeComparators.RankingArgNodeComparator;
+import hu.bme.mit.theta.analysis.expl.ExplState;
+import hu.bme.mit.theta.analysis.expr.ExprState;
+import hu.bme.mit.theta.analysis.prod2.Prod2State;
+import hu.bme.mit.theta.analysis.utils.DistanceTable;
+import hu.bme.mit.theta.common.Tuple2;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.model.Valuation;
+import hu.bme.mit.theta.core.stmt.AssignStmt;
+import hu.bme.mit.theta.core.stmt.AssumeStmt;
+import hu.bme.mit.theta.core.stmt.SequenceStmt;
+import hu.bme.mit.theta.core.stmt.Stmt;
+import hu.bme.mit.theta.core.type.BinaryExpr;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.LitExpr;
+import hu.bme.mit.theta.core.type.abstracttype.EqExpr;
+import hu.bme.mit.theta.core.type.abstracttype.NeqExpr;
+import hu.bme.mit.theta.core.type.anytype.RefExpr;
+import hu.bme.mit.theta.core.type.booltype.AndExpr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.type.booltype.NotExpr;
+import hu.bme.mit.theta.core.type.booltype.OrExpr;
+import hu.bme.mit.theta.core.utils.ExprUtils;
+import hu.bme.mit.theta.core.utils.StmtUtils;
+import hu.bme.mit.theta.xsts.XSTS;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.False;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Not;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.True;
+
+/**
+ * A comparator for ArgNodes that is based on the distance of the control
+ * variables from the values violating the property. For each control variable
+ * appearing in the negated property as {@code var == value}, a graph over the
+ * values of the variable is built from the transitions of the XSTS: a
+ * transition leads from the value required by its guard (or from any value if
+ * it does not constrain the variable) to the value it assigns. The distances are
+ * computed once (on first use), and the distance of a state is the least
+ * distance among these variables. Target states come first.
+ * <p>
+ * The value of a control variable is taken from the explicit part of the state
+ * if it is tracked there. Otherwise the conjuncts of the state expression (e.g.,
+ * the predicates of a predicate state) are used: a variable compared to a
+ * literal has that value, and the values it is known to differ from are
+ * excluded, so the distance is the least one among the remaining values. If the
+ * negated property does not constrain any control variable, the nodes are
+ * removed in breadth-first order (apart from the targets).
+ */
+public final class XstsDistToErrComparator implements RankingArgNodeComparator {
+	private static final long serialVersionUID = 2394520637145235436L;
+
+	private transient Map<VarDecl<?>, DistanceTable<LitExpr<?>>> distancesToError;
+	private final XSTS xsts;
+
+	public XstsDistToErrComparator(final XSTS xsts) {
+		this.xsts = checkNotNull(xsts);
+		distancesToError = null;
+	}
+
+	@Override
+	public int rank(final ArgNode<? extends State, ? extends Action> node) {
+		checkArgument(node.getState() instanceof XstsState, "XstsState expected.");
+		if (node.isTarget()) {
+			return 0;
+		}
+		if (distancesToError == null) {
+			distancesToError = calculateDistancesToError(xsts);
+		}
+		if (distancesToError.isEmpty()) {
+			return 1;
+		}
+		final ExprState state = ((XstsState<?>) node.getState()).getState();
+		if (state.isBottom()) {
+			return DistanceTable.INFINITE;
+		}
+		final Optional<Valuation> valuation = getExplicitValuation(state);
+		Map<VarDecl<?>, LitExpr<?>> values = null;
+		Map<VarDecl<?>, Set<LitExpr<?>>> excludedValues = null;
+		int min = DistanceTable.INFINITE;
+		for (final Map.Entry<VarDecl<?>, DistanceTable<LitExpr<?>>> entry : distancesToError.entrySet()) {
+			final VarDecl<?> var = entry.getKey();
+			final DistanceTable<LitExpr<?>> distances = entry.getValue();
+			Optional<? extends LitExpr<?>> value = valuation.isPresent() ? valuation.get().eval(var) : Optional.empty();
+			if (value.isEmpty()) {
+				if (values == null) {
+					values = new HashMap<>();
+					excludedValues = new HashMap<>();
+					collectConstraints(state.toExpr(), distancesToError.keySet(), values, excludedValues);
+				}
+				value = Optional.ofNullable(values.get(var));
+			}
+			if (value.isPresent()) {
+				min = Math.min(min, distances.getDistance(value.get()));
+			} else {
+				min = Math.min(min, getLeastDistance(distances, excludedValues.getOrDefault(var, Set.of())));
+			}
+		}
+		return min == DistanceTable.INFINITE ? min : min + 1;
+	}
+
+	private static Optional<Valuation> getExplicitValuation(final ExprState state) {
+		if (state instanceof ExplState) {
+			return Optional.of((ExplState) state);
+		} else if (state instanceof Prod2State && ((Prod2State<?, ?>) state).getState1() instanceof ExplState) {
+			return Optional.of((ExplState) ((Prod2State<?, ?>) state).getState1());
+		} else {
+			return Optional.empty();
+		}
+	}
+
+	private static int getLeastDistance(final DistanceTable<LitExpr<?>> distances, final Set<LitExpr<?>> excludedValues) {
+		for (int i = 0; i < distances.size(); i++) {
+			if (!excludedValues.contains(distances.getNode(i))) {
+				return distances.getDistance(i);
+			}
+		}
+		return DistanceTable.INFINITE;
+	}
+
+	/**
+	 * Collects the values of the variables that the conjuncts of the expression compare to
+	 * literals, and the values they are known to differ from.
+	 */
+	private static void collectConstraints(final Expr<BoolType> expr, final Set<VarDecl<?>> vars,
+										   final Map<VarDecl<?>, LitExpr<?>> values,
+										   final Map<VarDecl<?>, Set<LitExpr<?>>> excludedValues) {
+		for (final Expr<BoolType> conjunct : ExprUtils.getConjuncts(expr)) {
+			if (conjunct instanceof EqExpr) {
+				getComparedValue((EqExpr<?>) conjunct, vars).ifPresent(value -> values.put(value.get1(), value.get2()));
+			} else if (conjunct instanceof NeqExpr) {
+				getComparedValue((NeqExpr<?>) conjunct, vars).ifPresent(value ->
+						excludedValues.computeIfAbsent(value.get1(), v -> new HashSet<>()).add(value.get2()));
+			} else if (conjunct instanceof NotExpr && ((NotExpr) conjunct).getOp() instanceof EqExpr) {
+				getComparedValue((EqExpr<?>) ((NotExpr) conjunct).getOp(), vars).ifPresent(value ->
+						excludedValues.computeIfAbsent(value.get1(), v -> new HashSet<>()).add(value.get2()));
+			} else if (conjunct instanceof RefExpr && vars.contains(((RefExpr<?>) conjunct).getDecl())) {
+				values.put((VarDecl<?>) ((RefExpr<?>) conjunct).getDecl(), True());
+			} else if (conjunct instanceof NotExpr && ((NotExpr) conjunct).getOp() instanceof RefExpr
+					&& vars.contains(((RefExpr<?>) ((NotExpr) conjunct).getOp()).getDecl())) {
+				values.put((VarDecl<?>) ((RefExpr<?>) ((NotExpr) conjunct).getOp()).getDecl(), False());
+			}
+		}
+	}
+
+	static Map<VarDecl<?>, DistanceTable<LitExpr<?>>> calculateDistancesToError(final XSTS xsts) {
+		final Map<VarDecl<?>, Set<LitExpr<?>>> errorValues = new LinkedHashMap<>();
+		collectValues(Not(xsts.getProp()), true, xsts.getCtrlVars(), errorValues);
+
+		final List<List<Stmt>> branches = new ArrayList<>();
+		xsts.getTran().getStmts().forEach(stmt -> branches.add(flatten(stmt)));
+		xsts.getEnv().getStmts().forEach(stmt -> branches.add(flatten(stmt)));
+
+		final Map<VarDecl<?>, DistanceTable<LitExpr<?>>> distances = new LinkedHashMap<>();
+		for (final Map.Entry<VarDecl<?>, Set<LitExpr<?>>> entry : errorValues.entrySet()) {
+			distances.put(entry.getKey(), calculateDistances(entry.getKey(), entry.getValue(), branches, flatten(xsts.getInit())));
+		}
+		return distances;
+	}
+
+	private static DistanceTable<LitExpr<?>> calculateDistances(final VarDecl<?> var, final Set<LitExpr<?>> errorValues,
+																final List<List<Stmt>> branches, final List<Stmt> init) {
+		final Set<LitExpr<?>> values = new LinkedHashSet<>(errorValues);
+		getAssignedValue(var, init).ifPresent(values::add);
+		final List<Set<LitExpr<?>>> guards = new ArrayList<>();
+		final List<Optional<LitExpr<?>>> assignedValues = new ArrayList<>();
+		for (final List<Stmt> branch : branches) {
+			if (!StmtUtils.getVars(branch).contains(var)) {
+				continue;
+			}
+			final Set<LitExpr<?>> guard = new LinkedHashSet<>();
+			for (final Stmt stmt : branch) {
+				if (stmt instanceof AssumeStmt) {
+					collectGuardValues(((AssumeStmt) stmt).getCond(), var, guard);
+				} else if (StmtUtils.getVars(stmt).contains(var)) {
+					break;
+				}
+			}
+			final Optional<LitExpr<?>> assigned = getAssignedValue(var, branch);
+			values.addAll(guard);
+			assigned.ifPresent(values::add);
+			guards.add(guard);
+			assignedValues.add(assigned);
+		}
+
+		// A transition without a guard on the variable can start from any value, and a
+		// transition that does not assign a literal can lead to any value
+		final Map<LitExpr<?>, Set<LitExpr<?>>> predecessors = new HashMap<>();
+		for (int i = 0; i < guards.size(); i++) {
+			final Collection<LitExpr<?>> sources = guards.get(i).isEmpty() ? values : guards.get(i);
+			final Collection<LitExpr<?>> targets = assignedValues.get(i).isPresent()
+					? List.of(assignedValues.get(i).get()) : values;
+			for (final LitExpr<?> target : targets) {
+				predecessors.computeIfAbsent(target, t -> new LinkedHashSet<>()).addAll(sources);
+			}
+		}
+
+		return DistanceTable.create(errorValues, value -> predecessors.getOrDefault(value, Set.of()));
+	}
+
+	private static List<Stmt> flatten(final Stmt stmt) {
+		final List<Stmt> result = new ArrayList<>();
+		if (stmt instanceof SequenceStmt) {
+			((SequenceStmt) stmt).getStmts().forEach(s -> result.addAll(flatten(s)));
+		} else {
+			result.add(stmt);
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the literal assigned last to the variable, or empty if the variable is assigned
+	 * something else (or is assigned in a nested statement).
+	 */
+	private static Optional<LitExpr<?>> getAssignedValue(final VarDecl<?> var, final List<Stmt> stmts) {
+		Optional<LitExpr<?>> result = Optional.empty();
+		for (final Stmt stmt : stmts) {
+			if (stmt instanceof AssignStmt && ((AssignStmt<?>) stmt).getVarDecl().equals(var)) {
+				final Expr<?> expr = ((AssignStmt<?>) stmt).getExpr();
+				result = expr instanceof LitExpr ? Optional.of((LitExpr<?>) expr) : Optional.empty();
+			} else if (!(stmt instanceof AssumeStmt) && !(stmt instanceof AssignStmt)
+					&& StmtUtils.getVars(stmt).contains(var)) {
+				result = Optional.empty();
+			}
+		}
+		return result;
+	}
+
+	private static void collectGuardValues(final Expr<BoolType> expr, final VarDecl<?> var, final Set<LitExpr<?>> values) {
+		if (expr instanceof AndExpr) {
+			((AndExpr) expr).getOps().forEach(op -> collectGuardValues(op, var, values));
+		} else if (expr instanceof EqExpr) {
+			getComparedValue((EqExpr<?>) expr, Set.of(var)).ifPresent(value -> values.add(value.get2()));
+		}
+	}
+
+	private static void collectValues(final Expr<BoolType> expr, final boolean positive, final Set<VarDecl<?>> vars,
+									  final Map<VarDecl<?>, Set<LitExpr<?>>> values) {
+		if (expr instanceof NotExpr) {
+			collectValues(((NotExpr) expr).getOp(), !positive, vars, values);
+		} else if (expr instanceof AndExpr) {
+			((AndExpr) expr).getOps().forEach(op -> collectValues(op, positive, vars, values));
+		} else if (expr instanceof OrExpr) {
+			((OrExpr) expr).getOps().forEach(op -> collectValues(op, positive, vars, values));
+		} else if ((positive && expr instanceof EqExpr) || (!positive && expr instanceof NeqExpr)) {
+			getComparedValue((BinaryExpr<?, ?>) expr, vars).ifPresent(value ->
+					values.computeIfAbsent(value.get1(), v -> new LinkedHashSet<>()).add(value.get2()));
+		}
+	}
+
+	private static Optional<Tuple2<VarDecl<?>, LitExpr<?>>> getComparedValue(
+			final BinaryExpr<?, ?> expr, final Set<VarDecl<?>> vars) {
+		final Expr<?> left = expr.getLeftOp();
+		final Expr<?> right = expr.getRightOp();
+		if (left instanceof RefExpr && right instanceof LitExpr && vars.contains(((RefExpr<?>) left).getDecl())) {
+			return Optional.of(Tuple2.of((VarDecl<?>) ((RefExpr<?>) left).getDecl(), (LitExpr<?>) right));
+		} else if (right instanceof RefExpr && left instanceof LitExpr && vars.contains(((RefExpr<?>) right).getDecl())) {
+			return Optional.of(Tuple2.of((VarDecl<?>) ((RefExpr<?>) right).getDecl(), (LitExpr<?>) left));
+		} else {
+			return Optional.empty();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName();
+	}
+}
@@ -2,24 +2,22 @@ package hu.bme.mit.theta.xsts.analysis;
 
 import hu.bme.mit.theta.analysis.LTS;
 import hu.bme.mit.theta.analysis.expr.ExprState;
-import hu.bme.mit.theta.core.stmt.NonDetStmt;
 import hu.bme.mit.theta.xsts.XSTS;
 
 import java.util.Collection;
-import java.util.stream.Collectors;
 
 public final class XstsLts <S extends ExprState> implements LTS<XstsState<S>, XstsAction> {
 
-	private final NonDetStmt trans;
-	private final NonDetStmt env;
-	private final NonDetStmt init;
+	private final XstsTransitionIndex trans;
+	private final XstsTransitionIndex env;
+	private final XstsTransitionIndex init;
 
 	private final XstsStmtOptimizer<S> stmtOptimizer;
 
 	private XstsLts(final XSTS xsts, final XstsStmtOptimizer<S> stmtOptimizer) {
-		trans = xsts.getTran();
-		env = xsts.getEnv();
-		init = xsts.getInit();
+		trans = XstsTransitionIndex.create(xsts.getTran(), xsts.getCtrlVars());
+		env = XstsTransitionIndex.create(xsts.getEnv(), xsts.getCtrlVars());
+		init = XstsTransitionIndex.create(xsts.getInit(), xsts.getCtrlVars());
 
 		this.stmtOptimizer = stmtOptimizer;
 	}
@@ -30,14 +28,11 @@ public final class XstsLts <S extends ExprState> implements LTS<XstsState<S>, Xs
 
 	@Override
 	public Collection<XstsAction> getEnabledActionsFor(XstsState<S> state) {
-		NonDetStmt enabledSet;
+		XstsTransitionIndex enabledSet;
 		if (!state.isInitialized()) enabledSet = init;
 		else if (state.lastActionWasEnv()) enabledSet = trans;
 		else enabledSet = env;
 
-		return enabledSet.getStmts().stream()
-				.map(stmt -> stmtOptimizer.optimizeStmt(state,stmt))
-				.map(XstsAction::create)
-				.collect(Collectors.toList());
+		return enabledSet.getEnabledActions(state, stmtOptimizer);
 	}
 }
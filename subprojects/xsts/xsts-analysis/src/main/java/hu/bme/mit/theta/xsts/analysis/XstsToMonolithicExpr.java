@@ -0,0 +1,95 @@
+package hu.bme.mit.theta.xsts.analysis;
+
+import hu.bme.mit.theta.analysis.expl.ExplState;
+import hu.bme.mit.theta.analysis.expr.MonolithicExpr;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.model.MutableValuation;
+import hu.bme.mit.theta.core.model.Valuation;
+import hu.bme.mit.theta.core.stmt.NonDetStmt;
+import hu.bme.mit.theta.core.stmt.Stmt;
+import hu.bme.mit.theta.core.type.inttype.IntLitExpr;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+import hu.bme.mit.theta.xsts.XSTS;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static hu.bme.mit.theta.core.decl.Decls.Var;
+import static hu.bme.mit.theta.core.stmt.Stmts.Assign;
+import static hu.bme.mit.theta.core.stmt.Stmts.Assume;
+import static hu.bme.mit.theta.core.stmt.Stmts.NonDetStmt;
+import static hu.bme.mit.theta.core.stmt.Stmts.SequenceStmt;
+import static hu.bme.mit.theta.core.type.booltype.SmartBoolExprs.And;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Eq;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+
+/**
+ * The monolithic description of an XSTS. The order of the initialization, environment and
+ * internal transitions is encoded by an additional phase variable: in phase 0 the system is not
+ * initialized yet, in phase 1 the environment and in phase 2 the internal transitions are
+ * enabled. The property is required in every phase, as in the other analyses of XSTS.
+ */
+public final class XstsToMonolithicExpr {
+
+	private static final int PRE_INIT = 0;
+	private static final int ENV = 1;
+	private static final int TRAN = 2;
+
+	private final XSTS xsts;
+	private final VarDecl<IntType> phase;
+	private final MonolithicExpr monolithicExpr;
+
+	private XstsToMonolithicExpr(final XSTS xsts) {
+		this.xsts = checkNotNull(xsts);
+		this.phase = Var("__phase", Int());
+
+		final Stmt trans = NonDetStmt(List.of(
+				step(PRE_INIT, xsts.getInit(), ENV),
+				step(ENV, xsts.getEnv(), TRAN),
+				step(TRAN, xsts.getTran(), ENV)));
+		final List<VarDecl<?>> vars = new ArrayList<>(xsts.getVars());
+		vars.add(phase);
+		monolithicExpr = MonolithicExpr.create(And(xsts.getInitFormula(), Eq(phase.getRef(), Int(PRE_INIT))), trans,
+				xsts.getProp(), vars);
+	}
+
+	public static XstsToMonolithicExpr create(final XSTS xsts) {
+		return new XstsToMonolithicExpr(xsts);
+	}
+
+	private Stmt step(final int from, final NonDetStmt stmt, final int to) {
+		return SequenceStmt(List.of(Assume(Eq(phase.getRef(), Int(from))), stmt, Assign(phase, Int(to))));
+	}
+
+	public MonolithicExpr getMonolithicExpr() {
+		return monolithicExpr;
+	}
+
+	public XstsState<ExplState> toState(final Valuation val) {
+		final int phaseValue = getPhase(val);
+		final MutableValuation stateVal = MutableValuation.copyOf(val).remove(phase);
+		return XstsState.of(ExplState.of(stateVal), phaseValue != ENV, phaseValue != PRE_INIT);
+	}
+
+	/**
+	 * The action of a step is the whole statement enabled in the phase before the step.
+	 */
+	public XstsAction toAction(final Valuation before, final Valuation after) {
+		switch (getPhase(before)) {
+			case PRE_INIT:
+				return XstsAction.create(xsts.getInit());
+			case ENV:
+				return XstsAction.create(xsts.getEnv());
+			case TRAN:
+				return XstsAction.create(xsts.getTran());
+			default:
+				throw new AssertionError();
+		}
+	}
+
+	private int getPhase(final Valuation val) {
+		return ((IntLitExpr) val.eval(phase).orElseThrow()).getValue().intValue();
+	}
+
+}
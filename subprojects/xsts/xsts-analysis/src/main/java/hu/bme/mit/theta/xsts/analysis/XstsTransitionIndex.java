@@ -0,0 +1,211 @@
+package hu.bme.mit.theta.xsts.analysis;
+
+import com.google.common.collect.Maps;
+import hu.bme.mit.theta.analysis.expr.ExprState;
+import hu.bme.mit.theta.common.metrics.Counter;
+import hu.bme.mit.theta.common.metrics.Metrics;
+import hu.bme.mit.theta.core.decl.Decl;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.model.MutableValuation;
+import hu.bme.mit.theta.core.model.Valuation;
+import hu.bme.mit.theta.core.stmt.AssumeStmt;
+import hu.bme.mit.theta.core.stmt.NonDetStmt;
+import hu.bme.mit.theta.core.stmt.SequenceStmt;
+import hu.bme.mit.theta.core.stmt.Stmt;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.LitExpr;
+import hu.bme.mit.theta.core.type.abstracttype.EqExpr;
+import hu.bme.mit.theta.core.type.anytype.RefExpr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.type.booltype.NotExpr;
+import hu.bme.mit.theta.core.utils.ExprUtils;
+import hu.bme.mit.theta.core.utils.StmtUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Bool;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.False;
+import static hu.bme.mit.theta.core.type.booltype.SmartBoolExprs.And;
+
+/**
+ * Index of the branches of a {@link NonDetStmt} by their guards on control variables.
+ * The guard of a branch is the conjunction of its leading assumptions over control variables.
+ * Branches are partitioned by the value that their guard requires for one of the control
+ * variables, so that for a state only the branches in the matching partition (and the
+ * branches that could not be partitioned) have to be checked. Optimized actions are memoized
+ * per branch and per the values of the variables of the branch that are fixed in the state.
+ */
+final class XstsTransitionIndex {
+
+	private static final Counter skippedBranches = Metrics.counter("xstsLts.skippedBranches");
+	private static final Counter cachedActions = Metrics.counter("xstsLts.cachedActions");
+
+	private final List<Branch> branches;
+	private final Map<VarDecl<?>, Map<LitExpr<?>, List<Branch>>> partitions;
+	private final List<Branch> unpartitioned;
+	private final Set<VarDecl<?>> ctrlVars;
+
+	private XstsTransitionIndex(final NonDetStmt stmt, final Set<VarDecl<?>> ctrlVars) {
+		this.ctrlVars = ctrlVars;
+		this.branches = new ArrayList<>();
+		this.partitions = new LinkedHashMap<>();
+		this.unpartitioned = new ArrayList<>();
+
+		for (final Stmt branchStmt : stmt.getStmts()) {
+			final Branch branch = new Branch(branches.size(), branchStmt, collectGuard(branchStmt));
+			branches.add(branch);
+
+			final Optional<Map.Entry<VarDecl<?>, LitExpr<?>>> key = branch.guard.stream()
+					.map(this::asCtrlLiteral).filter(Optional::isPresent).map(Optional::get).findFirst();
+			if (key.isPresent()) {
+				partitions.computeIfAbsent(key.get().getKey(), v -> new HashMap<>())
+						.computeIfAbsent(key.get().getValue(), v -> new ArrayList<>()).add(branch);
+			} else {
+				unpartitioned.add(branch);
+			}
+		}
+	}
+
+	static XstsTransitionIndex create(final NonDetStmt stmt, final Set<VarDecl<?>> ctrlVars) {
+		return new XstsTransitionIndex(stmt, ctrlVars);
+	}
+
+	/**
+	 * Get the optimized actions of the branches that may be enabled in a state, in the order
+	 * of the branches.
+	 */
+	<S extends ExprState> List<XstsAction> getEnabledActions(final XstsState<S> state, final XstsStmtOptimizer<S> stmtOptimizer) {
+		final Valuation fixedValues = extractFixedValues(state.toExpr());
+
+		final List<Branch> candidates = new ArrayList<>(unpartitioned);
+		partitions.forEach((var, buckets) -> {
+			final Optional<? extends LitExpr<?>> value = fixedValues.eval(var);
+			if (value.isPresent()) {
+				candidates.addAll(buckets.getOrDefault(value.get(), Collections.emptyList()));
+			} else {
+				buckets.values().forEach(candidates::addAll);
+			}
+		});
+		candidates.sort((b1, b2) -> Integer.compare(b1.index, b2.index));
+
+		final List<XstsAction> result = new ArrayList<>(candidates.size());
+		for (final Branch branch : candidates) {
+			if (branch.isDisabled(fixedValues)) {
+				continue;
+			}
+			result.add(branch.getAction(state, fixedValues, stmtOptimizer));
+		}
+		skippedBranches.add(branches.size() - result.size());
+		return result;
+	}
+
+	private Optional<Map.Entry<VarDecl<?>, LitExpr<?>>> asCtrlLiteral(final Expr<BoolType> expr) {
+		return asLiteral(expr).filter(e -> e.getKey() instanceof VarDecl && ctrlVars.contains(e.getKey()))
+				.map(e -> Maps.immutableEntry((VarDecl<?>) e.getKey(), e.getValue()));
+	}
+
+	private List<Expr<BoolType>> collectGuard(final Stmt stmt) {
+		final List<Expr<BoolType>> guard = new ArrayList<>();
+		collectGuard(stmt, guard);
+		return guard;
+	}
+
+	/**
+	 * Collect the conjuncts over control variables of the assumptions at the beginning of a
+	 * statement, returns false if a statement other than an assumption was reached.
+	 */
+	private boolean collectGuard(final Stmt stmt, final List<Expr<BoolType>> collectTo) {
+		if (stmt instanceof AssumeStmt) {
+			for (final Expr<BoolType> conjunct : ExprUtils.getConjuncts(((AssumeStmt) stmt).getCond())) {
+				if (ctrlVars.containsAll(ExprUtils.getVars(conjunct))) {
+					collectTo.add(conjunct);
+				}
+			}
+			return true;
+		} else if (stmt instanceof SequenceStmt) {
+			for (final Stmt subStmt : ((SequenceStmt) stmt).getStmts()) {
+				if (!collectGuard(subStmt, collectTo)) {
+					return false;
+				}
+			}
+			return true;
+		} else {
+			return false;
+		}
+	}
+
+	/**
+	 * Get the values of the declarations that appear as literals (e.g., x = 1 or b) in the
+	 * conjunction.
+	 */
+	private static Valuation extractFixedValues(final Expr<BoolType> expr) {
+		final MutableValuation val = new MutableValuation();
+		for (final Expr<BoolType> conjunct : ExprUtils.getConjuncts(expr)) {
+			asLiteral(conjunct).ifPresent(e -> val.put(e.getKey(), e.getValue()));
+		}
+		return val;
+	}
+
+	private static Optional<Map.Entry<Decl<?>, LitExpr<?>>> asLiteral(final Expr<BoolType> expr) {
+		if (expr instanceof RefExpr) {
+			return Optional.of(Maps.immutableEntry(((RefExpr<?>) expr).getDecl(), Bool(true)));
+		} else if (expr instanceof NotExpr && ((NotExpr) expr).getOp() instanceof RefExpr) {
+			return Optional.of(Maps.immutableEntry(((RefExpr<?>) ((NotExpr) expr).getOp()).getDecl(), Bool(false)));
+		} else if (expr instanceof EqExpr) {
+			final EqExpr<?> eq = (EqExpr<?>) expr;
+			if (eq.getLeftOp() instanceof RefExpr && eq.getRightOp() instanceof LitExpr) {
+				return Optional.of(Maps.immutableEntry(((RefExpr<?>) eq.getLeftOp()).getDecl(), (LitExpr<?>) eq.getRightOp()));
+			} else if (eq.getRightOp() instanceof RefExpr && eq.getLeftOp() instanceof LitExpr) {
+				return Optional.of(Maps.immutableEntry(((RefExpr<?>) eq.getRightOp()).getDecl(), (LitExpr<?>) eq.getLeftOp()));
+			}
+		}
+		return Optional.empty();
+	}
+
+	private static final class Branch {
+		private final int index;
+		private final Stmt stmt;
+		private final List<Expr<BoolType>> guard;
+		private final List<VarDecl<?>> vars;
+		private final Map<List<LitExpr<?>>, XstsAction> actions;
+
+		private Branch(final int index, final Stmt stmt, final List<Expr<BoolType>> guard) {
+			this.index = index;
+			this.stmt = stmt;
+			this.guard = guard;
+			this.vars = new ArrayList<>(StmtUtils.getVars(stmt));
+			this.actions = new HashMap<>();
+		}
+
+		private boolean isDisabled(final Valuation fixedValues) {
+			return !guard.isEmpty() && ExprUtils.simplify(And(guard), fixedValues).equals(False());
+		}
+
+		/**
+		 * The optimizers only depend on the values of the variables of the statement that
+		 * are fixed in the state, so these values are used as the key of the memoization.
+		 */
+		private <S extends ExprState> XstsAction getAction(final XstsState<S> state, final Valuation fixedValues,
+														   final XstsStmtOptimizer<S> stmtOptimizer) {
+			final List<LitExpr<?>> key = new ArrayList<>(vars.size());
+			for (final VarDecl<?> var : vars) {
+				key.add(fixedValues.eval(var).orElse(null));
+			}
+			final XstsAction cached = actions.get(key);
+			if (cached != null) {
+				cachedActions.increment();
+				return cached;
+			}
+			final XstsAction action = XstsAction.create(stmtOptimizer.optimizeStmt(state, stmt));
+			actions.put(key, action);
+			return action;
+		}
+	}
+}
@@ -22,13 +22,24 @@ import hu.bme.mit.theta.analysis.LTS;
 import hu.bme.mit.theta.analysis.Prec;
 import hu.bme.mit.theta.analysis.State;
 import hu.bme.mit.theta.analysis.algorithm.ArgBuilder;
+import hu.bme.mit.theta.analysis.algorithm.ArgNode;
 import hu.bme.mit.theta.analysis.algorithm.ArgNodeComparators;
 import hu.bme.mit.theta.analysis.algorithm.SafetyChecker;
 import hu.bme.mit.theta.analysis.algorithm.cegar.Abstractor;
 import hu.bme.mit.theta.analysis.algorithm.cegar.BasicAbstractor;
 import hu.bme.mit.theta.analysis.algorithm.cegar.CegarChecker;
+import hu.bme.mit.theta.analysis.algorithm.cegar.FilePrecCheckpointer;
+import hu.bme.mit.theta.analysis.algorithm.cegar.PrecCheckpointer;
+import hu.bme.mit.theta.analysis.algorithm.cegar.PrecCodec;
+import hu.bme.mit.theta.analysis.algorithm.cegar.PrecCodecs;
+import hu.bme.mit.theta.analysis.algorithm.cegar.PrecStore;
 import hu.bme.mit.theta.analysis.algorithm.cegar.Refiner;
 import hu.bme.mit.theta.analysis.algorithm.cegar.abstractor.StopCriterions;
+import hu.bme.mit.theta.analysis.algorithm.ic3.Ic3Checker;
+import hu.bme.mit.theta.analysis.algorithm.impact.ImpactChecker;
+import hu.bme.mit.theta.analysis.algorithm.impact.ImpactRefiner;
+import hu.bme.mit.theta.analysis.algorithm.impact.PredImpactRefiner;
+import hu.bme.mit.theta.analysis.algorithm.kind.KIndChecker;
 import hu.bme.mit.theta.analysis.expl.ExplAnalysis;
 import hu.bme.mit.theta.analysis.expl.ExplPrec;
 import hu.bme.mit.theta.analysis.expl.ExplState;
@@ -38,6 +49,7 @@ import hu.bme.mit.theta.analysis.expl.ExplStmtOptimizer;
 import hu.bme.mit.theta.analysis.expl.ItpRefToExplPrec;
 import hu.bme.mit.theta.analysis.expl.VarsRefToExplPrec;
 import hu.bme.mit.theta.analysis.expr.ExprStatePredicate;
+import hu.bme.mit.theta.analysis.expr.MonolithicExpr;
 import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceBwBinItpChecker;
 import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceChecker;
 import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceFwBinItpChecker;
@@ -46,9 +58,11 @@ import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceUnsatCoreChecker;
 import hu.bme.mit.theta.analysis.expr.refinement.ItpRefutation;
 import hu.bme.mit.theta.analysis.expr.refinement.JoiningPrecRefiner;
 import hu.bme.mit.theta.analysis.expr.refinement.MultiExprTraceRefiner;
+import hu.bme.mit.theta.analysis.expr.refinement.ParallelExprTraceRefiner;
 import hu.bme.mit.theta.analysis.expr.refinement.PruneStrategy;
 import hu.bme.mit.theta.analysis.expr.refinement.RefutationToPrec;
 import hu.bme.mit.theta.analysis.expr.refinement.SingleExprTraceRefiner;
+import hu.bme.mit.theta.analysis.impl.PrecMappingAnalysis;
 import hu.bme.mit.theta.analysis.pred.ExprSplitters;
 import hu.bme.mit.theta.analysis.pred.ItpRefToPredPrec;
 import hu.bme.mit.theta.analysis.pred.PredAbstractors;
@@ -61,7 +75,8 @@ import hu.bme.mit.theta.analysis.prod2.Prod2Prec;
 import hu.bme.mit.theta.analysis.prod2.Prod2State;
 import hu.bme.mit.theta.analysis.prod2.prod2explpred.*;
 import hu.bme.mit.theta.analysis.stmtoptimizer.DefaultStmtOptimizer;
-import hu.bme.mit.theta.analysis.waitlist.PriorityWaitlist;
+import hu.bme.mit.theta.analysis.unit.UnitPrec;
+import hu.bme.mit.theta.analysis.waitlist.Waitlist;
 import hu.bme.mit.theta.common.logging.Logger;
 import hu.bme.mit.theta.common.logging.NullLogger;
 import hu.bme.mit.theta.core.decl.VarDecl;
@@ -69,13 +84,16 @@ import hu.bme.mit.theta.core.type.Expr;
 import hu.bme.mit.theta.core.type.booltype.BoolType;
 import hu.bme.mit.theta.solver.Solver;
 import hu.bme.mit.theta.solver.SolverFactory;
+import hu.bme.mit.theta.solver.metrics.MeasuredSolverFactory;
 import hu.bme.mit.theta.xsts.XSTS;
 import hu.bme.mit.theta.xsts.analysis.XstsAction;
 import hu.bme.mit.theta.xsts.analysis.XstsAnalysis;
+import hu.bme.mit.theta.xsts.analysis.XstsDistToErrComparator;
 import hu.bme.mit.theta.xsts.analysis.XstsLts;
 import hu.bme.mit.theta.xsts.analysis.XstsState;
 import hu.bme.mit.theta.xsts.analysis.XstsStatePredicate;
 import hu.bme.mit.theta.xsts.analysis.XstsStmtOptimizer;
+import hu.bme.mit.theta.xsts.analysis.XstsToMonolithicExpr;
 import hu.bme.mit.theta.xsts.analysis.autoexpl.XstsAutoExpl;
 import hu.bme.mit.theta.xsts.analysis.autoexpl.XstsNewAtomsAutoExpl;
 import hu.bme.mit.theta.xsts.analysis.autoexpl.XstsNewOperandsAutoExpl;
@@ -86,30 +104,65 @@ import hu.bme.mit.theta.xsts.analysis.initprec.XstsEmptyInitPrec;
 import hu.bme.mit.theta.xsts.analysis.initprec.XstsInitPrec;
 import hu.bme.mit.theta.xsts.analysis.initprec.XstsPropInitPrec;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
 import java.util.Set;
+import java.util.function.BinaryOperator;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Not;
 
 public class XstsConfigBuilder {
 
+	/**
+	 * The algorithm used for the verification. The domain and refinement settings only apply to
+	 * {@link #CEGAR}, {@link #IMPACT} always uses predicate states strengthened by sequence
+	 * interpolation, {@link #KIND} is k-induction and {@link #IC3} is property directed
+	 * reachability over the monolithic transition relation.
+	 */
+	public enum Engine {
+		CEGAR, IMPACT, KIND, IC3
+	}
+
 	public enum Domain {
 		EXPL, PRED_BOOL, PRED_CART, PRED_SPLIT, EXPL_PRED_BOOL, EXPL_PRED_CART, EXPL_PRED_SPLIT, EXPL_PRED_COMBINED
 	}
 
 	public enum Refinement {
-		FW_BIN_ITP, BW_BIN_ITP, SEQ_ITP, MULTI_SEQ, UNSAT_CORE
+		FW_BIN_ITP, BW_BIN_ITP, SEQ_ITP, MULTI_SEQ, PARALLEL_SEQ, UNSAT_CORE
 	}
 
 	public enum Search {
-		BFS(ArgNodeComparators.combine(ArgNodeComparators.targetFirst(), ArgNodeComparators.bfs())),
+		BFS {
+			@Override
+			public ArgNodeComparators.ArgNodeComparator getComp(final XSTS xsts) {
+				return ArgNodeComparators.combine(ArgNodeComparators.targetFirst(), ArgNodeComparators.bfs());
+			}
+		},
+
+		DFS {
+			@Override
+			public ArgNodeComparators.ArgNodeComparator getComp(final XSTS xsts) {
+				return ArgNodeComparators.combine(ArgNodeComparators.targetFirst(), ArgNodeComparators.dfs());
+			}
+		},
 
-		DFS(ArgNodeComparators.combine(ArgNodeComparators.targetFirst(), ArgNodeComparators.dfs()));
+		ERR {
+			@Override
+			public ArgNodeComparators.ArgNodeComparator getComp(final XSTS xsts) {
+				return new XstsDistToErrComparator(xsts);
+			}
+		};
 
-		public final ArgNodeComparators.ArgNodeComparator comparator;
+		public abstract ArgNodeComparators.ArgNodeComparator getComp(XSTS xsts);
 
-		private Search(final ArgNodeComparators.ArgNodeComparator comparator) {
-			this.comparator = comparator;
+		public <S extends State, A extends Action> Waitlist<ArgNode<S, A>> createWaitlist(final XSTS xsts) {
+			return ArgNodeComparators.createWaitlist(getComp(xsts));
 		}
 
 	}
@@ -162,6 +215,7 @@ public class XstsConfigBuilder {
 	}
 
 	private Logger logger = NullLogger.getInstance();
+	private Engine engine = Engine.CEGAR;
 	private final SolverFactory solverFactory;
 	private final Domain domain;
 	private final Refinement refinement;
@@ -170,8 +224,16 @@ public class XstsConfigBuilder {
 	private int maxEnum = 0;
 	private InitPrec initPrec = InitPrec.EMPTY;
 	private PruneStrategy pruneStrategy = PruneStrategy.LAZY;
+	private boolean incrementalAbstraction = false;
+	private int abstractionParallelism = 1;
+	private int refinementParallelism = Runtime.getRuntime().availableProcessors();
+	private final List<AutoCloseable> resources = new ArrayList<>();
 	private OptimizeStmts optimizeStmts = OptimizeStmts.ON;
 	private AutoExpl autoExpl = AutoExpl.NEWOPERANDS;
+	private String precCheckpoint = null;
+	private String warmStart = null;
+	private PrecStore precStore = null;
+	private String modelName = null;
 
 	public XstsConfigBuilder(final Domain domain, final Refinement refinement, final SolverFactory solverFactory) {
 		this.domain = domain;
@@ -184,6 +246,11 @@ public class XstsConfigBuilder {
 		return this;
 	}
 
+	public XstsConfigBuilder engine(final Engine engine) {
+		this.engine = engine;
+		return this;
+	}
+
 	public XstsConfigBuilder search(final Search search) {
 		this.search = search;
 		return this;
@@ -209,6 +276,34 @@ public class XstsConfigBuilder {
 		return this;
 	}
 
+	/**
+	 * Use the incremental variants of the Boolean predicate abstractors, which keep the
+	 * predicate definitions permanently asserted in the abstraction solver.
+	 */
+	public XstsConfigBuilder incrementalAbstraction(final boolean incrementalAbstraction) {
+		this.incrementalAbstraction = incrementalAbstraction;
+		return this;
+	}
+
+	/**
+	 * Number of solvers (and threads) used concurrently by the Cartesian predicate abstractor.
+	 */
+	public XstsConfigBuilder abstractionParallelism(final int abstractionParallelism) {
+		checkArgument(abstractionParallelism > 0, "Parallelism must be positive");
+		this.abstractionParallelism = abstractionParallelism;
+		return this;
+	}
+
+	/**
+	 * Number of solvers (and threads) used concurrently by the {@link Refinement#PARALLEL_SEQ}
+	 * refinement for checking counterexamples, defaults to the number of processors.
+	 */
+	public XstsConfigBuilder refinementParallelism(final int refinementParallelism) {
+		checkArgument(refinementParallelism > 0, "Parallelism must be positive");
+		this.refinementParallelism = refinementParallelism;
+		return this;
+	}
+
 	public XstsConfigBuilder optimizeStmts(final OptimizeStmts optimizeStmts) {
 		this.optimizeStmts = optimizeStmts;
 		return this;
@@ -219,10 +314,57 @@ public class XstsConfigBuilder {
 		return this;
 	}
 
+	/**
+	 * Save the precision to this file whenever it is refined.
+	 */
+	public XstsConfigBuilder precCheckpoint(final String precCheckpoint) {
+		this.precCheckpoint = precCheckpoint;
+		return this;
+	}
+
+	/**
+	 * Start from the precision saved in this file (if it exists) instead of the initial
+	 * precision. Using the checkpoint file of an interrupted run resumes that run, using the
+	 * final precision of a finished run usually converges in a single iteration.
+	 */
+	public XstsConfigBuilder warmStart(final String warmStart) {
+		this.warmStart = warmStart;
+		return this;
+	}
+
+	/**
+	 * Extend the initial precision with the precision stored for the model in this directory
+	 * (if there is one), and keep the stored precision up to date with the refinements.
+	 * Models are identified by their name (e.g., the path of the model file), so the stored
+	 * precision is also used if the property changes, see {@link PrecStore}.
+	 */
+	public XstsConfigBuilder precStore(final String precStoreDir, final String modelName) {
+		checkArgument(precStoreDir == null || modelName != null, "Models in a precision store need a name");
+		this.precStore = precStoreDir == null ? null : PrecStore.create(precStoreDir);
+		this.modelName = modelName;
+		return this;
+	}
+
 	public XstsConfig<? extends State, ? extends Action, ? extends Prec> build(final XSTS xsts) {
-		final Solver abstractionSolver = solverFactory.createSolver();
+		final SolverFactory abstractionSolverFactory = MeasuredSolverFactory.wrap(solverFactory, "abstraction");
+		final SolverFactory refinementSolverFactory = MeasuredSolverFactory.wrap(solverFactory, "refinement");
 		final Expr<BoolType> negProp = Not(xsts.getProp());
 
+		if (engine == Engine.KIND) {
+			return buildKInd(xsts, abstractionSolverFactory, refinementSolverFactory);
+		} else if (engine == Engine.IC3) {
+			final XstsToMonolithicExpr encoding = XstsToMonolithicExpr.create(xsts);
+			final SafetyChecker<XstsState<ExplState>, XstsAction, UnitPrec> checker = Ic3Checker.builder(
+					encoding.getMonolithicExpr(), encoding::toState, encoding::toAction, abstractionSolverFactory)
+					.logger(logger).build();
+			return XstsConfig.create(checker, UnitPrec.getInstance(), takeResources());
+		}
+
+		final Solver abstractionSolver = abstractionSolverFactory.createSolver();
+		if (engine == Engine.IMPACT) {
+			return buildImpact(xsts, abstractionSolver, refinementSolverFactory, negProp);
+		}
+
 		if (domain == Domain.EXPL) {
 			final LTS<XstsState<ExplState>, XstsAction> lts;
 			if(optimizeStmts == OptimizeStmts.ON){
@@ -236,8 +378,8 @@ public class XstsConfigBuilder {
 			final ArgBuilder<XstsState<ExplState>, XstsAction, ExplPrec> argBuilder = ArgBuilder.create(lts, analysis, target,
 					true);
 			final Abstractor<XstsState<ExplState>, XstsAction, ExplPrec> abstractor = BasicAbstractor.builder(argBuilder)
-					.waitlist(PriorityWaitlist.create(search.comparator))
-					.stopCriterion(refinement == Refinement.MULTI_SEQ ? StopCriterions.fullExploration()
+					.waitlist(search.createWaitlist(xsts))
+					.stopCriterion(refinement == Refinement.MULTI_SEQ || refinement == Refinement.PARALLEL_SEQ ? StopCriterions.fullExploration()
 							: StopCriterions.firstCex())
 					.logger(logger).build();
 
@@ -245,45 +387,53 @@ public class XstsConfigBuilder {
 
 			switch (refinement) {
 				case FW_BIN_ITP:
-					refiner = SingleExprTraceRefiner.create(ExprTraceFwBinItpChecker.create(xsts.getInitFormula(), negProp, solverFactory.createItpSolver()),
+					refiner = SingleExprTraceRefiner.create(ExprTraceFwBinItpChecker.create(xsts.getInitFormula(), negProp, refinementSolverFactory.createItpSolver()),
 							JoiningPrecRefiner.create(new ItpRefToExplPrec()), pruneStrategy, logger);
 					break;
 				case BW_BIN_ITP:
-					refiner = SingleExprTraceRefiner.create(ExprTraceBwBinItpChecker.create(xsts.getInitFormula(), negProp, solverFactory.createItpSolver()),
+					refiner = SingleExprTraceRefiner.create(ExprTraceBwBinItpChecker.create(xsts.getInitFormula(), negProp, refinementSolverFactory.createItpSolver()),
 							JoiningPrecRefiner.create(new ItpRefToExplPrec()), pruneStrategy, logger);
 					break;
 				case SEQ_ITP:
-					refiner = SingleExprTraceRefiner.create(ExprTraceSeqItpChecker.create(xsts.getInitFormula(), negProp, solverFactory.createItpSolver()),
+					refiner = SingleExprTraceRefiner.create(ExprTraceSeqItpChecker.create(xsts.getInitFormula(), negProp, refinementSolverFactory.createItpSolver()),
 							JoiningPrecRefiner.create(new ItpRefToExplPrec()), pruneStrategy, logger);
 					break;
 				case MULTI_SEQ:
-					refiner = MultiExprTraceRefiner.create(ExprTraceSeqItpChecker.create(xsts.getInitFormula(), negProp, solverFactory.createItpSolver()),
+					refiner = MultiExprTraceRefiner.create(ExprTraceSeqItpChecker.create(xsts.getInitFormula(), negProp, refinementSolverFactory.createItpSolver()),
 							JoiningPrecRefiner.create(new ItpRefToExplPrec()), pruneStrategy, logger);
 					break;
+				case PARALLEL_SEQ:
+					refiner = own(ParallelExprTraceRefiner.create(createSeqItpCheckers(xsts.getInitFormula(), negProp, refinementSolverFactory),
+							JoiningPrecRefiner.create(new ItpRefToExplPrec()), pruneStrategy, logger));
+					break;
 				case UNSAT_CORE:
-					refiner = SingleExprTraceRefiner.create(ExprTraceUnsatCoreChecker.create(xsts.getInitFormula(), negProp, solverFactory.createUCSolver()),
+					refiner = SingleExprTraceRefiner.create(ExprTraceUnsatCoreChecker.create(xsts.getInitFormula(), negProp, refinementSolverFactory.createUCSolver()),
 							JoiningPrecRefiner.create(new VarsRefToExplPrec()), pruneStrategy, logger);
 					break;
 				default:
 					throw new UnsupportedOperationException(domain + " domain does not support " + refinement + " refinement.");
 			}
 
+			final PrecCodec<ExplPrec> precCodec = PrecCodecs.expl(xsts.getVars());
 			final SafetyChecker<XstsState<ExplState>, XstsAction, ExplPrec> checker = CegarChecker.create(abstractor, refiner,
-					logger);
-			final ExplPrec prec = initPrec.builder.createExpl(xsts);
-			return XstsConfig.create(checker, prec);
+					logger, createCheckpointer(precCodec));
+			final ExplPrec prec = createInitPrec(precCodec, () -> initPrec.builder.createExpl(xsts), ExplPrec::join);
+			return XstsConfig.create(checker, prec, takeResources());
 
 		} else if (domain == Domain.PRED_BOOL || domain == Domain.PRED_CART || domain == Domain.PRED_SPLIT) {
 			PredAbstractors.PredAbstractor predAbstractor = null;
 			switch (domain) {
 				case PRED_BOOL:
-					predAbstractor = PredAbstractors.booleanAbstractor(abstractionSolver);
+					predAbstractor = incrementalAbstraction ? PredAbstractors.incrementalBooleanAbstractor(abstractionSolver, false)
+							: PredAbstractors.booleanAbstractor(abstractionSolver);
 					break;
 				case PRED_SPLIT:
-					predAbstractor = PredAbstractors.booleanSplitAbstractor(abstractionSolver);
+					predAbstractor = incrementalAbstraction ? PredAbstractors.incrementalBooleanSplitAbstractor(abstractionSolver)
+							: PredAbstractors.booleanSplitAbstractor(abstractionSolver);
 					break;
 				case PRED_CART:
-					predAbstractor = PredAbstractors.cartesianAbstractor(abstractionSolver);
+					predAbstractor = abstractionParallelism > 1 ? own(PredAbstractors.parallelCartesianAbstractor(abstractionSolverFactory, abstractionParallelism))
+							: PredAbstractors.cartesianAbstractor(abstractionSolver);
 					break;
 				default:
 					throw new UnsupportedOperationException(domain + " domain is not supported.");
@@ -302,24 +452,27 @@ public class XstsConfigBuilder {
 			final ArgBuilder<XstsState<PredState>, XstsAction, PredPrec> argBuilder = ArgBuilder.create(lts, analysis, target,
 					true);
 			final Abstractor<XstsState<PredState>, XstsAction, PredPrec> abstractor = BasicAbstractor.builder(argBuilder)
-					.waitlist(PriorityWaitlist.create(search.comparator))
-					.stopCriterion(refinement == Refinement.MULTI_SEQ ? StopCriterions.fullExploration()
+					.waitlist(search.createWaitlist(xsts))
+					.stopCriterion(refinement == Refinement.MULTI_SEQ || refinement == Refinement.PARALLEL_SEQ ? StopCriterions.fullExploration()
 							: StopCriterions.firstCex())
 					.logger(logger).build();
 
 			ExprTraceChecker<ItpRefutation> exprTraceChecker = null;
 			switch (refinement) {
 				case FW_BIN_ITP:
-					exprTraceChecker = ExprTraceFwBinItpChecker.create(xsts.getInitFormula(), negProp, solverFactory.createItpSolver());
+					exprTraceChecker = ExprTraceFwBinItpChecker.create(xsts.getInitFormula(), negProp, refinementSolverFactory.createItpSolver());
 					break;
 				case BW_BIN_ITP:
-					exprTraceChecker = ExprTraceBwBinItpChecker.create(xsts.getInitFormula(), negProp, solverFactory.createItpSolver());
+					exprTraceChecker = ExprTraceBwBinItpChecker.create(xsts.getInitFormula(), negProp, refinementSolverFactory.createItpSolver());
 					break;
 				case SEQ_ITP:
-					exprTraceChecker = ExprTraceSeqItpChecker.create(xsts.getInitFormula(), negProp, solverFactory.createItpSolver());
+					exprTraceChecker = ExprTraceSeqItpChecker.create(xsts.getInitFormula(), negProp, refinementSolverFactory.createItpSolver());
 					break;
 				case MULTI_SEQ:
-					exprTraceChecker = ExprTraceSeqItpChecker.create(xsts.getInitFormula(), negProp, solverFactory.createItpSolver());
+					exprTraceChecker = ExprTraceSeqItpChecker.create(xsts.getInitFormula(), negProp, refinementSolverFactory.createItpSolver());
+					break;
+				case PARALLEL_SEQ:
+					// The trace checkers are created for the parallel refiner below
 					break;
 				default:
 					throw new UnsupportedOperationException(
@@ -329,16 +482,20 @@ public class XstsConfigBuilder {
 			if (refinement == Refinement.MULTI_SEQ) {
 				refiner = MultiExprTraceRefiner.create(exprTraceChecker,
 						JoiningPrecRefiner.create(new ItpRefToPredPrec(predSplit.splitter)), pruneStrategy, logger);
+			} else if (refinement == Refinement.PARALLEL_SEQ) {
+				refiner = own(ParallelExprTraceRefiner.create(createSeqItpCheckers(xsts.getInitFormula(), negProp, refinementSolverFactory),
+						JoiningPrecRefiner.create(new ItpRefToPredPrec(predSplit.splitter)), pruneStrategy, logger));
 			} else {
 				refiner = SingleExprTraceRefiner.create(exprTraceChecker,
 						JoiningPrecRefiner.create(new ItpRefToPredPrec(predSplit.splitter)), pruneStrategy, logger);
 			}
 
+			final PrecCodec<PredPrec> precCodec = PrecCodecs.pred(xsts.getVars());
 			final SafetyChecker<XstsState<PredState>, XstsAction, PredPrec> checker = CegarChecker.create(abstractor, refiner,
-					logger);
+					logger, createCheckpointer(precCodec));
 
-			final PredPrec prec = initPrec.builder.createPred(xsts);
-			return XstsConfig.create(checker, prec);
+			final PredPrec prec = createInitPrec(precCodec, () -> initPrec.builder.createPred(xsts), PredPrec::join);
+			return XstsConfig.create(checker, prec, takeResources());
 		} else if (domain == Domain.EXPL_PRED_BOOL || domain == Domain.EXPL_PRED_CART || domain == Domain.EXPL_PRED_SPLIT || domain == Domain.EXPL_PRED_COMBINED) {
 			final LTS<XstsState<Prod2State<ExplState,PredState>>, XstsAction> lts;
 			if(optimizeStmts == OptimizeStmts.ON){
@@ -356,13 +513,16 @@ public class XstsConfigBuilder {
 				final PredAbstractors.PredAbstractor predAbstractor;
 				switch (domain) {
 					case EXPL_PRED_BOOL:
-						predAbstractor = PredAbstractors.booleanAbstractor(abstractionSolver);
+						predAbstractor = incrementalAbstraction ? PredAbstractors.incrementalBooleanAbstractor(abstractionSolver, false)
+								: PredAbstractors.booleanAbstractor(abstractionSolver);
 						break;
 					case EXPL_PRED_SPLIT:
-						predAbstractor = PredAbstractors.booleanSplitAbstractor(abstractionSolver);
+						predAbstractor = incrementalAbstraction ? PredAbstractors.incrementalBooleanSplitAbstractor(abstractionSolver)
+								: PredAbstractors.booleanSplitAbstractor(abstractionSolver);
 						break;
 					case EXPL_PRED_CART:
-						predAbstractor = PredAbstractors.cartesianAbstractor(abstractionSolver);
+						predAbstractor = abstractionParallelism > 1 ? own(PredAbstractors.parallelCartesianAbstractor(abstractionSolverFactory, abstractionParallelism))
+								: PredAbstractors.cartesianAbstractor(abstractionSolver);
 						break;
 					default:
 						throw new UnsupportedOperationException(domain + " domain is not supported.");
@@ -385,8 +545,8 @@ public class XstsConfigBuilder {
 			final ArgBuilder<XstsState<Prod2State<ExplState, PredState>>, XstsAction, Prod2Prec<ExplPrec, PredPrec>> argBuilder = ArgBuilder.create(lts, analysis, target,
 					true);
 			final Abstractor<XstsState<Prod2State<ExplState, PredState>>, XstsAction, Prod2Prec<ExplPrec, PredPrec>> abstractor = BasicAbstractor.builder(argBuilder)
-					.waitlist(PriorityWaitlist.create(search.comparator))
-					.stopCriterion(refinement == Refinement.MULTI_SEQ ? StopCriterions.fullExploration()
+					.waitlist(search.createWaitlist(xsts))
+					.stopCriterion(refinement == Refinement.MULTI_SEQ || refinement == Refinement.PARALLEL_SEQ ? StopCriterions.fullExploration()
 							: StopCriterions.firstCex())
 					.logger(logger).build();
 
@@ -397,34 +557,145 @@ public class XstsConfigBuilder {
 
 			switch (refinement) {
 				case FW_BIN_ITP:
-					refiner = SingleExprTraceRefiner.create(ExprTraceFwBinItpChecker.create(xsts.getInitFormula(), negProp, solverFactory.createItpSolver()),
+					refiner = SingleExprTraceRefiner.create(ExprTraceFwBinItpChecker.create(xsts.getInitFormula(), negProp, refinementSolverFactory.createItpSolver()),
 							JoiningPrecRefiner.create(precRefiner), pruneStrategy, logger);
 					break;
 				case BW_BIN_ITP:
-					refiner = SingleExprTraceRefiner.create(ExprTraceBwBinItpChecker.create(xsts.getInitFormula(), negProp, solverFactory.createItpSolver()),
+					refiner = SingleExprTraceRefiner.create(ExprTraceBwBinItpChecker.create(xsts.getInitFormula(), negProp, refinementSolverFactory.createItpSolver()),
 							JoiningPrecRefiner.create(precRefiner), pruneStrategy, logger);
 					break;
 				case SEQ_ITP:
-					refiner = SingleExprTraceRefiner.create(ExprTraceSeqItpChecker.create(xsts.getInitFormula(), negProp, solverFactory.createItpSolver()),
+					refiner = SingleExprTraceRefiner.create(ExprTraceSeqItpChecker.create(xsts.getInitFormula(), negProp, refinementSolverFactory.createItpSolver()),
 							JoiningPrecRefiner.create(precRefiner), pruneStrategy, logger);
 					break;
 				case MULTI_SEQ:
-					refiner = MultiExprTraceRefiner.create(ExprTraceSeqItpChecker.create(xsts.getInitFormula(), negProp, solverFactory.createItpSolver()),
+					refiner = MultiExprTraceRefiner.create(ExprTraceSeqItpChecker.create(xsts.getInitFormula(), negProp, refinementSolverFactory.createItpSolver()),
 							JoiningPrecRefiner.create(precRefiner), pruneStrategy, logger);
 					break;
+				case PARALLEL_SEQ:
+					refiner = own(ParallelExprTraceRefiner.create(createSeqItpCheckers(xsts.getInitFormula(), negProp, refinementSolverFactory),
+							JoiningPrecRefiner.create(precRefiner), pruneStrategy, logger));
+					break;
 				default:
 					throw new UnsupportedOperationException(
 							domain + " domain does not support " + refinement + " refinement.");
 			}
 
+			final PrecCodec<Prod2Prec<ExplPrec, PredPrec>> precCodec = PrecCodecs.prod2(PrecCodecs.expl(xsts.getVars()),
+					PrecCodecs.pred(xsts.getVars()));
 			final SafetyChecker<XstsState<Prod2State<ExplState, PredState>>, XstsAction, Prod2Prec<ExplPrec, PredPrec>> checker = CegarChecker.create(abstractor, refiner,
-					logger);
-			final Prod2Prec<ExplPrec, PredPrec> prec = initPrec.builder.createProd2ExplPred(xsts);
-			return XstsConfig.create(checker, prec);
+					logger, createCheckpointer(precCodec));
+			final Prod2Prec<ExplPrec, PredPrec> prec = createInitPrec(precCodec, () -> initPrec.builder.createProd2ExplPred(xsts),
+					(p1, p2) -> Prod2Prec.of(p1.getPrec1().join(p2.getPrec1()), p1.getPrec2().join(p2.getPrec2())));
+			return XstsConfig.create(checker, prec, takeResources());
 		} else {
 			throw new UnsupportedOperationException(domain + " domain is not supported.");
 		}
 	}
 
+	private XstsConfig<XstsState<PredState>, XstsAction, UnitPrec> buildImpact(final XSTS xsts, final Solver abstractionSolver,
+																			  final SolverFactory refinementSolverFactory,
+																			  final Expr<BoolType> negProp) {
+		final LTS<XstsState<PredState>, XstsAction> lts;
+		if (optimizeStmts == OptimizeStmts.ON) {
+			lts = XstsLts.create(xsts, XstsStmtOptimizer.create(PredStmtOptimizer.getInstance()));
+		} else {
+			lts = XstsLts.create(xsts, XstsStmtOptimizer.create(DefaultStmtOptimizer.create()));
+		}
+
+		final Predicate<XstsState<PredState>> target = new XstsStatePredicate<ExprStatePredicate, PredState>(new ExprStatePredicate(negProp, abstractionSolver));
+		final Analysis<XstsState<PredState>, XstsAction, PredPrec> predAnalysis = XstsAnalysis.create(PredAnalysis.create(abstractionSolver,
+				PredAbstractors.cartesianAbstractor(abstractionSolver), xsts.getInitFormula()));
+		final PredPrec emptyPrec = PredPrec.of();
+		final Analysis<XstsState<PredState>, XstsAction, UnitPrec> analysis = PrecMappingAnalysis.create(predAnalysis, p -> emptyPrec);
+
+		final ImpactRefiner<XstsState<PredState>, XstsAction> refiner = PredImpactRefiner.create(refinementSolverFactory.createItpSolver(),
+				xsts.getInitFormula(), negProp, XstsState::getState,
+				(s, predState) -> XstsState.of(predState, s.lastActionWasEnv(), s.isInitialized()));
+		final SafetyChecker<XstsState<PredState>, XstsAction, UnitPrec> checker = ImpactChecker.builder(lts, analysis, target, refiner)
+				.partitioning(s -> s.lastActionWasEnv()).forcedCovering(true).logger(logger).build();
+		return XstsConfig.create(checker, UnitPrec.getInstance(), takeResources());
+	}
+
+	private XstsConfig<XstsState<ExplState>, XstsAction, UnitPrec> buildKInd(final XSTS xsts,
+																		   final SolverFactory abstractionSolverFactory,
+																		   final SolverFactory refinementSolverFactory) {
+		final XstsToMonolithicExpr encoding = XstsToMonolithicExpr.create(xsts);
+		final MonolithicExpr model = encoding.getMonolithicExpr();
+		final ExprTraceChecker<ItpRefutation> itpChecker = ExprTraceSeqItpChecker.create(model.getInit(),
+				Not(model.getProp()), refinementSolverFactory.createItpSolver());
+		final SafetyChecker<XstsState<ExplState>, XstsAction, UnitPrec> checker = KIndChecker.builder(model,
+						encoding::toState, encoding::toAction, abstractionSolverFactory.createSolver(), abstractionSolverFactory.createSolver())
+				.simplePath(true).invariantStrengthening(itpChecker, refinementSolverFactory.createSolver())
+				.logger(logger).build();
+		return XstsConfig.create(checker, UnitPrec.getInstance(), takeResources());
+	}
+
+	private <P extends Prec> PrecCheckpointer<P> createCheckpointer(final PrecCodec<P> codec) {
+		PrecCheckpointer<P> checkpointer = PrecCheckpointer.none();
+		if (precCheckpoint != null) {
+			checkpointer = FilePrecCheckpointer.create(precCheckpoint, codec, logger);
+		}
+		if (precStore != null) {
+			checkpointer = checkpointer.andThen(precStore.checkpointer(getPrecStoreKey(), codec, logger));
+		}
+		return checkpointer;
+	}
+
+	private String getPrecStoreKey() {
+		return modelName + "." + domain;
+	}
 
-}
\ No newline at end of file
+	private <P extends Prec> P createInitPrec(final PrecCodec<P> codec, final Supplier<P> initPrecSupplier,
+											  final BinaryOperator<P> join) {
+		if (warmStart != null) {
+			try {
+				final Optional<P> prec = FilePrecCheckpointer.load(warmStart, codec);
+				if (prec.isPresent()) {
+					logger.write(Logger.Level.INFO, "Warm start from the precision in %s%n", warmStart);
+					return prec.get();
+				}
+			} catch (final IOException e) {
+				throw new UncheckedIOException("Could not load precision from " + warmStart, e);
+			}
+		}
+		if (precStore != null) {
+			try {
+				final Optional<P> prec = precStore.load(getPrecStoreKey(), codec);
+				if (prec.isPresent()) {
+					logger.write(Logger.Level.INFO, "Initial precision extended with the precision store%n");
+					return join.apply(initPrecSupplier.get(), prec.get());
+				}
+			} catch (final IOException e) {
+				logger.write(Logger.Level.INFO, "Could not load stored precision: %s%n", e.getMessage());
+			}
+		}
+		return initPrecSupplier.get();
+	}
+
+	/**
+	 * Register a resource (e.g., a solver) to be owned by the configuration being built.
+	 */
+	private <T extends AutoCloseable> T own(final T resource) {
+		resources.add(resource);
+		return resource;
+	}
+
+	/**
+	 * Get the resources registered for the configuration being built.
+	 */
+	private List<AutoCloseable> takeResources() {
+		final List<AutoCloseable> result = new ArrayList<>(resources);
+		resources.clear();
+		return result;
+	}
+
+	private List<ExprTraceChecker<ItpRefutation>> createSeqItpCheckers(final Expr<BoolType> init, final Expr<BoolType> target,
+																	  final SolverFactory refinementSolverFactory) {
+		final List<ExprTraceChecker<ItpRefutation>> checkers = new ArrayList<>(refinementParallelism);
+		for (int i = 0; i < refinementParallelism; ++i) {
+			checkers.add(ExprTraceSeqItpChecker.create(init, target, own(refinementSolverFactory.createItpSolver())));
+		}
+		return checkers;
+	}
+}
@@ -0,0 +1,83 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.xsts.analysis;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import hu.bme.mit.theta.analysis.algorithm.ARG;
+import hu.bme.mit.theta.analysis.algorithm.ArgNode;
+import hu.bme.mit.theta.analysis.expl.ExplState;
+import hu.bme.mit.theta.analysis.expr.ExprState;
+import hu.bme.mit.theta.analysis.pred.PredState;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.model.ImmutableValuation;
+import hu.bme.mit.theta.core.stmt.NonDetStmt;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+import hu.bme.mit.theta.xsts.XSTS;
+import org.junit.Test;
+
+import static hu.bme.mit.theta.core.decl.Decls.Var;
+import static hu.bme.mit.theta.core.stmt.Stmts.Assign;
+import static hu.bme.mit.theta.core.stmt.Stmts.Assume;
+import static hu.bme.mit.theta.core.stmt.Stmts.SequenceStmt;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Not;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.True;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Eq;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Neq;
+import static org.junit.Assert.assertEquals;
+
+public class XstsDistToErrComparatorTest {
+
+	private final VarDecl<IntType> ctrl = Var("ctrl", Int());
+
+	// ctrl: 0 -> 1 -> 2, the property is violated when ctrl is 2
+	private final XSTS xsts = new XSTS(ImmutableMap.of(), ImmutableSet.of(ctrl),
+			NonDetStmt.of(ImmutableList.of(Assign(ctrl, Int(0)))),
+			NonDetStmt.of(ImmutableList.of(
+					SequenceStmt(ImmutableList.of(Assume(Eq(ctrl.getRef(), Int(0))), Assign(ctrl, Int(1)))),
+					SequenceStmt(ImmutableList.of(Assume(Eq(ctrl.getRef(), Int(1))), Assign(ctrl, Int(2)))))),
+			NonDetStmt.of(ImmutableList.of(SequenceStmt(ImmutableList.of()))), True(), Neq(ctrl.getRef(), Int(2)));
+
+	private final XstsDistToErrComparator comparator = new XstsDistToErrComparator(xsts);
+	private final ARG<XstsState<ExprState>, XstsAction> arg = ARG.create((s1, s2) -> false);
+
+	@Test
+	public void testExplicit() {
+		assertEquals(3, comparator.rank(node(ExplState.of(ImmutableValuation.builder().put(ctrl, Int(0)).build()), false)));
+		assertEquals(2, comparator.rank(node(ExplState.of(ImmutableValuation.builder().put(ctrl, Int(1)).build()), false)));
+		assertEquals(1, comparator.rank(node(ExplState.top(), false)));
+	}
+
+	@Test
+	public void testPredicates() {
+		assertEquals(2, comparator.rank(node(PredState.of(Eq(ctrl.getRef(), Int(1))), false)));
+		assertEquals(2, comparator.rank(node(PredState.of(Not(Eq(ctrl.getRef(), Int(2)))), false)));
+		assertEquals(3, comparator.rank(node(PredState.of(Not(Eq(ctrl.getRef(), Int(2))), Neq(ctrl.getRef(), Int(1))), false)));
+		assertEquals(1, comparator.rank(node(PredState.of(), false)));
+	}
+
+	@Test
+	public void testTargetFirst() {
+		assertEquals(0, comparator.rank(node(PredState.of(), true)));
+		assertEquals(0, comparator.rank(node(ExplState.of(ImmutableValuation.builder().put(ctrl, Int(0)).build()), true)));
+	}
+
+	private ArgNode<XstsState<ExprState>, XstsAction> node(final ExprState state, final boolean target) {
+		return arg.createInitNode(XstsState.of(state, false, true), target);
+	}
+}
@@ -0,0 +1,110 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.xsts.analysis;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import hu.bme.mit.theta.analysis.LTS;
+import hu.bme.mit.theta.analysis.expl.ExplState;
+import hu.bme.mit.theta.analysis.expl.ExplStmtOptimizer;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.model.ImmutableValuation;
+import hu.bme.mit.theta.core.stmt.NonDetStmt;
+import hu.bme.mit.theta.core.stmt.Stmt;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+import hu.bme.mit.theta.xsts.XSTS;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static hu.bme.mit.theta.core.decl.Decls.Var;
+import static hu.bme.mit.theta.core.stmt.Stmts.Assign;
+import static hu.bme.mit.theta.core.stmt.Stmts.Assume;
+import static hu.bme.mit.theta.core.stmt.Stmts.SequenceStmt;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.And;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.True;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Add;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Eq;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Gt;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class XstsLtsTest {
+
+	private final VarDecl<IntType> ctrl = Var("ctrl", Int());
+	private final VarDecl<IntType> x = Var("x", Int());
+
+	private final List<Stmt> branches = ImmutableList.of(
+			SequenceStmt(ImmutableList.of(Assume(Eq(ctrl.getRef(), Int(0))), Assign(ctrl, Int(1)), Assign(x, Add(x.getRef(), Int(1))))),
+			SequenceStmt(ImmutableList.of(Assume(And(Eq(ctrl.getRef(), Int(1)), Gt(x.getRef(), Int(0)))), Assign(ctrl, Int(0)))),
+			SequenceStmt(ImmutableList.of(Assume(Eq(Int(1), ctrl.getRef())), Assign(x, Int(0)))),
+			Assign(x, Int(5)));
+
+	private final XSTS xsts = new XSTS(ImmutableMap.of(), ImmutableSet.of(ctrl),
+			NonDetStmt.of(ImmutableList.of(Assign(ctrl, Int(0)))), NonDetStmt.of(branches),
+			NonDetStmt.of(ImmutableList.of(SequenceStmt(ImmutableList.of()))), True(), True());
+
+	private final LTS<XstsState<ExplState>, XstsAction> lts = XstsLts.create(xsts,
+			XstsStmtOptimizer.create(ExplStmtOptimizer.getInstance()));
+
+	private XstsState<ExplState> state(final int ctrlValue, final int xValue) {
+		return XstsState.of(ExplState.of(ImmutableValuation.builder().put(ctrl, Int(ctrlValue)).put(x, Int(xValue)).build()), true, true);
+	}
+
+	private List<XstsAction> naiveActions(final XstsState<ExplState> state) {
+		final List<XstsAction> result = new ArrayList<>();
+		for (final Stmt branch : branches) {
+			result.add(XstsAction.create(ExplStmtOptimizer.getInstance().optimizeStmt(state.getState(), branch)));
+		}
+		return result;
+	}
+
+	@Test
+	public void testDisabledBranchesAreSkipped() {
+		final XstsState<ExplState> state0 = state(0, 3);
+		final List<XstsAction> naive0 = naiveActions(state0);
+		assertEquals(ImmutableList.of(naive0.get(0), naive0.get(3)), new ArrayList<>(lts.getEnabledActionsFor(state0)));
+
+		final XstsState<ExplState> state1 = state(1, 3);
+		final List<XstsAction> naive1 = naiveActions(state1);
+		assertEquals(ImmutableList.of(naive1.get(1), naive1.get(2), naive1.get(3)), new ArrayList<>(lts.getEnabledActionsFor(state1)));
+	}
+
+	@Test
+	public void testUnknownCtrlValue() {
+		final XstsState<ExplState> state = XstsState.of(ExplState.top(), true, true);
+		assertEquals(naiveActions(state), new ArrayList<>(lts.getEnabledActionsFor(state)));
+	}
+
+	@Test
+	public void testActionsAreMemoized() {
+		final Collection<XstsAction> actions1 = lts.getEnabledActionsFor(state(1, 3));
+		final Collection<XstsAction> actions2 = lts.getEnabledActionsFor(state(1, 3));
+		assertEquals(actions1.size(), actions2.size());
+		final List<XstsAction> list1 = new ArrayList<>(actions1);
+		final List<XstsAction> list2 = new ArrayList<>(actions2);
+		for (int i = 0; i < list1.size(); i++) {
+			assertSame(list1.get(i), list2.get(i));
+		}
+
+		final List<XstsAction> other = new ArrayList<>(lts.getEnabledActionsFor(state(1, 4)));
+		assertEquals(naiveActions(state(1, 4)).get(1), other.get(0));
+	}
+}
@@ -0,0 +1,113 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.xsts.analysis;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import hu.bme.mit.theta.common.logging.Logger;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.stmt.NonDetStmt;
+import hu.bme.mit.theta.core.stmt.Stmt;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+import hu.bme.mit.theta.solver.z3.Z3SolverFactory;
+import hu.bme.mit.theta.xsts.XSTS;
+import hu.bme.mit.theta.xsts.analysis.config.XstsConfig;
+import hu.bme.mit.theta.xsts.analysis.config.XstsConfigBuilder;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static hu.bme.mit.theta.core.decl.Decls.Var;
+import static hu.bme.mit.theta.core.stmt.Stmts.Assign;
+import static hu.bme.mit.theta.core.stmt.Stmts.Assume;
+import static hu.bme.mit.theta.core.stmt.Stmts.SequenceStmt;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.And;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Add;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Eq;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Leq;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Lt;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class XstsPrecStoreTest {
+
+	private static final String STORE_HIT = "Initial precision extended with the precision store";
+
+	@Test
+	public void testOtherProperty() throws IOException {
+		final String dir = Files.createTempDirectory("precstore").toString();
+		final VarDecl<IntType> x = Var("x", Int());
+		final VarDecl<IntType> y = Var("y", Int());
+		assertFalse(check(dir, counter(x, y, And(Leq(x.getRef(), Int(3)), Leq(y.getRef(), Int(1))))));
+
+		// Models are parsed again in each run, so the variables are different declarations
+		final VarDecl<IntType> x2 = Var("x", Int());
+		final VarDecl<IntType> y2 = Var("y", Int());
+		assertTrue(check(dir, counter(x2, y2, Leq(x2.getRef(), Int(5)))));
+	}
+
+	@Test
+	public void testVanishedVar() throws IOException {
+		final String dir = Files.createTempDirectory("precstore").toString();
+		final VarDecl<IntType> x = Var("x", Int());
+		final VarDecl<IntType> y = Var("y", Int());
+		assertFalse(check(dir, counter(x, y, And(Leq(x.getRef(), Int(3)), Leq(y.getRef(), Int(1))))));
+
+		// The predicates over y are dropped when loading, the rest of the precision is used
+		final VarDecl<IntType> x2 = Var("x", Int());
+		assertTrue(check(dir, counter(x2, null, Leq(x2.getRef(), Int(3)))));
+	}
+
+	/**
+	 * Check the model with the precision store, and return whether the stored precision was used.
+	 */
+	private static boolean check(final String dir, final XSTS xsts) {
+		final List<String> messages = new ArrayList<>();
+		final Logger logger = new Logger() {
+			@Override
+			public Logger write(final Level level, final String pattern, final Object... objects) {
+				messages.add(String.format(pattern, objects));
+				return this;
+			}
+		};
+		try (XstsConfig<?, ?, ?> config = new XstsConfigBuilder(XstsConfigBuilder.Domain.PRED_CART,
+				XstsConfigBuilder.Refinement.SEQ_ITP, Z3SolverFactory.getInstance())
+				.initPrec(XstsConfigBuilder.InitPrec.EMPTY).precStore(dir, "counter").logger(logger).build(xsts)) {
+			assertTrue(config.check().isSafe());
+		}
+		return messages.stream().anyMatch(message -> message.startsWith(STORE_HIT));
+	}
+
+	// x counts from 0 to 3, y (if present) is set to 1 when x reaches 3
+	private static XSTS counter(final VarDecl<IntType> x, final VarDecl<IntType> y, final Expr<BoolType> prop) {
+		final List<Stmt> tran = new ArrayList<>();
+		tran.add(SequenceStmt(ImmutableList.of(Assume(Lt(x.getRef(), Int(3))), Assign(x, Add(x.getRef(), Int(1))))));
+		Expr<BoolType> initFormula = Eq(x.getRef(), Int(0));
+		if (y != null) {
+			tran.add(SequenceStmt(ImmutableList.of(Assume(Leq(Int(3), x.getRef())), Assign(y, Int(1)))));
+			initFormula = And(initFormula, Eq(y.getRef(), Int(0)));
+		}
+		final NonDetStmt skip = NonDetStmt.of(ImmutableList.of(SequenceStmt(ImmutableList.of())));
+		return new XSTS(ImmutableMap.of(), ImmutableSet.of(), skip, NonDetStmt.of(tran), skip, initFormula, prop);
+	}
+}
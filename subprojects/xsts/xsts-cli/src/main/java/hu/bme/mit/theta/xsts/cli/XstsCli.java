@@ -15,9 +15,11 @@ import hu.bme.mit.theta.common.CliUtils;
 import hu.bme.mit.theta.common.logging.ConsoleLogger;
 import hu.bme.mit.theta.common.logging.Logger;
 import hu.bme.mit.theta.common.logging.NullLogger;
+import hu.bme.mit.theta.common.metrics.Metrics;
 import hu.bme.mit.theta.common.table.BasicTableWriter;
 import hu.bme.mit.theta.common.table.TableWriter;
-import hu.bme.mit.theta.common.visualization.Graph;
+import hu.bme.mit.theta.common.visualization.writer.AbstractGraphWriter;
+import hu.bme.mit.theta.common.visualization.writer.GraphStream;
 import hu.bme.mit.theta.common.visualization.writer.GraphvizWriter;
 import hu.bme.mit.theta.solver.z3.Z3SolverFactory;
 import hu.bme.mit.theta.xsts.XSTS;
@@ -32,6 +34,7 @@ import hu.bme.mit.theta.xsts.dsl.XstsDslManager;
 import hu.bme.mit.theta.xsts.pnml.PnmlParser;
 import hu.bme.mit.theta.xsts.pnml.PnmlToXSTS;
 import hu.bme.mit.theta.xsts.pnml.elements.PnmlNet;
+import jdk.jfr.Recording;
 
 import java.io.*;
 import java.util.concurrent.TimeUnit;
@@ -43,6 +46,9 @@ public class XstsCli {
 	private final String[] args;
 	private final TableWriter writer;
 
+	@Parameter(names = {"--engine"}, description = "Verification engine (the CEGAR options only apply to CEGAR)")
+	Engine engine = Engine.CEGAR;
+
 	@Parameter(names = {"--domain"}, description = "Abstract domain")
 	Domain domain = Domain.PRED_CART;
 
@@ -76,6 +82,12 @@ public class XstsCli {
 	@Parameter(names = "--prunestrategy", description = "Strategy for pruning the ARG after refinement")
 	PruneStrategy pruneStrategy = PruneStrategy.LAZY;
 
+	@Parameter(names = "--abstraction-threads", description = "Number of threads (and solvers) for Cartesian predicate abstraction")
+	Integer abstractionThreads = 1;
+
+	@Parameter(names = "--incremental-abstraction", description = "Keep predicate definitions and enumerated cubes in the solver for Boolean predicate abstraction")
+	boolean incrementalAbstraction = false;
+
 	@Parameter(names = "--optimizestmts", description = "Turn statement optimization on or off")
 	OptimizeStmts optimizeStmts = OptimizeStmts.ON;
 
@@ -94,6 +106,21 @@ public class XstsCli {
 	@Parameter(names = "--metrics", description = "Print metrics about the XSTS without running the algorithm")
 	boolean metrics = false;
 
+	@Parameter(names = "--checkpoint", description = "Save the precision to this file after each refinement")
+	String checkpointFile = null;
+
+	@Parameter(names = "--warmstart", description = "Start from the precision saved in this file (e.g., by --checkpoint) if it exists")
+	String warmStartFile = null;
+
+	@Parameter(names = "--precstore", description = "Extend the initial precision with (and save the refined precision to) the precision store in this directory, models are identified by their path")
+	String precStoreDir = null;
+
+	@Parameter(names = "--metrics-json", description = "Collects counters and timers of the analysis (e.g., solver calls, expanded nodes) and writes them into the given JSON file")
+	File metricsJson = null;
+
+	@Parameter(names = "--jfr", description = "Records the timed sections of the analysis as Java Flight Recorder events into the given file")
+	File jfrFile = null;
+
 	@Parameter(names = "--stacktrace", description = "Print full stack trace in case of exception")
 	boolean stacktrace = false;
 
@@ -148,6 +175,11 @@ public class XstsCli {
 				return;
 			}
 
+			if (metricsJson != null) {
+				Metrics.setEnabled(true);
+			}
+			final Recording recording = jfrFile == null ? null : Metrics.startJfrRecording();
+
 			final XstsConfig<?, ?, ?> configuration = buildConfiguration(xsts);
 			final SafetyResult<?, ?> status = check(configuration);
 			sw.stop();
@@ -158,6 +190,7 @@ public class XstsCli {
 			if (dotfile != null) {
 				writeVisualStatus(status, dotfile);
 			}
+			writeMetrics(recording);
 		} catch (final Throwable ex) {
 			printError(ex);
 			System.exit(1);
@@ -170,6 +203,22 @@ public class XstsCli {
 		} catch (final Exception ex) {
 			String message = ex.getMessage() == null ? "(no message)" : ex.getMessage();
 			throw new Exception("Error while running algorithm: " + ex.getClass().getSimpleName() + " " + message, ex);
+		} finally {
+			configuration.close();
+		}
+	}
+
+	private void writeMetrics(final Recording recording) throws IOException {
+		if (metricsJson != null) {
+			try (final Writer writer = new FileWriter(metricsJson)) {
+				Metrics.writeJson(writer);
+			}
+		}
+		if (recording != null) {
+			Metrics.commitSnapshotEvents();
+			recording.stop();
+			recording.dump(jfrFile.toPath());
+			recording.close();
 		}
 	}
 
@@ -207,13 +256,15 @@ public class XstsCli {
 		if (noStuckCheck) {
 			ArgCexCheckHandler.instance.setArgCexCheck(false, false);
 		} else {
-			ArgCexCheckHandler.instance.setArgCexCheck(true, refinement.equals(Refinement.MULTI_SEQ));
+			ArgCexCheckHandler.instance.setArgCexCheck(true, refinement.equals(Refinement.MULTI_SEQ) || refinement.equals(Refinement.PARALLEL_SEQ));
 		}
 
 		try {
 			return new XstsConfigBuilder(domain, refinement, Z3SolverFactory.getInstance())
-					.maxEnum(maxEnum).autoExpl(autoExpl).initPrec(initPrec).pruneStrategy(pruneStrategy)
-					.search(search).predSplit(predSplit).optimizeStmts(optimizeStmts).logger(logger).build(xsts);
+					.engine(engine).maxEnum(maxEnum).autoExpl(autoExpl).initPrec(initPrec).pruneStrategy(pruneStrategy)
+					.search(search).predSplit(predSplit).optimizeStmts(optimizeStmts).abstractionParallelism(abstractionThreads).incrementalAbstraction(incrementalAbstraction).precCheckpoint(checkpointFile).warmStart(warmStartFile)
+					.precStore(precStoreDir, new File(model).getAbsolutePath())
+					.logger(logger).build(xsts);
 		} catch (final Exception ex) {
 			throw new Exception("Could not create configuration: " + ex.getMessage(), ex);
 		}
@@ -269,10 +320,15 @@ public class XstsCli {
 	}
 
 	private void writeVisualStatus(final SafetyResult<?, ?> status, final String filename)
-			throws FileNotFoundException {
-		final Graph graph = status.isSafe() ? ArgVisualizer.getDefault().visualize(status.asSafe().getArg())
-				: TraceVisualizer.getDefault().visualize(status.asUnsafe().getTrace());
-		GraphvizWriter.getInstance().writeFile(graph, filename);
+			throws IOException {
+		final String graphId = status.isSafe() ? "arg" : "trace";
+		try (GraphStream stream = GraphvizWriter.getInstance().openStream(AbstractGraphWriter.openFile(filename), graphId, "")) {
+			if (status.isSafe()) {
+				ArgVisualizer.getDefault().visualize(status.asSafe().getArg(), stream);
+			} else {
+				TraceVisualizer.getDefault().visualize(status.asUnsafe().getTrace(), stream);
+			}
+		}
 	}
 
 }
@@ -15,10 +15,14 @@
  */
 package hu.bme.mit.theta.xta.analysis;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
 import hu.bme.mit.theta.analysis.LTS;
+import hu.bme.mit.theta.common.metrics.Counter;
+import hu.bme.mit.theta.common.metrics.Metrics;
 import hu.bme.mit.theta.xta.Label;
 import hu.bme.mit.theta.xta.Sync;
-import hu.bme.mit.theta.xta.Sync.Kind;
 import hu.bme.mit.theta.xta.XtaProcess.Edge;
 import hu.bme.mit.theta.xta.XtaProcess.Loc;
 import hu.bme.mit.theta.xta.XtaSystem;
@@ -27,164 +31,153 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
-import static hu.bme.mit.theta.common.Utils.head;
-import static hu.bme.mit.theta.common.Utils.tail;
 import static hu.bme.mit.theta.xta.Sync.Kind.EMIT;
 import static hu.bme.mit.theta.xta.XtaProcess.LocKind.COMMITTED;
-import static java.util.stream.Collectors.toList;
 
+/**
+ * LTS of an {@link XtaSystem}. Receiving edges are looked up in a {@link XtaSyncTable} built
+ * once for the system, and the enabled actions are memoized per location vector in a bounded
+ * cache (the actions only depend on the locations).
+ */
 public final class XtaLts implements LTS<XtaState<?>, XtaAction> {
 
+	private static final int DEFAULT_CACHE_SIZE = 10000;
+
+	private static final Counter cachedActionSets = Metrics.counter("xtaLts.cachedActionSets");
+
 	private final XtaSystem system;
+	private final XtaSyncTable syncTable;
+	private final Cache<List<Loc>, List<XtaAction>> actionCache;
 
-	private XtaLts(final XtaSystem system) {
+	private XtaLts(final XtaSystem system, final int cacheSize) {
 		this.system = checkNotNull(system);
+		this.syncTable = XtaSyncTable.create(system);
+		this.actionCache = CacheBuilder.newBuilder().maximumSize(cacheSize).build();
 	}
 
 	public static XtaLts create(final XtaSystem system) {
-		return new XtaLts(system);
+		return new XtaLts(system, DEFAULT_CACHE_SIZE);
+	}
+
+	/**
+	 * Create an LTS that memoizes the enabled actions for at most the given number of location
+	 * vectors (0 disables memoization).
+	 */
+	public static XtaLts create(final XtaSystem system, final int cacheSize) {
+		checkArgument(cacheSize >= 0, "Cache size must be non-negative.");
+		return new XtaLts(system, cacheSize);
 	}
 
 	@Override
 	public Collection<XtaAction> getEnabledActionsFor(final XtaState<?> state) {
-		final Collection<XtaAction> result = new ArrayList<>();
-		for (final Loc loc : state.getLocs()) {
-			for (final Edge edge : loc.getOutEdges()) {
-				addActionsForEdge(result, system, state, edge);
+		final List<Loc> locs = state.getLocs();
+		final List<XtaAction> cached = actionCache.getIfPresent(locs);
+		if (cached != null) {
+			cachedActionSets.increment();
+			return cached;
+		}
+
+		final ImmutableList.Builder<XtaAction> result = ImmutableList.builder();
+		for (int i = 0; i < locs.size(); i++) {
+			for (final Edge edge : locs.get(i).getOutEdges()) {
+				addActionsForEdge(result, state, i, edge);
 			}
 		}
-		return result;
+		final List<XtaAction> actions = result.build();
+		actionCache.put(locs, actions);
+		return actions;
 	}
 
-	private static void addActionsForEdge(final Collection<XtaAction> result, final XtaSystem system,
-										  final XtaState<?> state, final Edge edge) {
+	private void addActionsForEdge(final ImmutableList.Builder<XtaAction> result, final XtaState<?> state,
+								   final int emitProc, final Edge edge) {
 		if (edge.getSync().isPresent()) {
 			final Sync sync = edge.getSync().get();
 			if (sync.getKind() == EMIT) {
 				if (sync.getLabel().isBroadcast()) {
-					addBroadcastActionsForEdge(result, system, state, edge, sync);
+					addBroadcastActionsForEdge(result, state, emitProc, edge, sync);
 				} else {
-					addBinaryActionsForEdge(result, system, state, edge, sync);
+					addBinaryActionsForEdge(result, state, emitProc, edge, sync);
 				}
 			}
 		} else {
-			addBasicActionsForEdge(result, system, state, edge);
+			addBasicActionsForEdge(result, state, edge);
 		}
 	}
 
-	private static void addBroadcastActionsForEdge(final Collection<XtaAction> result, final XtaSystem system,
-												   final XtaState<?> state, final Edge emitEdge, final Sync emitSync) {
+	private void addBroadcastActionsForEdge(final ImmutableList.Builder<XtaAction> result, final XtaState<?> state,
+											final int emitProc, final Edge emitEdge, final Sync emitSync) {
 		assert emitEdge.getSync().isPresent();
 		assert emitEdge.getSync().get().equals(emitSync);
 		assert emitSync.getKind().equals(EMIT);
 		assert emitSync.getLabel().isBroadcast();
 
-		final Collection<List<Edge>> initialRecvEdgeColls = new ArrayList<>();
-		initialRecvEdgeColls.add(new ArrayList<>());
-		Collection<List<Edge>> recvEdgeColls = recvEdgesForEmitEdge(emitEdge, emitSync, state.getLocs(), initialRecvEdgeColls);
-
-		// filter out all non well-formed actions if the state is committed
-		final Loc emitLoc = emitEdge.getSource();
-		if (state.isCommitted() && emitLoc.getKind() != COMMITTED) {
-			recvEdgeColls = recvEdgeColls.stream().filter(edges ->
-					edges.stream().anyMatch(edge ->
-							edge.getSource().getKind() == COMMITTED)).collect(toList());
-		}
-
-		for (List<Edge> recvEdges : recvEdgeColls) {
-			result.add(XtaAction.broadcast(system, state.getLocs(), emitEdge, recvEdges));
-		}
+		// if the state is committed, only well-formed actions are enabled
+		final boolean needsCommittedRecv = state.isCommitted() && emitEdge.getSource().getKind() != COMMITTED;
+		final int[] recvProcs = syncTable.getRecvProcs(emitSync.getLabel());
+		addBroadcastActions(result, state, emitProc, emitEdge, emitSync.getLabel(), recvProcs, 0,
+				new ArrayList<>(recvProcs.length), needsCommittedRecv);
 	}
 
-	private static Collection<List<Edge>> recvEdgesForEmitEdge(final Edge emitEdge, final Sync emitSync,
-															   final List<Loc> remainingLocs,
-															   final Collection<List<Edge>> accumulator) {
-		assert emitEdge.getSync().isPresent();
-		assert emitEdge.getSync().get().equals(emitSync);
-		assert emitSync.getKind().equals(EMIT);
-		assert emitSync.getLabel().isBroadcast();
-
-		if (remainingLocs.isEmpty()) {
-			return accumulator;
-
-		} else {
-			final Loc emitLoc = emitEdge.getSource();
-			final Loc recvLoc = head(remainingLocs);
-			final List<Loc> newRemainingLocs = tail(remainingLocs);
-
-			final Collection<List<Edge>> newAccumulator;
-
-			if (emitLoc.equals(recvLoc)) {
-				newAccumulator = accumulator;
-
-			} else {
-				newAccumulator = new ArrayList<>();
-
-				for (List<Edge> recvEdges : accumulator) {
-					// add all receiving edges to the result set
-					for (Edge recvEdge : recvLoc.getOutEdges()) {
-						if (recvEdge.getSync().isPresent()) {
-							final Sync recvSync = recvEdge.getSync().get();
-							if (recvSync.mayReceive(emitSync)) {
-								final List<Edge> newRecvEdges = new ArrayList<>(recvEdges);
-								newRecvEdges.add(recvEdge);
-								newAccumulator.add(newRecvEdges);
-							}
-						}
-					}
-
-					// include the case when none of the syncronizing edges can fire
-					newAccumulator.add(recvEdges);
-				}
+	/**
+	 * Enumerate the combinations of receiving edges in the processes recvProcs[index...] (each
+	 * process either receives on one of its edges or does not receive) in a single mutable list.
+	 */
+	private void addBroadcastActions(final ImmutableList.Builder<XtaAction> result, final XtaState<?> state,
+									 final int emitProc, final Edge emitEdge, final Label label,
+									 final int[] recvProcs, final int index, final List<Edge> recvEdges,
+									 final boolean needsCommittedRecv) {
+		if (index == recvProcs.length) {
+			if (!needsCommittedRecv) {
+				result.add(XtaAction.broadcast(system, state.getLocs(), emitEdge, recvEdges));
 			}
+			return;
+		}
 
-			return recvEdgesForEmitEdge(emitEdge, emitSync, newRemainingLocs, newAccumulator);
+		final int recvProc = recvProcs[index];
+		if (recvProc != emitProc) {
+			final Loc recvLoc = state.getLocs().get(recvProc);
+			final boolean committedRecv = recvLoc.getKind() == COMMITTED;
+			for (final Edge recvEdge : syncTable.getRecvEdges(recvLoc, label)) {
+				recvEdges.add(recvEdge);
+				addBroadcastActions(result, state, emitProc, emitEdge, label, recvProcs, index + 1, recvEdges,
+						needsCommittedRecv && !committedRecv);
+				recvEdges.remove(recvEdges.size() - 1);
+			}
 		}
+		// include the case when none of the syncronizing edges can fire
+		addBroadcastActions(result, state, emitProc, emitEdge, label, recvProcs, index + 1, recvEdges,
+				needsCommittedRecv);
 	}
 
-
-	private static void addBinaryActionsForEdge(final Collection<XtaAction> result, final XtaSystem system,
-												final XtaState<?> state, final Edge emitEdge, final Sync emitSync) {
+	private void addBinaryActionsForEdge(final ImmutableList.Builder<XtaAction> result, final XtaState<?> state,
+										 final int emitProc, final Edge emitEdge, final Sync emitSync) {
 		assert emitEdge.getSync().isPresent();
 		assert emitEdge.getSync().get().equals(emitSync);
 		assert emitSync.getKind().equals(EMIT);
 		assert !emitSync.getLabel().isBroadcast();
 
 		final Loc emitLoc = emitEdge.getSource();
-		final Label emitLabel = emitSync.getLabel();
 
-		for (final Loc recvLoc : state.getLocs()) {
-			if (recvLoc == emitLoc) {
+		for (final int recvProc : syncTable.getRecvProcs(emitSync.getLabel())) {
+			if (recvProc == emitProc) {
 				continue;
 			}
 
+			final Loc recvLoc = state.getLocs().get(recvProc);
 			if (state.isCommitted() && emitLoc.getKind() != COMMITTED && recvLoc.getKind() != COMMITTED) {
 				continue;
 			}
 
-			for (final Edge recvEdge : recvLoc.getOutEdges()) {
-				if (!recvEdge.getSync().isPresent()) {
-					continue;
-				}
-
-				final Sync recvSync = recvEdge.getSync().get();
-				if (recvSync.getKind() != Kind.RECV) {
-					continue;
-				}
-
-				final Label recvLabel = recvSync.getLabel();
-
-				if (emitLabel.equals(recvLabel)) {
-					final XtaAction action = XtaAction.binary(system, state.getLocs(), emitEdge, recvEdge);
-					result.add(action);
-				}
+			for (final Edge recvEdge : syncTable.getRecvEdges(recvLoc, emitSync.getLabel())) {
+				result.add(XtaAction.binary(system, state.getLocs(), emitEdge, recvEdge));
 			}
 		}
 	}
 
-	private static void addBasicActionsForEdge(final Collection<XtaAction> result, final XtaSystem system,
-											   final XtaState<?> state, final Edge edge) {
+	private void addBasicActionsForEdge(final ImmutableList.Builder<XtaAction> result, final XtaState<?> state,
+										final Edge edge) {
 		final Loc loc = edge.getSource();
 		if (state.isCommitted() && loc.getKind() != COMMITTED) {
 			return;
@@ -0,0 +1,99 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.xta.analysis;
+
+import com.google.common.collect.ImmutableList;
+import hu.bme.mit.theta.xta.Label;
+import hu.bme.mit.theta.xta.Sync;
+import hu.bme.mit.theta.xta.XtaProcess;
+import hu.bme.mit.theta.xta.XtaProcess.Edge;
+import hu.bme.mit.theta.xta.XtaProcess.Loc;
+import hu.bme.mit.theta.xta.XtaSystem;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static hu.bme.mit.theta.xta.Sync.Kind.RECV;
+
+/**
+ * Synchronization table of an {@link XtaSystem}, built once: for each channel, the processes
+ * that have receiving edges on it, and for each location, its receiving edges by channel.
+ * The system must not be modified after the table is created.
+ */
+final class XtaSyncTable {
+
+	private static final int[] NO_PROCS = new int[0];
+
+	private final Map<Label, int[]> recvProcs;
+	private final Map<Loc, Map<Label, List<Edge>>> recvEdges;
+
+	private XtaSyncTable(final XtaSystem system) {
+		final Map<Label, Set<Integer>> recvProcSets = new HashMap<>();
+		recvEdges = new HashMap<>();
+
+		final List<XtaProcess> processes = system.getProcesses();
+		for (int i = 0; i < processes.size(); i++) {
+			for (final Loc loc : processes.get(i).getLocs()) {
+				final Map<Label, List<Edge>> edgesOfLoc = new LinkedHashMap<>();
+				for (final Edge edge : loc.getOutEdges()) {
+					if (edge.getSync().isPresent()) {
+						final Sync sync = edge.getSync().get();
+						if (sync.getKind() == RECV) {
+							edgesOfLoc.computeIfAbsent(sync.getLabel(), l -> new ArrayList<>()).add(edge);
+							recvProcSets.computeIfAbsent(sync.getLabel(), l -> new TreeSet<>()).add(i);
+						}
+					}
+				}
+				if (!edgesOfLoc.isEmpty()) {
+					edgesOfLoc.replaceAll((label, edges) -> ImmutableList.copyOf(edges));
+					recvEdges.put(loc, edgesOfLoc);
+				}
+			}
+		}
+
+		recvProcs = new HashMap<>();
+		recvProcSets.forEach((label, procs) -> recvProcs.put(label, procs.stream().mapToInt(Integer::intValue).toArray()));
+	}
+
+	static XtaSyncTable create(final XtaSystem system) {
+		return new XtaSyncTable(system);
+	}
+
+	/**
+	 * Get the indices (in increasing order) of the processes that have an edge receiving on
+	 * the given channel. The returned array must not be modified.
+	 */
+	int[] getRecvProcs(final Label label) {
+		return recvProcs.getOrDefault(label, NO_PROCS);
+	}
+
+	/**
+	 * Get the out edges of a location receiving on the given channel.
+	 */
+	List<Edge> getRecvEdges(final Loc loc, final Label label) {
+		final Map<Label, List<Edge>> edgesOfLoc = recvEdges.get(loc);
+		if (edgesOfLoc == null) {
+			return Collections.emptyList();
+		}
+		return edgesOfLoc.getOrDefault(label, Collections.emptyList());
+	}
+}
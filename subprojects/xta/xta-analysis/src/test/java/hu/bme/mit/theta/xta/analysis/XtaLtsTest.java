@@ -0,0 +1,94 @@
+/*
+ *  Copyright 2022 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.xta.analysis;
+
+import com.google.common.collect.ImmutableList;
+import hu.bme.mit.theta.analysis.unit.UnitState;
+import hu.bme.mit.theta.xta.Label;
+import hu.bme.mit.theta.xta.Sync;
+import hu.bme.mit.theta.xta.XtaProcess;
+import hu.bme.mit.theta.xta.XtaProcess.Loc;
+import hu.bme.mit.theta.xta.XtaSystem;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import static hu.bme.mit.theta.xta.XtaProcess.LocKind.COMMITTED;
+import static hu.bme.mit.theta.xta.XtaProcess.LocKind.NORMAL;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class XtaLtsTest {
+
+	private final XtaSystem system = XtaSystem.create();
+	private final Label bcast = Label.of("b", ImmutableList.of(), true);
+	private final Label chan = Label.of("c", ImmutableList.of(), false);
+	private final List<Loc> locs = new ArrayList<>();
+	private final List<Loc> committedLocs;
+
+	public XtaLtsTest() {
+		// P0 emits on both channels, P1 and P2 receive on both channels, P3 may be in a committed location
+		Loc committed = null;
+		for (int i = 0; i < 4; i++) {
+			final XtaProcess process = system.createProcess("P" + i);
+			final Loc loc = process.createLoc("l" + i, NORMAL, ImmutableList.of());
+			process.setInitLoc(loc);
+			locs.add(loc);
+			if (i == 0) {
+				process.createEdge(loc, loc, ImmutableList.of(), Optional.of(Sync.emit(bcast, ImmutableList.of())), ImmutableList.of());
+				process.createEdge(loc, loc, ImmutableList.of(), Optional.of(Sync.emit(chan, ImmutableList.of())), ImmutableList.of());
+			} else if (i < 3) {
+				process.createEdge(loc, loc, ImmutableList.of(), Optional.of(Sync.recv(bcast, ImmutableList.of())), ImmutableList.of());
+				process.createEdge(loc, loc, ImmutableList.of(), Optional.of(Sync.recv(chan, ImmutableList.of())), ImmutableList.of());
+			} else {
+				committed = process.createLoc("c" + i, COMMITTED, ImmutableList.of());
+				process.createEdge(committed, loc, ImmutableList.of(), Optional.empty(), ImmutableList.of());
+			}
+		}
+		committedLocs = ImmutableList.of(locs.get(0), locs.get(1), locs.get(2), committed);
+	}
+
+	@Test
+	public void testNonCommitted() {
+		final XtaState<UnitState> state = XtaState.of(locs, UnitState.getInstance());
+		final Collection<XtaAction> actions = XtaLts.create(system).getEnabledActionsFor(state);
+		// 4 receiver combinations for the broadcast and 2 binary synchronizations
+		assertEquals(4, actions.stream().filter(XtaAction::isBroadcast).count());
+		assertEquals(2, actions.stream().filter(XtaAction::isBinary).count());
+		assertEquals(6, actions.size());
+	}
+
+	@Test
+	public void testCommitted() {
+		final XtaState<UnitState> state = XtaState.of(committedLocs, UnitState.getInstance());
+		final Collection<XtaAction> actions = XtaLts.create(system).getEnabledActionsFor(state);
+		// only the edge of the committed location is enabled
+		assertEquals(1, actions.size());
+		assertTrue(actions.iterator().next().isBasic());
+	}
+
+	@Test
+	public void testMemoized() {
+		final XtaLts lts = XtaLts.create(system);
+		final Collection<XtaAction> actions1 = lts.getEnabledActionsFor(XtaState.of(locs, UnitState.getInstance()));
+		final Collection<XtaAction> actions2 = lts.getEnabledActionsFor(XtaState.of(locs, UnitState.getInstance()));
+		assertSame(actions1, actions2);
+	}
+}
@@ -31,7 +31,8 @@ import hu.bme.mit.theta.common.CliUtils;
 import hu.bme.mit.theta.common.logging.Logger;
 import hu.bme.mit.theta.common.table.BasicTableWriter;
 import hu.bme.mit.theta.common.table.TableWriter;
-import hu.bme.mit.theta.common.visualization.Graph;
+import hu.bme.mit.theta.common.visualization.writer.AbstractGraphWriter;
+import hu.bme.mit.theta.common.visualization.writer.GraphStream;
 import hu.bme.mit.theta.common.visualization.writer.GraphvizWriter;
 import hu.bme.mit.theta.xta.XtaSystem;
 import hu.bme.mit.theta.xta.analysis.lazy.ClockStrategy;
@@ -164,10 +165,15 @@ public final class XtaCli {
 	}
 
 	private void writeVisualStatus(final SafetyResult<?, ?> status, final String filename)
-			throws FileNotFoundException {
-		final Graph graph = status.isSafe() ? ArgVisualizer.getDefault().visualize(status.asSafe().getArg())
-				: TraceVisualizer.getDefault().visualize(status.asUnsafe().getTrace());
-		GraphvizWriter.getInstance().writeFile(graph, filename);
+			throws IOException {
+		final String graphId = status.isSafe() ? "arg" : "trace";
+		try (GraphStream stream = GraphvizWriter.getInstance().openStream(AbstractGraphWriter.openFile(filename), graphId, "")) {
+			if (status.isSafe()) {
+				ArgVisualizer.getDefault().visualize(status.asSafe().getArg(), stream);
+			} else {
+				TraceVisualizer.getDefault().visualize(status.asUnsafe().getTrace(), stream);
+			}
+		}
 	}
 
 }